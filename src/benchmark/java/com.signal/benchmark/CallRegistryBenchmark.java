@@ -0,0 +1,127 @@
+package com.signal.benchmark;
+
+import com.signal.registry.CallRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import javax.sip.Dialog;
+import javax.sip.ServerTransaction;
+import javax.sip.Transaction;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class public class CallRegistryBenchmark
+ * @brief 호 등록 관리 객체의 경합 성능을 측정하는 벤치마크
+ * 동기화된 HashMap(기존 방식에 잠금만 추가한 경우)과 CallRegistry 를 같은 작업량으로 비교한다.
+ * 실행: mvn -P benchmark compile exec:exec -Dbenchmark=CallRegistry -Dbenchmark.args="-t 8"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(Threads.MAX)
+public class CallRegistryBenchmark {
+    /* 미리 만들어 둘 호 개수 */
+    private static final int CALL_COUNT = 4096;
+
+    /**
+     * @class public static class Calls
+     * @brief 벤치마크에서 공유하는 호 정보와 저장소
+     */
+    @State(Scope.Benchmark)
+    public static class Calls {
+        String[] callIds = new String[CALL_COUNT];
+        ServerTransaction[] transactions = new ServerTransaction[CALL_COUNT];
+        Dialog[] dialogs = new Dialog[CALL_COUNT];
+        CallRegistry callRegistry;
+        Map<String, Transaction> lockedTransactionMap;
+        Map<String, Dialog> lockedDialogMap;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            for (int i = 0; i < CALL_COUNT; i++) {
+                callIds[i] = "bench-" + i + "@127.0.0.1";
+                transactions[i] = SipStubs.newServerTransaction(SipStubs.newRequest("INVITE", callIds[i]));
+                dialogs[i] = SipStubs.newDialog();
+            }
+            callRegistry = new CallRegistry();
+            lockedTransactionMap = Collections.synchronizedMap(new HashMap<String, Transaction>());
+            lockedDialogMap = Collections.synchronizedMap(new HashMap<String, Dialog>());
+        }
+    }
+
+    /**
+     * @class public static class Cursor
+     * @brief 쓰레드별로 처리할 호 위치
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int index;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            index = (int) (Thread.currentThread().getId() * 7919) & (CALL_COUNT - 1);
+        }
+
+        int next() {
+            index = (index + 1) & (CALL_COUNT - 1);
+            return index;
+        }
+    }
+
+    /**
+     * @fn public boolean registryInviteLifecycle(final Calls calls, final Cursor cursor)
+     * @brief INVITE 처리 시 발생하는 등록/검사/삭제 순서를 CallRegistry 로 수행
+     */
+    @Benchmark
+    public boolean registryInviteLifecycle(final Calls calls, final Cursor cursor) {
+        int i = cursor.next();
+        String callId = calls.callIds[i];
+        CallRegistry callRegistry = calls.callRegistry;
+
+        boolean added = callRegistry.addTransactionIfAbsent(callId, calls.transactions[i]);
+        if (added) {
+            callRegistry.removeTransaction(callId, calls.transactions[i]);
+            callRegistry.addDialog(callId, calls.dialogs[i]);
+        }
+        boolean found = callRegistry.findDialog(callId);
+        callRegistry.removeDialog(callId);
+        return found;
+    }
+
+    /**
+     * @fn public boolean lockedMapInviteLifecycle(final Calls calls, final Cursor cursor)
+     * @brief 같은 순서를 전역 잠금을 사용하는 HashMap 으로 수행 (비교 기준)
+     */
+    @Benchmark
+    public boolean lockedMapInviteLifecycle(final Calls calls, final Cursor cursor) {
+        int i = cursor.next();
+        String callId = calls.callIds[i];
+
+        boolean added;
+        synchronized (calls.lockedTransactionMap) {
+            Transaction old = calls.lockedTransactionMap.get(callId);
+            added = old == null;
+            if (added) calls.lockedTransactionMap.put(callId, calls.transactions[i]);
+        }
+        if (added) {
+            calls.lockedTransactionMap.remove(callId);
+            calls.lockedDialogMap.put(callId, calls.dialogs[i]);
+        }
+        boolean found = calls.lockedDialogMap.containsKey(callId);
+        calls.lockedDialogMap.remove(callId);
+        return found;
+    }
+
+    /**
+     * @fn public int registryDialogCount(final Calls calls)
+     * @brief 수락 제어에서 사용하는 다이얼로그 개수 조회 비용
+     */
+    @Benchmark
+    public int registryDialogCount(final Calls calls) {
+        return calls.callRegistry.getDialogCount();
+    }
+}
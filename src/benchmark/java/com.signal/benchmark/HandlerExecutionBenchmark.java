@@ -0,0 +1,113 @@
+package com.signal.benchmark;
+
+import com.signal.handler.Bulkhead;
+import com.signal.handler.BulkheadConfig;
+import com.signal.handler.ExecutionMode;
+import com.signal.handler.VirtualThreadDispatcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class public class HandlerExecutionBenchmark
+ * @brief 요청 처리기 실행 방식(PLATFORM, VIRTUAL)별로 동시 호가 많을 때 모든 호의 처리기를 끝내는 시간을 측정하는 벤치마크
+ * 호마다 Call-ID 가 다르고, 처리기 두 개(INVITE, BYE)를 순서대로 실행한다. 처리기는 1ms 동안 쓰레드를 붙잡는다. (응답 지연, 외부 조회, CDR 기록 등)
+ * PLATFORM 은 high-throughput 프로파일처럼 고정된 작업 쓰레드(Bulkhead)에서, VIRTUAL 은 Call-ID 별 가상 쓰레드(VirtualThreadDispatcher)에서 처리한다.
+ *
+ * 실행 : mvn -P benchmark compile exec:exec -Dbenchmark=HandlerExecution -Dbenchmark.args="-p concurrency=1000,10000"
+ *
+ * VIRTUAL 은 JDK 21 이상에서만 측정할 수 있다. (그 미만이면 Setup 에서 실패)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Dlogback.configurationFile=logback-benchmark.xml"})
+@State(Scope.Benchmark)
+public class HandlerExecutionBenchmark {
+    /* 호당 처리기 수 (INVITE, BYE) */
+    private static final int HANDLERS_PER_CALL = 2;
+    /* 처리기가 쓰레드를 붙잡는 시간 (ms) */
+    private static final long HANDLER_BLOCKING_TIME = 1;
+    /* 처리기 완료 최대 대기 시간 (ms) */
+    private static final long COMPLETION_TIMEOUT = 60000;
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public ExecutionMode mode;
+
+    /* 동시 호 수 */
+    @Param({"1000", "10000"})
+    public int concurrency;
+
+    /* PLATFORM 작업 쓰레드 수 */
+    @Param({"32"})
+    public int platformThreads;
+
+    private Bulkhead bulkhead;
+    private String[] callIds;
+
+    /**
+     * @fn public void setUp()
+     * @brief 실행 방식에 맞게 Bulkhead 또는 가상 쓰레드 실행기를 준비함 (대기열은 동시 처리기 수보다 크게 잡아서 거절 없음)
+     * 처리기가 latch 를 내린 후에 작업 수를 줄이므로 이전 반복의 작업이 잠시 남아 있을 수 있어서 두 배로 잡는다.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        callIds = new String[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            callIds[i] = "bench-" + i + "@127.0.0.1";
+        }
+
+        int maxPending = concurrency * HANDLERS_PER_CALL * 2;
+        if (mode == ExecutionMode.VIRTUAL) {
+            if (!VirtualThreadDispatcher.isSupported()) {
+                throw new IllegalStateException("Virtual threads are not supported on Java " + System.getProperty("java.version") + " (JDK 21 or later)");
+            }
+            VirtualThreadDispatcher.getInstance().configure(ExecutionMode.VIRTUAL, maxPending);
+        } else {
+            bulkhead = new Bulkhead(new BulkheadConfig("bench", Collections.singletonList("INVITE"), platformThreads, maxPending));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (bulkhead != null) bulkhead.shutdown();
+        VirtualThreadDispatcher.getInstance().configure(ExecutionMode.PLATFORM, VirtualThreadDispatcher.DEFAULT_MAX_PENDING);
+    }
+
+    /**
+     * @fn public void handleConcurrentCalls()
+     * @brief 동시 호의 처리기를 모두 넘기고 끝날 때까지 기다림
+     */
+    @Benchmark
+    public void handleConcurrentCalls() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(concurrency * HANDLERS_PER_CALL);
+        Runnable handler = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(HANDLER_BLOCKING_TIME);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    latch.countDown();
+                }
+            }
+        };
+
+        for (int i = 0; i < HANDLERS_PER_CALL; i++) {
+            for (String callId : callIds) {
+                boolean isDispatched = mode == ExecutionMode.VIRTUAL
+                        ? VirtualThreadDispatcher.getInstance().dispatch(callId, handler)
+                        : bulkhead.dispatch(callId, handler);
+                if (!isDispatched) throw new IllegalStateException("Handler is rejected (Call-ID:" + callId + ")");
+            }
+        }
+
+        if (!latch.await(COMPLETION_TIMEOUT, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("Handlers are not completed (Remaining:" + latch.getCount() + ")");
+        }
+    }
+}
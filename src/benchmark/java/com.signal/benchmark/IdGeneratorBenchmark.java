@@ -0,0 +1,151 @@
+package com.signal.benchmark;
+
+import com.signal.id.IdGenerator;
+import gov.nist.javax.sip.Utils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class public class IdGeneratorBenchmark
+ * @brief 기존 makeTag() 및 NIST Utils 와 IdGenerator 의 식별자 생성 처리량을 비교하는 벤치마크
+ * 경합 확인: mvn -P benchmark compile exec:exec -Dbenchmark=IdGenerator -Dbenchmark.args="-t 8"
+ *
+ * 측정 전에 여러 쓰레드에서 식별자를 대량 생성해서 길이가 고정되어 있고 중복이 없는지 확인한다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdGeneratorBenchmark {
+    /* 중복 확인에 사용하는 쓰레드 수 */
+    private static final int VERIFY_THREADS = 8;
+    /* 중복 확인 시 쓰레드당 식별자 개수 */
+    private static final int VERIFY_COUNT_PER_THREAD = 125000;
+    /* 기존 makeTag() 의 최대 문자열 길이 */
+    private static final int MAX_TAG_NUMBER = 256;
+
+    /**
+     * @fn public void verify()
+     * @brief Tag/Branch ID/Call-ID 의 고정 길이와 중복 여부 확인
+     */
+    @Setup(Level.Trial)
+    public void verify() throws InterruptedException {
+        final IdGenerator idGenerator = IdGenerator.getInstance();
+        final ConcurrentHashMap<String, Boolean> ids = new ConcurrentHashMap<>(VERIFY_THREADS * VERIFY_COUNT_PER_THREAD * 4);
+        final int tagLength = idGenerator.newTag().length();
+        final int branchLength = idGenerator.newBranchId().length();
+        final int callIdLength = idGenerator.newCallId("127.0.0.1").length();
+        final CountDownLatch latch = new CountDownLatch(VERIFY_THREADS);
+        final RuntimeException[] failure = new RuntimeException[1];
+
+        for (int t = 0; t < VERIFY_THREADS; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < VERIFY_COUNT_PER_THREAD; i++) {
+                            check(ids, idGenerator.newTag(), tagLength);
+                            check(ids, idGenerator.newBranchId(), branchLength);
+                            check(ids, idGenerator.newCallId("127.0.0.1"), callIdLength);
+                        }
+                    } catch (RuntimeException e) {
+                        failure[0] = e;
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            }).start();
+        }
+        latch.await();
+
+        if (failure[0] != null) throw failure[0];
+    }
+
+    private static void check(final ConcurrentHashMap<String, Boolean> ids, final String id, int length) {
+        if (id.length() != length) {
+            throw new IllegalStateException("Identifier length is not fixed : " + id);
+        }
+        if (ids.putIfAbsent(id, Boolean.TRUE) != null) {
+            throw new IllegalStateException("Duplicated identifier : " + id);
+        }
+    }
+
+    /**
+     * @fn public String legacyMakeTag()
+     * @brief 기존 방식 : 호출마다 Random 생성, 0 ~ 255 자 가변 길이
+     */
+    @Benchmark
+    public String legacyMakeTag() {
+        StringBuilder tag = new StringBuilder();
+        Random random = new Random();
+
+        int tagNumber = random.nextInt(MAX_TAG_NUMBER);
+
+        for (int i = 0; i < tagNumber; i++) {
+            switch (random.nextInt(3)) {
+                case 0: // a-z
+                    tag.append((char) (random.nextInt(26) + 97));
+                    break;
+                case 1: // A-Z
+                    tag.append((char) (random.nextInt(26) + 65));
+                    break;
+                case 2: // 0-9
+                    tag.append((random.nextInt(10)));
+                    break;
+            }
+        }
+
+        return tag.toString();
+    }
+
+    /**
+     * @fn public String nistTag()
+     * @brief NIST SIP Stack 의 Tag 생성
+     */
+    @Benchmark
+    public String nistTag() {
+        return Utils.getInstance().generateTag();
+    }
+
+    /**
+     * @fn public String nistBranchId()
+     * @brief NIST SIP Stack 의 Branch ID 생성 (Via Branch 를 지정하지 않은 경우)
+     */
+    @Benchmark
+    public String nistBranchId() {
+        return Utils.getInstance().generateBranchId();
+    }
+
+    /**
+     * @fn public String newTag()
+     * @brief IdGenerator Tag 생성
+     */
+    @Benchmark
+    public String newTag() {
+        return IdGenerator.getInstance().newTag();
+    }
+
+    /**
+     * @fn public String newBranchId()
+     * @brief IdGenerator Branch ID 생성
+     */
+    @Benchmark
+    public String newBranchId() {
+        return IdGenerator.getInstance().newBranchId();
+    }
+
+    /**
+     * @fn public String newCallId()
+     * @brief IdGenerator Call-ID 생성
+     */
+    @Benchmark
+    public String newCallId() {
+        return IdGenerator.getInstance().newCallId("127.0.0.1");
+    }
+}
@@ -0,0 +1,203 @@
+package com.signal.benchmark;
+
+import com.signal.answer.InviteAnswerPipeline;
+import com.signal.control.AdmissionController;
+import com.signal.control.CapacityPolicy;
+import com.signal.control.OverloadController;
+import com.signal.logic.CallEventListener;
+import com.signal.logic.RequestManager;
+import com.signal.logic.SipCall;
+import com.signal.metrics.LatencyHistogram;
+import com.signal.shard.SipShardGroup;
+import com.signal.trace.MessageTracer;
+import com.signal.transport.TransportConfig;
+import org.openjdk.jmh.annotations.*;
+
+import javax.sip.Dialog;
+import javax.sip.message.Response;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class public class OverloadStormBenchmark
+ * @brief 새 호가 몰릴 때 과부하 제어 사용 여부에 따른 수락된 호의 설정 지연을 측정하는 벤치마크
+ * 많은 발신 쓰레드가 503 을 받으면 기다리지 않고 바로 다시 발신하는 재시도 폭주(storm)를 Loopback UDP 로 만든다.
+ * 과부하 제어를 켜면 넘치는 Invite 는 서버 트랜잭션 없이 503 으로 바로 거절되므로, 수락된 호의 설정 지연(Invite ~ 200 OK)이 작업 대기열 길이에 따라 늘어나지 않는다.
+ *
+ * 실행 : mvn -P benchmark compile exec:exec -Dbenchmark=OverloadStorm
+ *
+ * 처리량은 수락된 호와 거절된 호를 합한 값이고, 수락/거절 수는 AuxCounters (admitted, rejected) 로 따로 보여준다.
+ * 수락된 호의 설정 지연 백분위는 iteration 마다 표준 출력으로 보여준다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Threads(64)
+@Fork(value = 1, jvmArgsAppend = {"-Dlogback.configurationFile=logback-benchmark.xml", "-Djmh.shutdownTimeout=1", "-Djmh.shutdownTimeout.step=1"})
+@State(Scope.Benchmark)
+public class OverloadStormBenchmark {
+    /* 착신 측 포트 */
+    private static final int UAS_PORT = 15060;
+    /* 발신 측 포트 */
+    private static final int UAC_PORT = 15070;
+    /* 상대방 URI */
+    private static final String TO_URI = "jamesj@127.0.0.1";
+    /* 응답 최대 대기 시간 (ms) */
+    private static final long RESPONSE_TIMEOUT = 10000;
+
+    @Param({"false", "true"})
+    public boolean overload;
+
+    private SipShardGroup uas;
+    private SipShardGroup uac;
+    /* 수락된 호의 설정 지연 (Invite ~ 200 OK) */
+    private final LatencyHistogram setupTime = new LatencyHistogram();
+    /* 응답을 기다리는 호 (Call-ID 별) */
+    private final ConcurrentHashMap<String, PendingCall> pendingCalls = new ConcurrentHashMap<>();
+
+    /**
+     * @fn public void setUp()
+     * @brief 착신 측과 발신 측을 띄우고 과부하 제어를 설정함 (착신 측 작업 쓰레드 하나, 대기열은 기본 크기)
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        AdmissionController.getInstance().configure(Integer.MAX_VALUE / 2, CapacityPolicy.SERVICE_UNAVAILABLE,
+                AdmissionController.DEFAULT_RETRY_AFTER, AdmissionController.DEFAULT_QUEUE_SIZE, AdmissionController.DEFAULT_QUEUE_TIMEOUT);
+        InviteAnswerPipeline.getInstance().configure(InviteAnswerPipeline.DEFAULT_THREAD_COUNT, 0, false, true);
+        MessageTracer.getInstance().configure(0, MessageTracer.DEFAULT_BUFFER_SIZE);
+        // 발신 측은 한 주소이므로 송신 주소별 제한은 끄고 전체 제한과 부하 신호만 사용한다.
+        OverloadController.getInstance().configure(overload, 200, 20, 0, OverloadController.DEFAULT_SOURCE_BURST, 20,
+                OverloadController.DEFAULT_MAX_SOURCES, 16, 10, 1);
+
+        uas = new SipShardGroup("jamesj", "127.0.0.1", "BENCH_UAS", 1, 0,
+                new TransportConfig("udp", UAS_PORT, 1, TransportConfig.DEFAULT_QUEUE_SIZE));
+        uac = new SipShardGroup("myself", "127.0.0.1", "BENCH_UAC", 1, 0,
+                new TransportConfig("udp", UAC_PORT, 1, TransportConfig.DEFAULT_QUEUE_SIZE));
+        uac.setExitOnByeResponse(false);
+        uac.setCallEventListener(new CallEventListener() {
+            @Override
+            public void onInviteAnswered(final String callId, final Dialog dialog) {
+                PendingCall pendingCall = pendingCalls.get(callId);
+                if (pendingCall != null) pendingCall.complete(dialog, Response.OK);
+            }
+
+            @Override
+            public void onInviteFailed(final String callId, int statusCode) {
+                PendingCall pendingCall = pendingCalls.get(callId);
+                if (pendingCall != null) pendingCall.complete(null, statusCode);
+            }
+
+            @Override
+            public void onByeCompleted(final String callId, int statusCode) {
+                PendingCall pendingCall = pendingCalls.get(callId);
+                if (pendingCall != null) pendingCall.complete(null, statusCode);
+            }
+        });
+    }
+
+    /**
+     * @fn public void printSetupTime()
+     * @brief iteration 동안 수락된 호의 설정 지연 백분위를 출력하고 초기화함
+     */
+    @TearDown(Level.Iteration)
+    public void printSetupTime() {
+        OverloadController overloadController = OverloadController.getInstance();
+        System.out.printf("%n[overload=%s] admitted setup time (ms) : count=%d, p50=%.3f, p99=%.3f, p99.9=%.3f, max=%.3f (rate=%.0f, latency=%dus)%n",
+                overload, setupTime.getCount(), toMillis(setupTime.percentile(50)), toMillis(setupTime.percentile(99)),
+                toMillis(setupTime.percentile(99.9)), toMillis(setupTime.getMax()), overloadController.getCurrentRate(), overloadController.getLatencyMicros());
+        setupTime.reset();
+    }
+
+    /**
+     * @fn public void tearDown()
+     * @brief 발신 측과 착신 측 중지, 과부하 제어 끄기
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        uac.stop();
+        uas.stop();
+        OverloadController.getInstance().setEnabled(false);
+    }
+
+    /**
+     * @fn public int call(final CallCounters counters)
+     * @brief 호 하나를 발신하고, 수락되면 설정 지연을 기록한 후 Bye 를 보내서 200 OK 까지 기다림 (503 이면 바로 반환)
+     */
+    @Benchmark
+    public int call(final CallCounters counters) throws InterruptedException {
+        String callId = uac.newCallId();
+        SipCall sipCall = uac.getShard(0);
+
+        PendingCall invite = new PendingCall();
+        pendingCalls.put(callId, invite);
+        try {
+            long startTime = System.nanoTime();
+            if (RequestManager.getInstance().requestInvite(sipCall, TO_URI, UAS_PORT, "udp", callId) == null) {
+                throw new IllegalStateException("Fail to send Invite");
+            }
+            invite.await(callId);
+            if (invite.statusCode == Response.SERVICE_UNAVAILABLE) {
+                counters.rejected++;
+                return invite.statusCode;
+            }
+            if (invite.statusCode != Response.OK) throw new IllegalStateException("Invite is failed : " + invite.statusCode);
+            setupTime.record(System.nanoTime() - startTime);
+            counters.admitted++;
+
+            PendingCall bye = new PendingCall();
+            pendingCalls.put(callId, bye);
+            if (!RequestManager.getInstance().requestBye(sipCall, invite.dialog)) {
+                throw new IllegalStateException("Fail to send Bye");
+            }
+            bye.await(callId);
+            return bye.statusCode;
+        } finally {
+            pendingCalls.remove(callId);
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    /**
+     * @class public static class CallCounters
+     * @brief 쓰레드별 수락/거절 호 수 (JMH 가 iteration 마다 합산해서 보여줌)
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class CallCounters {
+        public long admitted;
+        public long rejected;
+
+        @Setup(Level.Iteration)
+        public void clean() {
+            admitted = 0;
+            rejected = 0;
+        }
+    }
+
+    /**
+     * @class private static class PendingCall
+     * @brief 요청 하나의 최종 결과를 기다리는 객체
+     */
+    private static class PendingCall {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile Dialog dialog;
+        private volatile int statusCode;
+
+        void complete(final Dialog dialog, int statusCode) {
+            this.dialog = dialog;
+            this.statusCode = statusCode;
+            latch.countDown();
+        }
+
+        void await(final String callId) throws InterruptedException {
+            if (!latch.await(RESPONSE_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Response timeout (Call-ID:" + callId + ")");
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.signal.benchmark;
+
+import com.signal.logic.SipCall;
+import com.signal.sdp.SdpTemplate;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class public class SdpTemplateBenchmark
+ * @brief 기존 문자열 연결 방식의 makeSdp() 와 미리 컴파일된 SDP 템플릿을 비교하는 벤치마크
+ * 할당량 비교: mvn -P benchmark compile exec:exec -Dbenchmark=SdpTemplate -Dbenchmark.args="-prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SdpTemplateBenchmark {
+    /* 호마다 바뀌는 Session Version */
+    private long sessionVersion = 3217;
+
+    /**
+     * @fn public void verify()
+     * @brief 템플릿 결과가 기존 makeSdp() 결과와 같은지 확인
+     */
+    @Setup(Level.Trial)
+    public void verify() {
+        if (!Arrays.equals(SipCall.makeSdp().getBytes(SdpTemplate.SDP_CHARSET), SipCall.makeSdpBytes())) {
+            throw new IllegalStateException("SDP template output differs from makeSdp()");
+        }
+    }
+
+    /**
+     * @fn public byte[] concatenatedString()
+     * @brief 기존 방식 : 문자열 연결 후 getBytes()
+     */
+    @Benchmark
+    public byte[] concatenatedString() {
+        return SipCall.makeSdp().getBytes();
+    }
+
+    /**
+     * @fn public byte[] precompiledTemplate()
+     * @brief 템플릿 방식 : 고정 부분 복사 + 슬롯 기록
+     */
+    @Benchmark
+    public byte[] precompiledTemplate() {
+        return SipCall.makeSdpBytes();
+    }
+
+    /**
+     * @fn public byte[] precompiledTemplatePerCall()
+     * @brief 템플릿 방식 : 호마다 Session Version 과 미디어 포트를 바꾸는 경우
+     */
+    @Benchmark
+    public byte[] precompiledTemplatePerCall() {
+        sessionVersion++;
+        return SipCall.getSdpTemplate().render(1906, sessionVersion, "127.0.0.1", 7078 + (int) (sessionVersion & 0xFE));
+    }
+}
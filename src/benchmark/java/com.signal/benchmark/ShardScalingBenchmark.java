@@ -0,0 +1,157 @@
+package com.signal.benchmark;
+
+import com.signal.answer.InviteAnswerPipeline;
+import com.signal.control.AdmissionController;
+import com.signal.control.CapacityPolicy;
+import com.signal.logic.CallEventListener;
+import com.signal.logic.RequestManager;
+import com.signal.logic.SipCall;
+import com.signal.shard.SipShardGroup;
+import com.signal.trace.MessageTracer;
+import com.signal.transport.TransportConfig;
+import org.openjdk.jmh.annotations.*;
+
+import javax.sip.Dialog;
+import javax.sip.message.Response;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class public class ShardScalingBenchmark
+ * @brief 샤드 수에 따른 Loopback 호 처리량(INVITE/200/ACK/BYE/200)을 측정하는 벤치마크
+ * 같은 프로세스에 발신 측과 착신 측 샤드를 같은 수로 띄우고, 실제 UDP 소켓으로 호 하나를 끝까지 처리하는 것을 연산 하나로 측정한다.
+ * 샤드 수를 늘렸을 때 처리량이 코어 수까지 거의 비례해서 늘어나는지 확인한다. (코어가 샤드 수보다 적으면 늘어나지 않음)
+ *
+ * 실행 : mvn -P benchmark compile exec:exec -Dbenchmark=ShardScaling -Dbenchmark.args="-p shardCount=1,2,4,8"
+ *
+ * 발신 쓰레드 수는 샤드 수와 관계없이 고정해서 동시 호 수를 같게 맞춘다.
+ * SIP Stack 의 이벤트 처리 쓰레드는 중지 후에도 남으므로 Fork 종료 시 JMH 가 남은 쓰레드를 경고하고 강제 종료한다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Threads(16)
+@Fork(value = 1, jvmArgsAppend = {"-Dlogback.configurationFile=logback-benchmark.xml", "-Djmh.shutdownTimeout=1", "-Djmh.shutdownTimeout.step=1"})
+@State(Scope.Benchmark)
+public class ShardScalingBenchmark {
+    /* 착신 측 샤드 0 포트 */
+    private static final int UAS_PORT = 15060;
+    /* 발신 측 샤드 0 포트 */
+    private static final int UAC_PORT = 15070;
+    /* 샤드 간 포트 간격 (착신/발신 측 포트가 겹치지 않도록) */
+    private static final int PORT_STRIDE = 20;
+    /* 상대방 URI */
+    private static final String TO_URI = "jamesj@127.0.0.1";
+    /* 응답 최대 대기 시간 (ms) */
+    private static final long RESPONSE_TIMEOUT = 5000;
+
+    @Param({"1", "2", "4"})
+    public int shardCount;
+
+    private SipShardGroup uas;
+    private SipShardGroup uac;
+    /* 응답을 기다리는 호 (Call-ID 별) */
+    private final ConcurrentHashMap<String, PendingCall> pendingCalls = new ConcurrentHashMap<>();
+
+    /**
+     * @fn public void setUp()
+     * @brief 착신 측과 발신 측 샤드를 띄움 (전송마다 작업 쓰레드 하나)
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        AdmissionController.getInstance().configure(Integer.MAX_VALUE / 2, CapacityPolicy.SERVICE_UNAVAILABLE,
+                AdmissionController.DEFAULT_RETRY_AFTER, AdmissionController.DEFAULT_QUEUE_SIZE, AdmissionController.DEFAULT_QUEUE_TIMEOUT);
+        InviteAnswerPipeline.getInstance().configure(InviteAnswerPipeline.DEFAULT_THREAD_COUNT, 0, false, true);
+        MessageTracer.getInstance().configure(0, MessageTracer.DEFAULT_BUFFER_SIZE);
+
+        uas = new SipShardGroup("jamesj", "127.0.0.1", "BENCH_UAS", shardCount, PORT_STRIDE,
+                new TransportConfig("udp", UAS_PORT, 1, TransportConfig.DEFAULT_QUEUE_SIZE));
+        uac = new SipShardGroup("myself", "127.0.0.1", "BENCH_UAC", shardCount, PORT_STRIDE,
+                new TransportConfig("udp", UAC_PORT, 1, TransportConfig.DEFAULT_QUEUE_SIZE));
+        uac.setExitOnByeResponse(false);
+        uac.setCallEventListener(new CallEventListener() {
+            @Override
+            public void onInviteAnswered(final String callId, final Dialog dialog) {
+                PendingCall pendingCall = pendingCalls.get(callId);
+                if (pendingCall != null) pendingCall.complete(dialog, Response.OK);
+            }
+
+            @Override
+            public void onInviteFailed(final String callId, int statusCode) {
+                PendingCall pendingCall = pendingCalls.get(callId);
+                if (pendingCall != null) pendingCall.complete(null, statusCode);
+            }
+
+            @Override
+            public void onByeCompleted(final String callId, int statusCode) {
+                PendingCall pendingCall = pendingCalls.get(callId);
+                if (pendingCall != null) pendingCall.complete(null, statusCode);
+            }
+        });
+    }
+
+    /**
+     * @fn public void tearDown()
+     * @brief 샤드 중지
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        uac.stop();
+        uas.stop();
+    }
+
+    /**
+     * @fn public int call()
+     * @brief Call-ID 소유 샤드에서 호 하나를 발신하고 200 OK 후 Bye 를 보내서 200 OK 까지 기다림
+     */
+    @Benchmark
+    public int call() throws InterruptedException {
+        String callId = uac.newCallId();
+        int shardIndex = uac.getShardIndex(callId);
+        SipCall sipCall = uac.getShard(shardIndex);
+
+        PendingCall invite = new PendingCall();
+        pendingCalls.put(callId, invite);
+        try {
+            if (RequestManager.getInstance().requestInvite(sipCall, TO_URI, UAS_PORT + shardIndex * PORT_STRIDE, "udp", callId) == null) {
+                throw new IllegalStateException("Fail to send Invite");
+            }
+            invite.await(callId);
+            if (invite.statusCode != Response.OK) throw new IllegalStateException("Invite is failed : " + invite.statusCode);
+
+            PendingCall bye = new PendingCall();
+            pendingCalls.put(callId, bye);
+            if (!RequestManager.getInstance().requestBye(sipCall, invite.dialog)) {
+                throw new IllegalStateException("Fail to send Bye");
+            }
+            bye.await(callId);
+            return bye.statusCode;
+        } finally {
+            pendingCalls.remove(callId);
+        }
+    }
+
+    /**
+     * @class private static class PendingCall
+     * @brief 요청 하나의 최종 결과를 기다리는 객체
+     */
+    private static class PendingCall {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile Dialog dialog;
+        private volatile int statusCode;
+
+        void complete(final Dialog dialog, int statusCode) {
+            this.dialog = dialog;
+            this.statusCode = statusCode;
+            latch.countDown();
+        }
+
+        void await(final String callId) throws InterruptedException {
+            if (!latch.await(RESPONSE_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Response timeout (Call-ID:" + callId + ")");
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.signal.benchmark;
+
+import com.signal.answer.InviteAnswerPipeline;
+import com.signal.control.AdmissionController;
+import com.signal.control.CapacityPolicy;
+import com.signal.logic.RequestManager;
+import com.signal.logic.ResponseManager;
+import com.signal.logic.SipCall;
+import com.signal.registry.CallRegistry;
+import com.signal.trace.MessageTracer;
+import org.openjdk.jmh.annotations.*;
+
+import javax.sip.SipProvider;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class public class SignallingBenchmark
+ * @brief INVITE/200/ACK/BYE 신호 처리 경로를 측정하는 벤치마크
+ * SipProvider, ServerTransaction, Dialog 는 In-process Stub 을 사용하고, 메시지/헤더 생성은 NIST 구현을 그대로 사용한다.
+ * 처리량(ops/s)과 지연 시간 분포(SampleTime, p50/p90/p99/p99.9)를 함께 측정하며, 호당 할당량은 -prof gc 로 확인한다.
+ *
+ * 실행 : mvn -P benchmark compile exec:exec -Dbenchmark=Signalling -Dbenchmark.args="-prof gc"
+ *
+ * 200 OK 는 자동 응답을 끄고 벤치마크 쓰레드에서 InviteAnswerPipeline.answer() 로 보내므로,
+ * 한 번의 연산 안에서 Invite 수신부터 Bye 처리까지 끝나고 호 등록 정보도 원래대로 돌아간다.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+@State(Scope.Thread)
+public class SignallingBenchmark {
+    /* 미리 만들어 둘 호 개수 */
+    private static final int CALL_COUNT = 1024;
+    /* 상대방 URI */
+    private static final String TO_URI = "jamesj@127.0.0.1";
+
+    private SipCall sipCall;
+    private SipStubs.CallFixture[] calls;
+    private int index;
+
+    /**
+     * @fn public void setUp()
+     * @brief Stub SipProvider 로 SipCall 을 만들고 호 묶음을 준비
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] callIds = new String[CALL_COUNT];
+        for (int i = 0; i < CALL_COUNT; i++) {
+            callIds[i] = "signalling-" + i + "-" + Thread.currentThread().getId() + "@127.0.0.1";
+        }
+
+        SipProvider sipProvider = SipStubs.newSipProvider(callIds);
+        sipCall = new SipCall("myself", "127.0.0.1", 5070, sipProvider);
+
+        calls = new SipStubs.CallFixture[CALL_COUNT];
+        for (int i = 0; i < CALL_COUNT; i++) {
+            calls[i] = new SipStubs.CallFixture(callIds[i], sipProvider);
+        }
+
+        AdmissionController.getInstance().configure(CALL_COUNT * 64, CapacityPolicy.SERVICE_UNAVAILABLE,
+                AdmissionController.DEFAULT_RETRY_AFTER, AdmissionController.DEFAULT_QUEUE_SIZE, AdmissionController.DEFAULT_QUEUE_TIMEOUT);
+        InviteAnswerPipeline.getInstance().configure(1, 0, false, false);
+        MessageTracer.getInstance().configure(0, MessageTracer.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @fn public void tearDown()
+     * @brief 호 등록 정보 초기화
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        CallRegistry.getInstance().clear();
+    }
+
+    private SipStubs.CallFixture nextCall() {
+        index = (index + 1) & (CALL_COUNT - 1);
+        return calls[index];
+    }
+
+    /**
+     * @fn public boolean processRequestInviteBye()
+     * @brief SipCall.processRequest 분기를 거치는 Invite -> 200 OK -> ACK -> Bye 전체 처리
+     */
+    @Benchmark
+    public boolean processRequestInviteBye() {
+        SipStubs.CallFixture call = nextCall();
+        sipCall.processRequest(call.inviteEvent);
+        boolean answered = InviteAnswerPipeline.getInstance().answer(call.callId);
+        sipCall.processRequest(call.ackEvent);
+        sipCall.processRequest(call.byeEvent);
+        return answered;
+    }
+
+    /**
+     * @fn public boolean respondToInviteAndBye()
+     * @brief ResponseManager.respondToInvite / respondToBye 직접 호출
+     */
+    @Benchmark
+    public boolean respondToInviteAndBye() {
+        SipStubs.CallFixture call = nextCall();
+        ResponseManager.getInstance().respondToInvite(call.inviteEvent, call.inviteTransaction,
+                sipCall.messageFactory, sipCall.addressFactory, sipCall.headerFactory, sipCall.getPort(), sipCall);
+        boolean answered = InviteAnswerPipeline.getInstance().answer(call.callId);
+        ResponseManager.getInstance().respondToBye(call.byeRequest, call.byeTransaction, sipCall.messageFactory, sipCall);
+        return answered;
+    }
+
+    /**
+     * @fn public int respondToInviteAndCancel()
+     * @brief ResponseManager.respondToInvite / respondToCancel (487 + 200) 직접 호출
+     */
+    @Benchmark
+    public int respondToInviteAndCancel() {
+        SipStubs.CallFixture call = nextCall();
+        ResponseManager.getInstance().respondToInvite(call.inviteEvent, call.inviteTransaction,
+                sipCall.messageFactory, sipCall.addressFactory, sipCall.headerFactory, sipCall.getPort(), sipCall);
+        ResponseManager.getInstance().respondToCancel(call.cancelRequest, call.cancelTransaction, sipCall.messageFactory, sipCall);
+        return CallRegistry.getInstance().getDialogCount();
+    }
+
+    /**
+     * @fn public String requestInvite()
+     * @brief RequestManager.requestInvite 의 요청 생성 비용 (전송은 Stub, 호 등록 정보는 바로 삭제)
+     */
+    @Benchmark
+    public String requestInvite() {
+        String callId = RequestManager.getInstance().requestInvite(sipCall, TO_URI, 5060);
+        if (callId != null) sipCall.getCallRegistry().removeTransaction(callId);
+        return callId;
+    }
+}
@@ -0,0 +1,255 @@
+package com.signal.benchmark;
+
+import javax.sip.ClientTransaction;
+import javax.sip.Dialog;
+import javax.sip.RequestEvent;
+import javax.sip.ServerTransaction;
+import javax.sip.SipFactory;
+import javax.sip.SipProvider;
+import javax.sip.header.CallIdHeader;
+import javax.sip.header.HeaderFactory;
+import javax.sip.message.MessageFactory;
+import javax.sip.message.Request;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @class public class SipStubs
+ * @brief 벤치마크에서 사용하는 JAIN SIP 인터페이스의 In-process Stub 을 생성하는 클래스
+ * 네트워크와 SIP Stack 없이 요청 객체, 트랜잭션, 다이얼로그, SipProvider 를 만들어 순수 처리 비용만 측정한다.
+ * 메시지와 헤더는 NIST 구현을 그대로 사용하고, 전송 관련 함수는 아무 동작도 하지 않는다.
+ */
+public class SipStubs {
+    /* SIP 메시지 관리 인터페이스 */
+    private static final MessageFactory messageFactory;
+    /* SIP 메시지 헤더 관리 인터페이스 */
+    private static final HeaderFactory headerFactory;
+
+    static {
+        try {
+            SipFactory sipFactory = SipFactory.getInstance();
+            sipFactory.setPathName("gov.nist");
+            messageFactory = sipFactory.createMessageFactory();
+            headerFactory = sipFactory.createHeaderFactory();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @fn private SipStubs()
+     * @brief 인스턴스 생성을 막는 함수
+     */
+    private SipStubs() {
+    }
+
+    /**
+     * @fn public static MessageFactory getMessageFactory()
+     * @brief Stub 생성에 사용하는 SIP 메시지 관리 인터페이스를 반환하는 함수
+     * @return SIP 메시지 관리 인터페이스
+     */
+    public static MessageFactory getMessageFactory() {
+        return messageFactory;
+    }
+
+    /**
+     * @fn public static Request newRequest(final String method, final String callId)
+     * @brief 지정한 Method 와 Call-ID 를 가진 요청을 생성하는 함수
+     * @param method 요청 Method(입력, 읽기 전용)
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @return 요청
+     */
+    public static Request newRequest(final String method, final String callId) {
+        String text = method + " sip:jamesj@127.0.0.1:5060 SIP/2.0\r\n"
+                + "Via: SIP/2.0/UDP 127.0.0.1:5070;branch=z9hG4bK" + Integer.toHexString(callId.hashCode()) + "\r\n"
+                + "Max-Forwards: 70\r\n"
+                + "From: <sip:myself@127.0.0.1:5070>;tag=bench\r\n"
+                + "To: <sip:jamesj@127.0.0.1:5060>" + (method.equals(Request.BYE) ? ";tag=uas" : "") + "\r\n"
+                + "Call-ID: " + callId + "\r\n"
+                + "CSeq: " + (method.equals(Request.BYE) ? 2 : 1) + " " + method + "\r\n"
+                + "Contact: <sip:myself@127.0.0.1:5070>\r\n"
+                + "Content-Length: 0\r\n\r\n";
+        try {
+            return messageFactory.createRequest(text);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @fn public static <T> T stub(final Class<T> type, final Map<String, Object> returns)
+     * @brief 지정한 함수 이름에 대해 고정된 값을 반환하는 Stub 을 생성하는 함수
+     * @param type    Stub 인터페이스(입력, 읽기 전용)
+     * @param returns 함수 이름별 반환값(입력, 읽기 전용)
+     * @return Stub
+     */
+    public static <T> T stub(final Class<T> type, final Map<String, Object> returns) {
+        return type.cast(Proxy.newProxyInstance(SipStubs.class.getClassLoader(), new Class<?>[]{type}, new StubHandler(returns)));
+    }
+
+    /**
+     * @fn public static ServerTransaction newServerTransaction(final Request request)
+     * @brief 지정한 요청을 반환하는 서버 트랜잭션 Stub 을 생성하는 함수
+     * @param request 요청(입력, 읽기 전용)
+     * @return 서버 트랜잭션 Stub
+     */
+    public static ServerTransaction newServerTransaction(final Request request) {
+        return newServerTransaction(request, null);
+    }
+
+    /**
+     * @fn public static ServerTransaction newServerTransaction(final Request request, final Dialog dialog)
+     * @brief 지정한 요청과 다이얼로그를 반환하는 서버 트랜잭션 Stub 을 생성하는 함수
+     * @param request 요청(입력, 읽기 전용)
+     * @param dialog  다이얼로그(입력, 읽기 전용)
+     * @return 서버 트랜잭션 Stub
+     */
+    public static ServerTransaction newServerTransaction(final Request request, final Dialog dialog) {
+        Map<String, Object> returns = new HashMap<>();
+        returns.put("getRequest", request);
+        returns.put("getDialog", dialog);
+        returns.put("getBranchId", "z9hG4bK-bench");
+        return stub(ServerTransaction.class, returns);
+    }
+
+    /**
+     * @fn public static Dialog newDialog()
+     * @brief 아무 동작도 하지 않는 다이얼로그 Stub 을 생성하는 함수
+     * @return 다이얼로그 Stub
+     */
+    public static Dialog newDialog() {
+        return newDialog(null);
+    }
+
+    /**
+     * @fn public static Dialog newDialog(final CallIdHeader callIdHeader)
+     * @brief 지정한 Call-ID 를 반환하는 다이얼로그 Stub 을 생성하는 함수
+     * @param callIdHeader Call-ID 헤더(입력, 읽기 전용)
+     * @return 다이얼로그 Stub
+     */
+    public static Dialog newDialog(final CallIdHeader callIdHeader) {
+        Map<String, Object> returns = new HashMap<>();
+        returns.put("getCallId", callIdHeader);
+        returns.put("getLocalTag", "uas");
+        returns.put("getRemoteTag", "bench");
+        return stub(Dialog.class, returns);
+    }
+
+    /**
+     * @fn public static SipProvider newSipProvider(final String[] callIds)
+     * @brief 지정한 Call-ID 를 순서대로 발급하고 클라이언트 트랜잭션/다이얼로그 Stub 을 만들어 주는 SipProvider Stub 을 생성하는 함수
+     * @param callIds 발급할 Call-ID 목록, 순환하여 사용(입력, 읽기 전용)
+     * @return SipProvider Stub
+     */
+    public static SipProvider newSipProvider(final String[] callIds) {
+        final CallIdHeader[] callIdHeaders = new CallIdHeader[callIds.length];
+        try {
+            for (int i = 0; i < callIds.length; i++) {
+                callIdHeaders[i] = headerFactory.createCallIdHeader(callIds[i]);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+
+        final AtomicInteger index = new AtomicInteger(0);
+        return (SipProvider) Proxy.newProxyInstance(SipStubs.class.getClassLoader(), new Class<?>[]{SipProvider.class},
+                new StubHandler(new HashMap<String, Object>()) {
+                    @Override
+                    public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                        switch (method.getName()) {
+                            case "getNewCallId":
+                                return callIdHeaders[(index.getAndIncrement() & Integer.MAX_VALUE) % callIdHeaders.length];
+                            case "getNewClientTransaction": {
+                                Request request = (Request) args[0];
+                                Map<String, Object> returns = new HashMap<>();
+                                returns.put("getRequest", request);
+                                returns.put("getDialog", newDialog((CallIdHeader) request.getHeader(CallIdHeader.NAME)));
+                                return stub(ClientTransaction.class, returns);
+                            }
+                            case "getNewDialog":
+                                return ((ClientTransaction) args[0]).getDialog();
+                            default:
+                                return super.invoke(proxy, method, args);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * @class public static class CallFixture
+     * @brief 한 호의 Invite/Bye/Cancel 요청과 서버 트랜잭션, 다이얼로그, 요청 이벤트 Stub 묶음
+     */
+    public static class CallFixture {
+        public final String callId;
+        public final Dialog dialog;
+        public final Request inviteRequest;
+        public final ServerTransaction inviteTransaction;
+        public final RequestEvent inviteEvent;
+        public final Request ackRequest;
+        public final RequestEvent ackEvent;
+        public final Request byeRequest;
+        public final ServerTransaction byeTransaction;
+        public final RequestEvent byeEvent;
+        public final Request cancelRequest;
+        public final ServerTransaction cancelTransaction;
+        public final RequestEvent cancelEvent;
+
+        public CallFixture(final String callId, final SipProvider sipProvider) {
+            this.callId = callId;
+            this.inviteRequest = newRequest(Request.INVITE, callId);
+            this.dialog = newDialog((CallIdHeader) inviteRequest.getHeader(CallIdHeader.NAME));
+            this.inviteTransaction = newServerTransaction(inviteRequest, dialog);
+            this.inviteEvent = new RequestEvent(sipProvider, inviteTransaction, dialog, inviteRequest);
+            this.ackRequest = newRequest(Request.ACK, callId);
+            this.ackEvent = new RequestEvent(sipProvider, newServerTransaction(ackRequest, dialog), dialog, ackRequest);
+            this.byeRequest = newRequest(Request.BYE, callId);
+            this.byeTransaction = newServerTransaction(byeRequest, dialog);
+            this.byeEvent = new RequestEvent(sipProvider, byeTransaction, dialog, byeRequest);
+            this.cancelRequest = newRequest(Request.CANCEL, callId);
+            this.cancelTransaction = newServerTransaction(cancelRequest, dialog);
+            this.cancelEvent = new RequestEvent(sipProvider, cancelTransaction, dialog, cancelRequest);
+        }
+    }
+
+    /**
+     * @class private static class StubHandler implements InvocationHandler
+     * @brief 지정한 함수는 고정값을, 나머지 함수는 기본값을 반환하는 Stub 처리 클래스
+     */
+    private static class StubHandler implements InvocationHandler {
+        /* 함수 이름별 반환값 */
+        private final Map<String, Object> returns;
+
+        StubHandler(final Map<String, Object> returns) {
+            this.returns = returns;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) {
+            String name = method.getName();
+            if (returns.containsKey(name)) {
+                return returns.get(name);
+            }
+
+            switch (name) {
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "Stub@" + Integer.toHexString(System.identityHashCode(proxy));
+                default:
+                    break;
+            }
+
+            Class<?> returnType = method.getReturnType();
+            if (returnType == boolean.class) return false;
+            if (returnType == int.class) return 0;
+            if (returnType == long.class) return 0L;
+            return null;
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.signal.answer;
+
+import com.signal.control.AdmissionController;
+import com.signal.logic.ResponseManager;
+import com.signal.logic.SipCall;
+import com.signal.registry.CallRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sip.Dialog;
+import javax.sip.ServerTransaction;
+import javax.sip.address.AddressFactory;
+import javax.sip.header.HeaderFactory;
+import javax.sip.message.MessageFactory;
+import javax.sip.message.Request;
+import javax.sip.message.Response;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @class public class InviteAnswerPipeline
+ * @brief 수락된 Invite 요청의 180 Ringing(또는 183 Session Progress)과 200 OK 를 비동기로 전송하는 클래스
+ * SIP Stack 쓰레드는 100 Trying 까지만 보내고 이후 처리는 이 클래스의 타이머 쓰레드에서 수행한다.
+ * 호별 상태는 CAS 로만 변경하므로, 호출 중(Ringing)에 도착한 Cancel 과 200 OK 전송이 동시에 일어나도
+ * 둘 중 하나만 처리된다.
+ */
+public class InviteAnswerPipeline {
+    /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
+    private static final Logger logger = LoggerFactory.getLogger(InviteAnswerPipeline.class);
+    /* 호 상태 : 호출 중 (180/183 전송 전후, 200 OK 전송 전) */
+    private static final int STATE_RINGING = 0;
+    /* 호 상태 : 응답 완료 (200 OK 또는 거절 응답 전송) */
+    private static final int STATE_ANSWERED = 1;
+    /* 호 상태 : Cancel 로 취소됨 */
+    private static final int STATE_CANCELLED = 2;
+    /* 기본 타이머 쓰레드 개수 */
+    public static final int DEFAULT_THREAD_COUNT = Runtime.getRuntime().availableProcessors();
+    /* Invite 응답 관리 객체(singleton) */
+    private static final InviteAnswerPipeline inviteAnswerPipeline = new InviteAnswerPipeline();
+    /* 응답 대기 중인 호 목록 (Call-ID 별) */
+    private final ConcurrentHashMap<String, PendingAnswer> pendingAnswers = new ConcurrentHashMap<>();
+    /* 180 Ringing 부터 200 OK 까지의 호출 시간 (ms, 0 이면 바로 응답) */
+    private volatile long ringTime = 0;
+    /* 180 Ringing 대신 SDP 를 포함한 183 Session Progress 전송 여부 (Early Media) */
+    private volatile boolean earlyMedia = false;
+    /* 호출 시간이 지나면 자동으로 200 OK 를 보낼지 여부 (false 이면 answer() 호출 시 응답) */
+    private volatile boolean autoAnswer = true;
+    /* 호출 및 응답을 처리하는 타이머 쓰레드 풀 */
+    private ScheduledThreadPoolExecutor scheduler;
+
+    /**
+     * @fn private InviteAnswerPipeline()
+     * @brief Invite 응답 관리 객체를 초기화하는 함수
+     */
+    private InviteAnswerPipeline() {
+        this.scheduler = newScheduler(DEFAULT_THREAD_COUNT);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public static InviteAnswerPipeline getInstance()
+     * @brief Invite 응답 관리 객체의 싱글턴 인스턴스를 반환하는 함수
+     * @return Invite 응답 관리 객체
+     */
+    public static InviteAnswerPipeline getInstance() {
+        return inviteAnswerPipeline;
+    }
+
+    /**
+     * @fn public synchronized void configure(int threadCount, long ringTime, boolean earlyMedia, boolean autoAnswer)
+     * @brief Invite 응답 설정을 변경하는 함수 (호 처리 전에 호출)
+     * @param threadCount 타이머 쓰레드 개수(입력)
+     * @param ringTime    호출 시간, ms(입력)
+     * @param earlyMedia  183 Session Progress 전송 여부(입력)
+     * @param autoAnswer  자동 응답 여부(입력)
+     * @return 반환값 없음
+     */
+    public synchronized void configure(int threadCount, long ringTime, boolean earlyMedia, boolean autoAnswer) {
+        if (threadCount <= 0 || ringTime < 0) {
+            throw new IllegalArgumentException("Invalid answer configuration");
+        }
+
+        if (scheduler.getCorePoolSize() != threadCount) {
+            scheduler.setCorePoolSize(threadCount);
+        }
+        this.ringTime = ringTime;
+        this.earlyMedia = earlyMedia;
+        this.autoAnswer = autoAnswer;
+
+        logger.debug("Answer (Threads:{}, RingTime:{}, EarlyMedia:{}, AutoAnswer:{})", threadCount, ringTime, earlyMedia, autoAnswer);
+    }
+
+    /**
+     * @fn public void submit(final Request request, final ServerTransaction serverTransaction, final Dialog dialog, final String callId, final MessageFactory messageFactory, final HeaderFactory headerFactory, final AddressFactory addressFactory, final CallRegistry callRegistry)
+     * @brief 100 Trying 을 보낸 Invite 요청을 응답 대기 목록에 추가하고 호출을 시작하는 함수
+     * @param request           Invite 요청(입력, 읽기 전용)
+     * @param serverTransaction 서버 트랜잭션(입력, 읽기 전용)
+     * @param dialog            다이얼로그(입력, 읽기 전용)
+     * @param callId            Call-ID(입력, 읽기 전용)
+     * @param messageFactory    SIP 메시지 인터페이스(입력, 읽기 전용)
+     * @param headerFactory     SIP 메시지 헤더 관리 인터페이스(입력, 읽기 전용)
+     * @param addressFactory    SIP 메시지 주소 관리 인터페이스(입력, 읽기 전용)
+     * @param callRegistry      호 등록 관리 객체(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void submit(final Request request, final ServerTransaction serverTransaction, final Dialog dialog, final String callId, final MessageFactory messageFactory, final HeaderFactory headerFactory, final AddressFactory addressFactory, final CallRegistry callRegistry) {
+        SipCall.checkObjectNull(null, request, serverTransaction, dialog, callId, messageFactory, headerFactory, addressFactory, callRegistry);
+
+        final PendingAnswer pendingAnswer = new PendingAnswer(request, serverTransaction, dialog, callId, messageFactory, headerFactory, addressFactory, callRegistry);
+        if (pendingAnswers.putIfAbsent(callId, pendingAnswer) != null) {
+            logger.debug("Invite is already being answered (Call-ID:{})", callId);
+            return;
+        }
+
+        pendingAnswer.future = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                ring(pendingAnswer);
+            }
+        }, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @fn public boolean answer(final String callId)
+     * @brief 호출 중인 호에 200 OK 로 응답하는 함수 (지연 응답)
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @return 응답을 예약했으면 true, 호출 중인 호가 없으면 false 반환
+     */
+    public boolean answer(final String callId) {
+        SipCall.checkObjectNull(null, callId);
+
+        final PendingAnswer pendingAnswer = pendingAnswers.get(callId);
+        if (pendingAnswer == null || pendingAnswer.state.get() != STATE_RINGING) return false;
+
+        scheduleAnswer(pendingAnswer, 0);
+        return true;
+    }
+
+    /**
+     * @fn public boolean reject(final String callId, int statusCode)
+     * @brief 호출 중인 호를 지정한 응답 코드로 거절하는 함수
+     * @param callId     Call-ID(입력, 읽기 전용)
+     * @param statusCode 거절 응답 코드(입력)
+     * @return 거절했으면 true, 호출 중인 호가 없으면 false 반환
+     */
+    public boolean reject(final String callId, int statusCode) {
+        SipCall.checkObjectNull(null, callId);
+
+        PendingAnswer pendingAnswer = pendingAnswers.get(callId);
+        if (pendingAnswer == null || !pendingAnswer.state.compareAndSet(STATE_RINGING, STATE_ANSWERED)) return false;
+
+        finish(pendingAnswer);
+        pendingAnswer.callRegistry.removeTransaction(callId, pendingAnswer.serverTransaction);
+        ResponseManager.getInstance().respondWith4xx(pendingAnswer.serverTransaction, pendingAnswer.messageFactory, statusCode);
+        AdmissionController.getInstance().release(callId);
+        return true;
+    }
+
+    /**
+     * @fn public boolean cancel(final String callId)
+     * @brief Cancel 요청에 의해 호출 중인 호를 취소하는 함수
+     * 예약된 호출/응답 작업을 취소하며, 487 응답은 호출한 쪽에서 전송한다.
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @return 아직 응답하지 않은 호이면 true, 이미 200 OK 등으로 응답한 호이면 false 반환
+     */
+    public boolean cancel(final String callId) {
+        SipCall.checkObjectNull(null, callId);
+
+        PendingAnswer pendingAnswer = pendingAnswers.get(callId);
+        if (pendingAnswer == null) {
+            // 이 클래스에서 처리 중인 호가 아니면 (수락 대기열 등) 취소 가능
+            return true;
+        }
+
+        if (!pendingAnswer.state.compareAndSet(STATE_RINGING, STATE_CANCELLED)) {
+            return pendingAnswer.state.get() == STATE_CANCELLED;
+        }
+
+        finish(pendingAnswer);
+        logger.debug("Ringing call is cancelled (Call-ID:{})", callId);
+        return true;
+    }
+
+    /**
+     * @fn public int getPendingAnswerCount()
+     * @brief 응답 대기 중인 호 개수를 반환하는 함수
+     * @return 응답 대기 중인 호 개수
+     */
+    public int getPendingAnswerCount() {
+        return pendingAnswers.size();
+    }
+
+    /**
+     * @fn public synchronized void shutdown()
+     * @brief 타이머 쓰레드 풀을 종료하는 함수
+     * @return 반환값 없음
+     */
+    public synchronized void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private void ring(final PendingAnswer pendingAnswer)
+     * @brief 180 Ringing (또는 183 Session Progress) 을 전송하고 응답을 예약하는 함수
+     * @param pendingAnswer 응답 대기 호(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    private void ring(final PendingAnswer pendingAnswer) {
+        if (pendingAnswer.state.get() != STATE_RINGING) return;
+
+        if (earlyMedia) {
+            // 183 Session Progress (Early Media)
+            ResponseManager.getInstance().respondWith183ToInvite(pendingAnswer.request, pendingAnswer.serverTransaction, pendingAnswer.messageFactory, pendingAnswer.headerFactory);
+        } else {
+            // 180 Ringing
+            ResponseManager.getInstance().respondWith1xxToInvite(pendingAnswer.request, pendingAnswer.serverTransaction, pendingAnswer.messageFactory, Response.RINGING);
+        }
+
+        if (autoAnswer) {
+            scheduleAnswer(pendingAnswer, ringTime);
+        }
+    }
+
+    /**
+     * @fn private void scheduleAnswer(final PendingAnswer pendingAnswer, long delay)
+     * @brief 지정한 시간 후에 200 OK 를 보내도록 예약하는 함수
+     * @param pendingAnswer 응답 대기 호(입력, 읽기 전용)
+     * @param delay         지연 시간, ms(입력)
+     * @return 반환값 없음
+     */
+    private void scheduleAnswer(final PendingAnswer pendingAnswer, long delay) {
+        if (delay <= 0) {
+            answerNow(pendingAnswer);
+        } else {
+            pendingAnswer.future = scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    answerNow(pendingAnswer);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+            // 예약 직전에 취소되었으면 방금 예약한 작업도 취소한다.
+            if (pendingAnswer.state.get() != STATE_RINGING) {
+                pendingAnswer.future.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * @fn private void answerNow(final PendingAnswer pendingAnswer)
+     * @brief 200 OK 를 전송하고 다이얼로그를 등록하는 함수
+     * @param pendingAnswer 응답 대기 호(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    private void answerNow(final PendingAnswer pendingAnswer) {
+        // Cancel 과 경쟁하므로 상태 변경에 성공한 경우에만 응답한다.
+        if (!pendingAnswer.state.compareAndSet(STATE_RINGING, STATE_ANSWERED)) return;
+
+        String callId = pendingAnswer.callId;
+        try {
+            // Add Dialog & Remove Transaction (ACK 수신 시 세션 타이머를 시작할 수 있도록 200 OK 전에 등록)
+            pendingAnswer.callRegistry.removeTransaction(callId, pendingAnswer.serverTransaction);
+            pendingAnswer.callRegistry.addDialog(callId, pendingAnswer.dialog);
+
+            // 200 OK
+            ResponseManager.getInstance().respondWith200ToInvite(pendingAnswer.request, pendingAnswer.serverTransaction, pendingAnswer.messageFactory, pendingAnswer.headerFactory, pendingAnswer.addressFactory);
+        } catch (Exception e) {
+            e.printStackTrace();
+            AdmissionController.getInstance().release(callId);
+        } finally {
+            pendingAnswers.remove(callId, pendingAnswer);
+        }
+    }
+
+    /**
+     * @fn private void finish(final PendingAnswer pendingAnswer)
+     * @brief 예약된 작업을 취소하고 응답 대기 목록에서 삭제하는 함수
+     * @param pendingAnswer 응답 대기 호(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    private void finish(final PendingAnswer pendingAnswer) {
+        ScheduledFuture<?> future = pendingAnswer.future;
+        if (future != null) future.cancel(false);
+        pendingAnswers.remove(pendingAnswer.callId, pendingAnswer);
+    }
+
+    /**
+     * @fn private static ScheduledThreadPoolExecutor newScheduler(int threadCount)
+     * @brief 타이머 쓰레드 풀을 생성하는 함수
+     * @param threadCount 쓰레드 개수(입력)
+     * @return 타이머 쓰레드 풀
+     */
+    private static ScheduledThreadPoolExecutor newScheduler(int threadCount) {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(threadCount, new ThreadFactory() {
+            private final AtomicInteger index = new AtomicInteger(0);
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                Thread thread = new Thread(runnable, "InviteAnswer-" + index.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Inner Class
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @class private static class PendingAnswer
+     * @brief 응답 대기 중인 호 정보
+     */
+    private static class PendingAnswer {
+        final Request request;
+        final ServerTransaction serverTransaction;
+        final Dialog dialog;
+        final String callId;
+        final MessageFactory messageFactory;
+        final HeaderFactory headerFactory;
+        final AddressFactory addressFactory;
+        final CallRegistry callRegistry;
+        /* 호 상태 (STATE_RINGING, STATE_ANSWERED, STATE_CANCELLED) */
+        final AtomicInteger state = new AtomicInteger(STATE_RINGING);
+        /* 현재 예약된 작업 */
+        volatile ScheduledFuture<?> future;
+
+        PendingAnswer(final Request request, final ServerTransaction serverTransaction, final Dialog dialog, final String callId, final MessageFactory messageFactory, final HeaderFactory headerFactory, final AddressFactory addressFactory, final CallRegistry callRegistry) {
+            this.request = request;
+            this.serverTransaction = serverTransaction;
+            this.dialog = dialog;
+            this.callId = callId;
+            this.messageFactory = messageFactory;
+            this.headerFactory = headerFactory;
+            this.addressFactory = addressFactory;
+            this.callRegistry = callRegistry;
+        }
+    }
+}
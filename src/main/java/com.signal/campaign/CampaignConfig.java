@@ -0,0 +1,186 @@
+package com.signal.campaign;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * @class public class CampaignConfig
+ * @brief 발신 캠페인 조건 (발신 CPS, 전체/목적지별 최대 동시 호 수, 재시도 횟수와 간격, 통화 유지 시간)
+ */
+public class CampaignConfig {
+    /* 발신 초당 호 시도 수 (CPS, 재시도 포함) */
+    private final double cps;
+    /* 전체 최대 동시 호 수 (Invite 전송 ~ Bye 완료) */
+    private final int maxConcurrentCalls;
+    /* 목적지(host:port)별 최대 동시 호 수 */
+    private final int maxCallsPerDestination;
+    /* 대상 하나당 최대 시도 횟수 (첫 시도 포함) */
+    private final int maxAttempts;
+    /* 첫 재시도 전 대기 시간 (ms, 재시도마다 2 배) */
+    private final long retryBackoff;
+    /* 재시도 전 최대 대기 시간 (ms) */
+    private final long maxRetryBackoff;
+    /* 재시도하는 실패 응답 코드 (Invite 를 보내지 못한 경우는 항상 재시도) */
+    private final Set<Integer> retryableCodes;
+    /* 200 OK 수신 후 Bye 를 보낼 때까지의 통화 유지 시간 (ms) */
+    private final long holdTime;
+    /* 재시도를 기다리는 최대 대상 수 (도달하면 새 대상을 읽지 않음) */
+    private final int maxPendingRetries;
+
+    /**
+     * @fn public CampaignConfig(double cps, int maxConcurrentCalls, int maxCallsPerDestination, int maxAttempts, long retryBackoff, long maxRetryBackoff, final Set<Integer> retryableCodes, long holdTime, int maxPendingRetries)
+     * @brief 발신 캠페인 조건을 초기화하는 함수
+     * @param cps                    발신 CPS(입력)
+     * @param maxConcurrentCalls     전체 최대 동시 호 수(입력)
+     * @param maxCallsPerDestination 목적지별 최대 동시 호 수(입력)
+     * @param maxAttempts            대상 하나당 최대 시도 횟수(입력)
+     * @param retryBackoff           첫 재시도 전 대기 시간, ms(입력)
+     * @param maxRetryBackoff        재시도 전 최대 대기 시간, ms(입력)
+     * @param retryableCodes         재시도하는 실패 응답 코드(입력, 읽기 전용)
+     * @param holdTime               통화 유지 시간, ms(입력)
+     * @param maxPendingRetries      재시도를 기다리는 최대 대상 수(입력)
+     */
+    public CampaignConfig(double cps, int maxConcurrentCalls, int maxCallsPerDestination, int maxAttempts, long retryBackoff,
+                          long maxRetryBackoff, final Set<Integer> retryableCodes, long holdTime, int maxPendingRetries) {
+        if (cps <= 0 || maxConcurrentCalls <= 0 || maxCallsPerDestination <= 0 || maxAttempts <= 0 || retryBackoff <= 0
+                || maxRetryBackoff < retryBackoff || holdTime < 0 || maxPendingRetries <= 0) {
+            throw new IllegalArgumentException("Invalid campaign config");
+        }
+        if (retryableCodes == null) throw new NullPointerException("Retryable codes are null");
+
+        this.cps = cps;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxCallsPerDestination = maxCallsPerDestination;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.maxRetryBackoff = maxRetryBackoff;
+        this.retryableCodes = Collections.unmodifiableSet(new HashSet<>(retryableCodes));
+        this.holdTime = holdTime;
+        this.maxPendingRetries = maxPendingRetries;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public long getBackoff(int attempt)
+     * @brief 지정한 시도가 실패했을 때 다음 시도까지 기다리는 시간을 반환하는 함수
+     * @param attempt 실패한 시도 번호, 1 부터(입력)
+     * @return 대기 시간(ms), retryBackoff * 2^(attempt-1) 와 maxRetryBackoff 중 작은 값
+     */
+    public long getBackoff(int attempt) {
+        long backoff = retryBackoff;
+        for (int i = 1; i < attempt && backoff < maxRetryBackoff; i++) {
+            backoff *= 2;
+        }
+        return Math.min(backoff, maxRetryBackoff);
+    }
+
+    /**
+     * @fn public boolean isRetryable(int statusCode)
+     * @brief 지정한 실패 응답 코드를 재시도하는지 확인하는 함수
+     * @param statusCode 응답 코드(입력)
+     * @return 재시도하면 true, 아니면 false 반환
+     */
+    public boolean isRetryable(int statusCode) {
+        return retryableCodes.contains(statusCode);
+    }
+
+    /**
+     * @fn public double getCps()
+     * @brief 발신 CPS 를 반환하는 함수
+     * @return 발신 CPS
+     */
+    public double getCps() {
+        return cps;
+    }
+
+    /**
+     * @fn public int getMaxConcurrentCalls()
+     * @brief 전체 최대 동시 호 수를 반환하는 함수
+     * @return 최대 동시 호 수
+     */
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    /**
+     * @fn public int getMaxCallsPerDestination()
+     * @brief 목적지별 최대 동시 호 수를 반환하는 함수
+     * @return 목적지별 최대 동시 호 수
+     */
+    public int getMaxCallsPerDestination() {
+        return maxCallsPerDestination;
+    }
+
+    /**
+     * @fn public int getMaxAttempts()
+     * @brief 대상 하나당 최대 시도 횟수를 반환하는 함수
+     * @return 최대 시도 횟수
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @fn public long getRetryBackoff()
+     * @brief 첫 재시도 전 대기 시간을 반환하는 함수
+     * @return 대기 시간(ms)
+     */
+    public long getRetryBackoff() {
+        return retryBackoff;
+    }
+
+    /**
+     * @fn public long getMaxRetryBackoff()
+     * @brief 재시도 전 최대 대기 시간을 반환하는 함수
+     * @return 최대 대기 시간(ms)
+     */
+    public long getMaxRetryBackoff() {
+        return maxRetryBackoff;
+    }
+
+    /**
+     * @fn public Set<Integer> getRetryableCodes()
+     * @brief 재시도하는 실패 응답 코드를 반환하는 함수
+     * @return 응답 코드 목록
+     */
+    public Set<Integer> getRetryableCodes() {
+        return retryableCodes;
+    }
+
+    /**
+     * @fn public long getHoldTime()
+     * @brief 통화 유지 시간을 반환하는 함수
+     * @return 통화 유지 시간(ms)
+     */
+    public long getHoldTime() {
+        return holdTime;
+    }
+
+    /**
+     * @fn public int getMaxPendingRetries()
+     * @brief 재시도를 기다리는 최대 대상 수를 반환하는 함수
+     * @return 최대 대상 수
+     */
+    public int getMaxPendingRetries() {
+        return maxPendingRetries;
+    }
+
+    @Override
+    public String toString() {
+        return "CampaignConfig{" +
+                "cps=" + cps +
+                ", maxConcurrentCalls=" + maxConcurrentCalls +
+                ", maxCallsPerDestination=" + maxCallsPerDestination +
+                ", maxAttempts=" + maxAttempts +
+                ", retryBackoff=" + retryBackoff +
+                ", maxRetryBackoff=" + maxRetryBackoff +
+                ", retryableCodes=" + retryableCodes +
+                ", holdTime=" + holdTime +
+                ", maxPendingRetries=" + maxPendingRetries +
+                '}';
+    }
+}
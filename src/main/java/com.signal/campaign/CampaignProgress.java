@@ -0,0 +1,209 @@
+package com.signal.campaign;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * @class public class CampaignProgress
+ * @brief 발신 캠페인 진행 상황 (재개 위치와 집계)
+ * 재개 위치는 아직 결과가 나지 않은 대상 중 가장 앞의 줄 번호이다. 그 앞의 대상은 모두 응답, 실패 또는 재시도 소진으로 끝났다.
+ * 진행 파일은 임시 파일에 쓴 후 이름을 바꾸므로, 쓰는 도중에 죽어도 이전 내용이 남는다.
+ * 재개하면 재개 위치 이후에 이미 끝난 대상(동시에 진행 중이던 호)은 다시 발신될 수 있다.
+ */
+public class CampaignProgress {
+    /* 재개 위치 (줄 번호) */
+    private final long position;
+    /* 읽은 대상 수 */
+    private final long read;
+    /* 보낸 Invite 수 (재시도 포함) */
+    private final long attempted;
+    /* 200 OK 를 받은 대상 수 */
+    private final long answered;
+    /* 재시도를 모두 실패했거나 재시도하지 않는 응답으로 끝난 대상 수 */
+    private final long failed;
+    /* 재시도를 예약한 횟수 */
+    private final long retried;
+    /* 목적지별 최대 동시 호 수 때문에 미룬 횟수 */
+    private final long deferred;
+    /* 현재 동시 호 수 */
+    private final int active;
+    /* 재시도를 기다리는 대상 수 */
+    private final int pendingRetries;
+
+    /**
+     * @fn public CampaignProgress(long position, long read, long attempted, long answered, long failed, long retried, long deferred, int active, int pendingRetries)
+     * @brief 진행 상황을 초기화하는 함수
+     * @param position       재개 위치(입력)
+     * @param read           읽은 대상 수(입력)
+     * @param attempted      보낸 Invite 수(입력)
+     * @param answered       200 OK 를 받은 대상 수(입력)
+     * @param failed         실패로 끝난 대상 수(입력)
+     * @param retried        재시도를 예약한 횟수(입력)
+     * @param deferred       목적지 제한으로 미룬 횟수(입력)
+     * @param active         현재 동시 호 수(입력)
+     * @param pendingRetries 재시도를 기다리는 대상 수(입력)
+     */
+    public CampaignProgress(long position, long read, long attempted, long answered, long failed, long retried, long deferred, int active, int pendingRetries) {
+        this.position = position;
+        this.read = read;
+        this.attempted = attempted;
+        this.answered = answered;
+        this.failed = failed;
+        this.retried = retried;
+        this.deferred = deferred;
+        this.active = active;
+        this.pendingRetries = pendingRetries;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public static long readPosition(final File file) throws IOException
+     * @brief 진행 파일에서 재개 위치를 읽는 함수
+     * @param file 진행 파일(입력, 읽기 전용)
+     * @return 재개 위치, 파일이 없으면 1 (처음부터)
+     * @throws IOException 파일을 읽지 못하면
+     */
+    public static long readPosition(final File file) throws IOException {
+        if (!file.exists()) return 1;
+
+        Properties properties = new Properties();
+        try (InputStream inputStream = new FileInputStream(file)) {
+            properties.load(inputStream);
+        }
+        try {
+            return Math.max(1, Long.parseLong(properties.getProperty("position", "1").trim()));
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid campaign progress file : " + file, e);
+        }
+    }
+
+    /**
+     * @fn public void writeTo(final File file) throws IOException
+     * @brief 진행 상황을 진행 파일에 쓰는 함수 (임시 파일에 쓴 후 이름 변경)
+     * @param file 진행 파일(입력, 읽기 전용)
+     * @return 반환값 없음
+     * @throws IOException 파일을 쓰지 못하면
+     */
+    public void writeTo(final File file) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("position", String.valueOf(position));
+        properties.setProperty("read", String.valueOf(read));
+        properties.setProperty("attempted", String.valueOf(attempted));
+        properties.setProperty("answered", String.valueOf(answered));
+        properties.setProperty("failed", String.valueOf(failed));
+        properties.setProperty("retried", String.valueOf(retried));
+        properties.setProperty("deferred", String.valueOf(deferred));
+        properties.setProperty("active", String.valueOf(active));
+        properties.setProperty("pending-retries", String.valueOf(pendingRetries));
+
+        File temp = new File(file.getPath() + ".tmp");
+        try (OutputStream outputStream = new FileOutputStream(temp)) {
+            properties.store(outputStream, "Campaign progress (position : first unfinished line)");
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @fn public long getPosition()
+     * @brief 재개 위치를 반환하는 함수
+     * @return 재개 위치 (줄 번호)
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * @fn public long getRead()
+     * @brief 읽은 대상 수를 반환하는 함수
+     * @return 읽은 대상 수
+     */
+    public long getRead() {
+        return read;
+    }
+
+    /**
+     * @fn public long getAttempted()
+     * @brief 보낸 Invite 수를 반환하는 함수
+     * @return 보낸 Invite 수 (재시도 포함)
+     */
+    public long getAttempted() {
+        return attempted;
+    }
+
+    /**
+     * @fn public long getAnswered()
+     * @brief 200 OK 를 받은 대상 수를 반환하는 함수
+     * @return 200 OK 를 받은 대상 수
+     */
+    public long getAnswered() {
+        return answered;
+    }
+
+    /**
+     * @fn public long getFailed()
+     * @brief 실패로 끝난 대상 수를 반환하는 함수
+     * @return 실패로 끝난 대상 수
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * @fn public long getRetried()
+     * @brief 재시도를 예약한 횟수를 반환하는 함수
+     * @return 재시도를 예약한 횟수
+     */
+    public long getRetried() {
+        return retried;
+    }
+
+    /**
+     * @fn public long getDeferred()
+     * @brief 목적지별 최대 동시 호 수 때문에 미룬 횟수를 반환하는 함수
+     * @return 미룬 횟수
+     */
+    public long getDeferred() {
+        return deferred;
+    }
+
+    /**
+     * @fn public int getActive()
+     * @brief 현재 동시 호 수를 반환하는 함수
+     * @return 현재 동시 호 수
+     */
+    public int getActive() {
+        return active;
+    }
+
+    /**
+     * @fn public int getPendingRetries()
+     * @brief 재시도를 기다리는 대상 수를 반환하는 함수
+     * @return 재시도를 기다리는 대상 수
+     */
+    public int getPendingRetries() {
+        return pendingRetries;
+    }
+
+    @Override
+    public String toString() {
+        return "position=" + position +
+                ", read=" + read +
+                ", attempted=" + attempted +
+                ", answered=" + answered +
+                ", failed=" + failed +
+                ", retried=" + retried +
+                ", deferred=" + deferred +
+                ", active=" + active +
+                ", pendingRetries=" + pendingRetries;
+    }
+}
@@ -0,0 +1,512 @@
+package com.signal.campaign;
+
+import com.signal.lifecycle.LifecycleManager;
+import com.signal.logic.CallEventListener;
+import com.signal.logic.RequestManager;
+import com.signal.logic.SipCall;
+import com.signal.shard.SipShardGroup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sip.Dialog;
+import javax.sip.message.Response;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @class public class CampaignScheduler implements CallEventListener
+ * @brief 대상 목록(CampaignSource)을 읽으면서 지정한 CPS 로 Invite 를 발신하는 발신 캠페인 클래스
+ *
+ * - 발신 간격 : 발신 쓰레드 하나가 1/CPS 간격으로 Invite 를 하나씩 보낸다. 동시 호 제한 등으로 밀리면 밀린 만큼 몰아서 보내지 않는다. (최대 MAX_CATCH_UP)
+ * - 동시 호 제한 : 전체 동시 호 수가 최대이면 발신하지 않고 기다리며, 목적지(host:port)별 동시 호 수가 최대인 대상은 첫 재시도 대기 시간 후로 미룬다. (시도 횟수 차감 없음)
+ * - 재시도 : 재시도하는 실패 응답(408, 480, 503 등)이나 Invite 를 보내지 못한 대상은 retryBackoff * 2^(시도-1) (최대 maxRetryBackoff) 후 다시 발신한다.
+ *   재시도도 같은 발신 간격을 따르며, 기다리는 재시도가 발신할 차례인 새 대상보다 먼저 나간다.
+ * - 메모리 : 목록은 보낼 차례가 된 대상만 읽는다. 메모리에는 진행 중인 호와 재시도를 기다리는 대상(최대 maxPendingRetries, 도달하면 새 대상을 읽지 않음)만 둔다.
+ * - 진행 상황 : REPORT_INTERVAL 마다, 그리고 종료 시 집계를 출력하고 진행 파일에 재개 위치를 쓴다. (CampaignProgress)
+ *
+ * 노드가 정상 종료를 시작하면 발신을 멈추고, 결과가 나지 않은 대상은 재개 위치 뒤에 남긴다.
+ */
+public class CampaignScheduler implements CallEventListener {
+    /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
+    private static final Logger logger = LoggerFactory.getLogger(CampaignScheduler.class);
+    /* 통계 출력과 진행 파일 저장 주기 (ms) */
+    private static final long REPORT_INTERVAL = 1000;
+    /* 발신할 수 없을 때 다시 확인하는 최대 간격 (ns) */
+    private static final long IDLE_WAIT = TimeUnit.MILLISECONDS.toNanos(10);
+    /* 발신 쓰레드가 밀렸을 때 따라잡는 최대 시간 (ns, 넘으면 밀린 발신은 버림) */
+    private static final long MAX_CATCH_UP = TimeUnit.MILLISECONDS.toNanos(1);
+    /* 발신 측 샤드 (샤드를 나누지 않으면 SIP 호 정보 관리 객체 하나) */
+    private final SipShardGroup shardGroup;
+    /* 대상 목록 */
+    private final CampaignSource source;
+    /* 발신 캠페인 조건 */
+    private final CampaignConfig config;
+    /* 진행 파일 (null 이면 저장하지 않음) */
+    private final File progressFile;
+    /* Bye 예약, 통계 출력을 처리하는 타이머 쓰레드 풀 */
+    private final ScheduledThreadPoolExecutor scheduler;
+    /* 재시도를 기다리는 시도 (대기 시간이 지난 것만 꺼냄) */
+    private final DelayQueue<Attempt> retries = new DelayQueue<>();
+    /* 진행 중인 호의 시도 (Call-ID 별, Invite 전송 ~ Bye 완료) */
+    private final ConcurrentHashMap<String, Attempt> calls = new ConcurrentHashMap<>();
+    /* 목적지별 동시 호 수 (호가 있는 목적지만, 0 이 되면 지움) */
+    private final ConcurrentHashMap<String, AtomicInteger> destinations = new ConcurrentHashMap<>();
+    /* 결과가 나지 않은 대상의 줄 번호 (재개 위치 계산) */
+    private final ConcurrentSkipListSet<Long> unfinished = new ConcurrentSkipListSet<>();
+    /* 현재 동시 호 수 */
+    private final AtomicInteger activeCalls = new AtomicInteger(0);
+    /* 읽은 대상 수 */
+    private final AtomicLong readTargets = new AtomicLong(0);
+    /* 보낸 Invite 수 (재시도 포함) */
+    private final AtomicLong attemptedCalls = new AtomicLong(0);
+    /* 200 OK 를 받은 대상 수 */
+    private final AtomicLong answeredCalls = new AtomicLong(0);
+    /* 실패로 끝난 대상 수 */
+    private final AtomicLong failedCalls = new AtomicLong(0);
+    /* 재시도를 예약한 횟수 */
+    private final AtomicLong retriedCalls = new AtomicLong(0);
+    /* 목적지별 최대 동시 호 수 때문에 미룬 횟수 */
+    private final AtomicLong deferredCalls = new AtomicLong(0);
+    /* 모든 대상이 끝났음을 알리는 래치 */
+    private final CountDownLatch finishLatch = new CountDownLatch(1);
+    /* 다음에 읽을 줄 번호 (결과가 나지 않은 대상이 없을 때의 재개 위치) */
+    private volatile long readPosition = 1;
+    /* 목록을 모두 읽었는지 여부 */
+    private volatile boolean isExhausted = false;
+    /* 발신 중인지 여부 */
+    private volatile boolean isRunning = false;
+    /* 발신 시작 시각 (ms) */
+    private volatile long startTime = 0;
+    /* 발신 쓰레드 */
+    private Thread pacer;
+    /* 통계 출력 타이머 */
+    private ScheduledFuture<?> reportFuture;
+
+    /**
+     * @fn public CampaignScheduler(final SipShardGroup shardGroup, final CampaignSource source, final CampaignConfig config, final File progressFile)
+     * @brief 발신 캠페인 객체를 초기화하는 함수
+     * 발신 측 샤드의 호 결과를 이 객체로 전달받고, Bye 응답을 받아도 프로그램을 종료하지 않도록 설정한다.
+     * @param shardGroup   발신 측 샤드(입력, 읽기 전용)
+     * @param source       대상 목록(입력, 읽기 전용, 발신 쓰레드에서만 읽음)
+     * @param config       발신 캠페인 조건(입력, 읽기 전용)
+     * @param progressFile 진행 파일(입력, 읽기 전용, null 이면 저장하지 않음)
+     */
+    public CampaignScheduler(final SipShardGroup shardGroup, final CampaignSource source, final CampaignConfig config, final File progressFile) {
+        SipCall.checkObjectNull(null, shardGroup, source, config);
+
+        this.shardGroup = shardGroup;
+        this.source = source;
+        this.config = config;
+        this.progressFile = progressFile;
+        this.scheduler = new ScheduledThreadPoolExecutor(2, new ThreadFactory() {
+            private final AtomicInteger index = new AtomicInteger(0);
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                Thread thread = new Thread(runnable, "CampaignScheduler-" + index.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.scheduler.setRemoveOnCancelPolicy(true);
+
+        shardGroup.setCallEventListener(this);
+        shardGroup.setExitOnByeResponse(false);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public synchronized void start()
+     * @brief 발신과 통계 출력을 시작하는 함수
+     * @return 반환값 없음
+     */
+    public synchronized void start() {
+        if (startTime != 0) throw new IllegalStateException("Campaign is already started");
+
+        logger.info("Campaign start ({}, Shards:{})", config, shardGroup.getShardCount());
+        startTime = System.currentTimeMillis();
+        isRunning = true;
+
+        pacer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                pace();
+            }
+        }, "CampaignPacer");
+        pacer.setDaemon(true);
+        pacer.start();
+
+        reportFuture = scheduler.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                report("Campaign");
+            }
+        }, REPORT_INTERVAL, REPORT_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @fn public boolean awaitCompletion(long timeout, final TimeUnit timeUnit)
+     * @brief 모든 대상이 끝나고 남은 호가 모두 종료될 때까지 기다리는 함수
+     * @param timeout  최대 대기 시간(입력)
+     * @param timeUnit 시간 단위(입력, 읽기 전용)
+     * @return 모두 종료되었으면 true, 시간 초과 시 false 반환
+     * @throws InterruptedException 대기 중 인터럽트 발생 시
+     */
+    public boolean awaitCompletion(long timeout, final TimeUnit timeUnit) throws InterruptedException {
+        return finishLatch.await(timeout, timeUnit);
+    }
+
+    /**
+     * @fn public synchronized void stop()
+     * @brief 발신을 중단하고 최종 통계와 진행 파일을 저장하는 함수 (남은 호는 기다리지 않고, 결과가 나지 않은 대상은 재개 위치 뒤에 남김)
+     * @return 반환값 없음
+     */
+    public synchronized void stop() {
+        if (finishLatch.getCount() == 0) return;
+
+        isRunning = false;
+        if (pacer != null && pacer != Thread.currentThread()) LockSupport.unpark(pacer);
+        if (reportFuture != null) reportFuture.cancel(false);
+        scheduler.shutdownNow();
+        try {
+            source.close();
+        } catch (IOException e) {
+            logger.warn("Fail to close campaign source", e);
+        }
+
+        report("Campaign result");
+        finishLatch.countDown();
+    }
+
+    /**
+     * @fn public CampaignProgress getProgress()
+     * @brief 현재까지의 진행 상황을 반환하는 함수
+     * @return 진행 상황
+     */
+    public CampaignProgress getProgress() {
+        // 줄 번호를 unfinished 에 넣은 후 readPosition 을 올리므로, readPosition 을 먼저 읽어야 읽는 중인 대상을 건너뛰지 않는다.
+        long position = readPosition;
+        Long first = unfinished.ceiling(Long.MIN_VALUE);
+        if (first != null) position = Math.min(position, first);
+        return new CampaignProgress(position, readTargets.get(), attemptedCalls.get(), answeredCalls.get(), failedCalls.get(),
+                retriedCalls.get(), deferredCalls.get(), activeCalls.get(), retries.size());
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Override Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public void onInviteAnswered(final String callId, final Dialog dialog)
+     * @brief 200 OK 를 받은 대상을 끝난 것으로 기록하고 통화 유지 시간 후 Bye 를 예약하는 함수
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @param dialog 설립된 다이얼로그(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    @Override
+    public void onInviteAnswered(final String callId, final Dialog dialog) {
+        Attempt attempt = calls.get(callId);
+        if (attempt == null) return;
+
+        answeredCalls.incrementAndGet();
+        unfinished.remove(attempt.target.getSequence());
+
+        try {
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    if (!RequestManager.getInstance().requestBye(shardGroup.getShard(callId), dialog)) {
+                        endCall(calls.remove(callId));
+                    }
+                }
+            }, config.getHoldTime(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // 발신 캠페인이 중단된 경우
+            endCall(calls.remove(callId));
+        }
+    }
+
+    /**
+     * @fn public void onInviteFailed(final String callId, int statusCode)
+     * @brief 실패 응답 또는 시간 초과로 끝난 시도를 재시도로 예약하거나 실패로 집계하는 함수
+     * @param callId     Call-ID(입력, 읽기 전용)
+     * @param statusCode 응답 코드(입력)
+     * @return 반환값 없음
+     */
+    @Override
+    public void onInviteFailed(final String callId, int statusCode) {
+        Attempt attempt = calls.remove(callId);
+        if (attempt == null) return;
+
+        logger.debug("Campaign Invite is failed (Call-ID:{}, Line:{}, Attempt:{}, Code:{})", callId, attempt.target.getSequence(), attempt.number, statusCode);
+        endCall(attempt);
+        retryOrFail(attempt, config.isRetryable(statusCode));
+    }
+
+    /**
+     * @fn public void onByeCompleted(final String callId, int statusCode)
+     * @brief Bye 가 끝난 호의 동시 호 수를 줄이는 함수
+     * @param callId     Call-ID(입력, 읽기 전용)
+     * @param statusCode 응답 코드(입력)
+     * @return 반환값 없음
+     */
+    @Override
+    public void onByeCompleted(final String callId, int statusCode) {
+        if (statusCode != Response.OK) logger.debug("Campaign Bye is failed (Call-ID:{}, Code:{})", callId, statusCode);
+        endCall(calls.remove(callId));
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private void pace()
+     * @brief 발신 간격마다 재시도 또는 새 대상을 하나씩 발신하는 함수 (발신 쓰레드 전용)
+     * @return 반환값 없음
+     */
+    private void pace() {
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / config.getCps());
+        long nextSendTime = System.nanoTime();
+
+        while (isRunning) {
+            if (!LifecycleManager.getInstance().isRunning()) {
+                logger.info("Node is draining, campaign is stopped");
+                stop();
+                return;
+            }
+
+            long now = System.nanoTime();
+            if (nextSendTime > now) {
+                LockSupport.parkNanos(Math.min(nextSendTime - now, IDLE_WAIT));
+                continue;
+            }
+            // 밀린 발신을 한꺼번에 보내지 않는다.
+            if (now - nextSendTime > Math.max(interval, MAX_CATCH_UP)) nextSendTime = now;
+
+            if (activeCalls.get() >= config.getMaxConcurrentCalls()) {
+                LockSupport.parkNanos(Math.min(interval, IDLE_WAIT));
+                continue;
+            }
+
+            Attempt attempt = retries.poll();
+            if (attempt == null) attempt = readNext();
+            if (attempt == null) {
+                if (isExhausted && retries.isEmpty() && activeCalls.get() == 0) {
+                    logger.info("Campaign is finished");
+                    stop();
+                    return;
+                }
+                LockSupport.parkNanos(Math.min(interval, IDLE_WAIT));
+                continue;
+            }
+
+            // 목적지별 동시 호 수가 최대이면 발신 간격을 쓰지 않고 미룬다.
+            if (!acquireDestination(attempt.target.getDestination())) {
+                deferredCalls.incrementAndGet();
+                retries.add(attempt.after(config.getRetryBackoff()));
+                continue;
+            }
+
+            send(attempt);
+            nextSendTime += interval;
+        }
+    }
+
+    /**
+     * @fn private Attempt readNext()
+     * @brief 목록에서 다음 대상을 읽어 첫 시도를 만드는 함수 (발신 쓰레드 전용)
+     * @return 첫 시도, 목록이 끝났거나 재시도를 기다리는 대상이 최대이면 null 반환
+     */
+    private Attempt readNext() {
+        if (isExhausted || retries.size() >= config.getMaxPendingRetries()) return null;
+
+        CampaignTarget target;
+        try {
+            target = source.next();
+        } catch (IOException e) {
+            logger.error("Fail to read campaign target, no more targets are read", e);
+            target = null;
+        }
+        if (target == null) {
+            isExhausted = true;
+            logger.info("Campaign targets are all read ({} targets), waiting for {} active calls and {} retries",
+                    readTargets.get(), activeCalls.get(), retries.size());
+            return null;
+        }
+
+        unfinished.add(target.getSequence());
+        readPosition = target.getSequence() + 1;
+        readTargets.incrementAndGet();
+        return new Attempt(target, 1, 0);
+    }
+
+    /**
+     * @fn private void send(final Attempt attempt)
+     * @brief 시도 하나의 Invite 를 보내는 함수 (목적지 동시 호 수는 이미 올림)
+     * @param attempt 시도(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    private void send(final Attempt attempt) {
+        activeCalls.incrementAndGet();
+        attemptedCalls.incrementAndGet();
+
+        // 응답이 requestInvite 반환보다 먼저 처리될 수 있으므로 Call-ID 를 먼저 만들어 등록한다.
+        String callId = shardGroup.newCallId();
+        SipCall sipCall = shardGroup.getShard(callId);
+        calls.put(callId, attempt);
+
+        CampaignTarget target = attempt.target;
+        if (RequestManager.getInstance().requestInvite(sipCall, target.getToURI(), target.getToPort(), target.getTransport(), callId) == null
+                && calls.remove(callId) != null) {
+            endCall(attempt);
+            retryOrFail(attempt, true);
+        }
+    }
+
+    /**
+     * @fn private void retryOrFail(final Attempt attempt, boolean isRetryable)
+     * @brief 실패한 시도를 재시도로 예약하거나, 시도 횟수를 모두 쓰면 실패로 집계하는 함수
+     * 발신이 중단되었으면 아무것도 하지 않는다. (결과가 나지 않은 대상으로 남김)
+     * @param attempt     실패한 시도(입력, 읽기 전용)
+     * @param isRetryable 재시도하는 실패인지 여부(입력)
+     * @return 반환값 없음
+     */
+    private void retryOrFail(final Attempt attempt, boolean isRetryable) {
+        if (!isRunning) return;
+
+        if (isRetryable && attempt.number < config.getMaxAttempts()) {
+            retriedCalls.incrementAndGet();
+            retries.add(new Attempt(attempt.target, attempt.number + 1, config.getBackoff(attempt.number)));
+        } else {
+            failedCalls.incrementAndGet();
+            unfinished.remove(attempt.target.getSequence());
+        }
+    }
+
+    /**
+     * @fn private void endCall(final Attempt attempt)
+     * @brief 호 하나가 끝났을 때 전체/목적지별 동시 호 수를 줄이는 함수
+     * @param attempt 끝난 호의 시도(입력, 읽기 전용, null 이면 이미 처리된 호)
+     * @return 반환값 없음
+     */
+    private void endCall(final Attempt attempt) {
+        if (attempt == null) return;
+
+        releaseDestination(attempt.target.getDestination());
+        activeCalls.decrementAndGet();
+    }
+
+    /**
+     * @fn private boolean acquireDestination(final String destination)
+     * @brief 목적지의 동시 호 수가 최대보다 작으면 하나 올리는 함수
+     * 동시 호 수가 0 이 되어 지우는 중인 카운터(-1)는 새로 만들 때까지 다시 찾는다.
+     * @param destination 목적지 키(입력, 읽기 전용)
+     * @return 올렸으면 true, 최대이면 false 반환
+     */
+    private boolean acquireDestination(final String destination) {
+        while (true) {
+            AtomicInteger count = destinations.get(destination);
+            if (count == null) {
+                AtomicInteger newCount = new AtomicInteger(0);
+                count = destinations.putIfAbsent(destination, newCount);
+                if (count == null) count = newCount;
+            }
+
+            int current = count.get();
+            if (current < 0) continue;
+            if (current >= config.getMaxCallsPerDestination()) return false;
+            if (count.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    /**
+     * @fn private void releaseDestination(final String destination)
+     * @brief 목적지의 동시 호 수를 줄이고, 0 이 되면 카운터를 지우는 함수
+     * @param destination 목적지 키(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    private void releaseDestination(final String destination) {
+        AtomicInteger count = destinations.get(destination);
+        if (count == null) return;
+
+        if (count.decrementAndGet() == 0 && count.compareAndSet(0, -1)) {
+            destinations.remove(destination, count);
+        }
+    }
+
+    /**
+     * @fn private void report(final String title)
+     * @brief 현재까지의 진행 상황을 출력하고 진행 파일에 저장하는 함수 (대상을 하나도 읽지 않았으면 저장하지 않음)
+     * @param title 출력 제목(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    private void report(final String title) {
+        CampaignProgress progress = getProgress();
+        long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+        logger.info("{} : elapsed={}s, {} ({} cps)", title, elapsed / 1000, progress,
+                String.format("%.1f", progress.getAttempted() * 1000.0 / elapsed));
+
+        if (progressFile == null || progress.getRead() == 0) return;
+        try {
+            progress.writeTo(progressFile);
+        } catch (IOException e) {
+            logger.warn("Fail to write campaign progress ({})", progressFile, e);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Inner Class
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @class private static class Attempt implements Delayed
+     * @brief 대상 하나의 시도 번호와 발신 가능 시각 (재시도 대기열)
+     */
+    private static class Attempt implements Delayed {
+        private final CampaignTarget target;
+        /* 시도 번호 (1 부터) */
+        private final int number;
+        /* 발신 가능 시각 (ns) */
+        private final long dueTime;
+
+        private Attempt(final CampaignTarget target, int number, long delayMillis) {
+            this.target = target;
+            this.number = number;
+            this.dueTime = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        }
+
+        /* 시도 번호는 그대로 두고 발신 가능 시각만 미룬 시도 */
+        private Attempt after(long delayMillis) {
+            return new Attempt(target, number, delayMillis);
+        }
+
+        @Override
+        public long getDelay(final TimeUnit unit) {
+            return unit.convert(dueTime - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(final Delayed other) {
+            if (other == this) return 0;
+            long diff = getDelay(TimeUnit.NANOSECONDS) - other.getDelay(TimeUnit.NANOSECONDS);
+            return diff < 0 ? -1 : diff > 0 ? 1 : 0;
+        }
+    }
+}
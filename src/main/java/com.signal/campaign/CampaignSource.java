@@ -0,0 +1,19 @@
+package com.signal.campaign;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * @interface public interface CampaignSource extends Closeable
+ * @brief 발신 캠페인 대상을 하나씩 읽어오는 인터페이스
+ * 목록 전체를 메모리에 올리지 않도록 CampaignScheduler 는 보낼 차례가 된 대상만 읽는다. (발신 쓰레드 하나에서만 호출)
+ */
+public interface CampaignSource extends Closeable {
+    /**
+     * @fn CampaignTarget next() throws IOException
+     * @brief 다음 발신 대상을 반환하는 함수
+     * @return 발신 대상, 목록이 끝났으면 null 반환
+     * @throws IOException 목록을 읽지 못하면
+     */
+    CampaignTarget next() throws IOException;
+}
@@ -0,0 +1,133 @@
+package com.signal.campaign;
+
+/**
+ * @class public class CampaignTarget
+ * @brief 발신 캠페인의 대상 하나 (목록의 줄 번호, 상대방 URI, 포트, 전송 프로토콜)
+ * 목록의 한 줄은 user@host[:port][;transport=udp|tcp|tls] 형식이며, 포트와 전송을 생략하면 기본값을 사용한다.
+ */
+public class CampaignTarget {
+    /* 목록에서의 줄 번호 (1 부터, 진행 위치와 재개 위치) */
+    private final long sequence;
+    /* 상대방 URI (user@host) */
+    private final String toURI;
+    /* 상대방 포트 */
+    private final int toPort;
+    /* 전송 프로토콜 */
+    private final String transport;
+
+    /**
+     * @fn public CampaignTarget(long sequence, final String toURI, int toPort, final String transport)
+     * @brief 발신 대상을 초기화하는 함수
+     * @param sequence  목록에서의 줄 번호(입력)
+     * @param toURI     상대방 URI, user@host(입력, 읽기 전용)
+     * @param toPort    상대방 포트(입력, 0 이면 지정하지 않음)
+     * @param transport 전송 프로토콜, udp/tcp/tls(입력, 읽기 전용, 빈 문자열이면 지정하지 않음)
+     */
+    public CampaignTarget(long sequence, final String toURI, int toPort, final String transport) {
+        if (toURI == null || transport == null) throw new NullPointerException("Parameter Error (Null)");
+        if (toURI.indexOf('@') <= 0 || toURI.indexOf('@') == toURI.length() - 1) throw new IllegalArgumentException("Invalid URI : " + toURI);
+        if (toPort < 0 || toPort > 65535) throw new IllegalArgumentException("Invalid port : " + toPort);
+
+        this.sequence = sequence;
+        this.toURI = toURI;
+        this.toPort = toPort;
+        this.transport = transport.toLowerCase();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public static CampaignTarget parse(long sequence, final String line, int defaultPort, final String defaultTransport)
+     * @brief 목록의 한 줄을 발신 대상으로 변환하는 함수
+     * @param sequence         줄 번호(입력)
+     * @param line             user@host[:port][;transport=...] 형식의 문자열(입력, 읽기 전용)
+     * @param defaultPort      포트를 생략했을 때의 포트(입력)
+     * @param defaultTransport 전송을 생략했을 때의 전송 프로토콜(입력, 읽기 전용)
+     * @return 발신 대상
+     * @throws IllegalArgumentException 형식이 맞지 않으면
+     */
+    public static CampaignTarget parse(long sequence, final String line, int defaultPort, final String defaultTransport) {
+        String value = line.trim();
+        if (value.startsWith("sip:")) value = value.substring(4);
+
+        String transport = defaultTransport;
+        int paramIndex = value.indexOf(';');
+        if (paramIndex >= 0) {
+            for (String param : value.substring(paramIndex + 1).split(";")) {
+                if (param.trim().toLowerCase().startsWith("transport=")) {
+                    transport = param.trim().substring("transport=".length());
+                }
+            }
+            value = value.substring(0, paramIndex);
+        }
+
+        int port = defaultPort;
+        int portIndex = value.lastIndexOf(':');
+        if (portIndex > value.indexOf('@')) {
+            try {
+                port = Integer.parseInt(value.substring(portIndex + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid port : " + line);
+            }
+            value = value.substring(0, portIndex);
+        }
+        return new CampaignTarget(sequence, value, port, transport);
+    }
+
+    /**
+     * @fn public long getSequence()
+     * @brief 목록에서의 줄 번호를 반환하는 함수
+     * @return 줄 번호
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @fn public String getToURI()
+     * @brief 상대방 URI 를 반환하는 함수
+     * @return 상대방 URI (user@host)
+     */
+    public String getToURI() {
+        return toURI;
+    }
+
+    /**
+     * @fn public int getToPort()
+     * @brief 상대방 포트를 반환하는 함수
+     * @return 상대방 포트
+     */
+    public int getToPort() {
+        return toPort;
+    }
+
+    /**
+     * @fn public String getTransport()
+     * @brief 전송 프로토콜을 반환하는 함수
+     * @return 전송 프로토콜
+     */
+    public String getTransport() {
+        return transport;
+    }
+
+    /**
+     * @fn public String getDestination()
+     * @brief 목적지별 동시 호 제한에 사용하는 목적지 키를 반환하는 함수 (상대방 host:port)
+     * @return 목적지 키
+     */
+    public String getDestination() {
+        return toURI.substring(toURI.indexOf('@') + 1) + ":" + toPort;
+    }
+
+    @Override
+    public String toString() {
+        return "CampaignTarget{" +
+                "sequence=" + sequence +
+                ", toURI='" + toURI + '\'' +
+                ", toPort=" + toPort +
+                ", transport='" + transport + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,98 @@
+package com.signal.campaign;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @class public class FileCampaignSource implements CampaignSource
+ * @brief 한 줄에 대상 하나씩 적은 텍스트 파일에서 발신 대상을 읽는 클래스
+ * 파일은 한 줄씩 읽으므로 목록 크기와 관계없이 메모리를 일정하게 사용한다.
+ * 빈 줄과 # 으로 시작하는 줄은 건너뛰고, 형식이 맞지 않는 줄은 경고를 남기고 건너뛴다.
+ * 재개 위치(줄 번호)를 지정하면 그 앞의 줄은 대상으로 만들지 않는다. (CampaignProgress.readPosition)
+ */
+public class FileCampaignSource implements CampaignSource {
+    /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
+    private static final Logger logger = LoggerFactory.getLogger(FileCampaignSource.class);
+    /* 대상 목록 파일 */
+    private final File file;
+    /* 포트를 생략했을 때의 포트 */
+    private final int defaultPort;
+    /* 전송을 생략했을 때의 전송 프로토콜 */
+    private final String defaultTransport;
+    /* 재개 위치 (이 줄 번호부터 대상으로 만듦) */
+    private final long startPosition;
+    /* 파일 읽기 객체 */
+    private final BufferedReader reader;
+    /* 마지막으로 읽은 줄 번호 */
+    private long lineNumber = 0;
+    /* 형식이 맞지 않아 건너뛴 줄 수 */
+    private long invalidLines = 0;
+
+    /**
+     * @fn public FileCampaignSource(final File file, int defaultPort, final String defaultTransport, long startPosition)
+     * @brief 대상 목록 파일을 여는 함수
+     * @param file             대상 목록 파일(입력, 읽기 전용)
+     * @param defaultPort      포트를 생략했을 때의 포트(입력)
+     * @param defaultTransport 전송을 생략했을 때의 전송 프로토콜(입력, 읽기 전용)
+     * @param startPosition    재개 위치, 줄 번호(입력, 처음부터면 1 이하)
+     * @throws IOException 파일을 열지 못하면
+     */
+    public FileCampaignSource(final File file, int defaultPort, final String defaultTransport, long startPosition) throws IOException {
+        if (file == null || defaultTransport == null) throw new NullPointerException("Parameter Error (Null)");
+
+        this.file = file;
+        this.defaultPort = defaultPort;
+        this.defaultTransport = defaultTransport;
+        this.startPosition = startPosition;
+        this.reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public long getInvalidLines()
+     * @brief 형식이 맞지 않아 건너뛴 줄 수를 반환하는 함수
+     * @return 건너뛴 줄 수
+     */
+    public long getInvalidLines() {
+        return invalidLines;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Override Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public CampaignTarget next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber < startPosition) continue;
+
+            String value = line.trim();
+            if (value.isEmpty() || value.startsWith("#")) continue;
+
+            try {
+                return CampaignTarget.parse(lineNumber, value, defaultPort, defaultTransport);
+            } catch (IllegalArgumentException e) {
+                invalidLines++;
+                logger.warn("Invalid campaign target is skipped ({}:{}, {})", file.getName(), lineNumber, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
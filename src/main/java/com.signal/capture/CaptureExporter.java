@@ -0,0 +1,266 @@
+package com.signal.capture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @class public class CaptureExporter
+ * @brief 캡처 파일을 텍스트 또는 pcap 파일로 변환하는 클래스
+ * 입력 파일은 이름 순(= 생성 순)으로 정렬해서 읽는다.
+ *
+ * pcap 은 LINKTYPE_RAW(IP 패킷)로 기록하고, 전송 프로토콜과 관계없이 모든 메시지를 UDP 데이터그램 하나로 만든다.
+ * (TCP/TLS 메시지도 Wireshark 의 SIP 분석기로 볼 수 있도록, TCP 세그먼트는 만들지 않음)
+ */
+public class CaptureExporter {
+    /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
+    private static final Logger logger = LoggerFactory.getLogger(CaptureExporter.class);
+    /* pcap 파일 식별자 (us 단위 시각) */
+    private static final int PCAP_MAGIC = 0xA1B2C3D4;
+    /* pcap 링크 유형 : IP 패킷 */
+    private static final int LINKTYPE_RAW = 101;
+    /* pcap 최대 캡처 길이 */
+    private static final int PCAP_SNAP_LENGTH = 65535;
+    /* IPv4 / IPv6 / UDP 헤더 크기 */
+    private static final int IPV4_HEADER_SIZE = 20;
+    private static final int IPV6_HEADER_SIZE = 40;
+    private static final int UDP_HEADER_SIZE = 8;
+    /* IP 프로토콜 번호 : UDP */
+    private static final int PROTOCOL_UDP = 17;
+    /* IP TTL / Hop Limit */
+    private static final int HOP_LIMIT = 64;
+
+    private CaptureExporter() {
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public static int exportText(final List<File> files, final File output)
+     * @brief 캡처 파일을 사람이 읽을 수 있는 텍스트 파일로 변환하는 함수
+     * @param files  캡처 파일 목록(입력, 읽기 전용)
+     * @param output 텍스트 파일(입력, 읽기 전용)
+     * @return 변환한 메시지 수
+     */
+    public static int exportText(final List<File> files, final File output) throws IOException {
+        if (files == null || output == null) throw new NullPointerException("Parameter Error (Null)");
+
+        int count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(output), CaptureFormat.CHARSET));
+        try {
+            for (File file : sort(files)) {
+                CaptureReader reader = new CaptureReader(file);
+                try {
+                    CaptureRecord record;
+                    while ((record = reader.next()) != null) {
+                        writer.write(record.toText());
+                        writer.write("\n");
+                        count++;
+                    }
+                } finally {
+                    reader.close();
+                }
+            }
+        } finally {
+            writer.close();
+        }
+
+        logger.debug("{} captures are exported to text ({})", count, output);
+        return count;
+    }
+
+    /**
+     * @fn public static int exportPcap(final List<File> files, final File output)
+     * @brief 캡처 파일을 pcap 파일로 변환하는 함수
+     * IP 패킷 하나에 담을 수 없는 메시지는 건너뛴다.
+     * @param files  캡처 파일 목록(입력, 읽기 전용)
+     * @param output pcap 파일(입력, 읽기 전용)
+     * @return 변환한 메시지 수
+     */
+    public static int exportPcap(final List<File> files, final File output) throws IOException {
+        if (files == null || output == null) throw new NullPointerException("Parameter Error (Null)");
+
+        int count = 0;
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(output)));
+        try {
+            // Global Header (Big Endian, 읽는 쪽에서 식별자로 판단)
+            out.writeInt(PCAP_MAGIC);
+            out.writeShort(2);
+            out.writeShort(4);
+            out.writeInt(0);
+            out.writeInt(0);
+            out.writeInt(PCAP_SNAP_LENGTH);
+            out.writeInt(LINKTYPE_RAW);
+
+            for (File file : sort(files)) {
+                CaptureReader reader = new CaptureReader(file);
+                try {
+                    CaptureRecord record;
+                    while ((record = reader.next()) != null) {
+                        byte[] packet = toPacket(record);
+                        if (packet == null) {
+                            logger.warn("Capture is too large for pcap (Length:{})", record.getMessage().length);
+                            continue;
+                        }
+
+                        out.writeInt((int) (record.getTimestamp() / 1000000));
+                        out.writeInt((int) (record.getTimestamp() % 1000000));
+                        out.writeInt(packet.length);
+                        out.writeInt(packet.length);
+                        out.write(packet);
+                        count++;
+                    }
+                } finally {
+                    reader.close();
+                }
+            }
+        } finally {
+            out.close();
+        }
+
+        logger.debug("{} captures are exported to pcap ({})", count, output);
+        return count;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private static List<File> sort(final List<File> files)
+     * @brief 캡처 파일을 이름 순으로 정렬하는 함수
+     * @param files 캡처 파일 목록(입력, 읽기 전용)
+     * @return 정렬한 캡처 파일 목록
+     */
+    private static List<File> sort(final List<File> files) {
+        List<File> sorted = new ArrayList<>(files);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * @fn private static byte[] toPacket(final CaptureRecord record)
+     * @brief 레코드를 IP/UDP 패킷으로 만드는 함수
+     * 두 주소가 모두 IPv4(또는 모름)이면 IPv4, 하나라도 IPv6 이면 IPv6 패킷을 만든다.
+     * @param record 레코드(입력, 읽기 전용)
+     * @return IP 패킷, 메시지가 너무 크면 null 반환
+     */
+    private static byte[] toPacket(final CaptureRecord record) {
+        byte[] source = record.isReceived() ? record.getPeerAddress() : record.getLocalAddress();
+        byte[] destination = record.isReceived() ? record.getLocalAddress() : record.getPeerAddress();
+        int sourcePort = record.isReceived() ? record.getPeerPort() : record.getLocalPort();
+        int destinationPort = record.isReceived() ? record.getLocalPort() : record.getPeerPort();
+        byte[] message = record.getMessage();
+
+        boolean ipv6 = source.length == 16 || destination.length == 16;
+        int ipHeaderSize = ipv6 ? IPV6_HEADER_SIZE : IPV4_HEADER_SIZE;
+        int udpLength = UDP_HEADER_SIZE + message.length;
+        if (ipHeaderSize + udpLength > PCAP_SNAP_LENGTH) return null;
+
+        byte[] packet = new byte[ipHeaderSize + udpLength];
+        if (ipv6) {
+            source = toIpv6(source);
+            destination = toIpv6(destination);
+            packet[0] = 0x60;
+            putShort(packet, 4, udpLength);
+            packet[6] = PROTOCOL_UDP;
+            packet[7] = HOP_LIMIT;
+            System.arraycopy(source, 0, packet, 8, 16);
+            System.arraycopy(destination, 0, packet, 24, 16);
+        } else {
+            source = toIpv4(source);
+            destination = toIpv4(destination);
+            packet[0] = 0x45;
+            putShort(packet, 2, packet.length);
+            packet[8] = HOP_LIMIT;
+            packet[9] = PROTOCOL_UDP;
+            System.arraycopy(source, 0, packet, 12, 4);
+            System.arraycopy(destination, 0, packet, 16, 4);
+            putShort(packet, 10, checksum(packet, 0, IPV4_HEADER_SIZE, 0));
+        }
+
+        int udp = ipHeaderSize;
+        putShort(packet, udp, sourcePort);
+        putShort(packet, udp + 2, destinationPort);
+        putShort(packet, udp + 4, udpLength);
+        System.arraycopy(message, 0, packet, udp + UDP_HEADER_SIZE, message.length);
+
+        // UDP Checksum (IPv4 는 생략 가능하지만 IPv6 는 필수), 가상 헤더 : 주소 + 프로토콜 + UDP 길이
+        int pseudo = PROTOCOL_UDP + udpLength + sum(source) + sum(destination);
+        int udpChecksum = checksum(packet, udp, udpLength, pseudo);
+        putShort(packet, udp + 6, udpChecksum == 0 ? 0xFFFF : udpChecksum);
+        return packet;
+    }
+
+    private static byte[] toIpv4(final byte[] address) {
+        return address.length == 4 ? address : new byte[4];
+    }
+
+    private static byte[] toIpv6(final byte[] address) {
+        if (address.length == 16) return address;
+
+        byte[] mapped = new byte[16];
+        if (address.length == 4) {
+            // IPv4-mapped IPv6 주소 (::ffff:a.b.c.d)
+            mapped[10] = (byte) 0xFF;
+            mapped[11] = (byte) 0xFF;
+            System.arraycopy(address, 0, mapped, 12, 4);
+        }
+        return mapped;
+    }
+
+    private static void putShort(final byte[] data, int offset, int value) {
+        data[offset] = (byte) (value >>> 8);
+        data[offset + 1] = (byte) value;
+    }
+
+    /**
+     * @fn private static int sum(final byte[] data)
+     * @brief 16 bit 단위 합을 구하는 함수 (Checksum 가상 헤더용, 길이는 짝수)
+     * @param data 데이터(입력, 읽기 전용)
+     * @return 16 bit 단위 합
+     */
+    private static int sum(final byte[] data) {
+        int sum = 0;
+        for (int i = 0; i < data.length; i += 2) {
+            sum += ((data[i] & 0xFF) << 8) | (data[i + 1] & 0xFF);
+        }
+        return sum;
+    }
+
+    /**
+     * @fn private static int checksum(final byte[] data, int offset, int length, int initial)
+     * @brief 인터넷 Checksum(RFC 1071)을 구하는 함수 (Checksum 필드는 0 이어야 함)
+     * @param data    데이터(입력, 읽기 전용)
+     * @param offset  시작 위치(입력)
+     * @param length  길이(입력)
+     * @param initial 가상 헤더 합(입력)
+     * @return Checksum
+     */
+    private static int checksum(final byte[] data, int offset, int length, int initial) {
+        long sum = initial & 0xFFFFFFFFL;
+        int end = offset + length;
+        for (int i = offset; i < end; i += 2) {
+            int high = data[i] & 0xFF;
+            int low = i + 1 < end ? data[i + 1] & 0xFF : 0;
+            sum += (high << 8) | low;
+        }
+        while ((sum >>> 16) != 0) {
+            sum = (sum & 0xFFFF) + (sum >>> 16);
+        }
+        return (int) (~sum & 0xFFFF);
+    }
+}
@@ -0,0 +1,124 @@
+package com.signal.capture;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.Charset;
+
+/**
+ * @class public final class CaptureFormat
+ * @brief SIP 메시지 캡처 파일 형식 (Big Endian)
+ *
+ * 파일 헤더 (16 byte)
+ * - magic(6) "SIGCAP", version(2), 파일 생성 시각(8, epoch us)
+ *
+ * 레코드 (파일 헤더 뒤에 연속, 길이가 0 이면 파일 끝)
+ * - length(4)          : length 뒤의 레코드 길이
+ * - timestamp(8)       : epoch us
+ * - direction(1)       : 0 수신, 1 송신
+ * - transport(1)       : 0 udp, 1 tcp, 2 tls, 3 기타
+ * - local address(1+n) : 주소 길이(0, 4, 16) + 주소
+ * - local port(2)
+ * - peer address(1+n)  : 주소 길이(0, 4, 16) + 주소
+ * - peer port(2)
+ * - message            : 나머지 전체, SIP 메시지 원문
+ */
+public final class CaptureFormat {
+    /* 파일 식별자 */
+    public static final byte[] MAGIC = {'S', 'I', 'G', 'C', 'A', 'P'};
+    /* 파일 형식 버전 */
+    public static final short VERSION = 1;
+    /* 파일 헤더 크기 */
+    public static final int FILE_HEADER_SIZE = 16;
+    /* 주소를 제외한 레코드 헤더 크기 (length, timestamp, direction, transport, 주소 길이 2 개, 포트 2 개) */
+    public static final int RECORD_FIXED_SIZE = 4 + 8 + 1 + 1 + 1 + 2 + 1 + 2;
+    /* 캡처 파일 확장자 */
+    public static final String FILE_EXTENSION = ".sigcap";
+    /* 메시지 문자셋 */
+    public static final Charset CHARSET = Charset.forName("UTF-8");
+    /* 방향 : 수신 */
+    public static final byte DIRECTION_RECV = 0;
+    /* 방향 : 송신 */
+    public static final byte DIRECTION_SEND = 1;
+    /* 전송 프로토콜 코드 */
+    public static final byte TRANSPORT_UDP = 0;
+    public static final byte TRANSPORT_TCP = 1;
+    public static final byte TRANSPORT_TLS = 2;
+    public static final byte TRANSPORT_OTHER = 3;
+    /* 주소 없음 */
+    private static final byte[] NO_ADDRESS = new byte[0];
+
+    private CaptureFormat() {
+    }
+
+    /**
+     * @fn public static byte toTransportCode(final String transport)
+     * @brief 전송 프로토콜 이름을 코드로 변환하는 함수
+     * @param transport 전송 프로토콜(입력, 읽기 전용, null 이면 기타)
+     * @return 전송 프로토콜 코드
+     */
+    public static byte toTransportCode(final String transport) {
+        if (transport == null) return TRANSPORT_OTHER;
+        if (transport.equalsIgnoreCase("udp")) return TRANSPORT_UDP;
+        if (transport.equalsIgnoreCase("tcp")) return TRANSPORT_TCP;
+        if (transport.equalsIgnoreCase("tls")) return TRANSPORT_TLS;
+        return TRANSPORT_OTHER;
+    }
+
+    /**
+     * @fn public static String toTransportName(byte transportCode)
+     * @brief 전송 프로토콜 코드를 이름으로 변환하는 함수
+     * @param transportCode 전송 프로토콜 코드(입력)
+     * @return 전송 프로토콜 이름
+     */
+    public static String toTransportName(byte transportCode) {
+        switch (transportCode) {
+            case TRANSPORT_UDP: return "udp";
+            case TRANSPORT_TCP: return "tcp";
+            case TRANSPORT_TLS: return "tls";
+            default: return "other";
+        }
+    }
+
+    /**
+     * @fn public static byte[] toAddressBytes(final String host)
+     * @brief IP 주소 문자열을 주소 바이트 배열로 변환하는 함수 (DNS 조회는 하지 않음)
+     * @param host IP 주소 문자열(입력, 읽기 전용)
+     * @return 주소 바이트 배열 (IP 주소가 아니면 길이 0)
+     */
+    public static byte[] toAddressBytes(final String host) {
+        if (host == null || host.isEmpty() || !isIpLiteral(host)) return NO_ADDRESS;
+        try {
+            return InetAddress.getByName(host).getAddress();
+        } catch (UnknownHostException e) {
+            return NO_ADDRESS;
+        }
+    }
+
+    /**
+     * @fn public static byte[] toAddressBytes(final InetAddress address)
+     * @brief 주소를 주소 바이트 배열로 변환하는 함수
+     * @param address 주소(입력, 읽기 전용)
+     * @return 주소 바이트 배열 (null 이면 길이 0)
+     */
+    public static byte[] toAddressBytes(final InetAddress address) {
+        return address == null ? NO_ADDRESS : address.getAddress();
+    }
+
+    /**
+     * @fn private static boolean isIpLiteral(final String host)
+     * @brief 문자열이 IPv4/IPv6 주소 형식인지 확인하는 함수 (호스트 이름의 DNS 조회를 피하기 위함)
+     * @param host 호스트 문자열(입력, 읽기 전용)
+     * @return IP 주소 형식이면 true
+     */
+    private static boolean isIpLiteral(final String host) {
+        if (host.indexOf(':') >= 0) return true;
+
+        int dots = 0;
+        for (int i = 0; i < host.length(); i++) {
+            char c = host.charAt(i);
+            if (c == '.') dots++;
+            else if (c < '0' || c > '9') return false;
+        }
+        return dots == 3;
+    }
+}
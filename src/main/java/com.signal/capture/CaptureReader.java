@@ -0,0 +1,119 @@
+package com.signal.capture;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * @class public class CaptureReader implements Closeable
+ * @brief CaptureWriter 가 기록한 캡처 파일 하나를 처음부터 순서대로 읽는 클래스
+ * 기록 중인 파일도 읽을 수 있으며, 읽는 시점까지 완성된 레코드만 반환한다.
+ */
+public class CaptureReader implements Closeable {
+    /* 캡처 파일 */
+    private final File file;
+    /* 파일 생성 시각 (epoch us) */
+    private final long createdTime;
+    /* 파일 매핑 버퍼 */
+    private MappedByteBuffer buffer;
+
+    /**
+     * @fn public CaptureReader(final File file)
+     * @brief 캡처 파일을 열고 파일 헤더를 확인하는 함수
+     * @param file 캡처 파일(입력, 읽기 전용)
+     */
+    public CaptureReader(final File file) throws IOException {
+        if (file == null) throw new NullPointerException("Parameter Error (Null)");
+
+        this.file = file;
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, randomAccessFile.length());
+        } finally {
+            randomAccessFile.close();
+        }
+
+        byte[] magic = new byte[CaptureFormat.MAGIC.length];
+        if (buffer.remaining() < CaptureFormat.FILE_HEADER_SIZE) throw new IOException("Not a capture file : " + file);
+        buffer.get(magic);
+        if (!Arrays.equals(magic, CaptureFormat.MAGIC)) throw new IOException("Not a capture file : " + file);
+        short version = buffer.getShort();
+        if (version != CaptureFormat.VERSION) throw new IOException("Unsupported capture version (" + version + ") : " + file);
+        createdTime = buffer.getLong();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public CaptureRecord next()
+     * @brief 다음 레코드를 읽는 함수
+     * @return 다음 레코드, 파일 끝이면 null 반환
+     */
+    public CaptureRecord next() throws IOException {
+        if (buffer == null) throw new IOException("Capture file is closed : " + file);
+        if (buffer.remaining() < 4) return null;
+
+        int start = buffer.position();
+        int length = buffer.getInt();
+        if (length == 0) {
+            buffer.position(start);
+            return null;
+        }
+        if (length < CaptureFormat.RECORD_FIXED_SIZE - 4 || length > buffer.remaining()) {
+            throw new IOException("Broken capture record (Offset:" + start + ", Length:" + length + ") : " + file);
+        }
+
+        try {
+            long timestamp = buffer.getLong();
+            byte direction = buffer.get();
+            byte transport = buffer.get();
+            byte[] localAddress = readAddress();
+            int localPort = buffer.getShort() & 0xFFFF;
+            byte[] peerAddress = readAddress();
+            int peerPort = buffer.getShort() & 0xFFFF;
+            byte[] message = new byte[start + 4 + length - buffer.position()];
+            buffer.get(message);
+            return new CaptureRecord(timestamp, direction, transport, localAddress, localPort, peerAddress, peerPort, message);
+        } catch (BufferUnderflowException | NegativeArraySizeException e) {
+            throw new IOException("Broken capture record (Offset:" + start + ", Length:" + length + ") : " + file, e);
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long getCreatedTime() {
+        return createdTime;
+    }
+
+    @Override
+    public void close() {
+        buffer = null;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private byte[] readAddress()
+     * @brief 주소 길이와 주소를 읽는 함수
+     * @return 주소 바이트 배열
+     */
+    private byte[] readAddress() throws IOException {
+        int length = buffer.get() & 0xFF;
+        if (length != 0 && length != 4 && length != 16) throw new IOException("Broken capture address (Length:" + length + ") : " + file);
+
+        byte[] address = new byte[length];
+        buffer.get(address);
+        return address;
+    }
+}
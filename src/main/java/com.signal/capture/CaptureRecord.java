@@ -0,0 +1,113 @@
+package com.signal.capture;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * @class public class CaptureRecord
+ * @brief 캡처 파일에서 읽은 SIP 메시지 하나
+ */
+public class CaptureRecord {
+    /* 캡처 시각 (epoch us) */
+    private final long timestamp;
+    /* 방향 (CaptureFormat.DIRECTION_RECV/SEND) */
+    private final byte direction;
+    /* 전송 프로토콜 코드 */
+    private final byte transport;
+    /* 자기 자신 주소 (길이 0 이면 모름) */
+    private final byte[] localAddress;
+    /* 자기 자신 포트 */
+    private final int localPort;
+    /* 상대방 주소 (길이 0 이면 모름) */
+    private final byte[] peerAddress;
+    /* 상대방 포트 */
+    private final int peerPort;
+    /* SIP 메시지 원문 */
+    private final byte[] message;
+
+    public CaptureRecord(long timestamp, byte direction, byte transport, final byte[] localAddress, int localPort,
+                         final byte[] peerAddress, int peerPort, final byte[] message) {
+        this.timestamp = timestamp;
+        this.direction = direction;
+        this.transport = transport;
+        this.localAddress = localAddress;
+        this.localPort = localPort;
+        this.peerAddress = peerAddress;
+        this.peerPort = peerPort;
+        this.message = message;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public byte getDirection() {
+        return direction;
+    }
+
+    public boolean isReceived() {
+        return direction == CaptureFormat.DIRECTION_RECV;
+    }
+
+    public byte getTransport() {
+        return transport;
+    }
+
+    public byte[] getLocalAddress() {
+        return localAddress;
+    }
+
+    public int getLocalPort() {
+        return localPort;
+    }
+
+    public byte[] getPeerAddress() {
+        return peerAddress;
+    }
+
+    public int getPeerPort() {
+        return peerPort;
+    }
+
+    public byte[] getMessage() {
+        return message;
+    }
+
+    /**
+     * @fn public String getMessageText()
+     * @brief SIP 메시지 원문을 문자열로 반환하는 함수
+     * @return SIP 메시지 문자열
+     */
+    public String getMessageText() {
+        return new String(message, CaptureFormat.CHARSET);
+    }
+
+    /**
+     * @fn public String toText()
+     * @brief 사람이 읽을 수 있는 형식으로 변환하는 함수
+     * @return [시각] 방향 전송 자기 자신 -> 상대방 + 메시지 원문
+     */
+    public String toText() {
+        String time = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date(timestamp / 1000))
+                + String.format("%03d", timestamp % 1000);
+        String local = toAddressText(localAddress, localPort);
+        String peer = toAddressText(peerAddress, peerPort);
+        return "[" + time + "] " + (isReceived() ? "RECV " : "SEND ") + CaptureFormat.toTransportName(transport) + " "
+                + (isReceived() ? peer + " -> " + local : local + " -> " + peer) + "\n" + getMessageText();
+    }
+
+    private static String toAddressText(final byte[] address, int port) {
+        String host = "?";
+        if (address.length > 0) {
+            try {
+                host = InetAddress.getByAddress(address).getHostAddress();
+                if (address.length == 16) host = "[" + host + "]";
+            } catch (UnknownHostException e) {
+                // 길이가 4, 16 이 아닌 경우 (형식 오류)
+            }
+        }
+        return host + ":" + port;
+    }
+}
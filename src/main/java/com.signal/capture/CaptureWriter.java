@@ -0,0 +1,482 @@
+package com.signal.capture;
+
+import com.signal.trace.MessageTracer;
+import gov.nist.javax.sip.message.SIPMessage;
+import gov.nist.javax.sip.stack.SIPTransaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.sip.Transaction;
+import javax.sip.address.SipURI;
+import javax.sip.address.URI;
+import javax.sip.header.ViaHeader;
+import javax.sip.message.Message;
+import javax.sip.message.Request;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @class public class CaptureWriter implements CaptureWriterMXBean
+ * @brief 송수신한 모든 SIP 메시지를 메모리 매핑 파일에 이진 형식(CaptureFormat)으로 기록하는 클래스
+ * SIP Stack 쓰레드에서는 메시지 참조를 lock 없는 대기열에 넣기만 하고,
+ * 주소 추출, 메시지 문자열 변환, 파일 기록은 캡처 쓰레드 하나에서 한다.
+ * 대기열이 가득 차면 기다리지 않고 버리며 버린 개수를 집계한다.
+ *
+ * 파일은 고정 크기(fileSize)로 만들어 매핑하고, 가득 차면 다음 파일을 만든다.
+ * 파일 수가 maxFiles 를 넘으면 가장 오래된 파일을 지운다.
+ * 레코드는 본문을 먼저 쓰고 길이를 마지막에 쓰므로, 프로세스가 비정상 종료해도 파일에는 완성된 레코드만 남는다.
+ */
+public class CaptureWriter implements CaptureWriterMXBean {
+    /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
+    private static final Logger logger = LoggerFactory.getLogger(CaptureWriter.class);
+    /* JMX 객체 이름 */
+    public static final String OBJECT_NAME = "com.signal:type=CaptureWriter";
+    /* 기본 캡처 파일 디렉토리 */
+    public static final String DEFAULT_DIRECTORY = "capture";
+    /* 기본 캡처 파일 크기 (64 MB) */
+    public static final int DEFAULT_FILE_SIZE = 64 * 1024 * 1024;
+    /* 기본 최대 캡처 파일 수 */
+    public static final int DEFAULT_MAX_FILES = 8;
+    /* 기본 대기열 크기 */
+    public static final int DEFAULT_QUEUE_SIZE = 65536;
+    /* 대기열이 비었을 때 캡처 쓰레드가 쉬는 시간 (ns) */
+    private static final long IDLE_PARK_TIME = TimeUnit.MILLISECONDS.toNanos(1);
+    /* 종료 시 남은 메시지를 기록할 때까지 기다리는 최대 시간 (ms) */
+    private static final long SHUTDOWN_TIMEOUT = 5000;
+    /* SIP 메시지 캡처 객체(singleton) */
+    private static final CaptureWriter captureWriter = new CaptureWriter();
+    /* 기록 대기열 */
+    private final ConcurrentLinkedQueue<Capture> captures = new ConcurrentLinkedQueue<>();
+    /* 기록 대기 중인 메시지 수 (대기열 크기 제한용) */
+    private final AtomicInteger pendingCaptures = new AtomicInteger(0);
+    /* 기록한 메시지 수 */
+    private final AtomicLong writtenCaptures = new AtomicLong(0);
+    /* 버린 메시지 수 */
+    private final AtomicLong droppedCaptures = new AtomicLong(0);
+    /* 기록한 byte 수 */
+    private final AtomicLong writtenBytes = new AtomicLong(0);
+    /* 캡처 시각 기준 (epoch ms 와 같은 시점의 nanoTime) */
+    private final long baseMillis = System.currentTimeMillis();
+    private final long baseNanos = System.nanoTime();
+    /* 캡처 여부 */
+    private volatile boolean enabled = false;
+    /* 캡처 파일 디렉토리 */
+    private volatile File directory = new File(DEFAULT_DIRECTORY);
+    /* 캡처 파일 크기 */
+    private volatile int fileSize = DEFAULT_FILE_SIZE;
+    /* 최대 캡처 파일 수 */
+    private volatile int maxFiles = DEFAULT_MAX_FILES;
+    /* 대기열 크기 */
+    private volatile int queueSize = DEFAULT_QUEUE_SIZE;
+    /* 캡처 쓰레드 동작 여부 */
+    private volatile boolean running = true;
+    /* 캡처 쓰레드 (처음 캡처를 켤 때 시작) */
+    private Thread writer = null;
+    /* 현재 기록 중인 캡처 파일 (캡처 쓰레드에서 변경) */
+    private volatile File currentFile = null;
+    /* 현재 기록 중인 파일의 매핑 버퍼 (캡처 쓰레드 전용) */
+    private MappedByteBuffer buffer = null;
+    /* 만든 캡처 파일 목록, 오래된 순 (캡처 쓰레드 전용) */
+    private final ArrayDeque<File> files = new ArrayDeque<>();
+    /* 캡처 파일 순번 (캡처 쓰레드 전용) */
+    private int fileSequence = 0;
+
+    /**
+     * @fn private CaptureWriter()
+     * @brief SIP 메시지 캡처 객체를 초기화하는 함수
+     */
+    private CaptureWriter() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(this, objectName);
+            }
+        } catch (Exception e) {
+            logger.warn("Fail to register capture MBean", e);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public static CaptureWriter getInstance()
+     * @brief SIP 메시지 캡처 객체의 싱글턴 인스턴스를 반환하는 함수
+     * @return SIP 메시지 캡처 객체
+     */
+    public static CaptureWriter getInstance() {
+        return captureWriter;
+    }
+
+    /**
+     * @fn public synchronized void configure(boolean enabled, final String directory, int fileSize, int maxFiles, int queueSize)
+     * @brief 캡처 설정을 변경하는 함수
+     * 디렉토리와 파일 크기는 다음 파일부터 적용된다.
+     * @param enabled   캡처 여부(입력)
+     * @param directory 캡처 파일 디렉토리(입력, 읽기 전용)
+     * @param fileSize  캡처 파일 크기, byte(입력)
+     * @param maxFiles  최대 캡처 파일 수(입력)
+     * @param queueSize 대기열 크기(입력)
+     * @return 반환값 없음
+     */
+    public synchronized void configure(boolean enabled, final String directory, int fileSize, int maxFiles, int queueSize) {
+        if (directory == null) throw new NullPointerException("Parameter Error (Null)");
+        if (fileSize <= CaptureFormat.FILE_HEADER_SIZE + CaptureFormat.RECORD_FIXED_SIZE || maxFiles <= 0 || queueSize <= 0) {
+            throw new IllegalArgumentException("Invalid capture configuration");
+        }
+
+        this.directory = new File(directory);
+        this.fileSize = fileSize;
+        this.maxFiles = maxFiles;
+        this.queueSize = queueSize;
+        setEnabled(enabled);
+
+        logger.debug("Capture (Enabled:{}, Directory:{}, FileSize:{}, MaxFiles:{}, QueueSize:{})", enabled, directory, fileSize, maxFiles, queueSize);
+    }
+
+    /**
+     * @fn public void capture(final MessageTracer.Direction direction, final Message message, final Transaction transaction)
+     * @brief 송수신한 메시지를 기록 대기열에 넣는 함수
+     * 메시지는 참조만 보관하고 캡처 쓰레드에서 변환하므로, 송신 후에는 메시지를 변경하지 않아야 한다.
+     * @param direction   메시지 방향(입력, 읽기 전용)
+     * @param message     SIP 메시지(입력, 읽기 전용)
+     * @param transaction 메시지가 속한 트랜잭션(입력, 읽기 전용, 없으면 null), 송신 메시지의 상대방 주소를 얻는 데 사용
+     * @return 반환값 없음
+     */
+    public void capture(final MessageTracer.Direction direction, final Message message, final Transaction transaction) {
+        if (!enabled || message == null) return;
+
+        if (pendingCaptures.incrementAndGet() > queueSize) {
+            pendingCaptures.decrementAndGet();
+            droppedCaptures.incrementAndGet();
+            return;
+        }
+        captures.offer(new Capture(getTimestamp(), direction, message, transaction));
+    }
+
+    /**
+     * @fn public void shutdown()
+     * @brief 남은 메시지를 기록하고 캡처 쓰레드를 종료하는 함수
+     * @return 반환값 없음
+     */
+    public void shutdown() {
+        Thread current;
+        synchronized (this) {
+            enabled = false;
+            running = false;
+            current = writer;
+        }
+        if (current == null) return;
+
+        LockSupport.unpark(current);
+        try {
+            current.join(SHUTDOWN_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Override Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public synchronized void setEnabled(boolean enabled) {
+        if (enabled && !running) {
+            logger.warn("Capture is already shut down");
+            return;
+        }
+
+        if (enabled && writer == null) {
+            writer = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    writeCaptures();
+                }
+            }, "CaptureWriter");
+            writer.setDaemon(true);
+            writer.start();
+
+            // System.exit 로 종료해도 대기열에 남은 메시지를 기록한다.
+            Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    shutdown();
+                }
+            }, "CaptureWriterShutdown"));
+        }
+        this.enabled = enabled;
+    }
+
+    @Override
+    public String getDirectory() {
+        return directory.getPath();
+    }
+
+    @Override
+    public String getCurrentFile() {
+        File file = currentFile;
+        return file == null ? "" : file.getPath();
+    }
+
+    @Override
+    public int getPendingCaptures() {
+        return pendingCaptures.get();
+    }
+
+    @Override
+    public long getWrittenCaptures() {
+        return writtenCaptures.get();
+    }
+
+    @Override
+    public long getDroppedCaptures() {
+        return droppedCaptures.get();
+    }
+
+    @Override
+    public long getWrittenBytes() {
+        return writtenBytes.get();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private long getTimestamp()
+     * @brief 현재 시각을 us 단위로 반환하는 함수 (시스템 시계를 매번 읽지 않고 nanoTime 으로 계산)
+     * @return 현재 시각 (epoch us)
+     */
+    private long getTimestamp() {
+        return baseMillis * 1000 + (System.nanoTime() - baseNanos) / 1000;
+    }
+
+    /**
+     * @fn private void writeCaptures()
+     * @brief 대기열에서 메시지를 꺼내 캡처 파일에 기록하는 함수 (캡처 쓰레드 전용)
+     * 종료 요청을 받으면 남은 메시지를 모두 기록하고 파일을 닫는다.
+     * @return 반환값 없음
+     */
+    private void writeCaptures() {
+        long reportedDrops = 0;
+
+        while (true) {
+            Capture capture = captures.poll();
+            if (capture == null) {
+                if (!running) break;
+                LockSupport.parkNanos(this, IDLE_PARK_TIME);
+                continue;
+            }
+            pendingCaptures.decrementAndGet();
+
+            long drops = droppedCaptures.get();
+            if (drops != reportedDrops) {
+                logger.warn("{} captures are dropped", drops - reportedDrops);
+                reportedDrops = drops;
+            }
+
+            try {
+                write(capture);
+            } catch (Exception e) {
+                droppedCaptures.incrementAndGet();
+                logger.warn("Fail to write capture", e);
+            }
+        }
+
+        closeFile();
+    }
+
+    /**
+     * @fn private void write(final Capture capture)
+     * @brief 메시지 하나를 레코드로 변환해서 현재 캡처 파일에 기록하는 함수
+     * 현재 파일에 남은 공간이 부족하면 다음 파일을 만든다.
+     * @param capture 기록할 메시지(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    private void write(final Capture capture) throws IOException {
+        resolveAddresses(capture);
+        byte[] message = capture.message.toString().getBytes(CaptureFormat.CHARSET);
+
+        int length = CaptureFormat.RECORD_FIXED_SIZE + capture.localAddress.length + capture.peerAddress.length + message.length;
+        if (length > fileSize - CaptureFormat.FILE_HEADER_SIZE) {
+            droppedCaptures.incrementAndGet();
+            logger.warn("Capture record is larger than file size (Length:{}, FileSize:{})", length, fileSize);
+            return;
+        }
+        if (buffer == null || buffer.remaining() < length) {
+            openFile();
+        }
+
+        // 본문을 먼저 쓰고 길이를 마지막에 써서, 읽는 쪽에서 완성되지 않은 레코드를 파일 끝으로 보게 한다.
+        int start = buffer.position();
+        buffer.position(start + 4);
+        buffer.putLong(capture.timestamp);
+        buffer.put(capture.direction == MessageTracer.Direction.RECV ? CaptureFormat.DIRECTION_RECV : CaptureFormat.DIRECTION_SEND);
+        buffer.put(CaptureFormat.toTransportCode(capture.transport));
+        buffer.put((byte) capture.localAddress.length);
+        buffer.put(capture.localAddress);
+        buffer.putShort((short) capture.localPort);
+        buffer.put((byte) capture.peerAddress.length);
+        buffer.put(capture.peerAddress);
+        buffer.putShort((short) capture.peerPort);
+        buffer.put(message);
+        buffer.putInt(start, length - 4);
+
+        writtenCaptures.incrementAndGet();
+        writtenBytes.addAndGet(length);
+    }
+
+    /**
+     * @fn private void resolveAddresses(final Capture capture)
+     * @brief 메시지의 전송 프로토콜, 자기 자신 주소, 상대방 주소를 구하는 함수
+     * - 수신 : SIP Stack 이 메시지에 기록한 수신 소켓 주소
+     * - 송신 : 트랜잭션의 채널 주소, 트랜잭션이 없으면(ACK) Request-URI 와 최상위 Via
+     * @param capture 메시지(입력, 출력)
+     * @return 반환값 없음
+     */
+    private void resolveAddresses(final Capture capture) {
+        Message message = capture.message;
+        ViaHeader viaHeader = (ViaHeader) message.getHeader(ViaHeader.NAME);
+        capture.transport = viaHeader == null ? null : viaHeader.getTransport();
+
+        if (capture.direction == MessageTracer.Direction.RECV && message instanceof SIPMessage
+                && ((SIPMessage) message).getRemoteAddress() != null) {
+            SIPMessage sipMessage = (SIPMessage) message;
+            capture.peerAddress = CaptureFormat.toAddressBytes(sipMessage.getRemoteAddress());
+            capture.peerPort = sipMessage.getRemotePort();
+            capture.localAddress = CaptureFormat.toAddressBytes(sipMessage.getLocalAddress());
+            capture.localPort = sipMessage.getLocalPort();
+        } else if (capture.transaction instanceof SIPTransaction) {
+            SIPTransaction transaction = (SIPTransaction) capture.transaction;
+            if (transaction.getTransport() != null) capture.transport = transaction.getTransport();
+            capture.peerAddress = CaptureFormat.toAddressBytes(transaction.getPeerAddress());
+            capture.peerPort = transaction.getPeerPort();
+            capture.localAddress = CaptureFormat.toAddressBytes(transaction.getHost());
+            capture.localPort = transaction.getPort();
+        } else if (message instanceof Request) {
+            URI uri = ((Request) message).getRequestURI();
+            if (uri instanceof SipURI) {
+                SipURI sipURI = (SipURI) uri;
+                capture.peerAddress = CaptureFormat.toAddressBytes(sipURI.getHost());
+                capture.peerPort = sipURI.getPort() > 0 ? sipURI.getPort() : ("tls".equalsIgnoreCase(capture.transport) ? 5061 : 5060);
+            }
+            if (viaHeader != null) {
+                capture.localAddress = CaptureFormat.toAddressBytes(viaHeader.getHost());
+                capture.localPort = viaHeader.getPort();
+            }
+        }
+
+        if (capture.localPort < 0) capture.localPort = 0;
+        if (capture.peerPort < 0) capture.peerPort = 0;
+    }
+
+    /**
+     * @fn private void openFile()
+     * @brief 현재 파일을 닫고 다음 캡처 파일을 만들어 매핑하는 함수
+     * 파일 수가 최대 파일 수를 넘으면 가장 오래된 파일을 지운다.
+     * @return 반환값 없음
+     */
+    private void openFile() throws IOException {
+        closeFile();
+
+        File dir = directory;
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Fail to create capture directory : " + dir);
+        }
+
+        int size = fileSize;
+        File file = new File(dir, "sip-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date())
+                + String.format("-%04d", fileSequence++) + CaptureFormat.FILE_EXTENSION);
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.setLength(size);
+            buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } finally {
+            // 매핑은 채널을 닫아도 유지된다.
+            randomAccessFile.close();
+        }
+
+        buffer.put(CaptureFormat.MAGIC);
+        buffer.putShort(CaptureFormat.VERSION);
+        buffer.putLong(getTimestamp());
+        currentFile = file;
+        files.addLast(file);
+        logger.debug("Capture file is opened ({})", file);
+
+        while (files.size() > maxFiles) {
+            File oldest = files.removeFirst();
+            if (!oldest.delete()) {
+                logger.warn("Fail to delete capture file ({})", oldest);
+            }
+        }
+    }
+
+    /**
+     * @fn private void closeFile()
+     * @brief 현재 캡처 파일의 내용을 디스크에 반영하는 함수
+     * @return 반환값 없음
+     */
+    private void closeFile() {
+        if (buffer == null) return;
+
+        try {
+            buffer.force();
+        } catch (Exception e) {
+            logger.warn("Fail to force capture file ({})", currentFile, e);
+        }
+        buffer = null;
+        currentFile = null;
+    }
+
+    /**
+     * @class private static class Capture
+     * @brief 기록 대기 중인 메시지 하나 (주소와 메시지 원문은 캡처 쓰레드에서 구함)
+     */
+    private static class Capture {
+        /* 캡처 시각 (epoch us) */
+        private final long timestamp;
+        /* 메시지 방향 */
+        private final MessageTracer.Direction direction;
+        /* SIP 메시지 */
+        private final Message message;
+        /* 메시지가 속한 트랜잭션 (없으면 null) */
+        private final Transaction transaction;
+        /* 전송 프로토콜 */
+        private String transport = null;
+        /* 자기 자신 주소와 포트 */
+        private byte[] localAddress = new byte[0];
+        private int localPort = 0;
+        /* 상대방 주소와 포트 */
+        private byte[] peerAddress = new byte[0];
+        private int peerPort = 0;
+
+        Capture(long timestamp, final MessageTracer.Direction direction, final Message message, final Transaction transaction) {
+            this.timestamp = timestamp;
+            this.direction = direction;
+            this.message = message;
+            this.transaction = transaction;
+        }
+    }
+}
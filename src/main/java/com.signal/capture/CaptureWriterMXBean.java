@@ -0,0 +1,30 @@
+package com.signal.capture;
+
+/**
+ * @interface public interface CaptureWriterMXBean
+ * @brief JMX 로 노출하는 SIP 메시지 캡처 설정 및 상태
+ */
+public interface CaptureWriterMXBean {
+    /* 캡처 여부 */
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    /* 캡처 파일 디렉토리 */
+    String getDirectory();
+
+    /* 현재 기록 중인 캡처 파일 (없으면 빈 문자열) */
+    String getCurrentFile();
+
+    /* 기록 대기 중인 메시지 수 */
+    int getPendingCaptures();
+
+    /* 기록한 메시지 수 */
+    long getWrittenCaptures();
+
+    /* 대기열이 가득 찼거나 기록에 실패해서 버린 메시지 수 */
+    long getDroppedCaptures();
+
+    /* 기록한 byte 수 (레코드 헤더 포함) */
+    long getWrittenBytes();
+}
@@ -0,0 +1,202 @@
+package com.signal.cdr;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class public class CallDetailRecord
+ * @brief 호 하나의 진행 시각과 종료 원인을 모으는 클래스 (CDR 한 줄)
+ * 시각은 System.nanoTime() 으로 기록하고, 시작 시각만 epoch ms 로 둔다.
+ * 같은 호의 이벤트가 여러 쓰레드에서 올 수 있으므로 시각 필드는 volatile 이고, 종료는 CdrRecorder 에서 한 번만 한다.
+ */
+public class CallDetailRecord {
+    /* CSV 헤더 */
+    public static final String CSV_HEADER = "call_id,direction,caller,callee,start_time,ring_ms,answer_ms,ack_ms,duration_ms,final_code,cause,released_by";
+
+    /**
+     * @enum public enum Direction
+     * @brief 호 방향 (Invite 를 보낸 쪽이 ORIGINATING)
+     */
+    public enum Direction {
+        ORIGINATING,
+        TERMINATING
+    }
+
+    /* Call-ID */
+    private final String callId;
+    /* 호 방향 */
+    private final Direction direction;
+    /* 발신자 (From URI) */
+    private final String caller;
+    /* 착신자 (Request-URI) */
+    private final String callee;
+    /* 최초 Invite 의 CSeq 번호 (같은 Call-ID 의 다른 Invite 응답과 구분) */
+    private final long inviteSeq;
+    /* 시작 시각 (epoch ms) */
+    private final long startMillis;
+    /* 시작 시각 (System.nanoTime) */
+    private final long startNanos;
+    /* 첫 18x, 200 OK, ACK, 종료 시각 (System.nanoTime, 없으면 0) */
+    private volatile long ringNanos = 0;
+    private volatile long answerNanos = 0;
+    private volatile long ackNanos = 0;
+    private volatile long endNanos = 0;
+    /* Invite 최종 응답 코드 (없으면 0) */
+    private volatile int finalCode = 0;
+    /* 종료 원인 */
+    private volatile CdrCause cause = null;
+    /* 종료한 쪽 (LOCAL/REMOTE, 모르면 null) */
+    private volatile String releasedBy = null;
+
+    /**
+     * @fn public CallDetailRecord(final String callId, final Direction direction, final String caller, final String callee, long inviteSeq)
+     * @brief 호 시작 시점에 CDR 을 만드는 함수
+     * @param callId    Call-ID(입력, 읽기 전용)
+     * @param direction 호 방향(입력, 읽기 전용)
+     * @param caller    발신자(입력, 읽기 전용)
+     * @param callee    착신자(입력, 읽기 전용)
+     * @param inviteSeq Invite CSeq 번호(입력)
+     */
+    public CallDetailRecord(final String callId, final Direction direction, final String caller, final String callee, long inviteSeq) {
+        this.callId = callId;
+        this.direction = direction;
+        this.caller = caller;
+        this.callee = callee;
+        this.inviteSeq = inviteSeq;
+        this.startMillis = System.currentTimeMillis();
+        this.startNanos = System.nanoTime();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public String getCallId()
+     * @brief Call-ID 를 반환하는 함수
+     * @return Call-ID
+     */
+    public String getCallId() {
+        return callId;
+    }
+
+    /**
+     * @fn public Direction getDirection()
+     * @brief 호 방향을 반환하는 함수
+     * @return 호 방향
+     */
+    public Direction getDirection() {
+        return direction;
+    }
+
+    /**
+     * @fn public long getInviteSeq()
+     * @brief 최초 Invite 의 CSeq 번호를 반환하는 함수
+     * @return CSeq 번호
+     */
+    public long getInviteSeq() {
+        return inviteSeq;
+    }
+
+    /**
+     * @fn public boolean isAnswered()
+     * @brief 200 OK 를 주고받았는지 반환하는 함수
+     * @return 응답되었으면 true, 아니면 false 반환
+     */
+    public boolean isAnswered() {
+        return answerNanos != 0;
+    }
+
+    /**
+     * @fn public void ringing()
+     * @brief 첫 18x 시각을 기록하는 함수
+     * @return 반환값 없음
+     */
+    public void ringing() {
+        if (ringNanos == 0) ringNanos = System.nanoTime();
+    }
+
+    /**
+     * @fn public void answered()
+     * @brief 200 OK 시각을 기록하는 함수
+     * @return 반환값 없음
+     */
+    public void answered() {
+        if (answerNanos == 0) {
+            answerNanos = System.nanoTime();
+            finalCode = 200;
+        }
+    }
+
+    /**
+     * @fn public void acknowledged()
+     * @brief ACK 시각을 기록하는 함수
+     * @return 반환값 없음
+     */
+    public void acknowledged() {
+        if (ackNanos == 0) ackNanos = System.nanoTime();
+    }
+
+    /**
+     * @fn public void end(final CdrCause cause, int code, final String releasedBy)
+     * @brief 종료 시각과 원인을 기록하는 함수
+     * @param cause      종료 원인(입력, 읽기 전용)
+     * @param code       Invite 최종 응답 코드, 응답 전에 끝났으면 사용(입력)
+     * @param releasedBy 종료한 쪽 LOCAL/REMOTE, 모르면 null(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void end(final CdrCause cause, int code, final String releasedBy) {
+        this.endNanos = System.nanoTime();
+        if (finalCode == 0) this.finalCode = code;
+        this.cause = cause;
+        this.releasedBy = releasedBy;
+    }
+
+    /**
+     * @fn public void appendCsv(final StringBuilder builder, final SimpleDateFormat dateFormat)
+     * @brief CSV 한 줄(줄바꿈 포함)을 추가하는 함수 (CDR 기록 쓰레드 전용)
+     * @param builder    출력 버퍼(입력, 출력)
+     * @param dateFormat 시작 시각 형식(입력, 읽기 전용), 쓰레드 안전하지 않으므로 호출한 쓰레드 전용
+     * @return 반환값 없음
+     */
+    public void appendCsv(final StringBuilder builder, final SimpleDateFormat dateFormat) {
+        long end = endNanos;
+        appendField(builder, callId).append(',');
+        builder.append(direction.name()).append(',');
+        appendField(builder, caller).append(',');
+        appendField(builder, callee).append(',');
+        builder.append(dateFormat.format(new Date(startMillis))).append(',');
+        appendElapsed(builder, startNanos, ringNanos).append(',');
+        appendElapsed(builder, startNanos, answerNanos).append(',');
+        appendElapsed(builder, startNanos, ackNanos).append(',');
+        builder.append(answerNanos == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(end - answerNanos)).append(',');
+        builder.append(finalCode).append(',');
+        builder.append(cause == null ? "" : cause.name()).append(',');
+        builder.append(releasedBy == null ? "" : releasedBy).append('\n');
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    private static StringBuilder appendElapsed(final StringBuilder builder, long start, long time) {
+        if (time != 0) builder.append(TimeUnit.NANOSECONDS.toMillis(time - start));
+        return builder;
+    }
+
+    /**
+     * @fn private static StringBuilder appendField(final StringBuilder builder, final String value)
+     * @brief 쉼표나 따옴표가 있으면 따옴표로 감싸서 문자열 필드를 추가하는 함수 (RFC 4180)
+     * @param builder 출력 버퍼(입력, 출력)
+     * @param value   값(입력, 읽기 전용)
+     * @return 출력 버퍼
+     */
+    private static StringBuilder appendField(final StringBuilder builder, final String value) {
+        if (value == null) return builder;
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return builder.append(value);
+        }
+        return builder.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
@@ -0,0 +1,20 @@
+package com.signal.cdr;
+
+/**
+ * @enum public enum CdrCause
+ * @brief 호 종료 원인
+ */
+public enum CdrCause {
+    /* BYE 로 정상 종료 */
+    NORMAL,
+    /* CANCEL 로 취소 (487) */
+    CANCELLED,
+    /* Invite 실패 응답 (3xx~6xx) */
+    FAILED,
+    /* 응답/ACK 없음, 또는 호 등록에서 정리된 트랜잭션 */
+    TIMEOUT,
+    /* 세션 타이머 만료 */
+    EXPIRED,
+    /* 노드 종료 시 남은 호 */
+    SHUTDOWN
+}
@@ -0,0 +1,239 @@
+package com.signal.cdr;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sip.Dialog;
+import javax.sip.header.CSeqHeader;
+import javax.sip.header.CallIdHeader;
+import javax.sip.header.FromHeader;
+import javax.sip.message.Message;
+import javax.sip.message.Request;
+import javax.sip.message.Response;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @class public class CdrRecorder
+ * @brief 호 진행 이벤트(Invite, 18x, 200 OK, ACK, BYE/CANCEL, 시간 초과, 만료)를 호 단위로 모아서
+ * 호가 끝나면 CDR 한 건을 CdrWriter 로 넘기는 클래스
+ * 진행 중인 호는 Call-ID 와 호 방향으로 구분한다. (같은 프로세스의 발신 측과 착신 측이 같은 Call-ID 를 사용하는 Loopback 시험)
+ * CDR 기록이 꺼져 있으면 이벤트를 바로 무시한다.
+ */
+public class CdrRecorder {
+    /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
+    private static final Logger logger = LoggerFactory.getLogger(CdrRecorder.class);
+    /* 종료한 쪽 */
+    public static final String LOCAL = "LOCAL";
+    public static final String REMOTE = "REMOTE";
+    /* CDR 수집 객체(singleton) */
+    private static final CdrRecorder cdrRecorder = new CdrRecorder();
+    /* 진행 중인 호 (Call-ID + 방향) */
+    private final ConcurrentHashMap<String, CallDetailRecord> records = new ConcurrentHashMap<>();
+
+    /**
+     * @fn private CdrRecorder()
+     * @brief CDR 수집 객체를 초기화하는 함수
+     */
+    private CdrRecorder() {
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public static CdrRecorder getInstance()
+     * @brief CDR 수집 객체의 싱글턴 인스턴스를 반환하는 함수
+     * @return CDR 수집 객체
+     */
+    public static CdrRecorder getInstance() {
+        return cdrRecorder;
+    }
+
+    /**
+     * @fn public static CallDetailRecord.Direction getDirection(final Dialog dialog)
+     * @brief 다이얼로그의 호 방향을 반환하는 함수
+     * @param dialog 다이얼로그(입력, 읽기 전용)
+     * @return Invite 를 받은 다이얼로그면 TERMINATING, 보낸 다이얼로그면 ORIGINATING
+     */
+    public static CallDetailRecord.Direction getDirection(final Dialog dialog) {
+        return dialog.isServer() ? CallDetailRecord.Direction.TERMINATING : CallDetailRecord.Direction.ORIGINATING;
+    }
+
+    /**
+     * @fn public void onInvite(final CallDetailRecord.Direction direction, final Request request)
+     * @brief 최초 Invite 를 보내거나 받았을 때 호를 시작하는 함수 (이미 진행 중인 Call-ID 면 무시)
+     * @param direction 호 방향(입력, 읽기 전용)
+     * @param request   Invite 요청(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void onInvite(final CallDetailRecord.Direction direction, final Request request) {
+        if (!CdrWriter.getInstance().isEnabled()) return;
+
+        String callId = getCallId(request);
+        CSeqHeader cSeqHeader = (CSeqHeader) request.getHeader(CSeqHeader.NAME);
+        FromHeader fromHeader = (FromHeader) request.getHeader(FromHeader.NAME);
+        if (callId == null || cSeqHeader == null) return;
+
+        CallDetailRecord record = new CallDetailRecord(callId, direction,
+                fromHeader == null ? null : fromHeader.getAddress().getURI().toString(),
+                request.getRequestURI().toString(), cSeqHeader.getSeqNumber());
+        records.putIfAbsent(toKey(callId, direction), record);
+    }
+
+    /**
+     * @fn public void onInviteResponse(final CallDetailRecord.Direction direction, final Response response)
+     * @brief Invite 응답을 보내거나 받았을 때 호 진행을 기록하는 함수
+     * 18x 는 호출 시각, 200 OK 는 응답 시각으로 기록하고, 3xx~6xx 는 호를 끝낸다. (487 은 CANCELLED)
+     * @param direction 호 방향(입력, 읽기 전용)
+     * @param response  Invite 응답(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void onInviteResponse(final CallDetailRecord.Direction direction, final Response response) {
+        if (records.isEmpty()) return;
+
+        String callId = getCallId(response);
+        CSeqHeader cSeqHeader = (CSeqHeader) response.getHeader(CSeqHeader.NAME);
+        if (callId == null || cSeqHeader == null) return;
+
+        String key = toKey(callId, direction);
+        CallDetailRecord record = records.get(key);
+        // 같은 Call-ID 의 다른 Invite (491 등) 에 대한 응답은 무시
+        if (record == null || record.getInviteSeq() != cSeqHeader.getSeqNumber()) return;
+
+        int statusCode = response.getStatusCode();
+        if (statusCode > 100 && statusCode < 200) {
+            record.ringing();
+        } else if (statusCode >= 200 && statusCode < 300) {
+            record.answered();
+        } else if (statusCode >= 300) {
+            // 응답을 받은 쪽(발신 측)은 상대방이, 보낸 쪽(착신 측)은 자신이 끝낸 것이다.
+            String releasedBy = direction == CallDetailRecord.Direction.ORIGINATING ? REMOTE : LOCAL;
+            finish(key, record, statusCode == Response.REQUEST_TERMINATED ? CdrCause.CANCELLED : CdrCause.FAILED, statusCode, releasedBy);
+        }
+    }
+
+    /**
+     * @fn public void onAck(final Dialog dialog)
+     * @brief 200 OK 에 대한 ACK 를 보내거나 받았을 때 시각을 기록하는 함수
+     * @param dialog 다이얼로그(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void onAck(final Dialog dialog) {
+        if (records.isEmpty() || dialog == null || dialog.getCallId() == null) return;
+
+        CallDetailRecord record = records.get(toKey(dialog.getCallId().getCallId(), getDirection(dialog)));
+        if (record != null) record.acknowledged();
+    }
+
+    /**
+     * @fn public void onBye(final Dialog dialog, boolean isLocal)
+     * @brief BYE 를 보내거나 받았을 때 호를 정상 종료로 끝내는 함수
+     * @param dialog  다이얼로그(입력, 읽기 전용)
+     * @param isLocal BYE 를 보냈으면 true, 받았으면 false(입력)
+     * @return 반환값 없음
+     */
+    public void onBye(final Dialog dialog, boolean isLocal) {
+        finish(dialog, CdrCause.NORMAL, 0, isLocal ? LOCAL : REMOTE);
+    }
+
+    /**
+     * @fn public void onTimeout(final CallDetailRecord.Direction direction, final String callId)
+     * @brief Invite 응답이나 ACK 를 받지 못해서(또는 트랜잭션이 정리되어) 호를 끝내는 함수
+     * @param direction 호 방향(입력, 읽기 전용)
+     * @param callId    Call-ID(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void onTimeout(final CallDetailRecord.Direction direction, final String callId) {
+        finish(direction, callId, CdrCause.TIMEOUT, Response.REQUEST_TIMEOUT, null);
+    }
+
+    /**
+     * @fn public void onFailure(final CallDetailRecord.Direction direction, final String callId, int code)
+     * @brief Invite 를 보내지 못했을 때 호를 실패로 끝내는 함수
+     * @param direction 호 방향(입력, 읽기 전용)
+     * @param callId    Call-ID(입력, 읽기 전용)
+     * @param code      실패 코드(입력)
+     * @return 반환값 없음
+     */
+    public void onFailure(final CallDetailRecord.Direction direction, final String callId, int code) {
+        finish(direction, callId, CdrCause.FAILED, code, LOCAL);
+    }
+
+    /**
+     * @fn public void onExpired(final Dialog dialog)
+     * @brief 세션 타이머가 만료되어 호를 끝내는 함수
+     * @param dialog 다이얼로그(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void onExpired(final Dialog dialog) {
+        finish(dialog, CdrCause.EXPIRED, 0, LOCAL);
+    }
+
+    /**
+     * @fn public void closeAll()
+     * @brief 진행 중인 모든 호를 SHUTDOWN 으로 끝내는 함수 (노드 종료 시 CdrWriter 종료 전에 호출)
+     * @return 반환값 없음
+     */
+    public void closeAll() {
+        int count = 0;
+        for (Map.Entry<String, CallDetailRecord> entry : records.entrySet()) {
+            if (finish(entry.getKey(), entry.getValue(), CdrCause.SHUTDOWN, 0, LOCAL)) count++;
+        }
+        if (count > 0) logger.warn("{} calls are closed by shutdown", count);
+    }
+
+    /**
+     * @fn public int getOpenRecordCount()
+     * @brief 진행 중인 호 수를 반환하는 함수
+     * @return 진행 중인 호 수
+     */
+    public int getOpenRecordCount() {
+        return records.size();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    private void finish(final Dialog dialog, final CdrCause cause, int code, final String releasedBy) {
+        if (records.isEmpty() || dialog == null || dialog.getCallId() == null) return;
+        finish(getDirection(dialog), dialog.getCallId().getCallId(), cause, code, releasedBy);
+    }
+
+    private void finish(final CallDetailRecord.Direction direction, final String callId, final CdrCause cause, int code, final String releasedBy) {
+        if (records.isEmpty() || callId == null) return;
+
+        String key = toKey(callId, direction);
+        CallDetailRecord record = records.get(key);
+        if (record != null) finish(key, record, cause, code, releasedBy);
+    }
+
+    /**
+     * @fn private boolean finish(final String key, final CallDetailRecord record, final CdrCause cause, int code, final String releasedBy)
+     * @brief 진행 중인 호를 삭제하고 CDR 을 기록 대기열에 넣는 함수 (먼저 삭제한 쓰레드만 기록)
+     * @param key        Call-ID + 방향(입력, 읽기 전용)
+     * @param record     CDR(입력, 읽기 전용)
+     * @param cause      종료 원인(입력, 읽기 전용)
+     * @param code       Invite 최종 응답 코드(입력)
+     * @param releasedBy 종료한 쪽(입력, 읽기 전용)
+     * @return 기록했으면 true, 이미 끝난 호면 false 반환
+     */
+    private boolean finish(final String key, final CallDetailRecord record, final CdrCause cause, int code, final String releasedBy) {
+        if (!records.remove(key, record)) return false;
+
+        record.end(cause, code, releasedBy);
+        CdrWriter.getInstance().write(record);
+        return true;
+    }
+
+    private static String getCallId(final Message message) {
+        CallIdHeader callIdHeader = (CallIdHeader) message.getHeader(CallIdHeader.NAME);
+        return callIdHeader == null ? null : callIdHeader.getCallId();
+    }
+
+    private static String toKey(final String callId, final CallDetailRecord.Direction direction) {
+        return direction == CallDetailRecord.Direction.ORIGINATING ? callId + ";o" : callId + ";t";
+    }
+}
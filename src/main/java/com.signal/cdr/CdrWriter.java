@@ -0,0 +1,438 @@
+package com.signal.cdr;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @class public class CdrWriter implements CdrWriterMXBean
+ * @brief 끝난 호의 CDR 을 CSV 파일에 덧붙여 기록하는 클래스
+ * SIP 처리 쓰레드는 CDR 을 lock 없는 대기열에 넣기만 하고, 대기열이 가득 차면 기다리지 않고 버린다.
+ * CDR 쓰레드 하나가 대기열에서 최대 batchSize 개를 꺼내 한 번에 쓰고(append),
+ * 디스크 반영(fsync)은 syncInterval 마다 한 번 한다. (0 이면 쓸 때마다)
+ *
+ * 기록 중인 파일은 cdr-<시각>-<순번>.csv.tmp 이고, 파일 크기나 교체 주기를 넘으면 닫고 .csv 로 이름을 바꾼다.
+ * CDR 은 과금/정산 자료이므로 오래된 파일을 지우지 않는다.
+ * 종료는 LifecycleManager 가 남은 호의 BYE 를 보낸 후에 한다. (진행 중인 호는 SHUTDOWN 으로 기록)
+ */
+public class CdrWriter implements CdrWriterMXBean {
+    /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
+    private static final Logger logger = LoggerFactory.getLogger(CdrWriter.class);
+    /* JMX 객체 이름 */
+    public static final String OBJECT_NAME = "com.signal:type=CdrWriter";
+    /* 기본 CDR 파일 디렉토리 */
+    public static final String DEFAULT_DIRECTORY = "cdr";
+    /* 기본 CDR 파일 크기 (64 MB) */
+    public static final long DEFAULT_FILE_SIZE = 64L * 1024 * 1024;
+    /* 기본 파일 교체 주기 (초) */
+    public static final int DEFAULT_ROTATE_INTERVAL = 3600;
+    /* 기본 한 번에 쓰는 최대 CDR 수 */
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+    /* 기본 디스크 반영 주기 (ms) */
+    public static final long DEFAULT_SYNC_INTERVAL = 200;
+    /* 기본 대기열 크기 */
+    public static final int DEFAULT_QUEUE_SIZE = 65536;
+    /* 완성된 CDR 파일 확장자 */
+    public static final String FILE_EXTENSION = ".csv";
+    /* 기록 중인 CDR 파일 확장자 */
+    public static final String OPEN_FILE_EXTENSION = ".tmp";
+    /* CDR 파일 문자 집합 */
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+    /* 대기열이 비었을 때 CDR 쓰레드가 쉬는 시간 (ns) */
+    private static final long IDLE_PARK_TIME = TimeUnit.MILLISECONDS.toNanos(10);
+    /* 종료 시 남은 CDR 을 기록할 때까지 기다리는 최대 시간 (ms) */
+    private static final long SHUTDOWN_TIMEOUT = 5000;
+    /* CDR 기록 객체(singleton) */
+    private static final CdrWriter cdrWriter = new CdrWriter();
+    /* 기록 대기열 */
+    private final ConcurrentLinkedQueue<CallDetailRecord> records = new ConcurrentLinkedQueue<>();
+    /* 기록 대기 중인 CDR 수 (대기열 크기 제한용) */
+    private final AtomicInteger pendingRecords = new AtomicInteger(0);
+    /* 기록한 CDR 수 */
+    private final AtomicLong writtenRecords = new AtomicLong(0);
+    /* 버린 CDR 수 */
+    private final AtomicLong droppedRecords = new AtomicLong(0);
+    /* 기록한 byte 수 */
+    private final AtomicLong writtenBytes = new AtomicLong(0);
+    /* 디스크 반영 횟수 */
+    private final AtomicLong syncCount = new AtomicLong(0);
+    /* CDR 기록 여부 */
+    private volatile boolean enabled = false;
+    /* CDR 파일 디렉토리 */
+    private volatile File directory = new File(DEFAULT_DIRECTORY);
+    /* CDR 파일 크기 */
+    private volatile long fileSize = DEFAULT_FILE_SIZE;
+    /* 파일 교체 주기 (초, 0 이면 크기로만 교체) */
+    private volatile int rotateInterval = DEFAULT_ROTATE_INTERVAL;
+    /* 한 번에 쓰는 최대 CDR 수 */
+    private volatile int batchSize = DEFAULT_BATCH_SIZE;
+    /* 디스크 반영 주기 (ms, 0 이면 쓸 때마다) */
+    private volatile long syncInterval = DEFAULT_SYNC_INTERVAL;
+    /* 대기열 크기 */
+    private volatile int queueSize = DEFAULT_QUEUE_SIZE;
+    /* CDR 쓰레드 동작 여부 */
+    private volatile boolean running = true;
+    /* CDR 쓰레드 (처음 기록을 켤 때 시작) */
+    private Thread writer = null;
+    /* 현재 기록 중인 CDR 파일 (CDR 쓰레드에서 변경) */
+    private volatile File currentFile = null;
+    /* 현재 기록 중인 파일 채널 (CDR 쓰레드 전용) */
+    private FileChannel channel = null;
+    /* 현재 파일을 연 시각, System.nanoTime (CDR 쓰레드 전용) */
+    private long fileOpenTime = 0;
+    /* 마지막 디스크 반영 시각, System.nanoTime (CDR 쓰레드 전용) */
+    private long lastSyncTime = 0;
+    /* 마지막 디스크 반영 후 기록한 내용이 있는지 여부 (CDR 쓰레드 전용) */
+    private boolean isDirty = false;
+    /* CDR 파일 순번 (CDR 쓰레드 전용) */
+    private int fileSequence = 0;
+
+    /**
+     * @fn private CdrWriter()
+     * @brief CDR 기록 객체를 초기화하는 함수
+     */
+    private CdrWriter() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(this, objectName);
+            }
+        } catch (Exception e) {
+            logger.warn("Fail to register CDR MBean", e);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public static CdrWriter getInstance()
+     * @brief CDR 기록 객체의 싱글턴 인스턴스를 반환하는 함수
+     * @return CDR 기록 객체
+     */
+    public static CdrWriter getInstance() {
+        return cdrWriter;
+    }
+
+    /**
+     * @fn public synchronized void configure(boolean enabled, final String directory, long fileSize, int rotateInterval, int batchSize, long syncInterval, int queueSize)
+     * @brief CDR 기록 설정을 변경하는 함수
+     * 디렉토리, 파일 크기, 교체 주기는 다음 파일부터 적용된다.
+     * @param enabled        CDR 기록 여부(입력)
+     * @param directory      CDR 파일 디렉토리(입력, 읽기 전용)
+     * @param fileSize       CDR 파일 크기, byte(입력)
+     * @param rotateInterval 파일 교체 주기, 초(입력, 0 이면 크기로만 교체)
+     * @param batchSize      한 번에 쓰는 최대 CDR 수(입력)
+     * @param syncInterval   디스크 반영 주기, ms(입력, 0 이면 쓸 때마다)
+     * @param queueSize      대기열 크기(입력)
+     * @return 반환값 없음
+     */
+    public synchronized void configure(boolean enabled, final String directory, long fileSize, int rotateInterval, int batchSize, long syncInterval, int queueSize) {
+        if (directory == null) throw new NullPointerException("Parameter Error (Null)");
+        if (fileSize <= CallDetailRecord.CSV_HEADER.length() || rotateInterval < 0 || batchSize <= 0 || syncInterval < 0 || queueSize <= 0) {
+            throw new IllegalArgumentException("Invalid CDR configuration");
+        }
+
+        this.directory = new File(directory);
+        this.fileSize = fileSize;
+        this.rotateInterval = rotateInterval;
+        this.batchSize = batchSize;
+        this.syncInterval = syncInterval;
+        this.queueSize = queueSize;
+        setEnabled(enabled);
+
+        logger.debug("CDR (Enabled:{}, Directory:{}, FileSize:{}, RotateInterval:{}, BatchSize:{}, SyncInterval:{}, QueueSize:{})",
+                enabled, directory, fileSize, rotateInterval, batchSize, syncInterval, queueSize);
+    }
+
+    /**
+     * @fn public void write(final CallDetailRecord record)
+     * @brief 끝난 호의 CDR 을 기록 대기열에 넣는 함수 (대기열이 가득 차면 버림)
+     * @param record CDR(입력, 읽기 전용), 넣은 후에는 변경하지 않아야 한다.
+     * @return 반환값 없음
+     */
+    public void write(final CallDetailRecord record) {
+        if (!enabled || record == null) return;
+
+        if (pendingRecords.incrementAndGet() > queueSize) {
+            pendingRecords.decrementAndGet();
+            droppedRecords.incrementAndGet();
+            return;
+        }
+        records.offer(record);
+    }
+
+    /**
+     * @fn public void shutdown()
+     * @brief 남은 CDR 을 기록하고 파일을 닫은 후 CDR 쓰레드를 종료하는 함수
+     * @return 반환값 없음
+     */
+    public void shutdown() {
+        Thread current;
+        synchronized (this) {
+            enabled = false;
+            running = false;
+            current = writer;
+        }
+        if (current == null) return;
+
+        LockSupport.unpark(current);
+        try {
+            current.join(SHUTDOWN_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Override Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public synchronized void setEnabled(boolean enabled) {
+        if (enabled && !running) {
+            logger.warn("CDR is already shut down");
+            return;
+        }
+
+        if (enabled && writer == null) {
+            writer = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    writeRecords();
+                }
+            }, "CdrWriter");
+            writer.setDaemon(true);
+            writer.start();
+        }
+        this.enabled = enabled;
+    }
+
+    @Override
+    public String getDirectory() {
+        return directory.getPath();
+    }
+
+    @Override
+    public String getCurrentFile() {
+        File file = currentFile;
+        return file == null ? "" : file.getPath();
+    }
+
+    @Override
+    public int getOpenRecords() {
+        return CdrRecorder.getInstance().getOpenRecordCount();
+    }
+
+    @Override
+    public int getPendingRecords() {
+        return pendingRecords.get();
+    }
+
+    @Override
+    public long getWrittenRecords() {
+        return writtenRecords.get();
+    }
+
+    @Override
+    public long getDroppedRecords() {
+        return droppedRecords.get();
+    }
+
+    @Override
+    public long getWrittenBytes() {
+        return writtenBytes.get();
+    }
+
+    @Override
+    public long getSyncCount() {
+        return syncCount.get();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private void writeRecords()
+     * @brief 대기열에서 CDR 을 batchSize 개씩 꺼내 파일에 쓰고, syncInterval 마다 디스크에 반영하는 함수 (CDR 쓰레드 전용)
+     * 종료 요청을 받으면 남은 CDR 을 모두 기록하고 파일을 닫는다.
+     * @return 반환값 없음
+     */
+    private void writeRecords() {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+        dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+        StringBuilder builder = new StringBuilder(256 * DEFAULT_BATCH_SIZE);
+        long reportedDrops = 0;
+
+        while (true) {
+            builder.setLength(0);
+            int count = 0;
+            int limit = batchSize;
+            CallDetailRecord record;
+            while (count < limit && (record = records.poll()) != null) {
+                record.appendCsv(builder, dateFormat);
+                count++;
+            }
+
+            if (count == 0) {
+                syncIfDue(false);
+                if (!running && records.isEmpty()) break;
+                LockSupport.parkNanos(this, IDLE_PARK_TIME);
+                continue;
+            }
+            pendingRecords.addAndGet(-count);
+
+            long drops = droppedRecords.get();
+            if (drops != reportedDrops) {
+                logger.warn("{} CDRs are dropped", drops - reportedDrops);
+                reportedDrops = drops;
+            }
+
+            try {
+                write(builder.toString().getBytes(CHARSET), count);
+                syncIfDue(false);
+            } catch (Exception e) {
+                droppedRecords.addAndGet(count);
+                logger.warn("Fail to write CDR", e);
+                closeFile();
+            }
+        }
+
+        closeFile();
+    }
+
+    /**
+     * @fn private void write(final byte[] bytes, int count)
+     * @brief CDR 묶음을 현재 파일 끝에 쓰는 함수 (파일 크기나 교체 주기를 넘으면 다음 파일을 만듦)
+     * @param bytes CSV 줄 묶음(입력, 읽기 전용)
+     * @param count CDR 수(입력)
+     * @return 반환값 없음
+     */
+    private void write(final byte[] bytes, int count) throws IOException {
+        if (channel == null || isRotationDue(bytes.length)) {
+            openFile();
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        isDirty = true;
+        writtenRecords.addAndGet(count);
+        writtenBytes.addAndGet(bytes.length);
+    }
+
+    /**
+     * @fn private boolean isRotationDue(int length)
+     * @brief 현재 파일을 닫고 다음 파일로 넘어가야 하는지 반환하는 함수
+     * @param length 쓸 byte 수(입력)
+     * @return 넘어가야 하면 true, 아니면 false 반환
+     */
+    private boolean isRotationDue(int length) throws IOException {
+        int interval = rotateInterval;
+        if (interval > 0 && System.nanoTime() - fileOpenTime >= TimeUnit.SECONDS.toNanos(interval)) return true;
+        // 헤더만 있는 파일에는 크기를 넘어도 쓴다.
+        long position = channel.position();
+        return position + length > fileSize && position > CallDetailRecord.CSV_HEADER.length() + 1;
+    }
+
+    /**
+     * @fn private void syncIfDue(boolean force)
+     * @brief 기록한 내용을 디스크에 반영할 시각이 되었으면 반영하는 함수
+     * @param force 시각과 관계없이 반영할지 여부(입력)
+     * @return 반환값 없음
+     */
+    private void syncIfDue(boolean force) {
+        if (!isDirty || channel == null) return;
+
+        long now = System.nanoTime();
+        if (!force && now - lastSyncTime < TimeUnit.MILLISECONDS.toNanos(syncInterval)) return;
+
+        try {
+            channel.force(false);
+            syncCount.incrementAndGet();
+        } catch (IOException e) {
+            logger.warn("Fail to sync CDR file ({})", currentFile, e);
+        }
+        lastSyncTime = now;
+        isDirty = false;
+    }
+
+    /**
+     * @fn private void openFile()
+     * @brief 현재 파일을 닫고 다음 CDR 파일을 만들어 헤더를 쓰는 함수
+     * @return 반환값 없음
+     */
+    private void openFile() throws IOException {
+        closeFile();
+
+        File dir = directory;
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Fail to create CDR directory : " + dir);
+        }
+
+        File file = new File(dir, "cdr-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date())
+                + String.format("-%04d", fileSequence++) + FILE_EXTENSION + OPEN_FILE_EXTENSION);
+        channel = new FileOutputStream(file, true).getChannel();
+        currentFile = file;
+        fileOpenTime = System.nanoTime();
+        lastSyncTime = fileOpenTime;
+
+        ByteBuffer header = ByteBuffer.wrap((CallDetailRecord.CSV_HEADER + "\n").getBytes(CHARSET));
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        isDirty = true;
+        logger.debug("CDR file is opened ({})", file);
+    }
+
+    /**
+     * @fn private void closeFile()
+     * @brief 현재 CDR 파일을 디스크에 반영하고 닫은 후 .csv 로 이름을 바꾸는 함수
+     * @return 반환값 없음
+     */
+    private void closeFile() {
+        if (channel == null) return;
+
+        syncIfDue(true);
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("Fail to close CDR file ({})", currentFile, e);
+        }
+
+        File file = currentFile;
+        String path = file.getPath();
+        File closedFile = new File(path.substring(0, path.length() - OPEN_FILE_EXTENSION.length()));
+        if (!file.renameTo(closedFile)) {
+            logger.warn("Fail to rename CDR file ({})", file);
+        }
+        channel = null;
+        currentFile = null;
+    }
+}
@@ -0,0 +1,36 @@
+package com.signal.cdr;
+
+/**
+ * @interface public interface CdrWriterMXBean
+ * @brief JMX 로 노출하는 CDR 기록 설정 및 상태
+ */
+public interface CdrWriterMXBean {
+    /* CDR 기록 여부 */
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    /* CDR 파일 디렉토리 */
+    String getDirectory();
+
+    /* 현재 기록 중인 CDR 파일 (없으면 빈 문자열) */
+    String getCurrentFile();
+
+    /* 진행 중인 호 수 */
+    int getOpenRecords();
+
+    /* 기록 대기 중인 CDR 수 */
+    int getPendingRecords();
+
+    /* 기록한 CDR 수 */
+    long getWrittenRecords();
+
+    /* 대기열이 가득 찼거나 기록에 실패해서 버린 CDR 수 */
+    long getDroppedRecords();
+
+    /* 기록한 byte 수 */
+    long getWrittenBytes();
+
+    /* 디스크 반영(fsync) 횟수 */
+    long getSyncCount();
+}
@@ -0,0 +1,809 @@
+package com.signal.config;
+
+import com.signal.campaign.CampaignConfig;
+import com.signal.capture.CaptureWriter;
+import com.signal.cdr.CdrWriter;
+import com.signal.control.AdmissionController;
+import com.signal.control.CapacityPolicy;
+import com.signal.control.OverloadController;
+import com.signal.handler.BulkheadConfig;
+import com.signal.handler.ExecutionMode;
+import com.signal.handler.RequestHandlerRegistry;
+import com.signal.handler.VirtualThreadDispatcher;
+import com.signal.lifecycle.LifecycleManager;
+import com.signal.lifecycle.PeerHealth;
+import com.signal.replication.ReplicationManager;
+import com.signal.replication.ReplicationRole;
+import com.signal.resolve.ResolverBackend;
+import com.signal.resolve.SystemResolverBackend;
+import com.signal.resolve.TargetResolver;
+import com.signal.resolve.ZoneResolverBackend;
+import com.signal.snapshot.DialogSnapshotManager;
+import com.signal.transport.TransportConfig;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigRenderOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * @class public class SignalConfig
+ * @brief Typesafe Config 로 읽은 SIP Stack 및 성능 설정을 관리하는 클래스
+ * 기본값은 reference.conf 에 있고, application.conf, -Dconfig.file, 시스템 속성(-Dsignal.xxx) 순으로 덮어쓴다.
+ * signal.profile 에 프로파일 이름(low-latency, high-throughput)을 지정하면 signal.profiles.<이름> 의 값이 기본값을 덮어쓴다.
+ */
+public class SignalConfig {
+    /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
+    private static final Logger logger = LoggerFactory.getLogger(SignalConfig.class);
+    /* 설정 최상위 경로 */
+    public static final String ROOT_PATH = "signal";
+    /* 기본 프로파일 이름 (프로파일 적용 안 함) */
+    public static final String DEFAULT_PROFILE = "default";
+    /* NIST SIP Stack 속성 접두어 */
+    private static final String NIST_PREFIX = "gov.nist.javax.sip.";
+    /* 설정 객체(singleton), 처음 사용할 때 읽는다. */
+    private static volatile SignalConfig signalConfig = null;
+    /* 프로파일 이름 */
+    private final String profile;
+    /* 프로파일이 적용된 signal 설정 */
+    private final Config config;
+
+    /**
+     * @fn public SignalConfig(final Config rootConfig)
+     * @brief 설정에 지정된 프로파일(signal.profile)을 적용해서 설정 객체를 초기화하는 함수
+     * @param rootConfig 최상위 설정(입력, 읽기 전용)
+     */
+    public SignalConfig(final Config rootConfig) {
+        this(rootConfig, rootConfig.getString(ROOT_PATH + ".profile"));
+    }
+
+    /**
+     * @fn public SignalConfig(final Config rootConfig, final String profile)
+     * @brief 지정한 프로파일을 적용해서 설정 객체를 초기화하는 함수
+     * @param rootConfig 최상위 설정(입력, 읽기 전용)
+     * @param profile    프로파일 이름(입력, 읽기 전용, default 이면 적용 안 함)
+     */
+    public SignalConfig(final Config rootConfig, final String profile) {
+        if (rootConfig == null || profile == null) throw new NullPointerException("Parameter Error (Null)");
+
+        Config signal = rootConfig.getConfig(ROOT_PATH);
+        if (!profile.equals(DEFAULT_PROFILE)) {
+            if (!signal.hasPath("profiles." + profile)) {
+                throw new IllegalArgumentException("Unknown profile : " + profile + " (available : " + signal.getConfig("profiles").root().keySet() + ")");
+            }
+            signal = signal.getConfig("profiles." + profile).withFallback(signal);
+        }
+
+        this.profile = profile;
+        this.config = signal;
+        validate();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public static SignalConfig getInstance()
+     * @brief 기본 설정(ConfigFactory.load())으로 만든 설정 객체를 반환하는 함수
+     * @return 설정 객체
+     */
+    public static SignalConfig getInstance() {
+        SignalConfig current = signalConfig;
+        if (current == null) {
+            synchronized (SignalConfig.class) {
+                current = signalConfig;
+                if (current == null) {
+                    current = new SignalConfig(ConfigFactory.load());
+                    signalConfig = current;
+                    logger.info("Signal config (Profile:{})", current.getProfile());
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * @fn public static void setInstance(final SignalConfig config)
+     * @brief 기본 설정 객체를 교체하는 함수 (SIP Stack 생성 전에 호출)
+     * @param config 설정 객체(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public static void setInstance(final SignalConfig config) {
+        if (config == null) throw new NullPointerException("Parameter Error (Null)");
+        synchronized (SignalConfig.class) {
+            signalConfig = config;
+        }
+        logger.info("Signal config (Profile:{})", config.getProfile());
+    }
+
+    /**
+     * @fn public Properties toStackProperties(final String stackName)
+     * @brief JAIN SIP Stack 생성에 사용할 속성을 만드는 함수
+     * 값이 0 인 항목은 지정하지 않아서 Stack 기본값을 사용한다.
+     * @param stackName SIP Stack 이름(입력, 읽기 전용)
+     * @return SIP Stack 속성
+     */
+    public Properties toStackProperties(final String stackName) {
+        if (stackName == null) throw new NullPointerException("Parameter Error (Null)");
+
+        Properties properties = new Properties();
+        // IP_ADDRESS 를 지정하면 SipFactory 가 Stack 이름 대신 주소로 Stack 을 공유하므로 지정하지 않는다. (주소는 ListeningPoint 에서 지정)
+        properties.setProperty("javax.sip.STACK_NAME", stackName);
+
+        // Stack
+        Config stack = config.getConfig("stack");
+        setIfPositive(properties, "THREAD_POOL_SIZE", stack.getInt("thread-pool-size"));
+        setIfPositive(properties, "TCP_POST_PARSING_THREAD_POOL_SIZE", stack.getInt("thread-pool-size"));
+        properties.setProperty(NIST_PREFIX + "REENTRANT_LISTENER", String.valueOf(stack.getBoolean("reentrant-listener")));
+        setIfPositive(properties, "MAX_MESSAGE_SIZE", stack.getInt("max-message-size"));
+        properties.setProperty(NIST_PREFIX + "CACHE_CLIENT_CONNECTIONS", String.valueOf(stack.getBoolean("cache-client-connections")));
+        properties.setProperty(NIST_PREFIX + "CACHE_SERVER_CONNECTIONS", String.valueOf(stack.getBoolean("cache-server-connections")));
+        setIfPositive(properties, "RECEIVE_UDP_BUFFER_SIZE", stack.getInt("receive-udp-buffer-size"));
+        setIfPositive(properties, "SEND_UDP_BUFFER_SIZE", stack.getInt("send-udp-buffer-size"));
+
+        // Log (기본 꺼짐)
+        properties.setProperty(NIST_PREFIX + "TRACE_LEVEL", String.valueOf(toTraceLevel(stack.getString("log-level"))));
+        Config debugLog = stack.getConfig("debug-log");
+        if (debugLog.getBoolean("enabled")) {
+            properties.setProperty(NIST_PREFIX + "DEBUG_LOG", debugLog.getString("file"));
+            properties.setProperty(NIST_PREFIX + "SERVER_LOG", debugLog.getString("file"));
+            properties.setProperty(NIST_PREFIX + "LOG_MESSAGE_CONTENT", String.valueOf(debugLog.getBoolean("log-message-content")));
+        } else {
+            properties.setProperty(NIST_PREFIX + "LOG_MESSAGE_CONTENT", "false");
+        }
+
+        // Timers
+        Config timers = config.getConfig("timers");
+        setIfPositive(properties, "MAX_LISTENER_RESPONSE_TIME", timers.getInt("max-listener-response-time"));
+        setIfPositive(properties, "EARLY_DIALOG_TIMEOUT_SECONDS", timers.getInt("early-dialog-timeout"));
+        setIfPositive(properties, "MAX_TX_LIFETIME_INVITE", timers.getInt("max-tx-lifetime-invite"));
+        setIfPositive(properties, "MAX_TX_LIFETIME_NON_INVITE", timers.getInt("max-tx-lifetime-non-invite"));
+        setIfPositive(properties, "CONGESTION_CONTROL_TIMEOUT", timers.getInt("congestion-control-timeout"));
+        setIfPositive(properties, "LINGER_TIMER", timers.getInt("linger-timer"));
+
+        // Capacity
+        Config capacity = config.getConfig("capacity");
+        setIfPositive(properties, "MAX_SERVER_TRANSACTIONS", capacity.getInt("max-server-transactions"));
+        setIfPositive(properties, "MAX_CLIENT_TRANSACTIONS", capacity.getInt("max-client-transactions"));
+        setIfPositive(properties, "MAX_CONNECTIONS", capacity.getInt("max-connections"));
+
+        return properties;
+    }
+
+    /**
+     * @fn public void configureAdmission()
+     * @brief 용량 설정(signal.capacity)으로 수락 제어를 설정하는 함수 (호 처리 전에 호출)
+     * @return 반환값 없음
+     */
+    public void configureAdmission() {
+        AdmissionController.getInstance().configure(getMaxCalls(), getCapacityPolicy(), getRetryAfter(),
+                config.getInt("capacity.queue-size"), config.getLong("capacity.queue-timeout"));
+    }
+
+    /**
+     * @fn public void configureOverload()
+     * @brief 과부하 제어 설정(signal.overload)으로 새 요청의 rate 제한을 설정하는 함수 (호 처리 전에 호출)
+     * @return 반환값 없음
+     */
+    public void configureOverload() {
+        Config overload = config.getConfig("overload");
+        OverloadController.getInstance().configure(overload.getBoolean("enabled"), overload.getDouble("rate"), overload.getInt("burst"),
+                overload.getDouble("source-rate"), overload.getInt("source-burst"), overload.getDouble("min-rate"), overload.getInt("max-sources"),
+                overload.getInt("queue-threshold"), overload.getLong("latency-target"), overload.getInt("retry-after"));
+    }
+
+    /**
+     * @fn public void configureHandlers()
+     * @brief 요청 처리기 설정(signal.handlers)으로 Method 별 Bulkhead 와 처리기 실행 방식을 설정하는 함수 (호 처리 전에 호출)
+     * @return 반환값 없음
+     */
+    public void configureHandlers() {
+        RequestHandlerRegistry.getInstance().configure(getBulkheadConfigs());
+        VirtualThreadDispatcher.getInstance().configure(getExecutionMode(), config.getInt("handlers.max-virtual-tasks"));
+    }
+
+    /**
+     * @fn public void configureCapture()
+     * @brief 캡처 설정(signal.capture)으로 SIP 메시지 캡처를 설정하는 함수 (호 처리 전에 호출)
+     * @return 반환값 없음
+     */
+    public void configureCapture() {
+        Config capture = config.getConfig("capture");
+        CaptureWriter.getInstance().configure(capture.getBoolean("enabled"), capture.getString("directory"),
+                getCaptureFileSize(), capture.getInt("max-files"), capture.getInt("queue-size"));
+    }
+
+    /**
+     * @fn public void configureCdr()
+     * @brief CDR 설정(signal.cdr)으로 CDR 기록을 설정하는 함수 (호 처리 전에 호출)
+     * @return 반환값 없음
+     */
+    public void configureCdr() {
+        Config cdr = config.getConfig("cdr");
+        CdrWriter.getInstance().configure(cdr.getBoolean("enabled"), cdr.getString("directory"), cdr.getBytes("file-size"),
+                cdr.getInt("rotate-interval"), cdr.getInt("batch-size"), cdr.getLong("sync-interval"), cdr.getInt("queue-size"));
+    }
+
+    /**
+     * @fn public void configureSnapshot()
+     * @brief 다이얼로그 스냅샷 설정(signal.snapshot)으로 다이얼로그 스냅샷을 설정하는 함수 (SIP Stack 생성 전에 호출)
+     * @return 반환값 없음
+     */
+    public void configureSnapshot() {
+        Config snapshot = config.getConfig("snapshot");
+        DialogSnapshotManager.getInstance().configure(snapshot.getBoolean("enabled"), snapshot.getString("directory"),
+                snapshot.getLong("interval"), snapshot.getInt("compact-threshold"), getRestoreTimeout() * 1000L);
+    }
+
+    /**
+     * @fn public void configureReplication()
+     * @brief 호 상태 복제 설정(signal.replication)으로 복제를 설정하는 함수 (SIP Stack 생성 전에 호출)
+     * @return 반환값 없음
+     */
+    public void configureReplication() {
+        Config replication = config.getConfig("replication");
+        ReplicationManager.getInstance().configure(getReplicationRole(), replication.getString("host"), replication.getInt("port"),
+                replication.getLong("batch-interval"), replication.getLong("heartbeat-interval"), replication.getLong("takeover-timeout"),
+                replication.getLong("reconnect-interval"), replication.getInt("compression-level"));
+    }
+
+    /**
+     * @fn public void configureLifecycle()
+     * @brief 정상 종료 설정(signal.lifecycle)으로 정상 종료와 상대방 발신 중지를 설정하는 함수 (호 처리 전에 호출)
+     * @return 반환값 없음
+     */
+    public void configureLifecycle() {
+        Config lifecycle = config.getConfig("lifecycle");
+        LifecycleManager.getInstance().configure(lifecycle.getLong("drain-timeout"), lifecycle.getInt("bye-rate"), lifecycle.getLong("bye-timeout"));
+        PeerHealth.getInstance().configure(lifecycle.getLong("peer-backoff"), lifecycle.getLong("peer-max-backoff"));
+        if (lifecycle.getBoolean("shutdown-hook")) {
+            LifecycleManager.getInstance().installShutdownHook();
+        }
+    }
+
+    /**
+     * @fn public void configureResolver()
+     * @brief 발신 대상 해석 설정(signal.resolver)으로 RFC 3263 해석과 캐시를 설정하는 함수 (발신 전에 호출)
+     * @return 반환값 없음
+     */
+    public void configureResolver() {
+        Config resolver = config.getConfig("resolver");
+        ResolverBackend backend;
+        try {
+            backend = getResolverBackend();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid resolver (fail to load zone-file : " + e.getMessage() + ")", e);
+        }
+        TargetResolver.getInstance().configure(backend, resolver.getStringList("transports"), resolver.getLong("min-ttl"),
+                resolver.getLong("max-ttl"), resolver.getLong("negative-ttl"), resolver.getDouble("refresh-ahead"),
+                resolver.getInt("max-entries"), resolver.getInt("refresh-threads"));
+    }
+
+    /**
+     * @fn public ResolverBackend getResolverBackend() throws IOException
+     * @brief 레코드 조회 방식(signal.resolver.backend)에 맞는 조회 객체를 반환하는 함수
+     * @return 레코드 조회 객체
+     * @throws IOException zone 파일을 읽지 못한 경우
+     */
+    public ResolverBackend getResolverBackend() throws IOException {
+        Config resolver = config.getConfig("resolver");
+        String backend = resolver.getString("backend").toLowerCase();
+        switch (backend) {
+            case "system":
+                return new SystemResolverBackend(resolver.getLong("system.timeout"), resolver.getInt("system.retries"),
+                        resolver.getLong("system.default-ttl"));
+            case "zone":
+                String zoneFile = resolver.getString("zone-file");
+                if (zoneFile.isEmpty()) throw new IllegalArgumentException("Invalid resolver (zone-file is required for zone backend)");
+                return ZoneResolverBackend.load(new File(zoneFile));
+            default:
+                throw new IllegalArgumentException("Invalid resolver (backend : " + backend + ", system or zone)");
+        }
+    }
+
+    /**
+     * @fn public String getProfile()
+     * @brief 적용된 프로파일 이름을 반환하는 함수
+     * @return 프로파일 이름
+     */
+    public String getProfile() {
+        return profile;
+    }
+
+    /**
+     * @fn public Config getConfig()
+     * @brief 프로파일이 적용된 signal 설정을 반환하는 함수
+     * @return signal 설정
+     */
+    public Config getConfig() {
+        return config;
+    }
+
+    /**
+     * @fn public String getUserName()
+     * @brief 자기 자신의 사용자 이름을 반환하는 함수
+     * @return 사용자 이름
+     */
+    public String getUserName() {
+        return config.getString("local.user-name");
+    }
+
+    /**
+     * @fn public String getIp()
+     * @brief 자기 자신의 IP 주소를 반환하는 함수
+     * @return IP 주소
+     */
+    public String getIp() {
+        return config.getString("local.ip");
+    }
+
+    /**
+     * @fn public String getStackName()
+     * @brief SIP Stack 이름을 반환하는 함수
+     * @return SIP Stack 이름
+     */
+    public String getStackName() {
+        return config.getString("stack.name");
+    }
+
+    /**
+     * @fn public TransportConfig[] getTransportConfigs()
+     * @brief ListeningPoint 별 전송 설정 목록을 반환하는 함수
+     * @return 전송 설정 목록
+     */
+    public TransportConfig[] getTransportConfigs() {
+        List<? extends Config> transports = config.getConfigList("transports");
+        TransportConfig[] transportConfigs = new TransportConfig[transports.size()];
+        for (int i = 0; i < transportConfigs.length; i++) {
+            Config transport = transports.get(i);
+            transportConfigs[i] = new TransportConfig(transport.getString("protocol"), transport.getInt("port"),
+                    transport.getInt("worker-threads"), transport.getInt("queue-size"));
+        }
+        return transportConfigs;
+    }
+
+    /**
+     * @fn public BulkheadConfig[] getBulkheadConfigs()
+     * @brief 요청 처리기 Bulkhead 설정 목록을 반환하는 함수
+     * @return Bulkhead 설정 목록
+     */
+    public BulkheadConfig[] getBulkheadConfigs() {
+        List<? extends Config> bulkheads = config.getConfigList("handlers.bulkheads");
+        BulkheadConfig[] bulkheadConfigs = new BulkheadConfig[bulkheads.size()];
+        for (int i = 0; i < bulkheadConfigs.length; i++) {
+            Config bulkhead = bulkheads.get(i);
+            bulkheadConfigs[i] = new BulkheadConfig(bulkhead.getString("name"), bulkhead.getStringList("methods"),
+                    bulkhead.getInt("threads"), bulkhead.getInt("queue-size"));
+        }
+        return bulkheadConfigs;
+    }
+
+    /**
+     * @fn public ExecutionMode getExecutionMode()
+     * @brief 요청/응답 처리기 실행 방식을 반환하는 함수
+     * @return 실행 방식
+     */
+    public ExecutionMode getExecutionMode() {
+        return ExecutionMode.valueOf(config.getString("handlers.execution").toUpperCase());
+    }
+
+    /**
+     * @fn public CampaignConfig getCampaignConfig()
+     * @brief 발신 캠페인 조건(signal.campaign)을 반환하는 함수
+     * @return 발신 캠페인 조건
+     */
+    public CampaignConfig getCampaignConfig() {
+        Config campaign = config.getConfig("campaign");
+        return new CampaignConfig(campaign.getDouble("cps"), campaign.getInt("max-concurrent-calls"), campaign.getInt("max-calls-per-destination"),
+                campaign.getInt("max-attempts"), campaign.getLong("retry-backoff"), campaign.getLong("max-retry-backoff"),
+                new HashSet<>(campaign.getIntList("retryable-codes")), campaign.getLong("hold-time"), campaign.getInt("max-pending-retries"));
+    }
+
+    /**
+     * @fn public File getCampaignProgressFile(final File targetFile)
+     * @brief 발신 캠페인 진행 파일을 반환하는 함수
+     * @param targetFile 대상 목록 파일(입력, 읽기 전용)
+     * @return 진행 파일 (설정이 비어 있으면 <대상 목록 파일>.progress)
+     */
+    public File getCampaignProgressFile(final File targetFile) {
+        String progressFile = config.getString("campaign.progress-file");
+        return progressFile.isEmpty() ? new File(targetFile.getPath() + ".progress") : new File(progressFile);
+    }
+
+    /**
+     * @fn public String getRemoteUri()
+     * @brief 단일 호 시험 상대방 URI 를 반환하는 함수
+     * @return 상대방 URI (user@host)
+     */
+    public String getRemoteUri() {
+        return config.getString("remote.uri");
+    }
+
+    /**
+     * @fn public int getRemotePort()
+     * @brief 단일 호 시험 상대방 포트를 반환하는 함수
+     * @return 상대방 포트
+     */
+    public int getRemotePort() {
+        return config.getInt("remote.port");
+    }
+
+    /**
+     * @fn public String getRemoteTransport()
+     * @brief 단일 호 시험 상대방 전송 프로토콜을 반환하는 함수
+     * @return 전송 프로토콜 (소문자)
+     */
+    public String getRemoteTransport() {
+        return config.getString("remote.transport").toLowerCase();
+    }
+
+    /**
+     * @fn public int getMaxCalls()
+     * @brief 최대 동시 호 수를 반환하는 함수
+     * @return 최대 동시 호 수
+     */
+    public int getMaxCalls() {
+        return config.getInt("capacity.max-calls");
+    }
+
+    /**
+     * @fn public CapacityPolicy getCapacityPolicy()
+     * @brief 최대 동시 호 수 도달 시 처리 정책을 반환하는 함수
+     * @return 처리 정책
+     */
+    public CapacityPolicy getCapacityPolicy() {
+        return CapacityPolicy.valueOf(config.getString("capacity.capacity-policy").toUpperCase());
+    }
+
+    /**
+     * @fn public int getRetryAfter()
+     * @brief 503 응답의 Retry-After 값을 반환하는 함수
+     * @return Retry-After 값 (초)
+     */
+    public int getRetryAfter() {
+        return config.getInt("capacity.retry-after");
+    }
+
+    /**
+     * @fn public int getCaptureFileSize()
+     * @brief 캡처 파일 하나의 크기를 반환하는 함수
+     * @return 캡처 파일 크기 (byte)
+     */
+    public int getCaptureFileSize() {
+        long fileSize = config.getBytes("capture.file-size");
+        if (fileSize <= 0 || fileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid capture file size : " + fileSize + " (1 ~ " + Integer.MAX_VALUE + ")");
+        }
+        return (int) fileSize;
+    }
+
+    /**
+     * @fn public int getSessionExpires()
+     * @brief 요청할 Session-Expires 값을 반환하는 함수
+     * @return Session-Expires (초, 0 이면 세션 타이머 사용 안 함)
+     */
+    public int getSessionExpires() {
+        int sessionExpires = config.getInt("session.session-expires");
+        if (sessionExpires != 0 && sessionExpires < getMinSE()) {
+            throw new IllegalArgumentException("Invalid session expires : " + sessionExpires + " (0 or >= min-se " + getMinSE() + ")");
+        }
+        return sessionExpires;
+    }
+
+    /**
+     * @fn public int getMinSE()
+     * @brief 허용하는 최소 Session-Expires(Min-SE) 값을 반환하는 함수
+     * @return Min-SE (초)
+     */
+    public int getMinSE() {
+        int minSE = config.getInt("session.min-se");
+        if (minSE <= 0) throw new IllegalArgumentException("Invalid min-se : " + minSE + " (> 0)");
+        return minSE;
+    }
+
+    /**
+     * @fn public int getMaxDialogLifetime()
+     * @brief 세션 타이머를 적용하지 못한 다이얼로그를 유지하는 최대 시간을 반환하는 함수 (signal.session.max-dialog-lifetime)
+     * @return 최대 유지 시간 (초, 0 이면 BYE 를 받을 때까지 유지)
+     */
+    public int getMaxDialogLifetime() {
+        int maxDialogLifetime = config.getInt("session.max-dialog-lifetime");
+        if (maxDialogLifetime < 0) throw new IllegalArgumentException("Invalid max dialog lifetime : " + maxDialogLifetime + " (>= 0)");
+        return maxDialogLifetime;
+    }
+
+    /**
+     * @fn public long getTransactionTimeout()
+     * @brief 최종 응답 없이 남은 트랜잭션을 정리하기까지의 시간을 반환하는 함수
+     * @return 정리 시간 (ms, 0 이면 정리 안 함)
+     */
+    public long getTransactionTimeout() {
+        long transactionTimeout = config.getLong("session.transaction-timeout");
+        if (transactionTimeout < 0) throw new IllegalArgumentException("Invalid transaction timeout : " + transactionTimeout + " (>= 0)");
+        return transactionTimeout;
+    }
+
+    /**
+     * @fn public ReplicationRole getReplicationRole()
+     * @brief 호 상태 복제 역할을 반환하는 함수 (signal.replication.role)
+     * @return 복제 역할
+     */
+    public ReplicationRole getReplicationRole() {
+        return ReplicationRole.valueOf(config.getString("replication.role").toUpperCase());
+    }
+
+    /**
+     * @fn public int getRestoreTimeout()
+     * @brief 되살린 다이얼로그를 유지하는 시간을 반환하는 함수 (signal.snapshot.restore-timeout, 0 이면 session-expires)
+     * @return 유지 시간 (초, 0 이면 BYE 를 받을 때까지 유지)
+     */
+    public int getRestoreTimeout() {
+        int restoreTimeout = config.getInt("snapshot.restore-timeout");
+        if (restoreTimeout < 0) throw new IllegalArgumentException("Invalid restore timeout : " + restoreTimeout + " (>= 0)");
+        return restoreTimeout == 0 ? getSessionExpires() : restoreTimeout;
+    }
+
+    @Override
+    public String toString() {
+        return "SignalConfig{" +
+                "profile=" + profile +
+                ", stack=" + config.getConfig("stack").root().render(ConfigRenderOptions.concise()) +
+                ", timers=" + config.getConfig("timers").root().render(ConfigRenderOptions.concise()) +
+                ", capacity=" + config.getConfig("capacity").root().render(ConfigRenderOptions.concise()) +
+                ", handlers=" + config.getConfig("handlers").root().render(ConfigRenderOptions.concise()) +
+                ", overload=" + config.getConfig("overload").root().render(ConfigRenderOptions.concise()) +
+                ", capture=" + config.getConfig("capture").root().render(ConfigRenderOptions.concise()) +
+                ", cdr=" + config.getConfig("cdr").root().render(ConfigRenderOptions.concise()) +
+                ", snapshot=" + config.getConfig("snapshot").root().render(ConfigRenderOptions.concise()) +
+                ", replication=" + config.getConfig("replication").root().render(ConfigRenderOptions.concise()) +
+                ", session=" + config.getConfig("session").root().render(ConfigRenderOptions.concise()) +
+                ", lifecycle=" + config.getConfig("lifecycle").root().render(ConfigRenderOptions.concise()) +
+                ", campaign=" + config.getConfig("campaign").root().render(ConfigRenderOptions.concise()) +
+                ", resolver=" + config.getConfig("resolver").root().render(ConfigRenderOptions.concise()) +
+                '}';
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private void validate()
+     * @brief 설정 값을 미리 읽어서 잘못된 값이 있으면 시작 시 바로 실패하게 하는 함수
+     * @return 반환값 없음
+     */
+    private void validate() {
+        try {
+            toStackProperties(getStackName());
+            if (getTransportConfigs().length == 0) throw new IllegalArgumentException("No transport");
+            getUserName();
+            getIp();
+            getRemoteUri();
+            getRemotePort();
+            getRemoteTransport();
+            getCapacityPolicy();
+            validateHandlers();
+            validateOverload();
+            getCaptureFileSize();
+            validateCdr();
+            validateSnapshot();
+            validateReplication();
+            getSessionExpires();
+            getMaxDialogLifetime();
+            getTransactionTimeout();
+            validateLifecycle();
+            getCampaignConfig();
+            validateResolver();
+        } catch (ConfigException e) {
+            throw new IllegalArgumentException("Invalid signal config (Profile:" + profile + ") : " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @fn private void validateHandlers()
+     * @brief 요청 처리기 설정(signal.handlers) 값을 검사하는 함수 (Bulkhead 이름과 Method 는 중복될 수 없음)
+     * @return 반환값 없음
+     */
+    private void validateHandlers() {
+        getExecutionMode();
+        if (config.getInt("handlers.max-virtual-tasks") <= 0) {
+            throw new IllegalArgumentException("Invalid handlers (max-virtual-tasks : " + config.getInt("handlers.max-virtual-tasks") + ")");
+        }
+
+        Set<String> names = new HashSet<>();
+        Set<String> methods = new HashSet<>();
+        for (BulkheadConfig bulkheadConfig : getBulkheadConfigs()) {
+            if (!names.add(bulkheadConfig.getName())) {
+                throw new IllegalArgumentException("Invalid handlers (duplicated bulkhead : " + bulkheadConfig.getName() + ")");
+            }
+            for (String method : bulkheadConfig.getMethods()) {
+                if (!methods.add(method)) {
+                    throw new IllegalArgumentException("Invalid handlers (method " + method + " is assigned to several bulkheads)");
+                }
+            }
+        }
+    }
+
+    /**
+     * @fn private void validateOverload()
+     * @brief 과부하 제어 설정(signal.overload) 값을 검사하는 함수
+     * @return 반환값 없음
+     */
+    private void validateOverload() {
+        Config overload = config.getConfig("overload");
+        overload.getBoolean("enabled");
+        double rate = overload.getDouble("rate");
+        int burst = overload.getInt("burst");
+        double sourceRate = overload.getDouble("source-rate");
+        int sourceBurst = overload.getInt("source-burst");
+        int maxSources = overload.getInt("max-sources");
+        double minRate = overload.getDouble("min-rate");
+        int queueThreshold = overload.getInt("queue-threshold");
+        long latencyTarget = overload.getLong("latency-target");
+        int retryAfter = overload.getInt("retry-after");
+        if (rate <= 0 || burst < 1 || sourceRate < 0 || sourceBurst < 1 || maxSources < 0 || minRate <= 0 || minRate > rate
+                || queueThreshold <= 0 || latencyTarget <= 0 || retryAfter < 0) {
+            throw new IllegalArgumentException("Invalid overload (rate:" + rate + " > 0, burst:" + burst + " >= 1, source-rate:" + sourceRate
+                    + " >= 0, source-burst:" + sourceBurst + " >= 1, max-sources:" + maxSources + " >= 0, min-rate:" + minRate
+                    + " 0 < min-rate <= rate, queue-threshold:" + queueThreshold + " > 0, latency-target:" + latencyTarget
+                    + " > 0, retry-after:" + retryAfter + " >= 0)");
+        }
+    }
+
+    /**
+     * @fn private void validateResolver()
+     * @brief 발신 대상 해석 설정(signal.resolver) 값을 검사하는 함수 (zone 파일은 configureResolver 에서 읽음)
+     * @return 반환값 없음
+     */
+    private void validateResolver() {
+        Config resolver = config.getConfig("resolver");
+        String backend = resolver.getString("backend").toLowerCase();
+        resolver.getString("zone-file");
+        List<String> transports = resolver.getStringList("transports");
+        long minTtl = resolver.getLong("min-ttl");
+        long maxTtl = resolver.getLong("max-ttl");
+        long negativeTtl = resolver.getLong("negative-ttl");
+        double refreshAhead = resolver.getDouble("refresh-ahead");
+        int maxEntries = resolver.getInt("max-entries");
+        int refreshThreads = resolver.getInt("refresh-threads");
+        long timeout = resolver.getLong("system.timeout");
+        int retries = resolver.getInt("system.retries");
+        long defaultTtl = resolver.getLong("system.default-ttl");
+        if (!backend.equals("system") && !backend.equals("zone")) {
+            throw new IllegalArgumentException("Invalid resolver (backend : " + backend + ", system or zone)");
+        }
+        for (String transport : transports) {
+            String lowerCaseTransport = transport.toLowerCase();
+            if (!lowerCaseTransport.equals("udp") && !lowerCaseTransport.equals("tcp") && !lowerCaseTransport.equals("tls")) {
+                throw new IllegalArgumentException("Invalid resolver (transport : " + transport + ", udp/tcp/tls)");
+            }
+        }
+        if (transports.isEmpty() || minTtl < 0 || maxTtl < minTtl || negativeTtl < 0 || refreshAhead <= 0 || refreshAhead > 1
+                || maxEntries <= 0 || refreshThreads <= 0 || timeout <= 0 || retries < 0 || defaultTtl < 0) {
+            throw new IllegalArgumentException("Invalid resolver (transports:" + transports + " not empty, min-ttl:" + minTtl
+                    + " >= 0, max-ttl:" + maxTtl + " >= min-ttl, negative-ttl:" + negativeTtl + " >= 0, refresh-ahead:" + refreshAhead
+                    + " 0 < refresh-ahead <= 1, max-entries:" + maxEntries + " > 0, refresh-threads:" + refreshThreads
+                    + " > 0, system.timeout:" + timeout + " > 0, system.retries:" + retries + " >= 0, system.default-ttl:" + defaultTtl + " >= 0)");
+        }
+    }
+
+    /**
+     * @fn private void validateCdr()
+     * @brief CDR 설정(signal.cdr) 값을 검사하는 함수
+     * @return 반환값 없음
+     */
+    private void validateCdr() {
+        Config cdr = config.getConfig("cdr");
+        cdr.getBoolean("enabled");
+        cdr.getString("directory");
+        long fileSize = cdr.getBytes("file-size");
+        int rotateInterval = cdr.getInt("rotate-interval");
+        int batchSize = cdr.getInt("batch-size");
+        long syncInterval = cdr.getLong("sync-interval");
+        int queueSize = cdr.getInt("queue-size");
+        if (fileSize <= 0 || rotateInterval < 0 || batchSize <= 0 || syncInterval < 0 || queueSize <= 0) {
+            throw new IllegalArgumentException("Invalid cdr (file-size:" + fileSize + " > 0, rotate-interval:" + rotateInterval + " >= 0, batch-size:"
+                    + batchSize + " > 0, sync-interval:" + syncInterval + " >= 0, queue-size:" + queueSize + " > 0)");
+        }
+    }
+
+    /**
+     * @fn private void validateSnapshot()
+     * @brief 다이얼로그 스냅샷 설정(signal.snapshot) 값을 검사하는 함수
+     * @return 반환값 없음
+     */
+    private void validateSnapshot() {
+        Config snapshot = config.getConfig("snapshot");
+        snapshot.getBoolean("enabled");
+        snapshot.getString("directory");
+        long interval = snapshot.getLong("interval");
+        int compactThreshold = snapshot.getInt("compact-threshold");
+        if (interval <= 0 || compactThreshold <= 0) {
+            throw new IllegalArgumentException("Invalid snapshot (interval:" + interval + " > 0, compact-threshold:" + compactThreshold + " > 0)");
+        }
+        getRestoreTimeout();
+    }
+
+    /**
+     * @fn private void validateReplication()
+     * @brief 호 상태 복제 설정(signal.replication) 값을 검사하는 함수
+     * @return 반환값 없음
+     */
+    private void validateReplication() {
+        Config replication = config.getConfig("replication");
+        getReplicationRole();
+        replication.getString("host");
+        int port = replication.getInt("port");
+        long batchInterval = replication.getLong("batch-interval");
+        long heartbeatInterval = replication.getLong("heartbeat-interval");
+        long takeoverTimeout = replication.getLong("takeover-timeout");
+        long reconnectInterval = replication.getLong("reconnect-interval");
+        int compressionLevel = replication.getInt("compression-level");
+        if (port <= 0 || port > 65535 || batchInterval <= 0 || heartbeatInterval <= 0 || takeoverTimeout <= heartbeatInterval
+                || reconnectInterval <= 0 || compressionLevel < 0 || compressionLevel > 9) {
+            throw new IllegalArgumentException("Invalid replication (port:" + port + " 1~65535, batch-interval:" + batchInterval
+                    + " > 0, heartbeat-interval:" + heartbeatInterval + " > 0, takeover-timeout:" + takeoverTimeout
+                    + " > heartbeat-interval, reconnect-interval:" + reconnectInterval + " > 0, compression-level:" + compressionLevel + " 0~9)");
+        }
+    }
+
+    /**
+     * @fn private void validateLifecycle()
+     * @brief 정상 종료 설정(signal.lifecycle) 값을 검사하는 함수
+     * @return 반환값 없음
+     */
+    private void validateLifecycle() {
+        Config lifecycle = config.getConfig("lifecycle");
+        long drainTimeout = lifecycle.getLong("drain-timeout");
+        int byeRate = lifecycle.getInt("bye-rate");
+        long byeTimeout = lifecycle.getLong("bye-timeout");
+        if (drainTimeout < 0 || byeRate <= 0 || byeTimeout < 0) {
+            throw new IllegalArgumentException("Invalid lifecycle (drain-timeout:" + drainTimeout + " >= 0, bye-rate:" + byeRate + " > 0, bye-timeout:" + byeTimeout + " >= 0)");
+        }
+        long peerBackoff = lifecycle.getLong("peer-backoff");
+        long peerMaxBackoff = lifecycle.getLong("peer-max-backoff");
+        if (peerBackoff < 0 || peerMaxBackoff < peerBackoff) {
+            throw new IllegalArgumentException("Invalid peer backoff (peer-backoff:" + peerBackoff + " >= 0, peer-max-backoff:" + peerMaxBackoff + " >= peer-backoff)");
+        }
+        lifecycle.getBoolean("shutdown-hook");
+    }
+
+    /**
+     * @fn private static void setIfPositive(final Properties properties, final String name, int value)
+     * @brief 값이 0 보다 크면 NIST SIP Stack 속성을 지정하는 함수
+     * @param properties SIP Stack 속성(출력)
+     * @param name       gov.nist.javax.sip. 을 뺀 속성 이름(입력, 읽기 전용)
+     * @param value      값(입력)
+     * @return 반환값 없음
+     */
+    private static void setIfPositive(final Properties properties, final String name, int value) {
+        if (value > 0) properties.setProperty(NIST_PREFIX + name, String.valueOf(value));
+    }
+
+    /**
+     * @fn private static int toTraceLevel(final String logLevel)
+     * @brief 로그 레벨 이름을 NIST SIP Stack 의 TRACE_LEVEL 값으로 변환하는 함수
+     * @param logLevel 로그 레벨 이름(입력, 읽기 전용)
+     * @return TRACE_LEVEL 값
+     */
+    private static int toTraceLevel(final String logLevel) {
+        switch (logLevel.toUpperCase()) {
+            case "OFF": return 0;
+            case "ERROR": return 4;
+            case "WARN": return 8;
+            case "INFO": return 16;
+            case "DEBUG": return 32;
+            case "TRACE": return 64;
+            default: throw new IllegalArgumentException("Unknown log level : " + logLevel);
+        }
+    }
+}
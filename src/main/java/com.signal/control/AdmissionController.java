@@ -0,0 +1,426 @@
+package com.signal.control;
+
+import com.signal.logic.SipCall;
+import com.signal.timer.HashedWheelTimer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @class public class AdmissionController
+ * @brief 동시 호(다이얼로그) 수를 제한하는 수락 제어 클래스
+ * 수락 여부는 AtomicInteger 의 CAS 로만 결정하므로 경합 상황에서도 O(1) 이다.
+ * 기본값은 최대 1 호 + 486 Busy Here 로, 기존의 한 번에 한 호만 처리하는 동작과 같다.
+ * 대기열(QUEUE 정책)의 대기 시간은 공용 타이머(HashedWheelTimer)로 확인하므로, 자리가 반납되지 않아도 대기 시간이 지난 호는 거절된다.
+ */
+public class AdmissionController {
+    /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionController.class);
+    /* 기본 최대 동시 호 수 (단일 호 모드) */
+    public static final int DEFAULT_MAX_CALLS = 1;
+    /* 기본 Retry-After 값 (초) */
+    public static final int DEFAULT_RETRY_AFTER = 5;
+    /* 기본 대기열 크기 */
+    public static final int DEFAULT_QUEUE_SIZE = 256;
+    /* 기본 대기열 대기 시간 (ms) */
+    public static final long DEFAULT_QUEUE_TIMEOUT = 8000;
+    /* 수락 제어 관리 객체(singleton) */
+    private static final AdmissionController admissionController = new AdmissionController();
+    /* 현재 수락된 호 개수 */
+    private final AtomicInteger activeCalls = new AtomicInteger(0);
+    /* 수락된 호의 Call-ID 집합, 같은 호에 대해 중복으로 해제되지 않도록 관리 */
+    private final ConcurrentHashMap<String, Boolean> admittedCalls = new ConcurrentHashMap<>();
+    /* 최대 동시 호 수 */
+    private volatile int maxCalls = DEFAULT_MAX_CALLS;
+    /* 최대치 도달 시 처리 정책 */
+    private volatile CapacityPolicy capacityPolicy = CapacityPolicy.BUSY_HERE;
+    /* 503 응답의 Retry-After 값 (초) */
+    private volatile int retryAfter = DEFAULT_RETRY_AFTER;
+    /* 대기열 최대 대기 시간 (ms) */
+    private volatile long queueTimeout = DEFAULT_QUEUE_TIMEOUT;
+    /* 최대치 도달 시 대기하는 호 목록 (QUEUE 정책) */
+    private volatile ArrayBlockingQueue<PendingCall> pendingCalls = new ArrayBlockingQueue<>(DEFAULT_QUEUE_SIZE);
+    /* 새 호 수락 중지 여부 (정상 종료 중) */
+    private volatile boolean closed = false;
+    /* 대기 시간 확인 타이머 예약 여부 (대기열에 호가 있는 동안 하나만 예약) */
+    private final AtomicBoolean expiryScheduled = new AtomicBoolean(false);
+    /* 예약된 대기 시간 확인 타이머 (대기 시간 변경 시 다시 예약) */
+    private volatile HashedWheelTimer.Timeout expiryTimeout = null;
+
+    /**
+     * @fn private AdmissionController()
+     * @brief 수락 제어 관리 객체를 초기화하는 함수
+     */
+    private AdmissionController() {
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public static AdmissionController getInstance()
+     * @brief 수락 제어 관리 객체의 싱글턴 인스턴스를 반환하는 함수
+     * @return 수락 제어 관리 객체
+     */
+    public static AdmissionController getInstance() {
+        return admissionController;
+    }
+
+    /**
+     * @fn public void configure(int maxCalls, final CapacityPolicy capacityPolicy, int retryAfter, int queueSize, long queueTimeout)
+     * @brief 수락 제어 설정을 변경하는 함수 (호 처리 전에 호출)
+     * @param maxCalls       최대 동시 호 수(입력)
+     * @param capacityPolicy 최대치 도달 시 처리 정책(입력, 읽기 전용)
+     * @param retryAfter     503 응답의 Retry-After 값, 초(입력)
+     * @param queueSize      대기열 크기(입력)
+     * @param queueTimeout   대기열 최대 대기 시간, ms(입력)
+     * @return 반환값 없음
+     */
+    public void configure(int maxCalls, final CapacityPolicy capacityPolicy, int retryAfter, int queueSize, long queueTimeout) {
+        if (maxCalls <= 0 || retryAfter < 0 || queueSize <= 0 || queueTimeout <= 0) {
+            throw new IllegalArgumentException("Invalid admission configuration");
+        }
+        SipCall.checkObjectNull(null, capacityPolicy);
+
+        this.maxCalls = maxCalls;
+        this.capacityPolicy = capacityPolicy;
+        this.retryAfter = retryAfter;
+        this.queueTimeout = queueTimeout;
+        if (pendingCalls.remainingCapacity() + pendingCalls.size() != queueSize) {
+            this.pendingCalls = new ArrayBlockingQueue<>(queueSize);
+        }
+
+        // 대기 시간이 바뀌었을 수 있으므로 예약된 확인 타이머를 새 대기 시간으로 다시 예약한다.
+        HashedWheelTimer.Timeout timeout = expiryTimeout;
+        if (timeout != null && timeout.cancel()) expiryScheduled.set(false);
+        scheduleExpiry();
+
+        logger.debug("Admission (MaxCalls:{}, Policy:{}, RetryAfter:{}, QueueSize:{}, QueueTimeout:{})", maxCalls, capacityPolicy, retryAfter, queueSize, queueTimeout);
+    }
+
+    /**
+     * @fn public boolean tryAdmit(final String callId)
+     * @brief 지정한 호를 수락할 수 있으면 자리를 확보하는 함수
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @return 수락되었으면 true, 최대치에 도달했으면 false 반환
+     */
+    public boolean tryAdmit(final String callId) {
+        SipCall.checkObjectNull(null, callId);
+
+        if (admittedCalls.containsKey(callId)) return true;
+        if (closed || !acquireSlot()) return false;
+
+        if (admittedCalls.putIfAbsent(callId, Boolean.TRUE) != null) {
+            // 다른 쓰레드가 같은 호를 먼저 수락했으면 확보한 자리를 반납한다.
+            activeCalls.decrementAndGet();
+        }
+        return true;
+    }
+
+    /**
+     * @fn public boolean enqueue(final PendingCall pendingCall)
+     * @brief 최대치에 도달하여 수락하지 못한 호를 대기열에 추가하는 함수
+     * 추가 직후 빈 자리가 생겼을 수 있으므로 대기열을 한 번 처리한다.
+     * @param pendingCall 대기 호(입력, 읽기 전용)
+     * @return 추가되었으면 true, 대기열이 가득 찼으면 false 반환
+     */
+    public boolean enqueue(final PendingCall pendingCall) {
+        SipCall.checkObjectNull(null, pendingCall);
+
+        if (!pendingCalls.offer(pendingCall)) {
+            return false;
+        }
+
+        logger.debug("Call is queued (Call-ID:{}, QueueSize:{})", pendingCall.getCallId(), pendingCalls.size());
+        drainPendingCalls();
+        scheduleExpiry();
+        return true;
+    }
+
+    /**
+     * @fn public void release(final String callId)
+     * @brief 수락된 호의 자리를 반납하고 대기 중인 호를 처리하는 함수
+     * 수락되지 않은 호이거나 이미 반납한 호이면 아무 것도 하지 않는다.
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void release(final String callId) {
+        SipCall.checkObjectNull(null, callId);
+
+        if (admittedCalls.remove(callId) == null) return;
+        activeCalls.decrementAndGet();
+        drainPendingCalls();
+    }
+
+    /**
+     * @fn public void close()
+     * @brief 새 호 수락을 중지하고 대기열의 호를 모두 거절하는 함수 (정상 종료 시 사용)
+     * 이미 수락된 호는 그대로 유지된다.
+     * @return 반환값 없음
+     */
+    public void close() {
+        closed = true;
+
+        PendingCall pendingCall;
+        while ((pendingCall = pendingCalls.poll()) != null) {
+            logger.debug("Queued call is rejected by close (Call-ID:{})", pendingCall.getCallId());
+            pendingCall.onExpired();
+        }
+    }
+
+    /**
+     * @fn public void open()
+     * @brief 새 호 수락을 다시 시작하는 함수
+     * @return 반환값 없음
+     */
+    public void open() {
+        closed = false;
+    }
+
+    /**
+     * @fn public boolean isClosed()
+     * @brief 새 호 수락 중지 여부를 반환하는 함수
+     * @return 중지되었으면 true, 아니면 false 반환
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @fn public CapacityPolicy getCapacityPolicy()
+     * @brief 최대치 도달 시 처리 정책을 반환하는 함수
+     * @return 처리 정책
+     */
+    public CapacityPolicy getCapacityPolicy() {
+        return capacityPolicy;
+    }
+
+    /**
+     * @fn public int getRetryAfter()
+     * @brief 503 응답의 Retry-After 값을 반환하는 함수
+     * @return Retry-After 값 (초)
+     */
+    public int getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * @fn public int getMaxCalls()
+     * @brief 최대 동시 호 수를 반환하는 함수
+     * @return 최대 동시 호 수
+     */
+    public int getMaxCalls() {
+        return maxCalls;
+    }
+
+    /**
+     * @fn public int getActiveCalls()
+     * @brief 현재 수락된 호 개수를 반환하는 함수
+     * @return 수락된 호 개수
+     */
+    public int getActiveCalls() {
+        return activeCalls.get();
+    }
+
+    /**
+     * @fn public int getPendingCalls()
+     * @brief 대기열에 있는 호 개수를 반환하는 함수
+     * @return 대기 호 개수
+     */
+    public int getPendingCalls() {
+        return pendingCalls.size();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private boolean acquireSlot()
+     * @brief 최대치를 넘지 않도록 CAS 로 자리를 하나 확보하는 함수
+     * @return 확보되었으면 true, 아니면 false 반환
+     */
+    private boolean acquireSlot() {
+        while (true) {
+            int current = activeCalls.get();
+            if (current >= maxCalls) return false;
+            if (activeCalls.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    /**
+     * @fn private void drainPendingCalls()
+     * @brief 빈 자리가 있는 동안 대기열의 호를 꺼내서 처리하는 함수
+     * 대기 시간이 초과된 호는 자리를 확보하기 전에 거절하고, 이미 취소된 호는 자리를 반납한다.
+     * @return 반환값 없음
+     */
+    private void drainPendingCalls() {
+        while (!pendingCalls.isEmpty()) {
+            expirePendingCalls();
+            if (pendingCalls.isEmpty() || closed || !acquireSlot()) return;
+
+            PendingCall pendingCall = pendingCalls.poll();
+            if (pendingCall == null) {
+                activeCalls.decrementAndGet();
+                return;
+            }
+
+            String callId = pendingCall.getCallId();
+            if (isExpired(pendingCall)) {
+                // 확인과 꺼내기 사이에 대기 시간이 지난 경우
+                activeCalls.decrementAndGet();
+                expire(pendingCall);
+                continue;
+            }
+
+            if (admittedCalls.putIfAbsent(callId, Boolean.TRUE) != null) {
+                activeCalls.decrementAndGet();
+            }
+            boolean proceeded = false;
+            try {
+                proceeded = pendingCall.onAdmitted();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+
+            // 대기 중에 취소된 호이면 자리를 반납한다.
+            if (!proceeded && admittedCalls.remove(callId) != null) {
+                activeCalls.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @fn private void expirePendingCalls()
+     * @brief 대기열 앞쪽에서 대기 시간이 초과된 호를 빼서 거절하는 함수 (자리 확보와 관계없이 처리)
+     * 대기열은 추가된 순서이므로 앞의 호가 초과되지 않았으면 뒤의 호도 초과되지 않았다.
+     * @return 반환값 없음
+     */
+    private void expirePendingCalls() {
+        PendingCall pendingCall;
+        while ((pendingCall = pendingCalls.peek()) != null && isExpired(pendingCall)) {
+            // 다른 쓰레드가 먼저 꺼냈으면 거절하지 않는다.
+            if (pendingCalls.remove(pendingCall)) expire(pendingCall);
+        }
+    }
+
+    /**
+     * @fn private void scheduleExpiry()
+     * @brief 대기열 맨 앞 호의 대기 시간이 끝날 때 대기열을 확인하도록 공용 타이머에 예약하는 함수
+     * 이미 예약되어 있으면 예약하지 않고, 확인 후 대기열에 호가 남아 있으면 다시 예약한다.
+     * @return 반환값 없음
+     */
+    private void scheduleExpiry() {
+        if (pendingCalls.isEmpty() || !expiryScheduled.compareAndSet(false, true)) return;
+
+        PendingCall head = pendingCalls.peek();
+        long delay = head == null ? 0 : queueTimeout - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - head.getEnqueueTime());
+        try {
+            expiryTimeout = HashedWheelTimer.getInstance().newTimeout(new HashedWheelTimer.TimerTask() {
+                @Override
+                public void run(final HashedWheelTimer.Timeout timeout) {
+                    expiryScheduled.set(false);
+                    try {
+                        drainPendingCalls();
+                        expirePendingCalls();
+                    } finally {
+                        scheduleExpiry();
+                    }
+                }
+            }, Math.max(0, delay) + 1, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            expiryScheduled.set(false);
+            logger.warn("Fail to schedule queue timeout", e);
+        }
+    }
+
+    /**
+     * @fn private boolean isExpired(final PendingCall pendingCall)
+     * @brief 대기 호의 대기 시간이 초과되었는지 확인하는 함수
+     * @param pendingCall 대기 호(입력, 읽기 전용)
+     * @return 초과되었으면 true, 아니면 false 반환
+     */
+    private boolean isExpired(final PendingCall pendingCall) {
+        return System.nanoTime() - pendingCall.getEnqueueTime() > TimeUnit.MILLISECONDS.toNanos(queueTimeout);
+    }
+
+    /**
+     * @fn private void expire(final PendingCall pendingCall)
+     * @brief 대기 시간이 초과된 호를 거절하는 함수
+     * @param pendingCall 대기 호(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    private void expire(final PendingCall pendingCall) {
+        logger.debug("Queued call is expired (Call-ID:{}, Waited:{}ms)", pendingCall.getCallId(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pendingCall.getEnqueueTime()));
+        try {
+            pendingCall.onExpired();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Inner Class
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @class public abstract static class PendingCall
+     * @brief 최대치 도달로 대기열에 보관되는 호
+     */
+    public abstract static class PendingCall {
+        /* Call-ID */
+        private final String callId;
+        /* 대기열에 추가된 시각 (System.nanoTime) */
+        private final long enqueueTime;
+
+        /**
+         * @fn public PendingCall(final String callId)
+         * @brief 대기 호를 초기화하는 함수
+         * @param callId Call-ID(입력, 읽기 전용)
+         */
+        public PendingCall(final String callId) {
+            SipCall.checkObjectNull(null, callId);
+            this.callId = callId;
+            this.enqueueTime = System.nanoTime();
+        }
+
+        /**
+         * @fn public String getCallId()
+         * @brief Call-ID 를 반환하는 함수
+         * @return Call-ID
+         */
+        public String getCallId() {
+            return callId;
+        }
+
+        /**
+         * @fn public long getEnqueueTime()
+         * @brief 대기열에 추가된 시각을 반환하는 함수
+         * @return 대기열에 추가된 시각 (System.nanoTime)
+         */
+        public long getEnqueueTime() {
+            return enqueueTime;
+        }
+
+        /**
+         * @fn public abstract boolean onAdmitted()
+         * @brief 자리가 확보되었을 때 호출되는 함수
+         * @return 호 처리를 진행했으면 true, 이미 취소된 호이면 false 반환
+         */
+        public abstract boolean onAdmitted();
+
+        /**
+         * @fn public abstract void onExpired()
+         * @brief 대기 시간이 초과되었을 때 호출되는 함수
+         * @return 반환값 없음
+         */
+        public abstract void onExpired();
+    }
+}
@@ -0,0 +1,14 @@
+package com.signal.control;
+
+/**
+ * @enum public enum CapacityPolicy
+ * @brief 동시 호 수가 최대치에 도달했을 때 새로운 Invite 를 처리하는 정책
+ */
+public enum CapacityPolicy {
+    /* 486 Busy Here 로 거절 */
+    BUSY_HERE,
+    /* 503 Service Unavailable + Retry-After 로 거절 */
+    SERVICE_UNAVAILABLE,
+    /* 100 Trying 후 대기열에 보관, 빈 자리가 생기면 처리 (대기열이 가득 차거나 시간 초과 시 503) */
+    QUEUE
+}
@@ -0,0 +1,387 @@
+package com.signal.control;
+
+import com.signal.metrics.StripedCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.sip.header.ToHeader;
+import javax.sip.header.ViaHeader;
+import javax.sip.message.Request;
+import java.lang.management.ManagementFactory;
+import java.text.ParseException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @class public class OverloadController implements OverloadControllerMXBean
+ * @brief 새 요청(To Tag 가 없는 요청)을 서버 트랜잭션과 다이얼로그를 만들기 전에 토큰 버킷으로 제한하는 과부하 제어 클래스
+ *
+ * 송신 주소별 토큰 버킷(source-rate)을 먼저 확인하고, 전체 토큰 버킷(rate)을 확인한다. 토큰이 없으면 상태 없이 503 (Retry-After) 으로 거절한다.
+ * 전체 rate 는 부하에 따라 조정한다. 평가 주기(100ms)마다 작업 대기열 길이와 요청 처리 지연(수신 ~ 처리 완료) 이동 평균을 확인해서
+ * 기준을 넘으면 현재 rate 를 25% 줄이고 (최소 min-rate), 아니면 설정한 rate 의 5% 씩 되돌린다. (AIMD)
+ * 줄인 비율은 요청의 Via 에 oc 파라미터가 있으면 RFC 7339 (oc, oc-algo="loss", oc-validity, oc-seq) 로 응답에 알린다.
+ *
+ * 이미 설립된 호의 요청(BYE, ACK, UPDATE 등)과 CANCEL 은 호를 끝내거나 자원을 반납하므로 제한하지 않는다.
+ */
+public class OverloadController implements OverloadControllerMXBean {
+    /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
+    private static final Logger logger = LoggerFactory.getLogger(OverloadController.class);
+    /* JMX 객체 이름 */
+    public static final String OBJECT_NAME = "com.signal:type=OverloadControl";
+    /* 기본 전체 초당 새 요청 수, 최대 순간 요청 수 */
+    public static final double DEFAULT_RATE = 1000;
+    public static final int DEFAULT_BURST = 200;
+    /* 기본 송신 주소별 초당 새 요청 수, 최대 순간 요청 수 */
+    public static final double DEFAULT_SOURCE_RATE = 200;
+    public static final int DEFAULT_SOURCE_BURST = 50;
+    /* 기본 최소 전체 초당 새 요청 수 (과부하 중에도 유지) */
+    public static final double DEFAULT_MIN_RATE = 50;
+    /* 기본 최대 송신 주소 수 (넘으면 새 송신 주소는 전체 제한만 적용) */
+    public static final int DEFAULT_MAX_SOURCES = 10000;
+    /* 기본 과부하 기준 작업 대기열 길이, 요청 처리 지연 (ms) */
+    public static final int DEFAULT_QUEUE_THRESHOLD = 512;
+    public static final long DEFAULT_LATENCY_TARGET = 100;
+    /* 기본 Retry-After 값 (초) */
+    public static final int DEFAULT_RETRY_AFTER = 2;
+    /* 부하 평가 주기 (ns) */
+    private static final long EVALUATION_INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+    /* 사용되지 않은 송신 주소 버킷을 지우는 시간 (ns) */
+    private static final long SOURCE_IDLE_TIME = TimeUnit.SECONDS.toNanos(10);
+    /* 과부하 시 줄이는 비율, 정상 시 되돌리는 비율 (설정한 rate 기준) */
+    private static final double DECREASE_FACTOR = 0.75;
+    private static final double INCREASE_STEP = 0.05;
+    /* 처리 지연 이동 평균의 가중치 (1/8) */
+    private static final int LATENCY_EWMA_SHIFT = 3;
+    /* 과부하 제어 관리 객체(singleton) */
+    private static final OverloadController overloadController = new OverloadController();
+    /* 송신 주소별 토큰 버킷 */
+    private final ConcurrentHashMap<String, TokenBucket> sourceBuckets = new ConcurrentHashMap<>();
+    /* 수락/거절 수 */
+    private final StripedCounter admitted = new StripedCounter();
+    private final StripedCounter rejectedByRate = new StripedCounter();
+    private final StripedCounter rejectedBySource = new StripedCounter();
+    /* 요청 처리 지연 이동 평균 (ns) */
+    private final AtomicLong latencyEwma = new AtomicLong(0);
+    /* 평가 주기 동안의 최대 작업 대기열 길이 */
+    private final AtomicInteger maxQueueDepth = new AtomicInteger(0);
+    /* 마지막 평가 시각 (System.nanoTime), 평가하는 쓰레드 하나를 CAS 로 고름 */
+    private final AtomicLong lastEvaluationTime = new AtomicLong(System.nanoTime());
+    /* 과부하 제어 사용 여부 */
+    private volatile boolean enabled = false;
+    /* 설정 값 */
+    private volatile double rate = DEFAULT_RATE;
+    private volatile double sourceRate = DEFAULT_SOURCE_RATE;
+    private volatile int sourceBurst = DEFAULT_SOURCE_BURST;
+    private volatile double minRate = DEFAULT_MIN_RATE;
+    private volatile int maxSources = DEFAULT_MAX_SOURCES;
+    private volatile int queueThreshold = DEFAULT_QUEUE_THRESHOLD;
+    private volatile long latencyTarget = TimeUnit.MILLISECONDS.toNanos(DEFAULT_LATENCY_TARGET);
+    private volatile int retryAfter = DEFAULT_RETRY_AFTER;
+    /* 전체 토큰 버킷 */
+    private volatile TokenBucket globalBucket = new TokenBucket(DEFAULT_RATE, DEFAULT_BURST, System.nanoTime());
+    /* 부하에 따라 조정된 현재 전체 rate */
+    private volatile double currentRate = DEFAULT_RATE;
+    /* 과부하 상태, 마지막 평가의 작업 대기열 길이 */
+    private volatile boolean overloaded = false;
+    private volatile int queueDepth = 0;
+    /* RFC 7339 oc-seq (평가할 때마다 증가) */
+    private volatile long feedbackSequence = 0;
+    /* 송신 주소 버킷을 마지막으로 정리한 시각 (System.nanoTime, 평가하는 쓰레드 전용) */
+    private long lastSweepTime = System.nanoTime();
+
+    /**
+     * @fn private OverloadController()
+     * @brief 과부하 제어 관리 객체를 초기화하는 함수
+     */
+    private OverloadController() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(this, objectName);
+            }
+        } catch (Exception e) {
+            logger.warn("Fail to register overload control MBean", e);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public static OverloadController getInstance()
+     * @brief 과부하 제어 관리 객체의 싱글턴 인스턴스를 반환하는 함수
+     * @return 과부하 제어 관리 객체
+     */
+    public static OverloadController getInstance() {
+        return overloadController;
+    }
+
+    /**
+     * @fn public synchronized void configure(boolean enabled, double rate, int burst, double sourceRate, int sourceBurst, double minRate, int maxSources, int queueThreshold, long latencyTarget, int retryAfter)
+     * @brief 과부하 제어 설정을 변경하는 함수 (호 처리 전에 호출, 송신 주소별 버킷은 새로 만듦)
+     * @param enabled        과부하 제어 사용 여부(입력)
+     * @param rate           전체 초당 새 요청 수(입력)
+     * @param burst          전체 최대 순간 요청 수(입력)
+     * @param sourceRate     송신 주소별 초당 새 요청 수(입력, 0 이면 제한 없음)
+     * @param sourceBurst    송신 주소별 최대 순간 요청 수(입력)
+     * @param minRate        과부하 중에도 유지하는 최소 전체 초당 새 요청 수(입력)
+     * @param maxSources     최대 송신 주소 수(입력)
+     * @param queueThreshold 과부하 기준 작업 대기열 길이(입력)
+     * @param latencyTarget  과부하 기준 요청 처리 지연, ms(입력)
+     * @param retryAfter     503 응답의 Retry-After 값, 초(입력)
+     * @return 반환값 없음
+     */
+    public synchronized void configure(boolean enabled, double rate, int burst, double sourceRate, int sourceBurst, double minRate,
+                                       int maxSources, int queueThreshold, long latencyTarget, int retryAfter) {
+        if (rate <= 0 || burst < 1 || sourceRate < 0 || sourceBurst < 1 || minRate <= 0 || minRate > rate
+                || maxSources < 0 || queueThreshold <= 0 || latencyTarget <= 0 || retryAfter < 0) {
+            throw new IllegalArgumentException("Invalid overload control configuration");
+        }
+
+        this.rate = rate;
+        this.sourceRate = sourceRate;
+        this.sourceBurst = sourceBurst;
+        this.minRate = minRate;
+        this.maxSources = maxSources;
+        this.queueThreshold = queueThreshold;
+        this.latencyTarget = TimeUnit.MILLISECONDS.toNanos(latencyTarget);
+        this.retryAfter = retryAfter;
+        this.globalBucket = new TokenBucket(rate, burst, System.nanoTime());
+        this.currentRate = rate;
+        this.overloaded = false;
+        sourceBuckets.clear();
+        this.enabled = enabled;
+
+        logger.debug("Overload control (Enabled:{}, Rate:{}, Burst:{}, SourceRate:{}, SourceBurst:{}, MinRate:{}, MaxSources:{}, QueueThreshold:{}, LatencyTarget:{}, RetryAfter:{})",
+                enabled, rate, burst, sourceRate, sourceBurst, minRate, maxSources, queueThreshold, latencyTarget, retryAfter);
+    }
+
+    /**
+     * @fn public static boolean isInitialRequest(final Request request)
+     * @brief 과부하 제어 대상인 새 요청인지 확인하는 함수 (To Tag 가 없고 ACK/CANCEL 이 아닌 요청)
+     * @param request 요청(입력, 읽기 전용)
+     * @return 새 요청이면 true, 아니면 false 반환
+     */
+    public static boolean isInitialRequest(final Request request) {
+        String method = request.getMethod();
+        if (Request.ACK.equals(method) || Request.CANCEL.equals(method)) return false;
+
+        ToHeader toHeader = (ToHeader) request.getHeader(ToHeader.NAME);
+        return toHeader != null && toHeader.getTag() == null;
+    }
+
+    /**
+     * @fn public boolean tryAdmit(final String source, int pendingTasks)
+     * @brief 새 요청을 수락할지 송신 주소별, 전체 토큰 버킷으로 결정하는 함수 (SIP Stack 쓰레드에서 호출)
+     * @param source       송신 주소(입력, 읽기 전용, null 이면 전체 제한만 적용)
+     * @param pendingTasks 요청을 처리할 작업 대기열 길이(입력)
+     * @return 수락하면 true, 거절하면 false 반환
+     */
+    public boolean tryAdmit(final String source, int pendingTasks) {
+        if (!enabled) return true;
+
+        long now = System.nanoTime();
+        observeQueueDepth(pendingTasks);
+        evaluateIfDue(now);
+
+        TokenBucket sourceBucket = getSourceBucket(source, now);
+        if (sourceBucket != null && !sourceBucket.tryAcquire(now)) {
+            rejectedBySource.increment();
+            return false;
+        }
+        if (!globalBucket.tryAcquire(now)) {
+            rejectedByRate.increment();
+            return false;
+        }
+
+        admitted.increment();
+        return true;
+    }
+
+    /**
+     * @fn public void onRequestHandled(long startTime)
+     * @brief 요청 처리 지연(수신 ~ 처리 완료)을 이동 평균에 더하는 함수 (작업 대기열에서 기다린 시간 포함)
+     * @param startTime 요청 수신 시각, System.nanoTime()(입력)
+     * @return 반환값 없음
+     */
+    public void onRequestHandled(long startTime) {
+        if (!enabled) return;
+
+        long latency = System.nanoTime() - startTime;
+        while (true) {
+            long current = latencyEwma.get();
+            long next = current + ((latency - current) >> LATENCY_EWMA_SHIFT);
+            if (latencyEwma.compareAndSet(current, next)) return;
+        }
+    }
+
+    /**
+     * @fn public void addFeedback(final ViaHeader viaHeader)
+     * @brief 요청의 Via 에 oc 파라미터가 있으면 응답의 Via 에 RFC 7339 과부하 정보를 넣는 함수
+     * @param viaHeader 응답의 첫 번째 Via 헤더(입력, 출력)
+     * @return 반환값 없음
+     */
+    public void addFeedback(final ViaHeader viaHeader) {
+        if (viaHeader == null || viaHeader.getParameter("oc") == null) return;
+
+        try {
+            int reduction = getReduction();
+            viaHeader.setParameter("oc", String.valueOf(reduction));
+            viaHeader.setParameter("oc-algo", "\"loss\"");
+            viaHeader.setParameter("oc-validity", String.valueOf(reduction > 0 ? TimeUnit.SECONDS.toMillis(Math.max(retryAfter, 1)) : 0));
+            viaHeader.setParameter("oc-seq", String.valueOf(feedbackSequence));
+        } catch (ParseException e) {
+            logger.warn("Fail to add overload control feedback", e);
+        }
+    }
+
+    public int getRetryAfter() {
+        return retryAfter;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Override Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public double getRate() {
+        return rate;
+    }
+
+    @Override
+    public double getCurrentRate() {
+        return currentRate;
+    }
+
+    @Override
+    public double getSourceRate() {
+        return sourceRate;
+    }
+
+    @Override
+    public boolean isOverloaded() {
+        return overloaded;
+    }
+
+    @Override
+    public int getReduction() {
+        return (int) Math.round(100 * (1 - currentRate / rate));
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    @Override
+    public long getLatencyMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(latencyEwma.get());
+    }
+
+    @Override
+    public int getTrackedSources() {
+        return sourceBuckets.size();
+    }
+
+    @Override
+    public long getAdmitted() {
+        return admitted.sum();
+    }
+
+    @Override
+    public long getRejectedByRate() {
+        return rejectedByRate.sum();
+    }
+
+    @Override
+    public long getRejectedBySource() {
+        return rejectedBySource.sum();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private TokenBucket getSourceBucket(final String source, long now)
+     * @brief 송신 주소의 토큰 버킷을 반환하는 함수 (없으면 만들고, 최대 송신 주소 수를 넘으면 만들지 않음)
+     * @param source 송신 주소(입력, 읽기 전용)
+     * @param now    현재 시각, System.nanoTime()(입력)
+     * @return 토큰 버킷, 제한하지 않으면 null 반환
+     */
+    private TokenBucket getSourceBucket(final String source, long now) {
+        if (source == null || sourceRate <= 0) return null;
+
+        TokenBucket sourceBucket = sourceBuckets.get(source);
+        if (sourceBucket != null || sourceBuckets.size() >= maxSources) return sourceBucket;
+
+        TokenBucket newBucket = new TokenBucket(sourceRate, sourceBurst, now);
+        sourceBucket = sourceBuckets.putIfAbsent(source, newBucket);
+        return sourceBucket == null ? newBucket : sourceBucket;
+    }
+
+    private void observeQueueDepth(int pendingTasks) {
+        while (true) {
+            int current = maxQueueDepth.get();
+            if (pendingTasks <= current || maxQueueDepth.compareAndSet(current, pendingTasks)) return;
+        }
+    }
+
+    /**
+     * @fn private void evaluateIfDue(long now)
+     * @brief 평가 주기가 지났으면 한 쓰레드만 부하를 평가해서 전체 rate 를 조정하는 함수 (AIMD)
+     * @param now 현재 시각, System.nanoTime()(입력)
+     * @return 반환값 없음
+     */
+    private void evaluateIfDue(long now) {
+        long last = lastEvaluationTime.get();
+        if (now - last < EVALUATION_INTERVAL || !lastEvaluationTime.compareAndSet(last, now)) return;
+
+        int depth = maxQueueDepth.getAndSet(0);
+        long latency = latencyEwma.get();
+        boolean isOverloaded = depth > queueThreshold || latency > latencyTarget;
+
+        double nextRate = isOverloaded ? Math.max(minRate, currentRate * DECREASE_FACTOR) : Math.min(rate, currentRate + rate * INCREASE_STEP);
+        if (nextRate != currentRate) {
+            globalBucket.setRate(nextRate, now);
+            currentRate = nextRate;
+        }
+        if (isOverloaded != overloaded) {
+            logger.warn("Overload is {} (QueueDepth:{}, Latency:{}us, Rate:{})", isOverloaded ? "detected" : "cleared",
+                    depth, TimeUnit.NANOSECONDS.toMicros(latency), Math.round(nextRate));
+        }
+        overloaded = isOverloaded;
+        queueDepth = depth;
+        feedbackSequence++;
+
+        if (now - lastSweepTime >= SOURCE_IDLE_TIME) {
+            lastSweepTime = now;
+            sweepSources(now);
+        }
+    }
+
+    private void sweepSources(long now) {
+        Iterator<Map.Entry<String, TokenBucket>> iterator = sourceBuckets.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getValue().isIdle(now, SOURCE_IDLE_TIME)) iterator.remove();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.signal.control;
+
+/**
+ * @interface public interface OverloadControllerMXBean
+ * @brief JMX 로 노출하는 과부하 제어 설정 및 상태
+ */
+public interface OverloadControllerMXBean {
+    /* 과부하 제어 사용 여부 */
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    /* 설정한 전체 초당 새 요청 수 */
+    double getRate();
+
+    /* 부하에 따라 조정된 현재 전체 초당 새 요청 수 */
+    double getCurrentRate();
+
+    /* 송신 주소별 초당 새 요청 수 (0 이면 제한 없음) */
+    double getSourceRate();
+
+    /* 현재 과부하 상태인지 여부 (대기열 또는 처리 지연이 기준을 넘음) */
+    boolean isOverloaded();
+
+    /* RFC 7339 로 알리는 요청 감소율 (%) */
+    int getReduction();
+
+    /* 마지막 평가 주기의 최대 작업 대기열 길이 */
+    int getQueueDepth();
+
+    /* 요청 처리 지연 이동 평균 (us) */
+    long getLatencyMicros();
+
+    /* 토큰 버킷을 가진 송신 주소 수 */
+    int getTrackedSources();
+
+    /* 수락한 새 요청 수 */
+    long getAdmitted();
+
+    /* 전체 제한으로 거절한 요청 수 */
+    long getRejectedByRate();
+
+    /* 송신 주소별 제한으로 거절한 요청 수 */
+    long getRejectedBySource();
+}
@@ -0,0 +1,98 @@
+package com.signal.control;
+
+/**
+ * @class public class TokenBucket
+ * @brief 초당 rate 개씩 채워지고 최대 burst 개까지 쌓이는 토큰 버킷
+ * 토큰은 확인할 때 지난 시간만큼 한 번에 채우므로 따로 채우는 쓰레드가 없다.
+ * 잠금 구간은 몇 번의 산술 연산뿐이므로 synchronized 로 보호한다.
+ */
+public class TokenBucket {
+    /* 1 초 (ns) */
+    private static final double NANOS_PER_SECOND = 1e9;
+    /* 최대 토큰 수 */
+    private final double burst;
+    /* 초당 채우는 토큰 수 */
+    private double rate;
+    /* 현재 토큰 수 */
+    private double tokens;
+    /* 마지막으로 채운 시각 (System.nanoTime) */
+    private long lastRefillTime;
+
+    /**
+     * @fn public TokenBucket(double rate, double burst, long now)
+     * @brief 가득 찬 토큰 버킷을 초기화하는 함수
+     * @param rate  초당 채우는 토큰 수(입력)
+     * @param burst 최대 토큰 수(입력)
+     * @param now   현재 시각, System.nanoTime()(입력)
+     */
+    public TokenBucket(double rate, double burst, long now) {
+        if (rate <= 0 || burst < 1) throw new IllegalArgumentException("Invalid token bucket (rate:" + rate + ", burst:" + burst + ")");
+
+        this.rate = rate;
+        this.burst = burst;
+        this.tokens = burst;
+        this.lastRefillTime = now;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public synchronized boolean tryAcquire(long now)
+     * @brief 토큰 하나를 가져가는 함수
+     * @param now 현재 시각, System.nanoTime()(입력)
+     * @return 토큰이 있으면 true, 없으면 false 반환
+     */
+    public synchronized boolean tryAcquire(long now) {
+        refill(now);
+        if (tokens < 1) return false;
+
+        tokens -= 1;
+        return true;
+    }
+
+    /**
+     * @fn public synchronized void setRate(double rate, long now)
+     * @brief 초당 채우는 토큰 수를 바꾸는 함수 (지금까지 쌓인 토큰은 이전 값으로 채움)
+     * @param rate 초당 채우는 토큰 수(입력)
+     * @param now  현재 시각, System.nanoTime()(입력)
+     * @return 반환값 없음
+     */
+    public synchronized void setRate(double rate, long now) {
+        if (rate <= 0) throw new IllegalArgumentException("Invalid token bucket rate : " + rate);
+
+        refill(now);
+        this.rate = rate;
+    }
+
+    /**
+     * @fn public synchronized boolean isIdle(long now, long idleTime)
+     * @brief idleTime 동안 사용되지 않아서 가득 찬 버킷인지 확인하는 함수 (지워도 동작이 같은 버킷)
+     * @param now      현재 시각, System.nanoTime()(입력)
+     * @param idleTime 사용되지 않은 시간, ns(입력)
+     * @return 지워도 되면 true, 아니면 false 반환
+     */
+    public synchronized boolean isIdle(long now, long idleTime) {
+        if (now - lastRefillTime < idleTime) return false;
+
+        refill(now);
+        return tokens >= burst;
+    }
+
+    public synchronized double getRate() {
+        return rate;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    private void refill(long now) {
+        long elapsed = now - lastRefillTime;
+        if (elapsed <= 0) return;
+
+        tokens = Math.min(burst, tokens + elapsed * rate / NANOS_PER_SECOND);
+        lastRefillTime = now;
+    }
+}
@@ -0,0 +1,175 @@
+package com.signal.handler;
+
+import com.signal.metrics.LatencyHistogram;
+import com.signal.metrics.SignalMetrics;
+import com.signal.metrics.StripedCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @class public class Bulkhead
+ * @brief 요청 처리기에 작업 쓰레드와 대기열을 따로 두는 격리 단위
+ * Bulkhead 마다 작업 쓰레드와 대기열이 따로 있으므로, MESSAGE 나 OPTIONS 가 몰려도 INVITE/BYE 처리는 밀리지 않는다.
+ * 작업 쓰레드는 하나씩 대기열을 가지며 Call-ID 해시로 고르므로, 같은 Bulkhead 안에서 같은 호의 요청은 받은 순서대로 처리된다.
+ * 대기열이 가득 차면 기다리지 않고 실패를 반환한다.
+ *
+ * 대기 시간 통계 : com.signal:type=Latency,name=handler.queue.<이름> (대기열에 넣은 시각 ~ 처리 시작 시각)
+ */
+public class Bulkhead {
+    /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
+    private static final Logger logger = LoggerFactory.getLogger(Bulkhead.class);
+    /* 대기 시간 통계 이름 접두사 */
+    public static final String QUEUE_LATENCY_PREFIX = "handler.queue.";
+    /* Bulkhead 설정 */
+    private final BulkheadConfig bulkheadConfig;
+    /* 작업 쓰레드 (작업 쓰레드 수가 0 이면 빈 배열) */
+    private final ThreadPoolExecutor[] executors;
+    /* 대기열이 가득 차서 거절한 작업 수 */
+    private final StripedCounter rejected = new StripedCounter();
+    /* 대기 시간 히스토그램 */
+    private final LatencyHistogram queueLatency;
+
+    /**
+     * @fn public Bulkhead(final BulkheadConfig bulkheadConfig)
+     * @brief 설정한 수만큼 작업 쓰레드를 생성하는 함수
+     * @param bulkheadConfig Bulkhead 설정(입력, 읽기 전용)
+     */
+    public Bulkhead(final BulkheadConfig bulkheadConfig) {
+        if (bulkheadConfig == null) throw new NullPointerException("Parameter Error (Null)");
+
+        this.bulkheadConfig = bulkheadConfig;
+        this.executors = new ThreadPoolExecutor[bulkheadConfig.getThreads()];
+        for (int i = 0; i < executors.length; i++) {
+            executors[i] = newWorker(bulkheadConfig.getName() + "-" + i, bulkheadConfig.getQueueSize());
+        }
+        this.queueLatency = SignalMetrics.getInstance().latency(QUEUE_LATENCY_PREFIX + bulkheadConfig.getName());
+        logger.debug("Bulkhead ({})", bulkheadConfig);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public boolean hasWorkers()
+     * @brief 작업 쓰레드가 있는지 확인하는 함수
+     * @return 작업 쓰레드가 있으면 true, 없으면(전송별 작업 쓰레드에서 처리) false 반환
+     */
+    public boolean hasWorkers() {
+        return executors.length > 0;
+    }
+
+    /**
+     * @fn public boolean dispatch(final String callId, final Runnable task)
+     * @brief 작업을 Call-ID 로 고른 작업 쓰레드 대기열에 넣는 함수
+     * 작업 쓰레드가 없으면 호출한 쓰레드에서 바로 처리한다.
+     * @param callId 작업 쓰레드를 고를 Call-ID(입력, 읽기 전용, null 이면 첫 번째 쓰레드)
+     * @param task   작업(입력, 읽기 전용)
+     * @return 처리했거나 대기열에 넣었으면 true, 대기열이 가득 차면 false 반환
+     */
+    public boolean dispatch(final String callId, final Runnable task) {
+        if (executors.length == 0) {
+            task.run();
+            return true;
+        }
+
+        final long enqueueTime = System.nanoTime();
+        int index = callId == null ? 0 : (callId.hashCode() & Integer.MAX_VALUE) % executors.length;
+        try {
+            executors[index].execute(new Runnable() {
+                @Override
+                public void run() {
+                    queueLatency.record(System.nanoTime() - enqueueTime);
+                    task.run();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return false;
+        }
+    }
+
+    /**
+     * @fn public String getName()
+     * @brief Bulkhead 이름을 반환하는 함수
+     * @return Bulkhead 이름
+     */
+    public String getName() {
+        return bulkheadConfig.getName();
+    }
+
+    /**
+     * @fn public BulkheadConfig getConfig()
+     * @brief Bulkhead 설정을 반환하는 함수
+     * @return Bulkhead 설정
+     */
+    public BulkheadConfig getConfig() {
+        return bulkheadConfig;
+    }
+
+    /**
+     * @fn public int getPendingTasks()
+     * @brief 대기 중인 작업 수를 반환하는 함수
+     * @return 대기 중인 작업 수
+     */
+    public int getPendingTasks() {
+        int count = 0;
+        for (ThreadPoolExecutor executor : executors) {
+            count += executor.getQueue().size();
+        }
+        return count;
+    }
+
+    /**
+     * @fn public long getRejected()
+     * @brief 대기열이 가득 차서 거절한 작업 수를 반환하는 함수
+     * @return 거절한 작업 수
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * @fn public void shutdown()
+     * @brief 모든 작업 쓰레드를 종료하는 함수 (대기 중인 작업은 처리 후 종료)
+     * @return 반환값 없음
+     */
+    public void shutdown() {
+        for (ThreadPoolExecutor executor : executors) {
+            executor.shutdown();
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private static ThreadPoolExecutor newWorker(final String name, int queueSize)
+     * @brief 대기열 크기가 제한된 단일 작업 쓰레드를 생성하는 함수
+     * @param name      쓰레드 이름(입력, 읽기 전용)
+     * @param queueSize 대기열 크기(입력)
+     * @return 작업 쓰레드
+     */
+    private static ThreadPoolExecutor newWorker(final String name, int queueSize) {
+        return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(queueSize),
+                new ThreadFactory() {
+                    private final AtomicInteger index = new AtomicInteger(0);
+
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        Thread thread = new Thread(runnable, "SipHandler-" + name + (index.getAndIncrement() == 0 ? "" : "-" + index.get()));
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,94 @@
+package com.signal.handler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @class public class BulkheadConfig
+ * @brief 요청 처리기 격리 단위(Bulkhead) 하나의 이름, 담당 Method, 작업 쓰레드 설정
+ * 작업 쓰레드 수가 0 이면 담당 Method 를 전송별 작업 쓰레드(또는 SIP Stack 쓰레드)에서 처리한다.
+ */
+public class BulkheadConfig {
+    /* 기본 작업 대기열 크기 (작업 쓰레드 하나당) */
+    public static final int DEFAULT_QUEUE_SIZE = 1024;
+    /* Bulkhead 이름 (JMX, 쓰레드 이름) */
+    private final String name;
+    /* 담당 요청 Method 목록 (대문자) */
+    private final List<String> methods;
+    /* 작업 쓰레드 수 (0 이면 전송별 작업 쓰레드에서 처리) */
+    private final int threads;
+    /* 작업 쓰레드 하나당 대기열 크기 */
+    private final int queueSize;
+
+    /**
+     * @fn public BulkheadConfig(final String name, final List<String> methods, int threads, int queueSize)
+     * @brief Bulkhead 설정을 초기화하는 함수
+     * @param name      Bulkhead 이름(입력, 읽기 전용)
+     * @param methods   담당 요청 Method 목록(입력, 읽기 전용)
+     * @param threads   작업 쓰레드 수(입력)
+     * @param queueSize 작업 쓰레드 하나당 대기열 크기(입력)
+     */
+    public BulkheadConfig(final String name, final List<String> methods, int threads, int queueSize) {
+        if (name == null || methods == null) throw new NullPointerException("Parameter Error (Null)");
+        if (name.isEmpty() || methods.isEmpty() || threads < 0 || queueSize <= 0) {
+            throw new IllegalArgumentException("Invalid bulkhead configuration");
+        }
+
+        List<String> upperCaseMethods = new ArrayList<>(methods.size());
+        for (String method : methods) {
+            upperCaseMethods.add(method.toUpperCase());
+        }
+
+        this.name = name;
+        this.methods = Collections.unmodifiableList(upperCaseMethods);
+        this.threads = threads;
+        this.queueSize = queueSize;
+    }
+
+    /**
+     * @fn public String getName()
+     * @brief Bulkhead 이름을 반환하는 함수
+     * @return Bulkhead 이름
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @fn public List<String> getMethods()
+     * @brief 담당 요청 Method 목록을 반환하는 함수
+     * @return 요청 Method 목록 (대문자, 변경 불가)
+     */
+    public List<String> getMethods() {
+        return methods;
+    }
+
+    /**
+     * @fn public int getThreads()
+     * @brief 작업 쓰레드 수를 반환하는 함수
+     * @return 작업 쓰레드 수
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @fn public int getQueueSize()
+     * @brief 작업 쓰레드 하나당 대기열 크기를 반환하는 함수
+     * @return 대기열 크기
+     */
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkheadConfig{" +
+                "name=" + name +
+                ", methods=" + methods +
+                ", threads=" + threads +
+                ", queueSize=" + queueSize +
+                '}';
+    }
+}
@@ -0,0 +1,120 @@
+package com.signal.handler;
+
+import com.signal.cdr.CdrRecorder;
+import com.signal.logic.ResponseManager;
+import com.signal.logic.SipCall;
+import com.signal.registry.CallRegistry;
+import com.signal.session.SessionTimer;
+
+import javax.sip.Dialog;
+import javax.sip.RequestEvent;
+import javax.sip.ServerTransaction;
+import javax.sip.message.Request;
+import javax.sip.message.Response;
+
+/**
+ * @class public class DefaultRequestHandlers
+ * @brief RequestHandlerRegistry 에 처음 등록되는 기본 요청 처리기 모음
+ * INVITE, ACK, BYE, CANCEL, UPDATE 는 기존 processRequest 의 처리를 그대로 옮겼다.
+ * MESSAGE 는 다이얼로그가 없으면 재전송되지 않도록 480 으로 응답하고, OPTIONS 는 200 OK (Allow, Accept),
+ * INFO 는 다이얼로그가 있으면 200 OK, 없으면 481 로 응답한다.
+ */
+public class DefaultRequestHandlers {
+    /* Invite : 100 Trying 후 수락 제어를 거쳐 비동기로 응답 */
+    public static final RequestHandler INVITE = new RequestHandler() {
+        @Override
+        public void handle(final RequestEvent requestEvent, final ServerTransaction serverTransaction, final SipCall sipCall) {
+            ResponseManager.getInstance().respondToInvite(requestEvent, serverTransaction, sipCall.messageFactory, sipCall.addressFactory,
+                    sipCall.headerFactory, sipCall.getPort(), sipCall);
+        }
+    };
+
+    /* ACK : 200 OK 에 대한 ACK 를 받으면 Invite 수신 시 협상한 세션 시작 */
+    public static final RequestHandler ACK = new RequestHandler() {
+        @Override
+        public void handle(final RequestEvent requestEvent, final ServerTransaction serverTransaction, final SipCall sipCall) {
+            Dialog dialog = requestEvent.getDialog();
+            if (dialog != null && dialog.getCallId() != null) {
+                sipCall.getSessionTimer().start(CallRegistry.toKey(dialog.getCallId()), dialog, SessionTimer.getSession(dialog));
+                CdrRecorder.getInstance().onAck(dialog);
+            }
+        }
+    };
+
+    /* Bye : 200 OK 로 응답하고 호 정리 */
+    public static final RequestHandler BYE = new RequestHandler() {
+        @Override
+        public void handle(final RequestEvent requestEvent, final ServerTransaction serverTransaction, final SipCall sipCall) {
+            ResponseManager.getInstance().respondToBye(requestEvent.getRequest(), serverTransaction, sipCall.messageFactory, sipCall);
+        }
+    };
+
+    /* Cancel : 취소하는 Invite 에 487, Cancel 에 200 OK (없으면 481) */
+    public static final RequestHandler CANCEL = new RequestHandler() {
+        @Override
+        public void handle(final RequestEvent requestEvent, final ServerTransaction serverTransaction, final SipCall sipCall) {
+            ResponseManager.getInstance().respondToCancel(requestEvent.getRequest(), serverTransaction, sipCall.messageFactory, sipCall);
+        }
+    };
+
+    /* Update : 세션 갱신 */
+    public static final RequestHandler UPDATE = new RequestHandler() {
+        @Override
+        public void handle(final RequestEvent requestEvent, final ServerTransaction serverTransaction, final SipCall sipCall) {
+            ResponseManager.getInstance().respondToUpdate(requestEvent.getRequest(), serverTransaction, sipCall.messageFactory, sipCall.headerFactory, sipCall);
+        }
+    };
+
+    /* Message : 현재 다이얼로그가 생성되어 있으면 202 Accepted, 없으면 480 Temporarily Unavailable */
+    public static final RequestHandler MESSAGE = new RequestHandler() {
+        @Override
+        public void handle(final RequestEvent requestEvent, final ServerTransaction serverTransaction, final SipCall sipCall) {
+            if (sipCall.getCallRegistry().getDialogCount() > 0) {
+                ResponseManager.getInstance().respondWith2xxToNonInviteReq(requestEvent.getRequest(), serverTransaction, sipCall.messageFactory, Response.ACCEPTED);
+            } else {
+                ResponseManager.getInstance().respondWith4xx(serverTransaction, sipCall.messageFactory, Response.TEMPORARILY_UNAVAILABLE);
+            }
+        }
+    };
+
+    /* Options : 등록된 처리기의 Method 를 Allow 로 알리는 200 OK */
+    public static final RequestHandler OPTIONS = new RequestHandler() {
+        @Override
+        public void handle(final RequestEvent requestEvent, final ServerTransaction serverTransaction, final SipCall sipCall) {
+            ResponseManager.getInstance().respondToOptions(requestEvent.getRequest(), serverTransaction, sipCall.messageFactory, sipCall.headerFactory,
+                    RequestHandlerRegistry.getInstance().getAllowedMethods());
+        }
+    };
+
+    /* Info : 다이얼로그 안의 요청이면 200 OK, 아니면 481 Call/Transaction Does Not Exist */
+    public static final RequestHandler INFO = new RequestHandler() {
+        @Override
+        public void handle(final RequestEvent requestEvent, final ServerTransaction serverTransaction, final SipCall sipCall) {
+            if (requestEvent.getDialog() != null) {
+                ResponseManager.getInstance().respondWith2xxToNonInviteReq(requestEvent.getRequest(), serverTransaction, sipCall.messageFactory, Response.OK);
+            } else {
+                ResponseManager.getInstance().respondWith4xx(serverTransaction, sipCall.messageFactory, Response.CALL_OR_TRANSACTION_DOES_NOT_EXIST);
+            }
+        }
+    };
+
+    private DefaultRequestHandlers() {
+    }
+
+    /**
+     * @fn public static void registerTo(final RequestHandlerRegistry registry)
+     * @brief 기본 처리기를 모두 등록하는 함수
+     * @param registry 요청 처리기 관리 객체(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public static void registerTo(final RequestHandlerRegistry registry) {
+        registry.register(Request.INVITE, INVITE);
+        registry.register(Request.ACK, ACK);
+        registry.register(Request.BYE, BYE);
+        registry.register(Request.CANCEL, CANCEL);
+        registry.register(Request.UPDATE, UPDATE);
+        registry.register(Request.MESSAGE, MESSAGE);
+        registry.register(Request.OPTIONS, OPTIONS);
+        registry.register(Request.INFO, INFO);
+    }
+}
@@ -0,0 +1,12 @@
+package com.signal.handler;
+
+/**
+ * @enum public enum ExecutionMode
+ * @brief 수신 요청/응답 처리기를 실행하는 쓰레드 종류
+ */
+public enum ExecutionMode {
+    /* Bulkhead 또는 전송별 작업 쓰레드 (작업 쓰레드가 없으면 SIP Stack 쓰레드) */
+    PLATFORM,
+    /* Call-ID 별로 순서를 지키는 가상 쓰레드 (JDK 21 이상, 아니면 PLATFORM 으로 동작) */
+    VIRTUAL
+}
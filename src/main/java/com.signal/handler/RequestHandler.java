@@ -0,0 +1,23 @@
+package com.signal.handler;
+
+import com.signal.logic.SipCall;
+
+import javax.sip.RequestEvent;
+import javax.sip.ServerTransaction;
+
+/**
+ * @interface public interface RequestHandler
+ * @brief 수신된 요청 하나를 처리하는 Method 별 처리기 (RequestHandlerRegistry 에 등록)
+ * 같은 처리기가 여러 SIP Stack(샤드)과 작업 쓰레드에서 동시에 호출되므로 상태를 갖지 않아야 한다.
+ */
+public interface RequestHandler {
+    /**
+     * @fn void handle(final RequestEvent requestEvent, final ServerTransaction serverTransaction, final SipCall sipCall)
+     * @brief 요청을 처리하는 함수 (Bulkhead 작업 쓰레드, 전송별 작업 쓰레드 또는 SIP Stack 쓰레드에서 호출)
+     * @param requestEvent      요청 이벤트(입력, 읽기 전용)
+     * @param serverTransaction 서버 트랜잭션(입력, 읽기 전용)
+     * @param sipCall           요청을 받은 SIP 호 관리 객체(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    void handle(final RequestEvent requestEvent, final ServerTransaction serverTransaction, final SipCall sipCall);
+}
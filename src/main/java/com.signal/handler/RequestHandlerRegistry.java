@@ -0,0 +1,318 @@
+package com.signal.handler;
+
+import com.signal.metrics.StripedCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.sip.message.Request;
+import javax.sip.message.Response;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @class public class RequestHandlerRegistry implements RequestHandlerRegistryMXBean
+ * @brief 요청 Method 별 처리기와 처리기를 실행할 Bulkhead 를 관리하는 클래스
+ * SipCall.processRequest 는 Method 로 처리기를 찾아서, Bulkhead 에 작업 쓰레드가 있으면 Bulkhead 로, 없으면 전송별 작업 쓰레드로 넘긴다.
+ * 처리기가 없는 Method 는 서버 트랜잭션을 만들지 않고 405 Method Not Allowed (알려진 Method, Allow 포함) 또는 501 Not Implemented 로 바로 응답한다.
+ * 기본 처리기(DefaultRequestHandlers)는 생성 시 등록되며, register() 로 바꾸거나 Method 를 추가할 수 있다.
+ * 실행 방식이 VIRTUAL 이면 Bulkhead 대신 VirtualThreadDispatcher 가 Call-ID 별 가상 쓰레드에서 처리한다.
+ */
+public class RequestHandlerRegistry implements RequestHandlerRegistryMXBean {
+    /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
+    private static final Logger logger = LoggerFactory.getLogger(RequestHandlerRegistry.class);
+    /* JMX 객체 이름 */
+    public static final String OBJECT_NAME = "com.signal:type=RequestHandlers";
+    /* Bulkhead 작업 쓰레드가 없는 Method 의 처리 위치 이름 (JMX) */
+    public static final String TRANSPORT_WORKERS = "transport";
+    /* 처리기가 없을 때 405 로 응답하는 알려진 Method 목록 (나머지는 501) */
+    private static final Set<String> KNOWN_METHODS = new HashSet<>(Arrays.asList(
+            Request.INVITE, Request.ACK, Request.BYE, Request.CANCEL, Request.MESSAGE, Request.OPTIONS,
+            Request.REGISTER, Request.INFO, Request.UPDATE, Request.PRACK, Request.SUBSCRIBE, Request.NOTIFY,
+            Request.REFER, Request.PUBLISH));
+    /* 요청 처리기 관리 객체(singleton) */
+    private static final RequestHandlerRegistry requestHandlerRegistry = new RequestHandlerRegistry();
+    /* Method 별 요청 처리기 */
+    private final ConcurrentHashMap<String, RequestHandler> handlers = new ConcurrentHashMap<>();
+    /* Method 별 Bulkhead (configure 시 통째로 교체) */
+    private volatile Map<String, Bulkhead> bulkheads = Collections.emptyMap();
+    /* 처리기가 없어서 바로 응답한 요청 수 */
+    private final StripedCounter unsupported = new StripedCounter();
+
+    /**
+     * @fn private RequestHandlerRegistry()
+     * @brief 기본 처리기를 등록하고 JMX 에 등록하는 함수
+     */
+    private RequestHandlerRegistry() {
+        DefaultRequestHandlers.registerTo(this);
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(this, objectName);
+            }
+        } catch (Exception e) {
+            logger.warn("Fail to register request handler MBean", e);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public static RequestHandlerRegistry getInstance()
+     * @brief 요청 처리기 관리 객체의 싱글턴 인스턴스를 반환하는 함수
+     * @return 요청 처리기 관리 객체
+     */
+    public static RequestHandlerRegistry getInstance() {
+        return requestHandlerRegistry;
+    }
+
+    /**
+     * @fn public synchronized void configure(final BulkheadConfig... bulkheadConfigs)
+     * @brief Method 별 Bulkhead 를 설정하는 함수 (호 처리 전에 호출, 기존 Bulkhead 의 작업 쓰레드는 대기 중인 작업을 처리 후 종료)
+     * 설정에 없는 Method 는 전송별 작업 쓰레드에서 처리한다.
+     * @param bulkheadConfigs Bulkhead 설정 목록(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public synchronized void configure(final BulkheadConfig... bulkheadConfigs) {
+        Set<String> names = new HashSet<>();
+        Map<String, BulkheadConfig> configByMethod = new HashMap<>();
+        for (BulkheadConfig bulkheadConfig : bulkheadConfigs) {
+            if (!names.add(bulkheadConfig.getName())) {
+                throw new IllegalArgumentException("Duplicated bulkhead : " + bulkheadConfig.getName());
+            }
+            for (String method : bulkheadConfig.getMethods()) {
+                if (configByMethod.put(method, bulkheadConfig) != null) {
+                    throw new IllegalArgumentException("Method " + method + " is assigned to several bulkheads");
+                }
+            }
+        }
+
+        Map<String, Bulkhead> newBulkheads = new HashMap<>();
+        for (BulkheadConfig bulkheadConfig : bulkheadConfigs) {
+            Bulkhead bulkhead = new Bulkhead(bulkheadConfig);
+            for (String method : bulkheadConfig.getMethods()) {
+                newBulkheads.put(method, bulkhead);
+            }
+        }
+
+        Map<String, Bulkhead> oldBulkheads = this.bulkheads;
+        this.bulkheads = Collections.unmodifiableMap(newBulkheads);
+        for (Bulkhead bulkhead : distinct(oldBulkheads)) {
+            bulkhead.shutdown();
+        }
+    }
+
+    /**
+     * @fn public void register(final String method, final RequestHandler handler)
+     * @brief 지정한 Method 의 요청 처리기를 등록하는 함수 (기존 처리기는 교체)
+     * @param method  요청 Method(입력, 읽기 전용)
+     * @param handler 요청 처리기(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void register(final String method, final RequestHandler handler) {
+        if (method == null || handler == null) throw new NullPointerException("Parameter Error (Null)");
+        handlers.put(method, handler);
+    }
+
+    /**
+     * @fn public void unregister(final String method)
+     * @brief 지정한 Method 의 요청 처리기를 삭제하는 함수 (이후 405/501 로 응답)
+     * @param method 요청 Method(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void unregister(final String method) {
+        if (method == null) throw new NullPointerException("Parameter Error (Null)");
+        handlers.remove(method);
+    }
+
+    /**
+     * @fn public RequestHandler getHandler(final String method)
+     * @brief 지정한 Method 의 요청 처리기를 반환하는 함수
+     * @param method 요청 Method(입력, 읽기 전용)
+     * @return 요청 처리기, 없으면 null 반환
+     */
+    public RequestHandler getHandler(final String method) {
+        return method == null ? null : handlers.get(method);
+    }
+
+    /**
+     * @fn public Bulkhead getBulkhead(final String method)
+     * @brief 지정한 Method 를 처리할 Bulkhead 를 반환하는 함수
+     * @param method 요청 Method(입력, 읽기 전용)
+     * @return 작업 쓰레드가 있는 Bulkhead, 없으면(전송별 작업 쓰레드에서 처리) null 반환
+     */
+    public Bulkhead getBulkhead(final String method) {
+        Bulkhead bulkhead = method == null ? null : bulkheads.get(method);
+        return bulkhead != null && bulkhead.hasWorkers() ? bulkhead : null;
+    }
+
+    /**
+     * @fn public List<String> getAllowedMethods()
+     * @brief 처리기가 등록된 Method 목록을 반환하는 함수 (Allow 헤더)
+     * @return Method 목록 (이름 순)
+     */
+    public List<String> getAllowedMethods() {
+        return new ArrayList<>(new TreeSet<>(handlers.keySet()));
+    }
+
+    /**
+     * @fn public int getUnsupportedStatusCode(final String method)
+     * @brief 처리기가 없는 Method 에 응답할 상태 코드를 반환하는 함수
+     * @param method 요청 Method(입력, 읽기 전용)
+     * @return 알려진 Method 이면 405 Method Not Allowed, 아니면 501 Not Implemented
+     */
+    public int getUnsupportedStatusCode(final String method) {
+        return KNOWN_METHODS.contains(method) ? Response.METHOD_NOT_ALLOWED : Response.NOT_IMPLEMENTED;
+    }
+
+    /**
+     * @fn public void onUnsupported()
+     * @brief 처리기가 없어서 바로 응답한 요청을 집계하는 함수
+     * @return 반환값 없음
+     */
+    public void onUnsupported() {
+        unsupported.increment();
+    }
+
+    /**
+     * @fn public void shutdown()
+     * @brief 모든 Bulkhead 의 작업 쓰레드를 종료하는 함수 (대기 중인 작업은 처리 후 종료)
+     * @return 반환값 없음
+     */
+    public void shutdown() {
+        for (Bulkhead bulkhead : distinct(bulkheads)) {
+            bulkhead.shutdown();
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Override Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public Map<String, String> getHandlers()
+     * @brief 처리기가 등록된 Method 와 처리하는 Bulkhead 이름을 반환하는 함수 (JMX)
+     * @return Method 별 Bulkhead 이름, 작업 쓰레드가 없으면 transport (Method 순 정렬)
+     */
+    @Override
+    public Map<String, String> getHandlers() {
+        Map<String, Bulkhead> current = bulkheads;
+        Map<String, String> snapshot = new TreeMap<>();
+        for (String method : handlers.keySet()) {
+            Bulkhead bulkhead = current.get(method);
+            snapshot.put(method, bulkhead != null && bulkhead.hasWorkers() ? bulkhead.getName() : TRANSPORT_WORKERS);
+        }
+        return snapshot;
+    }
+
+    /**
+     * @fn public Map<String, Integer> getThreads()
+     * @brief Bulkhead 별 작업 쓰레드 수를 반환하는 함수 (JMX)
+     * @return Bulkhead 이름별 작업 쓰레드 수
+     */
+    @Override
+    public Map<String, Integer> getThreads() {
+        Map<String, Integer> snapshot = new TreeMap<>();
+        for (Bulkhead bulkhead : distinct(bulkheads)) {
+            snapshot.put(bulkhead.getName(), bulkhead.getConfig().getThreads());
+        }
+        return snapshot;
+    }
+
+    /**
+     * @fn public Map<String, Integer> getQueueDepths()
+     * @brief Bulkhead 별 대기 중인 작업 수를 반환하는 함수 (JMX)
+     * @return Bulkhead 이름별 대기 작업 수
+     */
+    @Override
+    public Map<String, Integer> getQueueDepths() {
+        Map<String, Integer> snapshot = new TreeMap<>();
+        for (Bulkhead bulkhead : distinct(bulkheads)) {
+            snapshot.put(bulkhead.getName(), bulkhead.getPendingTasks());
+        }
+        return snapshot;
+    }
+
+    /**
+     * @fn public Map<String, Long> getRejected()
+     * @brief Bulkhead 별 대기열이 가득 차서 거절한 요청 수를 반환하는 함수 (JMX)
+     * @return Bulkhead 이름별 거절 수
+     */
+    @Override
+    public Map<String, Long> getRejected() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        for (Bulkhead bulkhead : distinct(bulkheads)) {
+            snapshot.put(bulkhead.getName(), bulkhead.getRejected());
+        }
+        return snapshot;
+    }
+
+    /**
+     * @fn public long getUnsupported()
+     * @brief 처리기가 없어서 405/501 로 바로 응답한 요청 수를 반환하는 함수 (JMX)
+     * @return 405/501 응답 수
+     */
+    @Override
+    public long getUnsupported() {
+        return unsupported.sum();
+    }
+
+    /**
+     * @fn public String getExecutionMode()
+     * @brief 현재 처리기 실행 방식을 반환하는 함수 (JMX)
+     * @return PLATFORM 또는 VIRTUAL
+     */
+    @Override
+    public String getExecutionMode() {
+        return (VirtualThreadDispatcher.getInstance().isEnabled() ? ExecutionMode.VIRTUAL : ExecutionMode.PLATFORM).name();
+    }
+
+    /**
+     * @fn public int getVirtualPendingTasks()
+     * @brief 가상 쓰레드에서 처리 중이거나 대기 중인 작업 수를 반환하는 함수 (JMX)
+     * @return 가상 쓰레드 작업 수, 가상 쓰레드를 사용하지 않으면 0
+     */
+    @Override
+    public int getVirtualPendingTasks() {
+        return VirtualThreadDispatcher.getInstance().getPendingTasks();
+    }
+
+    /**
+     * @fn public long getVirtualRejected()
+     * @brief 가상 쓰레드 최대 작업 수에 도달해서 거절한 요청 수를 반환하는 함수 (JMX)
+     * @return 거절 수
+     */
+    @Override
+    public long getVirtualRejected() {
+        return VirtualThreadDispatcher.getInstance().getRejected();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private static Set<Bulkhead> distinct(final Map<String, Bulkhead> bulkheads)
+     * @brief Method 별 Bulkhead 맵에서 Bulkhead 를 한 번씩만 반환하는 함수 (여러 Method 가 같은 Bulkhead 를 가짐)
+     * @param bulkheads Method 별 Bulkhead(입력, 읽기 전용)
+     * @return Bulkhead 목록
+     */
+    private static Set<Bulkhead> distinct(final Map<String, Bulkhead> bulkheads) {
+        return new HashSet<>(bulkheads.values());
+    }
+}
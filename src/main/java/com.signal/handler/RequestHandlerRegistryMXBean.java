@@ -0,0 +1,33 @@
+package com.signal.handler;
+
+import java.util.Map;
+
+/**
+ * @interface public interface RequestHandlerRegistryMXBean
+ * @brief JMX 로 노출하는 Method 별 요청 처리기와 Bulkhead 상태
+ */
+public interface RequestHandlerRegistryMXBean {
+    /* 처리기가 등록된 Method 와 처리하는 Bulkhead 이름 (작업 쓰레드가 없으면 transport) */
+    Map<String, String> getHandlers();
+
+    /* Bulkhead 별 작업 쓰레드 수 */
+    Map<String, Integer> getThreads();
+
+    /* Bulkhead 별 대기 중인 작업 수 */
+    Map<String, Integer> getQueueDepths();
+
+    /* Bulkhead 별 대기열이 가득 차서 거절한 요청 수 */
+    Map<String, Long> getRejected();
+
+    /* 처리기가 없어서 405/501 로 바로 응답한 요청 수 */
+    long getUnsupported();
+
+    /* 처리기 실행 방식 (PLATFORM, VIRTUAL) */
+    String getExecutionMode();
+
+    /* 가상 쓰레드에서 처리 중이거나 대기 중인 작업 수 */
+    int getVirtualPendingTasks();
+
+    /* 가상 쓰레드 최대 작업 수에 도달해서 거절한 요청 수 */
+    long getVirtualRejected();
+}
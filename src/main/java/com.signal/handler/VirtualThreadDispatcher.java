@@ -0,0 +1,345 @@
+package com.signal.handler;
+
+import com.signal.metrics.LatencyHistogram;
+import com.signal.metrics.SignalMetrics;
+import com.signal.metrics.StripedCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @class public class VirtualThreadDispatcher
+ * @brief 수신 요청/응답 처리기를 가상 쓰레드에서 실행하는 클래스 (ExecutionMode.VIRTUAL)
+ * 처리기 안에서 기다리는 작업(응답 지연, 외부 조회, CDR 기록 등)을 그대로 작성해도 고정된 작업 쓰레드나 SIP Stack 쓰레드를 붙잡지 않는다.
+ *
+ * 같은 Call-ID 의 작업은 Call-ID 별 대기열(lane)에 넣고 가상 쓰레드 하나가 받은 순서대로 처리한다. (ACK 가 INVITE 보다 먼저 처리되지 않음)
+ * 대기열이 비면 가상 쓰레드는 끝나고 대기열도 맵에서 지운다. Call-ID 가 없는 작업은 새 가상 쓰레드에서 바로 처리한다.
+ * 가상 쓰레드 수는 제한이 없으므로, 처리 중이거나 대기 중인 작업이 max-pending 에 도달하면 기다리지 않고 실패를 반환한다.
+ *
+ * 소스는 Java 7 로 컴파일하므로 가상 쓰레드 API (Thread.ofVirtual, Executors.newThreadPerTaskExecutor) 는 Reflection 으로 찾는다.
+ * JDK 21 미만에서 VIRTUAL 을 고르면 경고를 남기고 기존 작업 쓰레드(PLATFORM)로 처리한다.
+ *
+ * 대기 시간 통계 : com.signal:type=Latency,name=handler.queue.virtual (대기열에 넣은 시각 ~ 처리 시작 시각)
+ */
+public class VirtualThreadDispatcher {
+    /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadDispatcher.class);
+    /* 기본 최대 처리 중/대기 중 작업 수 */
+    public static final int DEFAULT_MAX_PENDING = 100000;
+    /* 가상 쓰레드 이름 접두사 */
+    private static final String THREAD_NAME_PREFIX = "SipVirtual-";
+    /* 가상 쓰레드 실행기 관리 객체(singleton) */
+    private static final VirtualThreadDispatcher virtualThreadDispatcher = new VirtualThreadDispatcher();
+    /* Call-ID 별 작업 대기열 */
+    private final ConcurrentHashMap<String, CallLane> lanes = new ConcurrentHashMap<>();
+    /* 처리 중이거나 대기 중인 작업 수 */
+    private final AtomicInteger pendingTasks = new AtomicInteger(0);
+    /* 최대 작업 수에 도달해서 거절한 작업 수 */
+    private final StripedCounter rejected = new StripedCounter();
+    /* 대기 시간 히스토그램 */
+    private final LatencyHistogram queueLatency = SignalMetrics.getInstance().latency(Bulkhead.QUEUE_LATENCY_PREFIX + "virtual");
+    /* 가상 쓰레드 실행기 (PLATFORM 이거나 지원하지 않으면 null) */
+    private volatile ExecutorService executor = null;
+    /* 최대 처리 중/대기 중 작업 수 */
+    private volatile int maxPending = DEFAULT_MAX_PENDING;
+
+    /**
+     * @fn private VirtualThreadDispatcher()
+     * @brief 가상 쓰레드 실행기 관리 객체를 초기화하는 함수 (configure 전에는 사용하지 않음)
+     */
+    private VirtualThreadDispatcher() {
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public static VirtualThreadDispatcher getInstance()
+     * @brief 가상 쓰레드 실행기 관리 객체의 싱글턴 인스턴스를 반환하는 함수
+     * @return 가상 쓰레드 실행기 관리 객체
+     */
+    public static VirtualThreadDispatcher getInstance() {
+        return virtualThreadDispatcher;
+    }
+
+    /**
+     * @fn public static boolean isSupported()
+     * @brief 실행 중인 JDK 가 가상 쓰레드를 지원하는지 확인하는 함수
+     * @return JDK 21 이상이면 true, 아니면 false 반환
+     */
+    public static boolean isSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @fn public synchronized void configure(final ExecutionMode executionMode, int maxPending)
+     * @brief 실행 방식을 설정하는 함수 (호 처리 전에 호출, PLATFORM 으로 바꾸면 기존 가상 쓰레드는 남은 작업을 처리 후 종료)
+     * @param executionMode 실행 방식(입력, 읽기 전용)
+     * @param maxPending    최대 처리 중/대기 중 작업 수(입력)
+     * @return 반환값 없음
+     */
+    public synchronized void configure(final ExecutionMode executionMode, int maxPending) {
+        if (executionMode == null) throw new NullPointerException("Parameter Error (Null)");
+        if (maxPending <= 0) throw new IllegalArgumentException("Invalid max pending : " + maxPending + " (> 0)");
+
+        this.maxPending = maxPending;
+        if (executionMode == ExecutionMode.VIRTUAL) {
+            if (executor == null) {
+                executor = newVirtualThreadExecutor();
+                if (executor == null) {
+                    logger.warn("Virtual threads are not supported on Java {}, platform threads are used", System.getProperty("java.version"));
+                }
+            }
+        } else if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+        logger.debug("Handler execution (Mode:{}, MaxPending:{})", isEnabled() ? ExecutionMode.VIRTUAL : ExecutionMode.PLATFORM, maxPending);
+    }
+
+    /**
+     * @fn public boolean isEnabled()
+     * @brief 가상 쓰레드로 처리하는지 확인하는 함수
+     * @return 가상 쓰레드로 처리하면 true, 아니면(작업 쓰레드로 처리) false 반환
+     */
+    public boolean isEnabled() {
+        return executor != null;
+    }
+
+    /**
+     * @fn public boolean dispatch(final String callId, final Runnable task)
+     * @brief 작업을 Call-ID 의 대기열에 넣고, 처리하는 가상 쓰레드가 없으면 새로 시작하는 함수
+     * @param callId Call-ID(입력, 읽기 전용, null 이면 순서 없이 새 가상 쓰레드에서 처리)
+     * @param task   작업(입력, 읽기 전용)
+     * @return 대기열에 넣었으면 true, 최대 작업 수에 도달했거나 사용하지 않으면 false 반환
+     */
+    public boolean dispatch(final String callId, final Runnable task) {
+        ExecutorService currentExecutor = executor;
+        if (currentExecutor == null) return false;
+
+        if (pendingTasks.incrementAndGet() > maxPending) {
+            pendingTasks.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+
+        final long enqueueTime = System.nanoTime();
+        if (callId == null) {
+            return execute(currentExecutor, new Runnable() {
+                @Override
+                public void run() {
+                    queueLatency.record(System.nanoTime() - enqueueTime);
+                    runTask(null, task);
+                }
+            });
+        }
+
+        QueuedTask queuedTask = new QueuedTask(task, enqueueTime);
+        while (true) {
+            CallLane lane = lanes.get(callId);
+            if (lane == null) {
+                CallLane newLane = new CallLane(callId);
+                lane = lanes.putIfAbsent(callId, newLane);
+                if (lane == null) lane = newLane;
+            }
+
+            boolean isStarted;
+            synchronized (lane) {
+                // 비어서 맵에서 빠진 대기열이면 다시 찾는다.
+                if (lane.isRemoved) continue;
+
+                lane.tasks.add(queuedTask);
+                isStarted = !lane.isRunning;
+                lane.isRunning = true;
+            }
+            return !isStarted || execute(currentExecutor, lane);
+        }
+    }
+
+    /**
+     * @fn public int getPendingTasks()
+     * @brief 처리 중이거나 대기 중인 작업 수를 반환하는 함수
+     * @return 작업 수
+     */
+    public int getPendingTasks() {
+        return pendingTasks.get();
+    }
+
+    /**
+     * @fn public int getActiveCalls()
+     * @brief 작업이 남아 있는 Call-ID 수 (실행 중인 가상 쓰레드 수) 를 반환하는 함수
+     * @return Call-ID 수
+     */
+    public int getActiveCalls() {
+        return lanes.size();
+    }
+
+    /**
+     * @fn public long getRejected()
+     * @brief 최대 작업 수에 도달해서 거절한 작업 수를 반환하는 함수
+     * @return 거절한 작업 수
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * @fn public synchronized void shutdown()
+     * @brief 가상 쓰레드 실행기를 종료하는 함수 (시작된 가상 쓰레드는 남은 작업을 처리 후 종료)
+     * @return 반환값 없음
+     */
+    public synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private boolean execute(final ExecutorService currentExecutor, final Runnable runnable)
+     * @brief 새 가상 쓰레드를 시작하는 함수, 실행기가 종료되었으면 작업을 버린다.
+     * @param currentExecutor 가상 쓰레드 실행기(입력, 읽기 전용)
+     * @param runnable        가상 쓰레드에서 실행할 작업(입력, 읽기 전용)
+     * @return 시작했으면 true, 실행기가 종료되었으면 false 반환
+     */
+    private boolean execute(final ExecutorService currentExecutor, final Runnable runnable) {
+        try {
+            currentExecutor.execute(runnable);
+            return true;
+        } catch (RejectedExecutionException e) {
+            if (runnable instanceof CallLane) {
+                discard((CallLane) runnable);
+            } else {
+                pendingTasks.decrementAndGet();
+            }
+            return false;
+        }
+    }
+
+    /**
+     * @fn private void discard(final CallLane lane)
+     * @brief 실행기가 종료되어 시작하지 못한 대기열의 작업을 모두 버리는 함수
+     * @param lane Call-ID 별 작업 대기열(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    private void discard(final CallLane lane) {
+        synchronized (lane) {
+            pendingTasks.addAndGet(-lane.tasks.size());
+            lane.tasks.clear();
+            lane.isRunning = false;
+            lane.isRemoved = true;
+            lanes.remove(lane.callId, lane);
+        }
+    }
+
+    /**
+     * @fn private void runTask(final String callId, final Runnable task)
+     * @brief 작업 하나를 실행하는 함수, 처리기에서 난 예외는 기록만 하고 다음 작업을 계속 처리한다.
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @param task   작업(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    private void runTask(final String callId, final Runnable task) {
+        try {
+            task.run();
+        } catch (Throwable e) {
+            logger.warn("Handler is failed on virtual thread (Call-ID:{})", callId, e);
+        } finally {
+            pendingTasks.decrementAndGet();
+        }
+    }
+
+    /**
+     * @fn private static ExecutorService newVirtualThreadExecutor()
+     * @brief 작업마다 이름 있는 가상 쓰레드를 만드는 실행기를 Reflection 으로 생성하는 함수
+     * @return 가상 쓰레드 실행기, JDK 21 미만이면 null 반환
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        if (!isSupported()) return null;
+
+        try {
+            // Thread.ofVirtual().name("SipVirtual-", 0).factory()
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, THREAD_NAME_PREFIX, 0L);
+            ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+
+            // Executors.newThreadPerTaskExecutor(threadFactory)
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, threadFactory);
+        } catch (Exception e) {
+            logger.warn("Fail to create virtual thread executor", e);
+            return null;
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Inner Class
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @class private static class QueuedTask
+     * @brief 대기열에 넣은 작업과 넣은 시각
+     */
+    private static class QueuedTask {
+        private final Runnable task;
+        private final long enqueueTime;
+
+        private QueuedTask(final Runnable task, long enqueueTime) {
+            this.task = task;
+            this.enqueueTime = enqueueTime;
+        }
+    }
+
+    /**
+     * @class private class CallLane implements Runnable
+     * @brief Call-ID 하나의 작업 대기열, 가상 쓰레드 하나가 빌 때까지 순서대로 처리한다. (대기열 객체로 잠금)
+     */
+    private class CallLane implements Runnable {
+        private final String callId;
+        private final ArrayDeque<QueuedTask> tasks = new ArrayDeque<>();
+        /* 대기열을 처리하는 가상 쓰레드가 있는지 여부 */
+        private boolean isRunning = false;
+        /* 비어서 맵에서 빠졌는지 여부 (빠진 대기열에는 추가하지 않음) */
+        private boolean isRemoved = false;
+
+        private CallLane(final String callId) {
+            this.callId = callId;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                QueuedTask queuedTask;
+                synchronized (this) {
+                    queuedTask = tasks.poll();
+                    if (queuedTask == null) {
+                        isRunning = false;
+                        isRemoved = true;
+                        lanes.remove(callId, this);
+                        return;
+                    }
+                }
+
+                queueLatency.record(System.nanoTime() - queuedTask.enqueueTime);
+                runTask(callId, queuedTask.task);
+            }
+        }
+    }
+}
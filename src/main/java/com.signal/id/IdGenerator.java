@@ -0,0 +1,151 @@
+package com.signal.id;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @class public class IdGenerator
+ * @brief SIP Tag, Branch ID, Call-ID 를 고정 길이로 생성하는 클래스
+ * 쓰레드별 난수 생성기(ThreadLocalRandom)만 사용하므로 여러 쓰레드에서 동시에 호출해도 공유 Lock 경합이 없다.
+ * 식별자는 [노드 ID] + 난수 16진수 문자열로 구성되며, 노드 ID 를 지정하면 여러 노드에서 생성한 식별자가 겹치지 않는다.
+ *
+ * - Tag       : [노드 ID] + 64 bit 난수 (16 자)
+ * - Branch ID : z9hG4bK + [노드 ID] + 64 bit 난수 (16 자), RFC 3261 Magic Cookie 포함
+ * - Call-ID   : [노드 ID] + 128 bit 난수 (32 자) + @호스트
+ */
+public class IdGenerator {
+    /* RFC 3261 Branch ID Magic Cookie */
+    public static final String BRANCH_MAGIC_COOKIE = "z9hG4bK";
+    /* 노드 ID 최대 길이 */
+    public static final int MAX_NODE_ID_LENGTH = 8;
+    /* 16 진수 문자 */
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    /* 64 bit 난수의 16 진수 문자열 길이 */
+    private static final int HEX_LENGTH = 16;
+    /* 식별자 생성 객체(singleton) */
+    private static final IdGenerator idGenerator = new IdGenerator();
+    /* 식별자 앞에 붙이는 노드 ID (빈 문자열이면 붙이지 않음) */
+    private volatile String nodeId = "";
+
+    /**
+     * @fn private IdGenerator()
+     * @brief 식별자 생성 객체를 초기화하는 함수
+     */
+    private IdGenerator() {
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public static IdGenerator getInstance()
+     * @brief 식별자 생성 객체의 싱글턴 인스턴스를 반환하는 함수
+     * @return 식별자 생성 객체
+     */
+    public static IdGenerator getInstance() {
+        return idGenerator;
+    }
+
+    /**
+     * @fn public void setNodeId(final String nodeId)
+     * @brief 식별자 앞에 붙일 노드 ID 를 지정하는 함수 (호 처리 전에 호출)
+     * @param nodeId 노드 ID, 영문자/숫자 최대 MAX_NODE_ID_LENGTH 자(입력, 읽기 전용, null 또는 빈 문자열이면 붙이지 않음)
+     * @return 반환값 없음
+     */
+    public void setNodeId(final String nodeId) {
+        if (nodeId == null || nodeId.isEmpty()) {
+            this.nodeId = "";
+            return;
+        }
+
+        if (nodeId.length() > MAX_NODE_ID_LENGTH) {
+            throw new IllegalArgumentException("Node ID is too long (max " + MAX_NODE_ID_LENGTH + ")");
+        }
+        for (int i = 0; i < nodeId.length(); i++) {
+            char c = nodeId.charAt(i);
+            if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9'))) {
+                throw new IllegalArgumentException("Node ID must be alphanumeric");
+            }
+        }
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * @fn public String getNodeId()
+     * @brief 노드 ID 를 반환하는 함수
+     * @return 노드 ID (지정하지 않았으면 빈 문자열)
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * @fn public String newTag()
+     * @brief From/To Tag 를 생성하는 함수
+     * @return Tag 문자열
+     */
+    public String newTag() {
+        String prefix = nodeId;
+        char[] chars = new char[prefix.length() + HEX_LENGTH];
+        prefix.getChars(0, prefix.length(), chars, 0);
+        appendHex(chars, prefix.length(), ThreadLocalRandom.current().nextLong());
+        return new String(chars);
+    }
+
+    /**
+     * @fn public String newBranchId()
+     * @brief Via Branch ID 를 생성하는 함수
+     * @return Branch ID 문자열 (z9hG4bK 로 시작)
+     */
+    public String newBranchId() {
+        String prefix = nodeId;
+        int offset = BRANCH_MAGIC_COOKIE.length();
+        char[] chars = new char[offset + prefix.length() + HEX_LENGTH];
+        BRANCH_MAGIC_COOKIE.getChars(0, offset, chars, 0);
+        prefix.getChars(0, prefix.length(), chars, offset);
+        appendHex(chars, offset + prefix.length(), ThreadLocalRandom.current().nextLong());
+        return new String(chars);
+    }
+
+    /**
+     * @fn public String newCallId(final String host)
+     * @brief Call-ID 를 생성하는 함수
+     * @param host Call-ID 의 호스트 부분(입력, 읽기 전용, null 또는 빈 문자열이면 붙이지 않음)
+     * @return Call-ID 문자열
+     */
+    public String newCallId(final String host) {
+        String prefix = nodeId;
+        int hostLength = (host == null || host.isEmpty()) ? 0 : host.length() + 1;
+        char[] chars = new char[prefix.length() + HEX_LENGTH * 2 + hostLength];
+        prefix.getChars(0, prefix.length(), chars, 0);
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int offset = appendHex(chars, prefix.length(), random.nextLong());
+        offset = appendHex(chars, offset, random.nextLong());
+        if (hostLength > 0) {
+            chars[offset++] = '@';
+            host.getChars(0, host.length(), chars, offset);
+        }
+        return new String(chars);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private static int appendHex(final char[] chars, int offset, long value)
+     * @brief 64 bit 값을 16 자리 16 진수 문자로 배열에 쓰는 함수
+     * @param chars  문자 배열(출력)
+     * @param offset 쓰기 시작 위치(입력)
+     * @param value  값(입력)
+     * @return 다음 쓰기 위치
+     */
+    private static int appendHex(final char[] chars, int offset, long value) {
+        for (int i = HEX_LENGTH - 1; i >= 0; i--) {
+            chars[offset + i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+        return offset + HEX_LENGTH;
+    }
+}
@@ -0,0 +1,378 @@
+package com.signal.lifecycle;
+
+import com.signal.answer.InviteAnswerPipeline;
+import com.signal.capture.CaptureWriter;
+import com.signal.cdr.CdrRecorder;
+import com.signal.cdr.CdrWriter;
+import com.signal.control.AdmissionController;
+import com.signal.handler.RequestHandlerRegistry;
+import com.signal.handler.VirtualThreadDispatcher;
+import com.signal.logic.RequestManager;
+import com.signal.logic.SipCall;
+import com.signal.registry.CallRegistry;
+import com.signal.replication.ReplicationManager;
+import com.signal.resolve.TargetResolver;
+import com.signal.snapshot.DialogSnapshotManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.sip.Dialog;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @class public class LifecycleManager implements LifecycleManagerMXBean
+ * @brief 노드의 정상 종료(Drain)를 관리하는 클래스
+ * SipCall 은 생성 시 등록되고, 종료 시 다음 순서로 처리한다.
+ * 1. 새 호 수락 중지 : 새 Invite 는 503 (Retry-After) 으로 거절하고, 수락 대기열의 호도 거절한다.
+ * 2. 진행 중인 트랜잭션이 끝나기를 기다린다. (최대 drain-timeout)
+ * 3. 남은 다이얼로그에 초당 bye-rate 개씩 BYE 를 보내고, 응답을 기다린다. (최대 bye-timeout)
+ * 4. 등록된 SIP Stack, 응답 처리 쓰레드, 캡처 쓰레드를 중지하고, 남은 호의 CDR 을 기록한 후 CDR 쓰레드를 중지한다.
+ *    마지막으로 BYE 를 보내지 못하고 남은 다이얼로그를 스냅샷에 저장하고, Standby 노드에 마지막 변경분을 보낸다.
+ *
+ * 프로세스 종료(System.exit)는 하지 않으며, 필요하면 awaitStopped() 후 호출한 쪽에서 한다.
+ */
+public class LifecycleManager implements LifecycleManagerMXBean {
+    /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
+    private static final Logger logger = LoggerFactory.getLogger(LifecycleManager.class);
+    /* JMX ObjectName */
+    public static final String OBJECT_NAME = "com.signal:type=Lifecycle";
+    /* 기본 트랜잭션 대기 시간 (ms) */
+    public static final long DEFAULT_DRAIN_TIMEOUT = 10000;
+    /* 기본 초당 BYE 전송 수 */
+    public static final int DEFAULT_BYE_RATE = 200;
+    /* 기본 BYE 응답 대기 시간 (ms) */
+    public static final long DEFAULT_BYE_TIMEOUT = 5000;
+    /* 트랜잭션/다이얼로그 수 확인 간격 (ms) */
+    private static final long POLL_INTERVAL = 50;
+    /* 노드 동작 상태 관리 객체(singleton) */
+    private static final LifecycleManager lifecycleManager = new LifecycleManager();
+    /* 동작 상태 */
+    private final AtomicReference<LifecycleState> state = new AtomicReference<>(LifecycleState.RUNNING);
+    /* 등록된 SIP 호 관리 객체 (SIP Stack 마다 하나) */
+    private final CopyOnWriteArraySet<SipCall> sipCalls = new CopyOnWriteArraySet<>();
+    /* 중지 완료 알림 */
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    /* 정상 종료 중에 BYE 를 보낸 다이얼로그 수 */
+    private final AtomicLong drainedDialogs = new AtomicLong(0);
+    /* 트랜잭션 대기 시간 (ms) */
+    private volatile long drainTimeout = DEFAULT_DRAIN_TIMEOUT;
+    /* 초당 BYE 전송 수 */
+    private volatile int byeRate = DEFAULT_BYE_RATE;
+    /* BYE 응답 대기 시간 (ms) */
+    private volatile long byeTimeout = DEFAULT_BYE_TIMEOUT;
+    /* JVM 종료 시 정상 종료 처리 등록 여부 */
+    private boolean isShutdownHookInstalled = false;
+
+    /**
+     * @fn private LifecycleManager()
+     * @brief 노드 동작 상태 관리 객체를 초기화하는 함수
+     */
+    private LifecycleManager() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(this, objectName);
+            }
+        } catch (Exception e) {
+            logger.warn("Fail to register lifecycle MBean", e);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public static LifecycleManager getInstance()
+     * @brief 노드 동작 상태 관리 객체의 싱글턴 인스턴스를 반환하는 함수
+     * @return 노드 동작 상태 관리 객체
+     */
+    public static LifecycleManager getInstance() {
+        return lifecycleManager;
+    }
+
+    /**
+     * @fn public void configure(long drainTimeout, int byeRate, long byeTimeout)
+     * @brief 정상 종료 설정을 지정하는 함수
+     * @param drainTimeout 진행 중인 트랜잭션 대기 시간(ms, 입력)
+     * @param byeRate      초당 BYE 전송 수(입력)
+     * @param byeTimeout   BYE 응답 대기 시간(ms, 입력)
+     * @return 반환값 없음
+     */
+    public void configure(long drainTimeout, int byeRate, long byeTimeout) {
+        if (drainTimeout < 0 || byeRate <= 0 || byeTimeout < 0) {
+            throw new IllegalArgumentException("Invalid lifecycle (drain-timeout:" + drainTimeout + ", bye-rate:" + byeRate + ", bye-timeout:" + byeTimeout + ")");
+        }
+
+        this.drainTimeout = drainTimeout;
+        this.byeRate = byeRate;
+        this.byeTimeout = byeTimeout;
+        logger.debug("Lifecycle (DrainTimeout:{}, ByeRate:{}, ByeTimeout:{})", drainTimeout, byeRate, byeTimeout);
+    }
+
+    /**
+     * @fn public synchronized void installShutdownHook()
+     * @brief JVM 종료(SIGTERM 등) 시 정상 종료를 처리하도록 등록하는 함수 (한 번만 등록)
+     * @return 반환값 없음
+     */
+    public synchronized void installShutdownHook() {
+        if (isShutdownHookInstalled) return;
+
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                drainAndStop();
+            }
+        }, "LifecycleShutdown"));
+        isShutdownHookInstalled = true;
+    }
+
+    /**
+     * @fn public void register(final SipCall sipCall)
+     * @brief 정상 종료 대상 SIP 호 관리 객체를 등록하는 함수
+     * @param sipCall SIP 호 관리 객체(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void register(final SipCall sipCall) {
+        SipCall.checkObjectNull(null, sipCall);
+        sipCalls.add(sipCall);
+    }
+
+    /**
+     * @fn public void unregister(final SipCall sipCall)
+     * @brief 등록된 SIP 호 관리 객체를 삭제하는 함수
+     * @param sipCall SIP 호 관리 객체(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void unregister(final SipCall sipCall) {
+        SipCall.checkObjectNull(null, sipCall);
+        sipCalls.remove(sipCall);
+    }
+
+    /**
+     * @fn public boolean isRunning()
+     * @brief 새 호를 처리하는 중인지 반환하는 함수
+     * @return 동작 중이면 true, 정상 종료 중이거나 중지되었으면 false 반환
+     */
+    public boolean isRunning() {
+        return state.get() == LifecycleState.RUNNING;
+    }
+
+    /**
+     * @fn public LifecycleState getLifecycleState()
+     * @brief 동작 상태를 반환하는 함수
+     * @return 동작 상태
+     */
+    public LifecycleState getLifecycleState() {
+        return state.get();
+    }
+
+    /**
+     * @fn public boolean drainAndStop()
+     * @brief 정상 종료를 진행하고 끝날 때까지 기다리는 함수
+     * 이미 다른 쓰레드에서 진행 중이면 끝날 때까지 기다리기만 한다.
+     * @return 모든 트랜잭션과 다이얼로그가 시간 안에 정리되었으면 true, 시간 초과로 남은 채 중지했으면 false 반환
+     */
+    public boolean drainAndStop() {
+        if (!state.compareAndSet(LifecycleState.RUNNING, LifecycleState.DRAINING)) {
+            awaitUninterruptibly();
+            return getTransactionCount() == 0 && getDialogCount() == 0;
+        }
+
+        long startTime = System.nanoTime();
+        logger.info("Draining is started (Stacks:{}, Transactions:{}, Dialogs:{})", sipCalls.size(), getTransactionCount(), getDialogCount());
+        boolean isClean;
+        try {
+            // 1. 새 호 수락 중지
+            AdmissionController.getInstance().close();
+
+            // 2. 진행 중인 트랜잭션 대기
+            boolean isTransactionDrained = awaitCount(true, drainTimeout);
+
+            // 3. 남은 다이얼로그에 BYE 전송 후 응답 대기
+            sendByes();
+            boolean isDialogDrained = awaitCount(false, byeTimeout);
+
+            isClean = isTransactionDrained && isDialogDrained;
+            if (!isClean) {
+                logger.warn("Draining is timed out (Transactions:{}, Dialogs:{})", getTransactionCount(), getDialogCount());
+            }
+        } finally {
+            // 4. SIP Stack 과 작업 쓰레드 중지
+            for (SipCall sipCall : new ArrayList<>(sipCalls)) {
+                sipCall.stop();
+            }
+            RequestHandlerRegistry.getInstance().shutdown();
+            VirtualThreadDispatcher.getInstance().shutdown();
+            TargetResolver.getInstance().shutdown();
+            InviteAnswerPipeline.getInstance().shutdown();
+            CaptureWriter.getInstance().shutdown();
+            CdrRecorder.getInstance().closeAll();
+            CdrWriter.getInstance().shutdown();
+            DialogSnapshotManager.getInstance().shutdown();
+            ReplicationManager.getInstance().shutdown();
+
+            state.set(LifecycleState.STOPPED);
+            stopped.countDown();
+        }
+
+        logger.info("Node is stopped (Elapsed:{}ms, DrainedDialogs:{})", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime), drainedDialogs.get());
+        return isClean;
+    }
+
+    /**
+     * @fn public boolean awaitStopped(long timeout, final TimeUnit timeUnit)
+     * @brief 정상 종료가 끝날 때까지 기다리는 함수
+     * @param timeout  최대 대기 시간(입력)
+     * @param timeUnit 시간 단위(입력, 읽기 전용)
+     * @return 중지되었으면 true, 시간 초과 시 false 반환
+     */
+    public boolean awaitStopped(long timeout, final TimeUnit timeUnit) throws InterruptedException {
+        return stopped.await(timeout, timeUnit);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Override Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public String getState() {
+        return state.get().name();
+    }
+
+    @Override
+    public int getRegisteredStacks() {
+        return sipCalls.size();
+    }
+
+    @Override
+    public long getDrainedDialogs() {
+        return drainedDialogs.get();
+    }
+
+    @Override
+    public List<String> getUnavailablePeers() {
+        return PeerHealth.getInstance().getUnavailablePeers();
+    }
+
+    /**
+     * @fn public void shutdown()
+     * @brief 별도 쓰레드에서 정상 종료를 시작하고 바로 반환하는 함수
+     * SIP Stack 쓰레드(예: BYE 200 OK 처리 중)에서 호출해도 된다.
+     * @return 반환값 없음
+     */
+    @Override
+    public void shutdown() {
+        if (!isRunning()) return;
+
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                drainAndStop();
+            }
+        }, "LifecycleDrain");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private void sendByes()
+     * @brief 남은 다이얼로그에 초당 bye-rate 개씩 BYE 를 보내는 함수
+     * @return 반환값 없음
+     */
+    private void sendByes() {
+        long interval = TimeUnit.SECONDS.toNanos(1) / byeRate;
+        long nextTime = System.nanoTime();
+
+        for (SipCall sipCall : sipCalls) {
+            CallRegistry callRegistry = sipCall.getCallRegistry();
+            for (String callId : callRegistry.getDialogCallIds()) {
+                Dialog dialog = callRegistry.searchDialog(callId);
+                if (dialog == null) continue;
+
+                long waitTime = nextTime - System.nanoTime();
+                if (waitTime > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(waitTime);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                nextTime += interval;
+
+                if (RequestManager.getInstance().requestBye(sipCall, dialog)) {
+                    drainedDialogs.incrementAndGet();
+                } else {
+                    // BYE 를 보낼 수 없는 다이얼로그(Early 등)는 바로 정리한다.
+                    callRegistry.removeDialog(callId);
+                    if (dialog.isServer()) AdmissionController.getInstance().release(callId);
+                }
+            }
+        }
+    }
+
+    /**
+     * @fn private boolean awaitCount(boolean isTransaction, long timeout)
+     * @brief 등록된 트랜잭션(또는 다이얼로그) 수가 0 이 될 때까지 기다리는 함수
+     * @param isTransaction 트랜잭션이면 true, 다이얼로그면 false(입력)
+     * @param timeout       최대 대기 시간(ms, 입력)
+     * @return 0 이 되었으면 true, 시간 초과 시 false 반환
+     */
+    private boolean awaitCount(boolean isTransaction, long timeout) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        while ((isTransaction ? getTransactionCount() : getDialogCount()) > 0) {
+            if (System.nanoTime() - deadline >= 0) return false;
+            try {
+                TimeUnit.MILLISECONDS.sleep(POLL_INTERVAL);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long getTransactionCount() {
+        long count = 0;
+        for (SipCall sipCall : sipCalls) {
+            count += sipCall.getCallRegistry().getTransactionCount();
+        }
+        return count;
+    }
+
+    private long getDialogCount() {
+        long count = 0;
+        for (SipCall sipCall : sipCalls) {
+            count += sipCall.getCallRegistry().getDialogCount();
+        }
+        return count;
+    }
+
+    private void awaitUninterruptibly() {
+        boolean isInterrupted = false;
+        while (true) {
+            try {
+                stopped.await();
+                break;
+            } catch (InterruptedException e) {
+                isInterrupted = true;
+            }
+        }
+        if (isInterrupted) Thread.currentThread().interrupt();
+    }
+}
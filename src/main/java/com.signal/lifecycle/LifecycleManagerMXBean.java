@@ -0,0 +1,24 @@
+package com.signal.lifecycle;
+
+import java.util.List;
+
+/**
+ * @interface public interface LifecycleManagerMXBean
+ * @brief JMX 로 노출하는 노드 동작 상태와 정상 종료 명령
+ */
+public interface LifecycleManagerMXBean {
+    /* 동작 상태 (RUNNING, DRAINING, STOPPED) */
+    String getState();
+
+    /* 등록된 SIP Stack 수 */
+    int getRegisteredStacks();
+
+    /* 정상 종료 중에 BYE 를 보낸 다이얼로그 수 */
+    long getDrainedDialogs();
+
+    /* 발신을 중지한 상대방 목록 (I/O 오류) */
+    List<String> getUnavailablePeers();
+
+    /* 정상 종료 시작 (바로 반환) */
+    void shutdown();
+}
@@ -0,0 +1,14 @@
+package com.signal.lifecycle;
+
+/**
+ * @enum public enum LifecycleState
+ * @brief 노드(등록된 모든 SIP Stack)의 동작 상태
+ */
+public enum LifecycleState {
+    /* 새 호를 수락하고 처리 중 */
+    RUNNING,
+    /* 새 Invite 는 503 으로 거절하고, 진행 중인 트랜잭션이 끝나기를 기다린 후 남은 다이얼로그에 BYE 전송 */
+    DRAINING,
+    /* SIP Stack 과 작업 쓰레드가 모두 중지됨 */
+    STOPPED
+}
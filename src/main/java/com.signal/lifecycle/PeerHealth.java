@@ -0,0 +1,163 @@
+package com.signal.lifecycle;
+
+import com.signal.logic.SipCall;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class public class PeerHealth
+ * @brief 상대방(주소:포트;전송)별 I/O 오류를 기록하고, 오류가 난 상대방으로의 발신을 잠시 멈추는 클래스
+ * I/O 오류가 나면 대기 시간 동안 발신을 멈추고, 대기 시간이 끝나면 다시 보낸다. (SIP Stack 과 다른 호는 유지)
+ * 대기 시간이 끝난 후 대기 시간 안에 다시 오류가 나면 대기 시간을 2배로 늘리고(최대값까지), 아니면 기본값부터 다시 시작한다.
+ */
+public class PeerHealth {
+    /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
+    private static final Logger logger = LoggerFactory.getLogger(PeerHealth.class);
+    /* 기본 발신 중지 시간 (ms) */
+    public static final long DEFAULT_BACKOFF = 1000;
+    /* 기본 최대 발신 중지 시간 (ms) */
+    public static final long DEFAULT_MAX_BACKOFF = 30000;
+    /* 상대방 상태 관리 객체(singleton) */
+    private static final PeerHealth peerHealth = new PeerHealth();
+    /* 상대방별 상태 */
+    private final ConcurrentHashMap<String, Peer> peers = new ConcurrentHashMap<>();
+    /* 발신 중지 시간 (ms) */
+    private volatile long backoff = DEFAULT_BACKOFF;
+    /* 최대 발신 중지 시간 (ms) */
+    private volatile long maxBackoff = DEFAULT_MAX_BACKOFF;
+
+    /**
+     * @fn private PeerHealth()
+     * @brief 상대방 상태 관리 객체를 초기화하는 함수
+     */
+    private PeerHealth() {
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public static PeerHealth getInstance()
+     * @brief 상대방 상태 관리 객체의 싱글턴 인스턴스를 반환하는 함수
+     * @return 상대방 상태 관리 객체
+     */
+    public static PeerHealth getInstance() {
+        return peerHealth;
+    }
+
+    /**
+     * @fn public void configure(long backoff, long maxBackoff)
+     * @brief 발신 중지 시간을 지정하는 함수
+     * @param backoff    발신 중지 시간(ms, 입력, 0 이면 중지하지 않음)
+     * @param maxBackoff 최대 발신 중지 시간(ms, 입력)
+     * @return 반환값 없음
+     */
+    public void configure(long backoff, long maxBackoff) {
+        if (backoff < 0 || maxBackoff < backoff) {
+            throw new IllegalArgumentException("Invalid peer backoff (backoff:" + backoff + ", max:" + maxBackoff + ")");
+        }
+
+        this.backoff = backoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * @fn public void onIOException(final String host, int port, final String transport)
+     * @brief 상대방으로의 I/O 오류를 기록하고 발신 중지 시간을 정하는 함수
+     * @param host      상대방 주소(입력, 읽기 전용)
+     * @param port      상대방 포트(입력)
+     * @param transport 전송 프로토콜(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void onIOException(final String host, int port, final String transport) {
+        if (backoff <= 0 || host == null) return;
+
+        String key = toKey(host, port, transport);
+        Peer peer = peers.get(key);
+        if (peer == null) {
+            Peer newPeer = new Peer();
+            peer = peers.putIfAbsent(key, newPeer);
+            if (peer == null) peer = newPeer;
+        }
+
+        long delay;
+        synchronized (peer) {
+            long now = System.nanoTime();
+            // 중지 중에 난 오류는 같은 오류로 보고, 중지가 끝난 후 대기 시간 안에 다시 나면 대기 시간을 늘린다.
+            if (now - peer.downUntil < 0) return;
+            boolean isRepeated = peer.failures > 0 && now - peer.downUntil < TimeUnit.MILLISECONDS.toNanos(peer.backoff);
+            peer.backoff = isRepeated ? Math.min(peer.backoff * 2, maxBackoff) : backoff;
+            peer.failures = isRepeated ? peer.failures + 1 : 1;
+            peer.downUntil = now + TimeUnit.MILLISECONDS.toNanos(peer.backoff);
+            delay = peer.backoff;
+        }
+        logger.warn("Peer is unavailable (Peer:{}, Backoff:{}ms)", key, delay);
+    }
+
+    /**
+     * @fn public boolean isAvailable(final String host, int port, final String transport)
+     * @brief 상대방으로 발신할 수 있는지 반환하는 함수
+     * @param host      상대방 주소(입력, 읽기 전용)
+     * @param port      상대방 포트(입력)
+     * @param transport 전송 프로토콜(입력, 읽기 전용)
+     * @return 발신 중지 시간이 아니면 true, 아니면 false 반환
+     */
+    public boolean isAvailable(final String host, int port, final String transport) {
+        SipCall.checkObjectNull(null, host);
+        if (peers.isEmpty()) return true;
+
+        Peer peer = peers.get(toKey(host, port, transport));
+        return peer == null || System.nanoTime() - peer.downUntil >= 0;
+    }
+
+    /**
+     * @fn public List<String> getUnavailablePeers()
+     * @brief 현재 발신을 중지한 상대방 목록을 반환하는 함수
+     * @return 상대방 목록 (주소:포트;전송)
+     */
+    public List<String> getUnavailablePeers() {
+        List<String> unavailablePeers = new ArrayList<>();
+        long now = System.nanoTime();
+        for (Map.Entry<String, Peer> entry : peers.entrySet()) {
+            if (now - entry.getValue().downUntil < 0) unavailablePeers.add(entry.getKey());
+        }
+        return unavailablePeers;
+    }
+
+    /**
+     * @fn public void clear()
+     * @brief 기록된 상대방 상태를 모두 삭제하는 함수
+     * @return 반환값 없음
+     */
+    public void clear() {
+        peers.clear();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    private static String toKey(final String host, int port, final String transport) {
+        return host + ":" + port + ";" + (transport == null ? "udp" : transport.toLowerCase());
+    }
+
+    /**
+     * @class private static class Peer
+     * @brief 상대방 하나의 오류 상태 (객체 잠금으로 변경)
+     */
+    private static class Peer {
+        /* 연속 오류 수 */
+        private int failures = 0;
+        /* 현재 발신 중지 시간 (ms) */
+        private long backoff = 0;
+        /* 발신 중지가 끝나는 시각 (System.nanoTime) */
+        private volatile long downUntil = System.nanoTime();
+    }
+}
@@ -0,0 +1,462 @@
+package com.signal.load;
+
+import com.signal.logic.CallEventListener;
+import com.signal.logic.RequestManager;
+import com.signal.logic.SipCall;
+import com.signal.metrics.LatencyHistogram;
+import com.signal.shard.SipShardGroup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sip.Dialog;
+import javax.sip.message.Request;
+import javax.sip.message.Response;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @class public class LoadGenerator implements CallEventListener
+ * @brief 지정한 부하 조건(LoadProfile)으로 Invite 를 발신하고 통화 유지 시간 후 Bye 로 종료하는 부하 발생 클래스
+ * 발신은 TICK_INTERVAL 마다 경과 시간만큼 누적한 발신량으로 결정하므로, 목표 CPS 가 타이머 주기보다 커도 고르게 분산된다.
+ * 최대 동시 호 수에 도달하면 발신하지 않고 제한 횟수로 집계한다.
+ * 성공/실패 횟수와 호 설정 시간(Invite 전송 ~ 200 OK 수신) 백분위를 REPORT_INTERVAL 마다, 그리고 종료 시 출력한다.
+ */
+public class LoadGenerator implements CallEventListener {
+    /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
+    private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class);
+    /* 발신 타이머 주기 (ms) */
+    private static final long TICK_INTERVAL = 10;
+    /* 통계 출력 주기 (ms) */
+    private static final long REPORT_INTERVAL = 1000;
+    /* 발신 종료 후 남은 호를 기다리는 추가 시간 (ms, Invite/Bye 트랜잭션 시간 초과 64*T1 이상) */
+    private static final long DRAIN_TIMEOUT = 40000;
+    /* 발신 측 샤드 (샤드를 나누지 않으면 SIP 호 정보 관리 객체 하나) */
+    private final SipShardGroup shardGroup;
+    /* 상대방 URI (user@host) */
+    private final String toURI;
+    /* 상대방 포트 (상대방 샤드 0) */
+    private final int toPort;
+    /* 상대방 샤드 간 포트 간격 */
+    private final int toPortStride;
+    /* 전송 프로토콜 */
+    private final String transport;
+    /* 부하 발생 조건 */
+    private final LoadProfile loadProfile;
+    /* 발신, Bye 예약, 통계 출력을 처리하는 타이머 쓰레드 풀 */
+    private final ScheduledThreadPoolExecutor scheduler;
+    /* 200 OK 를 기다리는 호의 Invite 전송 시각 (Call-ID 별, ns) */
+    private final ConcurrentHashMap<String, Long> inviteTimes = new ConcurrentHashMap<>();
+    /* 호 설정 시간 히스토그램 */
+    private final LatencyHistogram setupTime = new LatencyHistogram();
+    /* 현재 동시 호 수 (Invite 전송 ~ Bye 완료) */
+    private final AtomicInteger activeCalls = new AtomicInteger(0);
+    /* 발신 시도 횟수 */
+    private final AtomicLong attemptedCalls = new AtomicLong(0);
+    /* 200 OK 를 받은 호 수 */
+    private final AtomicLong answeredCalls = new AtomicLong(0);
+    /* 실패 응답 또는 시간 초과로 끝난 호 수 */
+    private final AtomicLong failedCalls = new AtomicLong(0);
+    /* 최대 동시 호 수 때문에 발신하지 않은 횟수 */
+    private final AtomicLong throttledCalls = new AtomicLong(0);
+    /* Bye 가 200 OK 로 끝난 호 수 */
+    private final AtomicLong completedCalls = new AtomicLong(0);
+    /* Bye 가 실패한 호 수 */
+    private final AtomicLong byeFailedCalls = new AtomicLong(0);
+    /* 모든 호가 끝났음을 알리는 래치 */
+    private final CountDownLatch finishLatch = new CountDownLatch(1);
+    /* 발신 타이머 쓰레드에서만 사용하는 누적 발신량 */
+    private double credit = 0;
+    /* 발신 시작 시각 (ms) */
+    private volatile long startTime = 0;
+    /* 발신 종료 시각 (ms, 0 이면 발신 중) */
+    private volatile long stopTime = 0;
+    /* 발신 타이머 */
+    private ScheduledFuture<?> tickFuture;
+    /* 통계 출력 타이머 */
+    private ScheduledFuture<?> reportFuture;
+
+    /**
+     * @fn public LoadGenerator(final SipCall sipCall, final String toURI, int toPort, final LoadProfile loadProfile)
+     * @brief 부하 발생 객체를 초기화하는 함수
+     * 발신 측 SipCall 의 호 결과를 이 객체로 전달받고, Bye 응답을 받아도 프로그램을 종료하지 않도록 설정한다.
+     * @param sipCall     발신 측 SIP 호 정보 관리 객체(입력, 읽기 전용)
+     * @param toURI       상대방 URI, user@host(입력, 읽기 전용)
+     * @param toPort      상대방 포트(입력)
+     * @param loadProfile 부하 발생 조건(입력, 읽기 전용)
+     */
+    public LoadGenerator(final SipCall sipCall, final String toURI, int toPort, final LoadProfile loadProfile) {
+        this(sipCall, toURI, toPort, "udp", loadProfile);
+    }
+
+    /**
+     * @fn public LoadGenerator(final SipCall sipCall, final String toURI, int toPort, final String transport, final LoadProfile loadProfile)
+     * @brief 지정한 전송 프로토콜로 발신하는 부하 발생 객체를 초기화하는 함수
+     * @param sipCall     발신 측 SIP 호 정보 관리 객체(입력, 읽기 전용)
+     * @param toURI       상대방 URI, user@host(입력, 읽기 전용)
+     * @param toPort      상대방 포트(입력)
+     * @param transport   전송 프로토콜, udp/tcp/tls(입력, 읽기 전용)
+     * @param loadProfile 부하 발생 조건(입력, 읽기 전용)
+     */
+    public LoadGenerator(final SipCall sipCall, final String toURI, int toPort, final String transport, final LoadProfile loadProfile) {
+        this(new SipShardGroup(sipCall), toURI, toPort, 0, transport, loadProfile);
+    }
+
+    /**
+     * @fn public LoadGenerator(final SipShardGroup shardGroup, final String toURI, int toPort, int toPortStride, final String transport, final LoadProfile loadProfile)
+     * @brief 여러 샤드로 발신하는 부하 발생 객체를 초기화하는 함수
+     * 호마다 Call-ID 를 먼저 만들고 Call-ID 를 소유하는 샤드 i 에서 상대방 포트 + i * toPortStride 로 보낸다.
+     * @param shardGroup   발신 측 샤드(입력, 읽기 전용)
+     * @param toURI        상대방 URI, user@host(입력, 읽기 전용)
+     * @param toPort       상대방 샤드 0 의 포트(입력)
+     * @param toPortStride 상대방 샤드 간 포트 간격(입력, 상대방이 샤드를 나누지 않으면 0)
+     * @param transport    전송 프로토콜, udp/tcp/tls(입력, 읽기 전용)
+     * @param loadProfile  부하 발생 조건(입력, 읽기 전용)
+     */
+    public LoadGenerator(final SipShardGroup shardGroup, final String toURI, int toPort, int toPortStride, final String transport, final LoadProfile loadProfile) {
+        SipCall.checkObjectNull(null, shardGroup, toURI, transport, loadProfile);
+        if (toPort <= 0) throw new IllegalArgumentException("Port <= 0");
+        if (toPortStride < 0) throw new IllegalArgumentException("Port stride < 0");
+
+        this.shardGroup = shardGroup;
+        this.toURI = toURI;
+        this.toPort = toPort;
+        this.toPortStride = toPortStride;
+        this.transport = transport;
+        this.loadProfile = loadProfile;
+        this.scheduler = new ScheduledThreadPoolExecutor(2, new ThreadFactory() {
+            private final AtomicInteger index = new AtomicInteger(0);
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                Thread thread = new Thread(runnable, "LoadGenerator-" + index.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.scheduler.setRemoveOnCancelPolicy(true);
+
+        shardGroup.setCallEventListener(this);
+        shardGroup.setExitOnByeResponse(false);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public synchronized void start()
+     * @brief 발신과 통계 출력을 시작하는 함수
+     * @return 반환값 없음
+     */
+    public synchronized void start() {
+        if (startTime != 0) throw new IllegalStateException("Load generator is already started");
+
+        logger.info("Load start ({}, To:{}:{};{}, Shards:{})", loadProfile, toURI, toPort, transport, shardGroup.getShardCount());
+        startTime = System.currentTimeMillis();
+
+        tickFuture = scheduler.scheduleAtFixedRate(new Runnable() {
+            private long lastTick = startTime;
+
+            @Override
+            public void run() {
+                long now = System.currentTimeMillis();
+                tick(now, now - lastTick);
+                lastTick = now;
+            }
+        }, 0, TICK_INTERVAL, TimeUnit.MILLISECONDS);
+
+        reportFuture = scheduler.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                report("Load");
+            }
+        }, REPORT_INTERVAL, REPORT_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @fn public boolean awaitCompletion(long timeout, final TimeUnit timeUnit)
+     * @brief 발신이 끝나고 남은 호가 모두 종료될 때까지 기다리는 함수
+     * @param timeout  최대 대기 시간(입력)
+     * @param timeUnit 시간 단위(입력, 읽기 전용)
+     * @return 모든 호가 종료되었으면 true, 시간 초과 시 false 반환
+     * @throws InterruptedException 대기 중 인터럽트 발생 시
+     */
+    public boolean awaitCompletion(long timeout, final TimeUnit timeUnit) throws InterruptedException {
+        return finishLatch.await(timeout, timeUnit);
+    }
+
+    /**
+     * @fn public long getMaxRunTime()
+     * @brief 시작부터 모든 호가 종료될 때까지 걸릴 수 있는 최대 시간을 반환하는 함수
+     * @return 최대 시간(ms)
+     */
+    public long getMaxRunTime() {
+        return loadProfile.getDurationSeconds() * 1000L + loadProfile.getHoldTime() + DRAIN_TIMEOUT;
+    }
+
+    /**
+     * @fn public synchronized void stop()
+     * @brief 발신을 중단하고 최종 통계를 출력하는 함수 (남은 호는 기다리지 않음)
+     * @return 반환값 없음
+     */
+    public synchronized void stop() {
+        if (tickFuture != null) tickFuture.cancel(false);
+        if (reportFuture != null) reportFuture.cancel(false);
+        scheduler.shutdownNow();
+
+        if (finishLatch.getCount() > 0) {
+            report("Load result");
+            logger.info("Setup time (ms) : p50={}, p90={}, p99={}, p99.9={}, max={}, mean={}",
+                    toMillis(setupTime.percentile(50)), toMillis(setupTime.percentile(90)),
+                    toMillis(setupTime.percentile(99)), toMillis(setupTime.percentile(99.9)),
+                    toMillis(setupTime.getMax()), toMillis(setupTime.getMean()));
+            finishLatch.countDown();
+        }
+    }
+
+    /**
+     * @fn public long getAttemptedCalls()
+     * @brief 발신 시도 횟수를 반환하는 함수
+     * @return 발신 시도 횟수
+     */
+    public long getAttemptedCalls() {
+        return attemptedCalls.get();
+    }
+
+    /**
+     * @fn public long getAnsweredCalls()
+     * @brief 200 OK 를 받은 호 수를 반환하는 함수
+     * @return 200 OK 를 받은 호 수
+     */
+    public long getAnsweredCalls() {
+        return answeredCalls.get();
+    }
+
+    /**
+     * @fn public long getFailedCalls()
+     * @brief 실패한 호 수를 반환하는 함수
+     * @return 실패한 호 수
+     */
+    public long getFailedCalls() {
+        return failedCalls.get();
+    }
+
+    /**
+     * @fn public long getThrottledCalls()
+     * @brief 최대 동시 호 수 때문에 발신하지 않은 횟수를 반환하는 함수
+     * @return 발신하지 않은 횟수
+     */
+    public long getThrottledCalls() {
+        return throttledCalls.get();
+    }
+
+    /**
+     * @fn public long getCompletedCalls()
+     * @brief Bye 가 200 OK 로 끝난 호 수를 반환하는 함수
+     * @return Bye 가 200 OK 로 끝난 호 수
+     */
+    public long getCompletedCalls() {
+        return completedCalls.get();
+    }
+
+    /**
+     * @fn public int getActiveCalls()
+     * @brief 현재 동시 호 수를 반환하는 함수
+     * @return 현재 동시 호 수
+     */
+    public int getActiveCalls() {
+        return activeCalls.get();
+    }
+
+    /**
+     * @fn public LatencyHistogram getSetupTime()
+     * @brief 호 설정 시간 히스토그램을 반환하는 함수
+     * @return 호 설정 시간 히스토그램
+     */
+    public LatencyHistogram getSetupTime() {
+        return setupTime;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Override Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public void onInviteAnswered(final String callId, final Dialog dialog)
+     * @brief 200 OK 를 받은 호의 설정 시간을 기록하고 통화 유지 시간 후 Bye 를 예약하는 함수
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @param dialog 설립된 다이얼로그(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    @Override
+    public void onInviteAnswered(final String callId, final Dialog dialog) {
+        // 응답이 Invite 전송 시각 등록보다 먼저 처리된 경우에는 설정 시간만 기록하지 않는다.
+        Long inviteTime = inviteTimes.remove(callId);
+        if (inviteTime != null) setupTime.record(System.nanoTime() - inviteTime);
+        answeredCalls.incrementAndGet();
+
+        try {
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    if (!RequestManager.getInstance().requestBye(shardGroup.getShard(callId), dialog)) {
+                        byeFailedCalls.incrementAndGet();
+                        finishCall();
+                    }
+                }
+            }, loadProfile.getHoldTime(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            // 부하 발생이 중단된 경우
+            byeFailedCalls.incrementAndGet();
+            finishCall();
+        }
+    }
+
+    /**
+     * @fn public void onInviteFailed(final String callId, int statusCode)
+     * @brief 실패 응답 또는 시간 초과로 끝난 호를 집계하는 함수
+     * @param callId     Call-ID(입력, 읽기 전용)
+     * @param statusCode 응답 코드(입력)
+     * @return 반환값 없음
+     */
+    @Override
+    public void onInviteFailed(final String callId, int statusCode) {
+        inviteTimes.remove(callId);
+        logger.debug("Invite is failed (Call-ID:{}, Code:{})", callId, statusCode);
+        failedCalls.incrementAndGet();
+        finishCall();
+    }
+
+    /**
+     * @fn public void onByeCompleted(final String callId, int statusCode)
+     * @brief Bye 결과를 집계하는 함수
+     * @param callId     Call-ID(입력, 읽기 전용)
+     * @param statusCode 응답 코드(입력)
+     * @return 반환값 없음
+     */
+    @Override
+    public void onByeCompleted(final String callId, int statusCode) {
+        if (statusCode == Response.OK) {
+            completedCalls.incrementAndGet();
+        } else {
+            logger.debug("Bye is failed (Call-ID:{}, Code:{})", callId, statusCode);
+            byeFailedCalls.incrementAndGet();
+        }
+        finishCall();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private void tick(long now, long elapsed)
+     * @brief 경과 시간만큼 발신량을 누적하고 누적량의 정수 부분만큼 Invite 를 보내는 함수 (발신 타이머 쓰레드 전용)
+     * @param now     현재 시각, ms(입력)
+     * @param elapsed 이전 주기부터의 경과 시간, ms(입력)
+     * @return 반환값 없음
+     */
+    private void tick(long now, long elapsed) {
+        double rate = loadProfile.getRateAt(now - startTime);
+        if (rate <= 0) {
+            if (stopTime == 0) {
+                stopTime = now;
+                tickFuture.cancel(false);
+                logger.info("Load sending is finished, waiting for {} active calls", activeCalls.get());
+                checkFinished();
+            }
+            return;
+        }
+
+        // 타이머가 밀려도 한 번에 몰아서 보내지 않도록 누적량을 한 주기의 최대 10 배로 제한한다.
+        credit = Math.min(credit + rate * elapsed / 1000.0, Math.max(1.0, rate * TICK_INTERVAL * 10 / 1000.0));
+        while (credit >= 1.0) {
+            credit -= 1.0;
+            sendInvite();
+        }
+    }
+
+    /**
+     * @fn private void sendInvite()
+     * @brief 최대 동시 호 수를 넘지 않으면 Invite 를 보내는 함수
+     * @return 반환값 없음
+     */
+    private void sendInvite() {
+        if (activeCalls.incrementAndGet() > loadProfile.getMaxConcurrentCalls()) {
+            activeCalls.decrementAndGet();
+            throttledCalls.incrementAndGet();
+            return;
+        }
+
+        attemptedCalls.incrementAndGet();
+        long inviteTime = System.nanoTime();
+
+        // Call-ID 를 소유하는 샤드에서 상대방의 같은 번호 샤드로 보낸다.
+        String callId = shardGroup.newCallId();
+        int shardIndex = shardGroup.getShardIndex(callId);
+        SipCall sipCall = shardGroup.getShard(shardIndex);
+        callId = RequestManager.getInstance().requestInvite(sipCall, toURI, toPort + shardIndex * toPortStride, transport, callId);
+        if (callId == null) {
+            failedCalls.incrementAndGet();
+            finishCall();
+            return;
+        }
+
+        // 최종 응답이 이미 처리되어 트랜잭션이 지워졌으면 등록하지 않는다. (등록 직후 지워진 경우도 다시 확인)
+        if (sipCall.getCallRegistry().searchTransaction(callId, Request.INVITE) != null) {
+            inviteTimes.put(callId, inviteTime);
+            if (sipCall.getCallRegistry().searchTransaction(callId, Request.INVITE) == null) inviteTimes.remove(callId);
+        }
+    }
+
+    /**
+     * @fn private void finishCall()
+     * @brief 호 하나가 끝났을 때 동시 호 수를 줄이고 종료 여부를 확인하는 함수
+     * @return 반환값 없음
+     */
+    private void finishCall() {
+        activeCalls.decrementAndGet();
+        checkFinished();
+    }
+
+    /**
+     * @fn private void checkFinished()
+     * @brief 발신이 끝나고 남은 호가 없으면 부하 발생을 종료하는 함수
+     * @return 반환값 없음
+     */
+    private void checkFinished() {
+        if (stopTime != 0 && activeCalls.get() <= 0) {
+            stop();
+        }
+    }
+
+    /**
+     * @fn private void report(final String title)
+     * @brief 현재까지의 통계를 출력하는 함수
+     * @param title 출력 제목(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    private void report(final String title) {
+        long elapsed = Math.max(1, (stopTime == 0 ? System.currentTimeMillis() : stopTime) - startTime);
+        logger.info("{} : elapsed={}s, attempted={} ({} cps), answered={}, failed={}, throttled={}, completed={}, byeFailed={}, active={}, setup p50={}ms p99={}ms",
+                title, elapsed / 1000, attemptedCalls.get(), String.format("%.1f", attemptedCalls.get() * 1000.0 / elapsed),
+                answeredCalls.get(), failedCalls.get(), throttledCalls.get(), completedCalls.get(), byeFailedCalls.get(),
+                activeCalls.get(), toMillis(setupTime.percentile(50)), toMillis(setupTime.percentile(99)));
+    }
+
+    /**
+     * @fn private static String toMillis(long nanos)
+     * @brief ns 값을 소수점 셋째 자리까지의 ms 문자열로 변환하는 함수
+     * @param nanos ns 값(입력)
+     * @return ms 문자열
+     */
+    private static String toMillis(long nanos) {
+        return String.format("%.3f", nanos / 1000000.0);
+    }
+}
@@ -0,0 +1,138 @@
+package com.signal.load;
+
+/**
+ * @class public class LoadProfile
+ * @brief 부하 발생 조건 (목표 CPS, 증가 방식, 시험 시간, 최대 동시 호 수, 통화 유지 시간)
+ */
+public class LoadProfile {
+    /* 목표 초당 호 시도 수 (CPS) */
+    private final double targetCps;
+    /* 목표 CPS 까지 증가하는 시간 (초) */
+    private final int rampUpSeconds;
+    /* 증가 방식 */
+    private final RampProfile rampProfile;
+    /* 발신 시간 (초, 증가 시간 포함) */
+    private final int durationSeconds;
+    /* 최대 동시 호 수 (초과 시 발신하지 않고 제한 횟수로 집계) */
+    private final int maxConcurrentCalls;
+    /* 200 OK 수신 후 Bye 를 보낼 때까지의 통화 유지 시간 (ms) */
+    private final long holdTime;
+
+    /**
+     * @fn public LoadProfile(double targetCps, int rampUpSeconds, final RampProfile rampProfile, int durationSeconds, int maxConcurrentCalls, long holdTime)
+     * @brief 부하 발생 조건을 초기화하는 함수
+     * @param targetCps          목표 CPS(입력)
+     * @param rampUpSeconds      증가 시간, 초(입력)
+     * @param rampProfile        증가 방식(입력, 읽기 전용)
+     * @param durationSeconds    발신 시간, 초(입력)
+     * @param maxConcurrentCalls 최대 동시 호 수(입력)
+     * @param holdTime           통화 유지 시간, ms(입력)
+     */
+    public LoadProfile(double targetCps, int rampUpSeconds, final RampProfile rampProfile, int durationSeconds, int maxConcurrentCalls, long holdTime) {
+        if (targetCps <= 0 || rampUpSeconds < 0 || durationSeconds <= 0 || maxConcurrentCalls <= 0 || holdTime < 0) {
+            throw new IllegalArgumentException("Invalid load profile");
+        }
+        if (rampProfile == null) throw new NullPointerException("Ramp profile is null");
+
+        this.targetCps = targetCps;
+        this.rampUpSeconds = rampUpSeconds;
+        this.rampProfile = rampProfile;
+        this.durationSeconds = durationSeconds;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.holdTime = holdTime;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public double getRateAt(long elapsedMillis)
+     * @brief 시작 후 경과 시간에 해당하는 발신 CPS 를 반환하는 함수
+     * @param elapsedMillis 시작 후 경과 시간, ms(입력)
+     * @return 발신 CPS, 발신 시간이 지났으면 0 반환
+     */
+    public double getRateAt(long elapsedMillis) {
+        if (elapsedMillis < 0 || elapsedMillis >= durationSeconds * 1000L) return 0;
+
+        long rampUpMillis = rampUpSeconds * 1000L;
+        if (rampUpMillis == 0 || elapsedMillis >= rampUpMillis) return targetCps;
+
+        switch (rampProfile) {
+            case LINEAR:
+                return targetCps * elapsedMillis / rampUpMillis;
+            case STEPPED: {
+                long step = elapsedMillis * RampProfile.STEP_COUNT / rampUpMillis + 1;
+                return targetCps * step / RampProfile.STEP_COUNT;
+            }
+            default:
+                return targetCps;
+        }
+    }
+
+    /**
+     * @fn public double getTargetCps()
+     * @brief 목표 CPS 를 반환하는 함수
+     * @return 목표 CPS
+     */
+    public double getTargetCps() {
+        return targetCps;
+    }
+
+    /**
+     * @fn public int getRampUpSeconds()
+     * @brief 증가 시간을 반환하는 함수
+     * @return 증가 시간(초)
+     */
+    public int getRampUpSeconds() {
+        return rampUpSeconds;
+    }
+
+    /**
+     * @fn public RampProfile getRampProfile()
+     * @brief 증가 방식을 반환하는 함수
+     * @return 증가 방식
+     */
+    public RampProfile getRampProfile() {
+        return rampProfile;
+    }
+
+    /**
+     * @fn public int getDurationSeconds()
+     * @brief 발신 시간을 반환하는 함수
+     * @return 발신 시간(초)
+     */
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    /**
+     * @fn public int getMaxConcurrentCalls()
+     * @brief 최대 동시 호 수를 반환하는 함수
+     * @return 최대 동시 호 수
+     */
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    /**
+     * @fn public long getHoldTime()
+     * @brief 통화 유지 시간을 반환하는 함수
+     * @return 통화 유지 시간(ms)
+     */
+    public long getHoldTime() {
+        return holdTime;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadProfile{" +
+                "targetCps=" + targetCps +
+                ", rampUpSeconds=" + rampUpSeconds +
+                ", rampProfile=" + rampProfile +
+                ", durationSeconds=" + durationSeconds +
+                ", maxConcurrentCalls=" + maxConcurrentCalls +
+                ", holdTime=" + holdTime +
+                '}';
+    }
+}
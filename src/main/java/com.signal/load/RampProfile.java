@@ -0,0 +1,17 @@
+package com.signal.load;
+
+/**
+ * @enum public enum RampProfile
+ * @brief 부하 시작 시 목표 CPS 까지 발신 속도를 올리는 방식
+ */
+public enum RampProfile {
+    /* 시작부터 목표 CPS 로 발신 */
+    IMMEDIATE,
+    /* 증가 시간 동안 0 에서 목표 CPS 까지 선형으로 증가 */
+    LINEAR,
+    /* 증가 시간을 STEP_COUNT 단계로 나누어 계단식으로 증가 */
+    STEPPED;
+
+    /* 계단식 증가 단계 수 */
+    public static final int STEP_COUNT = 5;
+}
@@ -0,0 +1,37 @@
+package com.signal.logic;
+
+import javax.sip.Dialog;
+
+/**
+ * @interface public interface CallEventListener
+ * @brief 발신 호(UAC)의 결과를 전달받는 인터페이스
+ * SipCall 의 SIP Stack 쓰레드에서 호출되므로 구현 시 오래 걸리는 작업을 하지 않는다.
+ */
+public interface CallEventListener {
+    /**
+     * @fn void onInviteAnswered(final String callId, final Dialog dialog)
+     * @brief 보낸 Invite 요청이 200 OK 로 응답되고 ACK 를 보낸 후 호출되는 함수
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @param dialog 설립된 다이얼로그(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    void onInviteAnswered(final String callId, final Dialog dialog);
+
+    /**
+     * @fn void onInviteFailed(final String callId, int statusCode)
+     * @brief 보낸 Invite 요청이 실패 응답(3xx~6xx)을 받거나 시간 초과(408)되었을 때 호출되는 함수
+     * @param callId     Call-ID(입력, 읽기 전용)
+     * @param statusCode 응답 코드(입력)
+     * @return 반환값 없음
+     */
+    void onInviteFailed(final String callId, int statusCode);
+
+    /**
+     * @fn void onByeCompleted(final String callId, int statusCode)
+     * @brief 보낸 Bye 요청이 최종 응답을 받았을 때 호출되는 함수
+     * @param callId     Call-ID(입력, 읽기 전용)
+     * @param statusCode 응답 코드(입력)
+     * @return 반환값 없음
+     */
+    void onByeCompleted(final String callId, int statusCode);
+}
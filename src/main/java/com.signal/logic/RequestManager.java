@@ -1,17 +1,31 @@
 package com.signal.logic;
 
+import com.signal.capture.CaptureWriter;
+import com.signal.cdr.CallDetailRecord;
+import com.signal.cdr.CdrRecorder;
+import com.signal.config.SignalConfig;
+import com.signal.id.IdGenerator;
+import com.signal.lifecycle.LifecycleManager;
+import com.signal.lifecycle.PeerHealth;
+import com.signal.metrics.SignalMetrics;
+import com.signal.registry.CallRegistry;
+import com.signal.resolve.ResolvedTarget;
+import com.signal.resolve.TargetResolver;
+import com.signal.session.SessionTimer;
+import com.signal.template.InviteTemplate;
+import com.signal.trace.MessageTracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.sip.ClientTransaction;
 import javax.sip.Dialog;
-import javax.sip.RequestEvent;
+import javax.sip.DialogState;
+import javax.sip.SipException;
 import javax.sip.SipProvider;
-import javax.sip.address.Address;
 import javax.sip.header.*;
 import javax.sip.message.Request;
-import java.util.ArrayList;
-import java.util.Random;
+import javax.sip.message.Response;
+import java.util.List;
 
 /**
  * @class public class RequestManager
@@ -20,8 +34,6 @@ import java.util.Random;
 public class RequestManager {
     /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
     private static final Logger logger = LoggerFactory.getLogger(RequestManager.class);
-    /* Tag 번호 생성 시 최대 문자열 길이 */
-    private static final int MAX_TAG_NUMBER = 256;
     /* 요청 관리 매니저(singleton) */
     private static RequestManager RequestManager = null;
 
@@ -48,63 +60,74 @@ public class RequestManager {
 
     /**
      * @fn public void requestInvite(final SipCall sipCall, final String toURI)
-     * @brief Invite 요청을 보내는 함수
+     * @brief 설정(signal.remote)의 상대방 포트와 전송 프로토콜로 Invite 요청을 보내는 함수
      * @param sipCall SIP 호 정보 관리 클래스(입력, 읽기 전용)
      * @param toURI   요청을 수신하는 URI(입력, 읽기 전용)
      * @return 반환값 없음
      */
     public void requestInvite(final SipCall sipCall, final String toURI) {
+        SignalConfig signalConfig = SignalConfig.getInstance();
+        requestInvite(sipCall, toURI, signalConfig.getRemotePort(), signalConfig.getRemoteTransport());
+    }
+
+    /**
+     * @fn public String requestInvite(final SipCall sipCall, final String toURI, int toPort)
+     * @brief 지정한 포트로 Invite 요청을 보내는 함수
+     * @param sipCall SIP 호 정보 관리 클래스(입력, 읽기 전용)
+     * @param toURI   요청을 수신하는 URI(입력, 읽기 전용)
+     * @param toPort  요청을 수신하는 포트(입력)
+     * @return 성공 시 보낸 요청의 Call-ID, 실패 시 null 반환
+     */
+    public String requestInvite(final SipCall sipCall, final String toURI, int toPort) {
+        return requestInvite(sipCall, toURI, toPort, "udp");
+    }
+
+    /**
+     * @fn public String requestInvite(final SipCall sipCall, final String toURI, int toPort, final String transport)
+     * @brief 지정한 포트와 전송 프로토콜로 Invite 요청을 보내는 함수
+     * @param sipCall   SIP 호 정보 관리 클래스(입력, 읽기 전용)
+     * @param toURI     요청을 수신하는 URI(입력, 읽기 전용)
+     * @param toPort    요청을 수신하는 포트(입력)
+     * @param transport 전송 프로토콜, udp/tcp/tls(입력, 읽기 전용)
+     * @return 성공 시 보낸 요청의 Call-ID, 실패 시 null 반환
+     */
+    public String requestInvite(final SipCall sipCall, final String toURI, int toPort, final String transport) {
+        return requestInvite(sipCall, toURI, toPort, transport, IdGenerator.getInstance().newCallId(sipCall.getIp()));
+    }
+
+    /**
+     * @fn public String requestInvite(final SipCall sipCall, final String toURI, int toPort, final String transport, final String callId)
+     * @brief 미리 만든 Call-ID 로 Invite 요청을 보내는 함수 (Call-ID 로 발신 샤드를 먼저 고르는 경우)
+     * 상대방 host 가 이름이면 TargetResolver 로 다음 홉을 해석하고(RFC 3263), 시도 순서대로 발신할 수 있는 첫 홉으로 보낸다.
+     * @param sipCall   SIP 호 정보 관리 클래스(입력, 읽기 전용)
+     * @param toURI     요청을 수신하는 URI(입력, 읽기 전용)
+     * @param toPort    요청을 수신하는 포트(입력, 0 이면 지정하지 않음)
+     * @param transport 전송 프로토콜, udp/tcp/tls(입력, 읽기 전용, 빈 문자열이면 지정하지 않음)
+     * @param callId    Call-ID(입력, 읽기 전용)
+     * @return 성공 시 보낸 요청의 Call-ID, 실패 시 null 반환 (정상 종료 중이거나, 해석할 수 없거나, 모든 홉이 I/O 오류로 발신을 멈춘 상대방이면 보내지 않음)
+     */
+    public String requestInvite(final SipCall sipCall, final String toURI, int toPort, final String transport, final String callId) {
+        if (!LifecycleManager.getInstance().isRunning()) {
+            logger.debug("Node is draining, fail to send Invite Request");
+            return null;
+        }
+        String toHost = toURI.substring(toURI.indexOf('@') + 1);
+        List<ResolvedTarget> targets = TargetResolver.getInstance().resolve(toHost, toPort, transport);
+        ResolvedTarget hop = selectTarget(sipCall, targets);
+        if (hop == null) {
+            if (targets.isEmpty()) logger.debug("Fail to resolve target ({}), fail to send Invite Request", toHost);
+            else logger.debug("Peer is unavailable ({}:{} -> {}), fail to send Invite Request", toHost, toPort, targets);
+            return null;
+        }
+
         try {
-            // Contact
-            Address contactAddress = sipCall.addressFactory.createAddress("sip:" + sipCall.getUserName() + "@" + sipCall.getIp() + ":" + sipCall.getPort());
-            SipCall.checkObjectNull("Fail to create Contact Header", contactAddress);
-            ContactHeader contactHeader = sipCall.headerFactory.createContactHeader(contactAddress);
-
-            // RequestURI
-            Address addressTo = sipCall.addressFactory.createAddress("sip:" + toURI + ":" + 5060);
-            SipCall.checkObjectNull("Fail to create new To Header", addressTo);
-            javax.sip.address.URI requestURI = addressTo.getURI();
-
-            // Via
-            ArrayList<ViaHeader> viaHeaders = new ArrayList<>();
-            ViaHeader viaHeader = sipCall.headerFactory.createViaHeader(sipCall.getIp(), sipCall.getPort(), "udp", null);
-            SipCall.checkObjectNull("Fail to create new Via Header", viaHeader);
-            viaHeaders.add(viaHeader);
-
-            // Max-forwards
-            MaxForwardsHeader maxForwardsHeader = sipCall.headerFactory.createMaxForwardsHeader(70);
-            SipCall.checkObjectNull("Fail to create new Max-Forwards Header", maxForwardsHeader);
-
-            // Call-ID
-            CallIdHeader callIdHeader = sipCall.getSipProvider().getNewCallId();
-            SipCall.checkObjectNull("Fail to create new Call-ID Header", callIdHeader);
-
-            // CSeq
-            CSeqHeader cSeqHeader = sipCall.headerFactory.createCSeqHeader(1L, "INVITE");
-            SipCall.checkObjectNull("Fail to create new CSeq Header", cSeqHeader);
-
-            // From
-            String tag = makeTag();
-            FromHeader fromHeader = sipCall.headerFactory.createFromHeader(contactAddress, tag);
-            SipCall.checkObjectNull("Fail to create new From Header", fromHeader);
-
-            // To
-            ToHeader toHeader = sipCall.headerFactory.createToHeader(addressTo, null);
-            SipCall.checkObjectNull("Fail to create new To Header", toHeader);
-
-            Request request = sipCall.messageFactory.createRequest(
-                    requestURI, "INVITE", callIdHeader, cSeqHeader, fromHeader,
-                    toHeader, viaHeaders, maxForwardsHeader);
-            SipCall.checkObjectNull("Fail to create new Request", request);
-
-            request.addHeader(contactHeader);
-
-            // SDP
-            String sdp = SipCall.makeSdp();
-            byte[] contents = sdp.getBytes();
-            ContentTypeHeader contentTypeHeader = sipCall.headerFactory.createContentTypeHeader("application", "sdp");
-            SipCall.checkObjectNull("Fail to create Content Type Header", contentTypeHeader);
-            request.setContent(contents, contentTypeHeader);
+            // 상대방/전송(/다음 홉)별 원본을 복제하고 Call-ID, Tag, Branch, SDP 만 채운다.
+            // IP 주소로 지정한 상대방은 Request-URI 로 바로 보낸다.
+            InviteTemplate inviteTemplate = TargetResolver.isAddressLiteral(toHost)
+                    ? sipCall.getInviteTemplate(toURI, hop.getPort(), hop.getTransport())
+                    : sipCall.getInviteTemplate(toURI, toPort, transport == null ? "" : transport, hop);
+            IdGenerator idGenerator = IdGenerator.getInstance();
+            Request request = inviteTemplate.newRequest(callId, idGenerator.newTag(), idGenerator.newBranchId(), SipCall.makeSdpBytes());
 
             // New Client Transaction
             ClientTransaction clientTransaction = sipCall.getSipProvider().getNewClientTransaction(request);
@@ -116,84 +139,163 @@ public class RequestManager {
 
             // Add Transaction
             logger.debug("Invite Call-ID : {}", dialog.getCallId());
-            SipCall.addTransactionHashMap(dialog.getCallId(), clientTransaction);
+            String callIdKey = CallRegistry.toKey(dialog.getCallId());
+            sipCall.getCallRegistry().addTransaction(callIdKey, clientTransaction);
 
-            // Send
+            // Send (응답이 먼저 도착해도 기록되도록 CDR 을 먼저 시작)
+            CdrRecorder.getInstance().onInvite(CallDetailRecord.Direction.ORIGINATING, request);
+            SignalMetrics.getInstance().onRequestSent(request, clientTransaction);
             clientTransaction.sendRequest();
-            logger.debug("@ Request :\n{}", request);
-
+            MessageTracer.getInstance().trace(MessageTracer.Direction.SEND, request);
+            CaptureWriter.getInstance().capture(MessageTracer.Direction.SEND, request, clientTransaction);
+            return callIdKey;
         } catch (Exception e) {
             e.printStackTrace();
+            CdrRecorder.getInstance().onFailure(CallDetailRecord.Direction.ORIGINATING, callId, Response.SERVICE_UNAVAILABLE);
         }
+        return null;
     }
 
     /**
-     * @fn public void requestBye(final RequestEvent requestEvent)
+     * @fn public boolean requestBye(final SipCall sipCall, final Dialog dialog)
      * @brief Bye 요청을 보내는 함수
-     * @param requestEvent 요청 이벤트(입력, 읽기 전용)
-     * @return 반환값 없음
+     * @param sipCall SIP 호 정보 관리 클래스(입력, 읽기 전용)
+     * @param dialog  종료할 다이얼로그(입력, 읽기 전용)
+     * @return 성공 시 true, 실패 시 false 반환
      */
-    public void requestBye(final RequestEvent requestEvent) {
-        SipCall.checkObjectNull(null, requestEvent);
+    public boolean requestBye(final SipCall sipCall, final Dialog dialog) {
+        SipCall.checkObjectNull(null, dialog);
 
         try {
-            Dialog dialog = requestEvent.getDialog();
             CallIdHeader callIdHeader = dialog.getCallId();
 
             // Find Dialog
-            if (SipCall.findDialogHashMap(callIdHeader)) { // Call/Transaction Does Not Exist
+            if (!sipCall.getCallRegistry().findDialog(CallRegistry.toKey(callIdHeader))) { // Call/Transaction Does Not Exist
                 logger.debug("Call/Transaction Does Not Exist, fail to send Bye Request");
-                return;
+                return false;
             }
 
-            SipProvider provider = (SipProvider) requestEvent.getSource();
-
             // New Bye Request
             Request byeRequest = dialog.createRequest(Request.BYE);
             SipCall.checkObjectNull("Fail to create Bye", byeRequest);
 
-            // New Client Transaction
-            ClientTransaction clientTransaction = provider.getNewClientTransaction(byeRequest);
-            SipCall.checkObjectNull("Fail to create Client Transaction", clientTransaction);
-            dialog.sendRequest(clientTransaction);
-            SipCall.addTransactionHashMap(dialog.getCallId(), clientTransaction);
+            // Send
+            // 응답이 먼저 도착해도 트랜잭션이 남지 않도록 보내기 전에 등록한다.
+            sendInDialog(sipCall, dialog, byeRequest, CallRegistry.toKey(callIdHeader));
+            CdrRecorder.getInstance().onBye(dialog, true);
 
             logger.debug("Bye Call-ID : {}", callIdHeader);
-            logger.debug("@ Request : \n{}", byeRequest);
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * @fn public boolean requestExpiredBye(final SipCall sipCall, final Dialog dialog)
+     * @brief 만료되어 호 등록에서 삭제된 다이얼로그에 Bye 요청을 보내는 함수 (최선 노력, 트랜잭션은 등록하지 않음)
+     * @param sipCall SIP 호 정보 관리 클래스(입력, 읽기 전용)
+     * @param dialog  만료된 다이얼로그(입력, 읽기 전용)
+     * @return 성공 시 true, 실패 시 false 반환
+     */
+    public boolean requestExpiredBye(final SipCall sipCall, final Dialog dialog) {
+        SipCall.checkObjectNull(null, sipCall, dialog);
+
+        // 확정되지 않았거나 이미 종료된 다이얼로그는 Bye 를 보낼 수 없다.
+        if (dialog.getState() != DialogState.CONFIRMED) return false;
+
+        try {
+            Request byeRequest = dialog.createRequest(Request.BYE);
+            SipCall.checkObjectNull("Fail to create Bye", byeRequest);
+            sendInDialog(sipCall, dialog, byeRequest, null);
+
+            logger.debug("Bye (Expired) Call-ID : {}", dialog.getCallId());
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * @fn public boolean requestUpdate(final SipCall sipCall, final Dialog dialog, final SessionTimer.Session session)
+     * @brief 세션 갱신용 UPDATE 요청을 보내는 함수 (Session-Expires 에 세션 간격과 갱신 측을 넣음)
+     * @param sipCall SIP 호 정보 관리 클래스(입력, 읽기 전용)
+     * @param dialog  갱신할 다이얼로그(입력, 읽기 전용)
+     * @param session 세션(입력, 읽기 전용)
+     * @return 성공 시 true, 실패 시 false 반환
+     */
+    public boolean requestUpdate(final SipCall sipCall, final Dialog dialog, final SessionTimer.Session session) {
+        SipCall.checkObjectNull(null, sipCall, dialog, session);
+
+        if (dialog.getState() != DialogState.CONFIRMED) return false;
+
+        try {
+            // New Update Request
+            Request updateRequest = dialog.createRequest(Request.UPDATE);
+            SipCall.checkObjectNull("Fail to create Update", updateRequest);
+            SessionTimer.addSessionHeaders(updateRequest, sipCall.headerFactory, session);
+
+            // Send
+            sendInDialog(sipCall, dialog, updateRequest, null);
+
+            logger.debug("Update Call-ID : {}", dialog.getCallId());
+            return true;
         } catch (Exception e) {
             e.printStackTrace();
         }
+        return false;
     }
 
     ////////////////////////////////////////////////////////////////////////////////////////
-    /// @ Static Function
+    /// @ Private Functions
     ////////////////////////////////////////////////////////////////////////////////////////
 
     /**
-     * @fn private String makeTag()
-     * @brief Tag 문자열을 생성하는 함수
-     * @return Tag 문자열(최대 길이:MAX_TAG_NUMBER)
+     * @fn private static ResolvedTarget selectTarget(final SipCall sipCall, final List<ResolvedTarget> targets)
+     * @brief 해석한 홉 중 시도 순서대로 발신할 수 있는 첫 홉을 고르는 함수
+     * 수신하지 않는 전송의 홉과 I/O 오류로 발신을 멈춘 홉(PeerHealth)은 건너뛴다.
+     * @param sipCall SIP 호 정보 관리 클래스(입력, 읽기 전용)
+     * @param targets 해석한 홉 목록(입력, 읽기 전용)
+     * @return 발신할 홉, 없으면 null
      */
-    private String makeTag() {
-        StringBuilder tag = new StringBuilder();
-        Random random = new Random();
-
-        int tagNumber = random.nextInt(MAX_TAG_NUMBER);
-
-        for (int i = 0; i < tagNumber; i++) {
-            switch (random.nextInt(3)) {
-                case 0: // a-z
-                    tag.append((char) (random.nextInt(26) + 97));
-                    break;
-                case 1: // A-Z
-                    tag.append((char) (random.nextInt(26) + 65));
-                    break;
-                case 2: // 0-9
-                    tag.append((random.nextInt(10)));
-                    break;
-            }
+    private static ResolvedTarget selectTarget(final SipCall sipCall, final List<ResolvedTarget> targets) {
+        PeerHealth peerHealth = PeerHealth.getInstance();
+        for (ResolvedTarget target : targets) {
+            if (!sipCall.isListening(target.getTransport())) continue;
+            if (peerHealth.isAvailable(target.getHost(), target.getPort(), target.getTransport())) return target;
+        }
+        return null;
+    }
+
+    /**
+     * @fn private ClientTransaction sendInDialog(final SipCall sipCall, final Dialog dialog, final Request request, final String callId)
+     * @brief 다이얼로그 안의 요청을 새 클라이언트 트랜잭션으로 보내고 송신 통계, 추적, 캡처를 기록하는 함수
+     * @param sipCall SIP 호 정보 관리 클래스(입력, 읽기 전용)
+     * @param dialog  다이얼로그(입력, 읽기 전용)
+     * @param request 요청(입력, 읽기 전용)
+     * @param callId  트랜잭션을 등록할 Call-ID, null 이면 등록하지 않음(입력, 읽기 전용)
+     * @return 클라이언트 트랜잭션
+     * @throws SipException 전송 실패 시
+     */
+    private ClientTransaction sendInDialog(final SipCall sipCall, final Dialog dialog, final Request request, final String callId) throws SipException {
+        SipProvider provider = sipCall.getSipProvider();
+
+        // New Client Transaction
+        ClientTransaction clientTransaction = provider.getNewClientTransaction(request);
+        SipCall.checkObjectNull("Fail to create Client Transaction", clientTransaction);
+        if (callId != null) sipCall.getCallRegistry().addTransaction(callId, clientTransaction);
+        SignalMetrics.getInstance().onRequestSent(request, clientTransaction);
+        try {
+            dialog.sendRequest(clientTransaction);
+        } catch (SipException e) {
+            if (callId != null) sipCall.getCallRegistry().removeTransaction(callId, clientTransaction);
+            throw e;
         }
 
-        return tag.toString();
+        MessageTracer.getInstance().trace(MessageTracer.Direction.SEND, request);
+        CaptureWriter.getInstance().capture(MessageTracer.Direction.SEND, request, clientTransaction);
+        return clientTransaction;
     }
 }
@@ -1,5 +1,18 @@
 package com.signal.logic;
 
+import com.signal.answer.InviteAnswerPipeline;
+import com.signal.capture.CaptureWriter;
+import com.signal.cdr.CallDetailRecord;
+import com.signal.cdr.CdrRecorder;
+import com.signal.control.AdmissionController;
+import com.signal.control.OverloadController;
+import com.signal.handler.RequestHandlerRegistry;
+import com.signal.id.IdGenerator;
+import com.signal.metrics.SignalMetrics;
+import com.signal.registry.CallRegistry;
+import com.signal.session.SessionTimer;
+import com.signal.snapshot.DialogSnapshot;
+import com.signal.trace.MessageTracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -10,9 +23,13 @@ import javax.sip.header.CallIdHeader;
 import javax.sip.header.ContactHeader;
 import javax.sip.header.ContentTypeHeader;
 import javax.sip.header.HeaderFactory;
+import javax.sip.header.RetryAfterHeader;
+import javax.sip.header.ToHeader;
+import javax.sip.header.ViaHeader;
 import javax.sip.message.MessageFactory;
 import javax.sip.message.Request;
 import javax.sip.message.Response;
+import java.util.List;
 
 /**
  * @class public class ResponseManager
@@ -62,6 +79,7 @@ public class ResponseManager {
         SipCall.checkObjectNull(null, requestEvent, serverTransaction, messageFactory, addressFactory, headerFactory, sipCall);
 
         Request request = requestEvent.getRequest();
+        CdrRecorder.getInstance().onInvite(CallDetailRecord.Direction.TERMINATING, request);
         try {
             // Get Or New Dialog
             Dialog dialog = SipCall.getDialogFromRequestEvent(requestEvent, serverTransaction);
@@ -69,36 +87,41 @@ public class ResponseManager {
 
             // Get Call-ID Header from New Dialog
             CallIdHeader callIdHeader = dialog.getCallId();
+            String callId = CallRegistry.toKey(callIdHeader);
+
+            // Session-Expires 가 Min-SE 보다 작으면 422 Session Interval Too Small
+            SessionTimer sessionTimer = sipCall.getSessionTimer();
+            int minSE = sessionTimer.checkInterval(request);
+            if (minSE > 0) {
+                logger.debug("422 Session Interval Too Small Response is sent");
+                respondWith422(serverTransaction, messageFactory, headerFactory, minSE);
+                return;
+            }
 
-            // 기존에 Invite 가 존재하면 새로운 Invite 에 대해 491 Request Pending
-            if (SipCall.searchRequestFromTransactionHashMap(callIdHeader, Request.INVITE) != null) {
+            // 기존에 Invite 가 존재하면 새로운 Invite 에 대해 491 Request Pending (검사와 추가를 원자적으로 처리)
+            CallRegistry callRegistry = sipCall.getCallRegistry();
+            if (!callRegistry.addTransactionIfAbsent(callId, serverTransaction)) {
                 logger.debug("491 Request Pending Response is sent");
                 ResponseManager.getInstance().respondWith4xx(serverTransaction, messageFactory, Response.REQUEST_PENDING);
                 return;
             }
 
-            // 기존에 Session 이 진행 중이면 새로운 Invite 에 대해 486 Busy Here -> Dialog 한 번에 하나만 허용
-            if (SipCall.getDialogHashMap().size() > 0) {
-                logger.debug("486 Busy Here Response is sent");
-                ResponseManager.getInstance().respondWith4xx(serverTransaction, messageFactory, Response.BUSY_HERE);
+            // 세션 간격과 갱신 측을 정해서 다이얼로그에 저장 (200 OK 의 Session-Expires, ACK 수신 시 세션 시작)
+            // 대기열에서 나중에 수락되는 호도 같은 협상 결과로 응답하도록 수락 제어 전에 정한다.
+            dialog.setApplicationData(sessionTimer.negotiate(request, SessionTimer.REFRESHER_UAC));
+
+            // 수락 제어, 최대 동시 호 수에 도달하면 정책에 따라 486, 503 또는 대기열로 처리
+            AdmissionController admissionController = AdmissionController.getInstance();
+            if (!admissionController.tryAdmit(callId)) {
+                rejectOrQueueInvite(request, serverTransaction, dialog, callId, messageFactory, headerFactory, addressFactory, callRegistry);
                 return;
             }
 
-            // Add Transaction
-            SipCall.addTransactionHashMap(callIdHeader, serverTransaction);
-
             // 100 Trying
             ResponseManager.getInstance().respondWith1xxToInvite(request, serverTransaction, messageFactory, Response.TRYING);
 
-            // 180 Ringing
-            ResponseManager.getInstance().respondWith1xxToInvite(request, serverTransaction, messageFactory, Response.RINGING);
-
-            // 200 OK
-            ResponseManager.getInstance().respondWith200ToInvite(request, serverTransaction, messageFactory, headerFactory, addressFactory);
-
-            // Add Dialog & Remove Transaction
-            SipCall.removeTransactionHashMap(callIdHeader);
-            SipCall.addDialogHashMap(callIdHeader, dialog);
+            // 180 Ringing & 200 OK (비동기)
+            answerInvite(request, serverTransaction, dialog, callId, messageFactory, headerFactory, addressFactory, callRegistry);
 
             logger.debug("Invite Call-ID : {}", callIdHeader);
         } catch (Exception e) {
@@ -107,40 +130,100 @@ public class ResponseManager {
     }
 
     /**
-     * @fn public void respondToBye(final Request request, final ServerTransaction serverTransaction, final MessageFactory messageFactory)
+     * @fn public void respondToBye(final Request request, final ServerTransaction serverTransaction, final MessageFactory messageFactory, final SipCall sipCall)
      * @brief Bye 요청에 응답하는 함수
+     * 다이얼로그가 없어도 재시작 전에 설립된 다이얼로그(스냅샷에서 되살린 다이얼로그)의 Bye 이면 200 OK 로 응답한다.
      * @param request           요청(입력, 읽기 전용)
      * @param serverTransaction 서버 트랜잭션(입력, 읽기 전용)
      * @param messageFactory    SIP 메시지 인터페이스(입력, 읽기 전용)
+     * @param sipCall           SIP 호 관리 객체(입력, 읽기 전용)
      * @return 반환값 없음
      */
-    public void respondToBye(final Request request, final ServerTransaction serverTransaction, final MessageFactory messageFactory) {
-        SipCall.checkObjectNull(null, request, serverTransaction, messageFactory);
+    public void respondToBye(final Request request, final ServerTransaction serverTransaction, final MessageFactory messageFactory, final SipCall sipCall) {
+        SipCall.checkObjectNull(null, request, serverTransaction, messageFactory, sipCall);
 
+        CallRegistry callRegistry = sipCall.getCallRegistry();
         try {
-            CallIdHeader callIdHeader = serverTransaction.getDialog().getCallId();
+            // 다이얼로그 밖의 Bye (재시작 전의 호 등) 는 서버 트랜잭션에 다이얼로그가 없으므로 요청의 Call-ID 를 사용한다.
+            CallIdHeader callIdHeader = (CallIdHeader) request.getHeader(CallIdHeader.NAME);
+            String callId = CallRegistry.toKey(callIdHeader);
             logger.debug("Bye Call-ID : {}", callIdHeader);
 
             // Find Dialog & New Response
             Response response;
-            if (SipCall.findDialogHashMap(callIdHeader)) { // 481 Call/Transaction Does Not Exist
+            DialogSnapshot dialogSnapshot = sipCall.getDialogSnapshot();
+            if (callRegistry.findDialog(callId)) { // 200 OK
+                response = messageFactory.createResponse(Response.OK, request);
+            } else if (dialogSnapshot != null && dialogSnapshot.removeRestored(request)) { // 200 OK (재시작 전의 호)
+                response = messageFactory.createResponse(Response.OK, request);
+                logger.debug("Bye for restored dialog (Call-ID:{})", callId);
+            } else { // 481 Call/Transaction Does Not Exist
                 response = messageFactory.createResponse(Response.CALL_OR_TRANSACTION_DOES_NOT_EXIST, request);
                 logger.debug("Call/Transaction Does Not Exist");
-            } else { // 200 OK
-                response = messageFactory.createResponse(Response.OK, request);
             }
             SipCall.checkObjectNull("Fail to create new response", response);
 
             // Add Transaction
-            SipCall.addTransactionHashMap(callIdHeader, serverTransaction);
+            callRegistry.addTransaction(callId, serverTransaction);
 
             // Send
-            serverTransaction.sendResponse(response);
+            sendResponse(serverTransaction, response);
 
             // Remove Transaction & Dialog
-            SipCall.removeTransactionHashMap(callIdHeader);
-            SipCall.removeDialogHashMap(callIdHeader);
-            logger.debug("@ Response : \n{}", response);
+            callRegistry.removeTransaction(callId, serverTransaction);
+            callRegistry.removeDialog(callId);
+            AdmissionController.getInstance().release(callId);
+            CdrRecorder.getInstance().onBye(serverTransaction.getDialog(), false);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @fn public void respondToUpdate(final Request request, final ServerTransaction serverTransaction, final MessageFactory messageFactory, final HeaderFactory headerFactory, final SipCall sipCall)
+     * @brief 세션 갱신용 Update 요청에 응답하는 함수
+     * 다이얼로그가 없으면 481, Session-Expires 가 Min-SE 보다 작으면 422, 아니면 200 OK 로 응답하고 세션 타이머를 다시 예약한다.
+     * @param request           요청(입력, 읽기 전용)
+     * @param serverTransaction 서버 트랜잭션(입력, 읽기 전용)
+     * @param messageFactory    SIP 메시지 인터페이스(입력, 읽기 전용)
+     * @param headerFactory     SIP 메시지 헤더 관리 인터페이스(입력, 읽기 전용)
+     * @param sipCall           SIP 호 관리 객체(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void respondToUpdate(final Request request, final ServerTransaction serverTransaction, final MessageFactory messageFactory, final HeaderFactory headerFactory, final SipCall sipCall) {
+        SipCall.checkObjectNull(null, request, serverTransaction, messageFactory, headerFactory, sipCall);
+
+        try {
+            Dialog dialog = serverTransaction.getDialog();
+            String callId = dialog == null ? null : CallRegistry.toKey(dialog.getCallId());
+            logger.debug("Update Call-ID : {}", callId);
+
+            // Find Dialog, 481 Call/Transaction Does Not Exist
+            if (callId == null || !sipCall.getCallRegistry().findDialog(callId)) {
+                logger.debug("Call/Transaction Does Not Exist");
+                respondWith4xx(serverTransaction, messageFactory, Response.CALL_OR_TRANSACTION_DOES_NOT_EXIST);
+                return;
+            }
+
+            // 422 Session Interval Too Small
+            SessionTimer sessionTimer = sipCall.getSessionTimer();
+            int minSE = sessionTimer.checkInterval(request);
+            if (minSE > 0) {
+                respondWith422(serverTransaction, messageFactory, headerFactory, minSE);
+                return;
+            }
+
+            // 200 OK, 보낸 쪽이 계속 갱신한다. (요청에 갱신 측이 없을 때)
+            SessionTimer.Session session = sessionTimer.negotiate(request, dialog.isServer() ? SessionTimer.REFRESHER_UAC : SessionTimer.REFRESHER_UAS);
+            Response response = messageFactory.createResponse(Response.OK, request);
+            SipCall.checkObjectNull("Fail to create new response", response);
+            SessionTimer.addSessionHeaders(response, headerFactory, session);
+
+            // Send
+            sendResponse(serverTransaction, response);
+
+            // 세션 타이머 다시 예약
+            sessionTimer.refreshed(callId, dialog, session);
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -172,8 +255,7 @@ public class ResponseManager {
             SipCall.checkObjectNull("Fail to create new response", response);
 
             // Send
-            serverTransaction.sendResponse(response);
-            logger.debug("@ Response : \n{}", response);
+            sendResponse(serverTransaction, response);
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -199,31 +281,32 @@ public class ResponseManager {
             SipCall.checkObjectNull("Fail to create new response", response);
 
             // Send
-            serverTransaction.sendResponse(response);
-            logger.debug("@ Response : \n{}", response);
+            sendResponse(serverTransaction, response);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
     /**
-     * @fn public void respondToCancel(final Request request, final ServerTransaction serverTransaction, final MessageFactory messageFactory)
+     * @fn public void respondToCancel(final Request request, final ServerTransaction serverTransaction, final MessageFactory messageFactory, final SipCall sipCall)
      * @brief Cancel 요청을 처리하는 함수
      * @param request 요청(Cancel, 입력, 읽기 전용)
      * @param serverTransaction 서버 트랜잭션(입력, 읽기 전용)
      * @param messageFactory SIP 메시지 인터페이스(입력, 읽기 전용)
+     * @param sipCall SIP 호 관리 객체(입력, 읽기 전용)
      * @return 반환값 없음
      */
-    public void respondToCancel(final Request request, final ServerTransaction serverTransaction, final MessageFactory messageFactory) {
-        SipCall.checkObjectNull(null, request, serverTransaction, messageFactory);
+    public void respondToCancel(final Request request, final ServerTransaction serverTransaction, final MessageFactory messageFactory, final SipCall sipCall) {
+        SipCall.checkObjectNull(null, request, serverTransaction, messageFactory, sipCall);
 
-        CallIdHeader callIdHeader = serverTransaction.getDialog().getCallId();
+        CallIdHeader callIdHeader = (CallIdHeader) request.getHeader(CallIdHeader.NAME);
         SipCall.checkObjectNull(null, callIdHeader);
 
-        // 기존에 Invite 가 존재하면 존재하는 Invite 에 대해 487 Request Terminated
-        Request oldRequest;
-        if ((oldRequest = SipCall.searchRequestFromTransactionHashMap(callIdHeader, Request.INVITE)) != null) {
-            ResponseManager.getInstance().respondWith487ToInviteByCancel(oldRequest, callIdHeader, messageFactory);
+        // Cancel 과 branch (없으면 CSeq 번호) 가 같은 Invite 가 아직 200 OK 로 응답하지 않았으면 그 Invite 에 대해 487 Request Terminated
+        String callId = CallRegistry.toKey(callIdHeader);
+        Transaction inviteTransaction = sipCall.getCallRegistry().searchCanceledTransaction(request);
+        if (inviteTransaction instanceof ServerTransaction && InviteAnswerPipeline.getInstance().cancel(callId)) {
+            ResponseManager.getInstance().respondWith487ToInviteByCancel((ServerTransaction) inviteTransaction, callIdHeader, messageFactory, sipCall.getCallRegistry());
         }
         // 없으면 존재하지 않으면 Cancel 에 대해 481 Call/Transaction Does Not Exist
         else {
@@ -236,35 +319,34 @@ public class ResponseManager {
     }
 
     /**
-     * @fn private void respondWith487ToInviteByCancel(final Request request, final CallIdHeader callIdHeader, final MessageFactory messageFactory)
+     * @fn private void respondWith487ToInviteByCancel(final ServerTransaction transaction, final CallIdHeader callIdHeader, final MessageFactory messageFactory, final CallRegistry callRegistry)
      * @brief Cancel 요청에 의해 Invite 요청을 487 응답으로 처리하는 함수
-     * @param request        Invite 요청(입력, 읽기 전용)
+     * @param transaction    Cancel 이 취소하는 Invite 서버 트랜잭션(입력, 읽기 전용)
      * @param callIdHeader   현재 진행 중인 다이얼로그의 Call-ID(입력, 읽기 전용)
      * @param messageFactory SIP 메시지 인터페이스(입력, 읽기 전용)
+     * @param callRegistry   호 등록 관리 객체(입력, 읽기 전용)
      * @return 반환값 없음
      */
-    private void respondWith487ToInviteByCancel(final Request request, final CallIdHeader callIdHeader, final MessageFactory messageFactory) {
-        SipCall.checkObjectNull(null, request, callIdHeader, messageFactory);
+    private void respondWith487ToInviteByCancel(final ServerTransaction transaction, final CallIdHeader callIdHeader, final MessageFactory messageFactory, final CallRegistry callRegistry) {
+        SipCall.checkObjectNull(null, transaction, callIdHeader, messageFactory, callRegistry);
 
         try {
-            // 같은 Call-ID 를 가진 Transaction 을 찾는다.
-            // Search Transaction which is equal to Call-ID
-            Transaction transaction = SipCall.searchTransactionHashMap(callIdHeader);
+            String callId = CallRegistry.toKey(callIdHeader);
 
             // New 487 Request Terminated Response
-            Response response = messageFactory.createResponse(Response.REQUEST_TERMINATED, request);
+            Response response = messageFactory.createResponse(Response.REQUEST_TERMINATED, transaction.getRequest());
 
             // Send
-            ServerTransaction serverTransaction = (ServerTransaction) transaction;
-            serverTransaction.sendResponse(response);
-            logger.debug("@ Response : \n{}", response);
+            sendResponse(transaction, response);
 
             // Terminate Transaction (Invite)
             transaction.terminate();
 
             // Remove Transaction
             logger.debug("Remove Transaction by Cancel, Call-ID : {}", callIdHeader);
-            SipCall.removeDialogHashMap(callIdHeader);
+            callRegistry.removeTransaction(callId, transaction);
+            callRegistry.removeDialog(callId);
+            AdmissionController.getInstance().release(callId);
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -289,8 +371,7 @@ public class ResponseManager {
             Response response = messageFactory.createResponse(responseType, request);
 
             // Send
-            serverTransaction.sendResponse(response);
-            logger.debug("@ Response : \n{}", response);
+            sendResponse(serverTransaction, response);
 
             // Terminate Transaction (Invite)
             serverTransaction.terminate();
@@ -299,12 +380,196 @@ public class ResponseManager {
         }
     }
 
+    /**
+     * @fn public void respondWith5xx(final ServerTransaction serverTransaction, final MessageFactory messageFactory, final HeaderFactory headerFactory, int responseType, int retryAfter)
+     * @brief 지정한 요청을 5xx 응답으로 처리하는 함수
+     * @param serverTransaction 서버 트랜잭션(입력, 읽기 전용)
+     * @param messageFactory    SIP 메시지 인터페이스(입력, 읽기 전용)
+     * @param headerFactory     SIP 메시지 헤더 관리 인터페이스(입력, 읽기 전용)
+     * @param responseType      응답 유형(입력, 읽기 전용)
+     * @param retryAfter        Retry-After 값, 초 (입력, 0 보다 작으면 헤더를 추가하지 않음)
+     * @return 반환값 없음
+     */
+    public void respondWith5xx(final ServerTransaction serverTransaction, final MessageFactory messageFactory, final HeaderFactory headerFactory, int responseType, int retryAfter) {
+        SipCall.checkObjectNull(null, serverTransaction, messageFactory, headerFactory);
+
+        try {
+            // Get Server Transaction & Request
+            Request request = serverTransaction.getRequest();
+
+            // New Response
+            Response response = messageFactory.createResponse(responseType, request);
+            SipCall.checkObjectNull("Fail to create new response", response);
+
+            // Retry-After
+            if (retryAfter >= 0) {
+                RetryAfterHeader retryAfterHeader = headerFactory.createRetryAfterHeader(retryAfter);
+                response.addHeader(retryAfterHeader);
+            }
+
+            // Send
+            sendResponse(serverTransaction, response);
+
+            // Terminate Transaction
+            serverTransaction.terminate();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @fn public void respondWith422(final ServerTransaction serverTransaction, final MessageFactory messageFactory, final HeaderFactory headerFactory, int minSE)
+     * @brief 지정한 요청을 Min-SE 헤더를 포함한 422 Session Interval Too Small 응답으로 처리하는 함수
+     * @param serverTransaction 서버 트랜잭션(입력, 읽기 전용)
+     * @param messageFactory    SIP 메시지 인터페이스(입력, 읽기 전용)
+     * @param headerFactory     SIP 메시지 헤더 관리 인터페이스(입력, 읽기 전용)
+     * @param minSE             허용하는 최소 Session-Expires(초, 입력)
+     * @return 반환값 없음
+     */
+    public void respondWith422(final ServerTransaction serverTransaction, final MessageFactory messageFactory, final HeaderFactory headerFactory, int minSE) {
+        SipCall.checkObjectNull(null, serverTransaction, messageFactory, headerFactory);
+
+        try {
+            // New Response
+            Response response = messageFactory.createResponse(SessionTimer.SESSION_INTERVAL_TOO_SMALL, serverTransaction.getRequest());
+            SipCall.checkObjectNull("Fail to create new response", response);
+            response.setReasonPhrase("Session Interval Too Small");
+            response.addHeader(headerFactory.createHeader(SessionTimer.MIN_SE_NAME, String.valueOf(minSE)));
+
+            // Send
+            sendResponse(serverTransaction, response);
+
+            // Terminate Transaction
+            serverTransaction.terminate();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @fn public void respondWithOverload(final Request request, final SipProvider sipProvider, final MessageFactory messageFactory, final HeaderFactory headerFactory)
+     * @brief 과부하 제어로 거절한 새 요청을 서버 트랜잭션 없이 503 Service Unavailable 응답으로 처리하는 함수
+     * 재전송된 요청도 다시 과부하 제어를 거쳐 같은 응답을 받으므로 트랜잭션 상태를 남기지 않는다.
+     * @param request        요청(입력, 읽기 전용)
+     * @param sipProvider    요청을 수신한 SIP Provider(입력, 읽기 전용)
+     * @param messageFactory SIP 메시지 인터페이스(입력, 읽기 전용)
+     * @param headerFactory  SIP 메시지 헤더 관리 인터페이스(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void respondWithOverload(final Request request, final SipProvider sipProvider, final MessageFactory messageFactory, final HeaderFactory headerFactory) {
+        SipCall.checkObjectNull(null, request, sipProvider, messageFactory, headerFactory);
+
+        try {
+            OverloadController overloadController = OverloadController.getInstance();
+
+            // New Response
+            Response response = messageFactory.createResponse(Response.SERVICE_UNAVAILABLE, request);
+            SipCall.checkObjectNull("Fail to create new response", response);
+
+            // To Tag
+            ToHeader toHeader = (ToHeader) response.getHeader(ToHeader.NAME);
+            if (toHeader != null && toHeader.getTag() == null) {
+                toHeader.setTag(IdGenerator.getInstance().newTag());
+            }
+
+            // Retry-After
+            response.addHeader(headerFactory.createRetryAfterHeader(overloadController.getRetryAfter()));
+
+            // Overload Control Feedback (RFC 7339)
+            overloadController.addFeedback((ViaHeader) response.getHeader(ViaHeader.NAME));
+
+            // Send
+            sipProvider.sendResponse(response);
+            SignalMetrics.getInstance().onResponseSent(response, null);
+            MessageTracer.getInstance().trace(MessageTracer.Direction.SEND, response);
+            CaptureWriter.getInstance().capture(MessageTracer.Direction.SEND, response, null);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @fn public void respondToOptions(final Request request, final ServerTransaction serverTransaction, final MessageFactory messageFactory, final HeaderFactory headerFactory, final List<String> allowedMethods)
+     * @brief Options 요청을 처리 가능한 Method (Allow) 와 Body 형식 (Accept) 을 담은 200 OK 응답으로 처리하는 함수
+     * @param request           요청(Options, 입력, 읽기 전용)
+     * @param serverTransaction 서버 트랜잭션(입력, 읽기 전용)
+     * @param messageFactory    SIP 메시지 인터페이스(입력, 읽기 전용)
+     * @param headerFactory     SIP 메시지 헤더 관리 인터페이스(입력, 읽기 전용)
+     * @param allowedMethods    처리기가 등록된 Method 목록(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void respondToOptions(final Request request, final ServerTransaction serverTransaction, final MessageFactory messageFactory, final HeaderFactory headerFactory, final List<String> allowedMethods) {
+        SipCall.checkObjectNull(null, request, serverTransaction, messageFactory, headerFactory, allowedMethods);
+
+        try {
+            // New 200 OK Response
+            Response response = messageFactory.createResponse(Response.OK, request);
+            SipCall.checkObjectNull("Fail to create new response", response);
+
+            // Allow, Accept
+            for (String method : allowedMethods) {
+                response.addHeader(headerFactory.createAllowHeader(method));
+            }
+            response.addHeader(headerFactory.createAcceptHeader("application", "sdp"));
+
+            // Send
+            sendResponse(serverTransaction, response);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @fn public void respondWithUnsupported(final Request request, final SipProvider sipProvider, final MessageFactory messageFactory, final HeaderFactory headerFactory)
+     * @brief 처리기가 없는 Method 의 요청을 서버 트랜잭션 없이 405 Method Not Allowed (Allow 포함) 또는 501 Not Implemented 응답으로 처리하는 함수
+     * 상대방이 재전송하지 않도록 바로 최종 응답을 보내고, 재전송된 요청도 같은 응답을 받으므로 트랜잭션 상태를 남기지 않는다.
+     * @param request        요청(입력, 읽기 전용)
+     * @param sipProvider    요청을 수신한 SIP Provider(입력, 읽기 전용)
+     * @param messageFactory SIP 메시지 인터페이스(입력, 읽기 전용)
+     * @param headerFactory  SIP 메시지 헤더 관리 인터페이스(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void respondWithUnsupported(final Request request, final SipProvider sipProvider, final MessageFactory messageFactory, final HeaderFactory headerFactory) {
+        SipCall.checkObjectNull(null, request, sipProvider, messageFactory, headerFactory);
+
+        try {
+            RequestHandlerRegistry requestHandlerRegistry = RequestHandlerRegistry.getInstance();
+            requestHandlerRegistry.onUnsupported();
+
+            // New 405 or 501 Response
+            int statusCode = requestHandlerRegistry.getUnsupportedStatusCode(request.getMethod());
+            Response response = messageFactory.createResponse(statusCode, request);
+            SipCall.checkObjectNull("Fail to create new response", response);
+
+            // To Tag
+            ToHeader toHeader = (ToHeader) response.getHeader(ToHeader.NAME);
+            if (toHeader != null && toHeader.getTag() == null) {
+                toHeader.setTag(IdGenerator.getInstance().newTag());
+            }
+
+            // Allow (405 는 필수)
+            if (statusCode == Response.METHOD_NOT_ALLOWED) {
+                for (String method : requestHandlerRegistry.getAllowedMethods()) {
+                    response.addHeader(headerFactory.createAllowHeader(method));
+                }
+            }
+
+            // Send
+            sipProvider.sendResponse(response);
+            SignalMetrics.getInstance().onResponseSent(response, null);
+            MessageTracer.getInstance().trace(MessageTracer.Direction.SEND, response);
+            CaptureWriter.getInstance().capture(MessageTracer.Direction.SEND, response, null);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
     ////////////////////////////////////////////////////////////////////////////////////////
     /// @ Static Functions
     ////////////////////////////////////////////////////////////////////////////////////////
 
     /**
-     * @fn private void respondWith1xxToInvite(final Request request, final ServerTransaction serverTransaction, final MessageFactory messageFactory, int statusCode)
+     * @fn public void respondWith1xxToInvite(final Request request, final ServerTransaction serverTransaction, final MessageFactory messageFactory, int statusCode)
      * @brief Invite 요청을 1xx 응답으로 처리하는 함수
      * @param request           요청(입력, 읽기 전용)
      * @param serverTransaction 서버 트랜잭션(입력, 읽기 전용)
@@ -312,7 +577,7 @@ public class ResponseManager {
      * @param statusCode        응답 코드(입력, 읽기 전용)
      * @return 반환값 없음
      */
-    private void respondWith1xxToInvite(final Request request, final ServerTransaction serverTransaction, final MessageFactory messageFactory, int statusCode) {
+    public void respondWith1xxToInvite(final Request request, final ServerTransaction serverTransaction, final MessageFactory messageFactory, int statusCode) {
         SipCall.checkObjectNull(null, request, serverTransaction, messageFactory);
 
         if(!request.getMethod().equals(Request.INVITE)) return;
@@ -323,15 +588,45 @@ public class ResponseManager {
             SipCall.checkObjectNull("Fail to create new response", response);
 
             // Send
-            serverTransaction.sendResponse(response);
-            logger.debug("@ Response : \n{}", response);
+            sendResponse(serverTransaction, response);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
     /**
-     * @fn private void respondWith200ToInvite(final Request request, final ServerTransaction serverTransaction, final MessageFactory messageFactory, final HeaderFactory headerFactory, final AddressFactory addressFactory)
+     * @fn public void respondWith183ToInvite(final Request request, final ServerTransaction serverTransaction, final MessageFactory messageFactory, final HeaderFactory headerFactory)
+     * @brief Invite 요청을 SDP 를 포함한 183 Session Progress 응답으로 처리하는 함수 (Early Media)
+     * @param request           요청(입력, 읽기 전용)
+     * @param serverTransaction 서버 트랜잭션(입력, 읽기 전용)
+     * @param messageFactory    SIP 메시지 인터페이스(입력, 읽기 전용)
+     * @param headerFactory     SIP 메시지 헤더 관리 인터페이스(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void respondWith183ToInvite(final Request request, final ServerTransaction serverTransaction, final MessageFactory messageFactory, final HeaderFactory headerFactory) {
+        SipCall.checkObjectNull(null, request, serverTransaction, messageFactory, headerFactory);
+
+        if(!request.getMethod().equals(Request.INVITE)) return;
+
+        try {
+            // New 183 Session Progress Response
+            Response response = messageFactory.createResponse(Response.SESSION_PROGRESS, request);
+            SipCall.checkObjectNull("Fail to create new response", response);
+
+            // Apply SDP to Content Type Header
+            ContentTypeHeader contentTypeHeader = headerFactory.createContentTypeHeader("application", "sdp");
+            SipCall.checkObjectNull("Fail to create Content Type Header", contentTypeHeader);
+            response.setContent(SipCall.makeSdpBytes(), contentTypeHeader);
+
+            // Send
+            sendResponse(serverTransaction, response);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @fn public void respondWith200ToInvite(final Request request, final ServerTransaction serverTransaction, final MessageFactory messageFactory, final HeaderFactory headerFactory, final AddressFactory addressFactory)
      * @brief Invite 요청을 200 OK 응답으로 처리하는 함수
      * @param request           요청(입력, 읽기 전용)
      * @param serverTransaction 서버 트랜잭션(입력, 읽기 전용)
@@ -340,14 +635,14 @@ public class ResponseManager {
      * @param addressFactory    SIP 메시지 주소 관리 인터페이스(입력, 읽기 전용)
      * @return 반환값 없음
      */
-    private void respondWith200ToInvite(final Request request, final ServerTransaction serverTransaction, final MessageFactory messageFactory, final HeaderFactory headerFactory, final AddressFactory addressFactory) {
+    public void respondWith200ToInvite(final Request request, final ServerTransaction serverTransaction, final MessageFactory messageFactory, final HeaderFactory headerFactory, final AddressFactory addressFactory) {
         SipCall.checkObjectNull(null, request, serverTransaction, messageFactory, headerFactory, addressFactory);
 
         if(!request.getMethod().equals(Request.INVITE)) return;
 
         try {
             // Make SDP
-            String sdp = SipCall.makeSdp();
+            byte[] sdpBytes = SipCall.makeSdpBytes();
 
             // New 200 OK Response
             Response response = messageFactory.createResponse(Response.OK, request);
@@ -358,7 +653,6 @@ public class ResponseManager {
             SipCall.checkObjectNull("Fail to create Content Type Header", contentTypeHeader);
 
             // Apply SDP to Content Type Header
-            byte[] sdpBytes = sdp.getBytes();
             response.setContent(sdpBytes, contentTypeHeader);
 
             // New Contact Header
@@ -369,10 +663,122 @@ public class ResponseManager {
             // Apply Contact Header to Response
             response.addHeader(contactHeader);
 
+            // Session-Expires (Invite 수신 시 협상한 세션)
+            SessionTimer.addSessionHeaders(response, headerFactory, SessionTimer.getSession(serverTransaction.getDialog()));
+
             // Send
-            serverTransaction.sendResponse(response);
+            sendResponse(serverTransaction, response);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
+
+    /**
+     * @fn private void answerInvite(final Request request, final ServerTransaction serverTransaction, final Dialog dialog, final String callId, final MessageFactory messageFactory, final HeaderFactory headerFactory, final AddressFactory addressFactory, final CallRegistry callRegistry)
+     * @brief 수락된 Invite 요청을 비동기 응답 처리로 넘기는 함수
+     * 180 Ringing (또는 183) 과 200 OK 는 InviteAnswerPipeline 의 타이머 쓰레드에서 전송되고, SIP Stack 쓰레드는 바로 반환된다.
+     * @param request           요청(입력, 읽기 전용)
+     * @param serverTransaction 서버 트랜잭션(입력, 읽기 전용)
+     * @param dialog            다이얼로그(입력, 읽기 전용)
+     * @param callId            Call-ID(입력, 읽기 전용)
+     * @param messageFactory    SIP 메시지 인터페이스(입력, 읽기 전용)
+     * @param headerFactory     SIP 메시지 헤더 관리 인터페이스(입력, 읽기 전용)
+     * @param addressFactory    SIP 메시지 주소 관리 인터페이스(입력, 읽기 전용)
+     * @param callRegistry      호 등록 관리 객체(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    private void answerInvite(final Request request, final ServerTransaction serverTransaction, final Dialog dialog, final String callId, final MessageFactory messageFactory, final HeaderFactory headerFactory, final AddressFactory addressFactory, final CallRegistry callRegistry) {
+        InviteAnswerPipeline.getInstance().submit(request, serverTransaction, dialog, callId, messageFactory, headerFactory, addressFactory, callRegistry);
+    }
+
+    /**
+     * @fn private void rejectOrQueueInvite(final Request request, final ServerTransaction serverTransaction, final Dialog dialog, final String callId, final MessageFactory messageFactory, final HeaderFactory headerFactory, final AddressFactory addressFactory, final CallRegistry callRegistry)
+     * @brief 최대 동시 호 수에 도달했을 때 수락 제어 정책에 따라 Invite 요청을 거절하거나 대기열에 추가하는 함수
+     * 정상 종료 중(수락 중지)이면 정책과 관계없이 503 으로 거절한다.
+     * @param request           요청(입력, 읽기 전용)
+     * @param serverTransaction 서버 트랜잭션(입력, 읽기 전용)
+     * @param dialog            다이얼로그(입력, 읽기 전용)
+     * @param callId            Call-ID(입력, 읽기 전용)
+     * @param messageFactory    SIP 메시지 인터페이스(입력, 읽기 전용)
+     * @param headerFactory     SIP 메시지 헤더 관리 인터페이스(입력, 읽기 전용)
+     * @param addressFactory    SIP 메시지 주소 관리 인터페이스(입력, 읽기 전용)
+     * @param callRegistry      호 등록 관리 객체(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    private void rejectOrQueueInvite(final Request request, final ServerTransaction serverTransaction, final Dialog dialog, final String callId, final MessageFactory messageFactory, final HeaderFactory headerFactory, final AddressFactory addressFactory, final CallRegistry callRegistry) {
+        final AdmissionController admissionController = AdmissionController.getInstance();
+
+        // 정상 종료 중이면 정책과 관계없이 503 으로 거절
+        if (admissionController.isClosed()) {
+            logger.debug("503 Service Unavailable Response is sent (Draining)");
+            callRegistry.removeTransaction(callId, serverTransaction);
+            respondWith5xx(serverTransaction, messageFactory, headerFactory, Response.SERVICE_UNAVAILABLE, admissionController.getRetryAfter());
+            return;
+        }
+
+        switch (admissionController.getCapacityPolicy()) {
+            case QUEUE: {
+                // 100 Trying 으로 재전송을 멈추고 빈 자리가 생길 때까지 대기
+                respondWith1xxToInvite(request, serverTransaction, messageFactory, Response.TRYING);
+
+                boolean isQueued = admissionController.enqueue(new AdmissionController.PendingCall(callId) {
+                    @Override
+                    public boolean onAdmitted() {
+                        // 대기 중에 Cancel 로 트랜잭션이 삭제되었으면 처리하지 않는다.
+                        if (callRegistry.searchTransaction(callId, Request.INVITE) != serverTransaction) {
+                            return false;
+                        }
+                        answerInvite(request, serverTransaction, dialog, callId, messageFactory, headerFactory, addressFactory, callRegistry);
+                        return true;
+                    }
+
+                    @Override
+                    public void onExpired() {
+                        logger.debug("503 Service Unavailable Response is sent (Queue timeout)");
+                        callRegistry.removeTransaction(callId, serverTransaction);
+                        respondWith5xx(serverTransaction, messageFactory, headerFactory, Response.SERVICE_UNAVAILABLE, admissionController.getRetryAfter());
+                    }
+                });
+                if (isQueued) return;
+
+                // 대기열이 가득 찼으면 503 으로 거절
+                logger.debug("503 Service Unavailable Response is sent (Queue full)");
+                callRegistry.removeTransaction(callId, serverTransaction);
+                respondWith5xx(serverTransaction, messageFactory, headerFactory, Response.SERVICE_UNAVAILABLE, admissionController.getRetryAfter());
+                break;
+            }
+            case SERVICE_UNAVAILABLE: {
+                logger.debug("503 Service Unavailable Response is sent");
+                callRegistry.removeTransaction(callId, serverTransaction);
+                respondWith5xx(serverTransaction, messageFactory, headerFactory, Response.SERVICE_UNAVAILABLE, admissionController.getRetryAfter());
+                break;
+            }
+            default: {
+                // 기존 동작, 486 Busy Here
+                logger.debug("486 Busy Here Response is sent");
+                callRegistry.removeTransaction(callId, serverTransaction);
+                respondWith4xx(serverTransaction, messageFactory, Response.BUSY_HERE);
+                break;
+            }
+        }
+    }
+
+    /**
+     * @fn private void sendResponse(final ServerTransaction serverTransaction, final Response response)
+     * @brief 응답을 전송하고 송신 통계, 추적, 캡처를 기록하는 함수
+     * @param serverTransaction 서버 트랜잭션(입력, 읽기 전용)
+     * @param response          응답(입력, 읽기 전용)
+     * @return 반환값 없음
+     * @throws SipException 전송 실패 시
+     * @throws InvalidArgumentException 응답이 잘못된 경우
+     */
+    private void sendResponse(final ServerTransaction serverTransaction, final Response response) throws SipException, InvalidArgumentException {
+        serverTransaction.sendResponse(response);
+        if (Request.INVITE.equals(serverTransaction.getRequest().getMethod())) {
+            CdrRecorder.getInstance().onInviteResponse(CallDetailRecord.Direction.TERMINATING, response);
+        }
+        SignalMetrics.getInstance().onResponseSent(response, serverTransaction);
+        MessageTracer.getInstance().trace(MessageTracer.Direction.SEND, response);
+        CaptureWriter.getInstance().capture(MessageTracer.Direction.SEND, response, serverTransaction);
+    }
 }
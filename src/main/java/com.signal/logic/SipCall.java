@@ -1,5 +1,30 @@
 package com.signal.logic;
 
+import com.signal.capture.CaptureWriter;
+import com.signal.cdr.CallDetailRecord;
+import com.signal.cdr.CdrRecorder;
+import com.signal.config.SignalConfig;
+import com.signal.control.AdmissionController;
+import com.signal.control.OverloadController;
+import com.signal.handler.Bulkhead;
+import com.signal.handler.RequestHandler;
+import com.signal.handler.RequestHandlerRegistry;
+import com.signal.handler.VirtualThreadDispatcher;
+import com.signal.lifecycle.LifecycleManager;
+import com.signal.lifecycle.PeerHealth;
+import com.signal.metrics.SignalMetrics;
+import com.signal.registry.CallRegistry;
+import com.signal.replication.ReplicationManager;
+import com.signal.resolve.ResolvedTarget;
+import com.signal.sdp.SdpTemplate;
+import com.signal.session.SessionTimer;
+import com.signal.snapshot.DialogSnapshot;
+import com.signal.snapshot.DialogSnapshotManager;
+import com.signal.template.InviteTemplate;
+import com.signal.trace.MessageTracer;
+import com.signal.transport.TransportConfig;
+import com.signal.transport.TransportDispatcher;
+import gov.nist.javax.sip.message.SIPMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -8,12 +33,19 @@ import javax.sip.address.AddressFactory;
 import javax.sip.header.CSeqHeader;
 import javax.sip.header.CallIdHeader;
 import javax.sip.header.HeaderFactory;
+import javax.sip.header.ViaHeader;
+import javax.sip.message.Message;
 import javax.sip.message.MessageFactory;
 import javax.sip.message.Request;
 import javax.sip.message.Response;
 import java.net.PortUnreachableException;
-import java.util.HashMap;
+import java.text.ParseException;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Properties;
+import java.util.TreeMap;
+import java.util.TooManyListenersException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -23,16 +55,37 @@ import java.util.concurrent.TimeUnit;
 public class SipCall implements SipListener {
     /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
     private static final Logger logger = LoggerFactory.getLogger(SipCall.class);
-    /* 트랜잭션 관리 해쉬 맵, 현재 설립된 다이얼로그에서 처리 중인 트랜잭션에 대한 정보를 관리 */
-    private static HashMap<CallIdHeader, Transaction> transactionHashMap;
-    /* 다이얼로그 관리 해쉬 맵, 현재 설립된 다이얼로그에 대한 정보를 관리 */
-    private static HashMap<CallIdHeader, Dialog> dialogHashMap;
+    /* 기본 SDP 템플릿, 한 번만 분석해서 모든 호에서 재사용 */
+    private static final SdpTemplate sdpTemplate = new SdpTemplate(
+            "v=0\r\n" +
+            "o=jamesj {session-id} {session-version} IN IP4 {address}\r\n" +
+            "s=Talk\r\n" +
+            "c=IN IP4 {address}\r\n" +
+            "t=0 0\r\n" +
+            "a=rtcp-xr:rcvr-rtt=all:10000 stat-summary=loss,dup,jitt,TTL voIP-metrics\r\n" +
+            "m=audio {media-port} RTP/AVP 96 97 101 98\r\n" +
+            "a=rtpmap:96 AMR/8000\r\n" +
+            "a=fmtp:96 octet-align=1\r\n");
+    /* SDP Session ID */
+    private static final long SDP_SESSION_ID = 1906;
+    /* SDP Session Version */
+    private static final long SDP_SESSION_VERSION = 3217;
+    /* SDP 연결 주소 */
+    private static final String SDP_ADDRESS = "127.0.0.1";
+    /* SDP 미디어 포트 */
+    private static final int SDP_MEDIA_PORT = 7078;
+    /* 기본 SIP Stack 이름 */
+    public static final String DEFAULT_STACK_NAME = "SIG_DEMO";
     /* 사용자 이름 */
     private final String userName;
     /* IP 주소 */
     private final String ip;
-    /* 포트 번호 */
+    /* 포트 번호 (첫 번째 전송의 포트) */
     private final int port;
+    /* 전송 프로토콜별 포트 번호 (대소문자 구분 없음) */
+    private final Map<String, Integer> transportPorts;
+    /* 전송 프로토콜별 수신 메시지 작업 쓰레드 */
+    private final TransportDispatcher transportDispatcher;
     /* SIP 메시지 전체 정보 관리 인터페이스 */
     public SipFactory sipFactory;
     /* SIP 메시지 주소 관리 인터페이스 */
@@ -45,6 +98,18 @@ public class SipCall implements SipListener {
     private SipProvider sipProvider;
     /* 전체적인 SIP 세션 및 트랜잭션 관리 인터페이스 */
     private SipStack sipStack;
+    /* 호 등록 관리 객체, 기본값은 공용 인스턴스 (같은 프로세스에 UAC/UAS 를 함께 둘 때는 분리) */
+    private volatile CallRegistry callRegistry = CallRegistry.getInstance();
+    /* 세션 타이머, 호 등록 관리 객체의 만료 처리도 담당 */
+    private final SessionTimer sessionTimer;
+    /* 다이얼로그 스냅샷 (사용하지 않으면 null) */
+    private volatile DialogSnapshot dialogSnapshot = null;
+    /* 발신 호 결과 전달 인터페이스 */
+    private volatile CallEventListener callEventListener;
+    /* 보낸 Bye 요청이 200 OK 를 받으면 노드를 정상 종료할지 여부 (단일 호 시험용) */
+    private volatile boolean exitOnByeResponse = true;
+    /* 상대방(URI:포트;전송)별 Invite 요청 원본 */
+    private final ConcurrentHashMap<String, InviteTemplate> inviteTemplates = new ConcurrentHashMap<>();
 
     ////////////////////////////////////////////////////////////////////////////////////////
     /// @ Public Functions
@@ -59,19 +124,48 @@ public class SipCall implements SipListener {
      * @param protocol SIP Stack 에 사용될 프로토콜 이름(입력, 읽기 전용)
      */
     public SipCall(final String userName, final String ip, int port, final String protocol) {
-        if(port <= 0) throw new NullPointerException("Port <= 0");
-        checkObjectNull(null, userName, ip, protocol);
+        this(userName, ip, port, protocol, DEFAULT_STACK_NAME);
+    }
+
+    /**
+     * @fn public SipCall(final String userName, final String ip, int port, final String protocol, final String stackName)
+     * @brief 지정한 이름의 SIP Stack 으로 SIP 호 정보 관리 객체를 초기화하는 함수
+     * 같은 이름의 SIP Stack 은 공유되므로, 한 프로세스에서 UAC/UAS 를 따로 두려면 다른 이름을 사용한다.
+     * @param userName  SIP URI 에서 사용될 사용자 이름(입력, 읽기 전용)
+     * @param ip        SIP URI 에서 사용될 IP 주소(입력, 읽기 전용)
+     * @param port      SIP Stack 에 사용될 포트 번호(입력)
+     * @param protocol  SIP Stack 에 사용될 프로토콜 이름(입력, 읽기 전용)
+     * @param stackName SIP Stack 이름(입력, 읽기 전용)
+     */
+    public SipCall(final String userName, final String ip, int port, final String protocol, final String stackName) {
+        this(userName, ip, stackName, new TransportConfig(protocol, port));
+    }
+
+    /**
+     * @fn public SipCall(final String userName, final String ip, final String stackName, final TransportConfig... transportConfigs)
+     * @brief 여러 전송 프로토콜(UDP, TCP, TLS)로 수신하는 SIP 호 정보 관리 객체를 초기화하는 함수
+     * 전송마다 ListeningPoint 를 만들어 하나의 SipProvider 에 추가하고, 전송 설정에 작업 쓰레드가 있으면 수신 메시지를 전송별 작업 쓰레드에서 처리한다.
+     * 첫 번째 전송의 포트가 기본 포트가 된다. TLS 는 javax.net.ssl.keyStore/trustStore 시스템 속성이 지정되어 있어야 한다.
+     * @param userName         SIP URI 에서 사용될 사용자 이름(입력, 읽기 전용)
+     * @param ip               SIP URI 에서 사용될 IP 주소(입력, 읽기 전용)
+     * @param stackName        SIP Stack 이름(입력, 읽기 전용)
+     * @param transportConfigs 전송 설정 목록, 전송 프로토콜마다 하나(입력, 읽기 전용)
+     */
+    public SipCall(final String userName, final String ip, final String stackName, final TransportConfig... transportConfigs) {
+        checkObjectNull(null, userName, ip, stackName, transportConfigs);
+        if (transportConfigs.length == 0) throw new IllegalArgumentException("No transport");
+        checkObjectNull(null, (Object[]) transportConfigs);
 
         this.userName = userName;
         this.ip = ip;
-        this.port = port;
+        this.port = transportConfigs[0].getPort();
+        this.transportPorts = toTransportPorts(transportConfigs);
+        this.transportDispatcher = new TransportDispatcher(transportConfigs);
+        this.sessionTimer = newSessionTimer();
 
         sipFactory = SipFactory.getInstance();
-        Properties properties = new Properties();
-        properties.setProperty("javax.sip.IP_ADDRESS", "0.0.0.0");
-        properties.setProperty("javax.sip.STACK_NAME", "SIG_DEMO");
-        properties.setProperty("gov.nist.javax.sip.DEBUG_LOG", "debug.log");
-        properties.setProperty("gov.nist.javax.sip.SERVER_LOG", "debug.log");
+        // Stack 성능/로그/타이머/용량 설정은 SignalConfig (reference.conf, 선택한 프로파일) 에서 읽는다.
+        Properties properties = SignalConfig.getInstance().toStackProperties(stackName);
 
         // New SipStack
         try {
@@ -83,6 +177,8 @@ public class SipCall implements SipListener {
                 e.getCause().printStackTrace();
             System.exit(0);
         }
+        // 다이얼로그 스냅샷은 Stack 이름으로 찾으므로 Stack 생성 후, 요청을 받기 전에 연결한다.
+        watchCallRegistry(callRegistry);
 
         try {
             // New SipFactory
@@ -90,166 +186,95 @@ public class SipCall implements SipListener {
             this.addressFactory = sipFactory.createAddressFactory();
             this.messageFactory = sipFactory.createMessageFactory();
 
-            // New ListeningPoint & SipProvider
-            ListeningPoint listeningPoint = sipStack.createListeningPoint(ip, port, protocol);
-            this.sipProvider = sipStack.createSipProvider(listeningPoint);
+            // New ListeningPoints & SipProvider (전송마다 ListeningPoint 하나)
+            for (TransportConfig transportConfig : transportConfigs) {
+                ListeningPoint listeningPoint = sipStack.createListeningPoint(ip, transportConfig.getPort(), transportConfig.getProtocol());
+                if (this.sipProvider == null) {
+                    this.sipProvider = sipStack.createSipProvider(listeningPoint);
+                } else {
+                    this.sipProvider.addListeningPoint(listeningPoint);
+                }
+                logger.debug("ListeningPoint ({}:{})", ip, transportConfig);
+            }
             this.sipProvider.addSipListener(this);
             this.sipProvider.setAutomaticDialogSupportEnabled(false);
 
             // Start SipStack
             sipStack.start();
-
-            // New Transaction Hash Map
-            HashMap<CallIdHeader, Transaction> _transactionHashMap = new HashMap<>();
-            SipCall.setTransactionHashMap(_transactionHashMap);
-
-            // New Dialog Hash Map
-            HashMap<CallIdHeader, Dialog> _dialogHashMap = new HashMap<>();
-            SipCall.setDialogHashMap(_dialogHashMap);
         } catch (Exception e) {
             e.printStackTrace();
         }
+        LifecycleManager.getInstance().register(this);
     }
 
     /**
-     * @fn public static HashMap<CallIdHeader, Transaction> getTransactionHashMap()
-     * @brief 트랜잭션 관리 해쉬 맵을 반환하는 함수
-     * @return 트랜잭션 관리 해쉬 맵
-     */
-    public static HashMap<CallIdHeader, Transaction> getTransactionHashMap() {
-        return transactionHashMap;
-    }
-
-    /**
-     * @fn public static void setTransactionHashMap(final HashMap<CallIdHeader, Transaction> transactionHashMap)
-     * @brief 트랜잭션 관리 해쉬 맵을 초기화하는 함수
-     * @param transactionHashMap 트랜잭션 관리 해쉬 맵(입력, 읽기 전용)
-     * @return 반환값 없음
+     * @fn public SipCall(final String userName, final String ip, int port, final SipProvider sipProvider)
+     * @brief 외부에서 생성한 SipProvider 로 SIP 호 정보 관리 객체를 초기화하는 함수
+     * SIP Stack 을 새로 만들지 않으므로 In-process Stub 을 사용하는 벤치마크나 여러 Stack 을 직접 관리하는 경우에 사용한다.
+     * @param userName    SIP URI 에서 사용될 사용자 이름(입력, 읽기 전용)
+     * @param ip          SIP URI 에서 사용될 IP 주소(입력, 읽기 전용)
+     * @param port        SIP URI 에서 사용될 포트 번호(입력)
+     * @param sipProvider SIP 메시지를 송수신할 SipProvider(입력, 읽기 전용)
      */
-    private static void setTransactionHashMap(final HashMap<CallIdHeader, Transaction> transactionHashMap) {
-        checkObjectNull(null, transactionHashMap);
-        SipCall.transactionHashMap = transactionHashMap;
-    }
-
-    /**
-     * @fn public static void addTransactionHashMap(final CallIdHeader callIdHeader, final Transaction transaction)
-     * @brief 트랜잭션 관리 해쉬 맵에 지정한 Call-ID(키)와 트랜잭션(밸류)를 추가하는 함수
-     * @param callIdHeader Call-ID 헤더(입력, 읽기 전용)
-     * @param transaction  트랜잭션(입력, 읽기 전용)
-     * @return 반환값 없음
-     */
-    public static void addTransactionHashMap(final CallIdHeader callIdHeader, final Transaction transaction) {
-        if (callIdHeader != null && transaction != null) transactionHashMap.put(callIdHeader, transaction);
-    }
-
-    /**
-     * @fn public static void removeTransactionHashMap(final CallIdHeader callIdHeader)
-     * @brief 트랜잭션 관리 해쉬 맵에서 지정한 Call-ID(키)에 해당하는 트랜잭션(밸류)를 삭제하는 함수
-     * @param callIdHeader Call-ID 헤더(입력, 읽기 전용)
-     * @return 반환값 없음
-     */
-    public static void removeTransactionHashMap(final CallIdHeader callIdHeader) {
-        checkObjectNull(null, callIdHeader);
-        if (transactionHashMap.isEmpty()) return;
-        transactionHashMap.remove(callIdHeader);
-    }
-
-    /**
-     * @fn public static Transaction searchTransactionHashMap(final CallIdHeader callIdHeader)
-     * @brief 트랜잭션 관리 해쉬 맵에서 지정한 Call-ID(키)에 해당하는 트랜잭션(밸류)를 검색하여 반환하는 함수
-     * @param callIdHeader Call-ID 헤더(입력, 읽기 전용)
-     * @return 트랜잭션
-     */
-    public static Transaction searchTransactionHashMap(final CallIdHeader callIdHeader) {
-        checkObjectNull(null, callIdHeader);
-        return transactionHashMap.get(callIdHeader);
-    }
+    public SipCall(final String userName, final String ip, int port, final SipProvider sipProvider) {
+        if(port <= 0) throw new NullPointerException("Port <= 0");
+        checkObjectNull(null, userName, ip, sipProvider);
 
-    /**
-     * @fn public static Request searchRequestFromTransactionHashMap(final CallIdHeader callIdHeader, final String requestType)
-     * @brief 트랜잭션 관 해쉬 맵에서 지정한 Call-ID(키)에 해당하는 트랜잭션(밸류)를 검색하여 해당 트랜잭션에 속한 요청을 반환하는 함수
-     * @param callIdHeader Call-ID 헤더(입력, 읽기 전용)
-     * @param requestType  요청 유형(입력, 읽기 전용)
-     * @return 요청
-     */
-    public static Request searchRequestFromTransactionHashMap(final CallIdHeader callIdHeader, final String requestType) {
-        checkObjectNull(null, callIdHeader);
+        this.userName = userName;
+        this.ip = ip;
+        this.port = port;
+        this.transportPorts = Collections.emptyMap();
+        this.transportDispatcher = new TransportDispatcher();
 
-        // 같은 Call-ID 를 가진 Transaction 을 찾는다.
-        Transaction transaction = SipCall.searchTransactionHashMap(callIdHeader);
-        if (transaction == null) {
-            return null;
+        sipFactory = SipFactory.getInstance();
+        try {
+            this.headerFactory = sipFactory.createHeaderFactory();
+            this.addressFactory = sipFactory.createAddressFactory();
+            this.messageFactory = sipFactory.createMessageFactory();
+        } catch (PeerUnavailableException e) {
+            throw new IllegalStateException(e);
         }
 
-        // 지정한 요청을 처리하는 Transaction 인지 확인한다.
-        Request request = transaction.getRequest();
-        if (!request.getMethod().equals(requestType)) {
-            return null;
+        this.sipProvider = sipProvider;
+        this.sipStack = sipProvider.getSipStack();
+        this.sessionTimer = newSessionTimer();
+        watchCallRegistry(callRegistry);
+        try {
+            this.sipProvider.addSipListener(this);
+        } catch (TooManyListenersException e) {
+            throw new IllegalStateException(e);
         }
-
-        return request;
-    }
-
-    /**
-     * @fn public static HashMap<CallIdHeader, Dialog> getDialogHashMap()
-     * @brief 다이얼로그 관리 해쉬 맵을 반환하는 함수
-     * @return 다이얼로그 관리 해쉬 맵
-     */
-    public static HashMap<CallIdHeader, Dialog> getDialogHashMap() {
-        return dialogHashMap;
+        LifecycleManager.getInstance().register(this);
     }
 
     /**
-     * @fn public static void setDialogHashMap(final HashMap<CallIdHeader, Dialog> dialogHashMap)
-     * @brief 다이얼로그 관리 해쉬 맵을 초기화하는 함수
-     * @param dialogHashMap 다이얼로그 관리 해쉬 맵(입력, 읽기 전용)
+     * @fn public void stop()
+     * @brief SipProvider 와 ListeningPoint 를 삭제하고 SIP Stack 과 작업 쓰레드를 중지하는 함수
+     * SipProvider 를 먼저 삭제해야 SIP Stack 의 이벤트 처리 쓰레드가 종료된다.
      * @return 반환값 없음
      */
-    private static void setDialogHashMap(final HashMap<CallIdHeader, Dialog> dialogHashMap) {
-        checkObjectNull(null, dialogHashMap);
-        SipCall.dialogHashMap = dialogHashMap;
-    }
+    public void stop() {
+        LifecycleManager.getInstance().unregister(this);
+        transportDispatcher.shutdown();
+        if (sipProvider == null || sipStack == null) return;
 
-    /**
-     * @fn public static void addDialogHashMap(final CallIdHeader callIdHeader, final Dialog dialog)
-     * @brief 다이얼로그 관리 해쉬 맵에 지정한 Call-ID(키)와 다이얼로그(밸류)를 추가하는 함수
-     * @param callIdHeader Call-ID 헤더(입력, 읽기 전용)
-     * @param dialog       다이얼로그(입력, 읽기 전용)
-     * @return 반환값 없음
-     */
-    public static void addDialogHashMap(final CallIdHeader callIdHeader, final Dialog dialog) {
-        if (callIdHeader != null && dialog != null) {
-            dialogHashMap.put(callIdHeader, dialog);
+        try {
+            sipProvider.removeSipListener(this);
+            ListeningPoint[] listeningPoints = sipProvider.getListeningPoints();
+            sipStack.deleteSipProvider(sipProvider);
+            for (ListeningPoint listeningPoint : listeningPoints) {
+                sipStack.deleteListeningPoint(listeningPoint);
+            }
+        } catch (ObjectInUseException e) {
+            e.printStackTrace();
         }
-    }
-
-    /**
-     * @fn public static void removeDialogHashMap(final CallIdHeader callIdHeader)
-     * @brief 다이얼로그 관리 해쉬 맵에서 지정한 Call-ID(키)에 해당하는 다이얼로그(밸류)를 삭제하는 함수
-     * @param callIdHeader Call-ID 헤더(입력, 읽기 전용)
-     * @return 반환값 없음
-     */
-    public static void removeDialogHashMap(final CallIdHeader callIdHeader) {
-        checkObjectNull(null, callIdHeader);
-        if (dialogHashMap.isEmpty()) return;
-        dialogHashMap.remove(callIdHeader);
-    }
-
-    /**
-     * @fn public static boolean findDialogHashMap(final CallIdHeader callIdHeader)
-     * @brief 다이얼로그 관리 해쉬 맵에서 지정한 Call-ID(키)에 해당하는 트랜잭션(밸류)를 검색하여 존재 여부를 반환하는 함수
-     * @param callIdHeader Call-ID 헤더(입력, 읽기 전용)
-     * @return 다이얼로그가 존재하면 true, 아니면 false 반환
-     */
-    public static boolean findDialogHashMap(CallIdHeader callIdHeader) {
-        checkObjectNull(null, callIdHeader);
-        Dialog dialog = dialogHashMap.get(callIdHeader);
-        return dialog == null;
+        sipStack.stop();
     }
 
     /**
      * @fn public static String makeSdp()
      * @brief SDP 메시지를 생성해주는 함수
+     * 호마다 문자열을 새로 만들기 때문에 메시지 전송 시에는 makeSdpBytes() 를 사용한다. (벤치마크 비교 기준)
      * @return SDP 메시지 문자열
      */
     public static String makeSdp() {
@@ -268,6 +293,24 @@ public class SipCall implements SipListener {
         return sdp;
     }
 
+    /**
+     * @fn public static byte[] makeSdpBytes()
+     * @brief 미리 컴파일된 SDP 템플릿으로 SDP 메시지 바이트 배열을 생성하는 함수
+     * @return SDP 메시지 바이트 배열 (UTF-8)
+     */
+    public static byte[] makeSdpBytes() {
+        return sdpTemplate.render(SDP_SESSION_ID, SDP_SESSION_VERSION, SDP_ADDRESS, SDP_MEDIA_PORT);
+    }
+
+    /**
+     * @fn public static SdpTemplate getSdpTemplate()
+     * @brief 기본 SDP 템플릿을 반환하는 함수
+     * @return SDP 템플릿
+     */
+    public static SdpTemplate getSdpTemplate() {
+        return sdpTemplate;
+    }
+
     /**
      * @fn public static ServerTransaction getServerTransactionFromRequestEvent(final RequestEvent requestEvent)
      * @brief 요청 이벤트로부터 서버 트랜잭션을 반환하는 함수
@@ -334,6 +377,138 @@ public class SipCall implements SipListener {
         return this.sipProvider;
     }
 
+    /**
+     * @fn public SipStack getSipStack()
+     * @brief SipStack 객체를 반환하는 함수
+     * @return SipStack 객체
+     */
+    public SipStack getSipStack() {
+        return this.sipStack;
+    }
+
+    /**
+     * @fn public InviteTemplate getInviteTemplate(final String toURI, int toPort)
+     * @brief 상대방별 UDP Invite 요청 원본을 반환하는 함수 (처음 요청 시 생성)
+     * @param toURI  요청을 수신하는 URI(입력, 읽기 전용)
+     * @param toPort 요청을 수신하는 포트(입력)
+     * @return Invite 요청 원본
+     * @throws ParseException           주소나 헤더 분석 실패 시
+     * @throws InvalidArgumentException 헤더 값이 잘못된 경우
+     */
+    public InviteTemplate getInviteTemplate(final String toURI, int toPort) throws ParseException, InvalidArgumentException {
+        return getInviteTemplate(toURI, toPort, "udp");
+    }
+
+    /**
+     * @fn public InviteTemplate getInviteTemplate(final String toURI, int toPort, final String transport)
+     * @brief 상대방과 전송 프로토콜별 Invite 요청 원본을 반환하는 함수 (처음 요청 시 생성)
+     * @param toURI     요청을 수신하는 URI(입력, 읽기 전용)
+     * @param toPort    요청을 수신하는 포트(입력)
+     * @param transport 전송 프로토콜, udp/tcp/tls(입력, 읽기 전용)
+     * @return Invite 요청 원본
+     * @throws ParseException           주소나 헤더 분석 실패 시
+     * @throws InvalidArgumentException 헤더 값이 잘못된 경우
+     */
+    public InviteTemplate getInviteTemplate(final String toURI, int toPort, final String transport) throws ParseException, InvalidArgumentException {
+        String key = toURI + ":" + toPort + ";" + transport.toLowerCase();
+        InviteTemplate inviteTemplate = inviteTemplates.get(key);
+        if (inviteTemplate != null) return inviteTemplate;
+
+        inviteTemplate = new InviteTemplate(this, toURI, toPort, transport);
+        InviteTemplate oldTemplate = inviteTemplates.putIfAbsent(key, inviteTemplate);
+        return oldTemplate != null ? oldTemplate : inviteTemplate;
+    }
+
+    /**
+     * @fn public InviteTemplate getInviteTemplate(final String toURI, int toPort, final String transport, final ResolvedTarget hop)
+     * @brief 상대방과 해석한 다음 홉별 Invite 요청 원본을 반환하는 함수 (처음 요청 시 생성)
+     * @param toURI     요청을 수신하는 URI(입력, 읽기 전용)
+     * @param toPort    요청을 수신하는 포트(입력, 0 이면 지정하지 않음)
+     * @param transport 전송 프로토콜(입력, 읽기 전용, 빈 문자열이면 지정하지 않음)
+     * @param hop       다음 홉(입력, 읽기 전용)
+     * @return Invite 요청 원본
+     * @throws ParseException           주소나 헤더 분석 실패 시
+     * @throws InvalidArgumentException 헤더 값이 잘못된 경우
+     */
+    public InviteTemplate getInviteTemplate(final String toURI, int toPort, final String transport, final ResolvedTarget hop) throws ParseException, InvalidArgumentException {
+        String key = toURI + ":" + toPort + ";" + transport.toLowerCase() + "@" + hop;
+        InviteTemplate inviteTemplate = inviteTemplates.get(key);
+        if (inviteTemplate != null) return inviteTemplate;
+
+        inviteTemplate = new InviteTemplate(this, toURI, toPort, transport, hop);
+        InviteTemplate oldTemplate = inviteTemplates.putIfAbsent(key, inviteTemplate);
+        return oldTemplate != null ? oldTemplate : inviteTemplate;
+    }
+
+    /**
+     * @fn public boolean isListening(final String transport)
+     * @brief 지정한 전송 프로토콜로 발신할 수 있는지 확인하는 함수
+     * @param transport 전송 프로토콜(입력, 읽기 전용)
+     * @return 해당 전송으로 수신 중이면 true (SipProvider 로 만들어 알 수 없으면 항상 true), 아니면 false 반환
+     */
+    public boolean isListening(final String transport) {
+        return transportPorts.isEmpty() || transportPorts.containsKey(transport);
+    }
+
+    /**
+     * @fn public CallRegistry getCallRegistry()
+     * @brief 호 등록 관리 객체를 반환하는 함수
+     * @return 호 등록 관리 객체
+     */
+    public CallRegistry getCallRegistry() {
+        return callRegistry;
+    }
+
+    /**
+     * @fn public void setCallRegistry(final CallRegistry callRegistry)
+     * @brief 호 등록 관리 객체를 지정하는 함수 (호 처리 전에 호출)
+     * @param callRegistry 호 등록 관리 객체(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void setCallRegistry(final CallRegistry callRegistry) {
+        checkObjectNull(null, callRegistry);
+        this.callRegistry = callRegistry;
+        watchCallRegistry(callRegistry);
+    }
+
+    /**
+     * @fn public SessionTimer getSessionTimer()
+     * @brief 세션 타이머를 반환하는 함수
+     * @return 세션 타이머
+     */
+    public SessionTimer getSessionTimer() {
+        return sessionTimer;
+    }
+
+    /**
+     * @fn public DialogSnapshot getDialogSnapshot()
+     * @brief 다이얼로그 스냅샷을 반환하는 함수
+     * @return 다이얼로그 스냅샷 (사용하지 않으면 null)
+     */
+    public DialogSnapshot getDialogSnapshot() {
+        return dialogSnapshot;
+    }
+
+    /**
+     * @fn public void setCallEventListener(final CallEventListener callEventListener)
+     * @brief 발신 호 결과 전달 인터페이스를 지정하는 함수
+     * @param callEventListener 발신 호 결과 전달 인터페이스(입력, 읽기 전용, null 이면 전달하지 않음)
+     * @return 반환값 없음
+     */
+    public void setCallEventListener(final CallEventListener callEventListener) {
+        this.callEventListener = callEventListener;
+    }
+
+    /**
+     * @fn public void setExitOnByeResponse(boolean exitOnByeResponse)
+     * @brief 보낸 Bye 요청이 200 OK 를 받으면 노드를 정상 종료할지 여부를 지정하는 함수
+     * @param exitOnByeResponse 종료 여부(입력)
+     * @return 반환값 없음
+     */
+    public void setExitOnByeResponse(boolean exitOnByeResponse) {
+        this.exitOnByeResponse = exitOnByeResponse;
+    }
+
     /**
      * @fn public String getUserName()
      * @brief 사용자 이름을 반환하는 함수
@@ -352,6 +527,15 @@ public class SipCall implements SipListener {
         return ip;
     }
 
+    /**
+     * @fn public Map<String, Integer> getTransportPorts()
+     * @brief 전송 프로토콜별 수신 포트 번호를 반환하는 함수
+     * @return 전송 프로토콜별 포트 번호 (변경 불가, SipProvider 로 만든 경우 비어 있음)
+     */
+    public Map<String, Integer> getTransportPorts() {
+        return transportPorts;
+    }
+
     /**
      * @fn public String getPort()
      * @brief 포트 번호를 반환하는 함수
@@ -361,6 +545,26 @@ public class SipCall implements SipListener {
         return port;
     }
 
+    /**
+     * @fn public int getPort(final String transport)
+     * @brief 지정한 전송 프로토콜의 포트 번호를 반환하는 함수
+     * @param transport 전송 프로토콜(입력, 읽기 전용)
+     * @return 포트 번호 (해당 전송으로 수신하지 않으면 기본 포트)
+     */
+    public int getPort(final String transport) {
+        Integer transportPort = transport == null ? null : transportPorts.get(transport);
+        return transportPort != null ? transportPort : port;
+    }
+
+    /**
+     * @fn public TransportDispatcher getTransportDispatcher()
+     * @brief 전송 프로토콜별 수신 메시지 작업 쓰레드를 반환하는 함수
+     * @return 전송 프로토콜별 작업 쓰레드
+     */
+    public TransportDispatcher getTransportDispatcher() {
+        return transportDispatcher;
+    }
+
     /**
      * @fn public boolean checkObjectNull(final String _msg, Object... objects)
      * @brief 객체가 Null 인지 검사하는 함수
@@ -390,49 +594,70 @@ public class SipCall implements SipListener {
     @Override
     public void processRequest(final RequestEvent requestEvent) {
         checkObjectNull(null, requestEvent);
+        final long startTime = System.nanoTime();
 
         // Get Request
-        Request request = requestEvent.getRequest();
-        logger.debug("@ Request : \n{}", request);
+        final Request request = requestEvent.getRequest();
+        MessageTracer.getInstance().trace(MessageTracer.Direction.RECV, request);
+        CaptureWriter.getInstance().capture(MessageTracer.Direction.RECV, request, requestEvent.getServerTransaction());
+
+        // Method 별 처리기, 없으면 서버 트랜잭션 없이 405 (알려진 Method) 또는 501 로 바로 응답 (ACK 는 응답하지 않으므로 버림)
+        String method = request.getMethod();
+        RequestHandlerRegistry requestHandlerRegistry = RequestHandlerRegistry.getInstance();
+        final RequestHandler requestHandler = requestHandlerRegistry.getHandler(method);
+        if (requestHandler == null) {
+            SignalMetrics.getInstance().onRequestReceived(request, null);
+            if (!Request.ACK.equals(method)) {
+                ResponseManager.getInstance().respondWithUnsupported(request, (SipProvider) requestEvent.getSource(), messageFactory, headerFactory);
+            }
+            return;
+        }
+        // 가상 쓰레드 실행 방식이면 Call-ID 별 가상 쓰레드에서, 아니면 Bulkhead 작업 쓰레드 또는 전송별 작업 쓰레드에서 처리
+        String transport = getTransport(request);
+        VirtualThreadDispatcher virtualThreadDispatcher = VirtualThreadDispatcher.getInstance();
+        boolean isVirtual = virtualThreadDispatcher.isEnabled();
+        Bulkhead bulkhead = isVirtual ? null : requestHandlerRegistry.getBulkhead(method);
+        int pendingTasks = isVirtual ? virtualThreadDispatcher.getPendingTasks()
+                : bulkhead != null ? bulkhead.getPendingTasks() : transportDispatcher.getPendingTasks(transport);
+
+        // 과부하 제어, 새 요청은 서버 트랜잭션을 만들기 전에 토큰 버킷으로 확인하고 상태 없이 503 으로 거절
+        OverloadController overloadController = OverloadController.getInstance();
+        if (overloadController.isEnabled() && OverloadController.isInitialRequest(request)
+                && !overloadController.tryAdmit(getSourceAddress(request), pendingTasks)) {
+            SignalMetrics.getInstance().onRequestReceived(request, null);
+            ResponseManager.getInstance().respondWithOverload(request, (SipProvider) requestEvent.getSource(), messageFactory, headerFactory);
+            return;
+        }
+        // 상태 없이 보낸 503 에 대한 ACK 는 맞는 트랜잭션과 다이얼로그가 없으므로 버린다.
+        if (Request.ACK.equals(method) && requestEvent.getServerTransaction() == null && requestEvent.getDialog() == null) {
+            logger.debug("Stray ACK is dropped (Call-ID:{})", getCallId(request));
+            return;
+        }
 
-        // Get Server Transaction
-        ServerTransaction serverTransaction = SipCall.getServerTransactionFromRequestEvent(requestEvent);
+        // Get Server Transaction (재전송을 SIP Stack 이 흡수하도록 수신 쓰레드에서 생성)
+        final ServerTransaction serverTransaction = SipCall.getServerTransactionFromRequestEvent(requestEvent);
         checkObjectNull("Fail to get Server Transaction", serverTransaction);
+        SignalMetrics.getInstance().onRequestReceived(request, serverTransaction);
 
-        // 요청 유형에 따라 처리
-        switch (request.getMethod()) {
-            case Request.INVITE: {
-                ResponseManager.getInstance().respondToInvite(requestEvent, serverTransaction, messageFactory, addressFactory, headerFactory, port, this);
-                break;
-            }
-            case Request.ACK: {
-//                try {
-//                    TimeUnit.SECONDS.sleep(1);
-//                } catch (InterruptedException e) {
-//                    e.printStackTrace();
-//                }
-//
-//                RequestManager.getInstance().requestBye(requestEvent);
-                break;
-            }
-            case Request.BYE: {
-                ResponseManager.getInstance().respondToBye(request, serverTransaction, messageFactory);
-                break;
+        // 작업 쓰레드로 넘긴다. (작업 쓰레드가 없으면 바로 처리)
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                handleRequest(requestEvent, serverTransaction, requestHandler, startTime);
             }
-            case Request.CANCEL: {
-                ResponseManager.getInstance().respondToCancel(request, serverTransaction, messageFactory);
-                break;
-            }
-            case Request.MESSAGE:{
-                // Message 요청이고 현재 다이얼로그가 생성되어 있으면, 202 Accepted 응답으로 처리
-                if(dialogHashMap.size() > 0) {
-                    ResponseManager.getInstance().respondWith2xxToNonInviteReq(request, serverTransaction, messageFactory, Response.ACCEPTED);
-                }
-                break;
-            }
-            default: {
-                logger.debug("Unknown Request!!");
-                break;
+        };
+        boolean isDispatched;
+        if (isVirtual) {
+            isDispatched = virtualThreadDispatcher.dispatch(getCallId(request), task);
+        } else {
+            isDispatched = bulkhead != null ? bulkhead.dispatch(getCallId(request), task) : transportDispatcher.dispatch(transport, getCallId(request), task);
+        }
+
+        // 작업 대기열이 가득 차면 기다리지 않고 503 으로 거절 (ACK 는 응답하지 않으므로 버림)
+        if (!isDispatched) {
+            logger.warn("{} workers are busy, {} is rejected (Call-ID:{})", isVirtual ? "Virtual" : bulkhead != null ? bulkhead.getName() : transport, method, getCallId(request));
+            if (!method.equals(Request.ACK)) {
+                ResponseManager.getInstance().respondWith5xx(serverTransaction, messageFactory, headerFactory, Response.SERVICE_UNAVAILABLE, AdmissionController.getInstance().getRetryAfter());
             }
         }
     }
@@ -446,53 +671,26 @@ public class SipCall implements SipListener {
     @Override
     public void processResponse(final ResponseEvent responseEvent) {
         checkObjectNull(null, responseEvent);
+        final long startTime = System.nanoTime();
 
         // Get Response
         Response response = responseEvent.getResponse();
-        int responseCode = response.getStatusCode();
-        logger.debug("@ Response : \n{}", response);
-
-        // 응답 유형에 따라 처리
-        switch (responseCode) {
-            case 100:
-            case 180:
-                break;
-            case 200: {
-                // Get Dialog
-                Dialog dialog = responseEvent.getClientTransaction().getDialog();
-                try {
-                    // Get Call-ID Header
-                    CallIdHeader callIdHeader = dialog.getCallId();
-                    SipCall.removeTransactionHashMap(callIdHeader);
-
-                    String methodName = responseEvent.getClientTransaction().getRequest().getMethod();
-
-                    // 200 OK 응답일 때 Method 가 Invite 이면 ACK 전송
-                    if (methodName.equals(Request.INVITE)) {
-                        // New ACK Request
-                        Request request = dialog.createAck(((CSeqHeader) response.getHeader("CSeq")).getSeqNumber());
-                        checkObjectNull("Fail to create ACK Request", request);
-
-                        // Send
-                        dialog.sendAck(request);
-
-                        SipCall.addDialogHashMap(callIdHeader, dialog);
-                        break;
-                    }
-
-                    // Method 가 Bye 이면 프로그램 종료
-                    if (methodName.equals(Request.BYE)) {
-                        SipCall.removeDialogHashMap(callIdHeader);
-                        System.exit(0);
-                    }
-                } catch (InvalidArgumentException | SipException e) {
-                    e.printStackTrace();
-                }
-                break;
-            }
-            default: {
-                logger.debug("Unknown code : {}", responseCode);
+        MessageTracer.getInstance().trace(MessageTracer.Direction.RECV, response);
+        CaptureWriter.getInstance().capture(MessageTracer.Direction.RECV, response, responseEvent.getClientTransaction());
+        SignalMetrics.getInstance().onResponseReceived(response, responseEvent.getClientTransaction());
+
+        // 가상 쓰레드 또는 전송별 작업 쓰레드로 넘긴다. (보낸 요청의 결과이므로 대기열이 가득 차도 버리지 않고 바로 처리)
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                handleResponse(responseEvent, startTime);
             }
+        };
+        VirtualThreadDispatcher virtualThreadDispatcher = VirtualThreadDispatcher.getInstance();
+        boolean isDispatched = virtualThreadDispatcher.isEnabled() ? virtualThreadDispatcher.dispatch(getCallId(response), task)
+                : transportDispatcher.dispatch(getTransport(response), getCallId(response), task);
+        if (!isDispatched) {
+            task.run();
         }
     }
 
@@ -512,6 +710,9 @@ public class SipCall implements SipListener {
         if (timeoutEvent.isServerTransaction()) { // 요청을 받는 트랜잭션
             logger.debug("In the Server transaction");
             methodName = ResponseManager.getInstance().respondToTimeout(timeoutEvent, messageFactory);
+            if (Request.INVITE.equals(methodName)) {
+                CdrRecorder.getInstance().onTimeout(CallDetailRecord.Direction.TERMINATING, getCallId(timeoutEvent.getServerTransaction().getRequest()));
+            }
         } else { // 요청을 보내는 트랜잭션
             // Get Client Transaction
             logger.debug("In the Client transaction");
@@ -522,22 +723,42 @@ public class SipCall implements SipListener {
             String stateName = clientTransaction.getState().toString();
             logger.debug("State : {}", stateName);
 
-            // Completed 이전 State 이면 현재 트랜잭션을 취소한다.
-            if (stateName.equals("Calling") || stateName.equals("Trying") || stateName.equals("Proceeding")) {
+            // Completed 이전 State 의 Invite 이면 현재 트랜잭션을 취소한다. (Non-invite 는 취소할 수 없음)
+            if (methodName.equals(Request.INVITE)
+                    && (stateName.equals("Calling") || stateName.equals("Trying") || stateName.equals("Proceeding"))) {
                 try {
-                    clientTransaction.createCancel();
-                    clientTransaction.sendRequest();
+                    // CANCEL 은 INVITE 와 별개의 트랜잭션으로 보낸다. (INVITE 트랜잭션으로 다시 보내면 INVITE 가 재전송됨)
+                    Request cancel = clientTransaction.createCancel();
+                    ClientTransaction cancelTransaction = ((SipProvider) timeoutEvent.getSource()).getNewClientTransaction(cancel);
+                    SignalMetrics.getInstance().onRequestSent(cancel, cancelTransaction);
+                    cancelTransaction.sendRequest();
+                    MessageTracer.getInstance().trace(MessageTracer.Direction.SEND, cancel);
+                    CaptureWriter.getInstance().capture(MessageTracer.Direction.SEND, cancel, cancelTransaction);
                 } catch (SipException e) {
                     e.printStackTrace();
                 }
             }
 
-            SipCall.removeTransactionHashMap(clientTransaction.getDialog().getCallId());
+            String callId = CallRegistry.toKey(clientTransaction.getDialog().getCallId());
+            if (methodName.equals(Request.UPDATE)) {
+                // 세션 갱신 실패, 상대방이 응답하지 않으므로 다이얼로그를 바로 만료
+                sessionTimer.refreshFailed(callId, Response.REQUEST_TIMEOUT);
+            } else {
+                callRegistry.removeTransaction(callId, clientTransaction);
+            }
+            if (methodName.equals(Request.INVITE)) {
+                CdrRecorder.getInstance().onTimeout(CallDetailRecord.Direction.ORIGINATING, callId);
+            }
+            if (callEventListener != null) {
+                if (methodName.equals(Request.INVITE)) callEventListener.onInviteFailed(callId, Response.REQUEST_TIMEOUT);
+                else if (methodName.equals(Request.BYE)) callEventListener.onByeCompleted(callId, Response.REQUEST_TIMEOUT);
+            }
         }
 
         if (methodName != null) {
             logger.debug("Method : {}", methodName);
         }
+        SignalMetrics.getInstance().onTimeout(methodName);
 
         logger.debug("Timeout : {}", timeoutEvent.getTimeout().getValue());
     }
@@ -552,30 +773,11 @@ public class SipCall implements SipListener {
     public void processIOException(final IOExceptionEvent ioExceptionEvent) {
         checkObjectNull(null, ioExceptionEvent);
 
-        logger.debug("Host : {}", ioExceptionEvent.getHost());
-        logger.debug("Transport : {}", ioExceptionEvent.getTransport());
-        logger.debug("Port : {}", ioExceptionEvent.getPort());
-
-        // Get SipProvider
-        SipProvider sipProvider = (SipProvider) ioExceptionEvent.getSource();
-        checkObjectNull("Fail to get SIP Provider", sipProvider);
-
-        // Remove All ListeningPoints
-        try {
-            ListeningPoint[] listeningPoints = sipProvider.getListeningPoints();
-            for (ListeningPoint lp : listeningPoints) {
-                if (lp != null) sipProvider.removeListeningPoint(lp);
-            }
-            sipProvider.removeSipListener(this);
-        } catch (ObjectInUseException e) {
-            e.printStackTrace();
-        }
-
-        // Stop SipStack
-        sipProvider.getSipStack().stop();
-
-        // 프로그램 종료
-        System.exit(0);
+        // 일시적인 전송 오류이므로 SIP Stack 은 유지하고, 해당 상대방으로의 발신만 잠시 멈춘다.
+        logger.warn("IOException (Host:{}, Port:{}, Transport:{})",
+                ioExceptionEvent.getHost(), ioExceptionEvent.getPort(), ioExceptionEvent.getTransport());
+        SignalMetrics.getInstance().onIOException();
+        PeerHealth.getInstance().onIOException(ioExceptionEvent.getHost(), ioExceptionEvent.getPort(), ioExceptionEvent.getTransport());
     }
 
     /**
@@ -587,6 +789,7 @@ public class SipCall implements SipListener {
     @Override
     public void processTransactionTerminated(final TransactionTerminatedEvent transactionTerminatedEvent) {
         checkObjectNull(null, transactionTerminatedEvent);
+        SignalMetrics.getInstance().onTransactionTerminated();
 
         Transaction transaction;
         String transactionType;
@@ -608,6 +811,9 @@ public class SipCall implements SipListener {
         transactionState = transaction.getState();
         methodName = transaction.getRequest().getMethod();
         logger.debug("{} Transaction (Method:{}, BranchID:{}, State:{}) is terminated.", transactionType, methodName, branchID, transactionState);
+
+        // 종료된 트랜잭션이 호 등록에 남아 있으면 지운다. (응답 처리에서 지우지 못한 트랜잭션이 쌓이지 않도록)
+        callRegistry.removeTransaction(transaction);
     }
 
     /**
@@ -632,5 +838,229 @@ public class SipCall implements SipListener {
         String remoteTag = dialog.getRemoteTag();
 
         logger.debug("Dialog (CallID:{}, State:{}, LocalTag:{}, RemoteTag:{}) is terminated.", callId, dialogState, localTag, remoteTag);
+
+        // BYE/CANCEL 로 반납되지 않은 자리가 있으면 반납한다. (수신 호의 다이얼로그만 수락 제어 대상)
+        callRegistry.removeDialog(callId);
+        if (dialog.isServer()) AdmissionController.getInstance().release(callId);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private void handleRequest(final RequestEvent requestEvent, final ServerTransaction serverTransaction, final RequestHandler requestHandler, long startTime)
+     * @brief 수신된 요청을 Method 별 처리기로 처리하는 함수 (가상 쓰레드, Bulkhead 작업 쓰레드, 전송별 작업 쓰레드 또는 SIP Stack 쓰레드에서 호출)
+     * @param requestEvent      요청 이벤트(입력, 읽기 전용)
+     * @param serverTransaction 서버 트랜잭션(입력, 읽기 전용)
+     * @param requestHandler    요청 처리기(입력, 읽기 전용)
+     * @param startTime         요청 수신 시각, System.nanoTime()(입력)
+     * @return 반환값 없음
+     */
+    private void handleRequest(final RequestEvent requestEvent, final ServerTransaction serverTransaction, final RequestHandler requestHandler, long startTime) {
+        requestHandler.handle(requestEvent, serverTransaction, this);
+
+        SignalMetrics.getInstance().recordRequestHandler(requestEvent.getRequest().getMethod(), startTime);
+        OverloadController.getInstance().onRequestHandled(startTime);
+    }
+
+    /**
+     * @fn private void handleResponse(final ResponseEvent responseEvent, long startTime)
+     * @brief 수신된 응답을 응답 코드에 따라 처리하는 함수 (전송별 작업 쓰레드 또는 SIP Stack 쓰레드에서 호출)
+     * @param responseEvent 응답 이벤트(입력, 읽기 전용)
+     * @param startTime     응답 수신 시각, System.nanoTime()(입력)
+     * @return 반환값 없음
+     */
+    private void handleResponse(final ResponseEvent responseEvent, long startTime) {
+        Response response = responseEvent.getResponse();
+        int responseCode = response.getStatusCode();
+
+        // 보낸 Invite 의 18x/200/실패 응답을 CDR 에 기록 (재전송된 200 OK 는 트랜잭션이 없음)
+        ClientTransaction responseTransaction = responseEvent.getClientTransaction();
+        if (responseTransaction != null && Request.INVITE.equals(responseTransaction.getRequest().getMethod())) {
+            CdrRecorder.getInstance().onInviteResponse(CallDetailRecord.Direction.ORIGINATING, response);
+        }
+
+        // 응답 유형에 따라 처리
+        switch (responseCode) {
+            case 100:
+            case 180:
+                break;
+            case 200: {
+                // 트랜잭션이 끝난 후 재전송된 200 OK 는 무시 (ACK 재전송은 SIP Stack 이 처리)
+                if (responseEvent.getClientTransaction() == null) {
+                    logger.debug("Retransmitted 200 OK is ignored");
+                    break;
+                }
+
+                // Get Dialog
+                Dialog dialog = responseEvent.getClientTransaction().getDialog();
+                try {
+                    // Get Call-ID Header
+                    String callId = CallRegistry.toKey(dialog.getCallId());
+                    String methodName = responseEvent.getClientTransaction().getRequest().getMethod();
+
+                    // 세션 갱신용 Update 는 호 등록에 트랜잭션을 추가하지 않으므로 세션 타이머만 다시 예약
+                    if (methodName.equals(Request.UPDATE)) {
+                        sessionTimer.refreshed(callId, dialog, sessionTimer.fromAnswer(responseEvent.getClientTransaction().getRequest(), response, dialog));
+                        break;
+                    }
+                    callRegistry.removeTransaction(callId, responseEvent.getClientTransaction());
+
+                    // 200 OK 응답일 때 Method 가 Invite 이면 ACK 전송
+                    if (methodName.equals(Request.INVITE)) {
+                        // New ACK Request
+                        Request request = dialog.createAck(((CSeqHeader) response.getHeader("CSeq")).getSeqNumber());
+                        checkObjectNull("Fail to create ACK Request", request);
+
+                        // Send
+                        dialog.sendAck(request);
+                        CaptureWriter.getInstance().capture(MessageTracer.Direction.SEND, request, null);
+                        CdrRecorder.getInstance().onAck(dialog);
+
+                        callRegistry.addDialog(callId, dialog);
+                        sessionTimer.start(callId, dialog, sessionTimer.fromAnswer(responseEvent.getClientTransaction().getRequest(), response, dialog));
+                        if (callEventListener != null) callEventListener.onInviteAnswered(callId, dialog);
+                        break;
+                    }
+
+                    // Method 가 Bye 이면 노드 정상 종료 (세션 만료나 정상 종료 중에 보낸 Bye 는 종료를 다시 시작하지 않음)
+                    if (methodName.equals(Request.BYE)) {
+                        boolean isRegistered = callRegistry.findDialog(callId);
+                        callRegistry.removeDialog(callId);
+                        if (callEventListener != null) callEventListener.onByeCompleted(callId, responseCode);
+                        if (exitOnByeResponse && isRegistered) LifecycleManager.getInstance().shutdown();
+                    }
+                } catch (InvalidArgumentException | SipException e) {
+                    e.printStackTrace();
+                }
+                break;
+            }
+            default: {
+                // 보낸 요청에 대한 실패 응답 (3xx~6xx)
+                ClientTransaction clientTransaction = responseEvent.getClientTransaction();
+                if (responseCode >= 300 && clientTransaction != null) {
+                    processFailureResponse(clientTransaction, responseCode);
+                    break;
+                }
+                logger.debug("Unknown code : {}", responseCode);
+            }
+        }
+
+        CSeqHeader cSeqHeader = (CSeqHeader) response.getHeader(CSeqHeader.NAME);
+        SignalMetrics.getInstance().recordResponseHandler(cSeqHeader == null ? null : cSeqHeader.getMethod(), startTime);
+    }
+
+    /**
+     * @fn private SessionTimer newSessionTimer()
+     * @brief 세션 설정(signal.session)으로 세션 타이머를 만드는 함수
+     * @return 세션 타이머
+     */
+    private SessionTimer newSessionTimer() {
+        SignalConfig signalConfig = SignalConfig.getInstance();
+        return new SessionTimer(this, signalConfig.getSessionExpires(), signalConfig.getMinSE(), signalConfig.getMaxDialogLifetime());
+    }
+
+    /**
+     * @fn private void watchCallRegistry(final CallRegistry callRegistry)
+     * @brief 호 등록 관리 객체를 통계에 추가하고, 만료 시간과 만료 처리(세션 타이머), 다이얼로그 스냅샷과 복제를 지정하는 함수
+     * 다이얼로그 기본 만료 시간은 세션 간격이며, 세션이 시작되면 협상한 간격으로 다시 예약된다.
+     * @param callRegistry 호 등록 관리 객체(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    private void watchCallRegistry(final CallRegistry callRegistry) {
+        SignalMetrics.getInstance().addCallRegistry(callRegistry);
+        callRegistry.configureExpiry(SignalConfig.getInstance().getTransactionTimeout(), sessionTimer.getSessionExpires() * 1000L);
+        callRegistry.setExpiryListener(sessionTimer);
+
+        String stackName = sipStack == null ? null : sipStack.getStackName();
+        if (stackName == null) return;
+        dialogSnapshot = DialogSnapshotManager.getInstance().open(stackName, callRegistry);
+        ReplicationManager.getInstance().replicate(stackName, userName, ip, transportPorts, callRegistry);
+    }
+
+    /**
+     * @fn private static String getTransport(final Message message)
+     * @brief 메시지의 첫 번째 Via 헤더에서 전송 프로토콜을 반환하는 함수
+     * @param message SIP 메시지(입력, 읽기 전용)
+     * @return 전송 프로토콜 (Via 헤더가 없으면 null)
+     */
+    private static String getTransport(final Message message) {
+        ViaHeader viaHeader = (ViaHeader) message.getHeader(ViaHeader.NAME);
+        return viaHeader == null ? null : viaHeader.getTransport();
+    }
+
+    /**
+     * @fn private static String getCallId(final Message message)
+     * @brief 메시지의 Call-ID 를 반환하는 함수
+     * @param message SIP 메시지(입력, 읽기 전용)
+     * @return Call-ID (Call-ID 헤더가 없으면 null)
+     */
+    private static String getCallId(final Message message) {
+        CallIdHeader callIdHeader = (CallIdHeader) message.getHeader(CallIdHeader.NAME);
+        return callIdHeader == null ? null : callIdHeader.getCallId();
+    }
+
+    /**
+     * @fn private static String getSourceAddress(final Request request)
+     * @brief 요청을 보낸 주소를 반환하는 함수 (수신 주소를 알 수 없으면 첫 번째 Via 헤더의 Host)
+     * @param request 요청(입력, 읽기 전용)
+     * @return 송신 주소 (알 수 없으면 null)
+     */
+    private static String getSourceAddress(final Request request) {
+        if (request instanceof SIPMessage && ((SIPMessage) request).getRemoteAddress() != null) {
+            return ((SIPMessage) request).getRemoteAddress().getHostAddress();
+        }
+
+        ViaHeader viaHeader = (ViaHeader) request.getHeader(ViaHeader.NAME);
+        return viaHeader == null ? null : viaHeader.getHost();
+    }
+
+    /**
+     * @fn private static Map<String, Integer> toTransportPorts(final TransportConfig... transportConfigs)
+     * @brief 전송 설정 목록에서 전송 프로토콜별 포트 번호를 만드는 함수 (같은 전송이 여러 번 있으면 처음 것을 사용)
+     * @param transportConfigs 전송 설정 목록(입력, 읽기 전용)
+     * @return 전송 프로토콜별 포트 번호 (대소문자 구분 없음, 변경 불가)
+     */
+    private static Map<String, Integer> toTransportPorts(final TransportConfig... transportConfigs) {
+        Map<String, Integer> transportPorts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (TransportConfig transportConfig : transportConfigs) {
+            if (!transportPorts.containsKey(transportConfig.getProtocol())) {
+                transportPorts.put(transportConfig.getProtocol(), transportConfig.getPort());
+            }
+        }
+        return Collections.unmodifiableMap(transportPorts);
+    }
+
+    /**
+     * @fn private void processFailureResponse(final ClientTransaction clientTransaction, int responseCode)
+     * @brief 보낸 요청에 대한 실패 응답(3xx~6xx)을 처리하는 함수
+     * 실패 응답에 대한 ACK 는 SIP Stack 이 자동으로 전송한다.
+     * @param clientTransaction 클라이언트 트랜잭션(입력, 읽기 전용)
+     * @param responseCode      응답 코드(입력)
+     * @return 반환값 없음
+     */
+    private void processFailureResponse(final ClientTransaction clientTransaction, int responseCode) {
+        Request request = clientTransaction.getRequest();
+        CallIdHeader callIdHeader = (CallIdHeader) request.getHeader(CallIdHeader.NAME);
+        if (callIdHeader == null) return;
+
+        String callId = CallRegistry.toKey(callIdHeader);
+        String methodName = request.getMethod();
+        logger.debug("{} is failed (Call-ID:{}, Code:{})", methodName, callId, responseCode);
+
+        if (methodName.equals(Request.UPDATE)) {
+            sessionTimer.refreshFailed(callId, responseCode);
+            return;
+        }
+
+        callRegistry.removeTransaction(callId, clientTransaction);
+        if (methodName.equals(Request.INVITE)) {
+            callRegistry.removeDialog(callId);
+            if (callEventListener != null) callEventListener.onInviteFailed(callId, responseCode);
+        } else if (methodName.equals(Request.BYE)) {
+            callRegistry.removeDialog(callId);
+            if (callEventListener != null) callEventListener.onByeCompleted(callId, responseCode);
+        }
     }
 }
@@ -1,21 +1,313 @@
 package com.signal.logic;
 
+import com.signal.answer.InviteAnswerPipeline;
+import com.signal.campaign.CampaignProgress;
+import com.signal.campaign.CampaignScheduler;
+import com.signal.campaign.FileCampaignSource;
+import com.signal.capture.CaptureExporter;
+import com.signal.capture.CaptureFormat;
+import com.signal.config.SignalConfig;
+import com.signal.control.AdmissionController;
+import com.signal.control.CapacityPolicy;
+import com.signal.lifecycle.LifecycleManager;
+import com.signal.load.LoadGenerator;
+import com.signal.load.LoadProfile;
+import com.signal.load.RampProfile;
+import com.signal.replication.ReplicationManager;
+import com.signal.shard.SipShardGroup;
+import com.signal.trace.MessageTracer;
+import com.signal.transport.TransportConfig;
+
+import java.io.File;
+import java.io.IOException;
 import java.net.PortUnreachableException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @class public class main
  * @brief SIP 기본 호 시험을 실행하는 클래스
  */
 public class main {
+    /* 부하 시험 시 같은 프로세스에서 실행하는 착신 측(UAS) SIP Stack 이름 */
+    private static final String LOOPBACK_UAS_STACK_NAME = "SIG_DEMO_UAS";
+    /* 부하 시험 착신 측 포트 (UDP, TCP) */
+    private static final int LOOPBACK_UAS_PORT = 5060;
+    /* 부하 시험 발신 측 포트 (UDP, TCP) */
+    private static final int LOOPBACK_UAC_PORT = 5070;
+    /* TLS 포트는 UDP/TCP 포트 + 1 */
+    private static final int TLS_PORT_OFFSET = 1;
+    /* 부하 시험 샤드 간 포트 간격 (착신 측 5060, 5080, ... / 발신 측 5070, 5090, ... 으로 겹치지 않게 한다) */
+    private static final int LOOPBACK_PORT_STRIDE = 20;
+    /* 부하 시험 시 메시지를 추적할 호 비율 (0.1%) */
+    private static final double LOAD_TRACE_SAMPLE_RATE = 0.001;
+
     /**
      * @fn public static void main(String[] args)
      * @brief SIP 기본 호 시험을 진행하는 함수
+     * 첫 번째 매개변수가 load 이면 부하 시험을 진행한다. 성능 프로파일은 -Dsignal.profile=low-latency|high-throughput 으로 고른다.
+     * load [cps] [발신 시간(초)] [최대 동시 호 수] [통화 유지 시간(ms)] [증가 시간(초)] [증가 방식(IMMEDIATE/LINEAR/STEPPED)] [전송(udp/tcp/tls)] [샤드 수]
+     * 첫 번째 매개변수가 export 이면 캡처 파일을 변환한다.
+     * export [text|pcap] [출력 파일] [캡처 파일 또는 디렉토리 ...]
+     * 첫 번째 매개변수가 campaign 이면 대상 목록 파일의 대상으로 발신 캠페인(signal.campaign)을 진행한다. 진행 파일이 있으면 재개 위치부터 발신한다.
+     * campaign [대상 목록 파일]
+     * 첫 번째 매개변수가 standby 이면 Active 노드의 호 상태를 복제 받다가, Active 노드가 죽으면 수신 주소를 인계받는다.
      * @param args 매개변수(입력)
      * @return 반환값 없음
      */
     public static void main(String[] args) {
-        SipCall sipCall = new SipCall("myself", "127.0.0.1", 5070, "udp");
+        if (args.length > 0 && args[0].equals("load")) {
+            runLoadTest(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("export")) {
+            runExport(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("campaign")) {
+            runCampaign(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("standby")) {
+            runStandby();
+            return;
+        }
+
+        // 사용자, 주소, 포트, 상대방은 설정(reference.conf, -Dconfig.file, -Dsignal.profile)에서 읽는다.
+        SignalConfig signalConfig = SignalConfig.getInstance();
+        signalConfig.configureAdmission();
+        signalConfig.configureHandlers();
+        signalConfig.configureOverload();
+        signalConfig.configureCapture();
+        signalConfig.configureCdr();
+        signalConfig.configureSnapshot();
+        signalConfig.configureReplication();
+        signalConfig.configureLifecycle();
+        signalConfig.configureResolver();
+        SipCall sipCall = new SipCall(signalConfig.getUserName(), signalConfig.getIp(), signalConfig.getStackName(), signalConfig.getTransportConfigs());
+
+        RequestManager.getInstance().requestInvite(sipCall, signalConfig.getRemoteUri());
+
+        // 보낸 Bye 가 200 OK 를 받거나 JVM 종료 신호를 받으면 정상 종료가 끝난 후 프로그램 종료
+        try {
+            LifecycleManager.getInstance().awaitStopped(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.exit(0);
+    }
+
+    /**
+     * @fn private static void runLoadTest(String[] args)
+     * @brief 같은 프로세스에 착신 측(UAS)을 띄우고 Loopback 으로 부하 시험을 진행하는 함수
+     * 발신 측과 착신 측은 SIP Stack 과 호 등록 정보를 따로 사용한다.
+     * 양쪽 모두 UDP 와 TCP (TLS 시험이면 TLS 도) 로 수신하고, 전송마다 CPU 코어 수만큼 작업 쓰레드를 샤드에 나눠서 둔다.
+     * 샤드 수가 2 이상이면 양쪽 모두 샤드 i 를 기본 포트 + i * 20 으로 띄우고, 발신 측 샤드 i 는 착신 측 샤드 i 로 보낸다.
+     * @param args 매개변수(입력)
+     * @return 반환값 없음
+     */
+    private static void runLoadTest(String[] args) {
+        double cps = args.length > 1 ? Double.parseDouble(args[1]) : 10;
+        int durationSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int maxConcurrentCalls = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+        long holdTime = args.length > 4 ? Long.parseLong(args[4]) : 1000;
+        int rampUpSeconds = args.length > 5 ? Integer.parseInt(args[5]) : 0;
+        RampProfile rampProfile = args.length > 6 ? RampProfile.valueOf(args[6].toUpperCase()) : RampProfile.LINEAR;
+        String transport = args.length > 7 ? args[7].toLowerCase() : "udp";
+        int shardCount = args.length > 8 ? Integer.parseInt(args[8]) : 1;
+        LoadProfile loadProfile = new LoadProfile(cps, rampUpSeconds, rampProfile, durationSeconds, maxConcurrentCalls, holdTime);
+
+        MessageTracer.getInstance().configure(LOAD_TRACE_SAMPLE_RATE, MessageTracer.DEFAULT_BUFFER_SIZE);
+        SignalConfig.getInstance().configureHandlers();
+        SignalConfig.getInstance().configureOverload();
+        SignalConfig.getInstance().configureCapture();
+        SignalConfig.getInstance().configureCdr();
+        SignalConfig.getInstance().configureSnapshot();
+        SignalConfig.getInstance().configureReplication();
+        SignalConfig.getInstance().configureLifecycle();
+
+        // 착신 측 (UAS) : 부하 발생 측보다 여유 있게 수락
+        AdmissionController.getInstance().configure(maxConcurrentCalls * 2, CapacityPolicy.SERVICE_UNAVAILABLE,
+                AdmissionController.DEFAULT_RETRY_AFTER, AdmissionController.DEFAULT_QUEUE_SIZE, AdmissionController.DEFAULT_QUEUE_TIMEOUT);
+        InviteAnswerPipeline.getInstance().configure(InviteAnswerPipeline.DEFAULT_THREAD_COUNT, 0, false, true);
+        SipShardGroup uas = new SipShardGroup("jamesj", "127.0.0.1", LOOPBACK_UAS_STACK_NAME, shardCount, LOOPBACK_PORT_STRIDE,
+                newLoopbackTransports(LOOPBACK_UAS_PORT, transport, shardCount));
+
+        // 발신 측 (UAC)
+        SipShardGroup uac = new SipShardGroup("myself", "127.0.0.1", SipCall.DEFAULT_STACK_NAME, shardCount, LOOPBACK_PORT_STRIDE,
+                newLoopbackTransports(LOOPBACK_UAC_PORT, transport, shardCount));
+
+        LoadGenerator loadGenerator = new LoadGenerator(uac, "jamesj@127.0.0.1", uas.getShard(0).getPort(transport), uas.getPortStride(), transport, loadProfile);
+        loadGenerator.start();
+        try {
+            if (!loadGenerator.awaitCompletion(loadGenerator.getMaxRunTime(), TimeUnit.MILLISECONDS)) {
+                loadGenerator.stop();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            loadGenerator.stop();
+        }
+
+        // 남은 호를 정리하고 양쪽 SIP Stack 과 작업 쓰레드를 중지한다.
+        LifecycleManager.getInstance().drainAndStop();
+
+        // SIP Stack 의 이벤트 처리 쓰레드는 Stack 을 중지해도 대기 상태로 남으므로 단일 호 시험과 같이 종료한다.
+        System.exit(0);
+    }
+
+    /**
+     * @fn private static void runCampaign(String[] args)
+     * @brief 대상 목록 파일을 한 줄씩 읽으면서 발신 캠페인을 진행하는 함수
+     * 발신 측은 단일 호 시험과 같은 설정(signal.local, signal.transports)으로 띄우고, 포트/전송을 생략한 대상은 signal.remote 의 값으로 보낸다.
+     * 모든 대상이 끝나거나 JVM 종료 신호를 받으면 진행 파일을 저장하고 정상 종료한다.
+     * @param args 매개변수(입력)
+     * @return 반환값 없음
+     */
+    private static void runCampaign(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage : campaign [target file]");
+            return;
+        }
+
+        SignalConfig signalConfig = SignalConfig.getInstance();
+        signalConfig.configureAdmission();
+        signalConfig.configureHandlers();
+        signalConfig.configureOverload();
+        signalConfig.configureCapture();
+        signalConfig.configureCdr();
+        signalConfig.configureSnapshot();
+        signalConfig.configureReplication();
+        signalConfig.configureLifecycle();
+        signalConfig.configureResolver();
+
+        File targetFile = new File(args[1]);
+        File progressFile = signalConfig.getCampaignProgressFile(targetFile);
+        CampaignScheduler campaignScheduler;
+        try {
+            long position = CampaignProgress.readPosition(progressFile);
+            if (position > 1) System.out.println("Campaign is resumed from line " + position + " (" + progressFile + ")");
+            FileCampaignSource source = new FileCampaignSource(targetFile, signalConfig.getRemotePort(), signalConfig.getRemoteTransport(), position);
+            SipCall sipCall = new SipCall(signalConfig.getUserName(), signalConfig.getIp(), signalConfig.getStackName(), signalConfig.getTransportConfigs());
+            campaignScheduler = new CampaignScheduler(new SipShardGroup(sipCall), source, signalConfig.getCampaignConfig(), progressFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        campaignScheduler.start();
+        try {
+            campaignScheduler.awaitCompletion(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            campaignScheduler.stop();
+        }
+
+        LifecycleManager.getInstance().drainAndStop();
+        System.exit(0);
+    }
+
+    /**
+     * @fn private static void runStandby()
+     * @brief Standby 노드로 Active 노드의 호 상태를 복제 받는 함수
+     * Active 노드가 죽으면 같은 이름/주소의 SIP Stack 을 만들어 남은 호의 BYE 에 응답하고, JVM 종료 신호를 받으면 정상 종료한다.
+     * @return 반환값 없음
+     */
+    private static void runStandby() {
+        SignalConfig signalConfig = SignalConfig.getInstance();
+        signalConfig.configureAdmission();
+        signalConfig.configureHandlers();
+        signalConfig.configureOverload();
+        signalConfig.configureCapture();
+        signalConfig.configureCdr();
+        signalConfig.configureSnapshot();
+        signalConfig.configureReplication();
+        signalConfig.configureLifecycle();
+        ReplicationManager.getInstance().startStandby();
+
+        try {
+            LifecycleManager.getInstance().awaitStopped(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.exit(0);
+    }
+
+    /**
+     * @fn private static void runExport(String[] args)
+     * @brief 캡처 파일을 텍스트 또는 pcap 파일로 변환하는 함수
+     * 디렉토리를 지정하면 디렉토리 안의 캡처 파일(*.sigcap)을 모두 변환한다.
+     * @param args 매개변수(입력)
+     * @return 반환값 없음
+     */
+    private static void runExport(String[] args) {
+        if (args.length < 4 || !(args[1].equals("text") || args[1].equals("pcap"))) {
+            System.err.println("Usage : export [text|pcap] [output file] [capture file or directory ...]");
+            return;
+        }
+
+        List<File> files = new ArrayList<>();
+        for (int i = 3; i < args.length; i++) {
+            File file = new File(args[i]);
+            File[] children = file.listFiles();
+            if (children == null) {
+                files.add(file);
+                continue;
+            }
+            for (File child : children) {
+                if (child.getName().endsWith(CaptureFormat.FILE_EXTENSION)) files.add(child);
+            }
+        }
+
+        try {
+            File output = new File(args[2]);
+            int count = args[1].equals("text") ? CaptureExporter.exportText(files, output) : CaptureExporter.exportPcap(files, output);
+            System.out.println(count + " messages are exported to " + output);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @fn private static TransportConfig[] newLoopbackTransports(int port, final String transport, int shardCount)
+     * @brief 부하 시험용 전송 설정 목록을 만드는 함수
+     * UDP 와 TCP 는 같은 포트를 사용하고, TLS 는 시험 전송이 tls 이거나 javax.net.ssl.keyStore 가 지정된 경우에만 포트 + 1 로 추가한다.
+     * 성능 프로파일을 골랐으면 프로파일의 전송별 작업 쓰레드 수와 대기열 크기를 사용한다.
+     * @param port       UDP/TCP 포트(입력)
+     * @param transport  시험 전송 프로토콜(입력, 읽기 전용)
+     * @param shardCount 샤드 수, 작업 쓰레드를 나눠 가짐(입력)
+     * @return 전송 설정 목록
+     */
+    private static TransportConfig[] newLoopbackTransports(int port, final String transport, int shardCount) {
+        TransportConfig udp = newLoopbackTransport("udp", port, shardCount);
+        TransportConfig tcp = newLoopbackTransport("tcp", port, shardCount);
+        if (!transport.equals("tls") && System.getProperty("javax.net.ssl.keyStore") == null) {
+            return new TransportConfig[]{udp, tcp};
+        }
+
+        TransportConfig tls = newLoopbackTransport("tls", port + TLS_PORT_OFFSET, shardCount);
+        return new TransportConfig[]{udp, tcp, tls};
+    }
+
+    /**
+     * @fn private static TransportConfig newLoopbackTransport(final String protocol, int port, int shardCount)
+     * @brief 부하 시험용 전송 설정 하나를 만드는 함수 (기본은 CPU 코어 수를 샤드에 나눈 작업 쓰레드)
+     * @param protocol   전송 프로토콜(입력, 읽기 전용)
+     * @param port       포트(입력)
+     * @param shardCount 샤드 수(입력)
+     * @return 전송 설정
+     */
+    private static TransportConfig newLoopbackTransport(final String protocol, int port, int shardCount) {
+        SignalConfig signalConfig = SignalConfig.getInstance();
+        if (!signalConfig.getProfile().equals(SignalConfig.DEFAULT_PROFILE)) {
+            for (TransportConfig transportConfig : signalConfig.getTransportConfigs()) {
+                if (transportConfig.getProtocol().equals(protocol)) {
+                    return new TransportConfig(protocol, port, transportConfig.getWorkerThreads(), transportConfig.getQueueSize());
+                }
+            }
+        }
 
-        RequestManager.getInstance().requestInvite(sipCall, "jamesj@127.0.0.1");
+        int workerThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / shardCount);
+        return new TransportConfig(protocol, port, workerThreads, TransportConfig.DEFAULT_QUEUE_SIZE);
     }
 }
@@ -0,0 +1,151 @@
+package com.signal.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @class public class LatencyHistogram
+ * @brief 지연 시간(ns)을 Lock 없이 누적하는 로그-선형(Log-linear) 히스토그램 클래스
+ * 2 의 거듭제곱 구간마다 SUB_BUCKET_COUNT 개의 균등 구간으로 나누므로 백분위 값의 상대 오차는 1/SUB_BUCKET_COUNT 이하이다.
+ * 기록은 배열 원소 하나의 원자적 증가로 끝나므로 여러 쓰레드에서 동시에 호출해도 된다.
+ */
+public class LatencyHistogram {
+    /* 2 의 거듭제곱 구간 하나를 나누는 비트 수 */
+    private static final int SUB_BUCKET_BITS = 4;
+    /* 2 의 거듭제곱 구간 하나를 나누는 균등 구간 개수 */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /* 전체 구간 개수 (0 ~ Long.MAX_VALUE) */
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+    /* 구간별 기록 개수 */
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    /* 전체 기록 개수 */
+    private final AtomicLong count = new AtomicLong(0);
+    /* 전체 기록 합계 (ns) */
+    private final AtomicLong sum = new AtomicLong(0);
+    /* 최대 기록 값 (ns) */
+    private final AtomicLong max = new AtomicLong(0);
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public void record(long nanos)
+     * @brief 지연 시간을 기록하는 함수
+     * @param nanos 지연 시간, ns(입력, 음수는 0 으로 기록)
+     * @return 반환값 없음
+     */
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+
+        buckets.incrementAndGet(toIndex(nanos));
+        count.incrementAndGet();
+        sum.addAndGet(nanos);
+
+        long current = max.get();
+        while (nanos > current && !max.compareAndSet(current, nanos)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * @fn public long percentile(double percentile)
+     * @brief 지정한 백분위의 지연 시간을 반환하는 함수 (구간의 상한값)
+     * @param percentile 백분위, 0 ~ 100(입력)
+     * @return 지연 시간(ns), 기록이 없으면 0 반환
+     */
+    public long percentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+
+        long total = count.get();
+        if (total == 0) return 0;
+
+        long target = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long accumulated = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            accumulated += buckets.get(i);
+            if (accumulated >= target) {
+                return Math.min(toUpperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * @fn public long getCount()
+     * @brief 전체 기록 개수를 반환하는 함수
+     * @return 전체 기록 개수
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @fn public long getMean()
+     * @brief 평균 지연 시간을 반환하는 함수
+     * @return 평균 지연 시간(ns), 기록이 없으면 0 반환
+     */
+    public long getMean() {
+        long total = count.get();
+        return total == 0 ? 0 : sum.get() / total;
+    }
+
+    /**
+     * @fn public long getMax()
+     * @brief 최대 지연 시간을 반환하는 함수
+     * @return 최대 지연 시간(ns)
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @fn public void reset()
+     * @brief 기록을 초기화하는 함수
+     * 초기화 중에 기록된 값은 일부 남을 수 있다.
+     * @return 반환값 없음
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private static int toIndex(long value)
+     * @brief 값이 속하는 구간 번호를 반환하는 함수
+     * @param value 값(입력, 0 이상)
+     * @return 구간 번호
+     */
+    private static int toIndex(long value) {
+        if (value < (SUB_BUCKET_COUNT << 1)) return (int) value;
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * @fn private static long toUpperBound(int index)
+     * @brief 구간의 상한값을 반환하는 함수
+     * @param index 구간 번호(입력)
+     * @return 구간의 상한값
+     */
+    private static long toUpperBound(int index) {
+        if (index < (SUB_BUCKET_COUNT << 1)) return index;
+
+        int exponent = index / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+        int shift = exponent - SUB_BUCKET_BITS;
+        long lowerBound = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,66 @@
+package com.signal.metrics;
+
+/**
+ * @class public class LatencyStats implements LatencyStatsMXBean
+ * @brief LatencyHistogram 을 JMX 로 노출하는 클래스 (ns 를 us 로 변환)
+ */
+public class LatencyStats implements LatencyStatsMXBean {
+    /* 나노초를 마이크로초로 나누는 값 */
+    private static final long NANOS_PER_MICRO = 1000;
+    /* 지연 시간 히스토그램 */
+    private final LatencyHistogram histogram;
+
+    /**
+     * @fn public LatencyStats(final LatencyHistogram histogram)
+     * @brief 지연 시간 통계 객체를 초기화하는 함수
+     * @param histogram 지연 시간 히스토그램(입력, 읽기 전용)
+     */
+    public LatencyStats(final LatencyHistogram histogram) {
+        if (histogram == null) throw new NullPointerException("Histogram is null");
+        this.histogram = histogram;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Override Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public long getCount() {
+        return histogram.getCount();
+    }
+
+    @Override
+    public long getMeanMicros() {
+        return histogram.getMean() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public long getP50Micros() {
+        return histogram.percentile(50) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public long getP90Micros() {
+        return histogram.percentile(90) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public long getP99Micros() {
+        return histogram.percentile(99) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public long getP999Micros() {
+        return histogram.percentile(99.9) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public long getMaxMicros() {
+        return histogram.getMax() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public void reset() {
+        histogram.reset();
+    }
+}
@@ -0,0 +1,23 @@
+package com.signal.metrics;
+
+/**
+ * @interface public interface LatencyStatsMXBean
+ * @brief JMX 로 노출하는 지연 시간 통계 (단위 : us)
+ */
+public interface LatencyStatsMXBean {
+    long getCount();
+
+    long getMeanMicros();
+
+    long getP50Micros();
+
+    long getP90Micros();
+
+    long getP99Micros();
+
+    long getP999Micros();
+
+    long getMaxMicros();
+
+    void reset();
+}
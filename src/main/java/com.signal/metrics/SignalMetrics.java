@@ -0,0 +1,480 @@
+package com.signal.metrics;
+
+import com.signal.answer.InviteAnswerPipeline;
+import com.signal.control.AdmissionController;
+import com.signal.registry.CallRegistry;
+import com.signal.timer.HashedWheelTimer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.sip.ServerTransaction;
+import javax.sip.Transaction;
+import javax.sip.message.Request;
+import javax.sip.message.Response;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * @class public class SignalMetrics implements SignalMetricsMXBean
+ * @brief SIP 신호 처리 통계를 수집하고 JMX 로 노출하는 클래스
+ * Method 별/응답 코드별 횟수는 StripedCounter 로, 지연 시간은 LatencyHistogram 으로 누적하므로
+ * SIP Stack 쓰레드에서 Lock 없이 기록할 수 있다. DEBUG 로그 없이 jconsole 등으로 운영 중인 노드를 확인한다.
+ *
+ * 지연 시간 통계 (com.signal:type=Latency,name=<이름>)
+ * - handler.request.<Method>  : processRequest 처리 시간
+ * - handler.response.<Method> : processResponse 처리 시간
+ * - handler.queue.<Bulkhead>  : 요청 처리기 Bulkhead 대기열 대기 시간 (virtual : 가상 쓰레드 Call-ID 별 대기열)
+ * - transaction.server.<Method> : 요청 수신 ~ 최종 응답 송신 시간
+ * - transaction.client.<Method> : 요청 송신 ~ 최종 응답 수신 시간
+ * - resolver.lookup           : 발신 대상 해석(RFC 3263) DNS 조회 시간 (캐시 미스와 미리 갱신)
+ * 트랜잭션 시간은 트랜잭션의 Application Data 에 시작 시각(ns)을 저장해서 구한다.
+ */
+public class SignalMetrics implements SignalMetricsMXBean {
+    /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
+    private static final Logger logger = LoggerFactory.getLogger(SignalMetrics.class);
+    /* JMX 객체 이름 */
+    public static final String OBJECT_NAME = "com.signal:type=SignalMetrics";
+    /* 지연 시간 통계 JMX 객체 이름 접두사 */
+    public static final String LATENCY_OBJECT_NAME_PREFIX = "com.signal:type=Latency,name=";
+    /* 알 수 없는 Method 를 모아서 집계하는 이름 (임의의 Method 로 통계 항목이 늘어나는 것 방지) */
+    private static final String OTHER_METHOD = "OTHER";
+    /* 따로 집계하는 Method 목록 */
+    private static final Set<String> KNOWN_METHODS = new HashSet<>(Arrays.asList(
+            Request.INVITE, Request.ACK, Request.BYE, Request.CANCEL, Request.MESSAGE, Request.OPTIONS,
+            Request.REGISTER, Request.INFO, Request.UPDATE, Request.PRACK, Request.SUBSCRIBE, Request.NOTIFY,
+            Request.REFER, Request.PUBLISH));
+    /* SIP 신호 처리 통계 객체(singleton) */
+    private static final SignalMetrics signalMetrics = new SignalMetrics();
+    /* Method 별 수신 요청 수 */
+    private final ConcurrentHashMap<String, StripedCounter> requestsReceived = new ConcurrentHashMap<>();
+    /* Method 별 송신 요청 수 */
+    private final ConcurrentHashMap<String, StripedCounter> requestsSent = new ConcurrentHashMap<>();
+    /* 응답 코드별 수신 응답 수 */
+    private final ConcurrentHashMap<Integer, StripedCounter> responsesReceived = new ConcurrentHashMap<>();
+    /* 응답 코드별 송신 응답 수 */
+    private final ConcurrentHashMap<Integer, StripedCounter> responsesSent = new ConcurrentHashMap<>();
+    /* Method 별 트랜잭션 시간 초과 수 */
+    private final ConcurrentHashMap<String, StripedCounter> timeouts = new ConcurrentHashMap<>();
+    /* 종료된 트랜잭션 수 */
+    private final StripedCounter transactionsTerminated = new StripedCounter();
+    /* Method 별 만료되어 정리된 트랜잭션 수 */
+    private final ConcurrentHashMap<String, StripedCounter> reclaimedTransactions = new ConcurrentHashMap<>();
+    /* 만료되어 정리된 다이얼로그 수 */
+    private final StripedCounter reclaimedDialogs = new StripedCounter();
+    /* 갱신된 세션 수 (보내거나 받은 UPDATE 의 2xx) */
+    private final StripedCounter sessionRefreshes = new StripedCounter();
+    /* 전송 I/O 오류 수 */
+    private final StripedCounter ioExceptions = new StripedCounter();
+    /* 이름별 지연 시간 히스토그램 */
+    private final ConcurrentHashMap<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    /* 트랜잭션/다이얼로그 수를 집계할 호 등록 관리 객체 목록 */
+    private final CopyOnWriteArraySet<CallRegistry> callRegistries = new CopyOnWriteArraySet<>();
+    /* JMX 등록 서버 (등록 실패 시 null) */
+    private final MBeanServer mBeanServer;
+
+    /**
+     * @fn private SignalMetrics()
+     * @brief SIP 신호 처리 통계 객체를 초기화하고 JMX 에 등록하는 함수
+     */
+    private SignalMetrics() {
+        MBeanServer server = null;
+        try {
+            server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(this, objectName);
+            }
+        } catch (Exception e) {
+            logger.warn("Fail to register metrics MBean", e);
+        }
+        this.mBeanServer = server;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public static SignalMetrics getInstance()
+     * @brief SIP 신호 처리 통계 객체의 싱글턴 인스턴스를 반환하는 함수
+     * @return SIP 신호 처리 통계 객체
+     */
+    public static SignalMetrics getInstance() {
+        return signalMetrics;
+    }
+
+    /**
+     * @fn public void addCallRegistry(final CallRegistry callRegistry)
+     * @brief 트랜잭션/다이얼로그 수를 집계할 호 등록 관리 객체를 추가하는 함수
+     * @param callRegistry 호 등록 관리 객체(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void addCallRegistry(final CallRegistry callRegistry) {
+        if (callRegistry != null) callRegistries.add(callRegistry);
+    }
+
+    /**
+     * @fn public void onRequestReceived(final Request request, final ServerTransaction serverTransaction)
+     * @brief 요청 수신을 집계하고 서버 트랜잭션 시작 시각을 기록하는 함수
+     * @param request           수신한 요청(입력, 읽기 전용)
+     * @param serverTransaction 서버 트랜잭션(입력, 읽기 전용, null 가능)
+     * @return 반환값 없음
+     */
+    public void onRequestReceived(final Request request, final ServerTransaction serverTransaction) {
+        String method = toMethodKey(request.getMethod());
+        counter(requestsReceived, method).increment();
+
+        if (serverTransaction != null && !Request.ACK.equals(method) && serverTransaction.getApplicationData() == null) {
+            serverTransaction.setApplicationData(System.nanoTime());
+        }
+    }
+
+    /**
+     * @fn public void onRequestSent(final Request request, final Transaction clientTransaction)
+     * @brief 요청 송신을 집계하고 클라이언트 트랜잭션 시작 시각을 기록하는 함수 (송신 직전에 호출)
+     * @param request           송신할 요청(입력, 읽기 전용)
+     * @param clientTransaction 클라이언트 트랜잭션(입력, 읽기 전용, null 가능)
+     * @return 반환값 없음
+     */
+    public void onRequestSent(final Request request, final Transaction clientTransaction) {
+        counter(requestsSent, toMethodKey(request.getMethod())).increment();
+
+        if (clientTransaction != null) {
+            clientTransaction.setApplicationData(System.nanoTime());
+        }
+    }
+
+    /**
+     * @fn public void onResponseReceived(final Response response, final Transaction clientTransaction)
+     * @brief 응답 수신을 집계하고 최종 응답이면 클라이언트 트랜잭션 시간을 기록하는 함수
+     * @param response          수신한 응답(입력, 읽기 전용)
+     * @param clientTransaction 클라이언트 트랜잭션(입력, 읽기 전용, null 가능)
+     * @return 반환값 없음
+     */
+    public void onResponseReceived(final Response response, final Transaction clientTransaction) {
+        int statusCode = response.getStatusCode();
+        counter(responsesReceived, statusCode).increment();
+
+        if (statusCode >= Response.OK && clientTransaction != null) {
+            recordTransactionTime("transaction.client.", clientTransaction);
+        }
+    }
+
+    /**
+     * @fn public void onResponseSent(final Response response, final Transaction serverTransaction)
+     * @brief 응답 송신을 집계하고 최종 응답이면 서버 트랜잭션 시간을 기록하는 함수
+     * @param response          송신한 응답(입력, 읽기 전용)
+     * @param serverTransaction 서버 트랜잭션(입력, 읽기 전용, null 가능)
+     * @return 반환값 없음
+     */
+    public void onResponseSent(final Response response, final Transaction serverTransaction) {
+        int statusCode = response.getStatusCode();
+        counter(responsesSent, statusCode).increment();
+
+        if (statusCode >= Response.OK && serverTransaction != null) {
+            recordTransactionTime("transaction.server.", serverTransaction);
+        }
+    }
+
+    /**
+     * @fn public void onTimeout(final String method)
+     * @brief 트랜잭션 시간 초과를 집계하는 함수
+     * @param method 요청 Method(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void onTimeout(final String method) {
+        counter(timeouts, toMethodKey(method)).increment();
+    }
+
+    /**
+     * @fn public void onTransactionTerminated()
+     * @brief 트랜잭션 종료를 집계하는 함수
+     * @return 반환값 없음
+     */
+    public void onTransactionTerminated() {
+        transactionsTerminated.increment();
+    }
+
+    /**
+     * @fn public void onTransactionReclaimed(final String method)
+     * @brief 만료되어 호 등록에서 정리된 트랜잭션을 집계하는 함수
+     * @param method 요청 Method(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void onTransactionReclaimed(final String method) {
+        counter(reclaimedTransactions, toMethodKey(method)).increment();
+    }
+
+    /**
+     * @fn public void onDialogReclaimed()
+     * @brief 세션 만료로 호 등록에서 정리된 다이얼로그를 집계하는 함수
+     * @return 반환값 없음
+     */
+    public void onDialogReclaimed() {
+        reclaimedDialogs.increment();
+    }
+
+    /**
+     * @fn public void onSessionRefreshed()
+     * @brief 세션 갱신(UPDATE 2xx)을 집계하는 함수
+     * @return 반환값 없음
+     */
+    public void onSessionRefreshed() {
+        sessionRefreshes.increment();
+    }
+
+    /**
+     * @fn public void onIOException()
+     * @brief 전송 I/O 오류(IOExceptionEvent)를 집계하는 함수
+     * @return 반환값 없음
+     */
+    public void onIOException() {
+        ioExceptions.increment();
+    }
+
+    /**
+     * @fn public void recordRequestHandler(final String method, long startTime)
+     * @brief processRequest 처리 시간을 기록하는 함수
+     * @param method    요청 Method(입력, 읽기 전용)
+     * @param startTime 처리 시작 시각, System.nanoTime()(입력)
+     * @return 반환값 없음
+     */
+    public void recordRequestHandler(final String method, long startTime) {
+        latency("handler.request." + toMethodKey(method)).record(System.nanoTime() - startTime);
+    }
+
+    /**
+     * @fn public void recordResponseHandler(final String method, long startTime)
+     * @brief processResponse 처리 시간을 기록하는 함수
+     * @param method    응답한 요청의 Method(입력, 읽기 전용)
+     * @param startTime 처리 시작 시각, System.nanoTime()(입력)
+     * @return 반환값 없음
+     */
+    public void recordResponseHandler(final String method, long startTime) {
+        latency("handler.response." + toMethodKey(method)).record(System.nanoTime() - startTime);
+    }
+
+    /**
+     * @fn public LatencyHistogram latency(final String name)
+     * @brief 이름에 해당하는 지연 시간 히스토그램을 반환하는 함수 (없으면 생성 후 JMX 에 등록)
+     * @param name 히스토그램 이름(입력, 읽기 전용)
+     * @return 지연 시간 히스토그램
+     */
+    public LatencyHistogram latency(final String name) {
+        LatencyHistogram histogram = latencies.get(name);
+        if (histogram != null) return histogram;
+
+        LatencyHistogram newHistogram = new LatencyHistogram();
+        histogram = latencies.putIfAbsent(name, newHistogram);
+        if (histogram != null) return histogram;
+
+        registerLatency(name, newHistogram);
+        return newHistogram;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Override Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public Map<String, Long> getRequestsReceived() {
+        return snapshot(requestsReceived);
+    }
+
+    @Override
+    public Map<String, Long> getRequestsSent() {
+        return snapshot(requestsSent);
+    }
+
+    @Override
+    public Map<String, Long> getResponsesReceived() {
+        return snapshot(responsesReceived);
+    }
+
+    @Override
+    public Map<String, Long> getResponsesSent() {
+        return snapshot(responsesSent);
+    }
+
+    @Override
+    public Map<String, Long> getTimeouts() {
+        return snapshot(timeouts);
+    }
+
+    @Override
+    public long getTransactionsTerminated() {
+        return transactionsTerminated.sum();
+    }
+
+    @Override
+    public Map<String, Long> getReclaimedTransactions() {
+        return snapshot(reclaimedTransactions);
+    }
+
+    @Override
+    public long getReclaimedDialogs() {
+        return reclaimedDialogs.sum();
+    }
+
+    @Override
+    public long getSessionRefreshes() {
+        return sessionRefreshes.sum();
+    }
+
+    @Override
+    public long getIOExceptions() {
+        return ioExceptions.sum();
+    }
+
+    @Override
+    public long getPendingTimers() {
+        return HashedWheelTimer.getInstance().getPendingTimeouts();
+    }
+
+    @Override
+    public long getActiveTransactions() {
+        long count = 0;
+        for (CallRegistry callRegistry : callRegistries) {
+            count += callRegistry.getTransactionCount();
+        }
+        return count;
+    }
+
+    @Override
+    public long getActiveDialogs() {
+        long count = 0;
+        for (CallRegistry callRegistry : callRegistries) {
+            count += callRegistry.getDialogCount();
+        }
+        return count;
+    }
+
+    @Override
+    public long getActiveCalls() {
+        return AdmissionController.getInstance().getActiveCalls();
+    }
+
+    @Override
+    public long getPendingAnswers() {
+        return InviteAnswerPipeline.getInstance().getPendingAnswerCount();
+    }
+
+    @Override
+    public void reset() {
+        resetCounters(requestsReceived);
+        resetCounters(requestsSent);
+        resetCounters(responsesReceived);
+        resetCounters(responsesSent);
+        resetCounters(timeouts);
+        transactionsTerminated.reset();
+        resetCounters(reclaimedTransactions);
+        reclaimedDialogs.reset();
+        sessionRefreshes.reset();
+        ioExceptions.reset();
+        for (LatencyHistogram histogram : latencies.values()) {
+            histogram.reset();
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private void recordTransactionTime(final String prefix, final Transaction transaction)
+     * @brief 트랜잭션에 기록된 시작 시각부터 현재까지의 시간을 기록하는 함수 (한 트랜잭션에 한 번만 기록)
+     * @param prefix      히스토그램 이름 접두사(입력, 읽기 전용)
+     * @param transaction 트랜잭션(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    private void recordTransactionTime(final String prefix, final Transaction transaction) {
+        Object startTime = transaction.getApplicationData();
+        if (!(startTime instanceof Long)) return;
+
+        transaction.setApplicationData(null);
+        Request request = transaction.getRequest();
+        String method = request == null ? OTHER_METHOD : toMethodKey(request.getMethod());
+        latency(prefix + method).record(System.nanoTime() - (Long) startTime);
+    }
+
+    /**
+     * @fn private void registerLatency(final String name, final LatencyHistogram histogram)
+     * @brief 지연 시간 히스토그램을 JMX 에 등록하는 함수
+     * @param name      히스토그램 이름(입력, 읽기 전용)
+     * @param histogram 지연 시간 히스토그램(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    private void registerLatency(final String name, final LatencyHistogram histogram) {
+        if (mBeanServer == null) return;
+
+        try {
+            ObjectName objectName = new ObjectName(LATENCY_OBJECT_NAME_PREFIX + name);
+            if (!mBeanServer.isRegistered(objectName)) {
+                mBeanServer.registerMBean(new LatencyStats(histogram), objectName);
+            }
+        } catch (Exception e) {
+            logger.warn("Fail to register latency MBean ({})", name, e);
+        }
+    }
+
+    /**
+     * @fn private static String toMethodKey(final String method)
+     * @brief 집계에 사용할 Method 이름을 반환하는 함수
+     * @param method 요청 Method(입력, 읽기 전용)
+     * @return 알려진 Method 면 그대로, 아니면 OTHER
+     */
+    private static String toMethodKey(final String method) {
+        return method != null && KNOWN_METHODS.contains(method) ? method : OTHER_METHOD;
+    }
+
+    /**
+     * @fn private static <K> StripedCounter counter(final ConcurrentMap<K, StripedCounter> counters, final K key)
+     * @brief 키에 해당하는 카운터를 반환하는 함수 (없으면 생성)
+     * @param counters 카운터 목록(입력, 읽기 전용)
+     * @param key      키(입력, 읽기 전용)
+     * @return 카운터
+     */
+    private static <K> StripedCounter counter(final ConcurrentMap<K, StripedCounter> counters, final K key) {
+        StripedCounter counter = counters.get(key);
+        if (counter != null) return counter;
+
+        StripedCounter newCounter = new StripedCounter();
+        counter = counters.putIfAbsent(key, newCounter);
+        return counter != null ? counter : newCounter;
+    }
+
+    /**
+     * @fn private static <K> Map<String, Long> snapshot(final ConcurrentMap<K, StripedCounter> counters)
+     * @brief 카운터 목록의 현재 합계를 키 순서대로 복사해서 반환하는 함수
+     * @param counters 카운터 목록(입력, 읽기 전용)
+     * @return 키별 합계
+     */
+    private static <K> Map<String, Long> snapshot(final ConcurrentMap<K, StripedCounter> counters) {
+        Map<String, Long> snapshot = new TreeMap<>();
+        for (Map.Entry<K, StripedCounter> entry : counters.entrySet()) {
+            snapshot.put(String.valueOf(entry.getKey()), entry.getValue().sum());
+        }
+        return snapshot;
+    }
+
+    /**
+     * @fn private static void resetCounters(final ConcurrentMap<?, StripedCounter> counters)
+     * @brief 카운터 목록을 모두 0 으로 초기화하는 함수
+     * @param counters 카운터 목록(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    private static void resetCounters(final ConcurrentMap<?, StripedCounter> counters) {
+        for (StripedCounter counter : counters.values()) {
+            counter.reset();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.signal.metrics;
+
+import java.util.Map;
+
+/**
+ * @interface public interface SignalMetricsMXBean
+ * @brief JMX 로 노출하는 SIP 신호 처리 통계 (Method 별/응답 코드별 횟수와 현재 상태)
+ * 지연 시간 통계는 com.signal:type=Latency,name=<이름> 으로 따로 노출한다.
+ */
+public interface SignalMetricsMXBean {
+    /* Method 별 수신 요청 수 */
+    Map<String, Long> getRequestsReceived();
+
+    /* Method 별 송신 요청 수 */
+    Map<String, Long> getRequestsSent();
+
+    /* 응답 코드별 수신 응답 수 */
+    Map<String, Long> getResponsesReceived();
+
+    /* 응답 코드별 송신 응답 수 */
+    Map<String, Long> getResponsesSent();
+
+    /* Method 별 트랜잭션 시간 초과 수 */
+    Map<String, Long> getTimeouts();
+
+    /* 종료된 트랜잭션 수 */
+    long getTransactionsTerminated();
+
+    /* Method 별 만료되어 정리된 트랜잭션 수 */
+    Map<String, Long> getReclaimedTransactions();
+
+    /* 세션 만료로 정리된 다이얼로그 수 */
+    long getReclaimedDialogs();
+
+    /* 갱신된 세션 수 */
+    long getSessionRefreshes();
+
+    /* 전송 I/O 오류 수 */
+    long getIOExceptions();
+
+    /* 예약된 만료/갱신 타이머 수 */
+    long getPendingTimers();
+
+    /* 현재 등록된 트랜잭션 수 */
+    long getActiveTransactions();
+
+    /* 현재 등록된 다이얼로그 수 */
+    long getActiveDialogs();
+
+    /* 현재 수락된 호 수 */
+    long getActiveCalls();
+
+    /* 200 OK 전송을 기다리는 호 수 */
+    long getPendingAnswers();
+
+    /* 모든 횟수와 지연 시간 통계 초기화 */
+    void reset();
+}
@@ -0,0 +1,68 @@
+package com.signal.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @class public class StripedCounter
+ * @brief 쓰레드별로 나눈 칸(Stripe)에 누적하는 경합이 적은 카운터 클래스
+ * 쓰레드 ID 로 칸을 고르므로 여러 SIP Stack 쓰레드가 동시에 증가시켜도 같은 캐시 라인을 두고 경합하지 않는다.
+ * 합계는 읽을 때 모든 칸을 더해서 구하므로, 읽기보다 쓰기가 훨씬 많은 통계 값에 사용한다.
+ */
+public class StripedCounter {
+    /* 칸 하나가 차지하는 배열 원소 수 (64 byte 캐시 라인 단위로 떨어뜨려 False sharing 방지) */
+    private static final int PADDING = 8;
+    /* 칸 개수 (2 의 거듭제곱, CPU 코어 수의 2 배 이상) */
+    private static final int STRIPE_COUNT = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1;
+    /* 칸 번호 마스크 */
+    private static final int STRIPE_MASK = STRIPE_COUNT - 1;
+    /* 칸별 누적 값 */
+    private final AtomicLongArray cells = new AtomicLongArray(STRIPE_COUNT * PADDING);
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public void increment()
+     * @brief 카운터를 1 증가시키는 함수
+     * @return 반환값 없음
+     */
+    public void increment() {
+        add(1);
+    }
+
+    /**
+     * @fn public void add(long value)
+     * @brief 카운터에 값을 더하는 함수
+     * @param value 더할 값(입력)
+     * @return 반환값 없음
+     */
+    public void add(long value) {
+        cells.addAndGet(((int) Thread.currentThread().getId() & STRIPE_MASK) * PADDING, value);
+    }
+
+    /**
+     * @fn public long sum()
+     * @brief 모든 칸의 합계를 반환하는 함수
+     * 합계를 구하는 동안 증가한 값은 포함되지 않을 수 있다.
+     * @return 합계
+     */
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    /**
+     * @fn public void reset()
+     * @brief 모든 칸을 0 으로 초기화하는 함수
+     * @return 반환값 없음
+     */
+    public void reset() {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            cells.set(i * PADDING, 0);
+        }
+    }
+}
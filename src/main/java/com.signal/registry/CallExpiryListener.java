@@ -0,0 +1,39 @@
+package com.signal.registry;
+
+import javax.sip.Dialog;
+import javax.sip.Transaction;
+
+/**
+ * @interface public interface CallExpiryListener
+ * @brief 호 등록 객체에서 만료된 트랜잭션/다이얼로그를 전달받는 인터페이스
+ * 타이머 쓰레드에서 호출되므로 구현 시 오래 걸리는 작업을 하지 않는다.
+ * 호출되는 시점에는 이미 호 등록 객체에서 삭제된 상태이다.
+ */
+public interface CallExpiryListener {
+    /**
+     * @fn void onTransactionExpired(final String callId, final Transaction transaction)
+     * @brief 최종 응답 없이 정리 시간이 지난 트랜잭션이 삭제된 후 호출되는 함수
+     * @param callId      Call-ID(입력, 읽기 전용)
+     * @param transaction 삭제된 트랜잭션(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    void onTransactionExpired(final String callId, final Transaction transaction);
+
+    /**
+     * @fn void onDialogRefresh(final String callId, final Dialog dialog)
+     * @brief 다이얼로그의 세션 갱신 시간이 되었을 때 호출되는 함수 (다이얼로그는 삭제되지 않음)
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @param dialog 다이얼로그(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    void onDialogRefresh(final String callId, final Dialog dialog);
+
+    /**
+     * @fn void onDialogExpired(final String callId, final Dialog dialog)
+     * @brief 만료 시간이 지난 다이얼로그가 삭제된 후 호출되는 함수
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @param dialog 삭제된 다이얼로그(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    void onDialogExpired(final String callId, final Dialog dialog);
+}
@@ -0,0 +1,563 @@
+package com.signal.registry;
+
+import com.signal.logic.SipCall;
+import com.signal.timer.HashedWheelTimer;
+
+import javax.sip.Dialog;
+import javax.sip.Transaction;
+import javax.sip.header.CallIdHeader;
+import javax.sip.message.Request;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @class public class CallRegistry
+ * @brief 트랜잭션과 다이얼로그를 Call-ID 문자열 기준으로 관리하는 호 등록 클래스
+ * 저장소는 Lock Striping 방식의 ConcurrentHashMap 을 사용하여 JAIN SIP Stack 의 여러 쓰레드에서 동시에 접근해도 안전하다.
+ * 트랜잭션은 Call-ID 하나에 여러 개(Invite 와 Bye, re-INVITE 와 Update 등)를 Call-ID, CSeq 번호/Method, branch 로 색인한다. (TransactionIndex)
+ *
+ * 만료 시간을 지정하면 Hashed Wheel Timer 로 정리되지 않은 트랜잭션/다이얼로그를 삭제한다.
+ * 트랜잭션 타이머는 트랜잭션 색인 항목에 저장되어 트랜잭션이 색인에서 삭제될 때 함께 취소된다.
+ * 다이얼로그는 Call-ID 마다 타이머(만료 또는 세션 갱신) 하나만 유지하며, 새 타이머를 예약하면 기존 타이머는 취소된다.
+ */
+public class CallRegistry {
+    /* Lock Striping 시 코어당 사용할 세그먼트 수 */
+    private static final int STRIPES_PER_CORE = 4;
+    /* 해쉬 맵 초기 용량 */
+    private static final int INITIAL_CAPACITY = 1024;
+    /* 호 등록 관리 객체(singleton) */
+    private static final CallRegistry callRegistry = new CallRegistry();
+    /* 트랜잭션 색인, 현재 처리 중인 트랜잭션을 Call-ID, CSeq 번호/Method, branch 별로 관리 */
+    private final TransactionIndex transactionIndex;
+    /* 다이얼로그 관리 맵, 현재 설립된 다이얼로그에 대한 정보를 Call-ID 별로 관리 */
+    private final ConcurrentHashMap<String, Dialog> dialogMap;
+    /* 현재 관리 중인 다이얼로그 개수 (size() 호출 시 전체 세그먼트 잠금을 피하기 위해 별도로 관리) */
+    private final AtomicInteger dialogCount = new AtomicInteger(0);
+    /* 다이얼로그별 만료(또는 세션 갱신) 타이머 */
+    private final ConcurrentHashMap<String, HashedWheelTimer.Timeout> dialogTimeouts;
+    /* 만료 타이머 */
+    private final HashedWheelTimer timer;
+    /* 최종 응답 없이 남은 트랜잭션을 삭제하기까지의 시간 (ms, 0 이면 삭제하지 않음) */
+    private volatile long transactionTimeout = 0;
+    /* 다이얼로그를 추가할 때 예약하는 기본 만료 시간 (ms, 0 이면 만료되지 않음) */
+    private volatile long dialogTimeout = 0;
+    /* 만료 처리 인터페이스 */
+    private volatile CallExpiryListener expiryListener = null;
+    /* 다이얼로그 추가/삭제 알림 인터페이스 목록 (스냅샷, 복제) */
+    private final CopyOnWriteArrayList<DialogChangeListener> dialogChangeListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @fn public CallRegistry()
+     * @brief 호 등록 관리 객체를 초기화하는 함수
+     * 세그먼트 수는 사용 가능한 코어 수에 비례하도록 지정한다.
+     */
+    public CallRegistry() {
+        this(HashedWheelTimer.getInstance());
+    }
+
+    /**
+     * @fn public CallRegistry(final HashedWheelTimer timer)
+     * @brief 지정한 만료 타이머를 사용하는 호 등록 관리 객체를 초기화하는 함수
+     * @param timer 만료 타이머(입력, 읽기 전용)
+     */
+    public CallRegistry(final HashedWheelTimer timer) {
+        SipCall.checkObjectNull(null, timer);
+
+        int concurrencyLevel = Runtime.getRuntime().availableProcessors() * STRIPES_PER_CORE;
+        this.transactionIndex = new TransactionIndex(INITIAL_CAPACITY, concurrencyLevel);
+        this.dialogMap = new ConcurrentHashMap<>(INITIAL_CAPACITY, 0.75f, concurrencyLevel);
+        this.dialogTimeouts = new ConcurrentHashMap<>(INITIAL_CAPACITY, 0.75f, concurrencyLevel);
+        this.timer = timer;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public static CallRegistry getInstance()
+     * @brief 호 등록 관리 객체의 싱글턴 인스턴스를 반환하는 함수
+     * @return 호 등록 관리 객체
+     */
+    public static CallRegistry getInstance() {
+        return callRegistry;
+    }
+
+    /**
+     * @fn public static String toKey(final CallIdHeader callIdHeader)
+     * @brief Call-ID 헤더를 호 등록 키(Call-ID 문자열)로 변환하는 함수
+     * @param callIdHeader Call-ID 헤더(입력, 읽기 전용)
+     * @return Call-ID 문자열
+     */
+    public static String toKey(final CallIdHeader callIdHeader) {
+        SipCall.checkObjectNull(null, callIdHeader);
+        return callIdHeader.getCallId();
+    }
+
+    /**
+     * @fn public void configureExpiry(long transactionTimeout, long dialogTimeout)
+     * @brief 트랜잭션/다이얼로그 만료 시간을 지정하는 함수 (이후 추가되는 항목부터 적용)
+     * @param transactionTimeout 트랜잭션 만료 시간(ms, 입력, 0 이면 만료되지 않음)
+     * @param dialogTimeout      다이얼로그 기본 만료 시간(ms, 입력, 0 이면 만료되지 않음)
+     * @return 반환값 없음
+     */
+    public void configureExpiry(long transactionTimeout, long dialogTimeout) {
+        if (transactionTimeout < 0 || dialogTimeout < 0) {
+            throw new IllegalArgumentException("Expiry must not be negative (transaction:" + transactionTimeout + ", dialog:" + dialogTimeout + ")");
+        }
+
+        this.transactionTimeout = transactionTimeout;
+        this.dialogTimeout = dialogTimeout;
+    }
+
+    /**
+     * @fn public void setExpiryListener(final CallExpiryListener expiryListener)
+     * @brief 만료된 트랜잭션/다이얼로그를 전달받을 인터페이스를 지정하는 함수
+     * @param expiryListener 만료 처리 인터페이스(입력, 읽기 전용, null 이면 전달하지 않음)
+     * @return 반환값 없음
+     */
+    public void setExpiryListener(final CallExpiryListener expiryListener) {
+        this.expiryListener = expiryListener;
+    }
+
+    /**
+     * @fn public void addDialogChangeListener(final DialogChangeListener dialogChangeListener)
+     * @brief 다이얼로그 추가/삭제를 전달받을 인터페이스를 추가하는 함수 (이미 있으면 무시)
+     * @param dialogChangeListener 다이얼로그 추가/삭제 알림 인터페이스(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void addDialogChangeListener(final DialogChangeListener dialogChangeListener) {
+        SipCall.checkObjectNull(null, dialogChangeListener);
+        dialogChangeListeners.addIfAbsent(dialogChangeListener);
+    }
+
+    /**
+     * @fn public void removeDialogChangeListener(final DialogChangeListener dialogChangeListener)
+     * @brief 다이얼로그 추가/삭제 알림 인터페이스를 삭제하는 함수
+     * @param dialogChangeListener 다이얼로그 추가/삭제 알림 인터페이스(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void removeDialogChangeListener(final DialogChangeListener dialogChangeListener) {
+        dialogChangeListeners.remove(dialogChangeListener);
+    }
+
+    /**
+     * @fn public void addTransaction(final String callId, final Transaction transaction)
+     * @brief 지정한 Call-ID(키)에 트랜잭션(밸류)를 추가하는 함수, 같은 CSeq 번호/Method 의 기존 트랜잭션은 덮어쓴다.
+     * @param callId      Call-ID(입력, 읽기 전용)
+     * @param transaction 트랜잭션(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void addTransaction(final String callId, final Transaction transaction) {
+        if (callId != null && transaction != null) {
+            transactionIndex.add(callId, transaction, false);
+            watchTransaction(callId, transaction);
+        }
+    }
+
+    /**
+     * @fn public boolean addTransactionIfAbsent(final String callId, final Transaction transaction)
+     * @brief 같은 Method 의 트랜잭션이 없을 때만 지정한 트랜잭션을 원자적으로 추가하는 함수
+     * 다른 Method 의 트랜잭션은 그대로 함께 유지한다. 같은 branch 의 서버 트랜잭션(재전송)이면 충돌로 보지 않는다. (491 Request Pending 검사에 사용)
+     * @param callId      Call-ID(입력, 읽기 전용)
+     * @param transaction 트랜잭션(입력, 읽기 전용)
+     * @return 추가되었으면 true, 같은 Method 의 트랜잭션이 이미 존재하면 false 반환
+     */
+    public boolean addTransactionIfAbsent(final String callId, final Transaction transaction) {
+        SipCall.checkObjectNull(null, callId, transaction);
+
+        if (!transactionIndex.add(callId, transaction, true)) return false;
+        watchTransaction(callId, transaction);
+        return true;
+    }
+
+    /**
+     * @fn public void removeTransaction(final String callId)
+     * @brief 지정한 Call-ID(키)에 해당하는 모든 트랜잭션(밸류)를 삭제하는 함수
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void removeTransaction(final String callId) {
+        SipCall.checkObjectNull(null, callId);
+        transactionIndex.removeAll(callId);
+    }
+
+    /**
+     * @fn public boolean removeTransaction(final String callId, final Transaction transaction)
+     * @brief 지정한 Call-ID(키)에 지정한 트랜잭션이 등록되어 있을 때만 삭제하는 함수
+     * @param callId      Call-ID(입력, 읽기 전용)
+     * @param transaction 트랜잭션(입력, 읽기 전용)
+     * @return 삭제되었으면 true, 아니면 false 반환
+     */
+    public boolean removeTransaction(final String callId, final Transaction transaction) {
+        SipCall.checkObjectNull(null, callId, transaction);
+        return transactionIndex.remove(callId, transaction);
+    }
+
+    /**
+     * @fn public boolean removeTransaction(final Transaction transaction)
+     * @brief 종료된 트랜잭션을 요청의 Call-ID 로 찾아서 삭제하는 함수 (processTransactionTerminated 에서 호출)
+     * @param transaction 트랜잭션(입력, 읽기 전용)
+     * @return 삭제되었으면 true, 등록되어 있지 않으면 false 반환
+     */
+    public boolean removeTransaction(final Transaction transaction) {
+        SipCall.checkObjectNull(null, transaction);
+        return transactionIndex.remove(transaction);
+    }
+
+    /**
+     * @fn public Transaction searchTransaction(final String callId, final String method)
+     * @brief 지정한 Call-ID(키)에서 가장 최근에 추가된 지정한 Method 의 트랜잭션을 검색하여 반환하는 함수
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @param method 요청 Method(입력, 읽기 전용)
+     * @return 트랜잭션, 없으면 null 반환
+     */
+    public Transaction searchTransaction(final String callId, final String method) {
+        SipCall.checkObjectNull(null, callId, method);
+        return transactionIndex.get(callId, method);
+    }
+
+    /**
+     * @fn public Transaction searchTransaction(final String callId, long cseq, final String method)
+     * @brief 지정한 Call-ID(키)에서 CSeq 번호와 Method 가 같은 트랜잭션을 검색하여 반환하는 함수
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @param cseq   CSeq 번호(입력)
+     * @param method 요청 Method(입력, 읽기 전용)
+     * @return 트랜잭션, 없으면 null 반환
+     */
+    public Transaction searchTransaction(final String callId, long cseq, final String method) {
+        SipCall.checkObjectNull(null, callId, method);
+        return transactionIndex.get(callId, cseq, method);
+    }
+
+    /**
+     * @fn public Transaction searchTransactionByBranch(final String branch, final String method)
+     * @brief 첫 번째 Via 의 branch 와 Method 로 서버 트랜잭션을 검색하여 반환하는 함수 (재전송 확인)
+     * @param branch branch(입력, 읽기 전용)
+     * @param method 요청 Method(입력, 읽기 전용)
+     * @return 서버 트랜잭션, 없으면 null 반환
+     */
+    public Transaction searchTransactionByBranch(final String branch, final String method) {
+        SipCall.checkObjectNull(null, method);
+        return transactionIndex.getByBranch(branch, method);
+    }
+
+    /**
+     * @fn public Transaction searchCanceledTransaction(final Request cancel)
+     * @brief Cancel 요청이 취소하는 Invite 서버 트랜잭션을 branch (없으면 Call-ID 와 CSeq 번호) 로 검색하여 반환하는 함수
+     * @param cancel Cancel 요청(입력, 읽기 전용)
+     * @return Invite 서버 트랜잭션, 없으면 null 반환
+     */
+    public Transaction searchCanceledTransaction(final Request cancel) {
+        SipCall.checkObjectNull(null, cancel);
+        return transactionIndex.getCancelTarget(cancel);
+    }
+
+    /**
+     * @fn public boolean findTransaction(final String callId)
+     * @brief 지정한 Call-ID(키)의 트랜잭션이 하나라도 있는지 확인하는 함수
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @return 있으면 true, 없으면 false 반환
+     */
+    public boolean findTransaction(final String callId) {
+        SipCall.checkObjectNull(null, callId);
+        return transactionIndex.contains(callId);
+    }
+
+    /**
+     * @fn public Request searchRequestFromTransaction(final String callId, final String requestType)
+     * @brief 지정한 Call-ID(키)에서 지정한 요청 유형의 트랜잭션을 검색하여 해당 트랜잭션에 속한 요청을 반환하는 함수
+     * @param callId      Call-ID(입력, 읽기 전용)
+     * @param requestType 요청 유형(입력, 읽기 전용)
+     * @return 요청, 지정한 요청 유형의 트랜잭션이 없으면 null 반환
+     */
+    public Request searchRequestFromTransaction(final String callId, final String requestType) {
+        Transaction transaction = searchTransaction(callId, requestType);
+        return transaction == null ? null : transaction.getRequest();
+    }
+
+    /**
+     * @fn public int getTransactionCount()
+     * @brief 현재 관리 중인 트랜잭션 개수를 반환하는 함수
+     * @return 트랜잭션 개수
+     */
+    public int getTransactionCount() {
+        return transactionIndex.size();
+    }
+
+    /**
+     * @fn public void addDialog(final String callId, final Dialog dialog)
+     * @brief 지정한 Call-ID(키)와 다이얼로그(밸류)를 추가하는 함수
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @param dialog 다이얼로그(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void addDialog(final String callId, final Dialog dialog) {
+        if (callId != null && dialog != null) {
+            if (dialogMap.put(callId, dialog) == null) {
+                dialogCount.incrementAndGet();
+            }
+            scheduleDialog(callId, dialog, dialogTimeout, false);
+            notifyDialogAdded(callId, dialog);
+        }
+    }
+
+    /**
+     * @fn public boolean addDialogIfAbsent(final String callId, final Dialog dialog)
+     * @brief 지정한 Call-ID(키)의 다이얼로그가 없을 때만 원자적으로 추가하는 함수
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @param dialog 다이얼로그(입력, 읽기 전용)
+     * @return 추가되었으면 true, 이미 존재하면 false 반환
+     */
+    public boolean addDialogIfAbsent(final String callId, final Dialog dialog) {
+        SipCall.checkObjectNull(null, callId, dialog);
+        if (dialogMap.putIfAbsent(callId, dialog) == null) {
+            dialogCount.incrementAndGet();
+            scheduleDialog(callId, dialog, dialogTimeout, false);
+            notifyDialogAdded(callId, dialog);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @fn public void removeDialog(final String callId)
+     * @brief 지정한 Call-ID(키)에 해당하는 다이얼로그(밸류)를 삭제하는 함수
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void removeDialog(final String callId) {
+        SipCall.checkObjectNull(null, callId);
+        if (dialogMap.remove(callId) != null) {
+            dialogCount.decrementAndGet();
+            notifyDialogRemoved(callId);
+        }
+
+        HashedWheelTimer.Timeout timeout = dialogTimeouts.remove(callId);
+        if (timeout != null) timeout.cancel();
+    }
+
+    /**
+     * @fn public boolean expireDialogAfter(final String callId, long delay)
+     * @brief 지정한 Call-ID 의 다이얼로그가 지정한 시간 후 만료되도록 예약하는 함수
+     * 기존 만료/갱신 타이머는 취소된다.
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @param delay  만료 시간(ms, 입력)
+     * @return 다이얼로그가 존재하여 예약되었으면 true, 아니면 false 반환
+     */
+    public boolean expireDialogAfter(final String callId, long delay) {
+        SipCall.checkObjectNull(null, callId);
+
+        Dialog dialog = dialogMap.get(callId);
+        return dialog != null && scheduleDialog(callId, dialog, delay, false);
+    }
+
+    /**
+     * @fn public boolean refreshDialogAfter(final String callId, long delay)
+     * @brief 지정한 Call-ID 의 다이얼로그가 지정한 시간 후 세션 갱신을 요청하도록 예약하는 함수
+     * 기존 만료/갱신 타이머는 취소되며, 갱신 이후의 만료는 만료 처리 인터페이스에서 다시 예약한다.
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @param delay  갱신 시간(ms, 입력)
+     * @return 다이얼로그가 존재하여 예약되었으면 true, 아니면 false 반환
+     */
+    public boolean refreshDialogAfter(final String callId, long delay) {
+        SipCall.checkObjectNull(null, callId);
+
+        Dialog dialog = dialogMap.get(callId);
+        return dialog != null && scheduleDialog(callId, dialog, delay, true);
+    }
+
+    /**
+     * @fn public int getDialogTimerCount()
+     * @brief 현재 예약된 다이얼로그 만료/갱신 타이머 개수를 반환하는 함수
+     * @return 다이얼로그 타이머 개수
+     */
+    public int getDialogTimerCount() {
+        return dialogTimeouts.size();
+    }
+
+    /**
+     * @fn public Dialog searchDialog(final String callId)
+     * @brief 지정한 Call-ID(키)에 해당하는 다이얼로그(밸류)를 검색하여 반환하는 함수
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @return 다이얼로그
+     */
+    public Dialog searchDialog(final String callId) {
+        SipCall.checkObjectNull(null, callId);
+        return dialogMap.get(callId);
+    }
+
+    /**
+     * @fn public boolean findDialog(final String callId)
+     * @brief 지정한 Call-ID(키)에 해당하는 다이얼로그(밸류)의 존재 여부를 반환하는 함수
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @return 다이얼로그가 존재하면 true, 아니면 false 반환
+     */
+    public boolean findDialog(final String callId) {
+        SipCall.checkObjectNull(null, callId);
+        return dialogMap.containsKey(callId);
+    }
+
+    /**
+     * @fn public List<String> getDialogCallIds()
+     * @brief 현재 관리 중인 다이얼로그의 Call-ID 목록을 반환하는 함수 (호출 시점의 복사본, 정상 종료 시 사용)
+     * @return Call-ID 목록
+     */
+    public List<String> getDialogCallIds() {
+        return new ArrayList<>(dialogMap.keySet());
+    }
+
+    /**
+     * @fn public int getDialogCount()
+     * @brief 현재 관리 중인 다이얼로그 개수를 반환하는 함수 (O(1), 잠금 없음)
+     * @return 다이얼로그 개수
+     */
+    public int getDialogCount() {
+        return dialogCount.get();
+    }
+
+    /**
+     * @fn public void clear()
+     * @brief 관리 중인 모든 트랜잭션과 다이얼로그를 삭제하는 함수 (다이얼로그 삭제 알림은 보내지 않음)
+     * @return 반환값 없음
+     */
+    public void clear() {
+        transactionIndex.clear();
+        dialogMap.clear();
+        dialogCount.set(0);
+
+        for (HashedWheelTimer.Timeout timeout : dialogTimeouts.values()) {
+            timeout.cancel();
+        }
+        dialogTimeouts.clear();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private void watchTransaction(final String callId, final Transaction transaction)
+     * @brief 추가된 트랜잭션의 만료 타이머를 예약하는 함수
+     * 타이머는 색인 항목에 보관하므로 트랜잭션이 먼저 삭제되면 함께 취소되어 트랜잭션을 붙잡고 있지 않는다.
+     * @param callId      Call-ID(입력, 읽기 전용)
+     * @param transaction 트랜잭션(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    private void watchTransaction(final String callId, final Transaction transaction) {
+        long delay = transactionTimeout;
+        if (delay <= 0) return;
+
+        HashedWheelTimer.Timeout timeout = timer.newTimeout(new TransactionExpiry(callId, transaction), delay, TimeUnit.MILLISECONDS);
+        // 예약하는 사이에 이미 삭제되었으면 바로 취소한다.
+        if (!transactionIndex.setExpiry(callId, transaction, timeout)) timeout.cancel();
+    }
+
+    /**
+     * @fn private void notifyDialogAdded(final String callId, final Dialog dialog)
+     * @brief 등록된 다이얼로그 추가/삭제 알림 인터페이스에 다이얼로그 추가를 알리는 함수 (스냅샷 기록, 복제)
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @param dialog 추가된 다이얼로그(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    private void notifyDialogAdded(final String callId, final Dialog dialog) {
+        for (DialogChangeListener listener : dialogChangeListeners) {
+            listener.onDialogAdded(callId, dialog);
+        }
+    }
+
+    /**
+     * @fn private void notifyDialogRemoved(final String callId)
+     * @brief 등록된 다이얼로그 추가/삭제 알림 인터페이스에 다이얼로그 삭제(정상 종료 또는 만료)를 알리는 함수
+     * @param callId 삭제된 다이얼로그의 Call-ID(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    private void notifyDialogRemoved(final String callId) {
+        for (DialogChangeListener listener : dialogChangeListeners) {
+            listener.onDialogRemoved(callId);
+        }
+    }
+
+    /**
+     * @fn private boolean scheduleDialog(final String callId, final Dialog dialog, long delay, boolean refresh)
+     * @brief 다이얼로그의 만료(또는 세션 갱신) 타이머를 예약하고 기존 타이머를 취소하는 함수
+     * @param callId  Call-ID(입력, 읽기 전용)
+     * @param dialog  다이얼로그(입력, 읽기 전용)
+     * @param delay   만료 시간(ms, 입력, 0 이하이면 기존 타이머만 취소)
+     * @param refresh 세션 갱신 타이머 여부(입력)
+     * @return 예약되었으면 true, 아니면 false 반환
+     */
+    private boolean scheduleDialog(final String callId, final Dialog dialog, long delay, boolean refresh) {
+        if (delay <= 0) {
+            HashedWheelTimer.Timeout oldTimeout = dialogTimeouts.remove(callId);
+            if (oldTimeout != null) oldTimeout.cancel();
+            return false;
+        }
+
+        HashedWheelTimer.Timeout timeout = timer.newTimeout(new DialogExpiry(callId, dialog, refresh), delay, TimeUnit.MILLISECONDS);
+        HashedWheelTimer.Timeout oldTimeout = dialogTimeouts.put(callId, timeout);
+        if (oldTimeout != null) oldTimeout.cancel();
+        return true;
+    }
+
+    /**
+     * @class private class TransactionExpiry
+     * @brief 트랜잭션 만료 시 아직 등록되어 있으면 삭제하는 작업
+     */
+    private class TransactionExpiry implements HashedWheelTimer.TimerTask {
+        private final String callId;
+        private final Transaction transaction;
+
+        private TransactionExpiry(final String callId, final Transaction transaction) {
+            this.callId = callId;
+            this.transaction = transaction;
+        }
+
+        @Override
+        public void run(final HashedWheelTimer.Timeout timeout) {
+            // 이미 삭제되었거나 다른 트랜잭션으로 교체되었으면 무시한다.
+            if (!transactionIndex.remove(callId, transaction)) return;
+
+            CallExpiryListener listener = expiryListener;
+            if (listener != null) listener.onTransactionExpired(callId, transaction);
+        }
+    }
+
+    /**
+     * @class private class DialogExpiry
+     * @brief 다이얼로그 만료 시 삭제하거나, 세션 갱신 시간을 알리는 작업
+     */
+    private class DialogExpiry implements HashedWheelTimer.TimerTask {
+        private final String callId;
+        private final Dialog dialog;
+        private final boolean refresh;
+
+        private DialogExpiry(final String callId, final Dialog dialog, boolean refresh) {
+            this.callId = callId;
+            this.dialog = dialog;
+            this.refresh = refresh;
+        }
+
+        @Override
+        public void run(final HashedWheelTimer.Timeout timeout) {
+            // 다른 타이머로 교체되었으면 무시한다.
+            if (!dialogTimeouts.remove(callId, timeout)) return;
+
+            CallExpiryListener listener = expiryListener;
+            if (refresh) {
+                if (dialogMap.get(callId) == dialog && listener != null) listener.onDialogRefresh(callId, dialog);
+                return;
+            }
+
+            if (dialogMap.remove(callId, dialog)) {
+                dialogCount.decrementAndGet();
+                notifyDialogRemoved(callId);
+                if (listener != null) listener.onDialogExpired(callId, dialog);
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.signal.registry;
+
+import javax.sip.Dialog;
+
+/**
+ * @interface public interface DialogChangeListener
+ * @brief 호 등록 객체에서 다이얼로그가 추가/삭제될 때 알림을 받는 인터페이스 (다이얼로그 스냅샷에 사용)
+ * 다이얼로그를 추가/삭제한 SIP 처리 쓰레드나 타이머 쓰레드에서 호출되므로 구현 시 기록만 하고 바로 반환한다.
+ */
+public interface DialogChangeListener {
+    /**
+     * @fn void onDialogAdded(final String callId, final Dialog dialog)
+     * @brief 다이얼로그가 추가(또는 교체)된 후 호출되는 함수
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @param dialog 추가된 다이얼로그(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    void onDialogAdded(final String callId, final Dialog dialog);
+
+    /**
+     * @fn void onDialogRemoved(final String callId)
+     * @brief 다이얼로그가 삭제(또는 만료)된 후 호출되는 함수
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    void onDialogRemoved(final String callId);
+}
@@ -0,0 +1,408 @@
+package com.signal.registry;
+
+import com.signal.timer.HashedWheelTimer;
+
+import javax.sip.ServerTransaction;
+import javax.sip.Transaction;
+import javax.sip.header.CSeqHeader;
+import javax.sip.header.CallIdHeader;
+import javax.sip.header.ViaHeader;
+import javax.sip.message.Request;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @class public class TransactionIndex
+ * @brief 트랜잭션을 Call-ID, CSeq 번호/Method, 첫 번째 Via 의 branch 로 찾는 색인 클래스
+ * 같은 다이얼로그에서 여러 트랜잭션(Invite 와 Bye, re-INVITE 와 Update 등)이 동시에 진행되어도 서로 덮어쓰지 않는다.
+ *
+ * Call-ID 별 트랜잭션 목록은 보통 1 ~ 3 개이므로 배열을 그대로 훑고, 목록 단위로 잠근다. (Call-ID 별로 독립적이므로 경합이 거의 없음)
+ * 서버 트랜잭션은 branch (RFC 3261 의 Magic Cookie 로 트랜잭션마다 유일) 로도 색인하며, Cancel 은 Invite 와 branch 가 같으므로 Invite 와 Invite 가 아닌 트랜잭션을 나눠서 둔다.
+ * 클라이언트 트랜잭션의 응답은 SIP Stack 이 매칭하므로 branch 로 색인하지 않는다. (같은 프로세스의 발신 측과 착신 측이 같은 branch 를 보는 경우도 섞이지 않음)
+ * Call-ID 하나의 트랜잭션은 최대 MAX_TRANSACTIONS_PER_CALL 개이며, 넘으면 가장 오래된 트랜잭션을 지운다.
+ * 트랜잭션에 만료 타이머를 지정하면 어떤 경로로든 색인에서 빠질 때 타이머도 함께 취소한다.
+ */
+public class TransactionIndex {
+    /* Call-ID 하나에 유지하는 최대 트랜잭션 수 */
+    public static final int MAX_TRANSACTIONS_PER_CALL = 8;
+    /* Call-ID 별 트랜잭션 목록 */
+    private final ConcurrentHashMap<String, CallTransactions> callMap;
+    /* branch 별 Invite 서버 트랜잭션 (Cancel, 2xx 가 아닌 응답의 ACK 매칭) */
+    private final ConcurrentHashMap<String, Transaction> inviteBranchMap;
+    /* branch 별 Invite 가 아닌 서버 트랜잭션 (재전송 확인) */
+    private final ConcurrentHashMap<String, Transaction> branchMap;
+    /* 현재 색인된 트랜잭션 개수 (size() 호출 시 전체 세그먼트 잠금을 피하기 위해 별도로 관리) */
+    private final AtomicInteger count = new AtomicInteger(0);
+
+    /**
+     * @fn public TransactionIndex(int initialCapacity, int concurrencyLevel)
+     * @brief 트랜잭션 색인을 초기화하는 함수
+     * @param initialCapacity  해쉬 맵 초기 용량(입력)
+     * @param concurrencyLevel 해쉬 맵 세그먼트 수(입력)
+     */
+    public TransactionIndex(int initialCapacity, int concurrencyLevel) {
+        this.callMap = new ConcurrentHashMap<>(initialCapacity, 0.75f, concurrencyLevel);
+        this.inviteBranchMap = new ConcurrentHashMap<>(initialCapacity, 0.75f, concurrencyLevel);
+        this.branchMap = new ConcurrentHashMap<>(initialCapacity, 0.75f, concurrencyLevel);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public boolean add(final String callId, final Transaction transaction, boolean ifAbsent)
+     * @brief 트랜잭션을 색인에 추가하는 함수
+     * ifAbsent 가 false 이면 같은 CSeq 번호/Method 의 트랜잭션을 교체한다.
+     * ifAbsent 가 true 이면 같은 Method 의 트랜잭션이 진행 중일 때 추가하지 않는다. (re-INVITE 충돌)
+     * 진행 중인 서버 트랜잭션과 branch 가 같으면 재전송이므로 충돌로 보지 않는다.
+     * @param callId      Call-ID(입력, 읽기 전용)
+     * @param transaction 트랜잭션(입력, 읽기 전용)
+     * @param ifAbsent    진행 중인 같은 Method 트랜잭션이 있으면 추가하지 않을지 여부(입력)
+     * @return 추가되었거나 이미 색인되어 있으면 true, 같은 Method 의 다른 트랜잭션이 진행 중이면 false 반환
+     */
+    public boolean add(final String callId, final Transaction transaction, boolean ifAbsent) {
+        Entry entry = new Entry(transaction);
+        while (true) {
+            CallTransactions callTransactions = callMap.get(callId);
+            if (callTransactions == null) {
+                CallTransactions newCallTransactions = new CallTransactions();
+                callTransactions = callMap.putIfAbsent(callId, newCallTransactions);
+                if (callTransactions == null) callTransactions = newCallTransactions;
+            }
+
+            synchronized (callTransactions) {
+                // 비어서 맵에서 빠진 목록이면 다시 찾는다.
+                if (callTransactions.isRemoved) continue;
+
+                if (callTransactions.indexOf(transaction) >= 0) return true;
+                if (ifAbsent) {
+                    Entry pending = callTransactions.findLast(entry.method);
+                    if (pending != null) return entry.branch != null && entry.branch.equals(pending.branch);
+                } else {
+                    int index = callTransactions.indexOf(entry.cseq, entry.method);
+                    if (index >= 0) unindex(callTransactions.removeAt(index));
+                }
+
+                if (callTransactions.size == MAX_TRANSACTIONS_PER_CALL) {
+                    unindex(callTransactions.removeAt(0));
+                }
+                callTransactions.add(entry);
+                if (entry.branch != null) branchMapOf(entry.method).put(entry.branch, transaction);
+                count.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @fn public boolean setExpiry(final String callId, final Transaction transaction, final HashedWheelTimer.Timeout expiry)
+     * @brief 색인된 트랜잭션에 만료 타이머를 지정하는 함수 (기존 타이머는 취소)
+     * 지정한 타이머는 트랜잭션이 삭제, 교체되거나 오래되어 밀려날 때 취소된다.
+     * @param callId      Call-ID(입력, 읽기 전용)
+     * @param transaction 트랜잭션(입력, 읽기 전용)
+     * @param expiry      만료 타이머(입력, 읽기 전용)
+     * @return 지정되었으면 true, 트랜잭션이 이미 색인에서 빠졌으면 false 반환 (타이머는 호출한 측에서 취소)
+     */
+    public boolean setExpiry(final String callId, final Transaction transaction, final HashedWheelTimer.Timeout expiry) {
+        CallTransactions callTransactions = callMap.get(callId);
+        if (callTransactions == null) return false;
+
+        synchronized (callTransactions) {
+            int index = callTransactions.indexOf(transaction);
+            if (index < 0) return false;
+
+            Entry entry = callTransactions.entries[index];
+            if (entry.expiry != null) entry.expiry.cancel();
+            entry.expiry = expiry;
+            return true;
+        }
+    }
+
+    /**
+     * @fn public boolean remove(final String callId, final Transaction transaction)
+     * @brief 지정한 Call-ID 에 색인된 트랜잭션을 삭제하는 함수
+     * @param callId      Call-ID(입력, 읽기 전용)
+     * @param transaction 트랜잭션(입력, 읽기 전용)
+     * @return 삭제되었으면 true, 색인되어 있지 않으면 false 반환
+     */
+    public boolean remove(final String callId, final Transaction transaction) {
+        CallTransactions callTransactions = callMap.get(callId);
+        if (callTransactions == null) return false;
+
+        synchronized (callTransactions) {
+            int index = callTransactions.indexOf(transaction);
+            if (index < 0) return false;
+
+            unindex(callTransactions.removeAt(index));
+            removeIfEmpty(callId, callTransactions);
+            return true;
+        }
+    }
+
+    /**
+     * @fn public boolean remove(final Transaction transaction)
+     * @brief 요청의 Call-ID 로 트랜잭션을 찾아서 삭제하는 함수 (트랜잭션 종료 시 사용)
+     * @param transaction 트랜잭션(입력, 읽기 전용)
+     * @return 삭제되었으면 true, 색인되어 있지 않으면 false 반환
+     */
+    public boolean remove(final Transaction transaction) {
+        Request request = transaction.getRequest();
+        CallIdHeader callIdHeader = request == null ? null : (CallIdHeader) request.getHeader(CallIdHeader.NAME);
+        return callIdHeader != null && remove(callIdHeader.getCallId(), transaction);
+    }
+
+    /**
+     * @fn public int removeAll(final String callId)
+     * @brief 지정한 Call-ID 의 모든 트랜잭션을 삭제하는 함수
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @return 삭제한 트랜잭션 개수
+     */
+    public int removeAll(final String callId) {
+        CallTransactions callTransactions = callMap.get(callId);
+        if (callTransactions == null) return 0;
+
+        synchronized (callTransactions) {
+            int removed = callTransactions.size;
+            while (callTransactions.size > 0) {
+                unindex(callTransactions.removeAt(callTransactions.size - 1));
+            }
+            removeIfEmpty(callId, callTransactions);
+            return removed;
+        }
+    }
+
+    /**
+     * @fn public Transaction get(final String callId, final String method)
+     * @brief 지정한 Call-ID 에서 가장 최근에 추가된 지정한 Method 의 트랜잭션을 반환하는 함수
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @param method 요청 Method(입력, 읽기 전용)
+     * @return 트랜잭션, 없으면 null 반환
+     */
+    public Transaction get(final String callId, final String method) {
+        CallTransactions callTransactions = callMap.get(callId);
+        if (callTransactions == null) return null;
+
+        synchronized (callTransactions) {
+            Entry entry = callTransactions.findLast(method);
+            return entry == null ? null : entry.transaction;
+        }
+    }
+
+    /**
+     * @fn public Transaction get(final String callId, long cseq, final String method)
+     * @brief 지정한 Call-ID 에서 CSeq 번호와 Method 가 같은 트랜잭션을 반환하는 함수
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @param cseq   CSeq 번호(입력)
+     * @param method 요청 Method(입력, 읽기 전용)
+     * @return 트랜잭션, 없으면 null 반환
+     */
+    public Transaction get(final String callId, long cseq, final String method) {
+        CallTransactions callTransactions = callMap.get(callId);
+        if (callTransactions == null) return null;
+
+        synchronized (callTransactions) {
+            int index = callTransactions.indexOf(cseq, method);
+            return index < 0 ? null : callTransactions.entries[index].transaction;
+        }
+    }
+
+    /**
+     * @fn public Transaction getByBranch(final String branch, final String method)
+     * @brief 첫 번째 Via 의 branch 와 Method 로 서버 트랜잭션을 반환하는 함수 (ACK 는 Invite 로 찾음)
+     * @param branch branch(입력, 읽기 전용)
+     * @param method 요청 Method(입력, 읽기 전용)
+     * @return 트랜잭션, 없으면 null 반환
+     */
+    public Transaction getByBranch(final String branch, final String method) {
+        if (branch == null) return null;
+
+        Transaction transaction = branchMapOf(method).get(branch);
+        if (transaction == null || isInvite(method)) return transaction;
+
+        // Cancel 은 Invite 와 branch 가 같으므로 Method 까지 같아야 한다.
+        return method.equals(transaction.getRequest().getMethod()) ? transaction : null;
+    }
+
+    /**
+     * @fn public Transaction getCancelTarget(final Request cancel)
+     * @brief Cancel 요청이 취소하는 Invite 트랜잭션을 반환하는 함수
+     * branch 로 먼저 찾고, 없으면 (branch 가 없는 RFC 2543 요청 등) Call-ID 와 CSeq 번호로 찾는다.
+     * @param cancel Cancel 요청(입력, 읽기 전용)
+     * @return Invite 트랜잭션, 없으면 null 반환
+     */
+    public Transaction getCancelTarget(final Request cancel) {
+        CallIdHeader callIdHeader = (CallIdHeader) cancel.getHeader(CallIdHeader.NAME);
+        if (callIdHeader == null) return null;
+
+        Transaction transaction = getByBranch(getBranch(cancel), Request.INVITE);
+        if (transaction != null && callIdHeader.getCallId().equals(((CallIdHeader) transaction.getRequest().getHeader(CallIdHeader.NAME)).getCallId())) {
+            return transaction;
+        }
+
+        CSeqHeader cSeqHeader = (CSeqHeader) cancel.getHeader(CSeqHeader.NAME);
+        return cSeqHeader == null ? null : get(callIdHeader.getCallId(), cSeqHeader.getSeqNumber(), Request.INVITE);
+    }
+
+    /**
+     * @fn public boolean contains(final String callId)
+     * @brief 지정한 Call-ID 의 트랜잭션이 하나라도 있는지 확인하는 함수
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @return 있으면 true, 없으면 false 반환
+     */
+    public boolean contains(final String callId) {
+        return callMap.containsKey(callId);
+    }
+
+    /**
+     * @fn public int size()
+     * @brief 현재 색인된 트랜잭션 개수를 반환하는 함수 (O(1), 잠금 없음)
+     * @return 트랜잭션 개수
+     */
+    public int size() {
+        return count.get();
+    }
+
+    /**
+     * @fn public void clear()
+     * @brief 색인된 모든 트랜잭션을 삭제하는 함수
+     * @return 반환값 없음
+     */
+    public void clear() {
+        for (String callId : callMap.keySet()) {
+            removeAll(callId);
+        }
+    }
+
+    /**
+     * @fn public static String getBranch(final Request request)
+     * @brief 요청의 첫 번째 Via 헤더의 branch 를 반환하는 함수
+     * @param request 요청(입력, 읽기 전용)
+     * @return branch, 없으면 null 반환
+     */
+    public static String getBranch(final Request request) {
+        ViaHeader viaHeader = (ViaHeader) request.getHeader(ViaHeader.NAME);
+        return viaHeader == null ? null : viaHeader.getBranch();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private static boolean isInvite(final String method)
+     * @brief Invite branch 색인을 사용하는 Method 인지 확인하는 함수 (ACK 는 Invite 와 branch 가 같으므로 포함)
+     * @param method 요청 Method(입력, 읽기 전용)
+     * @return Invite 또는 ACK 이면 true, 아니면 false 반환
+     */
+    private static boolean isInvite(final String method) {
+        return Request.INVITE.equals(method) || Request.ACK.equals(method);
+    }
+
+    /**
+     * @fn private ConcurrentHashMap<String, Transaction> branchMapOf(final String method)
+     * @brief Method 에 맞는 branch 색인을 반환하는 함수
+     * @param method 요청 Method(입력, 읽기 전용)
+     * @return Invite/ACK 이면 Invite branch 색인, 아니면 Invite 가 아닌 branch 색인
+     */
+    private ConcurrentHashMap<String, Transaction> branchMapOf(final String method) {
+        return isInvite(method) ? inviteBranchMap : branchMap;
+    }
+
+    /**
+     * @fn private void unindex(final Entry entry)
+     * @brief 목록에서 뺀 트랜잭션을 branch 색인에서 지우고 만료 타이머를 취소하는 함수 (목록의 잠금을 가진 상태에서 호출)
+     * @param entry 트랜잭션 항목(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    private void unindex(final Entry entry) {
+        if (entry.branch != null) branchMapOf(entry.method).remove(entry.branch, entry.transaction);
+        if (entry.expiry != null) entry.expiry.cancel();
+        count.decrementAndGet();
+    }
+
+    /**
+     * @fn private void removeIfEmpty(final String callId, final CallTransactions callTransactions)
+     * @brief 비어 있는 Call-ID 의 트랜잭션 목록을 맵에서 빼는 함수 (목록의 잠금을 가진 상태에서 호출)
+     * 뺀 목록은 삭제 표시를 하므로 동시에 추가하던 쪽은 새 목록을 다시 만든다.
+     * @param callId           Call-ID(입력, 읽기 전용)
+     * @param callTransactions Call-ID 의 트랜잭션 목록(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    private void removeIfEmpty(final String callId, final CallTransactions callTransactions) {
+        if (callTransactions.size > 0) return;
+
+        callTransactions.isRemoved = true;
+        callMap.remove(callId, callTransactions);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Inner Class
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @class private static class Entry
+     * @brief 색인된 트랜잭션과 추가할 때 읽어 둔 CSeq 번호, Method, branch (서버 트랜잭션만, 아니면 null)
+     */
+    private static class Entry {
+        private final Transaction transaction;
+        private final String method;
+        private final long cseq;
+        private final String branch;
+        /* 만료 타이머, 없으면 null (목록의 잠금으로 보호) */
+        private HashedWheelTimer.Timeout expiry;
+
+        private Entry(final Transaction transaction) {
+            Request request = transaction.getRequest();
+            CSeqHeader cSeqHeader = (CSeqHeader) request.getHeader(CSeqHeader.NAME);
+
+            this.transaction = transaction;
+            this.method = request.getMethod();
+            this.cseq = cSeqHeader == null ? -1 : cSeqHeader.getSeqNumber();
+            this.branch = transaction instanceof ServerTransaction ? getBranch(request) : null;
+        }
+    }
+
+    /**
+     * @class private static class CallTransactions
+     * @brief Call-ID 하나의 트랜잭션 목록 (추가된 순서, 목록 객체로 잠금)
+     */
+    private static class CallTransactions {
+        private final Entry[] entries = new Entry[MAX_TRANSACTIONS_PER_CALL];
+        private int size = 0;
+        /* 비어서 맵에서 빠졌는지 여부 (빠진 목록에는 추가하지 않음) */
+        private boolean isRemoved = false;
+
+        private void add(final Entry entry) {
+            entries[size++] = entry;
+        }
+
+        private Entry removeAt(int index) {
+            Entry entry = entries[index];
+            System.arraycopy(entries, index + 1, entries, index, size - index - 1);
+            entries[--size] = null;
+            return entry;
+        }
+
+        private int indexOf(final Transaction transaction) {
+            for (int i = 0; i < size; i++) {
+                if (entries[i].transaction == transaction) return i;
+            }
+            return -1;
+        }
+
+        private int indexOf(long cseq, final String method) {
+            for (int i = 0; i < size; i++) {
+                if (entries[i].cseq == cseq && entries[i].method.equals(method)) return i;
+            }
+            return -1;
+        }
+
+        private Entry findLast(final String method) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (entries[i].method.equals(method)) return entries[i];
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.signal.replication;
+
+import com.signal.registry.CallRegistry;
+import com.signal.snapshot.DialogChanges;
+import com.signal.snapshot.DialogRecord;
+import com.signal.transport.TransportConfig;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @class public class ReplicatedStack
+ * @brief 복제하는 SIP Stack 하나의 수신 주소와 다이얼로그 상태
+ * Active 노드에서는 호 등록 객체의 변경분(changes)을, Standby 노드에서는 받은 다이얼로그(dialogs)를 사용한다.
+ */
+public class ReplicatedStack {
+    /* SIP Stack 이름 */
+    private final String name;
+    /* 사용자 이름, IP 주소 */
+    private final String userName;
+    private final String ip;
+    /* 전송 프로토콜별 수신 포트 */
+    private final TransportConfig[] transportConfigs;
+    /* 보내지 않은 변경분 (Active) */
+    private final DialogChanges changes = new DialogChanges();
+    /* 받은 다이얼로그 (Standby) */
+    private final ConcurrentHashMap<String, DialogRecord> dialogs = new ConcurrentHashMap<>();
+    /* 호 등록 관리 객체 (Active) */
+    private volatile CallRegistry callRegistry = null;
+    /* 현재 연결로 전체 상태를 보냈는지 여부 (Active, 보내는 쓰레드에서 변경) */
+    private volatile boolean isSynced = false;
+
+    /**
+     * @fn public ReplicatedStack(final String name, final String userName, final String ip, final TransportConfig[] transportConfigs)
+     * @brief 복제하는 SIP Stack 정보를 초기화하는 함수
+     * @param name             SIP Stack 이름(입력, 읽기 전용)
+     * @param userName         사용자 이름(입력, 읽기 전용)
+     * @param ip               IP 주소(입력, 읽기 전용)
+     * @param transportConfigs 전송 설정 목록(입력, 읽기 전용)
+     */
+    public ReplicatedStack(final String name, final String userName, final String ip, final TransportConfig[] transportConfigs) {
+        if (name == null || userName == null || ip == null || transportConfigs == null) throw new NullPointerException("Parameter Error (Null)");
+
+        this.name = name;
+        this.userName = userName;
+        this.ip = ip;
+        this.transportConfigs = transportConfigs;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public static TransportConfig[] toTransportConfigs(final Map<String, Integer> transportPorts)
+     * @brief 전송 프로토콜별 포트를 전송 설정 목록으로 바꾸는 함수 (작업 쓰레드 수, 대기열 크기는 기본값)
+     * @param transportPorts 전송 프로토콜별 포트(입력, 읽기 전용)
+     * @return 전송 설정 목록
+     */
+    public static TransportConfig[] toTransportConfigs(final Map<String, Integer> transportPorts) {
+        TransportConfig[] transportConfigs = new TransportConfig[transportPorts.size()];
+        int index = 0;
+        for (Map.Entry<String, Integer> entry : transportPorts.entrySet()) {
+            transportConfigs[index++] = new TransportConfig(entry.getKey(), entry.getValue());
+        }
+        return transportConfigs;
+    }
+
+    /**
+     * @fn public synchronized void attach(final CallRegistry callRegistry)
+     * @brief 변경분을 받을 호 등록 관리 객체를 연결하고 (이전 객체는 해제), 다음에 전체 상태를 다시 보내도록 하는 함수
+     * @param callRegistry 호 등록 관리 객체(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public synchronized void attach(final CallRegistry callRegistry) {
+        if (callRegistry == null) throw new NullPointerException("Parameter Error (Null)");
+
+        CallRegistry oldCallRegistry = this.callRegistry;
+        if (oldCallRegistry == callRegistry) return;
+        if (oldCallRegistry != null) oldCallRegistry.removeDialogChangeListener(changes);
+
+        this.callRegistry = callRegistry;
+        callRegistry.addDialogChangeListener(changes);
+        isSynced = false;
+    }
+
+    /**
+     * @fn public synchronized void detach()
+     * @brief 호 등록 관리 객체의 연결을 해제하는 함수
+     * @return 반환값 없음
+     */
+    public synchronized void detach() {
+        CallRegistry current = callRegistry;
+        if (current != null) current.removeDialogChangeListener(changes);
+        callRegistry = null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public String getIp() {
+        return ip;
+    }
+
+    public TransportConfig[] getTransportConfigs() {
+        return transportConfigs.clone();
+    }
+
+    public DialogChanges getChanges() {
+        return changes;
+    }
+
+    public Map<String, DialogRecord> getDialogs() {
+        return dialogs;
+    }
+
+    public CallRegistry getCallRegistry() {
+        return callRegistry;
+    }
+
+    public boolean isSynced() {
+        return isSynced;
+    }
+
+    public void setSynced(boolean isSynced) {
+        this.isSynced = isSynced;
+    }
+}
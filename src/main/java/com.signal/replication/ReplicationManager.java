@@ -0,0 +1,418 @@
+package com.signal.replication;
+
+import com.signal.logic.SipCall;
+import com.signal.registry.CallRegistry;
+import com.signal.snapshot.DialogSnapshot;
+import com.signal.snapshot.DialogSnapshotManager;
+import com.signal.transport.TransportConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @class public class ReplicationManager implements ReplicationManagerMXBean
+ * @brief Active 노드의 설립된 다이얼로그 상태를 Standby 노드로 복제하고, Active 노드가 죽으면 Standby 노드가 수신 주소를 인계받게 하는 클래스
+ *
+ * Active : SIP Stack 마다 호 등록 객체의 다이얼로그 추가/삭제 알림을 받아 두고, 보내는 쓰레드 하나가 batchInterval 마다 묶어서 보낸다.
+ * Standby : 받은 다이얼로그를 Stack 별로 메모리에 유지하고, takeoverTimeout 동안 Active 로부터 받은 것이 없으면
+ *           받은 다이얼로그를 스냅샷 파일로 쓰고 같은 이름/주소의 SIP Stack 을 만든다. (다이얼로그 스냅샷으로 되살려서 BYE 에 200 OK 응답)
+ * 인계 전에 수신 포트를 열 수 있는지 먼저 확인하므로, Active 가 살아서 포트를 잡고 있으면 인계하지 않고 다음 timeout 에 다시 확인한다.
+ */
+public class ReplicationManager implements ReplicationManagerMXBean {
+    /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
+    private static final Logger logger = LoggerFactory.getLogger(ReplicationManager.class);
+    /* JMX 객체 이름 */
+    public static final String OBJECT_NAME = "com.signal:type=Replication";
+    /* 기본 복제 주소 */
+    public static final String DEFAULT_HOST = "127.0.0.1";
+    public static final int DEFAULT_PORT = 15060;
+    /* 기본 묶음 전송 주기, 살아 있음 알림 주기, 인계 전 기다리는 시간, 재연결 주기 (ms) */
+    public static final long DEFAULT_BATCH_INTERVAL = 50;
+    public static final long DEFAULT_HEARTBEAT_INTERVAL = 500;
+    public static final long DEFAULT_TAKEOVER_TIMEOUT = 3000;
+    public static final long DEFAULT_RECONNECT_INTERVAL = 1000;
+    /* 기본 Deflate 압축 수준 (가장 빠름) */
+    public static final int DEFAULT_COMPRESSION_LEVEL = 1;
+    /* 종료 시 마지막 변경분을 보낼 때까지 기다리는 최대 시간 (ms) */
+    private static final long SHUTDOWN_TIMEOUT = 5000;
+    /* 복제 관리 객체(singleton) */
+    private static final ReplicationManager replicationManager = new ReplicationManager();
+    /* SIP Stack 이름별 복제 상태 */
+    private final ConcurrentHashMap<String, ReplicatedStack> replicatedStacks = new ConcurrentHashMap<>();
+    /* 보낸(받은) 다이얼로그 기록 수, 압축 전/후 byte 수, 연결 횟수 */
+    private final AtomicLong records = new AtomicLong(0);
+    private final AtomicLong rawBytes = new AtomicLong(0);
+    private final AtomicLong wireBytes = new AtomicLong(0);
+    private final AtomicLong connects = new AtomicLong(0);
+    /* 노드 역할 */
+    private volatile ReplicationRole role = ReplicationRole.NONE;
+    /* 복제 주소 */
+    private volatile String host = DEFAULT_HOST;
+    private volatile int port = DEFAULT_PORT;
+    /* 묶음 전송 주기, 살아 있음 알림 주기, 인계 전 기다리는 시간, 재연결 주기 (ms) */
+    private volatile long batchInterval = DEFAULT_BATCH_INTERVAL;
+    private volatile long heartbeatInterval = DEFAULT_HEARTBEAT_INTERVAL;
+    private volatile long takeoverTimeout = DEFAULT_TAKEOVER_TIMEOUT;
+    private volatile long reconnectInterval = DEFAULT_RECONNECT_INTERVAL;
+    /* Deflate 압축 수준 */
+    private volatile int compressionLevel = DEFAULT_COMPRESSION_LEVEL;
+    /* 상대 노드와 연결되어 있는지 여부, 마지막으로 연결된 상대 노드 주소 */
+    private volatile boolean isConnected = false;
+    private volatile String peer = "";
+    /* 마지막으로 상대 노드와 주고받은 시각 (System.currentTimeMillis, 없으면 0) */
+    private volatile long lastTrafficTime = 0;
+    /* Standby 가 수신 주소를 인계받았는지 여부 */
+    private volatile boolean isTakenOver = false;
+    /* 보내는 쓰레드 (Active, 처음 Stack 을 복제할 때 시작) 와 받는 쓰레드 (Standby) */
+    private ReplicationSender sender = null;
+    private Thread senderThread = null;
+    private ReplicationReceiver receiver = null;
+    private Thread receiverThread = null;
+    /* 종료 여부 */
+    private boolean isShutdown = false;
+
+    /**
+     * @fn private ReplicationManager()
+     * @brief 복제 관리 객체를 초기화하는 함수
+     */
+    private ReplicationManager() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(this, objectName);
+            }
+        } catch (Exception e) {
+            logger.warn("Fail to register replication MBean", e);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public static ReplicationManager getInstance()
+     * @brief 복제 관리 객체의 싱글턴 인스턴스를 반환하는 함수
+     * @return 복제 관리 객체
+     */
+    public static ReplicationManager getInstance() {
+        return replicationManager;
+    }
+
+    /**
+     * @fn public synchronized void configure(final ReplicationRole role, final String host, int port, long batchInterval, long heartbeatInterval, long takeoverTimeout, long reconnectInterval, int compressionLevel)
+     * @brief 복제 설정을 변경하는 함수 (SIP Stack 생성 전에 호출, 이미 시작한 쓰레드에는 적용되지 않음)
+     * @param role              노드 역할(입력, 읽기 전용)
+     * @param host              복제 주소(입력, 읽기 전용)
+     * @param port              복제 포트(입력)
+     * @param batchInterval     묶음 전송 주기, ms(입력)
+     * @param heartbeatInterval 살아 있음 알림 주기, ms(입력)
+     * @param takeoverTimeout   인계 전 기다리는 시간, ms(입력)
+     * @param reconnectInterval 재연결 주기, ms(입력)
+     * @param compressionLevel  Deflate 압축 수준, 0~9(입력)
+     * @return 반환값 없음
+     */
+    public synchronized void configure(final ReplicationRole role, final String host, int port, long batchInterval,
+                                       long heartbeatInterval, long takeoverTimeout, long reconnectInterval, int compressionLevel) {
+        if (role == null || host == null) throw new NullPointerException("Parameter Error (Null)");
+        if (port <= 0 || port > 65535 || batchInterval <= 0 || heartbeatInterval <= 0 || takeoverTimeout <= heartbeatInterval
+                || reconnectInterval <= 0 || compressionLevel < 0 || compressionLevel > 9) {
+            throw new IllegalArgumentException("Invalid replication configuration");
+        }
+
+        this.role = role;
+        this.host = host;
+        this.port = port;
+        this.batchInterval = batchInterval;
+        this.heartbeatInterval = heartbeatInterval;
+        this.takeoverTimeout = takeoverTimeout;
+        this.reconnectInterval = reconnectInterval;
+        this.compressionLevel = compressionLevel;
+
+        logger.debug("Replication (Role:{}, Address:{}:{}, BatchInterval:{}, HeartbeatInterval:{}, TakeoverTimeout:{}, ReconnectInterval:{}, CompressionLevel:{})",
+                role, host, port, batchInterval, heartbeatInterval, takeoverTimeout, reconnectInterval, compressionLevel);
+    }
+
+    /**
+     * @fn public synchronized void replicate(final String name, final String userName, final String ip, final Map<String, Integer> transportPorts, final CallRegistry callRegistry)
+     * @brief Active 노드에서 SIP Stack 의 다이얼로그 변경분을 복제하도록 호 등록 관리 객체를 연결하는 함수 (이미 있으면 다시 연결)
+     * Active 역할이 아니거나, 수신 포트가 없는 Stack 은 무시한다.
+     * @param name           SIP Stack 이름(입력, 읽기 전용)
+     * @param userName       사용자 이름(입력, 읽기 전용)
+     * @param ip             IP 주소(입력, 읽기 전용)
+     * @param transportPorts 전송 프로토콜별 수신 포트(입력, 읽기 전용)
+     * @param callRegistry   호 등록 관리 객체(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public synchronized void replicate(final String name, final String userName, final String ip,
+                                       final Map<String, Integer> transportPorts, final CallRegistry callRegistry) {
+        if (name == null || userName == null || ip == null || transportPorts == null || callRegistry == null) {
+            throw new NullPointerException("Parameter Error (Null)");
+        }
+        if (role != ReplicationRole.ACTIVE || isShutdown || transportPorts.isEmpty()) return;
+
+        ReplicatedStack replicatedStack = replicatedStacks.get(name);
+        if (replicatedStack == null) {
+            replicatedStack = new ReplicatedStack(name, userName, ip, ReplicatedStack.toTransportConfigs(transportPorts));
+            replicatedStacks.put(name, replicatedStack);
+        }
+        replicatedStack.attach(callRegistry);
+
+        if (sender == null) {
+            sender = new ReplicationSender(this, new InetSocketAddress(host, port), batchInterval, heartbeatInterval, reconnectInterval, compressionLevel);
+            senderThread = new Thread(sender, "ReplicationSender");
+            senderThread.setDaemon(true);
+            senderThread.start();
+        }
+    }
+
+    /**
+     * @fn public synchronized void startStandby()
+     * @brief Standby 역할로 바꾸고 Active 노드의 연결을 기다리는 쓰레드를 시작하는 함수
+     * @return 반환값 없음
+     */
+    public synchronized void startStandby() {
+        if (isShutdown || receiver != null) return;
+
+        role = ReplicationRole.STANDBY;
+        receiver = new ReplicationReceiver(this, new InetSocketAddress(host, port), takeoverTimeout);
+        receiverThread = new Thread(receiver, "ReplicationReceiver");
+        receiverThread.setDaemon(true);
+        receiverThread.start();
+    }
+
+    /**
+     * @fn public void shutdown()
+     * @brief 보내는 쓰레드는 남은 변경분을 마지막으로 보내고, 받는 쓰레드는 연결을 닫고 종료하는 함수
+     * 종료는 LifecycleManager 가 남은 호의 BYE 를 보내고 SIP Stack 을 중지한 후에 한다.
+     * @return 반환값 없음
+     */
+    public void shutdown() {
+        Thread currentSenderThread;
+        synchronized (this) {
+            if (isShutdown) return;
+            isShutdown = true;
+            if (sender != null) sender.close();
+            if (receiver != null) receiver.close();
+            currentSenderThread = senderThread;
+        }
+
+        if (currentSenderThread != null) {
+            try {
+                currentSenderThread.join(SHUTDOWN_TIMEOUT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (ReplicatedStack replicatedStack : replicatedStacks.values()) {
+            replicatedStack.detach();
+        }
+    }
+
+    public Collection<ReplicatedStack> getReplicatedStacks() {
+        return replicatedStacks.values();
+    }
+
+    public ReplicatedStack getReplicatedStack(final String name) {
+        return replicatedStacks.get(name);
+    }
+
+    /**
+     * @fn public void putReplicatedStack(final ReplicatedStack replicatedStack)
+     * @brief Standby 노드에서 받은 Stack 의 전체 상태를 저장하는 함수 (같은 이름이 있으면 교체)
+     * @param replicatedStack 받은 Stack(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void putReplicatedStack(final ReplicatedStack replicatedStack) {
+        replicatedStacks.put(replicatedStack.getName(), replicatedStack);
+    }
+
+    /**
+     * @fn public void onConnected(final String peer)
+     * @brief 상대 노드와 연결되었음을 기록하는 함수 (보내는/받는 쓰레드에서 호출)
+     * @param peer 상대 노드 주소(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void onConnected(final String peer) {
+        this.peer = peer;
+        isConnected = true;
+        lastTrafficTime = System.currentTimeMillis();
+        connects.incrementAndGet();
+    }
+
+    /**
+     * @fn public void onDisconnected()
+     * @brief 상대 노드와의 연결이 끊겼음을 기록하는 함수 (보내는/받는 쓰레드에서 호출)
+     * @return 반환값 없음
+     */
+    public void onDisconnected() {
+        isConnected = false;
+    }
+
+    /**
+     * @fn public void onTraffic(int count, long raw, long wire)
+     * @brief 주고받은 묶음 하나의 통계를 더하는 함수 (보내는/받는 쓰레드에서 호출)
+     * @param count 다이얼로그 기록 수(입력)
+     * @param raw   압축 전 byte 수(입력)
+     * @param wire  압축 후 byte 수(입력)
+     * @return 반환값 없음
+     */
+    public void onTraffic(int count, long raw, long wire) {
+        records.addAndGet(count);
+        rawBytes.addAndGet(raw);
+        wireBytes.addAndGet(wire);
+        lastTrafficTime = System.currentTimeMillis();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Override Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public String getRole() {
+        return role.name();
+    }
+
+    @Override
+    public String getAddress() {
+        return host + ":" + port;
+    }
+
+    @Override
+    public boolean isConnected() {
+        return isConnected;
+    }
+
+    @Override
+    public String getPeer() {
+        return peer;
+    }
+
+    @Override
+    public boolean isTakenOver() {
+        return isTakenOver;
+    }
+
+    @Override
+    public int getStacks() {
+        return replicatedStacks.size();
+    }
+
+    @Override
+    public int getReplicatedDialogs() {
+        int count = 0;
+        for (ReplicatedStack replicatedStack : replicatedStacks.values()) {
+            count += replicatedStack.getDialogs().size();
+        }
+        return count;
+    }
+
+    @Override
+    public long getRecords() {
+        return records.get();
+    }
+
+    @Override
+    public long getRawBytes() {
+        return rawBytes.get();
+    }
+
+    @Override
+    public long getWireBytes() {
+        return wireBytes.get();
+    }
+
+    @Override
+    public long getConnects() {
+        return connects.get();
+    }
+
+    @Override
+    public long getIdleMillis() {
+        long time = lastTrafficTime;
+        return time == 0 ? -1 : System.currentTimeMillis() - time;
+    }
+
+    /**
+     * @fn public synchronized boolean takeOver()
+     * @brief Standby 노드가 받은 다이얼로그를 스냅샷 파일로 쓰고, 같은 이름/주소의 SIP Stack 을 만들어 수신 주소를 인계받는 함수
+     * 수신 포트 중 하나라도 열 수 없으면 (Active 가 아직 사용 중) 인계하지 않는다.
+     * @return 인계받았으면 (이미 인계받았으면) true, 아니면 false 반환
+     */
+    @Override
+    public synchronized boolean takeOver() {
+        if (role != ReplicationRole.STANDBY || isShutdown) return false;
+        if (isTakenOver) return true;
+        if (replicatedStacks.isEmpty()) {
+            logger.warn("No replicated stack to take over");
+            return false;
+        }
+
+        for (ReplicatedStack replicatedStack : replicatedStacks.values()) {
+            for (TransportConfig transportConfig : replicatedStack.getTransportConfigs()) {
+                if (!isBindable(replicatedStack.getIp(), transportConfig)) {
+                    logger.warn("Fail to take over, {}:{} is still in use (Stack:{})", replicatedStack.getIp(), transportConfig, replicatedStack.getName());
+                    return false;
+                }
+            }
+        }
+
+        // 인계받은 Stack 은 받은 다이얼로그를 스냅샷에서 되살리고, 이후 변경분도 스냅샷으로 저장한다.
+        DialogSnapshotManager dialogSnapshotManager = DialogSnapshotManager.getInstance();
+        dialogSnapshotManager.setEnabled(true);
+        File directory = new File(dialogSnapshotManager.getDirectory());
+        for (ReplicatedStack replicatedStack : replicatedStacks.values()) {
+            try {
+                DialogSnapshot.save(directory, replicatedStack.getName(), replicatedStack.getDialogs().values());
+            } catch (IOException e) {
+                logger.warn("Fail to save replicated dialogs (Stack:{})", replicatedStack.getName(), e);
+            }
+            new SipCall(replicatedStack.getUserName(), replicatedStack.getIp(), replicatedStack.getName(), replicatedStack.getTransportConfigs());
+            logger.warn("SIP stack is taken over (Stack:{}, Dialogs:{})", replicatedStack.getName(), replicatedStack.getDialogs().size());
+        }
+        isTakenOver = true;
+        return true;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private static boolean isBindable(final String ip, final TransportConfig transportConfig)
+     * @brief 수신 포트를 지금 열 수 있는지 확인하는 함수 (열었다가 바로 닫음)
+     * @param ip              IP 주소(입력, 읽기 전용)
+     * @param transportConfig 전송 설정(입력, 읽기 전용)
+     * @return 열 수 있으면 true, 아니면 false 반환
+     */
+    private static boolean isBindable(final String ip, final TransportConfig transportConfig) {
+        InetSocketAddress address = new InetSocketAddress(ip, transportConfig.getPort());
+        try {
+            if (transportConfig.getProtocol().equals("udp")) {
+                try (DatagramSocket datagramSocket = new DatagramSocket(address)) {
+                    return datagramSocket.isBound();
+                }
+            }
+            try (ServerSocket serverSocket = new ServerSocket()) {
+                serverSocket.setReuseAddress(true);
+                serverSocket.bind(address);
+                return true;
+            }
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
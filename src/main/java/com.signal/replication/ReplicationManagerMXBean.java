@@ -0,0 +1,46 @@
+package com.signal.replication;
+
+/**
+ * @interface public interface ReplicationManagerMXBean
+ * @brief JMX 로 노출하는 호 상태 복제 설정 및 상태
+ */
+public interface ReplicationManagerMXBean {
+    /* 노드 역할 (NONE, ACTIVE, STANDBY) */
+    String getRole();
+
+    /* 복제 주소 (Active 는 연결할 주소, Standby 는 기다리는 주소) */
+    String getAddress();
+
+    /* 상대 노드와 연결되어 있는지 여부 */
+    boolean isConnected();
+
+    /* 마지막으로 연결된 상대 노드 주소 */
+    String getPeer();
+
+    /* Standby 가 수신 주소를 인계받았는지 여부 */
+    boolean isTakenOver();
+
+    /* 복제하는 SIP Stack 수 */
+    int getStacks();
+
+    /* Standby 가 가진 다이얼로그 수 */
+    int getReplicatedDialogs();
+
+    /* 보낸 (Active) 또는 받은 (Standby) 다이얼로그 기록 수 */
+    long getRecords();
+
+    /* 압축 전 byte 수 */
+    long getRawBytes();
+
+    /* 실제로 주고받은 (압축 후) byte 수 */
+    long getWireBytes();
+
+    /* 연결 횟수 (재연결 포함) */
+    long getConnects();
+
+    /* 마지막으로 상대 노드와 주고받은 후 지난 시간 (ms, 없으면 -1) */
+    long getIdleMillis();
+
+    /* Standby 가 지금 수신 주소를 인계받음 (포트를 사용 중이면 false) */
+    boolean takeOver();
+}
@@ -0,0 +1,105 @@
+package com.signal.replication;
+
+import com.signal.transport.TransportConfig;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * @class public class ReplicationProtocol
+ * @brief Active 노드와 Standby 노드 사이의 복제 스트림 형식
+ *
+ * TCP 연결 후 Active 노드가 [magic(4)] [version(2)] 를 압축하지 않고 보내고, 이후는 하나의 Deflate 스트림이다.
+ * 묶음(batch)마다 SYNC_FLUSH 하므로 압축 사전이 연결 동안 유지되어 비슷한 Call-ID/URI 가 작게 압축된다.
+ *
+ * MSG_STACK     : [Stack 이름] [사용자] [IP] [전송 수(2)] ([프로토콜] [포트(4)])... [전체 다이얼로그 기록...] [OP_END]
+ *                 연결 직후 (또는 호 등록 객체가 바뀌면) Stack 마다 한 번 보내며, Standby 는 그 Stack 의 다이얼로그를 교체한다.
+ * MSG_CHANGES   : [Stack 이름] [추가/삭제 기록...] [OP_END]
+ * MSG_HEARTBEAT : [보낸 시각(8)], 변경분이 없을 때 heartbeat-interval 마다 보낸다.
+ * 기록 형식은 DialogRecordCodec 을 사용한다.
+ */
+public class ReplicationProtocol {
+    /* 스트림 식별자 ("DLGR") 와 형식 버전 */
+    public static final int MAGIC = 0x444C4752;
+    public static final short VERSION = 1;
+    /* 메시지 종류 */
+    public static final byte MSG_STACK = 1;
+    public static final byte MSG_CHANGES = 2;
+    public static final byte MSG_HEARTBEAT = 3;
+
+    private ReplicationProtocol() {
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public static void writeHandshake(final DataOutputStream output)
+     * @brief 스트림 식별자와 형식 버전을 쓰는 함수
+     * @param output 출력 스트림(입력, 출력)
+     * @return 반환값 없음
+     * @throws IOException 쓰기 실패 시
+     */
+    public static void writeHandshake(final DataOutputStream output) throws IOException {
+        output.writeInt(MAGIC);
+        output.writeShort(VERSION);
+    }
+
+    /**
+     * @fn public static void readHandshake(final DataInputStream input)
+     * @brief 스트림 식별자와 형식 버전을 확인하는 함수
+     * @param input 입력 스트림(입력)
+     * @return 반환값 없음
+     * @throws IOException 읽기 실패 또는 형식이 다를 때
+     */
+    public static void readHandshake(final DataInputStream input) throws IOException {
+        int magic = input.readInt();
+        short version = input.readShort();
+        if (magic != MAGIC || version != VERSION) {
+            throw new IOException("Unknown replication stream (magic:" + Integer.toHexString(magic) + ", version:" + version + ")");
+        }
+    }
+
+    /**
+     * @fn public static void writeStack(final DataOutputStream output, final ReplicatedStack stack)
+     * @brief Stack 이름과 수신 주소를 쓰는 함수 (MSG_STACK 의 앞부분)
+     * @param output 출력 스트림(입력, 출력)
+     * @param stack  복제하는 Stack(입력, 읽기 전용)
+     * @return 반환값 없음
+     * @throws IOException 쓰기 실패 시
+     */
+    public static void writeStack(final DataOutputStream output, final ReplicatedStack stack) throws IOException {
+        output.writeUTF(stack.getName());
+        output.writeUTF(stack.getUserName());
+        output.writeUTF(stack.getIp());
+
+        TransportConfig[] transportConfigs = stack.getTransportConfigs();
+        output.writeShort(transportConfigs.length);
+        for (TransportConfig transportConfig : transportConfigs) {
+            output.writeUTF(transportConfig.getProtocol());
+            output.writeInt(transportConfig.getPort());
+        }
+    }
+
+    /**
+     * @fn public static ReplicatedStack readStack(final DataInputStream input)
+     * @brief Stack 이름과 수신 주소를 읽는 함수 (MSG_STACK 의 앞부분)
+     * @param input 입력 스트림(입력)
+     * @return 복제 받은 Stack (다이얼로그는 비어 있음)
+     * @throws IOException 읽기 실패 시
+     */
+    public static ReplicatedStack readStack(final DataInputStream input) throws IOException {
+        String name = input.readUTF();
+        String userName = input.readUTF();
+        String ip = input.readUTF();
+
+        TransportConfig[] transportConfigs = new TransportConfig[input.readUnsignedShort()];
+        for (int i = 0; i < transportConfigs.length; i++) {
+            String protocol = input.readUTF();
+            transportConfigs[i] = new TransportConfig(protocol, input.readInt());
+        }
+        return new ReplicatedStack(name, userName, ip, transportConfigs);
+    }
+}
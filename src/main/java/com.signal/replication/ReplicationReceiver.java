@@ -0,0 +1,240 @@
+package com.signal.replication;
+
+import com.signal.snapshot.DialogRecordCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * @class public class ReplicationReceiver implements Runnable
+ * @brief Standby 노드에서 Active 노드의 다이얼로그 변경분을 받아 Stack 별로 적용하는 쓰레드
+ * Active 노드로부터 takeoverTimeout 동안 아무것도 받지 못하면 (연결 중 무응답, 또는 끊긴 후 재연결 없음)
+ * 복제 관리 객체에 수신 주소 인계를 요청한다. 인계는 한 번이라도 Stack 을 받은 후에만 한다.
+ */
+public class ReplicationReceiver implements Runnable {
+    /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
+    private static final Logger logger = LoggerFactory.getLogger(ReplicationReceiver.class);
+    /* 입력 버퍼 크기 */
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /* 복제 관리 객체 */
+    private final ReplicationManager replicationManager;
+    /* 기다리는 주소 */
+    private final InetSocketAddress address;
+    /* 인계 전 기다리는 시간 (ms) */
+    private final long takeoverTimeout;
+    /* 쓰레드 동작 여부 */
+    private volatile boolean running = true;
+    /* 기다리는 소켓과 현재 연결 (close() 에서 닫아서 쓰레드를 깨움) */
+    private volatile ServerSocket serverSocket = null;
+    private volatile Socket socket = null;
+
+    /**
+     * @fn public ReplicationReceiver(final ReplicationManager replicationManager, final InetSocketAddress address, long takeoverTimeout)
+     * @brief 변경분 수신 쓰레드를 초기화하는 함수
+     * @param replicationManager 복제 관리 객체(입력, 읽기 전용)
+     * @param address            기다리는 주소(입력, 읽기 전용)
+     * @param takeoverTimeout    인계 전 기다리는 시간, ms(입력)
+     */
+    public ReplicationReceiver(final ReplicationManager replicationManager, final InetSocketAddress address, long takeoverTimeout) {
+        if (replicationManager == null || address == null) throw new NullPointerException("Parameter Error (Null)");
+
+        this.replicationManager = replicationManager;
+        this.address = address;
+        this.takeoverTimeout = takeoverTimeout;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public void close()
+     * @brief 기다리는 소켓과 현재 연결을 닫아서 쓰레드를 종료하는 함수
+     * @return 반환값 없음
+     */
+    public void close() {
+        running = false;
+        closeQuietly(serverSocket);
+        closeQuietly(socket);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Override Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void run() {
+        try {
+            ServerSocket newServerSocket = new ServerSocket();
+            newServerSocket.setReuseAddress(true);
+            newServerSocket.bind(address);
+            newServerSocket.setSoTimeout((int) takeoverTimeout);
+            serverSocket = newServerSocket;
+        } catch (IOException e) {
+            logger.error("Fail to listen replication address {}", address, e);
+            return;
+        }
+        logger.info("Replication standby is listening on {}", address);
+
+        while (running && !replicationManager.isTakenOver()) {
+            Socket newSocket;
+            try {
+                newSocket = serverSocket.accept();
+            } catch (SocketTimeoutException e) {
+                onSilence();
+                continue;
+            } catch (IOException e) {
+                if (running) logger.warn("Fail to accept replication connection", e);
+                continue;
+            }
+
+            if (!receive(newSocket)) onSilence();
+        }
+
+        closeQuietly(serverSocket);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private boolean receive(final Socket newSocket)
+     * @brief 연결이 끝날 때까지 메시지를 받아서 적용하는 함수
+     * @param newSocket Active 노드와의 연결(입력, 읽기 전용)
+     * @return 연결이 닫혔으면 true, takeoverTimeout 동안 받은 것이 없으면 false 반환
+     */
+    private boolean receive(final Socket newSocket) {
+        socket = newSocket;
+        String peer = String.valueOf(newSocket.getRemoteSocketAddress());
+        replicationManager.onConnected(peer);
+        logger.info("Replication is connected from active {}", peer);
+
+        Inflater inflater = new Inflater();
+        try {
+            newSocket.setSoTimeout((int) takeoverTimeout);
+            CountingInputStream wireCounter = new CountingInputStream(new BufferedInputStream(newSocket.getInputStream(), BUFFER_SIZE));
+            ReplicationProtocol.readHandshake(new DataInputStream(wireCounter));
+
+            CountingInputStream rawCounter = new CountingInputStream(new InflaterInputStream(wireCounter, inflater, BUFFER_SIZE));
+            DataInputStream input = new DataInputStream(new BufferedInputStream(rawCounter, BUFFER_SIZE));
+            while (running) {
+                int count = receiveMessage(input);
+                replicationManager.onTraffic(count, rawCounter.takeCount(), wireCounter.takeCount());
+            }
+            return true;
+        } catch (SocketTimeoutException e) {
+            logger.warn("No replication message from active {} for {}ms", peer, takeoverTimeout);
+            return false;
+        } catch (EOFException e) {
+            logger.warn("Replication connection from active {} is closed", peer);
+            return true;
+        } catch (IOException e) {
+            if (running) logger.warn("Replication connection from active {} is lost ({})", peer, e.toString());
+            return true;
+        } finally {
+            closeQuietly(newSocket);
+            inflater.end();
+            socket = null;
+            replicationManager.onDisconnected();
+        }
+    }
+
+    /**
+     * @fn private int receiveMessage(final DataInputStream input)
+     * @brief 메시지 하나를 받아서 Stack 에 적용하는 함수
+     * @param input 입력 스트림(입력)
+     * @return 적용한 다이얼로그 기록 수
+     * @throws IOException 읽기 실패 또는 형식이 다를 때
+     */
+    private int receiveMessage(final DataInputStream input) throws IOException {
+        byte type = input.readByte();
+        switch (type) {
+            case ReplicationProtocol.MSG_STACK: {
+                // 같은 이름의 Stack 은 새로 받은 전체 상태로 교체한다. (Active 의 재연결, 호 등록 객체 변경)
+                ReplicatedStack replicatedStack = ReplicationProtocol.readStack(input);
+                int count = DialogRecordCodec.readUntilEnd(input, replicatedStack.getDialogs());
+                replicationManager.putReplicatedStack(replicatedStack);
+                logger.debug("Replication full state is received (Stack:{}, Dialogs:{})", replicatedStack.getName(), count);
+                return count;
+            }
+            case ReplicationProtocol.MSG_CHANGES: {
+                String name = input.readUTF();
+                ReplicatedStack replicatedStack = replicationManager.getReplicatedStack(name);
+                if (replicatedStack == null) throw new IOException("Unknown replicated stack (" + name + ")");
+                return DialogRecordCodec.readUntilEnd(input, replicatedStack.getDialogs());
+            }
+            case ReplicationProtocol.MSG_HEARTBEAT:
+                input.readLong();
+                return 0;
+            default:
+                throw new IOException("Unknown replication message (type:" + type + ")");
+        }
+    }
+
+    /**
+     * @fn private void onSilence()
+     * @brief takeoverTimeout 동안 Active 노드로부터 받은 것이 없을 때 수신 주소 인계를 요청하는 함수
+     * @return 반환값 없음
+     */
+    private void onSilence() {
+        if (!running || replicationManager.getStacks() == 0) return;
+        replicationManager.takeOver();
+    }
+
+    private static void closeQuietly(final Closeable closeable) {
+        if (closeable == null) return;
+
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            logger.debug("Fail to close replication socket", e);
+        }
+    }
+
+    /**
+     * @class private static class CountingInputStream extends FilterInputStream
+     * @brief 지나가는 byte 수를 세는 입력 스트림 (받는 쓰레드 전용)
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        /* 마지막 takeCount() 이후 읽은 byte 수 */
+        private long count = 0;
+
+        private CountingInputStream(final InputStream inputStream) {
+            super(inputStream);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] bytes, int offset, int length) throws IOException {
+            int n = in.read(bytes, offset, length);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        private long takeCount() {
+            long value = count;
+            count = 0;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.signal.replication;
+
+/**
+ * @enum public enum ReplicationRole
+ * @brief 호 상태 복제에서 노드의 역할
+ */
+public enum ReplicationRole {
+    /* 복제하지 않음 */
+    NONE,
+    /* 설립된 다이얼로그의 변경분을 Standby 노드로 보냄 */
+    ACTIVE,
+    /* Active 노드의 다이얼로그를 받아 두었다가, Active 노드가 멈추면 수신 주소를 인계받음 */
+    STANDBY
+}
@@ -0,0 +1,351 @@
+package com.signal.replication;
+
+import com.signal.registry.CallRegistry;
+import com.signal.snapshot.DialogChanges;
+import com.signal.snapshot.DialogRecord;
+import com.signal.snapshot.DialogRecordCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sip.Dialog;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * @class public class ReplicationSender implements Runnable
+ * @brief Active 노드에서 Standby 노드로 다이얼로그 변경분을 묶고 압축해서 보내는 쓰레드
+ * SIP 처리 쓰레드는 호 등록 객체의 알림으로 변경된 Call-ID 만 표시하고 (DialogChanges),
+ * 이 쓰레드가 batchInterval 마다 모든 Stack 의 변경분을 하나의 묶음으로 보내고 한 번 flush 한다.
+ * 연결이 끊기면 reconnectInterval 마다 다시 연결하고, 연결되면 모든 Stack 의 전체 상태부터 보낸다.
+ */
+public class ReplicationSender implements Runnable {
+    /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
+    private static final Logger logger = LoggerFactory.getLogger(ReplicationSender.class);
+    /* 출력 버퍼 크기 */
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /* 복제 관리 객체 */
+    private final ReplicationManager replicationManager;
+    /* Standby 노드 주소 */
+    private final InetSocketAddress address;
+    /* 묶음 전송 주기, 살아 있음 알림 주기, 재연결 주기 (ms) */
+    private final long batchInterval;
+    private final long heartbeatInterval;
+    private final long reconnectInterval;
+    /* Deflate 압축 수준 */
+    private final int compressionLevel;
+    /* 기록 변환 (보내는 쓰레드 전용) */
+    private final DialogRecordCodec codec = new DialogRecordCodec();
+    /* 쓰레드 동작 여부 */
+    private volatile boolean running = true;
+    /* 보내는 쓰레드 */
+    private volatile Thread thread = null;
+    /* 연결 (보내는 쓰레드 전용) */
+    private Socket socket = null;
+    private Deflater deflater = null;
+    private DataOutputStream output = null;
+    /* 압축 전/후 byte 수 (보내는 쓰레드 전용) */
+    private CountingOutputStream rawCounter = null;
+    private CountingOutputStream wireCounter = null;
+    /* 마지막으로 보낸 시각, System.currentTimeMillis (보내는 쓰레드 전용) */
+    private long lastSendTime = 0;
+    /* 연결 실패를 이미 알렸는지 여부 (보내는 쓰레드 전용, 재연결 시도마다 경고하지 않음) */
+    private boolean isWarned = false;
+
+    /**
+     * @fn public ReplicationSender(final ReplicationManager replicationManager, final InetSocketAddress address, long batchInterval, long heartbeatInterval, long reconnectInterval, int compressionLevel)
+     * @brief 변경분 전송 쓰레드를 초기화하는 함수
+     * @param replicationManager 복제 관리 객체(입력, 읽기 전용)
+     * @param address            Standby 노드 주소(입력, 읽기 전용)
+     * @param batchInterval      묶음 전송 주기, ms(입력)
+     * @param heartbeatInterval  살아 있음 알림 주기, ms(입력)
+     * @param reconnectInterval  재연결 주기, ms(입력)
+     * @param compressionLevel   Deflate 압축 수준, 0~9(입력)
+     */
+    public ReplicationSender(final ReplicationManager replicationManager, final InetSocketAddress address,
+                             long batchInterval, long heartbeatInterval, long reconnectInterval, int compressionLevel) {
+        if (replicationManager == null || address == null) throw new NullPointerException("Parameter Error (Null)");
+
+        this.replicationManager = replicationManager;
+        this.address = address;
+        this.batchInterval = batchInterval;
+        this.heartbeatInterval = heartbeatInterval;
+        this.reconnectInterval = reconnectInterval;
+        this.compressionLevel = compressionLevel;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public void close()
+     * @brief 남은 변경분을 마지막으로 보내고 연결을 닫도록 쓰레드에 알리는 함수
+     * @return 반환값 없음
+     */
+    public void close() {
+        running = false;
+        Thread current = thread;
+        if (current != null) LockSupport.unpark(current);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Override Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void run() {
+        thread = Thread.currentThread();
+
+        while (running) {
+            if (output == null && !connect()) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(reconnectInterval));
+                continue;
+            }
+
+            try {
+                send();
+            } catch (IOException e) {
+                logger.warn("Replication connection to {} is lost ({})", address, e.toString());
+                disconnect();
+                continue;
+            }
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(batchInterval));
+        }
+
+        // 정상 종료 시 마지막 BYE 로 삭제된 다이얼로그까지 보낸다.
+        if (output != null) {
+            try {
+                send();
+            } catch (IOException e) {
+                logger.warn("Fail to send last replication changes to {}", address, e);
+            }
+            disconnect();
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private boolean connect()
+     * @brief Standby 노드에 연결하고 스트림 머리를 보낸 후, 모든 Stack 의 전체 상태를 다시 보내도록 표시하는 함수
+     * @return 연결되면 true, 실패하면 false 반환
+     */
+    private boolean connect() {
+        Socket newSocket = new Socket();
+        try {
+            newSocket.setTcpNoDelay(true);
+            newSocket.connect(address, (int) reconnectInterval);
+
+            wireCounter = new CountingOutputStream(new BufferedOutputStream(newSocket.getOutputStream(), BUFFER_SIZE));
+            DataOutputStream handshakeOutput = new DataOutputStream(wireCounter);
+            ReplicationProtocol.writeHandshake(handshakeOutput);
+
+            // 묶음마다 SYNC_FLUSH 하므로 압축 사전은 연결 동안 유지된다.
+            deflater = new Deflater(compressionLevel);
+            rawCounter = new CountingOutputStream(new DeflaterOutputStream(wireCounter, deflater, BUFFER_SIZE, true));
+            output = new DataOutputStream(new BufferedOutputStream(rawCounter, BUFFER_SIZE));
+            socket = newSocket;
+        } catch (IOException e) {
+            if (!isWarned) {
+                logger.warn("Fail to connect replication standby {} ({}), retry every {}ms", address, e.toString(), reconnectInterval);
+                isWarned = true;
+            }
+            closeQuietly(newSocket);
+            if (deflater != null) deflater.end();
+            deflater = null;
+            return false;
+        }
+
+        for (ReplicatedStack replicatedStack : replicationManager.getReplicatedStacks()) {
+            replicatedStack.setSynced(false);
+        }
+        isWarned = false;
+        lastSendTime = 0;
+        replicationManager.onConnected(address.toString());
+        logger.info("Replication is connected to standby {}", address);
+        return true;
+    }
+
+    /**
+     * @fn private void disconnect()
+     * @brief 연결을 닫는 함수
+     * @return 반환값 없음
+     */
+    private void disconnect() {
+        closeQuietly(socket);
+        if (deflater != null) deflater.end();
+        socket = null;
+        deflater = null;
+        output = null;
+        rawCounter = null;
+        wireCounter = null;
+        replicationManager.onDisconnected();
+    }
+
+    /**
+     * @fn private void send()
+     * @brief 모든 Stack 의 전체 상태(처음) 또는 변경분을 한 묶음으로 보내는 함수, 보낼 것이 없으면 heartbeatInterval 마다 살아 있음을 알림
+     * @return 반환값 없음
+     * @throws IOException 전송 실패 시
+     */
+    private void send() throws IOException {
+        int count = 0;
+        for (ReplicatedStack replicatedStack : replicationManager.getReplicatedStacks()) {
+            if (!replicatedStack.isSynced()) {
+                count += sendFullState(replicatedStack);
+            } else {
+                count += sendChanges(replicatedStack);
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        if (count == 0) {
+            if (now - lastSendTime < heartbeatInterval) return;
+            output.writeByte(ReplicationProtocol.MSG_HEARTBEAT);
+            output.writeLong(now);
+        }
+        output.flush();
+        lastSendTime = now;
+        replicationManager.onTraffic(count, rawCounter.takeCount(), wireCounter.takeCount());
+    }
+
+    /**
+     * @fn private int sendFullState(final ReplicatedStack replicatedStack)
+     * @brief Stack 의 수신 주소와 설립된 다이얼로그 전체를 쓰는 함수 (MSG_STACK)
+     * 쓰는 중에 바뀐 다이얼로그는 변경분으로 남아 다음 묶음에서 다시 보낸다.
+     * @param replicatedStack 복제하는 Stack(입력, 읽기 전용)
+     * @return 쓴 다이얼로그 수
+     * @throws IOException 쓰기 실패 시
+     */
+    private int sendFullState(final ReplicatedStack replicatedStack) throws IOException {
+        // 쓰는 중에 호 등록 객체가 바뀌면 (attach) 다음 묶음에서 다시 전체 상태를 보낸다.
+        replicatedStack.setSynced(true);
+        replicatedStack.getChanges().discardSettled();
+
+        output.writeByte(ReplicationProtocol.MSG_STACK);
+        ReplicationProtocol.writeStack(output, replicatedStack);
+
+        int count = 0;
+        CallRegistry callRegistry = replicatedStack.getCallRegistry();
+        if (callRegistry != null) {
+            for (String callId : callRegistry.getDialogCallIds()) {
+                Dialog dialog = callRegistry.searchDialog(callId);
+                if (!DialogChanges.isConfirmed(dialog)) continue;
+
+                DialogRecord dialogRecord = DialogRecord.from(dialog);
+                if (dialogRecord == null) continue;
+                codec.writeAdd(output, dialogRecord);
+                count++;
+            }
+        }
+        DialogRecordCodec.writeEnd(output);
+
+        logger.debug("Replication full state is sent (Stack:{}, Dialogs:{})", replicatedStack.getName(), count);
+        // 다이얼로그가 없어도 Standby 가 Stack 을 알아야 하므로 한 건으로 센다.
+        return count + 1;
+    }
+
+    /**
+     * @fn private int sendChanges(final ReplicatedStack replicatedStack)
+     * @brief Stack 의 확정된 변경분을 쓰는 함수 (MSG_CHANGES, 변경분이 없으면 쓰지 않음)
+     * @param replicatedStack 복제하는 Stack(입력, 읽기 전용)
+     * @return 쓴 변경분 수
+     * @throws IOException 쓰기 실패 시 (이미 꺼낸 변경분은 재연결 후 전체 상태로 다시 보낸다)
+     */
+    private int sendChanges(final ReplicatedStack replicatedStack) throws IOException {
+        DialogChanges changes = replicatedStack.getChanges();
+        if (changes.isEmpty()) return 0;
+
+        ChangeWriter changeWriter = new ChangeWriter(replicatedStack.getName());
+        int count = changes.drain(changeWriter);
+        if (changeWriter.isStarted) DialogRecordCodec.writeEnd(output);
+        return count;
+    }
+
+    private static void closeQuietly(final Socket socket) {
+        if (socket == null) return;
+
+        try {
+            socket.close();
+        } catch (IOException e) {
+            logger.debug("Fail to close replication socket", e);
+        }
+    }
+
+    /**
+     * @class private class ChangeWriter implements DialogChanges.Handler
+     * @brief 꺼낸 변경분을 MSG_CHANGES 로 쓰는 클래스 (첫 변경분을 쓸 때 메시지 머리를 씀)
+     */
+    private class ChangeWriter implements DialogChanges.Handler {
+        /* SIP Stack 이름 */
+        private final String name;
+        /* 메시지 머리를 썼는지 여부 */
+        private boolean isStarted = false;
+
+        private ChangeWriter(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void onAdded(final DialogRecord dialogRecord) throws IOException {
+            start();
+            codec.writeAdd(output, dialogRecord);
+        }
+
+        @Override
+        public void onRemoved(final String callId) throws IOException {
+            start();
+            codec.writeRemove(output, callId);
+        }
+
+        private void start() throws IOException {
+            if (isStarted) return;
+
+            output.writeByte(ReplicationProtocol.MSG_CHANGES);
+            output.writeUTF(name);
+            isStarted = true;
+        }
+    }
+
+    /**
+     * @class private static class CountingOutputStream extends FilterOutputStream
+     * @brief 지나가는 byte 수를 세는 출력 스트림 (보내는 쓰레드 전용)
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        /* 마지막 takeCount() 이후 쓴 byte 수 */
+        private long count = 0;
+
+        private CountingOutputStream(final OutputStream outputStream) {
+            super(outputStream);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(final byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+            count += length;
+        }
+
+        private long takeCount() {
+            long value = count;
+            count = 0;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.signal.resolve;
+
+/**
+ * @class public class AddressRecord
+ * @brief DNS A / AAAA 레코드
+ */
+public class AddressRecord {
+    /* 주소 (IPv4 또는 IPv6 문자열) */
+    private final String address;
+    /* TTL (초) */
+    private final long ttl;
+
+    /**
+     * @fn public AddressRecord(final String address, long ttl)
+     * @brief 주소 레코드를 초기화하는 함수
+     * @param address 주소(입력, 읽기 전용)
+     * @param ttl     TTL, 초(입력)
+     */
+    public AddressRecord(final String address, long ttl) {
+        if (address == null) throw new NullPointerException("Parameter Error (Null)");
+
+        this.address = address;
+        this.ttl = ttl;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public String getAddress()
+     * @brief 주소를 반환하는 함수
+     * @return 주소
+     */
+    public String getAddress() {
+        return address;
+    }
+
+    /**
+     * @fn public long getTtl()
+     * @brief TTL 을 반환하는 함수
+     * @return TTL (초)
+     */
+    public long getTtl() {
+        return ttl;
+    }
+
+    @Override
+    public String toString() {
+        return "A " + address + " (TTL:" + ttl + ")";
+    }
+}
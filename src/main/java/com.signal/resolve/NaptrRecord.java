@@ -0,0 +1,104 @@
+package com.signal.resolve;
+
+/**
+ * @class public class NaptrRecord
+ * @brief DNS NAPTR 레코드 (RFC 3403), SIP 는 flags "s" 와 SIP+D2U / SIP+D2T / SIPS+D2T 서비스만 사용한다.
+ */
+public class NaptrRecord {
+    /* 처리 순서 (작을수록 먼저) */
+    private final int order;
+    /* 같은 order 안에서의 선호도 (작을수록 먼저) */
+    private final int preference;
+    /* flags (SIP 는 "s" : replacement 로 SRV 조회) */
+    private final String flags;
+    /* 서비스 (SIP+D2U, SIP+D2T, SIPS+D2T) */
+    private final String service;
+    /* SRV 조회 이름 */
+    private final String replacement;
+    /* TTL (초) */
+    private final long ttl;
+
+    /**
+     * @fn public NaptrRecord(int order, int preference, final String flags, final String service, final String replacement, long ttl)
+     * @brief NAPTR 레코드를 초기화하는 함수
+     * @param order       처리 순서(입력)
+     * @param preference  선호도(입력)
+     * @param flags       flags(입력, 읽기 전용)
+     * @param service     서비스(입력, 읽기 전용)
+     * @param replacement SRV 조회 이름(입력, 읽기 전용)
+     * @param ttl         TTL, 초(입력)
+     */
+    public NaptrRecord(int order, int preference, final String flags, final String service, final String replacement, long ttl) {
+        if (flags == null || service == null || replacement == null) throw new NullPointerException("Parameter Error (Null)");
+
+        this.order = order;
+        this.preference = preference;
+        this.flags = flags;
+        this.service = service;
+        this.replacement = replacement;
+        this.ttl = ttl;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public int getOrder()
+     * @brief 처리 순서를 반환하는 함수
+     * @return 처리 순서
+     */
+    public int getOrder() {
+        return order;
+    }
+
+    /**
+     * @fn public int getPreference()
+     * @brief 선호도를 반환하는 함수
+     * @return 선호도
+     */
+    public int getPreference() {
+        return preference;
+    }
+
+    /**
+     * @fn public String getFlags()
+     * @brief flags 를 반환하는 함수
+     * @return flags
+     */
+    public String getFlags() {
+        return flags;
+    }
+
+    /**
+     * @fn public String getService()
+     * @brief 서비스를 반환하는 함수
+     * @return 서비스
+     */
+    public String getService() {
+        return service;
+    }
+
+    /**
+     * @fn public String getReplacement()
+     * @brief SRV 조회 이름을 반환하는 함수
+     * @return SRV 조회 이름
+     */
+    public String getReplacement() {
+        return replacement;
+    }
+
+    /**
+     * @fn public long getTtl()
+     * @brief TTL 을 반환하는 함수
+     * @return TTL (초)
+     */
+    public long getTtl() {
+        return ttl;
+    }
+
+    @Override
+    public String toString() {
+        return "NAPTR " + order + " " + preference + " \"" + flags + "\" \"" + service + "\" " + replacement + " (TTL:" + ttl + ")";
+    }
+}
@@ -0,0 +1,92 @@
+package com.signal.resolve;
+
+/**
+ * @class public class ResolvedTarget
+ * @brief RFC 3263 으로 찾은 발신 대상 하나 (주소, 포트, 전송 프로토콜)
+ * rank 는 NAPTR 순서와 SRV priority 로 정한 시도 순서이고, 같은 rank 안에서는 SRV weight 비율로 순서를 섞는다. (RFC 2782)
+ */
+public class ResolvedTarget {
+    /* 주소 (IP) */
+    private final String host;
+    /* 포트 */
+    private final int port;
+    /* 전송 프로토콜 (소문자) */
+    private final String transport;
+    /* 시도 순서 (작을수록 먼저) */
+    private final int rank;
+    /* 같은 rank 안에서의 선택 비율 (SRV weight, SRV 가 아니면 0) */
+    private final int weight;
+
+    /**
+     * @fn public ResolvedTarget(final String host, int port, final String transport, int rank, int weight)
+     * @brief 발신 대상을 초기화하는 함수
+     * @param host      주소(입력, 읽기 전용)
+     * @param port      포트(입력)
+     * @param transport 전송 프로토콜(입력, 읽기 전용)
+     * @param rank      시도 순서(입력)
+     * @param weight    같은 rank 안에서의 선택 비율(입력)
+     */
+    public ResolvedTarget(final String host, int port, final String transport, int rank, int weight) {
+        if (host == null || transport == null) throw new NullPointerException("Parameter Error (Null)");
+
+        this.host = host;
+        this.port = port;
+        this.transport = transport.toLowerCase();
+        this.rank = rank;
+        this.weight = weight;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public String getHost()
+     * @brief 주소를 반환하는 함수
+     * @return 주소 (IP)
+     */
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * @fn public int getPort()
+     * @brief 포트를 반환하는 함수
+     * @return 포트
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * @fn public String getTransport()
+     * @brief 전송 프로토콜을 반환하는 함수
+     * @return 전송 프로토콜 (소문자)
+     */
+    public String getTransport() {
+        return transport;
+    }
+
+    /**
+     * @fn public int getRank()
+     * @brief 시도 순서를 반환하는 함수
+     * @return 시도 순서
+     */
+    public int getRank() {
+        return rank;
+    }
+
+    /**
+     * @fn public int getWeight()
+     * @brief 같은 rank 안에서의 선택 비율을 반환하는 함수
+     * @return SRV weight
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        return host + ":" + port + ";" + transport;
+    }
+}
@@ -0,0 +1,40 @@
+package com.signal.resolve;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * @interface public interface ResolverBackend
+ * @brief TargetResolver 가 DNS 레코드를 조회하는 인터페이스
+ * 기본은 SystemResolverBackend (JNDI DNS, InetAddress) 이고, 오프라인 시험에는 메모리 zone (ZoneResolverBackend) 을 사용한다.
+ * 이름이 없거나 레코드가 없으면 빈 목록을 반환하고 (부정 캐시), 조회 자체가 실패하면 IOException 을 던진다. (이전 결과를 계속 사용)
+ * TargetResolver 의 조회 쓰레드에서 호출되므로 블로킹해도 된다.
+ */
+public interface ResolverBackend {
+    /**
+     * @fn List<NaptrRecord> lookupNaptr(final String name) throws IOException
+     * @brief NAPTR 레코드를 조회하는 함수
+     * @param name 도메인 이름(입력, 읽기 전용)
+     * @return NAPTR 레코드 목록, 없으면 빈 목록
+     * @throws IOException 조회 실패 시
+     */
+    List<NaptrRecord> lookupNaptr(final String name) throws IOException;
+
+    /**
+     * @fn List<SrvRecord> lookupSrv(final String name) throws IOException
+     * @brief SRV 레코드를 조회하는 함수
+     * @param name SRV 이름, _sip._udp.example.com(입력, 읽기 전용)
+     * @return SRV 레코드 목록, 없으면 빈 목록
+     * @throws IOException 조회 실패 시
+     */
+    List<SrvRecord> lookupSrv(final String name) throws IOException;
+
+    /**
+     * @fn List<AddressRecord> lookupAddress(final String name) throws IOException
+     * @brief A / AAAA 레코드를 조회하는 함수
+     * @param name 호스트 이름(입력, 읽기 전용)
+     * @return 주소 레코드 목록, 없으면 빈 목록
+     * @throws IOException 조회 실패 시
+     */
+    List<AddressRecord> lookupAddress(final String name) throws IOException;
+}
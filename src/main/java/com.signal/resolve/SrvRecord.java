@@ -0,0 +1,91 @@
+package com.signal.resolve;
+
+/**
+ * @class public class SrvRecord
+ * @brief DNS SRV 레코드 (RFC 2782)
+ */
+public class SrvRecord {
+    /* 우선 순위 (작을수록 먼저) */
+    private final int priority;
+    /* 같은 우선 순위 안에서의 선택 비율 */
+    private final int weight;
+    /* 포트 */
+    private final int port;
+    /* 대상 호스트 이름 ("." 이면 서비스 없음) */
+    private final String target;
+    /* TTL (초) */
+    private final long ttl;
+
+    /**
+     * @fn public SrvRecord(int priority, int weight, int port, final String target, long ttl)
+     * @brief SRV 레코드를 초기화하는 함수
+     * @param priority 우선 순위(입력)
+     * @param weight   선택 비율(입력)
+     * @param port     포트(입력)
+     * @param target   대상 호스트 이름(입력, 읽기 전용)
+     * @param ttl      TTL, 초(입력)
+     */
+    public SrvRecord(int priority, int weight, int port, final String target, long ttl) {
+        if (target == null) throw new NullPointerException("Parameter Error (Null)");
+
+        this.priority = priority;
+        this.weight = weight;
+        this.port = port;
+        this.target = target;
+        this.ttl = ttl;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public int getPriority()
+     * @brief 우선 순위를 반환하는 함수
+     * @return 우선 순위
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * @fn public int getWeight()
+     * @brief 선택 비율을 반환하는 함수
+     * @return 선택 비율
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * @fn public int getPort()
+     * @brief 포트를 반환하는 함수
+     * @return 포트
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * @fn public String getTarget()
+     * @brief 대상 호스트 이름을 반환하는 함수
+     * @return 대상 호스트 이름
+     */
+    public String getTarget() {
+        return target;
+    }
+
+    /**
+     * @fn public long getTtl()
+     * @brief TTL 을 반환하는 함수
+     * @return TTL (초)
+     */
+    public long getTtl() {
+        return ttl;
+    }
+
+    @Override
+    public String toString() {
+        return "SRV " + priority + " " + weight + " " + port + " " + target + " (TTL:" + ttl + ")";
+    }
+}
@@ -0,0 +1,144 @@
+package com.signal.resolve;
+
+import javax.naming.Context;
+import javax.naming.NameNotFoundException;
+import javax.naming.NamingEnumeration;
+import javax.naming.NamingException;
+import javax.naming.directory.Attribute;
+import javax.naming.directory.Attributes;
+import javax.naming.directory.DirContext;
+import javax.naming.directory.InitialDirContext;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Hashtable;
+import java.util.List;
+
+/**
+ * @class public class SystemResolverBackend implements ResolverBackend
+ * @brief 시스템 DNS 로 레코드를 조회하는 클래스
+ * NAPTR / SRV 는 JNDI DNS 로, A / AAAA 는 InetAddress 로 조회한다.
+ * 두 방법 모두 응답의 TTL 을 알려주지 않으므로 모든 레코드에 지정한 기본 TTL 을 사용한다.
+ */
+public class SystemResolverBackend implements ResolverBackend {
+    /* 기본 조회 대기 시간 (ms) */
+    public static final long DEFAULT_TIMEOUT = 1000;
+    /* 기본 재시도 횟수 */
+    public static final int DEFAULT_RETRIES = 1;
+    /* 기본 TTL (초) */
+    public static final long DEFAULT_TTL = 60;
+    /* JNDI DNS 구현 */
+    private static final String DNS_CONTEXT_FACTORY = "com.sun.jndi.dns.DnsContextFactory";
+    /* JNDI DNS 설정 (조회마다 새 context 를 만들 때 사용) */
+    private final Hashtable<String, String> environment = new Hashtable<>();
+    /* 레코드에 사용할 TTL (초) */
+    private final long ttl;
+
+    /**
+     * @fn public SystemResolverBackend(long timeout, int retries, long ttl)
+     * @brief 시스템 DNS 조회 객체를 초기화하는 함수
+     * @param timeout 조회 대기 시간(ms, 입력)
+     * @param retries 재시도 횟수(입력)
+     * @param ttl     레코드에 사용할 TTL(초, 입력)
+     */
+    public SystemResolverBackend(long timeout, int retries, long ttl) {
+        if (timeout <= 0 || retries < 0 || ttl < 0) {
+            throw new IllegalArgumentException("Invalid system resolver (timeout:" + timeout + ", retries:" + retries + ", ttl:" + ttl + ")");
+        }
+
+        environment.put(Context.INITIAL_CONTEXT_FACTORY, DNS_CONTEXT_FACTORY);
+        environment.put("com.sun.jndi.dns.timeout.initial", String.valueOf(timeout));
+        environment.put("com.sun.jndi.dns.timeout.retries", String.valueOf(retries));
+        this.ttl = ttl;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Override Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public List<NaptrRecord> lookupNaptr(final String name) throws IOException {
+        List<NaptrRecord> records = new ArrayList<>();
+        for (String value : lookup(name, "NAPTR")) {
+            try {
+                records.add(ZoneResolverBackend.parseNaptr(ZoneResolverBackend.splitRecordData(value), ttl));
+            } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                throw new IOException("Invalid NAPTR record (" + name + ") : " + value, e);
+            }
+        }
+        return records;
+    }
+
+    @Override
+    public List<SrvRecord> lookupSrv(final String name) throws IOException {
+        List<SrvRecord> records = new ArrayList<>();
+        for (String value : lookup(name, "SRV")) {
+            try {
+                records.add(ZoneResolverBackend.parseSrv(ZoneResolverBackend.splitRecordData(value), ttl));
+            } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                throw new IOException("Invalid SRV record (" + name + ") : " + value, e);
+            }
+        }
+        return records;
+    }
+
+    @Override
+    public List<AddressRecord> lookupAddress(final String name) throws IOException {
+        InetAddress[] addresses;
+        try {
+            addresses = InetAddress.getAllByName(name);
+        } catch (UnknownHostException e) {
+            return Collections.emptyList();
+        }
+
+        List<AddressRecord> records = new ArrayList<>(addresses.length);
+        for (InetAddress address : addresses) {
+            records.add(new AddressRecord(address.getHostAddress(), ttl));
+        }
+        return records;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private List<String> lookup(final String name, final String type) throws IOException
+     * @brief JNDI DNS 로 지정한 종류의 레코드 문자열을 조회하는 함수
+     * @param name 이름(입력, 읽기 전용)
+     * @param type 레코드 종류(입력, 읽기 전용)
+     * @return 레코드 문자열 목록, 이름이나 레코드가 없으면 빈 목록
+     * @throws IOException 조회 실패 시
+     */
+    private List<String> lookup(final String name, final String type) throws IOException {
+        DirContext context = null;
+        try {
+            // DirContext 는 쓰레드 안전하지 않으므로 조회마다 새로 만든다. (캐시 미스와 갱신 때만 조회)
+            context = new InitialDirContext(environment);
+            Attributes attributes = context.getAttributes("dns:///" + name, new String[]{type});
+            Attribute attribute = attributes.get(type);
+            if (attribute == null) return Collections.emptyList();
+
+            List<String> values = new ArrayList<>(attribute.size());
+            NamingEnumeration<?> enumeration = attribute.getAll();
+            while (enumeration.hasMore()) {
+                values.add(String.valueOf(enumeration.next()));
+            }
+            return values;
+        } catch (NameNotFoundException e) {
+            return Collections.emptyList();
+        } catch (NamingException e) {
+            throw new IOException("Fail to lookup " + type + " (" + name + ")", e);
+        } finally {
+            if (context != null) {
+                try {
+                    context.close();
+                } catch (NamingException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,730 @@
+package com.signal.resolve;
+
+import com.signal.metrics.LatencyHistogram;
+import com.signal.metrics.SignalMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @class public class TargetResolver implements TargetResolverMXBean
+ * @brief 발신 대상(host, port, transport)을 RFC 3263 순서(NAPTR -> SRV -> A/AAAA)로 해석하고 결과를 캐시하는 클래스
+ *
+ * 해석 순서
+ * - host 가 IP 주소이면 조회하지 않고 그대로 사용한다. (캐시도 사용하지 않음)
+ * - port 를 지정하면 A/AAAA 만 조회한다. (transport 가 없으면 udp)
+ * - transport 만 지정하면 SRV(_sip._udp, _sip._tcp, tls 는 _sips._tcp)를 조회하고, 없으면 A/AAAA 를 기본 포트(5060, tls 5061)로 조회한다.
+ * - 둘 다 없으면 NAPTR(flags "s", SIP+D2U / SIP+D2T / SIPS+D2T 중 사용하는 전송)을 order, preference 순으로 따라 SRV 를 조회한다.
+ *   NAPTR 가 없으면 사용하는 전송 순서대로 SRV 를 조회하고, SRV 도 없으면 A/AAAA 를 5060 으로 조회한다.
+ * 결과는 NAPTR 순서와 SRV priority 로 시도 순서(rank)를 정하고, 같은 rank 안에서는 호출마다 SRV weight 비율로 섞는다. (RFC 2782)
+ *
+ * 캐시
+ * - 결과는 레코드 TTL 중 가장 작은 값(min-ttl ~ max-ttl)만큼 캐시하고, 이름이나 레코드가 없으면 negative-ttl 만큼 부정 캐시한다.
+ * - 캐시에 있으면 조회하지 않고 바로 반환한다. TTL 의 refresh-ahead 비율이 지나면 갱신 쓰레드에서 다시 조회하므로 발신 경로는 기다리지 않는다.
+ * - 캐시에 없거나 만료되면 호출한 쓰레드에서 조회하고, 같은 대상을 동시에 조회하면 한 번만 조회해서 결과를 같이 받는다.
+ * - 조회가 실패하면(IOException) 이전 결과가 있으면 negative-ttl 만큼 계속 사용하고, 없으면 부정 캐시한다.
+ *
+ * 조회 시간 통계 : com.signal:type=Latency,name=resolver.lookup (backend 조회 시작 ~ 끝, 캐시 히트는 제외)
+ */
+public class TargetResolver implements TargetResolverMXBean {
+    /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
+    private static final Logger logger = LoggerFactory.getLogger(TargetResolver.class);
+    /* JMX 객체 이름 */
+    public static final String OBJECT_NAME = "com.signal:type=TargetResolver";
+    /* 기본 최소 캐시 시간 (ms) */
+    public static final long DEFAULT_MIN_TTL = 1000;
+    /* 기본 최대 캐시 시간 (ms) */
+    public static final long DEFAULT_MAX_TTL = 3600000;
+    /* 기본 부정 캐시 시간 (ms) */
+    public static final long DEFAULT_NEGATIVE_TTL = 30000;
+    /* 기본 미리 갱신 비율 (TTL 의 80% 가 지나면 갱신) */
+    public static final double DEFAULT_REFRESH_AHEAD = 0.8;
+    /* 기본 최대 캐시 수 */
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+    /* 기본 갱신 쓰레드 수 */
+    public static final int DEFAULT_REFRESH_THREADS = 2;
+    /* 기본 전송 프로토콜 (선호 순서) */
+    public static final List<String> DEFAULT_TRANSPORTS = Collections.unmodifiableList(Arrays.asList("udp", "tcp"));
+    /* SIP 기본 포트 */
+    public static final int DEFAULT_PORT = 5060;
+    /* SIPS 기본 포트 */
+    public static final int DEFAULT_TLS_PORT = 5061;
+    /* 전송 프로토콜을 지정하지 않은 대상의 캐시 키 */
+    private static final String ANY_TRANSPORT = "*";
+    /* NAPTR 레코드 하나가 차지하는 rank 범위 (SRV priority 는 0 ~ 65535) */
+    private static final int RANK_STEP = 65536;
+    /* 조회 시간 이름 */
+    public static final String LOOKUP_LATENCY = "resolver.lookup";
+    /* 발신 대상 해석 객체(singleton) */
+    private static final TargetResolver targetResolver = new TargetResolver();
+    /* 대상별 캐시 */
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    /* 대상별 진행 중인 조회 (동시 미스는 한 번만 조회) */
+    private final ConcurrentHashMap<String, FutureTask<Entry>> lookups = new ConcurrentHashMap<>();
+    /* 캐시 히트 수 */
+    private final AtomicLong hits = new AtomicLong(0);
+    /* 캐시 미스 수 */
+    private final AtomicLong misses = new AtomicLong(0);
+    /* 부정 캐시 히트 수 */
+    private final AtomicLong negativeHits = new AtomicLong(0);
+    /* 이전 결과 사용 수 */
+    private final AtomicLong staleHits = new AtomicLong(0);
+    /* 미리 갱신 수 */
+    private final AtomicLong refreshes = new AtomicLong(0);
+    /* 조회 실패 수 */
+    private final AtomicLong failures = new AtomicLong(0);
+    /* 조회 시간 히스토그램 */
+    private final LatencyHistogram lookupLatency = SignalMetrics.getInstance().latency(LOOKUP_LATENCY);
+    /* 레코드 조회 객체 */
+    private volatile ResolverBackend backend = new SystemResolverBackend(
+            SystemResolverBackend.DEFAULT_TIMEOUT, SystemResolverBackend.DEFAULT_RETRIES, SystemResolverBackend.DEFAULT_TTL);
+    /* NAPTR / SRV 조회에 사용하는 전송 프로토콜 (선호 순서) */
+    private volatile List<String> transports = DEFAULT_TRANSPORTS;
+    /* 최소 캐시 시간 (ms) */
+    private volatile long minTtl = DEFAULT_MIN_TTL;
+    /* 최대 캐시 시간 (ms) */
+    private volatile long maxTtl = DEFAULT_MAX_TTL;
+    /* 부정 캐시 시간 (ms) */
+    private volatile long negativeTtl = DEFAULT_NEGATIVE_TTL;
+    /* 미리 갱신 비율 (1.0 이면 만료 후 조회) */
+    private volatile double refreshAhead = DEFAULT_REFRESH_AHEAD;
+    /* 최대 캐시 수 */
+    private volatile int maxEntries = DEFAULT_MAX_ENTRIES;
+    /* 갱신 쓰레드 풀 */
+    private volatile ThreadPoolExecutor refresher = newRefresher(DEFAULT_REFRESH_THREADS);
+
+    /**
+     * @fn private TargetResolver()
+     * @brief 발신 대상 해석 객체를 초기화하고 JMX 에 등록하는 함수
+     */
+    private TargetResolver() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(this, objectName);
+            }
+        } catch (Exception e) {
+            logger.warn("Fail to register resolver MBean", e);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public static TargetResolver getInstance()
+     * @brief 발신 대상 해석 객체의 싱글턴 인스턴스를 반환하는 함수
+     * @return 발신 대상 해석 객체
+     */
+    public static TargetResolver getInstance() {
+        return targetResolver;
+    }
+
+    /**
+     * @fn public synchronized void configure(final ResolverBackend backend, final List<String> transports, long minTtl, long maxTtl, long negativeTtl, double refreshAhead, int maxEntries, int refreshThreads)
+     * @brief 해석 설정을 변경하고 캐시를 비우는 함수
+     * @param backend        레코드 조회 객체(입력, 읽기 전용)
+     * @param transports     NAPTR / SRV 조회에 사용하는 전송 프로토콜, 선호 순서(입력, 읽기 전용)
+     * @param minTtl         최소 캐시 시간(ms, 입력)
+     * @param maxTtl         최대 캐시 시간(ms, 입력)
+     * @param negativeTtl    부정 캐시 시간(ms, 입력)
+     * @param refreshAhead   미리 갱신 비율, 0.0 초과 ~ 1.0(입력)
+     * @param maxEntries     최대 캐시 수(입력)
+     * @param refreshThreads 갱신 쓰레드 수(입력)
+     * @return 반환값 없음
+     */
+    public synchronized void configure(final ResolverBackend backend, final List<String> transports, long minTtl, long maxTtl,
+                                       long negativeTtl, double refreshAhead, int maxEntries, int refreshThreads) {
+        if (backend == null || transports == null) throw new NullPointerException("Parameter Error (Null)");
+        if (minTtl < 0 || maxTtl < minTtl || negativeTtl < 0 || refreshAhead <= 0 || refreshAhead > 1
+                || maxEntries <= 0 || refreshThreads <= 0 || transports.isEmpty()) {
+            throw new IllegalArgumentException("Invalid resolver configuration");
+        }
+
+        List<String> lowerCaseTransports = new ArrayList<>(transports.size());
+        for (String transport : transports) {
+            String lowerCaseTransport = transport.toLowerCase();
+            if (toService(lowerCaseTransport) == null) {
+                throw new IllegalArgumentException("Unsupported resolver transport : " + transport);
+            }
+            lowerCaseTransports.add(lowerCaseTransport);
+        }
+
+        this.backend = backend;
+        this.transports = Collections.unmodifiableList(lowerCaseTransports);
+        this.minTtl = minTtl;
+        this.maxTtl = maxTtl;
+        this.negativeTtl = negativeTtl;
+        this.refreshAhead = refreshAhead;
+        this.maxEntries = maxEntries;
+        if (refresher.getCorePoolSize() != refreshThreads) {
+            ThreadPoolExecutor oldRefresher = refresher;
+            refresher = newRefresher(refreshThreads);
+            oldRefresher.shutdown();
+        }
+        entries.clear();
+
+        logger.debug("Resolver (Backend:{}, Transports:{}, TTL:{}~{}ms, NegativeTTL:{}ms, RefreshAhead:{}, MaxEntries:{}, RefreshThreads:{})",
+                getBackend(), this.transports, minTtl, maxTtl, negativeTtl, refreshAhead, maxEntries, refreshThreads);
+    }
+
+    /**
+     * @fn public static boolean isAddressLiteral(final String host)
+     * @brief host 가 IP 주소(IPv4, IPv6)인지 확인하는 함수
+     * @param host 호스트(입력, 읽기 전용)
+     * @return IP 주소이면 true, 이름이면 false 반환
+     */
+    public static boolean isAddressLiteral(final String host) {
+        if (host.indexOf(':') >= 0 || host.startsWith("[")) return true;
+
+        int dots = 0;
+        for (int i = 0; i < host.length(); i++) {
+            char c = host.charAt(i);
+            if (c == '.') dots++;
+            else if (c < '0' || c > '9') return false;
+        }
+        return dots == 3;
+    }
+
+    /**
+     * @fn public List<ResolvedTarget> resolve(final String host, int port, final String transport)
+     * @brief 발신 대상을 시도 순서대로 반환하는 함수
+     * 캐시에 있으면 기다리지 않고 반환하고, 없거나 만료되었으면 호출한 쓰레드에서 조회한다.
+     * @param host      호스트 이름 또는 IP 주소(입력, 읽기 전용)
+     * @param port      포트(입력, 0 이면 지정하지 않음)
+     * @param transport 전송 프로토콜(입력, 읽기 전용, null 이나 빈 문자열이면 지정하지 않음)
+     * @return 시도 순서대로 정렬한 대상 목록, 해석할 수 없으면 빈 목록
+     */
+    public List<ResolvedTarget> resolve(final String host, int port, final String transport) {
+        if (host == null) throw new NullPointerException("Parameter Error (Null)");
+
+        String lowerCaseTransport = transport == null || transport.isEmpty() ? null : transport.toLowerCase();
+        if (isAddressLiteral(host)) {
+            String addressTransport = lowerCaseTransport != null ? lowerCaseTransport : "udp";
+            return Collections.singletonList(new ResolvedTarget(host, port > 0 ? port : toDefaultPort(addressTransport), addressTransport, 0, 0));
+        }
+
+        String lowerCaseHost = ZoneResolverBackend.toName(host);
+        String key = lowerCaseHost + ":" + port + ";" + (lowerCaseTransport != null ? lowerCaseTransport : ANY_TRANSPORT);
+        long now = System.nanoTime();
+        Entry entry = entries.get(key);
+        if (entry != null && now - entry.expiresAt < 0) {
+            if (now - entry.refreshAt >= 0) refresh(key, lowerCaseHost, port, lowerCaseTransport, entry);
+            if (entry.targets.isEmpty()) negativeHits.incrementAndGet();
+            else hits.incrementAndGet();
+            return order(entry);
+        }
+
+        misses.incrementAndGet();
+        entry = lookup(key, lowerCaseHost, port, lowerCaseTransport, entry);
+        return entry == null ? Collections.<ResolvedTarget>emptyList() : order(entry);
+    }
+
+    /**
+     * @fn public synchronized void shutdown()
+     * @brief 갱신 쓰레드 풀을 종료하는 함수
+     * @return 반환값 없음
+     */
+    public synchronized void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Override Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public String getBackend() {
+        return backend.getClass().getSimpleName();
+    }
+
+    @Override
+    public List<String> getTransports() {
+        return transports;
+    }
+
+    @Override
+    public int getEntries() {
+        return entries.size();
+    }
+
+    @Override
+    public long getHits() {
+        return hits.get();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public long getNegativeHits() {
+        return negativeHits.get();
+    }
+
+    @Override
+    public long getStaleHits() {
+        return staleHits.get();
+    }
+
+    @Override
+    public long getRefreshes() {
+        return refreshes.get();
+    }
+
+    @Override
+    public long getFailures() {
+        return failures.get();
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private Entry lookup(final String key, final String host, int port, final String transport, final Entry previous)
+     * @brief 캐시 미스 시 대상을 조회하는 함수 (같은 대상을 동시에 조회하면 먼저 시작한 조회 결과를 기다림)
+     * @param key       캐시 키(입력, 읽기 전용)
+     * @param host      호스트 이름(입력, 읽기 전용)
+     * @param port      포트(입력)
+     * @param transport 전송 프로토콜(입력, 읽기 전용, null 이면 지정하지 않음)
+     * @param previous  만료된 이전 결과(입력, 읽기 전용, 없으면 null)
+     * @return 조회 결과, 기다리는 중에 인터럽트되면 null
+     */
+    private Entry lookup(final String key, final String host, final int port, final String transport, final Entry previous) {
+        FutureTask<Entry> task = lookups.get(key);
+        if (task == null) {
+            FutureTask<Entry> newTask = new FutureTask<>(new Callable<Entry>() {
+                @Override
+                public Entry call() {
+                    return update(key, host, port, transport, previous);
+                }
+            });
+            task = lookups.putIfAbsent(key, newTask);
+            if (task == null) {
+                task = newTask;
+                try {
+                    newTask.run();
+                } finally {
+                    lookups.remove(key, newTask);
+                }
+            }
+        }
+
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            logger.warn("Fail to resolve target ({})", key, e.getCause());
+            return null;
+        }
+    }
+
+    /**
+     * @fn private void refresh(final String key, final String host, int port, final String transport, final Entry entry)
+     * @brief 만료 전에 갱신 쓰레드에서 대상을 다시 조회하는 함수 (대상마다 한 번만)
+     * @param key       캐시 키(입력, 읽기 전용)
+     * @param host      호스트 이름(입력, 읽기 전용)
+     * @param port      포트(입력)
+     * @param transport 전송 프로토콜(입력, 읽기 전용, null 이면 지정하지 않음)
+     * @param entry     현재 결과(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    private void refresh(final String key, final String host, final int port, final String transport, final Entry entry) {
+        if (!entry.refreshing.compareAndSet(false, true)) return;
+
+        try {
+            refresher.execute(new Runnable() {
+                @Override
+                public void run() {
+                    refreshes.incrementAndGet();
+                    update(key, host, port, transport, entry);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 종료 중이면 만료 후 발신 경로에서 조회한다.
+            entry.refreshing.set(false);
+        }
+    }
+
+    /**
+     * @fn private Entry update(final String key, final String host, int port, final String transport, final Entry previous)
+     * @brief backend 로 대상을 조회해서 캐시에 저장하는 함수
+     * 조회가 실패하면 이전 결과를 negative-ttl 만큼 연장하고, 이전 결과가 없으면 부정 캐시한다.
+     * @param key       캐시 키(입력, 읽기 전용)
+     * @param host      호스트 이름(입력, 읽기 전용)
+     * @param port      포트(입력)
+     * @param transport 전송 프로토콜(입력, 읽기 전용, null 이면 지정하지 않음)
+     * @param previous  이전 결과(입력, 읽기 전용, 없으면 null)
+     * @return 저장한 결과
+     */
+    private Entry update(final String key, final String host, int port, final String transport, final Entry previous) {
+        long startTime = System.nanoTime();
+        Entry entry;
+        try {
+            Result result = resolveTargets(host, port, transport);
+            long now = System.nanoTime();
+            if (result.targets.isEmpty()) {
+                entry = new Entry(result.targets, now, negativeTtl, 1.0);
+            } else {
+                long ttl = Math.max(minTtl, Math.min(maxTtl, result.ttl));
+                entry = new Entry(sortByRank(result.targets), now, ttl, refreshAhead);
+            }
+            logger.debug("Resolved target ({} -> {}, TTL:{}ms)", key, entry.targets, TimeUnit.NANOSECONDS.toMillis(entry.expiresAt - now));
+        } catch (IOException | RuntimeException e) {
+            failures.incrementAndGet();
+            long now = System.nanoTime();
+            if (previous != null && !previous.targets.isEmpty()) {
+                // 조회가 실패해도 마지막으로 받은 결과로 계속 발신한다.
+                staleHits.incrementAndGet();
+                entry = new Entry(previous.targets, now, negativeTtl, 1.0);
+                logger.warn("Fail to resolve target, keep previous result ({} -> {})", key, previous.targets, e);
+            } else {
+                entry = new Entry(Collections.<ResolvedTarget>emptyList(), now, negativeTtl, 1.0);
+                logger.warn("Fail to resolve target ({})", key, e);
+            }
+        } finally {
+            lookupLatency.record(System.nanoTime() - startTime);
+        }
+
+        store(key, previous, entry);
+        return entry;
+    }
+
+    /**
+     * @fn private void store(final String key, final Entry previous, final Entry entry)
+     * @brief 조회 결과를 캐시에 저장하는 함수 (가득 차면 만료된 결과를 지우고, 그래도 가득 차면 저장하지 않음)
+     * @param key      캐시 키(입력, 읽기 전용)
+     * @param previous 이전 결과(입력, 읽기 전용, 없으면 null)
+     * @param entry    새 결과(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    private void store(final String key, final Entry previous, final Entry entry) {
+        if (previous != null) {
+            // 조회 중에 clear 나 configure 로 지워졌으면 다시 넣지 않는다.
+            entries.replace(key, previous, entry);
+            return;
+        }
+
+        if (entries.size() >= maxEntries) {
+            purgeExpired();
+            if (entries.size() >= maxEntries) {
+                logger.warn("Resolver cache is full (MaxEntries:{}), skip caching {}", maxEntries, key);
+                return;
+            }
+        }
+        entries.put(key, entry);
+    }
+
+    /**
+     * @fn private void purgeExpired()
+     * @brief 만료된 결과를 캐시에서 삭제하는 함수
+     * @return 반환값 없음
+     */
+    private void purgeExpired() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().getValue().expiresAt >= 0) iterator.remove();
+        }
+    }
+
+    /**
+     * @fn private Result resolveTargets(final String host, int port, final String transport) throws IOException
+     * @brief RFC 3263 순서로 대상을 조회하는 함수
+     * @param host      호스트 이름(입력, 읽기 전용)
+     * @param port      포트(입력, 0 이면 지정하지 않음)
+     * @param transport 전송 프로토콜(입력, 읽기 전용, null 이면 지정하지 않음)
+     * @return 조회 결과 (대상 목록과 가장 작은 TTL)
+     * @throws IOException 조회 실패 시
+     */
+    private Result resolveTargets(final String host, int port, final String transport) throws IOException {
+        ResolverBackend resolverBackend = backend;
+        List<String> resolverTransports = transports;
+        Result result = new Result();
+
+        // 포트를 지정하면 A/AAAA 만 조회
+        if (port > 0) {
+            addAddresses(resolverBackend, result, host, port, transport != null ? transport : "udp", 0, 0);
+            return result;
+        }
+
+        // 전송만 지정하면 SRV, 없으면 A/AAAA
+        if (transport != null) {
+            addServices(resolverBackend, result, toSrvName(transport, host), transport, 0);
+            if (result.targets.isEmpty()) {
+                addAddresses(resolverBackend, result, host, toDefaultPort(transport), transport, 0, 0);
+            }
+            return result;
+        }
+
+        // NAPTR
+        List<NaptrRecord> naptrRecords = new ArrayList<>();
+        for (NaptrRecord naptrRecord : resolverBackend.lookupNaptr(host)) {
+            String naptrTransport = toTransport(naptrRecord.getService());
+            if (naptrRecord.getFlags().equalsIgnoreCase("s") && naptrTransport != null && resolverTransports.contains(naptrTransport)) {
+                naptrRecords.add(naptrRecord);
+                result.addTtl(naptrRecord.getTtl());
+            }
+        }
+        Collections.sort(naptrRecords, new Comparator<NaptrRecord>() {
+            @Override
+            public int compare(final NaptrRecord r1, final NaptrRecord r2) {
+                if (r1.getOrder() != r2.getOrder()) return r1.getOrder() < r2.getOrder() ? -1 : 1;
+                return r1.getPreference() < r2.getPreference() ? -1 : (r1.getPreference() == r2.getPreference() ? 0 : 1);
+            }
+        });
+        for (int i = 0; i < naptrRecords.size(); i++) {
+            NaptrRecord naptrRecord = naptrRecords.get(i);
+            addServices(resolverBackend, result, naptrRecord.getReplacement(), toTransport(naptrRecord.getService()), i * RANK_STEP);
+        }
+
+        // NAPTR 가 없으면 사용하는 전송 순서대로 SRV
+        if (result.targets.isEmpty()) {
+            for (int i = 0; i < resolverTransports.size(); i++) {
+                String srvTransport = resolverTransports.get(i);
+                addServices(resolverBackend, result, toSrvName(srvTransport, host), srvTransport, i * RANK_STEP);
+            }
+        }
+
+        // SRV 도 없으면 A/AAAA
+        if (result.targets.isEmpty()) {
+            String addressTransport = resolverTransports.contains("udp") ? "udp" : resolverTransports.get(0);
+            addAddresses(resolverBackend, result, host, toDefaultPort(addressTransport), addressTransport, 0, 0);
+        }
+        return result;
+    }
+
+    /**
+     * @fn private static void addServices(final ResolverBackend backend, final Result result, final String srvName, final String transport, int rankBase)
+     * @brief SRV 레코드와 대상 주소를 조회해서 결과에 추가하는 함수 (대상이 "." 인 레코드는 무시)
+     * @param backend   레코드 조회 객체(입력, 읽기 전용)
+     * @param result    조회 결과(출력)
+     * @param srvName   SRV 이름(입력, 읽기 전용)
+     * @param transport 전송 프로토콜(입력, 읽기 전용)
+     * @param rankBase  시도 순서 시작값(입력)
+     * @return 반환값 없음
+     * @throws IOException 조회 실패 시
+     */
+    private static void addServices(final ResolverBackend backend, final Result result, final String srvName,
+                                    final String transport, int rankBase) throws IOException {
+        for (SrvRecord srvRecord : backend.lookupSrv(srvName)) {
+            if (srvRecord.getTarget().equals(".")) continue;
+
+            result.addTtl(srvRecord.getTtl());
+            addAddresses(backend, result, srvRecord.getTarget(), srvRecord.getPort(), transport,
+                    rankBase + srvRecord.getPriority(), srvRecord.getWeight());
+        }
+    }
+
+    /**
+     * @fn private static void addAddresses(final ResolverBackend backend, final Result result, final String host, int port, final String transport, int rank, int weight)
+     * @brief A/AAAA 레코드를 조회해서 결과에 추가하는 함수
+     * @param backend   레코드 조회 객체(입력, 읽기 전용)
+     * @param result    조회 결과(출력)
+     * @param host      호스트 이름(입력, 읽기 전용)
+     * @param port      포트(입력)
+     * @param transport 전송 프로토콜(입력, 읽기 전용)
+     * @param rank      시도 순서(입력)
+     * @param weight    같은 rank 안에서의 선택 비율(입력)
+     * @return 반환값 없음
+     * @throws IOException 조회 실패 시
+     */
+    private static void addAddresses(final ResolverBackend backend, final Result result, final String host, int port,
+                                     final String transport, int rank, int weight) throws IOException {
+        if (isAddressLiteral(host)) {
+            result.targets.add(new ResolvedTarget(host, port, transport, rank, weight));
+            return;
+        }
+
+        for (AddressRecord addressRecord : backend.lookupAddress(host)) {
+            result.addTtl(addressRecord.getTtl());
+            result.targets.add(new ResolvedTarget(addressRecord.getAddress(), port, transport, rank, weight));
+        }
+    }
+
+    /**
+     * @fn private static List<ResolvedTarget> sortByRank(final List<ResolvedTarget> targets)
+     * @brief 대상을 시도 순서(rank)로 정렬한 변경 불가 목록을 반환하는 함수 (같은 rank 는 조회 순서 유지)
+     * @param targets 대상 목록(입력, 읽기 전용)
+     * @return 정렬한 대상 목록
+     */
+    private static List<ResolvedTarget> sortByRank(final List<ResolvedTarget> targets) {
+        List<ResolvedTarget> sortedTargets = new ArrayList<>(targets);
+        Collections.sort(sortedTargets, new Comparator<ResolvedTarget>() {
+            @Override
+            public int compare(final ResolvedTarget t1, final ResolvedTarget t2) {
+                return t1.getRank() < t2.getRank() ? -1 : (t1.getRank() == t2.getRank() ? 0 : 1);
+            }
+        });
+        return Collections.unmodifiableList(sortedTargets);
+    }
+
+    /**
+     * @fn private static List<ResolvedTarget> order(final Entry entry)
+     * @brief 같은 rank 안의 대상을 weight 비율로 섞은 목록을 반환하는 함수 (RFC 2782, 같은 rank 가 없으면 캐시된 목록 그대로)
+     * @param entry 캐시된 결과(입력, 읽기 전용)
+     * @return 시도 순서대로 정렬한 대상 목록
+     */
+    private static List<ResolvedTarget> order(final Entry entry) {
+        if (!entry.isWeighted) return entry.targets;
+
+        List<ResolvedTarget> orderedTargets = new ArrayList<>(entry.targets.size());
+        List<ResolvedTarget> group = new ArrayList<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int index = 0;
+        while (index < entry.targets.size()) {
+            int rank = entry.targets.get(index).getRank();
+            group.clear();
+            while (index < entry.targets.size() && entry.targets.get(index).getRank() == rank) {
+                ResolvedTarget target = entry.targets.get(index++);
+                // weight 0 인 대상은 앞에 두어서 다른 대상이 없을 때만 선택되게 한다.
+                if (target.getWeight() == 0) group.add(0, target);
+                else group.add(target);
+            }
+
+            while (!group.isEmpty()) {
+                int totalWeight = 0;
+                for (ResolvedTarget target : group) totalWeight += target.getWeight();
+                int selection = totalWeight > 0 ? random.nextInt(totalWeight + 1) : 0;
+                int runningWeight = 0;
+                for (int i = 0; i < group.size(); i++) {
+                    runningWeight += group.get(i).getWeight();
+                    if (runningWeight >= selection) {
+                        orderedTargets.add(group.remove(i));
+                        break;
+                    }
+                }
+            }
+        }
+        return orderedTargets;
+    }
+
+    private static String toService(final String transport) {
+        switch (transport) {
+            case "udp":
+                return "SIP+D2U";
+            case "tcp":
+                return "SIP+D2T";
+            case "tls":
+                return "SIPS+D2T";
+            default:
+                return null;
+        }
+    }
+
+    private static String toTransport(final String service) {
+        switch (service.toUpperCase()) {
+            case "SIP+D2U":
+                return "udp";
+            case "SIP+D2T":
+                return "tcp";
+            case "SIPS+D2T":
+                return "tls";
+            default:
+                return null;
+        }
+    }
+
+    private static String toSrvName(final String transport, final String host) {
+        return (transport.equals("tls") ? "_sips._tcp." : "_sip._" + transport + ".") + host;
+    }
+
+    private static int toDefaultPort(final String transport) {
+        return transport.equals("tls") ? DEFAULT_TLS_PORT : DEFAULT_PORT;
+    }
+
+    private static ThreadPoolExecutor newRefresher(int threadCount) {
+        return new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            private final AtomicInteger index = new AtomicInteger(0);
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                Thread thread = new Thread(runnable, "TargetResolver-" + index.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Inner Class
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @class private static class Result
+     * @brief 조회 중인 대상 목록과 지금까지 받은 레코드 중 가장 작은 TTL
+     */
+    private static class Result {
+        final List<ResolvedTarget> targets = new ArrayList<>();
+        /* 가장 작은 TTL (ms) */
+        long ttl = Long.MAX_VALUE;
+
+        void addTtl(long seconds) {
+            ttl = Math.min(ttl, TimeUnit.SECONDS.toMillis(Math.max(seconds, 0)));
+        }
+    }
+
+    /**
+     * @class private static class Entry
+     * @brief 캐시된 대상 목록 (변경하지 않음, 대상이 없으면 부정 캐시)
+     */
+    private static class Entry {
+        /* rank 순으로 정렬한 대상 목록 (변경 불가) */
+        final List<ResolvedTarget> targets;
+        /* 같은 rank 의 대상이 있어서 호출마다 섞어야 하는지 여부 */
+        final boolean isWeighted;
+        /* 미리 갱신을 시작하는 시각 (System.nanoTime) */
+        final long refreshAt;
+        /* 만료 시각 (System.nanoTime) */
+        final long expiresAt;
+        /* 갱신 중 여부 */
+        final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+        Entry(final List<ResolvedTarget> targets, long now, long ttl, double refreshAhead) {
+            this.targets = targets;
+            this.expiresAt = now + TimeUnit.MILLISECONDS.toNanos(ttl);
+            this.refreshAt = now + (long) (TimeUnit.MILLISECONDS.toNanos(ttl) * refreshAhead);
+
+            boolean hasSameRank = false;
+            for (int i = 1; i < targets.size() && !hasSameRank; i++) {
+                hasSameRank = targets.get(i).getRank() == targets.get(i - 1).getRank();
+            }
+            this.isWeighted = hasSameRank;
+        }
+    }
+}
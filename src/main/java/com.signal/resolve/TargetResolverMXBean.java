@@ -0,0 +1,39 @@
+package com.signal.resolve;
+
+import java.util.List;
+
+/**
+ * @interface public interface TargetResolverMXBean
+ * @brief JMX 로 노출하는 발신 대상 해석(RFC 3263) 캐시 설정 및 상태
+ */
+public interface TargetResolverMXBean {
+    /* 조회에 사용하는 backend 이름 */
+    String getBackend();
+
+    /* NAPTR / SRV 조회에 사용하는 전송 프로토콜 (선호 순서) */
+    List<String> getTransports();
+
+    /* 캐시된 대상 수 (부정 캐시 포함) */
+    int getEntries();
+
+    /* 캐시에서 바로 반환한 수 (부정 캐시 제외) */
+    long getHits();
+
+    /* 캐시에 없거나 만료되어 조회를 기다린 수 */
+    long getMisses();
+
+    /* 부정 캐시(이름 또는 레코드 없음)에서 반환한 수 */
+    long getNegativeHits();
+
+    /* 조회 실패로 이전 결과를 계속 사용한 수 */
+    long getStaleHits();
+
+    /* 만료 전에 비동기로 다시 조회한 수 */
+    long getRefreshes();
+
+    /* 조회 실패 수 */
+    long getFailures();
+
+    /* 캐시를 모두 삭제 */
+    void clear();
+}
@@ -0,0 +1,281 @@
+package com.signal.resolve;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * @class public class ZoneResolverBackend implements ResolverBackend
+ * @brief 메모리에 둔 zone 으로 DNS 레코드를 조회하는 클래스 (네트워크 없이 RFC 3263 해석을 시험)
+ * zone 은 한 줄에 레코드 하나씩, 마스터 파일과 비슷한 형식으로 추가한다. (이름 끝의 "." 은 생략 가능, ; 뒤는 주석)
+ *
+ *     example.com            300 NAPTR 10 50 "s" "SIP+D2T" "" _sip._tcp.example.com
+ *     _sip._tcp.example.com  300 SRV   10 60 5060 sip1.example.com
+ *     sip1.example.com       300 A     10.0.0.1
+ *
+ * 실행 중에 레코드를 추가하거나 지울 수 있다. (TargetResolver 캐시는 TTL 이 지나거나 미리 갱신할 때 반영)
+ */
+public class ZoneResolverBackend implements ResolverBackend {
+    /* 이름별 NAPTR 레코드 */
+    private final ConcurrentHashMap<String, List<NaptrRecord>> naptrRecords = new ConcurrentHashMap<>();
+    /* 이름별 SRV 레코드 */
+    private final ConcurrentHashMap<String, List<SrvRecord>> srvRecords = new ConcurrentHashMap<>();
+    /* 이름별 A / AAAA 레코드 */
+    private final ConcurrentHashMap<String, List<AddressRecord>> addressRecords = new ConcurrentHashMap<>();
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public static ZoneResolverBackend load(final File file) throws IOException
+     * @brief zone 파일의 레코드를 모두 읽은 메모리 zone 을 만드는 함수
+     * @param file zone 파일(입력, 읽기 전용)
+     * @return 메모리 zone
+     * @throws IOException 파일을 읽지 못하거나 형식이 맞지 않는 줄이 있으면
+     */
+    public static ZoneResolverBackend load(final File file) throws IOException {
+        ZoneResolverBackend zone = new ZoneResolverBackend();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                try {
+                    zone.add(line);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Invalid zone record (" + file + ":" + lineNumber + ") : " + e.getMessage(), e);
+                }
+            }
+        }
+        return zone;
+    }
+
+    /**
+     * @fn public void add(final String line)
+     * @brief zone 형식의 레코드 한 줄을 추가하는 함수 (빈 줄과 주석은 무시)
+     * @param line 이름 TTL 종류 데이터(입력, 읽기 전용)
+     * @return 반환값 없음
+     * @throws IllegalArgumentException 형식이 맞지 않으면
+     */
+    public void add(final String line) {
+        int commentIndex = indexOfComment(line);
+        String value = (commentIndex >= 0 ? line.substring(0, commentIndex) : line).trim();
+        if (value.isEmpty()) return;
+
+        List<String> tokens = splitRecordData(value);
+        if (tokens.size() < 4) throw new IllegalArgumentException("Too few fields : " + line);
+
+        String name = tokens.get(0);
+        String type = tokens.get(2).toUpperCase();
+        List<String> data = tokens.subList(3, tokens.size());
+        try {
+            long ttl = Long.parseLong(tokens.get(1));
+            switch (type) {
+                case "NAPTR":
+                    addNaptr(name, parseNaptr(data, ttl));
+                    break;
+                case "SRV":
+                    addSrv(name, parseSrv(data, ttl));
+                    break;
+                case "A":
+                case "AAAA":
+                    addAddress(name, new AddressRecord(data.get(0), ttl));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported type : " + type);
+            }
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid record : " + line, e);
+        }
+    }
+
+    /**
+     * @fn public void addNaptr(final String name, final NaptrRecord record)
+     * @brief NAPTR 레코드를 추가하는 함수
+     * @param name   도메인 이름(입력, 읽기 전용)
+     * @param record NAPTR 레코드(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void addNaptr(final String name, final NaptrRecord record) {
+        add(naptrRecords, name, record);
+    }
+
+    /**
+     * @fn public void addSrv(final String name, final SrvRecord record)
+     * @brief SRV 레코드를 추가하는 함수
+     * @param name   SRV 이름(입력, 읽기 전용)
+     * @param record SRV 레코드(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void addSrv(final String name, final SrvRecord record) {
+        add(srvRecords, name, record);
+    }
+
+    /**
+     * @fn public void addAddress(final String name, final AddressRecord record)
+     * @brief A / AAAA 레코드를 추가하는 함수
+     * @param name   호스트 이름(입력, 읽기 전용)
+     * @param record 주소 레코드(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void addAddress(final String name, final AddressRecord record) {
+        add(addressRecords, name, record);
+    }
+
+    /**
+     * @fn public void remove(final String name)
+     * @brief 지정한 이름의 레코드를 모두 지우는 함수
+     * @param name 이름(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void remove(final String name) {
+        String key = toKey(name);
+        naptrRecords.remove(key);
+        srvRecords.remove(key);
+        addressRecords.remove(key);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Override Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public List<NaptrRecord> lookupNaptr(final String name) {
+        return get(naptrRecords, name);
+    }
+
+    @Override
+    public List<SrvRecord> lookupSrv(final String name) {
+        return get(srvRecords, name);
+    }
+
+    @Override
+    public List<AddressRecord> lookupAddress(final String name) {
+        return get(addressRecords, name);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Package Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn static List<String> splitRecordData(final String value)
+     * @brief 레코드 문자열을 공백으로 나누는 함수 (따옴표로 묶은 부분은 따옴표를 빼고 하나로, 빈 문자열 "" 도 하나로)
+     * @param value 레코드 문자열(입력, 읽기 전용)
+     * @return 나눈 문자열 목록
+     */
+    static List<String> splitRecordData(final String value) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = null;
+        boolean isQuoted = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                if (isQuoted) {
+                    tokens.add(token.toString());
+                    token = null;
+                } else {
+                    token = new StringBuilder();
+                }
+                isQuoted = !isQuoted;
+            } else if (!isQuoted && Character.isWhitespace(c)) {
+                if (token != null) {
+                    tokens.add(token.toString());
+                    token = null;
+                }
+            } else {
+                if (token == null) token = new StringBuilder();
+                token.append(c);
+            }
+        }
+        if (token != null) tokens.add(token.toString());
+        return tokens;
+    }
+
+    /**
+     * @fn static NaptrRecord parseNaptr(final List<String> data, long ttl)
+     * @brief NAPTR 데이터(order preference flags service regexp replacement)를 레코드로 변환하는 함수
+     * @param data 데이터 목록(입력, 읽기 전용)
+     * @param ttl  TTL, 초(입력)
+     * @return NAPTR 레코드
+     */
+    static NaptrRecord parseNaptr(final List<String> data, long ttl) {
+        return new NaptrRecord(Integer.parseInt(data.get(0)), Integer.parseInt(data.get(1)), data.get(2), data.get(3),
+                toName(data.get(5)), ttl);
+    }
+
+    /**
+     * @fn static SrvRecord parseSrv(final List<String> data, long ttl)
+     * @brief SRV 데이터(priority weight port target)를 레코드로 변환하는 함수
+     * @param data 데이터 목록(입력, 읽기 전용)
+     * @param ttl  TTL, 초(입력)
+     * @return SRV 레코드
+     */
+    static SrvRecord parseSrv(final List<String> data, long ttl) {
+        String target = data.get(3);
+        return new SrvRecord(Integer.parseInt(data.get(0)), Integer.parseInt(data.get(1)), Integer.parseInt(data.get(2)),
+                target.equals(".") ? target : toName(target), ttl);
+    }
+
+    /**
+     * @fn static String toName(final String name)
+     * @brief 이름 끝의 "." 을 뗀 소문자 이름을 반환하는 함수
+     * @param name 이름(입력, 읽기 전용)
+     * @return 이름
+     */
+    static String toName(final String name) {
+        String value = name.trim().toLowerCase();
+        return value.endsWith(".") && value.length() > 1 ? value.substring(0, value.length() - 1) : value;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    private static <T> void add(final ConcurrentHashMap<String, List<T>> records, final String name, final T record) {
+        if (name == null || record == null) throw new NullPointerException("Parameter Error (Null)");
+
+        String key = toKey(name);
+        List<T> list = records.get(key);
+        if (list == null) {
+            List<T> newList = new CopyOnWriteArrayList<>();
+            list = records.putIfAbsent(key, newList);
+            if (list == null) list = newList;
+        }
+        list.add(record);
+    }
+
+    private static <T> List<T> get(final ConcurrentHashMap<String, List<T>> records, final String name) {
+        List<T> list = records.get(toKey(name));
+        return list == null ? Collections.<T>emptyList() : new ArrayList<>(list);
+    }
+
+    private static String toKey(final String name) {
+        return toName(name);
+    }
+
+    /**
+     * @fn private static int indexOfComment(final String line)
+     * @brief 따옴표 밖의 주석(;) 위치를 반환하는 함수
+     * @param line 줄(입력, 읽기 전용)
+     * @return 주석 위치, 없으면 -1
+     */
+    private static int indexOfComment(final String line) {
+        boolean isQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') isQuoted = !isQuoted;
+            else if (c == ';' && !isQuoted) return i;
+        }
+        return -1;
+    }
+}
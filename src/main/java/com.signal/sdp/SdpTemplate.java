@@ -0,0 +1,235 @@
+package com.signal.sdp;
+
+import com.signal.logic.SipCall;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @class public class SdpTemplate
+ * @brief 미리 컴파일된 SDP 템플릿 클래스
+ * 템플릿 문자열을 한 번만 분석하여 고정 부분은 바이트 배열로 미리 인코딩하고,
+ * 호마다 달라지는 값(Session ID/Version, 연결 주소, 미디어 포트)은 슬롯에 직접 기록한다.
+ * 렌더링 시 중간 문자열을 만들지 않고 결과 바이트 배열 하나만 할당한다.
+ *
+ * 템플릿에서 사용할 수 있는 슬롯
+ * - {session-id}      : o= 라인의 Session ID
+ * - {session-version} : o= 라인의 Session Version
+ * - {address}         : o=, c= 라인의 IP 주소
+ * - {media-port}      : m= 라인의 미디어 포트
+ */
+public class SdpTemplate {
+    /* SDP 문자열 인코딩 (RFC 4566) */
+    public static final Charset SDP_CHARSET = Charset.forName("UTF-8");
+    /* 슬롯 유형 : Session ID */
+    private static final int SLOT_SESSION_ID = 0;
+    /* 슬롯 유형 : Session Version */
+    private static final int SLOT_SESSION_VERSION = 1;
+    /* 슬롯 유형 : IP 주소 */
+    private static final int SLOT_ADDRESS = 2;
+    /* 슬롯 유형 : 미디어 포트 */
+    private static final int SLOT_MEDIA_PORT = 3;
+    /* 슬롯 이름 (슬롯 유형 순서) */
+    private static final String[] SLOT_NAMES = {"{session-id}", "{session-version}", "{address}", "{media-port}"};
+    /* long 값을 10진수로 표현할 때 최대 자릿수 (부호 포함) */
+    private static final int MAX_LONG_DIGITS = 20;
+
+    /* 고정 부분 바이트 배열 목록, segments[i] 다음에 slots[i] 가 온다. (segments 는 slots 보다 하나 많음) */
+    private final byte[][] segments;
+    /* 슬롯 유형 목록 */
+    private final int[] slots;
+    /* 고정 부분 전체 길이 */
+    private final int fixedLength;
+
+    /**
+     * @fn public SdpTemplate(final String template)
+     * @brief 템플릿 문자열을 분석하여 SDP 템플릿 객체를 초기화하는 함수
+     * @param template 슬롯을 포함한 SDP 템플릿 문자열(입력, 읽기 전용)
+     */
+    public SdpTemplate(final String template) {
+        SipCall.checkObjectNull(null, template);
+
+        List<byte[]> segmentList = new ArrayList<>();
+        List<Integer> slotList = new ArrayList<>();
+
+        int position = 0;
+        while (true) {
+            // 가장 먼저 나오는 슬롯을 찾는다.
+            int slotIndex = -1;
+            int slotType = -1;
+            for (int type = 0; type < SLOT_NAMES.length; type++) {
+                int index = template.indexOf(SLOT_NAMES[type], position);
+                if (index >= 0 && (slotIndex < 0 || index < slotIndex)) {
+                    slotIndex = index;
+                    slotType = type;
+                }
+            }
+
+            if (slotIndex < 0) {
+                segmentList.add(template.substring(position).getBytes(SDP_CHARSET));
+                break;
+            }
+
+            segmentList.add(template.substring(position, slotIndex).getBytes(SDP_CHARSET));
+            slotList.add(slotType);
+            position = slotIndex + SLOT_NAMES[slotType].length();
+        }
+
+        this.segments = segmentList.toArray(new byte[segmentList.size()][]);
+        this.slots = new int[slotList.size()];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = slotList.get(i);
+        }
+
+        int length = 0;
+        for (byte[] segment : segments) {
+            length += segment.length;
+        }
+        this.fixedLength = length;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public byte[] render(long sessionId, long sessionVersion, final String address, int mediaPort)
+     * @brief 슬롯에 호별 값을 기록하여 SDP 바이트 배열을 생성하는 함수
+     * @param sessionId      Session ID(입력)
+     * @param sessionVersion Session Version(입력)
+     * @param address        IP 주소, ASCII(입력, 읽기 전용)
+     * @param mediaPort      미디어 포트(입력)
+     * @return SDP 바이트 배열
+     */
+    public byte[] render(long sessionId, long sessionVersion, final String address, int mediaPort) {
+        SipCall.checkObjectNull(null, address);
+
+        // 결과 길이를 먼저 계산해서 배열을 한 번만 할당한다.
+        int length = fixedLength;
+        for (int slot : slots) {
+            switch (slot) {
+                case SLOT_SESSION_ID:
+                    length += digitCount(sessionId);
+                    break;
+                case SLOT_SESSION_VERSION:
+                    length += digitCount(sessionVersion);
+                    break;
+                case SLOT_ADDRESS:
+                    length += address.length();
+                    break;
+                case SLOT_MEDIA_PORT:
+                    length += digitCount(mediaPort);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        byte[] sdp = new byte[length];
+        int offset = 0;
+        for (int i = 0; i < slots.length; i++) {
+            System.arraycopy(segments[i], 0, sdp, offset, segments[i].length);
+            offset += segments[i].length;
+
+            switch (slots[i]) {
+                case SLOT_SESSION_ID:
+                    offset = writeDecimal(sessionId, sdp, offset);
+                    break;
+                case SLOT_SESSION_VERSION:
+                    offset = writeDecimal(sessionVersion, sdp, offset);
+                    break;
+                case SLOT_ADDRESS:
+                    offset = writeAscii(address, sdp, offset);
+                    break;
+                case SLOT_MEDIA_PORT:
+                    offset = writeDecimal(mediaPort, sdp, offset);
+                    break;
+                default:
+                    break;
+            }
+        }
+        byte[] lastSegment = segments[segments.length - 1];
+        System.arraycopy(lastSegment, 0, sdp, offset, lastSegment.length);
+
+        return sdp;
+    }
+
+    /**
+     * @fn public int getSlotCount()
+     * @brief 템플릿에 포함된 슬롯 개수를 반환하는 함수
+     * @return 슬롯 개수
+     */
+    public int getSlotCount() {
+        return slots.length;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Static Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private static int digitCount(long value)
+     * @brief 10진수로 표현했을 때의 자릿수를 반환하는 함수 (음수는 부호 포함)
+     * @param value 값(입력)
+     * @return 자릿수
+     */
+    private static int digitCount(long value) {
+        if (value == Long.MIN_VALUE) return MAX_LONG_DIGITS;
+
+        int count = 1;
+        if (value < 0) {
+            count++;
+            value = -value;
+        }
+        while (value >= 10) {
+            value /= 10;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @fn private static int writeDecimal(long value, final byte[] buffer, int offset)
+     * @brief 값을 10진수 ASCII 로 버퍼에 기록하는 함수
+     * @param value  값(입력)
+     * @param buffer 버퍼(출력)
+     * @param offset 기록 시작 위치(입력)
+     * @return 기록 후 다음 위치
+     */
+    private static int writeDecimal(long value, final byte[] buffer, int offset) {
+        if (value == Long.MIN_VALUE) {
+            return writeAscii(Long.toString(value), buffer, offset);
+        }
+
+        int end = offset + digitCount(value);
+        int position = end;
+        boolean negative = value < 0;
+        if (negative) value = -value;
+
+        do {
+            buffer[--position] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+
+        if (negative) buffer[--position] = '-';
+        return end;
+    }
+
+    /**
+     * @fn private static int writeAscii(final String value, final byte[] buffer, int offset)
+     * @brief ASCII 문자열을 인코더 없이 버퍼에 기록하는 함수
+     * @param value  ASCII 문자열(입력, 읽기 전용)
+     * @param buffer 버퍼(출력)
+     * @param offset 기록 시작 위치(입력)
+     * @return 기록 후 다음 위치
+     */
+    private static int writeAscii(final String value, final byte[] buffer, int offset) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c > 0x7F) throw new IllegalArgumentException("Non-ASCII SDP value : " + value);
+            buffer[offset++] = (byte) c;
+        }
+        return offset;
+    }
+}
@@ -0,0 +1,541 @@
+package com.signal.session;
+
+import com.signal.cdr.CallDetailRecord;
+import com.signal.cdr.CdrRecorder;
+import com.signal.control.AdmissionController;
+import com.signal.logic.RequestManager;
+import com.signal.logic.SipCall;
+import com.signal.metrics.SignalMetrics;
+import com.signal.registry.CallExpiryListener;
+import com.signal.registry.CallRegistry;
+import gov.nist.javax.sip.header.extensions.MinSE;
+import gov.nist.javax.sip.header.extensions.SessionExpiresHeader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sip.Dialog;
+import javax.sip.ServerTransaction;
+import javax.sip.Transaction;
+import javax.sip.header.AllowHeader;
+import javax.sip.header.Header;
+import javax.sip.header.HeaderFactory;
+import javax.sip.header.RequireHeader;
+import javax.sip.header.SupportedHeader;
+import javax.sip.message.Message;
+import javax.sip.message.Request;
+import java.text.ParseException;
+import java.util.ListIterator;
+
+/**
+ * @class public class SessionTimer implements CallExpiryListener
+ * @brief SIP 호(SipCall)마다 하나씩 두는 세션 타이머 (RFC 4028)
+ * Session-Expires/Min-SE 협상 결과를 다이얼로그의 Application Data 로 저장하고,
+ * 갱신 측(refresher)이면 세션 간격의 절반마다 UPDATE 로 갱신하며, 아니면 갱신이 없을 때 다이얼로그를 만료시킨다.
+ * 만료된 다이얼로그는 호 등록에서 삭제하고 BYE 를 보낸 후 수락 제어 자리를 반납한다.
+ *
+ * 타이머는 호 등록 객체(CallRegistry)가 Hashed Wheel Timer 로 관리하므로, 이 클래스의 만료 처리 함수는 타이머 쓰레드에서 호출된다.
+ * 세션 갱신은 UPDATE 로만 하고 re-INVITE 는 보내지 않는다.
+ * 따라서 상대방이 세션 타이머도 UPDATE 도 지원하지 않거나, 보낸 UPDATE 를 405/501 로 거절하면 세션 타이머를 적용하지 않고,
+ * UPDATE 없이 최대 유지 시간(max-dialog-lifetime)이 지나면 만료시킨다. (BYE 를 잃거나 상대방이 죽어도 호가 남지 않음)
+ */
+public class SessionTimer implements CallExpiryListener {
+    /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
+    private static final Logger logger = LoggerFactory.getLogger(SessionTimer.class);
+    /* 세션 타이머 Option Tag (Supported/Require) */
+    public static final String OPTION_TAG = "timer";
+    /* 갱신 측 : 발신(UAC) / 수신(UAS) */
+    public static final String REFRESHER_UAC = "uac";
+    public static final String REFRESHER_UAS = "uas";
+    /* Min-SE 헤더 이름 */
+    public static final String MIN_SE_NAME = "Min-SE";
+    /* 422 Session Interval Too Small */
+    public static final int SESSION_INTERVAL_TOO_SMALL = 422;
+    /* 405 Method Not Allowed / 501 Not Implemented (UPDATE 미지원) */
+    private static final int METHOD_NOT_ALLOWED = 405;
+    private static final int NOT_IMPLEMENTED = 501;
+    /* 갱신 측이 아닐 때 만료 전에 BYE 를 보내는 최대 여유 시간 (ms, RFC 4028 10 절) */
+    private static final long MAX_EXPIRY_MARGIN = 32000;
+    /* SIP 호 정보 관리 객체 */
+    private final SipCall sipCall;
+    /* 요청할 Session-Expires (초, 0 이면 사용 안 함) */
+    private final int sessionExpires;
+    /* 허용하는 최소 Session-Expires (초) */
+    private final int minSE;
+    /* 세션 타이머를 적용하지 못한 다이얼로그의 최대 유지 시간 (초, 0 이면 BYE 를 받을 때까지 유지) */
+    private final int maxDialogLifetime;
+
+    /**
+     * @fn public SessionTimer(final SipCall sipCall, int sessionExpires, int minSE, int maxDialogLifetime)
+     * @brief 세션 타이머를 초기화하는 함수
+     * @param sipCall           SIP 호 정보 관리 객체(입력, 읽기 전용)
+     * @param sessionExpires    요청할 Session-Expires(초, 입력, 0 이면 사용 안 함)
+     * @param minSE             허용하는 최소 Session-Expires(초, 입력)
+     * @param maxDialogLifetime 세션 타이머를 적용하지 못한 다이얼로그의 최대 유지 시간(초, 입력, 0 이면 BYE 를 받을 때까지 유지)
+     */
+    public SessionTimer(final SipCall sipCall, int sessionExpires, int minSE, int maxDialogLifetime) {
+        SipCall.checkObjectNull(null, sipCall);
+        if (minSE <= 0 || sessionExpires < 0 || (sessionExpires > 0 && sessionExpires < minSE) || maxDialogLifetime < 0) {
+            throw new IllegalArgumentException("Invalid session timer (session-expires:" + sessionExpires + ", min-se:" + minSE
+                    + ", max-dialog-lifetime:" + maxDialogLifetime + ")");
+        }
+
+        this.sipCall = sipCall;
+        this.sessionExpires = sessionExpires;
+        this.minSE = minSE;
+        this.maxDialogLifetime = maxDialogLifetime;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public boolean isEnabled()
+     * @brief 세션 타이머 사용 여부를 반환하는 함수
+     * @return 사용하면 true, 아니면 false 반환
+     */
+    public boolean isEnabled() {
+        return sessionExpires > 0;
+    }
+
+    /**
+     * @fn public int getSessionExpires()
+     * @brief 요청할 Session-Expires 를 반환하는 함수
+     * @return Session-Expires(초, 0 이면 사용 안 함)
+     */
+    public int getSessionExpires() {
+        return sessionExpires;
+    }
+
+    /**
+     * @fn public int getMinSE()
+     * @brief 허용하는 최소 Session-Expires 를 반환하는 함수
+     * @return Min-SE(초)
+     */
+    public int getMinSE() {
+        return minSE;
+    }
+
+    /**
+     * @fn public int getMaxDialogLifetime()
+     * @brief 세션 타이머를 적용하지 못한 다이얼로그의 최대 유지 시간을 반환하는 함수
+     * @return 최대 유지 시간(초, 0 이면 BYE 를 받을 때까지 유지)
+     */
+    public int getMaxDialogLifetime() {
+        return maxDialogLifetime;
+    }
+
+    /**
+     * @fn public void addInviteHeaders(final Request request, final HeaderFactory headerFactory)
+     * @brief 보낼 Invite 요청에 Supported: timer, Session-Expires, Min-SE 헤더를 추가하는 함수
+     * 갱신 측은 지정하지 않고 수신 측(UAS)이 정하게 한다.
+     * @param request       Invite 요청(출력)
+     * @param headerFactory SIP 메시지 헤더 관리 인터페이스(입력, 읽기 전용)
+     * @return 반환값 없음
+     * @throws ParseException 헤더 생성 실패 시
+     */
+    public void addInviteHeaders(final Request request, final HeaderFactory headerFactory) throws ParseException {
+        SipCall.checkObjectNull(null, request, headerFactory);
+        if (!isEnabled()) return;
+
+        request.addHeader(headerFactory.createSupportedHeader(OPTION_TAG));
+        request.addHeader(headerFactory.createHeader(SessionExpiresHeader.NAME, String.valueOf(sessionExpires)));
+        request.addHeader(headerFactory.createHeader(MIN_SE_NAME, String.valueOf(minSE)));
+    }
+
+    /**
+     * @fn public int checkInterval(final Request request)
+     * @brief 받은 요청의 Session-Expires 가 Min-SE 보다 작은지 검사하는 함수
+     * @param request 요청(입력, 읽기 전용)
+     * @return 작으면 422 응답에 넣을 Min-SE, 아니면 0 반환
+     */
+    public int checkInterval(final Request request) {
+        SipCall.checkObjectNull(null, request);
+        if (!isEnabled()) return 0;
+
+        SessionExpiresHeader sessionExpiresHeader = getSessionExpiresHeader(request);
+        if (sessionExpiresHeader != null && sessionExpiresHeader.getExpires() < minSE) {
+            return minSE;
+        }
+        return 0;
+    }
+
+    /**
+     * @fn public Session negotiate(final Request request, final String defaultRefresher)
+     * @brief 받은 Invite/UPDATE 요청으로 세션 간격과 갱신 측을 정하는 함수 (checkInterval 을 통과한 요청)
+     * 간격은 요청한 값(없으면 설정값)을 설정값 이하로 줄이되, 양쪽 Min-SE 보다 작게 하지 않는다.
+     * 상대방이 세션 타이머를 지원하지 않으면 수신 측(UAS)이 갱신하고, UPDATE 도 허용하지 않으면 갱신할 수 없으므로 세션 타이머를 적용하지 않는다.
+     * @param request          요청(입력, 읽기 전용)
+     * @param defaultRefresher 요청에 갱신 측이 없을 때 사용할 갱신 측(입력, 읽기 전용)
+     * @return 세션, 세션 타이머를 사용하지 않거나 적용할 수 없으면 null 반환
+     */
+    public Session negotiate(final Request request, final String defaultRefresher) {
+        SipCall.checkObjectNull(null, request, defaultRefresher);
+        if (!isEnabled()) return null;
+
+        boolean isSupported = hasOptionTag(request, SupportedHeader.NAME) || hasOptionTag(request, RequireHeader.NAME);
+        if (!isSupported && !isUpdateAllowed(request)) {
+            logger.debug("Session timer is not applied, peer supports neither timer nor UPDATE");
+            return null;
+        }
+        SessionExpiresHeader sessionExpiresHeader = getSessionExpiresHeader(request);
+
+        int interval = sessionExpires;
+        String refresher = defaultRefresher;
+        if (sessionExpiresHeader != null) {
+            interval = Math.min(sessionExpiresHeader.getExpires(), sessionExpires);
+            if (sessionExpiresHeader.getRefresher() != null) refresher = sessionExpiresHeader.getRefresher();
+        }
+        interval = Math.max(interval, Math.max(minSE, getMinSE(request)));
+        if (!isSupported) refresher = REFRESHER_UAS;
+
+        return new Session(interval, refresher, isSupported);
+    }
+
+    /**
+     * @fn public Session fromAnswer(final Request request, final Message response, final Dialog dialog)
+     * @brief 보낸 Invite/UPDATE 요청의 2xx 응답으로 세션을 정하는 함수
+     * 응답에 Session-Expires 가 없으면 상대방이 세션 타이머를 지원하지 않으므로 보낸 간격으로 직접 갱신한다.
+     * 이때 상대방이 UPDATE 도 허용하지 않으면 갱신할 수 없으므로 세션 타이머를 적용하지 않는다.
+     * @param request  보낸 요청(입력, 읽기 전용)
+     * @param response 2xx 응답(입력, 읽기 전용)
+     * @param dialog   다이얼로그(입력, 읽기 전용)
+     * @return 세션, 세션 타이머를 사용하지 않거나 적용할 수 없으면 null 반환
+     */
+    public Session fromAnswer(final Request request, final Message response, final Dialog dialog) {
+        SipCall.checkObjectNull(null, request, response, dialog);
+        if (!isEnabled()) return null;
+
+        SessionExpiresHeader sessionExpiresHeader = getSessionExpiresHeader(response);
+        if (sessionExpiresHeader == null) {
+            // UPDATE 에 대한 2xx 이면 상대방이 UPDATE 를 처리한 것이다.
+            if (!isUpdateAllowed(request) && !isUpdateAllowed(response)) {
+                logger.debug("Session timer is not applied, peer supports neither timer nor UPDATE");
+                return null;
+            }
+            SessionExpiresHeader requestHeader = getSessionExpiresHeader(request);
+            int interval = requestHeader == null ? sessionExpires : requestHeader.getExpires();
+            return new Session(interval, getLocalRole(dialog), false);
+        }
+
+        String refresher = sessionExpiresHeader.getRefresher();
+        return new Session(sessionExpiresHeader.getExpires(), refresher == null ? REFRESHER_UAC : refresher, true);
+    }
+
+    /**
+     * @fn public void start(final String callId, final Dialog dialog, final Session session)
+     * @brief 세션을 다이얼로그에 저장하고 갱신 또는 만료 타이머를 예약하는 함수
+     * 갱신 측이면 간격의 절반 후 갱신하고, 아니면 간격에서 min(32초, 간격/3) 을 뺀 시간 후 만료한다.
+     * 세션이 없으면 (협상하지 못한 호) 다이얼로그를 추가할 때 예약된 기본 만료 타이머 대신 최대 유지 시간 후 만료한다. (UPDATE 를 보내지 않음)
+     * @param callId  Call-ID(입력, 읽기 전용)
+     * @param dialog  다이얼로그(입력, 읽기 전용)
+     * @param session 세션(입력, 읽기 전용, null 이면 세션 타이머를 적용하지 않음)
+     * @return 반환값 없음
+     */
+    public void start(final String callId, final Dialog dialog, final Session session) {
+        SipCall.checkObjectNull(null, callId, dialog);
+        if (session == null) {
+            if (isEnabled()) expireUnrefreshed(callId);
+            return;
+        }
+
+        dialog.setApplicationData(session);
+        long interval = session.getInterval() * 1000L;
+        CallRegistry callRegistry = sipCall.getCallRegistry();
+        if (session.getRefresher().equals(getLocalRole(dialog))) {
+            callRegistry.refreshDialogAfter(callId, interval / 2);
+        } else {
+            callRegistry.expireDialogAfter(callId, interval - Math.min(MAX_EXPIRY_MARGIN, interval / 3));
+        }
+        logger.debug("Session is started (Call-ID:{}, Interval:{}, Refresher:{})", callId, session.getInterval(), session.getRefresher());
+    }
+
+    /**
+     * @fn public void refreshed(final String callId, final Dialog dialog, final Session session)
+     * @brief 세션이 갱신(UPDATE 2xx)되었을 때 타이머를 다시 예약하고 집계하는 함수
+     * @param callId  Call-ID(입력, 읽기 전용)
+     * @param dialog  다이얼로그(입력, 읽기 전용)
+     * @param session 갱신된 세션(입력, 읽기 전용, null 이면 처리하지 않음)
+     * @return 반환값 없음
+     */
+    public void refreshed(final String callId, final Dialog dialog, final Session session) {
+        if (session == null) return;
+
+        start(callId, dialog, session);
+        SignalMetrics.getInstance().onSessionRefreshed();
+    }
+
+    /**
+     * @fn public void refreshFailed(final String callId, int statusCode)
+     * @brief 보낸 UPDATE 가 실패했을 때 응답 코드에 따라 세션을 처리하는 함수
+     * 408/481 이면 다이얼로그를 바로 만료시키고, 405/501 이면 상대방이 UPDATE 로 갱신할 수 없으므로 세션 타이머를 해제한 후 최대 유지 시간 후 만료한다.
+     * 그 외 실패 응답은 이미 예약된 만료 타이머가 세션 간격 끝에 처리한다.
+     * @param callId     Call-ID(입력, 읽기 전용)
+     * @param statusCode 응답 코드(입력)
+     * @return 반환값 없음
+     */
+    public void refreshFailed(final String callId, int statusCode) {
+        SipCall.checkObjectNull(null, callId);
+
+        logger.debug("Session refresh is failed (Call-ID:{}, Code:{})", callId, statusCode);
+        CallRegistry callRegistry = sipCall.getCallRegistry();
+        if (statusCode == 408 || statusCode == 481) {
+            callRegistry.expireDialogAfter(callId, 1);
+        } else if (statusCode == METHOD_NOT_ALLOWED || statusCode == NOT_IMPLEMENTED) {
+            Dialog dialog = callRegistry.searchDialog(callId);
+            if (dialog != null && getSession(dialog) != null) dialog.setApplicationData(null);
+            expireUnrefreshed(callId);
+            logger.debug("Session timer is released, refresh is unsupported (Call-ID:{})", callId);
+        }
+    }
+
+    /**
+     * @fn public static Session getSession(final Dialog dialog)
+     * @brief 다이얼로그에 저장된 세션을 반환하는 함수
+     * @param dialog 다이얼로그(입력, 읽기 전용, null 이면 null 반환)
+     * @return 세션, 없으면 null 반환
+     */
+    public static Session getSession(final Dialog dialog) {
+        if (dialog == null) return null;
+
+        Object applicationData = dialog.getApplicationData();
+        return applicationData instanceof Session ? (Session) applicationData : null;
+    }
+
+    /**
+     * @fn public static void addSessionHeaders(final Message message, final HeaderFactory headerFactory, final Session session)
+     * @brief 세션을 Session-Expires(갱신 측 포함) 헤더로 추가하고, 상대방이 지원하면 Require: timer 도 추가하는 함수
+     * 2xx 응답과 보내는 UPDATE 요청에 사용한다.
+     * @param message       SIP 메시지(출력)
+     * @param headerFactory SIP 메시지 헤더 관리 인터페이스(입력, 읽기 전용)
+     * @param session       세션(입력, 읽기 전용, null 이면 추가하지 않음)
+     * @return 반환값 없음
+     * @throws ParseException 헤더 생성 실패 시
+     */
+    public static void addSessionHeaders(final Message message, final HeaderFactory headerFactory, final Session session) throws ParseException {
+        SipCall.checkObjectNull(null, message, headerFactory);
+        if (session == null) return;
+
+        message.setHeader(headerFactory.createHeader(SessionExpiresHeader.NAME, session.getInterval() + ";refresher=" + session.getRefresher()));
+        if (message instanceof Request) {
+            message.setHeader(headerFactory.createSupportedHeader(OPTION_TAG));
+        } else if (session.isPeerSupported()) {
+            message.setHeader(headerFactory.createRequireHeader(OPTION_TAG));
+        }
+    }
+
+    /**
+     * @fn public static String getLocalRole(final Dialog dialog)
+     * @brief 다이얼로그에서 이 쪽의 역할(uac/uas)을 반환하는 함수
+     * @param dialog 다이얼로그(입력, 읽기 전용)
+     * @return 수신한 다이얼로그면 uas, 발신한 다이얼로그면 uac
+     */
+    public static String getLocalRole(final Dialog dialog) {
+        return dialog.isServer() ? REFRESHER_UAS : REFRESHER_UAC;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Override Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public void onTransactionExpired(final String callId, final Transaction transaction)
+     * @brief 최종 응답 없이 남은 트랜잭션이 정리되었을 때 집계하고, 200 OK 전의 수신 Invite 이면 수락 제어 자리를 반납하는 함수 (타이머 쓰레드)
+     * @param callId      Call-ID(입력, 읽기 전용)
+     * @param transaction 정리된 트랜잭션(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    @Override
+    public void onTransactionExpired(final String callId, final Transaction transaction) {
+        String methodName = transaction.getRequest().getMethod();
+        logger.warn("Transaction is reclaimed (Call-ID:{}, Method:{}, State:{})", callId, methodName, transaction.getState());
+        SignalMetrics.getInstance().onTransactionReclaimed(methodName);
+        if (methodName.equals(Request.INVITE)) {
+            CdrRecorder.getInstance().onTimeout(transaction instanceof ServerTransaction
+                    ? CallDetailRecord.Direction.TERMINATING : CallDetailRecord.Direction.ORIGINATING, callId);
+        }
+
+        // 200 OK 전에 남은 수신 Invite 는 다이얼로그가 등록되지 않으므로 여기서 수락 제어 자리를 반납한다.
+        if (transaction instanceof ServerTransaction && methodName.equals(Request.INVITE)
+                && !sipCall.getCallRegistry().findDialog(callId)) {
+            AdmissionController.getInstance().release(callId);
+        }
+    }
+
+    /**
+     * @fn public void onDialogRefresh(final String callId, final Dialog dialog)
+     * @brief 갱신 측일 때 세션 간격의 절반이 지나면 UPDATE 로 세션을 갱신하는 함수 (타이머 쓰레드)
+     * 갱신 응답을 기다리는 동안 남은 절반이 지나면 다이얼로그가 만료되도록 먼저 예약한다.
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @param dialog 다이얼로그(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    @Override
+    public void onDialogRefresh(final String callId, final Dialog dialog) {
+        Session session = getSession(dialog);
+        if (session == null) {
+            session = new Session(sessionExpires, getLocalRole(dialog), false);
+        }
+
+        // 갱신이 성공하면 다시 예약하고, 응답이 없으면 세션 간격이 끝날 때 만료된다.
+        sipCall.getCallRegistry().expireDialogAfter(callId, session.getInterval() * 1000L / 2);
+        if (!RequestManager.getInstance().requestUpdate(sipCall, dialog, session)) {
+            logger.debug("Fail to refresh session (Call-ID:{})", callId);
+        }
+    }
+
+    /**
+     * @fn public void onDialogExpired(final String callId, final Dialog dialog)
+     * @brief 갱신 없이 세션이 만료된 다이얼로그에 BYE 를 보내고 수락 제어 자리를 반납하는 함수 (타이머 쓰레드, 호 등록에서는 이미 삭제됨)
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @param dialog 만료된 다이얼로그(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    @Override
+    public void onDialogExpired(final String callId, final Dialog dialog) {
+        logger.warn("Dialog is reclaimed (Call-ID:{}, State:{})", callId, dialog.getState());
+        SignalMetrics.getInstance().onDialogReclaimed();
+        CdrRecorder.getInstance().onExpired(dialog);
+
+        RequestManager.getInstance().requestExpiredBye(sipCall, dialog);
+        if (dialog.isServer()) AdmissionController.getInstance().release(callId);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private void expireUnrefreshed(final String callId)
+     * @brief 세션 타이머를 적용하지 못한 다이얼로그가 최대 유지 시간 후 UPDATE 없이 만료되도록 예약하는 함수
+     * 최대 유지 시간이 0 이면 기존 만료/갱신 타이머만 취소하고 BYE 를 받을 때까지 유지한다.
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    private void expireUnrefreshed(final String callId) {
+        sipCall.getCallRegistry().expireDialogAfter(callId, maxDialogLifetime * 1000L);
+    }
+
+    /**
+     * @fn private static SessionExpiresHeader getSessionExpiresHeader(final Message message)
+     * @brief 메시지의 Session-Expires 헤더를 반환하는 함수
+     * @param message SIP 메시지(입력, 읽기 전용)
+     * @return Session-Expires 헤더, 없으면 null 반환
+     */
+    private static SessionExpiresHeader getSessionExpiresHeader(final Message message) {
+        Header header = message.getHeader(SessionExpiresHeader.NAME);
+        return header instanceof SessionExpiresHeader ? (SessionExpiresHeader) header : null;
+    }
+
+    /**
+     * @fn private static int getMinSE(final Message message)
+     * @brief 메시지의 Min-SE 값을 반환하는 함수
+     * @param message SIP 메시지(입력, 읽기 전용)
+     * @return Min-SE, 없으면 0 반환
+     */
+    private static int getMinSE(final Message message) {
+        Header header = message.getHeader(MIN_SE_NAME);
+        return header instanceof MinSE ? ((MinSE) header).getExpires() : 0;
+    }
+
+    /**
+     * @fn private static boolean isUpdateAllowed(final Message message)
+     * @brief 상대방이 UPDATE 를 처리할 수 있는지 검사하는 함수 (UPDATE 요청이거나 Allow 헤더에 UPDATE 가 있으면 처리 가능)
+     * @param message SIP 메시지(입력, 읽기 전용)
+     * @return 처리할 수 있으면 true, 아니면 false 반환
+     */
+    private static boolean isUpdateAllowed(final Message message) {
+        if (message instanceof Request && Request.UPDATE.equals(((Request) message).getMethod())) return true;
+
+        ListIterator<?> headers = message.getHeaders(AllowHeader.NAME);
+        while (headers != null && headers.hasNext()) {
+            Object header = headers.next();
+            if (header instanceof AllowHeader && Request.UPDATE.equalsIgnoreCase(((AllowHeader) header).getMethod())) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @fn private static boolean hasOptionTag(final Message message, final String headerName)
+     * @brief 메시지의 Supported/Require 헤더에 timer Option Tag 가 있는지 검사하는 함수
+     * @param message    SIP 메시지(입력, 읽기 전용)
+     * @param headerName 헤더 이름(입력, 읽기 전용)
+     * @return 있으면 true, 없으면 false 반환
+     */
+    private static boolean hasOptionTag(final Message message, final String headerName) {
+        ListIterator<?> headers = message.getHeaders(headerName);
+        while (headers != null && headers.hasNext()) {
+            Object header = headers.next();
+            if (header instanceof SupportedHeader && OPTION_TAG.equalsIgnoreCase(((SupportedHeader) header).getOptionTag())) return true;
+            if (header instanceof RequireHeader && OPTION_TAG.equalsIgnoreCase(((RequireHeader) header).getOptionTag())) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @class public static final class Session
+     * @brief 협상된 세션 간격과 갱신 측 (다이얼로그의 Application Data 로 저장, 변경 불가)
+     */
+    public static final class Session {
+        /* 세션 간격 (초) */
+        private final int interval;
+        /* 갱신 측 (uac/uas) */
+        private final String refresher;
+        /* 상대방의 세션 타이머 지원 여부 */
+        private final boolean peerSupported;
+
+        /**
+         * @fn public Session(int interval, final String refresher, boolean peerSupported)
+         * @brief 협상된 세션을 초기화하는 함수
+         * @param interval      세션 간격(초, 입력)
+         * @param refresher     갱신 측(uac/uas, 입력, 읽기 전용)
+         * @param peerSupported 상대방의 세션 타이머 지원 여부(입력)
+         */
+        public Session(int interval, final String refresher, boolean peerSupported) {
+            this.interval = interval;
+            this.refresher = refresher;
+            this.peerSupported = peerSupported;
+        }
+
+        /**
+         * @fn public int getInterval()
+         * @brief 세션 간격을 반환하는 함수
+         * @return 세션 간격(초)
+         */
+        public int getInterval() {
+            return interval;
+        }
+
+        /**
+         * @fn public String getRefresher()
+         * @brief 갱신 측을 반환하는 함수
+         * @return 갱신 측(uac/uas)
+         */
+        public String getRefresher() {
+            return refresher;
+        }
+
+        /**
+         * @fn public boolean isPeerSupported()
+         * @brief 상대방이 세션 타이머를 지원하는지 반환하는 함수 (2xx 에 Require: timer 를 넣을지 결정)
+         * @return 지원하면 true, 아니면 false 반환
+         */
+        public boolean isPeerSupported() {
+            return peerSupported;
+        }
+
+        /**
+         * @fn public String toString()
+         * @brief 세션 간격, 갱신 측, 지원 여부를 문자열로 반환하는 함수 (로그 출력용)
+         * @return 세션 정보 문자열
+         */
+        @Override
+        public String toString() {
+            return "Session{" +
+                    "interval=" + interval +
+                    ", refresher=" + refresher +
+                    ", peerSupported=" + peerSupported +
+                    '}';
+        }
+    }
+}
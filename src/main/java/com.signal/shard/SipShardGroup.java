@@ -0,0 +1,177 @@
+package com.signal.shard;
+
+import com.signal.id.IdGenerator;
+import com.signal.logic.CallEventListener;
+import com.signal.logic.SipCall;
+import com.signal.registry.CallRegistry;
+import com.signal.transport.TransportConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @class public class SipShardGroup
+ * @brief 여러 SIP Stack(샤드)을 서로 다른 포트로 띄워서 CPU 코어를 나눠 쓰는 클래스
+ * 샤드마다 SIP Stack, SipProvider, 작업 쓰레드, 호 등록 정보를 따로 가지므로 샤드끼리 Lock 을 공유하지 않는다.
+ * 샤드 i 의 포트는 기본 포트 + i * 포트 간격이다.
+ *
+ * 호는 Call-ID 해시로 정한 샤드가 소유한다.
+ * - 발신 : newCallId() 로 Call-ID 를 먼저 만들고 getShard(callId) 로 고른 샤드에서 보낸다.
+ * - 이후 메시지 : Via/Contact 가 소유 샤드의 포트를 가리키므로 같은 호의 요청과 응답은 모두 소유 샤드로 들어온다.
+ * 양쪽이 같은 샤드 수를 사용하면 발신 측 샤드 i 는 착신 측 샤드 i 로 보내면 된다.
+ */
+public class SipShardGroup {
+    /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
+    private static final Logger logger = LoggerFactory.getLogger(SipShardGroup.class);
+    /* 기본 샤드 간 포트 간격 */
+    public static final int DEFAULT_PORT_STRIDE = 10;
+    /* 샤드 목록 (생성 후 변경하지 않음) */
+    private final SipCall[] shards;
+    /* 샤드 간 포트 간격 */
+    private final int portStride;
+
+    /**
+     * @fn public SipShardGroup(final SipCall sipCall)
+     * @brief SIP 호 정보 관리 객체 하나를 샤드 하나로 사용하는 함수 (샤드를 나누지 않는 경우)
+     * @param sipCall SIP 호 정보 관리 객체(입력, 읽기 전용)
+     */
+    public SipShardGroup(final SipCall sipCall) {
+        SipCall.checkObjectNull(null, sipCall);
+
+        this.shards = new SipCall[]{sipCall};
+        this.portStride = 0;
+    }
+
+    /**
+     * @fn public SipShardGroup(final String userName, final String ip, final String stackName, int shardCount, int portStride, final TransportConfig... transportConfigs)
+     * @brief 샤드 수만큼 SIP Stack 을 생성하는 함수
+     * 샤드 i 의 SIP Stack 이름은 [stackName]-i 이고, 전송 설정의 포트에 i * portStride 를 더한 포트로 수신한다.
+     * @param userName         SIP URI 에서 사용될 사용자 이름(입력, 읽기 전용)
+     * @param ip               SIP URI 에서 사용될 IP 주소(입력, 읽기 전용)
+     * @param stackName        SIP Stack 이름 접두어(입력, 읽기 전용)
+     * @param shardCount       샤드 수(입력)
+     * @param portStride       샤드 간 포트 간격(입력)
+     * @param transportConfigs 샤드 0 의 전송 설정 목록(입력, 읽기 전용)
+     */
+    public SipShardGroup(final String userName, final String ip, final String stackName, int shardCount, int portStride, final TransportConfig... transportConfigs) {
+        SipCall.checkObjectNull(null, userName, ip, stackName, transportConfigs);
+        if (shardCount <= 0) throw new IllegalArgumentException("Shard count <= 0");
+        if (shardCount > 1 && portStride <= 0) throw new IllegalArgumentException("Port stride <= 0");
+
+        this.shards = new SipCall[shardCount];
+        this.portStride = portStride;
+        for (int i = 0; i < shardCount; i++) {
+            TransportConfig[] shardTransportConfigs = new TransportConfig[transportConfigs.length];
+            for (int j = 0; j < transportConfigs.length; j++) {
+                TransportConfig transportConfig = transportConfigs[j];
+                shardTransportConfigs[j] = new TransportConfig(transportConfig.getProtocol(), transportConfig.getPort() + i * portStride,
+                        transportConfig.getWorkerThreads(), transportConfig.getQueueSize());
+            }
+
+            shards[i] = new SipCall(userName, ip, stackName + "-" + i, shardTransportConfigs);
+            shards[i].setCallRegistry(new CallRegistry());
+            logger.debug("Shard {} ({}:{})", i, ip, shards[i].getPort());
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public int getShardCount()
+     * @brief 샤드 수를 반환하는 함수
+     * @return 샤드 수
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * @fn public int getPortStride()
+     * @brief 샤드 간 포트 간격을 반환하는 함수
+     * @return 샤드 간 포트 간격
+     */
+    public int getPortStride() {
+        return portStride;
+    }
+
+    /**
+     * @fn public SipCall getShard(int index)
+     * @brief 지정한 번호의 샤드를 반환하는 함수
+     * @param index 샤드 번호(입력)
+     * @return 샤드
+     */
+    public SipCall getShard(int index) {
+        return shards[index];
+    }
+
+    /**
+     * @fn public SipCall getShard(final String callId)
+     * @brief 지정한 Call-ID 의 호를 소유하는 샤드를 반환하는 함수
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @return 샤드
+     */
+    public SipCall getShard(final String callId) {
+        return shards[getShardIndex(callId)];
+    }
+
+    /**
+     * @fn public int getShardIndex(final String callId)
+     * @brief 지정한 Call-ID 의 호를 소유하는 샤드 번호를 반환하는 함수
+     * 샤드 수가 같으면 어느 노드에서 계산해도 같은 번호가 나온다.
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @return 샤드 번호
+     */
+    public int getShardIndex(final String callId) {
+        if (shards.length == 1) return 0;
+        SipCall.checkObjectNull(null, callId);
+
+        // 비슷한 Call-ID 가 한쪽으로 몰리지 않도록 해시를 섞는다.
+        int hash = callId.hashCode() * 0x9E3779B9;
+        return ((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % shards.length;
+    }
+
+    /**
+     * @fn public String newCallId()
+     * @brief 발신 호의 Call-ID 를 생성하는 함수 (getShard(callId) 로 발신 샤드를 고른다)
+     * @return Call-ID
+     */
+    public String newCallId() {
+        return IdGenerator.getInstance().newCallId(shards[0].getIp());
+    }
+
+    /**
+     * @fn public void setCallEventListener(final CallEventListener callEventListener)
+     * @brief 모든 샤드에 발신 호 결과 전달 인터페이스를 지정하는 함수
+     * @param callEventListener 발신 호 결과 전달 인터페이스(입력, 읽기 전용, null 이면 전달하지 않음)
+     * @return 반환값 없음
+     */
+    public void setCallEventListener(final CallEventListener callEventListener) {
+        for (SipCall shard : shards) {
+            shard.setCallEventListener(callEventListener);
+        }
+    }
+
+    /**
+     * @fn public void setExitOnByeResponse(boolean exitOnByeResponse)
+     * @brief 모든 샤드에 Bye 응답 시 프로그램 종료 여부를 지정하는 함수
+     * @param exitOnByeResponse 종료 여부(입력)
+     * @return 반환값 없음
+     */
+    public void setExitOnByeResponse(boolean exitOnByeResponse) {
+        for (SipCall shard : shards) {
+            shard.setExitOnByeResponse(exitOnByeResponse);
+        }
+    }
+
+    /**
+     * @fn public void stop()
+     * @brief 모든 샤드의 SIP Stack 을 중지하는 함수
+     * @return 반환값 없음
+     */
+    public void stop() {
+        for (SipCall shard : shards) {
+            shard.stop();
+        }
+    }
+}
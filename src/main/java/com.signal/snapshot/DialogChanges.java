@@ -0,0 +1,137 @@
+package com.signal.snapshot;
+
+import com.signal.registry.DialogChangeListener;
+
+import javax.sip.Dialog;
+import javax.sip.DialogState;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @class public class DialogChanges implements DialogChangeListener
+ * @brief 호 등록 객체의 다이얼로그 추가/삭제를 Call-ID 별로 모아 두는 클래스 (다이얼로그 스냅샷, 복제에서 사용)
+ * 같은 Call-ID 의 변경은 마지막 것만 남기므로 크기는 현재 다이얼로그 수와 삭제된 Call-ID 수를 넘지 않는다.
+ * SIP 처리 쓰레드는 표시만 하고, 다이얼로그 상태 복사는 drain() 을 호출한 쓰레드에서 한다.
+ * 아직 CONFIRMED 가 아닌 다이얼로그는 남겨 두었다가 다음 drain() 때 다시 확인한다.
+ */
+public class DialogChanges implements DialogChangeListener {
+    /* 삭제된 다이얼로그 표시 */
+    private static final Object REMOVED = new Object();
+    /* 저장(전송)하지 않은 변경분, Call-ID -> Dialog (추가) 또는 REMOVED (삭제) */
+    private final ConcurrentHashMap<String, Object> changes = new ConcurrentHashMap<>();
+
+    /**
+     * @interface public interface Handler
+     * @brief drain() 으로 꺼낸 변경분을 전달받는 인터페이스
+     */
+    public interface Handler {
+        void onAdded(final DialogRecord dialogRecord) throws IOException;
+
+        void onRemoved(final String callId) throws IOException;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public void markRemoved(final String callId)
+     * @brief 호 등록 객체 밖에서 삭제한 다이얼로그(되살린 다이얼로그 등)를 삭제로 표시하는 함수
+     * 같은 Call-ID 의 새 변경분이 이미 있으면 덮어쓰지 않는다.
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void markRemoved(final String callId) {
+        changes.putIfAbsent(callId, REMOVED);
+    }
+
+    /**
+     * @fn public int drain(final Handler handler)
+     * @brief 확정된 변경분을 꺼내서 순서 없이 전달하는 함수 (한 쓰레드에서만 호출)
+     * 그 사이에 다시 변경된 Call-ID 는 다음 drain() 때 전달한다.
+     * @param handler 변경분 전달 인터페이스(입력, 읽기 전용)
+     * @return 전달한 변경분 수
+     * @throws IOException 전달 실패 시 (이미 꺼낸 변경분은 되돌리지 않으므로 호출한 쪽에서 전체 상태를 다시 보내야 한다)
+     */
+    public int drain(final Handler handler) throws IOException {
+        if (changes.isEmpty()) return 0;
+
+        int count = 0;
+        for (Map.Entry<String, Object> entry : changes.entrySet()) {
+            String callId = entry.getKey();
+            Object change = entry.getValue();
+            if (change != REMOVED) {
+                Dialog dialog = (Dialog) change;
+                if (isPending(dialog)) continue;
+                if (dialog.getState() == DialogState.TERMINATED) change = REMOVED;
+            }
+            if (!changes.remove(callId, entry.getValue())) continue;
+
+            if (change == REMOVED) {
+                handler.onRemoved(callId);
+            } else {
+                DialogRecord dialogRecord = DialogRecord.from((Dialog) change);
+                if (dialogRecord == null) continue;
+                handler.onAdded(dialogRecord);
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @fn public void discardSettled()
+     * @brief 전체 상태를 다시 쓰기 전에 확정된 변경분을 버리는 함수 (아직 CONFIRMED 가 아닌 다이얼로그는 남김)
+     * @return 반환값 없음
+     */
+    public void discardSettled() {
+        for (Map.Entry<String, Object> entry : changes.entrySet()) {
+            Object change = entry.getValue();
+            if (change == REMOVED || !isPending((Dialog) change)) {
+                changes.remove(entry.getKey(), change);
+            }
+        }
+    }
+
+    /**
+     * @fn public static boolean isConfirmed(final Dialog dialog)
+     * @brief 전체 상태에 기록할 다이얼로그(CONFIRMED)인지 확인하는 함수
+     * @param dialog 다이얼로그(입력, 읽기 전용)
+     * @return CONFIRMED 이면 true, 아니면 false 반환
+     */
+    public static boolean isConfirmed(final Dialog dialog) {
+        return dialog != null && dialog.getState() == DialogState.CONFIRMED;
+    }
+
+    public int size() {
+        return changes.size();
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Override Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void onDialogAdded(final String callId, final Dialog dialog) {
+        changes.put(callId, dialog);
+    }
+
+    @Override
+    public void onDialogRemoved(final String callId) {
+        changes.put(callId, REMOVED);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    private static boolean isPending(final Dialog dialog) {
+        DialogState state = dialog.getState();
+        return state == null || state == DialogState.EARLY;
+    }
+}
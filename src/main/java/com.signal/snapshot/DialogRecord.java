@@ -0,0 +1,231 @@
+package com.signal.snapshot;
+
+import javax.sip.Dialog;
+import javax.sip.address.Address;
+import javax.sip.header.RouteHeader;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * @class public class DialogRecord
+ * @brief 스냅샷에 기록하는 설립된 다이얼로그 하나의 상태
+ * (Call-ID, Local/Remote Tag, Local/Remote CSeq, Local/Remote URI, Remote Target, Route Set, UAS 여부)
+ * 재시작 후에는 JAIN SIP 다이얼로그로 되살리지 않고, 남은 호의 BYE 에 응답하는 데에만 사용한다.
+ */
+public class DialogRecord {
+    /* Call-ID */
+    private final String callId;
+    /* Local/Remote Tag */
+    private final String localTag;
+    private final String remoteTag;
+    /* Local/Remote CSeq 번호 */
+    private final long localSeq;
+    private final long remoteSeq;
+    /* Local/Remote URI */
+    private final String localUri;
+    private final String remoteUri;
+    /* Remote Target (Contact) */
+    private final String remoteTarget;
+    /* Route Set (Route 헤더 주소 순서대로) */
+    private final String[] routeSet;
+    /* Invite 를 받은 다이얼로그(UAS) 여부 */
+    private final boolean isServer;
+
+    /**
+     * @fn public DialogRecord(final String callId, final String localTag, final String remoteTag, long localSeq, long remoteSeq, final String localUri, final String remoteUri, final String remoteTarget, final String[] routeSet, boolean isServer)
+     * @brief 다이얼로그 상태를 초기화하는 함수
+     * @param callId       Call-ID(입력, 읽기 전용)
+     * @param localTag     Local Tag(입력, 읽기 전용)
+     * @param remoteTag    Remote Tag(입력, 읽기 전용)
+     * @param localSeq     Local CSeq 번호(입력)
+     * @param remoteSeq    Remote CSeq 번호(입력)
+     * @param localUri     Local URI(입력, 읽기 전용)
+     * @param remoteUri    Remote URI(입력, 읽기 전용)
+     * @param remoteTarget Remote Target(입력, 읽기 전용)
+     * @param routeSet     Route Set(입력, 읽기 전용)
+     * @param isServer     UAS 여부(입력)
+     */
+    public DialogRecord(final String callId, final String localTag, final String remoteTag, long localSeq, long remoteSeq,
+                        final String localUri, final String remoteUri, final String remoteTarget, final String[] routeSet, boolean isServer) {
+        if (callId == null || routeSet == null) throw new NullPointerException("Parameter Error (Null)");
+
+        this.callId = callId;
+        this.localTag = localTag;
+        this.remoteTag = remoteTag;
+        this.localSeq = localSeq;
+        this.remoteSeq = remoteSeq;
+        this.localUri = localUri;
+        this.remoteUri = remoteUri;
+        this.remoteTarget = remoteTarget;
+        this.routeSet = routeSet;
+        this.isServer = isServer;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public static DialogRecord from(final Dialog dialog)
+     * @brief JAIN SIP 다이얼로그의 현재 상태를 복사하는 함수
+     * @param dialog 다이얼로그(입력, 읽기 전용)
+     * @return 다이얼로그 상태 (Call-ID 가 없으면 null)
+     */
+    public static DialogRecord from(final Dialog dialog) {
+        if (dialog == null || dialog.getCallId() == null) return null;
+
+        List<String> routes = new ArrayList<>();
+        Iterator<?> iterator = dialog.getRouteSet();
+        while (iterator != null && iterator.hasNext()) {
+            RouteHeader routeHeader = (RouteHeader) iterator.next();
+            routes.add(routeHeader.getAddress().toString());
+        }
+
+        return new DialogRecord(dialog.getCallId().getCallId(), dialog.getLocalTag(), dialog.getRemoteTag(),
+                dialog.getLocalSeqNumber(), dialog.getRemoteSeqNumber(),
+                toUri(dialog.getLocalParty()), toUri(dialog.getRemoteParty()), toUri(dialog.getRemoteTarget()),
+                routes.toArray(new String[routes.size()]), dialog.isServer());
+    }
+
+    /**
+     * @fn public static DialogRecord read(final DataInput input)
+     * @brief 이진 형식의 다이얼로그 상태를 읽는 함수
+     * @param input 입력 스트림(입력)
+     * @return 다이얼로그 상태
+     * @throws IOException 읽기 실패 시
+     */
+    public static DialogRecord read(final DataInput input) throws IOException {
+        String callId = input.readUTF();
+        String localTag = readString(input);
+        String remoteTag = readString(input);
+        long localSeq = input.readLong();
+        long remoteSeq = input.readLong();
+        String localUri = readString(input);
+        String remoteUri = readString(input);
+        String remoteTarget = readString(input);
+        int routeCount = input.readUnsignedShort();
+        String[] routeSet = new String[routeCount];
+        for (int i = 0; i < routeCount; i++) {
+            routeSet[i] = input.readUTF();
+        }
+        boolean isServer = input.readBoolean();
+        return new DialogRecord(callId, localTag, remoteTag, localSeq, remoteSeq, localUri, remoteUri, remoteTarget, routeSet, isServer);
+    }
+
+    /**
+     * @fn public void write(final DataOutput output)
+     * @brief 다이얼로그 상태를 이진 형식으로 쓰는 함수
+     * 문자열은 길이(2 byte) + Modified UTF-8 이고, 값이 없는 문자열은 빈 문자열로 쓴다.
+     * @param output 출력 스트림(입력, 출력)
+     * @return 반환값 없음
+     * @throws IOException 쓰기 실패 시
+     */
+    public void write(final DataOutput output) throws IOException {
+        output.writeUTF(callId);
+        writeString(output, localTag);
+        writeString(output, remoteTag);
+        output.writeLong(localSeq);
+        output.writeLong(remoteSeq);
+        writeString(output, localUri);
+        writeString(output, remoteUri);
+        writeString(output, remoteTarget);
+        output.writeShort(routeSet.length);
+        for (String route : routeSet) {
+            output.writeUTF(route);
+        }
+        output.writeBoolean(isServer);
+    }
+
+    /**
+     * @fn public boolean matches(final String localTag, final String remoteTag)
+     * @brief 받은 요청의 To/From Tag 가 이 다이얼로그의 Local/Remote Tag 와 같은지 확인하는 함수
+     * @param localTag  받은 요청의 To Tag(입력, 읽기 전용)
+     * @param remoteTag 받은 요청의 From Tag(입력, 읽기 전용)
+     * @return 같으면 true, 아니면 false 반환
+     */
+    public boolean matches(final String localTag, final String remoteTag) {
+        return equalsTag(this.localTag, localTag) && equalsTag(this.remoteTag, remoteTag);
+    }
+
+    public String getCallId() {
+        return callId;
+    }
+
+    public String getLocalTag() {
+        return localTag;
+    }
+
+    public String getRemoteTag() {
+        return remoteTag;
+    }
+
+    public long getLocalSeq() {
+        return localSeq;
+    }
+
+    public long getRemoteSeq() {
+        return remoteSeq;
+    }
+
+    public String getLocalUri() {
+        return localUri;
+    }
+
+    public String getRemoteUri() {
+        return remoteUri;
+    }
+
+    public String getRemoteTarget() {
+        return remoteTarget;
+    }
+
+    public String[] getRouteSet() {
+        return routeSet.clone();
+    }
+
+    public boolean isServer() {
+        return isServer;
+    }
+
+    @Override
+    public String toString() {
+        return "DialogRecord{" +
+                "callId='" + callId + '\'' +
+                ", localTag='" + localTag + '\'' +
+                ", remoteTag='" + remoteTag + '\'' +
+                ", localSeq=" + localSeq +
+                ", remoteSeq=" + remoteSeq +
+                ", remoteTarget='" + remoteTarget + '\'' +
+                ", routes=" + routeSet.length +
+                ", isServer=" + isServer +
+                '}';
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    private static String toUri(final Address address) {
+        return address == null || address.getURI() == null ? null : address.getURI().toString();
+    }
+
+    private static boolean equalsTag(final String tag, final String otherTag) {
+        // Tag 가 없는 경우 (RFC 2543) 는 빈 문자열로 기록되므로 같이 비교한다.
+        String value = tag == null ? "" : tag;
+        String otherValue = otherTag == null ? "" : otherTag;
+        return value.equalsIgnoreCase(otherValue);
+    }
+
+    private static String readString(final DataInput input) throws IOException {
+        String value = input.readUTF();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static void writeString(final DataOutput output, final String value) throws IOException {
+        output.writeUTF(value == null ? "" : value);
+    }
+}
@@ -0,0 +1,109 @@
+package com.signal.snapshot;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * @class public class DialogRecordCodec
+ * @brief 다이얼로그 변경 기록을 이진 형식으로 쓰고 읽는 클래스 (스냅샷 파일, 복제 스트림 공용)
+ * 기록 형식 : [op(1)] [길이(4)] [DialogRecord 또는 Call-ID], 목록 끝은 [OP_END(1)]
+ * 길이를 앞에 두므로 잘린 마지막 기록은 EOFException 으로 알 수 있다.
+ * 쓰기 버퍼를 재사용하므로 객체 하나는 한 쓰레드에서만 사용한다.
+ */
+public class DialogRecordCodec {
+    /* 기록 종류 */
+    public static final byte OP_END = 0;
+    public static final byte OP_ADD = 1;
+    public static final byte OP_REMOVE = 2;
+    /* 기록 하나를 만드는 버퍼 */
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(512);
+    private final DataOutputStream bufferOutput = new DataOutputStream(buffer);
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public void writeAdd(final DataOutputStream output, final DialogRecord dialogRecord)
+     * @brief 다이얼로그 추가(또는 변경) 기록을 쓰는 함수
+     * @param output       출력 스트림(입력, 출력)
+     * @param dialogRecord 다이얼로그 상태(입력, 읽기 전용)
+     * @return 반환값 없음
+     * @throws IOException 쓰기 실패 시
+     */
+    public void writeAdd(final DataOutputStream output, final DialogRecord dialogRecord) throws IOException {
+        buffer.reset();
+        dialogRecord.write(bufferOutput);
+        writeRecord(output, OP_ADD);
+    }
+
+    /**
+     * @fn public void writeRemove(final DataOutputStream output, final String callId)
+     * @brief 다이얼로그 삭제 기록을 쓰는 함수
+     * @param output 출력 스트림(입력, 출력)
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @return 반환값 없음
+     * @throws IOException 쓰기 실패 시
+     */
+    public void writeRemove(final DataOutputStream output, final String callId) throws IOException {
+        buffer.reset();
+        bufferOutput.writeUTF(callId);
+        writeRecord(output, OP_REMOVE);
+    }
+
+    /**
+     * @fn public static void writeEnd(final DataOutputStream output)
+     * @brief 기록 목록의 끝을 쓰는 함수
+     * @param output 출력 스트림(입력, 출력)
+     * @return 반환값 없음
+     * @throws IOException 쓰기 실패 시
+     */
+    public static void writeEnd(final DataOutputStream output) throws IOException {
+        output.writeByte(OP_END);
+    }
+
+    /**
+     * @fn public static int readUntilEnd(final DataInput input, final Map<String, DialogRecord> dialogRecords)
+     * @brief 목록 끝까지 기록을 읽어서 순서대로 적용하는 함수
+     * @param input         입력 스트림(입력)
+     * @param dialogRecords 다이얼로그 상태(입력, 출력)
+     * @return 적용한 기록 수
+     * @throws IOException 읽기 실패 시, 목록 끝 전에 입력이 끝나면 EOFException (그 전까지의 기록은 이미 적용됨)
+     */
+    public static int readUntilEnd(final DataInput input, final Map<String, DialogRecord> dialogRecords) throws IOException {
+        int count = 0;
+        while (true) {
+            byte op = input.readByte();
+            if (op == OP_END) return count;
+
+            byte[] bytes = new byte[input.readInt()];
+            input.readFully(bytes);
+            DataInputStream recordInput = new DataInputStream(new ByteArrayInputStream(bytes));
+            if (op == OP_ADD) {
+                DialogRecord dialogRecord = DialogRecord.read(recordInput);
+                dialogRecords.put(dialogRecord.getCallId(), dialogRecord);
+            } else if (op == OP_REMOVE) {
+                dialogRecords.remove(recordInput.readUTF());
+            } else {
+                throw new IOException("Unknown dialog record (op:" + op + ")");
+            }
+            count++;
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    private void writeRecord(final DataOutputStream output, byte op) throws IOException {
+        bufferOutput.flush();
+        output.writeByte(op);
+        output.writeInt(buffer.size());
+        buffer.writeTo(output);
+    }
+}
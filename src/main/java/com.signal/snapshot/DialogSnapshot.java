@@ -0,0 +1,463 @@
+package com.signal.snapshot;
+
+import com.signal.registry.CallRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sip.Dialog;
+import javax.sip.header.CallIdHeader;
+import javax.sip.header.FromHeader;
+import javax.sip.header.ToHeader;
+import javax.sip.message.Request;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @class public class DialogSnapshot
+ * @brief SIP Stack 하나의 설립된(CONFIRMED) 다이얼로그 상태를 이진 파일에 나눠서 저장하고, 재시작 시 되살리는 클래스
+ *
+ * 파일은 <이름>.snapshot (전체 상태) 와 <이름>.journal (그 이후의 변경분) 두 개이다.
+ * SIP 처리 쓰레드는 호 등록 객체의 추가/삭제 알림으로 변경된 Call-ID 만 표시하고 (DialogChanges),
+ * 스냅샷 쓰레드가 interval 마다 변경분만 journal 에 덧붙인다. (증분 저장)
+ * journal 의 기록 수가 현재 다이얼로그 수(최소 compactThreshold)를 넘으면 전체 상태를 임시 파일에 쓰고 이름을 바꾼 후 journal 을 비운다. (압축)
+ * 따라서 파일 크기는 다이얼로그 수에 비례하고 (10 만 개 기준 약 2 배 이하), 한 번의 저장 시간도 다이얼로그 수에 비례한다.
+ *
+ * 기록 형식 : DialogRecordCodec
+ * 파일 머리 : [magic(4)] [version(2)] [세대(8)], journal 은 세대가 같은 스냅샷 이후의 변경분일 때만 적용한다.
+ * 마지막 journal 기록이 잘려 있으면(비정상 종료) 그 기록부터 무시한다.
+ *
+ * 되살린 다이얼로그는 JAIN SIP 다이얼로그가 아니므로 BYE 에 200 OK 로 응답하는 데에만 사용하고, restoreTimeout 이 지나면 삭제한다.
+ */
+public class DialogSnapshot {
+    /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
+    private static final Logger logger = LoggerFactory.getLogger(DialogSnapshot.class);
+    /* 파일 식별자 ("DLGS") 와 형식 버전 */
+    private static final int MAGIC = 0x444C4753;
+    private static final short VERSION = 1;
+    /* 스냅샷/journal 파일 확장자 */
+    public static final String SNAPSHOT_EXTENSION = ".snapshot";
+    public static final String JOURNAL_EXTENSION = ".journal";
+    private static final String TEMP_EXTENSION = ".tmp";
+    /* 파일 쓰기 버퍼 크기 */
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /* 스냅샷 이름 (SIP Stack 이름) */
+    private final String name;
+    /* 스냅샷/journal 파일 */
+    private final File snapshotFile;
+    private final File journalFile;
+    /* 압축 전 journal 의 최소 기록 수 */
+    private final int compactThreshold;
+    /* 되살린 다이얼로그를 유지하는 시간 (ms, 0 이면 BYE 를 받을 때까지 유지) */
+    private final long restoreTimeout;
+    /* 저장하지 않은 변경분 */
+    private final DialogChanges changes = new DialogChanges();
+    /* 재시작 시 되살린 다이얼로그 */
+    private final ConcurrentHashMap<String, DialogRecord> restoredDialogs = new ConcurrentHashMap<>();
+    /* 되살린 시각 (System.currentTimeMillis) */
+    private final long restoredTime;
+    /* 기록 변환 (저장 쓰레드 전용) */
+    private final DialogRecordCodec codec = new DialogRecordCodec();
+    /* 현재 연결된 호 등록 관리 객체 */
+    private volatile CallRegistry callRegistry = null;
+    /* 마지막 전체 저장의 다이얼로그 수, byte 수, 소요 시간 (ms) */
+    private volatile int lastSnapshotDialogs = 0;
+    private volatile long lastSnapshotBytes = 0;
+    private volatile long lastSnapshotMillis = 0;
+    /* 전체 저장 횟수 */
+    private volatile long snapshotCount = 0;
+    /* 현재 journal 의 기록 수 */
+    private volatile long journalRecords = 0;
+    /* 현재 세대 (저장 쓰레드 전용) */
+    private long generation = 0;
+    /* journal 쓰기에 실패해서 다음 저장 때 전체 상태를 다시 써야 하는지 여부 (저장 쓰레드 전용) */
+    private boolean needsCompact = false;
+    /* journal 출력 스트림 (저장 쓰레드 전용, 처음 변경분을 쓸 때 염) */
+    private FileOutputStream journalStream = null;
+    private DataOutputStream journalOutput = null;
+
+    /**
+     * @fn public DialogSnapshot(final File directory, final String name, int compactThreshold, long restoreTimeout)
+     * @brief 다이얼로그 스냅샷을 초기화하고, 이전 스냅샷이 있으면 다이얼로그를 되살리는 함수
+     * 되살린 후에는 바로 전체 저장을 해서 잘린 journal 을 정리한다.
+     * @param directory        스냅샷 디렉토리(입력, 읽기 전용)
+     * @param name             스냅샷 이름, SIP Stack 이름(입력, 읽기 전용)
+     * @param compactThreshold 압축 전 journal 의 최소 기록 수(입력)
+     * @param restoreTimeout   되살린 다이얼로그를 유지하는 시간(ms, 입력, 0 이면 BYE 를 받을 때까지 유지)
+     */
+    public DialogSnapshot(final File directory, final String name, int compactThreshold, long restoreTimeout) {
+        if (directory == null || name == null) throw new NullPointerException("Parameter Error (Null)");
+        if (compactThreshold <= 0 || restoreTimeout < 0) throw new IllegalArgumentException("Invalid snapshot configuration");
+
+        this.name = name;
+        this.snapshotFile = new File(directory, name + SNAPSHOT_EXTENSION);
+        this.journalFile = new File(directory, name + JOURNAL_EXTENSION);
+        this.compactThreshold = compactThreshold;
+        this.restoreTimeout = restoreTimeout;
+        this.restoredTime = System.currentTimeMillis();
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            logger.warn("Fail to create snapshot directory ({})", directory);
+        }
+        restore();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public static void save(final File directory, final String name, final Collection<DialogRecord> dialogRecords)
+     * @brief 지정한 다이얼로그 상태만으로 스냅샷 파일을 새로 쓰는 함수 (복제 받은 상태로 인계할 때 사용)
+     * 같은 이름의 journal 은 지우므로, 이후 같은 이름으로 만든 스냅샷은 이 다이얼로그들을 되살린다.
+     * @param directory     스냅샷 디렉토리(입력, 읽기 전용)
+     * @param name          스냅샷 이름, SIP Stack 이름(입력, 읽기 전용)
+     * @param dialogRecords 다이얼로그 상태 목록(입력, 읽기 전용)
+     * @return 반환값 없음
+     * @throws IOException 쓰기 실패 시
+     */
+    public static void save(final File directory, final String name, final Collection<DialogRecord> dialogRecords) throws IOException {
+        if (directory == null || name == null || dialogRecords == null) throw new NullPointerException("Parameter Error (Null)");
+        if (!directory.isDirectory() && !directory.mkdirs()) throw new IOException("Fail to create snapshot directory (" + directory + ")");
+
+        File snapshotFile = new File(directory, name + SNAPSHOT_EXTENSION);
+        File tempFile = new File(snapshotFile.getPath() + TEMP_EXTENSION);
+        DialogRecordCodec codec = new DialogRecordCodec();
+        FileOutputStream fileStream = new FileOutputStream(tempFile);
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(fileStream, BUFFER_SIZE))) {
+            writeHeader(output, 0);
+            for (DialogRecord dialogRecord : dialogRecords) {
+                codec.writeAdd(output, dialogRecord);
+            }
+            DialogRecordCodec.writeEnd(output);
+            output.flush();
+            fileStream.getChannel().force(false);
+        }
+
+        Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        File journalFile = new File(directory, name + JOURNAL_EXTENSION);
+        if (journalFile.exists() && !journalFile.delete()) throw new IOException("Fail to delete snapshot journal (" + journalFile + ")");
+    }
+
+    /**
+     * @fn public synchronized void attach(final CallRegistry callRegistry)
+     * @brief 다이얼로그 추가/삭제를 알려줄 호 등록 관리 객체를 연결하는 함수 (이전에 연결한 객체는 해제)
+     * @param callRegistry 호 등록 관리 객체(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public synchronized void attach(final CallRegistry callRegistry) {
+        if (callRegistry == null) throw new NullPointerException("Parameter Error (Null)");
+
+        CallRegistry oldCallRegistry = this.callRegistry;
+        if (oldCallRegistry == callRegistry) return;
+        if (oldCallRegistry != null) oldCallRegistry.removeDialogChangeListener(changes);
+
+        this.callRegistry = callRegistry;
+        callRegistry.addDialogChangeListener(changes);
+    }
+
+    /**
+     * @fn public boolean removeRestored(final Request request)
+     * @brief 받은 요청(BYE)이 되살린 다이얼로그에 속하면 그 다이얼로그를 삭제하는 함수
+     * Call-ID 와 To Tag(Local Tag), From Tag(Remote Tag) 가 모두 같아야 한다.
+     * @param request 요청(입력, 읽기 전용)
+     * @return 되살린 다이얼로그에 속하면 true, 아니면 false 반환
+     */
+    public boolean removeRestored(final Request request) {
+        if (restoredDialogs.isEmpty() || request == null) return false;
+
+        CallIdHeader callIdHeader = (CallIdHeader) request.getHeader(CallIdHeader.NAME);
+        FromHeader fromHeader = (FromHeader) request.getHeader(FromHeader.NAME);
+        ToHeader toHeader = (ToHeader) request.getHeader(ToHeader.NAME);
+        if (callIdHeader == null || fromHeader == null || toHeader == null) return false;
+
+        String callId = callIdHeader.getCallId();
+        DialogRecord dialogRecord = restoredDialogs.get(callId);
+        if (dialogRecord == null || !dialogRecord.matches(toHeader.getTag(), fromHeader.getTag())) return false;
+        if (!restoredDialogs.remove(callId, dialogRecord)) return false;
+
+        // 같은 Call-ID 의 새 다이얼로그가 이미 추가되었으면 삭제로 덮어쓰지 않는다.
+        changes.markRemoved(callId);
+        logger.debug("Restored dialog is released (Call-ID:{})", callId);
+        return true;
+    }
+
+    /**
+     * @fn public synchronized void flush()
+     * @brief 저장하지 않은 변경분을 journal 에 덧붙이거나, journal 이 커졌으면 전체 상태를 다시 쓰는 함수 (스냅샷 쓰레드에서 주기적으로 호출)
+     * @return 반환값 없음
+     */
+    public synchronized void flush() {
+        try {
+            expireRestored();
+
+            CallRegistry current = callRegistry;
+            int liveDialogs = (current == null ? 0 : current.getDialogCount()) + restoredDialogs.size();
+            if (needsCompact || journalRecords + changes.size() > Math.max(compactThreshold, liveDialogs)) {
+                compact();
+            } else {
+                appendChanges();
+            }
+        } catch (Exception e) {
+            logger.warn("Fail to save dialog snapshot ({})", name, e);
+            closeJournal();
+            needsCompact = true;
+        }
+    }
+
+    /**
+     * @fn public synchronized void close()
+     * @brief 전체 상태를 마지막으로 저장하고 journal 을 닫는 함수 (노드 종료 시 호출)
+     * 정상 종료로 모든 호가 끝났으면 빈 스냅샷이 남는다.
+     * @return 반환값 없음
+     */
+    public synchronized void close() {
+        try {
+            compact();
+        } catch (Exception e) {
+            logger.warn("Fail to save dialog snapshot ({})", name, e);
+        }
+        closeJournal();
+
+        CallRegistry current = callRegistry;
+        if (current != null) current.removeDialogChangeListener(changes);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getRestoredDialogCount() {
+        return restoredDialogs.size();
+    }
+
+    public int getPendingChangeCount() {
+        return changes.size();
+    }
+
+    public int getLastSnapshotDialogs() {
+        return lastSnapshotDialogs;
+    }
+
+    public long getLastSnapshotBytes() {
+        return lastSnapshotBytes;
+    }
+
+    public long getLastSnapshotMillis() {
+        return lastSnapshotMillis;
+    }
+
+    public long getSnapshotCount() {
+        return snapshotCount;
+    }
+
+    public long getJournalRecords() {
+        return journalRecords;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private void restore()
+     * @brief 스냅샷과 같은 세대의 journal 을 읽어서 다이얼로그를 되살리고, 전체 상태를 다시 저장하는 함수
+     * @return 반환값 없음
+     */
+    private synchronized void restore() {
+        Map<String, DialogRecord> dialogRecords = new HashMap<>();
+        long snapshotGeneration = read(snapshotFile, -1, dialogRecords);
+        if (snapshotGeneration >= 0) {
+            generation = snapshotGeneration;
+            read(journalFile, snapshotGeneration, dialogRecords);
+        }
+        restoredDialogs.putAll(dialogRecords);
+        if (!dialogRecords.isEmpty()) {
+            logger.warn("{} dialogs are restored from snapshot ({})", dialogRecords.size(), snapshotFile);
+        }
+
+        try {
+            compact();
+        } catch (Exception e) {
+            logger.warn("Fail to save dialog snapshot ({})", name, e);
+            needsCompact = true;
+        }
+    }
+
+    /**
+     * @fn private long read(final File file, long expectedGeneration, final Map<String, DialogRecord> dialogRecords)
+     * @brief 스냅샷 또는 journal 파일의 기록을 순서대로 적용하는 함수
+     * @param file               파일(입력, 읽기 전용)
+     * @param expectedGeneration 적용할 세대(입력, 0 보다 작으면 확인하지 않음)
+     * @param dialogRecords      다이얼로그 상태(입력, 출력)
+     * @return 파일의 세대, 파일이 없거나 형식이 다르거나 세대가 다르면 -1 반환
+     */
+    private long read(final File file, long expectedGeneration, final Map<String, DialogRecord> dialogRecords) {
+        if (!file.isFile()) return -1;
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE))) {
+            if (input.readInt() != MAGIC || input.readShort() != VERSION) {
+                logger.warn("Unknown snapshot file format ({})", file);
+                return -1;
+            }
+            long fileGeneration = input.readLong();
+            if (expectedGeneration >= 0 && fileGeneration != expectedGeneration) {
+                logger.warn("Snapshot journal is ignored (File:{}, Generation:{}, Expected:{})", file, fileGeneration, expectedGeneration);
+                return -1;
+            }
+
+            DialogRecordCodec.readUntilEnd(input, dialogRecords);
+            return fileGeneration;
+        } catch (EOFException e) {
+            // journal 은 끝 표시 없이 덧붙이므로 파일 끝에서 멈춘다. (잘린 마지막 기록은 무시)
+            return expectedGeneration;
+        } catch (Exception e) {
+            logger.warn("Fail to read dialog snapshot ({}), later records are ignored", file, e);
+            return expectedGeneration;
+        }
+    }
+
+    /**
+     * @fn private void appendChanges()
+     * @brief 저장하지 않은 변경분을 journal 에 덧붙이고 디스크에 반영하는 함수
+     * @return 반환값 없음
+     * @throws IOException 쓰기 실패 시
+     */
+    private void appendChanges() throws IOException {
+        if (changes.isEmpty()) return;
+
+        int count = changes.drain(new DialogChanges.Handler() {
+            @Override
+            public void onAdded(final DialogRecord dialogRecord) throws IOException {
+                codec.writeAdd(openJournal(), dialogRecord);
+            }
+
+            @Override
+            public void onRemoved(final String callId) throws IOException {
+                codec.writeRemove(openJournal(), callId);
+            }
+        });
+        if (count == 0) return;
+
+        journalOutput.flush();
+        journalStream.getChannel().force(false);
+        journalRecords += count;
+    }
+
+    /**
+     * @fn private void compact()
+     * @brief 현재 다이얼로그와 되살린 다이얼로그 전체를 다음 세대의 스냅샷으로 쓰고, journal 을 비우는 함수
+     * 임시 파일에 쓰고 디스크에 반영한 후 이름을 바꾸므로, 중간에 종료되어도 이전 스냅샷과 journal 이 그대로 남는다.
+     * @return 반환값 없음
+     * @throws IOException 쓰기 실패 시
+     */
+    private void compact() throws IOException {
+        long startTime = System.nanoTime();
+        long nextGeneration = generation + 1;
+
+        // 지금부터 들어오는 변경분은 새 journal 에 기록한다.
+        changes.discardSettled();
+
+        File tempFile = new File(snapshotFile.getPath() + TEMP_EXTENSION);
+        int count = 0;
+        FileOutputStream fileStream = new FileOutputStream(tempFile);
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(fileStream, BUFFER_SIZE))) {
+            writeHeader(output, nextGeneration);
+
+            CallRegistry current = callRegistry;
+            if (current != null) {
+                for (String callId : current.getDialogCallIds()) {
+                    Dialog dialog = current.searchDialog(callId);
+                    if (!DialogChanges.isConfirmed(dialog)) continue;
+
+                    DialogRecord dialogRecord = DialogRecord.from(dialog);
+                    if (dialogRecord == null) continue;
+                    codec.writeAdd(output, dialogRecord);
+                    count++;
+                }
+            }
+            for (DialogRecord dialogRecord : restoredDialogs.values()) {
+                codec.writeAdd(output, dialogRecord);
+                count++;
+            }
+
+            DialogRecordCodec.writeEnd(output);
+            output.flush();
+            fileStream.getChannel().force(false);
+        }
+
+        closeJournal();
+        Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (journalFile.exists() && !journalFile.delete()) {
+            logger.warn("Fail to delete snapshot journal ({})", journalFile);
+        }
+
+        generation = nextGeneration;
+        journalRecords = 0;
+        needsCompact = false;
+        snapshotCount++;
+        lastSnapshotDialogs = count;
+        lastSnapshotBytes = snapshotFile.length();
+        lastSnapshotMillis = (System.nanoTime() - startTime) / 1000000;
+        logger.debug("Dialog snapshot is saved (Name:{}, Dialogs:{}, Bytes:{}, Time:{}ms)", name, count, lastSnapshotBytes, lastSnapshotMillis);
+    }
+
+    /**
+     * @fn private void expireRestored()
+     * @brief 유지 시간이 지난 되살린 다이얼로그를 모두 삭제하는 함수 (BYE 를 받지 못한 호)
+     * @return 반환값 없음
+     */
+    private void expireRestored() {
+        if (restoreTimeout <= 0 || restoredDialogs.isEmpty()) return;
+        if (System.currentTimeMillis() - restoredTime < restoreTimeout) return;
+
+        int count = 0;
+        for (String callId : restoredDialogs.keySet()) {
+            if (restoredDialogs.remove(callId) != null) {
+                changes.markRemoved(callId);
+                count++;
+            }
+        }
+        if (count > 0) logger.warn("{} restored dialogs are expired ({})", count, name);
+    }
+
+    private DataOutputStream openJournal() throws IOException {
+        if (journalOutput != null) return journalOutput;
+
+        boolean isNew = !journalFile.exists() || journalFile.length() == 0;
+        journalStream = new FileOutputStream(journalFile, true);
+        journalOutput = new DataOutputStream(new BufferedOutputStream(journalStream, BUFFER_SIZE));
+        if (isNew) writeHeader(journalOutput, generation);
+        return journalOutput;
+    }
+
+    private void closeJournal() {
+        if (journalOutput == null) return;
+
+        try {
+            journalOutput.close();
+        } catch (IOException e) {
+            logger.warn("Fail to close snapshot journal ({})", journalFile, e);
+        }
+        journalOutput = null;
+        journalStream = null;
+    }
+
+    private static void writeHeader(final DataOutputStream output, long generation) throws IOException {
+        output.writeInt(MAGIC);
+        output.writeShort(VERSION);
+        output.writeLong(generation);
+    }
+}
@@ -0,0 +1,276 @@
+package com.signal.snapshot;
+
+import com.signal.registry.CallRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class public class DialogSnapshotManager implements DialogSnapshotManagerMXBean
+ * @brief SIP Stack 별 다이얼로그 스냅샷을 만들고, 쓰레드 하나로 interval 마다 변경분을 저장하는 클래스
+ * 스냅샷은 SIP Stack 이름으로 구분하므로, 재시작 시 같은 이름의 Stack 이 이전 다이얼로그를 되살린다.
+ * 종료는 LifecycleManager 가 남은 호의 BYE 를 보내고 SIP Stack 을 중지한 후에 한다. (마지막 전체 저장)
+ */
+public class DialogSnapshotManager implements DialogSnapshotManagerMXBean {
+    /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
+    private static final Logger logger = LoggerFactory.getLogger(DialogSnapshotManager.class);
+    /* JMX 객체 이름 */
+    public static final String OBJECT_NAME = "com.signal:type=DialogSnapshot";
+    /* 기본 스냅샷 디렉토리 */
+    public static final String DEFAULT_DIRECTORY = "snapshot";
+    /* 기본 변경분 저장 주기 (ms) */
+    public static final long DEFAULT_INTERVAL = 1000;
+    /* 기본 압축 전 journal 의 최소 기록 수 */
+    public static final int DEFAULT_COMPACT_THRESHOLD = 10000;
+    /* 다이얼로그 스냅샷 관리 객체(singleton) */
+    private static final DialogSnapshotManager dialogSnapshotManager = new DialogSnapshotManager();
+    /* SIP Stack 이름별 다이얼로그 스냅샷 */
+    private final ConcurrentHashMap<String, DialogSnapshot> snapshots = new ConcurrentHashMap<>();
+    /* 다이얼로그 스냅샷 사용 여부 */
+    private volatile boolean enabled = false;
+    /* 스냅샷 파일 디렉토리 */
+    private volatile File directory = new File(DEFAULT_DIRECTORY);
+    /* 변경분 저장 주기 (ms) */
+    private volatile long interval = DEFAULT_INTERVAL;
+    /* 압축 전 journal 의 최소 기록 수 */
+    private volatile int compactThreshold = DEFAULT_COMPACT_THRESHOLD;
+    /* 되살린 다이얼로그를 유지하는 시간 (ms, 0 이면 BYE 를 받을 때까지 유지) */
+    private volatile long restoreTimeout = 0;
+    /* 저장 쓰레드 (처음 스냅샷을 만들 때 시작) */
+    private ScheduledThreadPoolExecutor scheduler = null;
+    /* 종료 여부 */
+    private boolean isShutdown = false;
+
+    /**
+     * @fn private DialogSnapshotManager()
+     * @brief 다이얼로그 스냅샷 관리 객체를 초기화하는 함수
+     */
+    private DialogSnapshotManager() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(this, objectName);
+            }
+        } catch (Exception e) {
+            logger.warn("Fail to register dialog snapshot MBean", e);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public static DialogSnapshotManager getInstance()
+     * @brief 다이얼로그 스냅샷 관리 객체의 싱글턴 인스턴스를 반환하는 함수
+     * @return 다이얼로그 스냅샷 관리 객체
+     */
+    public static DialogSnapshotManager getInstance() {
+        return dialogSnapshotManager;
+    }
+
+    /**
+     * @fn public synchronized void configure(boolean enabled, final String directory, long interval, int compactThreshold, long restoreTimeout)
+     * @brief 다이얼로그 스냅샷 설정을 변경하는 함수 (SIP Stack 생성 전에 호출, 이미 만든 스냅샷에는 적용되지 않음)
+     * @param enabled          다이얼로그 스냅샷 사용 여부(입력)
+     * @param directory        스냅샷 파일 디렉토리(입력, 읽기 전용)
+     * @param interval         변경분 저장 주기, ms(입력)
+     * @param compactThreshold 압축 전 journal 의 최소 기록 수(입력)
+     * @param restoreTimeout   되살린 다이얼로그를 유지하는 시간, ms(입력, 0 이면 BYE 를 받을 때까지 유지)
+     * @return 반환값 없음
+     */
+    public synchronized void configure(boolean enabled, final String directory, long interval, int compactThreshold, long restoreTimeout) {
+        if (directory == null) throw new NullPointerException("Parameter Error (Null)");
+        if (interval <= 0 || compactThreshold <= 0 || restoreTimeout < 0) {
+            throw new IllegalArgumentException("Invalid dialog snapshot configuration");
+        }
+
+        this.enabled = enabled;
+        this.directory = new File(directory);
+        this.interval = interval;
+        this.compactThreshold = compactThreshold;
+        this.restoreTimeout = restoreTimeout;
+
+        logger.debug("Dialog snapshot (Enabled:{}, Directory:{}, Interval:{}, CompactThreshold:{}, RestoreTimeout:{})",
+                enabled, directory, interval, compactThreshold, restoreTimeout);
+    }
+
+    /**
+     * @fn public synchronized void setEnabled(boolean enabled)
+     * @brief 다이얼로그 스냅샷 사용 여부만 변경하는 함수 (Standby 노드가 인계받은 Stack 을 만들기 전에 켬)
+     * @param enabled 다이얼로그 스냅샷 사용 여부(입력)
+     * @return 반환값 없음
+     */
+    public synchronized void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @fn public synchronized DialogSnapshot open(final String name, final CallRegistry callRegistry)
+     * @brief SIP Stack 의 다이얼로그 스냅샷을 만들거나 (이전 스냅샷이 있으면 되살림), 이미 있으면 호 등록 관리 객체만 다시 연결하는 함수
+     * @param name         스냅샷 이름, SIP Stack 이름(입력, 읽기 전용)
+     * @param callRegistry 호 등록 관리 객체(입력, 읽기 전용)
+     * @return 다이얼로그 스냅샷, 사용하지 않거나 종료되었으면 null 반환
+     */
+    public synchronized DialogSnapshot open(final String name, final CallRegistry callRegistry) {
+        if (name == null || callRegistry == null) throw new NullPointerException("Parameter Error (Null)");
+        if (!enabled || isShutdown) return null;
+
+        DialogSnapshot dialogSnapshot = snapshots.get(name);
+        if (dialogSnapshot == null) {
+            dialogSnapshot = new DialogSnapshot(directory, name, compactThreshold, restoreTimeout);
+            snapshots.put(name, dialogSnapshot);
+            schedule(dialogSnapshot);
+        }
+        dialogSnapshot.attach(callRegistry);
+        return dialogSnapshot;
+    }
+
+    /**
+     * @fn public void shutdown()
+     * @brief 저장 쓰레드를 중지하고 모든 스냅샷을 마지막으로 전체 저장하는 함수
+     * @return 반환값 없음
+     */
+    public void shutdown() {
+        ScheduledThreadPoolExecutor current;
+        synchronized (this) {
+            if (isShutdown) return;
+            isShutdown = true;
+            current = scheduler;
+        }
+
+        if (current != null) {
+            current.shutdown();
+            try {
+                if (!current.awaitTermination(interval * 2, TimeUnit.MILLISECONDS)) current.shutdownNow();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        for (DialogSnapshot dialogSnapshot : snapshots.values()) {
+            dialogSnapshot.close();
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Override Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public String getDirectory() {
+        return directory.getPath();
+    }
+
+    @Override
+    public long getInterval() {
+        return interval;
+    }
+
+    @Override
+    public int getRestoredDialogs() {
+        int count = 0;
+        for (DialogSnapshot dialogSnapshot : snapshots.values()) {
+            count += dialogSnapshot.getRestoredDialogCount();
+        }
+        return count;
+    }
+
+    @Override
+    public int getPendingChanges() {
+        int count = 0;
+        for (DialogSnapshot dialogSnapshot : snapshots.values()) {
+            count += dialogSnapshot.getPendingChangeCount();
+        }
+        return count;
+    }
+
+    @Override
+    public int getSnapshotDialogs() {
+        int count = 0;
+        for (DialogSnapshot dialogSnapshot : snapshots.values()) {
+            count += dialogSnapshot.getLastSnapshotDialogs();
+        }
+        return count;
+    }
+
+    @Override
+    public long getSnapshotBytes() {
+        long bytes = 0;
+        for (DialogSnapshot dialogSnapshot : snapshots.values()) {
+            bytes += dialogSnapshot.getLastSnapshotBytes();
+        }
+        return bytes;
+    }
+
+    @Override
+    public long getSnapshotMillis() {
+        long millis = 0;
+        for (DialogSnapshot dialogSnapshot : snapshots.values()) {
+            millis = Math.max(millis, dialogSnapshot.getLastSnapshotMillis());
+        }
+        return millis;
+    }
+
+    @Override
+    public long getSnapshotCount() {
+        long count = 0;
+        for (DialogSnapshot dialogSnapshot : snapshots.values()) {
+            count += dialogSnapshot.getSnapshotCount();
+        }
+        return count;
+    }
+
+    @Override
+    public long getJournalRecords() {
+        long count = 0;
+        for (DialogSnapshot dialogSnapshot : snapshots.values()) {
+            count += dialogSnapshot.getJournalRecords();
+        }
+        return count;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private void schedule(final DialogSnapshot dialogSnapshot)
+     * @brief 스냅샷의 변경분을 interval 마다 저장하도록 예약하는 함수 (모든 스냅샷이 저장 쓰레드 하나를 공유)
+     * @param dialogSnapshot 다이얼로그 스냅샷(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    private void schedule(final DialogSnapshot dialogSnapshot) {
+        if (scheduler == null) {
+            scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    Thread thread = new Thread(runnable, "DialogSnapshot");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                dialogSnapshot.flush();
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+}
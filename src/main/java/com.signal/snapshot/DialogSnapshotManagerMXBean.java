@@ -0,0 +1,37 @@
+package com.signal.snapshot;
+
+/**
+ * @interface public interface DialogSnapshotManagerMXBean
+ * @brief JMX 로 노출하는 다이얼로그 스냅샷 설정 및 상태 (SIP Stack 별 값의 합)
+ */
+public interface DialogSnapshotManagerMXBean {
+    /* 다이얼로그 스냅샷 사용 여부 */
+    boolean isEnabled();
+
+    /* 스냅샷 파일 디렉토리 */
+    String getDirectory();
+
+    /* 변경분 저장 주기 (ms) */
+    long getInterval();
+
+    /* 재시작 시 되살려서 아직 BYE 를 기다리는 다이얼로그 수 */
+    int getRestoredDialogs();
+
+    /* 저장하지 않은 변경분 수 */
+    int getPendingChanges();
+
+    /* 마지막 전체 저장의 다이얼로그 수 */
+    int getSnapshotDialogs();
+
+    /* 마지막 전체 저장의 파일 크기 (byte) */
+    long getSnapshotBytes();
+
+    /* 마지막 전체 저장 시간 중 가장 긴 값 (ms) */
+    long getSnapshotMillis();
+
+    /* 전체 저장 횟수 */
+    long getSnapshotCount();
+
+    /* 현재 journal 의 기록 수 */
+    long getJournalRecords();
+}
@@ -0,0 +1,216 @@
+package com.signal.template;
+
+import com.signal.logic.SipCall;
+import com.signal.resolve.ResolvedTarget;
+
+import javax.sip.InvalidArgumentException;
+import javax.sip.address.Address;
+import javax.sip.header.*;
+import javax.sip.message.Request;
+import java.text.ParseException;
+import java.util.ArrayList;
+
+/**
+ * @class public class InviteTemplate
+ * @brief 발신 측(SipCall)과 상대방(URI, 포트, 전송 프로토콜)별로 미리 만들어 두는 Invite 요청 원본
+ * Request-URI, From/To/Contact 주소, Via, Max-Forwards, CSeq, 세션 타이머, Content-Type 처럼 호마다 같은 부분은 한 번만 분석해서 만들고,
+ * 호마다 원본을 복제한 후 Call-ID, From Tag, Via Branch, SDP 만 바꾼다.
+ * 원본은 만든 후 변경하지 않으므로 여러 쓰레드에서 동시에 복제해도 된다.
+ * 해석한 다음 홉(ResolvedTarget)을 지정하면 Request-URI 는 상대방 URI 그대로 두고, 다음 홉은 loose Route 헤더로 지정한다. (RFC 3263)
+ */
+public class InviteTemplate {
+    /* Max-Forwards 기본값 */
+    private static final int MAX_FORWARDS = 70;
+    /* 원본 요청의 임시 Call-ID (복제 후 바로 교체) */
+    private static final String TEMPLATE_CALL_ID = "template";
+    /* 상대방 URI (user@host) */
+    private final String toURI;
+    /* 상대방 포트 */
+    private final int toPort;
+    /* 전송 프로토콜 (소문자) */
+    private final String transport;
+    /* 해석한 다음 홉 (없으면 null) */
+    private final ResolvedTarget hop;
+    /* 복제할 원본 요청 (변경 금지) */
+    private final Request prototype;
+
+    /**
+     * @fn public InviteTemplate(final SipCall sipCall, final String toURI, int toPort)
+     * @brief 호마다 같은 헤더와 주소로 UDP 원본 Invite 요청을 만드는 함수
+     * @param sipCall SIP 호 정보 관리 클래스(입력, 읽기 전용)
+     * @param toURI   요청을 수신하는 URI(입력, 읽기 전용)
+     * @param toPort  요청을 수신하는 포트(입력)
+     * @throws ParseException           주소나 헤더 분석 실패 시
+     * @throws InvalidArgumentException 헤더 값이 잘못된 경우
+     */
+    public InviteTemplate(final SipCall sipCall, final String toURI, int toPort) throws ParseException, InvalidArgumentException {
+        this(sipCall, toURI, toPort, "udp");
+    }
+
+    /**
+     * @fn public InviteTemplate(final SipCall sipCall, final String toURI, int toPort, final String transport)
+     * @brief 호마다 같은 헤더와 주소로 지정한 전송 프로토콜의 원본 Invite 요청을 만드는 함수
+     * UDP 가 아니면 Request-URI 와 Contact 에 transport 파라미터를 붙여서 이후 요청(ACK, BYE)도 같은 전송으로 보내게 한다.
+     * @param sipCall   SIP 호 정보 관리 클래스(입력, 읽기 전용)
+     * @param toURI     요청을 수신하는 URI(입력, 읽기 전용)
+     * @param toPort    요청을 수신하는 포트(입력)
+     * @param transport 전송 프로토콜, udp/tcp/tls(입력, 읽기 전용)
+     * @throws ParseException           주소나 헤더 분석 실패 시
+     * @throws InvalidArgumentException 헤더 값이 잘못된 경우
+     */
+    public InviteTemplate(final SipCall sipCall, final String toURI, int toPort, final String transport) throws ParseException, InvalidArgumentException {
+        this(sipCall, toURI, toPort, transport, null);
+    }
+
+    /**
+     * @fn public InviteTemplate(final SipCall sipCall, final String toURI, int toPort, final String transport, final ResolvedTarget hop)
+     * @brief 해석한 다음 홉으로 보내는 원본 Invite 요청을 만드는 함수
+     * Request-URI 에는 지정한 포트와 전송만 붙이고(0, 빈 문자열이면 생략), Via 와 Contact 는 다음 홉의 전송을 사용한다.
+     * @param sipCall   SIP 호 정보 관리 클래스(입력, 읽기 전용)
+     * @param toURI     요청을 수신하는 URI(입력, 읽기 전용)
+     * @param toPort    요청을 수신하는 포트(입력, 0 이면 지정하지 않음)
+     * @param transport 전송 프로토콜(입력, 읽기 전용, 빈 문자열이면 지정하지 않음)
+     * @param hop       다음 홉(입력, 읽기 전용, null 이면 Request-URI 로 발신)
+     * @throws ParseException           주소나 헤더 분석 실패 시
+     * @throws InvalidArgumentException 헤더 값이 잘못된 경우
+     */
+    public InviteTemplate(final SipCall sipCall, final String toURI, int toPort, final String transport, final ResolvedTarget hop) throws ParseException, InvalidArgumentException {
+        SipCall.checkObjectNull(null, sipCall, toURI, transport);
+
+        this.toURI = toURI;
+        this.toPort = toPort;
+        this.transport = transport.toLowerCase();
+        this.hop = hop;
+        String viaTransport = hop != null ? hop.getTransport() : this.transport;
+        String transportParam = viaTransport.equals("udp") ? "" : ";transport=" + viaTransport;
+        int localPort = sipCall.getPort(viaTransport);
+
+        // Contact
+        Address contactAddress = sipCall.addressFactory.createAddress("sip:" + sipCall.getUserName() + "@" + sipCall.getIp() + ":" + localPort + transportParam);
+        SipCall.checkObjectNull("Fail to create Contact Header", contactAddress);
+        ContactHeader contactHeader = sipCall.headerFactory.createContactHeader(contactAddress);
+
+        // RequestURI (다음 홉이 있으면 사용자가 지정한 부분만)
+        String requestURIString = hop == null ? "sip:" + toURI + ":" + toPort + transportParam
+                : "sip:" + toURI + (toPort > 0 ? ":" + toPort : "") + (this.transport.isEmpty() || this.transport.equals("udp") ? "" : ";transport=" + this.transport);
+        Address addressTo = sipCall.addressFactory.createAddress(requestURIString);
+        SipCall.checkObjectNull("Fail to create new To Header", addressTo);
+        javax.sip.address.URI requestURI = addressTo.getURI();
+
+        // Via (Branch 는 호마다 지정)
+        ArrayList<ViaHeader> viaHeaders = new ArrayList<>();
+        ViaHeader viaHeader = sipCall.headerFactory.createViaHeader(sipCall.getIp(), localPort, viaTransport, null);
+        SipCall.checkObjectNull("Fail to create new Via Header", viaHeader);
+        viaHeaders.add(viaHeader);
+
+        // Max-forwards
+        MaxForwardsHeader maxForwardsHeader = sipCall.headerFactory.createMaxForwardsHeader(MAX_FORWARDS);
+        SipCall.checkObjectNull("Fail to create new Max-Forwards Header", maxForwardsHeader);
+
+        // Call-ID (호마다 지정)
+        CallIdHeader callIdHeader = sipCall.headerFactory.createCallIdHeader(TEMPLATE_CALL_ID);
+        SipCall.checkObjectNull("Fail to create new Call-ID Header", callIdHeader);
+
+        // CSeq
+        CSeqHeader cSeqHeader = sipCall.headerFactory.createCSeqHeader(1L, Request.INVITE);
+        SipCall.checkObjectNull("Fail to create new CSeq Header", cSeqHeader);
+
+        // From (Tag 는 호마다 지정)
+        FromHeader fromHeader = sipCall.headerFactory.createFromHeader(contactAddress, null);
+        SipCall.checkObjectNull("Fail to create new From Header", fromHeader);
+
+        // To
+        ToHeader toHeader = sipCall.headerFactory.createToHeader(addressTo, null);
+        SipCall.checkObjectNull("Fail to create new To Header", toHeader);
+
+        Request request = sipCall.messageFactory.createRequest(
+                requestURI, Request.INVITE, callIdHeader, cSeqHeader, fromHeader,
+                toHeader, viaHeaders, maxForwardsHeader);
+        SipCall.checkObjectNull("Fail to create new Request", request);
+
+        request.addHeader(contactHeader);
+
+        // Route (다음 홉, loose routing)
+        if (hop != null) {
+            String hopHost = hop.getHost().indexOf(':') >= 0 && !hop.getHost().startsWith("[") ? "[" + hop.getHost() + "]" : hop.getHost();
+            Address routeAddress = sipCall.addressFactory.createAddress("<sip:" + hopHost + ":" + hop.getPort() + ";transport=" + hop.getTransport() + ";lr>");
+            SipCall.checkObjectNull("Fail to create Route Header", routeAddress);
+            request.addHeader(sipCall.headerFactory.createRouteHeader(routeAddress));
+        }
+
+        // Supported: timer, Session-Expires, Min-SE (세션 타이머를 사용할 때만)
+        sipCall.getSessionTimer().addInviteHeaders(request, sipCall.headerFactory);
+
+        // Content-Type (SDP 는 호마다 지정)
+        ContentTypeHeader contentTypeHeader = sipCall.headerFactory.createContentTypeHeader("application", "sdp");
+        SipCall.checkObjectNull("Fail to create Content Type Header", contentTypeHeader);
+        request.setHeader(contentTypeHeader);
+
+        this.prototype = request;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public Request newRequest(final String callId, final String tag, final String branchId, final byte[] sdp)
+     * @brief 원본을 복제해서 호마다 다른 부분만 채운 Invite 요청을 반환하는 함수
+     * @param callId   Call-ID(입력, 읽기 전용)
+     * @param tag      From Tag(입력, 읽기 전용)
+     * @param branchId Via Branch ID(입력, 읽기 전용)
+     * @param sdp      SDP(입력, 읽기 전용, null 이면 본문 없음)
+     * @return Invite 요청
+     * @throws ParseException 값이 잘못된 경우
+     */
+    public Request newRequest(final String callId, final String tag, final String branchId, final byte[] sdp) throws ParseException {
+        SipCall.checkObjectNull(null, callId, tag, branchId);
+
+        Request request = (Request) prototype.clone();
+        ((CallIdHeader) request.getHeader(CallIdHeader.NAME)).setCallId(callId);
+        ((FromHeader) request.getHeader(FromHeader.NAME)).setTag(tag);
+        ((ViaHeader) request.getHeader(ViaHeader.NAME)).setBranch(branchId);
+        if (sdp != null) {
+            request.setContent(sdp, (ContentTypeHeader) request.getHeader(ContentTypeHeader.NAME));
+        } else {
+            request.removeHeader(ContentTypeHeader.NAME);
+        }
+        return request;
+    }
+
+    /**
+     * @fn public String getToURI()
+     * @brief 상대방 URI 를 반환하는 함수
+     * @return 상대방 URI
+     */
+    public String getToURI() {
+        return toURI;
+    }
+
+    /**
+     * @fn public int getToPort()
+     * @brief 상대방 포트를 반환하는 함수
+     * @return 상대방 포트
+     */
+    public int getToPort() {
+        return toPort;
+    }
+
+    /**
+     * @fn public String getTransport()
+     * @brief 전송 프로토콜을 반환하는 함수
+     * @return 전송 프로토콜 (소문자)
+     */
+    public String getTransport() {
+        return transport;
+    }
+
+    /**
+     * @fn public ResolvedTarget getHop()
+     * @brief 해석한 다음 홉을 반환하는 함수
+     * @return 다음 홉 (없으면 null)
+     */
+    public ResolvedTarget getHop() {
+        return hop;
+    }
+}
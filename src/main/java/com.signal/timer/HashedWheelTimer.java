@@ -0,0 +1,396 @@
+package com.signal.timer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @class public class HashedWheelTimer
+ * @brief 많은 수의 타이머(수십만 개)를 O(1) 로 예약/취소하는 Hashed Timing Wheel
+ * 시간을 tickDuration 단위의 슬롯(wheelSize 개, 2 의 거듭제곱)으로 나누고, 만료 시각에 해당하는 슬롯의 연결 리스트에 타이머를 넣는다.
+ * 한 바퀴보다 먼 타이머는 남은 바퀴 수(remainingRounds)를 가지고 슬롯을 지날 때마다 하나씩 줄인다.
+ *
+ * - 예약 : lock 없는 대기열에 넣기만 하고, 틱 쓰레드가 다음 틱에 슬롯으로 옮긴다.
+ * - 취소 : 상태를 CAS 로 바꾸고 취소 대기열에 넣으면, 틱 쓰레드가 슬롯에서 O(1) 로 뺀다.
+ * - 만료 : 틱 쓰레드에서 작업을 실행하므로 작업은 짧게 끝나야 한다. (오래 걸리는 처리는 다른 쓰레드로 넘김)
+ * 만료 시각 오차는 최대 tickDuration 이다.
+ */
+public class HashedWheelTimer {
+    /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
+    private static final Logger logger = LoggerFactory.getLogger(HashedWheelTimer.class);
+    /* 기본 틱 간격 (ms) */
+    public static final long DEFAULT_TICK_DURATION = 100;
+    /* 기본 슬롯 수 (100 ms x 512 = 한 바퀴 51.2 초) */
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+    /* 틱마다 대기열에서 슬롯으로 옮기는 최대 타이머 수 (예약이 몰려도 틱이 밀리지 않도록 제한) */
+    private static final int MAX_TRANSFERS_PER_TICK = 100000;
+    /* 타이머 상태 */
+    private static final int STATE_INIT = 0;
+    private static final int STATE_CANCELLED = 1;
+    private static final int STATE_EXPIRED = 2;
+    /* 틱 쓰레드 상태 */
+    private static final int WORKER_INIT = 0;
+    private static final int WORKER_STARTED = 1;
+    private static final int WORKER_SHUTDOWN = 2;
+    /* 공용 타이머(singleton), 처음 예약할 때 틱 쓰레드를 시작한다. */
+    private static final HashedWheelTimer hashedWheelTimer = new HashedWheelTimer("SignalTimer", DEFAULT_TICK_DURATION, TimeUnit.MILLISECONDS, DEFAULT_WHEEL_SIZE);
+    /* 슬롯 목록 */
+    private final Bucket[] wheel;
+    /* 슬롯 번호 계산용 (wheelSize - 1) */
+    private final int mask;
+    /* 틱 간격 (ns) */
+    private final long tickDuration;
+    /* 예약 대기열 (슬롯으로 옮기기 전) */
+    private final ConcurrentLinkedQueue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+    /* 취소 대기열 (슬롯에서 빼기 전) */
+    private final ConcurrentLinkedQueue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+    /* 예약된(만료/취소되지 않은) 타이머 수 */
+    private final AtomicLong pendingCount = new AtomicLong(0);
+    /* 만료된 타이머 수 */
+    private final AtomicLong expiredCount = new AtomicLong(0);
+    /* 틱 쓰레드 상태 */
+    private final AtomicInteger workerState = new AtomicInteger(WORKER_INIT);
+    /* 틱 쓰레드 */
+    private final Thread worker;
+    /* 시작 시각 (System.nanoTime, 틱 쓰레드가 시작할 때 지정) */
+    private volatile long startTime = 0;
+
+    /**
+     * @fn public HashedWheelTimer(final String name, long tickDuration, final TimeUnit unit, int wheelSize)
+     * @brief 타이머를 초기화하는 함수 (틱 쓰레드는 처음 예약할 때 시작)
+     * @param name         틱 쓰레드 이름(입력, 읽기 전용)
+     * @param tickDuration 틱 간격(입력)
+     * @param unit         틱 간격 단위(입력, 읽기 전용)
+     * @param wheelSize    슬롯 수, 2 의 거듭제곱으로 올림(입력)
+     */
+    public HashedWheelTimer(final String name, long tickDuration, final TimeUnit unit, int wheelSize) {
+        if (name == null || unit == null) throw new NullPointerException("Parameter Error (Null)");
+        if (tickDuration <= 0 || wheelSize <= 0 || wheelSize > (1 << 30)) {
+            throw new IllegalArgumentException("Invalid timer configuration");
+        }
+
+        int size = Integer.highestOneBit(wheelSize);
+        if (size < wheelSize) size <<= 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.tickDuration = unit.toNanos(tickDuration);
+
+        this.worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runWorker();
+            }
+        }, name);
+        this.worker.setDaemon(true);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public static HashedWheelTimer getInstance()
+     * @brief 공용 타이머의 싱글턴 인스턴스를 반환하는 함수
+     * @return 공용 타이머
+     */
+    public static HashedWheelTimer getInstance() {
+        return hashedWheelTimer;
+    }
+
+    /**
+     * @fn public Timeout newTimeout(final TimerTask task, long delay, final TimeUnit unit)
+     * @brief 지정한 시간 뒤에 작업을 실행하도록 예약하는 함수 (O(1), lock 없음)
+     * @param task  작업(입력, 읽기 전용)
+     * @param delay 지연 시간(입력)
+     * @param unit  지연 시간 단위(입력, 읽기 전용)
+     * @return 예약된 타이머 (취소에 사용)
+     */
+    public Timeout newTimeout(final TimerTask task, long delay, final TimeUnit unit) {
+        if (task == null || unit == null) throw new NullPointerException("Parameter Error (Null)");
+        start();
+
+        Timeout timeout = new Timeout(this, task, System.nanoTime() + unit.toNanos(Math.max(0, delay)) - startTime);
+        pendingCount.incrementAndGet();
+        pendingTimeouts.offer(timeout);
+        return timeout;
+    }
+
+    /**
+     * @fn public void stop()
+     * @brief 틱 쓰레드를 종료하는 함수 (예약된 타이머는 실행하지 않음)
+     * @return 반환값 없음
+     */
+    public void stop() {
+        if (workerState.getAndSet(WORKER_SHUTDOWN) != WORKER_STARTED) return;
+
+        worker.interrupt();
+        try {
+            worker.join(tickDuration / 1000000 * 2 + 100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @fn public long getPendingTimeouts()
+     * @brief 예약된(만료/취소되지 않은) 타이머 수를 반환하는 함수
+     * @return 예약된 타이머 수
+     */
+    public long getPendingTimeouts() {
+        return pendingCount.get();
+    }
+
+    /**
+     * @fn public long getExpiredTimeouts()
+     * @brief 만료되어 실행된 타이머 수를 반환하는 함수
+     * @return 만료된 타이머 수
+     */
+    public long getExpiredTimeouts() {
+        return expiredCount.get();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private void start()
+     * @brief 틱 쓰레드를 한 번만 시작하고 시작 시각이 정해질 때까지 기다리는 함수
+     * @return 반환값 없음
+     */
+    private void start() {
+        switch (workerState.get()) {
+            case WORKER_INIT:
+                if (workerState.compareAndSet(WORKER_INIT, WORKER_STARTED)) {
+                    startTime = System.nanoTime();
+                    worker.start();
+                }
+                break;
+            case WORKER_STARTED:
+                break;
+            default:
+                throw new IllegalStateException("Timer is already stopped");
+        }
+
+        // 다른 쓰레드가 시작하는 중이면 시작 시각이 정해질 때까지 기다린다.
+        while (startTime == 0) {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * @fn private void runWorker()
+     * @brief 틱마다 취소된 타이머를 빼고, 예약된 타이머를 슬롯으로 옮기고, 현재 슬롯의 만료된 타이머를 실행하는 함수 (틱 쓰레드 전용)
+     * @return 반환값 없음
+     */
+    private void runWorker() {
+        long tick = 0;
+        while (workerState.get() == WORKER_STARTED) {
+            long deadline = waitForNextTick(tick);
+            if (deadline < 0) break;
+
+            removeCancelledTimeouts();
+            transferTimeoutsToBuckets(tick);
+            wheel[(int) (tick & mask)].expireTimeouts(deadline);
+            tick++;
+        }
+    }
+
+    /**
+     * @fn private long waitForNextTick(long tick)
+     * @brief 다음 틱 시각까지 기다리는 함수
+     * @param tick 현재 틱 번호(입력)
+     * @return 현재 시각 (startTime 기준 ns), 종료 요청을 받으면 -1 반환
+     */
+    private long waitForNextTick(long tick) {
+        long deadline = tickDuration * (tick + 1);
+        while (true) {
+            long currentTime = System.nanoTime() - startTime;
+            long sleepTime = (deadline - currentTime + 999999) / 1000000;
+            if (sleepTime <= 0) return currentTime;
+
+            try {
+                Thread.sleep(sleepTime);
+            } catch (InterruptedException e) {
+                if (workerState.get() == WORKER_SHUTDOWN) return -1;
+            }
+        }
+    }
+
+    /**
+     * @fn private void transferTimeoutsToBuckets(long tick)
+     * @brief 예약 대기열의 타이머를 만료 시각에 해당하는 슬롯으로 옮기는 함수
+     * 이미 지난 타이머는 현재 슬롯에 넣어서 이번 틱에 실행한다.
+     * @param tick 현재 틱 번호(입력)
+     * @return 반환값 없음
+     */
+    private void transferTimeoutsToBuckets(long tick) {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = pendingTimeouts.poll();
+            if (timeout == null) break;
+            if (timeout.state.get() == STATE_CANCELLED) continue;
+
+            long calculated = timeout.deadline / tickDuration;
+            timeout.remainingRounds = (calculated - tick) / wheel.length;
+            long ticks = Math.max(calculated, tick);
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * @fn private void removeCancelledTimeouts()
+     * @brief 취소된 타이머를 슬롯에서 빼는 함수
+     * @return 반환값 없음
+     */
+    private void removeCancelledTimeouts() {
+        Timeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) timeout.bucket.remove(timeout);
+        }
+    }
+
+    /**
+     * @interface public interface TimerTask
+     * @brief 타이머가 만료되었을 때 틱 쓰레드에서 실행하는 작업
+     */
+    public interface TimerTask {
+        /**
+         * @fn void run(Timeout timeout)
+         * @brief 타이머 만료 시 호출되는 함수
+         * @param timeout 만료된 타이머(입력, 읽기 전용)
+         * @return 반환값 없음
+         */
+        void run(Timeout timeout);
+    }
+
+    /**
+     * @class public static final class Timeout
+     * @brief 예약된 타이머 하나 (슬롯의 양방향 연결 리스트 노드)
+     */
+    public static final class Timeout {
+        /* 타이머를 예약한 휠 */
+        private final HashedWheelTimer timer;
+        /* 만료 시 실행할 작업 */
+        private final TimerTask task;
+        /* 만료 시각 (startTime 기준 ns) */
+        private final long deadline;
+        /* 상태 */
+        private final AtomicInteger state = new AtomicInteger(STATE_INIT);
+        /* 남은 바퀴 수 (틱 쓰레드 전용) */
+        private long remainingRounds;
+        /* 속한 슬롯과 연결 리스트 (틱 쓰레드 전용) */
+        private Bucket bucket;
+        private Timeout next;
+        private Timeout prev;
+
+        private Timeout(final HashedWheelTimer timer, final TimerTask task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * @fn public boolean cancel()
+         * @brief 타이머를 취소하는 함수 (O(1), 슬롯에서는 다음 틱에 빠짐)
+         * @return 취소되었으면 true, 이미 만료되었거나 취소되었으면 false 반환
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(STATE_INIT, STATE_CANCELLED)) return false;
+
+            timer.pendingCount.decrementAndGet();
+            timer.cancelledTimeouts.offer(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == STATE_CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == STATE_EXPIRED;
+        }
+
+        public TimerTask getTask() {
+            return task;
+        }
+
+        /**
+         * @fn private void expire()
+         * @brief 타이머 상태를 만료로 바꾸고 작업을 실행하는 함수 (틱 쓰레드 전용)
+         * @return 반환값 없음
+         */
+        private void expire() {
+            if (!state.compareAndSet(STATE_INIT, STATE_EXPIRED)) return;
+
+            timer.pendingCount.decrementAndGet();
+            timer.expiredCount.incrementAndGet();
+            try {
+                task.run(this);
+            } catch (Throwable t) {
+                logger.warn("Timer task throws an exception", t);
+            }
+        }
+    }
+
+    /**
+     * @class private static final class Bucket
+     * @brief 슬롯 하나, 타이머의 양방향 연결 리스트 (틱 쓰레드 전용)
+     */
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(final Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        /**
+         * @fn void expireTimeouts(long deadline)
+         * @brief 남은 바퀴 수가 0 이고 만료 시각이 지난 타이머를 실행하고, 취소된 타이머는 빼고, 나머지는 바퀴 수를 줄이는 함수
+         * @param deadline 현재 시각 (startTime 기준 ns)(입력)
+         * @return 반환값 없음
+         */
+        void expireTimeouts(long deadline) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0 && timeout.deadline <= deadline) {
+                    remove(timeout);
+                    timeout.expire();
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else if (timeout.remainingRounds > 0) {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(final Timeout timeout) {
+            if (timeout.bucket != this) return;
+
+            Timeout next = timeout.next;
+            if (timeout.prev != null) timeout.prev.next = next;
+            if (next != null) next.prev = timeout.prev;
+            if (timeout == head) head = next;
+            if (timeout == tail) tail = timeout.prev;
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+}
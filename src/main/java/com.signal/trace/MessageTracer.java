@@ -0,0 +1,290 @@
+package com.signal.trace;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.sip.header.CallIdHeader;
+import javax.sip.message.Message;
+import java.lang.management.ManagementFactory;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @class public class MessageTracer implements MessageTracerMXBean
+ * @brief SIP 메시지를 호 단위로 골라서 비동기로 출력하는 추적 클래스
+ * SIP Stack 쓰레드에서는 추적 대상인지 확인하고 메시지 참조를 고정 크기 버퍼에 넣기만 한다.
+ * 메시지 문자열 변환과 출력은 추적 쓰레드에서 하므로, 추적하지 않는 메시지는 문자열로 바뀌지 않는다.
+ * 버퍼가 가득 차면 기다리지 않고 버리며 버린 개수를 집계한다.
+ *
+ * 추적 대상
+ * - 호 단위 추적 비율(sampleRate) : Call-ID 해시로 정하므로 한 호의 메시지는 모두 추적되거나 모두 추적되지 않는다.
+ * - 항상 추적하는 Call-ID : 추적 비율과 관계없이 추적 (enableCallId)
+ * 출력은 com.signal.trace 로거의 INFO 레벨로 한다.
+ */
+public class MessageTracer implements MessageTracerMXBean {
+    /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
+    private static final Logger logger = LoggerFactory.getLogger(MessageTracer.class);
+    /* 추적 출력 로거 */
+    private static final Logger traceLogger = LoggerFactory.getLogger("com.signal.trace");
+    /* JMX 객체 이름 */
+    public static final String OBJECT_NAME = "com.signal:type=MessageTracer";
+    /* 기본 호 단위 추적 비율 (모든 호) */
+    public static final double DEFAULT_SAMPLE_RATE = 1.0;
+    /* 기본 버퍼 크기 */
+    public static final int DEFAULT_BUFFER_SIZE = 4096;
+    /* 추적 비율 해상도 (0.01%) */
+    private static final int SAMPLE_SCALE = 10000;
+    /* 추적 쓰레드가 버퍼 교체를 확인하는 주기 (ms) */
+    private static final long POLL_INTERVAL = 100;
+    /* SIP 메시지 추적 객체(singleton) */
+    private static final MessageTracer messageTracer = new MessageTracer();
+    /* 항상 추적하는 Call-ID 목록 */
+    private final ConcurrentHashMap<String, Boolean> tracedCallIds = new ConcurrentHashMap<>();
+    /* 출력한 추적 수 */
+    private final AtomicLong writtenTraces = new AtomicLong(0);
+    /* 버퍼가 가득 차서 버린 추적 수 */
+    private final AtomicLong droppedTraces = new AtomicLong(0);
+    /* 호 단위 추적 기준값 (Call-ID 해시 % SAMPLE_SCALE 이 이 값보다 작으면 추적) */
+    private volatile int sampleThreshold = (int) (DEFAULT_SAMPLE_RATE * SAMPLE_SCALE);
+    /* 출력 대기 버퍼 */
+    private volatile ArrayBlockingQueue<Trace> traces = new ArrayBlockingQueue<>(DEFAULT_BUFFER_SIZE);
+    /* 추적 쓰레드 동작 여부 */
+    private volatile boolean running = true;
+    /* 추적 쓰레드 */
+    private final Thread writer;
+
+    /**
+     * @enum public enum Direction
+     * @brief 메시지 방향
+     */
+    public enum Direction {
+        /* 수신 */
+        RECV,
+        /* 송신 */
+        SEND
+    }
+
+    /**
+     * @fn private MessageTracer()
+     * @brief SIP 메시지 추적 객체를 초기화하고 추적 쓰레드를 시작하는 함수
+     */
+    private MessageTracer() {
+        writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeTraces();
+            }
+        }, "MessageTracer");
+        writer.setDaemon(true);
+        writer.start();
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(this, objectName);
+            }
+        } catch (Exception e) {
+            logger.warn("Fail to register tracer MBean", e);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public static MessageTracer getInstance()
+     * @brief SIP 메시지 추적 객체의 싱글턴 인스턴스를 반환하는 함수
+     * @return SIP 메시지 추적 객체
+     */
+    public static MessageTracer getInstance() {
+        return messageTracer;
+    }
+
+    /**
+     * @fn public synchronized void configure(double sampleRate, int bufferSize)
+     * @brief 추적 설정을 변경하는 함수
+     * 버퍼 크기가 바뀌면 새 버퍼를 사용하고, 이전 버퍼에 남은 추적은 버린다.
+     * @param sampleRate 호 단위 추적 비율, 0.0 ~ 1.0(입력)
+     * @param bufferSize 버퍼 크기(입력)
+     * @return 반환값 없음
+     */
+    public synchronized void configure(double sampleRate, int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Invalid trace configuration");
+        }
+
+        setSampleRate(sampleRate);
+        if (traces.remainingCapacity() + traces.size() != bufferSize) {
+            traces = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        logger.debug("Trace (SampleRate:{}, BufferSize:{})", sampleRate, bufferSize);
+    }
+
+    /**
+     * @fn public void trace(final Direction direction, final Message message)
+     * @brief 추적 대상 호의 메시지를 출력 대기 버퍼에 넣는 함수
+     * 메시지는 참조만 보관하고 추적 쓰레드에서 문자열로 변환하므로, 송신 후에는 메시지를 변경하지 않아야 한다.
+     * @param direction 메시지 방향(입력, 읽기 전용)
+     * @param message   SIP 메시지(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    public void trace(final Direction direction, final Message message) {
+        if (sampleThreshold == 0 && tracedCallIds.isEmpty()) return;
+        if (message == null) return;
+
+        CallIdHeader callIdHeader = (CallIdHeader) message.getHeader(CallIdHeader.NAME);
+        String callId = callIdHeader == null ? null : callIdHeader.getCallId();
+        if (!isTraced(callId)) return;
+
+        if (!traces.offer(new Trace(System.currentTimeMillis(), direction, callId, message))) {
+            droppedTraces.incrementAndGet();
+        }
+    }
+
+    /**
+     * @fn public boolean isTraced(final String callId)
+     * @brief 지정한 Call-ID 의 호가 추적 대상인지 확인하는 함수
+     * @param callId Call-ID(입력, 읽기 전용)
+     * @return 추적 대상이면 true, 아니면 false 반환
+     */
+    public boolean isTraced(final String callId) {
+        int threshold = sampleThreshold;
+        if (threshold >= SAMPLE_SCALE) return true;
+        if (callId == null) return threshold > 0;
+        if (tracedCallIds.containsKey(callId)) return true;
+        if (threshold == 0) return false;
+
+        // 비슷한 Call-ID 가 한쪽으로 몰리지 않도록 해시를 섞는다.
+        int hash = callId.hashCode() * 0x9E3779B9;
+        return ((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % SAMPLE_SCALE < threshold;
+    }
+
+    /**
+     * @fn public void shutdown()
+     * @brief 추적 쓰레드를 종료하는 함수 (남은 추적은 출력하지 않음)
+     * @return 반환값 없음
+     */
+    public void shutdown() {
+        running = false;
+        writer.interrupt();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Override Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public double getSampleRate() {
+        return (double) sampleThreshold / SAMPLE_SCALE;
+    }
+
+    @Override
+    public void setSampleRate(double sampleRate) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("Sample rate must be between 0 and 1");
+        }
+        sampleThreshold = (int) Math.round(sampleRate * SAMPLE_SCALE);
+    }
+
+    @Override
+    public Set<String> getTracedCallIds() {
+        return Collections.unmodifiableSet(new TreeSet<>(tracedCallIds.keySet()));
+    }
+
+    @Override
+    public void enableCallId(final String callId) {
+        if (callId != null) tracedCallIds.put(callId, Boolean.TRUE);
+    }
+
+    @Override
+    public void disableCallId(final String callId) {
+        if (callId != null) tracedCallIds.remove(callId);
+    }
+
+    @Override
+    public int getPendingTraces() {
+        return traces.size();
+    }
+
+    @Override
+    public long getWrittenTraces() {
+        return writtenTraces.get();
+    }
+
+    @Override
+    public long getDroppedTraces() {
+        return droppedTraces.get();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private void writeTraces()
+     * @brief 버퍼에서 추적을 꺼내 출력하는 함수 (추적 쓰레드 전용)
+     * @return 반환값 없음
+     */
+    private void writeTraces() {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("HH:mm:ss.SSS");
+        long reportedDrops = 0;
+
+        while (running) {
+            Trace trace;
+            try {
+                trace = traces.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (trace == null) continue;
+
+            long drops = droppedTraces.get();
+            if (drops != reportedDrops) {
+                traceLogger.warn("{} traces are dropped (buffer is full)", drops - reportedDrops);
+                reportedDrops = drops;
+            }
+
+            try {
+                traceLogger.info("@ {} [{}] {} : \n{}", trace.direction, dateFormat.format(new Date(trace.time)), trace.callId, trace.message);
+                writtenTraces.incrementAndGet();
+            } catch (Exception e) {
+                logger.warn("Fail to write trace (Call-ID:{})", trace.callId, e);
+            }
+        }
+    }
+
+    /**
+     * @class private static class Trace
+     * @brief 출력 대기 중인 추적 하나 (메시지는 출력할 때 문자열로 변환)
+     */
+    private static class Trace {
+        /* 추적 시각 (ms) */
+        private final long time;
+        /* 메시지 방향 */
+        private final Direction direction;
+        /* Call-ID */
+        private final String callId;
+        /* SIP 메시지 */
+        private final Message message;
+
+        Trace(long time, final Direction direction, final String callId, final Message message) {
+            this.time = time;
+            this.direction = direction;
+            this.callId = callId;
+            this.message = message;
+        }
+    }
+}
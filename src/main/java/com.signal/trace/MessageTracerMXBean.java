@@ -0,0 +1,32 @@
+package com.signal.trace;
+
+import java.util.Set;
+
+/**
+ * @interface public interface MessageTracerMXBean
+ * @brief JMX 로 노출하는 SIP 메시지 추적 설정 및 상태
+ */
+public interface MessageTracerMXBean {
+    /* 호 단위 추적 비율 (0.0 ~ 1.0) */
+    double getSampleRate();
+
+    void setSampleRate(double sampleRate);
+
+    /* 항상 추적하는 Call-ID 목록 */
+    Set<String> getTracedCallIds();
+
+    /* 지정한 Call-ID 를 항상 추적 */
+    void enableCallId(String callId);
+
+    /* 지정한 Call-ID 의 항상 추적 해제 */
+    void disableCallId(String callId);
+
+    /* 출력 대기 중인 추적 수 */
+    int getPendingTraces();
+
+    /* 출력한 추적 수 */
+    long getWrittenTraces();
+
+    /* 버퍼가 가득 차서 버린 추적 수 */
+    long getDroppedTraces();
+}
@@ -0,0 +1,95 @@
+package com.signal.transport;
+
+/**
+ * @class public class TransportConfig
+ * @brief ListeningPoint 하나의 전송 프로토콜, 포트, 작업 쓰레드 설정
+ * 작업 쓰레드 수가 0 이면 SIP Stack 쓰레드에서 바로 처리한다.
+ */
+public class TransportConfig {
+    /* 기본 작업 대기열 크기 (작업 쓰레드 하나당) */
+    public static final int DEFAULT_QUEUE_SIZE = 1024;
+    /* 전송 프로토콜 (udp, tcp, tls) */
+    private final String protocol;
+    /* 포트 번호 */
+    private final int port;
+    /* 작업 쓰레드 수 (0 이면 SIP Stack 쓰레드에서 처리) */
+    private final int workerThreads;
+    /* 작업 쓰레드 하나당 대기열 크기 */
+    private final int queueSize;
+
+    /**
+     * @fn public TransportConfig(final String protocol, int port)
+     * @brief SIP Stack 쓰레드에서 바로 처리하는 전송 설정을 초기화하는 함수
+     * @param protocol 전송 프로토콜(입력, 읽기 전용)
+     * @param port     포트 번호(입력)
+     */
+    public TransportConfig(final String protocol, int port) {
+        this(protocol, port, 0, DEFAULT_QUEUE_SIZE);
+    }
+
+    /**
+     * @fn public TransportConfig(final String protocol, int port, int workerThreads, int queueSize)
+     * @brief 전송 설정을 초기화하는 함수
+     * @param protocol      전송 프로토콜, udp/tcp/tls(입력, 읽기 전용)
+     * @param port          포트 번호(입력)
+     * @param workerThreads 작업 쓰레드 수(입력)
+     * @param queueSize     작업 쓰레드 하나당 대기열 크기(입력)
+     */
+    public TransportConfig(final String protocol, int port, int workerThreads, int queueSize) {
+        if (protocol == null) throw new NullPointerException("Protocol is null");
+        if (port <= 0 || workerThreads < 0 || queueSize <= 0) {
+            throw new IllegalArgumentException("Invalid transport configuration");
+        }
+
+        String lowerCaseProtocol = protocol.toLowerCase();
+        if (!lowerCaseProtocol.equals("udp") && !lowerCaseProtocol.equals("tcp") && !lowerCaseProtocol.equals("tls")) {
+            throw new IllegalArgumentException("Unsupported protocol : " + protocol);
+        }
+
+        this.protocol = lowerCaseProtocol;
+        this.port = port;
+        this.workerThreads = workerThreads;
+        this.queueSize = queueSize;
+    }
+
+    /**
+     * @fn public String getProtocol()
+     * @brief 전송 프로토콜을 반환하는 함수
+     * @return 전송 프로토콜 (소문자)
+     */
+    public String getProtocol() {
+        return protocol;
+    }
+
+    /**
+     * @fn public int getPort()
+     * @brief 포트 번호를 반환하는 함수
+     * @return 포트 번호
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * @fn public int getWorkerThreads()
+     * @brief 작업 쓰레드 수를 반환하는 함수
+     * @return 작업 쓰레드 수
+     */
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    /**
+     * @fn public int getQueueSize()
+     * @brief 작업 쓰레드 하나당 대기열 크기를 반환하는 함수
+     * @return 대기열 크기
+     */
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    @Override
+    public String toString() {
+        return protocol + ":" + port + " (workers=" + workerThreads + ", queue=" + queueSize + ")";
+    }
+}
@@ -0,0 +1,142 @@
+package com.signal.transport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @class public class TransportDispatcher
+ * @brief 수신 메시지를 전송 프로토콜별 작업 쓰레드로 넘기는 클래스
+ * 전송 프로토콜마다 작업 쓰레드와 대기열을 따로 두므로, 한 전송에 메시지가 몰려도 다른 전송의 처리는 밀리지 않는다.
+ * 작업 쓰레드는 하나씩 대기열을 가지며 Call-ID 해시로 고르므로, 같은 호의 메시지는 받은 순서대로 처리된다.
+ * 대기열이 가득 차면 기다리지 않고 실패를 반환한다.
+ */
+public class TransportDispatcher {
+    /* 출력 레벨에 따라 지정한 데이터를 표준 출력 */
+    private static final Logger logger = LoggerFactory.getLogger(TransportDispatcher.class);
+    /* 전송 프로토콜별 작업 쓰레드 (대소문자 구분 없음, 생성 후 변경하지 않음) */
+    private final Map<String, ThreadPoolExecutor[]> workers;
+
+    /**
+     * @fn public TransportDispatcher(final TransportConfig... transportConfigs)
+     * @brief 전송 설정별로 작업 쓰레드를 생성하는 함수 (작업 쓰레드 수가 0 인 전송은 생성하지 않음)
+     * @param transportConfigs 전송 설정 목록(입력, 읽기 전용)
+     */
+    public TransportDispatcher(final TransportConfig... transportConfigs) {
+        Map<String, ThreadPoolExecutor[]> workers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (TransportConfig transportConfig : transportConfigs) {
+            if (transportConfig.getWorkerThreads() <= 0 || workers.containsKey(transportConfig.getProtocol())) continue;
+
+            ThreadPoolExecutor[] executors = new ThreadPoolExecutor[transportConfig.getWorkerThreads()];
+            for (int i = 0; i < executors.length; i++) {
+                executors[i] = newWorker(transportConfig.getProtocol() + "-" + i, transportConfig.getQueueSize());
+            }
+            workers.put(transportConfig.getProtocol(), executors);
+            logger.debug("Transport workers ({})", transportConfig);
+        }
+        this.workers = Collections.unmodifiableMap(workers);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Public Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn public boolean hasWorkers(final String transport)
+     * @brief 지정한 전송 프로토콜에 작업 쓰레드가 있는지 확인하는 함수
+     * @param transport 전송 프로토콜(입력, 읽기 전용)
+     * @return 작업 쓰레드가 있으면 true, 없으면(SIP Stack 쓰레드에서 처리) false 반환
+     */
+    public boolean hasWorkers(final String transport) {
+        return transport != null && workers.containsKey(transport);
+    }
+
+    /**
+     * @fn public boolean dispatch(final String transport, final String callId, final Runnable task)
+     * @brief 작업을 전송 프로토콜의 작업 쓰레드 대기열에 넣는 함수
+     * 작업 쓰레드가 없는 전송이면 호출한 쓰레드에서 바로 처리한다.
+     * @param transport 전송 프로토콜(입력, 읽기 전용)
+     * @param callId    작업 쓰레드를 고를 Call-ID(입력, 읽기 전용, null 이면 첫 번째 쓰레드)
+     * @param task      작업(입력, 읽기 전용)
+     * @return 처리했거나 대기열에 넣었으면 true, 대기열이 가득 차면 false 반환
+     */
+    public boolean dispatch(final String transport, final String callId, final Runnable task) {
+        ThreadPoolExecutor[] executors = transport == null ? null : workers.get(transport);
+        if (executors == null) {
+            task.run();
+            return true;
+        }
+
+        int index = callId == null ? 0 : (callId.hashCode() & Integer.MAX_VALUE) % executors.length;
+        try {
+            executors[index].execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @fn public int getPendingTasks(final String transport)
+     * @brief 지정한 전송 프로토콜의 대기 중인 작업 수를 반환하는 함수
+     * @param transport 전송 프로토콜(입력, 읽기 전용)
+     * @return 대기 중인 작업 수
+     */
+    public int getPendingTasks(final String transport) {
+        ThreadPoolExecutor[] executors = workers.get(transport);
+        if (executors == null) return 0;
+
+        int count = 0;
+        for (ThreadPoolExecutor executor : executors) {
+            count += executor.getQueue().size();
+        }
+        return count;
+    }
+
+    /**
+     * @fn public void shutdown()
+     * @brief 모든 작업 쓰레드를 종료하는 함수 (대기 중인 작업은 처리 후 종료)
+     * @return 반환값 없음
+     */
+    public void shutdown() {
+        for (ThreadPoolExecutor[] executors : workers.values()) {
+            for (ThreadPoolExecutor executor : executors) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////
+    /// @ Private Functions
+    ////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @fn private static ThreadPoolExecutor newWorker(final String name, int queueSize)
+     * @brief 대기열 크기가 제한된 단일 작업 쓰레드를 생성하는 함수
+     * @param name      쓰레드 이름(입력, 읽기 전용)
+     * @param queueSize 대기열 크기(입력)
+     * @return 작업 쓰레드
+     */
+    private static ThreadPoolExecutor newWorker(final String name, int queueSize) {
+        return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(queueSize),
+                new ThreadFactory() {
+                    private final AtomicInteger index = new AtomicInteger(0);
+
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        Thread thread = new Thread(runnable, "SipWorker-" + name + (index.getAndIncrement() == 0 ? "" : "-" + index.get()));
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
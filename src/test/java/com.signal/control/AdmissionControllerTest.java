@@ -0,0 +1,101 @@
+package com.signal.control;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @class public class AdmissionControllerTest
+ * @brief 수락 제어 대기열(QUEUE 정책)의 대기 시간 초과 처리를 확인하는 시험
+ */
+public class AdmissionControllerTest {
+    /* 시험용 대기열 대기 시간 (ms) */
+    private static final long QUEUE_TIMEOUT = 200;
+    /* 수락 제어 관리 객체 */
+    private final AdmissionController admissionController = AdmissionController.getInstance();
+
+    @Before
+    public void setUp() {
+        admissionController.open();
+        admissionController.configure(1, CapacityPolicy.QUEUE, AdmissionController.DEFAULT_RETRY_AFTER, 4, QUEUE_TIMEOUT);
+    }
+
+    @After
+    public void tearDown() {
+        admissionController.release("active");
+        admissionController.configure(AdmissionController.DEFAULT_MAX_CALLS, CapacityPolicy.BUSY_HERE, AdmissionController.DEFAULT_RETRY_AFTER,
+                AdmissionController.DEFAULT_QUEUE_SIZE, AdmissionController.DEFAULT_QUEUE_TIMEOUT);
+    }
+
+    /**
+     * @fn public void queuedCallExpiresWithoutRelease()
+     * @brief 모든 자리가 사용 중이고 반납되지 않아도 대기 시간이 지난 호가 거절되는지 확인
+     */
+    @Test
+    public void queuedCallExpiresWithoutRelease() throws InterruptedException {
+        assertTrue(admissionController.tryAdmit("active"));
+
+        final CountDownLatch expired = new CountDownLatch(1);
+        final AtomicBoolean admitted = new AtomicBoolean(false);
+        assertTrue(admissionController.enqueue(new AdmissionController.PendingCall("queued") {
+            @Override
+            public boolean onAdmitted() {
+                admitted.set(true);
+                return true;
+            }
+
+            @Override
+            public void onExpired() {
+                expired.countDown();
+            }
+        }));
+        assertEquals(1, admissionController.getPendingCalls());
+
+        assertTrue("queued call is not expired", expired.await(QUEUE_TIMEOUT * 10, TimeUnit.MILLISECONDS));
+        assertFalse(admitted.get());
+        assertEquals(0, admissionController.getPendingCalls());
+        assertEquals(1, admissionController.getActiveCalls());
+    }
+
+    /**
+     * @fn public void expiredCallIsNotAdmittedOnRelease()
+     * @brief 대기 시간이 지난 호는 자리가 반납되어도 수락되지 않고 거절되는지 확인
+     */
+    @Test
+    public void expiredCallIsNotAdmittedOnRelease() throws InterruptedException {
+        admissionController.configure(1, CapacityPolicy.QUEUE, AdmissionController.DEFAULT_RETRY_AFTER, 4, 60000);
+        assertTrue(admissionController.tryAdmit("active"));
+
+        final AtomicBoolean admitted = new AtomicBoolean(false);
+        final AtomicBoolean expired = new AtomicBoolean(false);
+        assertTrue(admissionController.enqueue(new AdmissionController.PendingCall("queued") {
+            @Override
+            public boolean onAdmitted() {
+                admitted.set(true);
+                return true;
+            }
+
+            @Override
+            public void onExpired() {
+                expired.set(true);
+            }
+        }));
+
+        // 대기 시간을 줄여서 대기 중인 호를 초과 상태로 만든 후 자리를 반납한다.
+        admissionController.configure(1, CapacityPolicy.QUEUE, AdmissionController.DEFAULT_RETRY_AFTER, 4, 1);
+        Thread.sleep(20);
+        admissionController.release("active");
+
+        assertTrue(expired.get());
+        assertFalse(admitted.get());
+        assertEquals(0, admissionController.getActiveCalls());
+    }
+}
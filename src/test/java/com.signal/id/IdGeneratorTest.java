@@ -0,0 +1,145 @@
+package com.signal.id;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @class public class IdGeneratorTest
+ * @brief 여러 쓰레드에서 동시에 생성한 Tag, Branch ID, Call-ID 가 겹치지 않고 형식이 맞는지 확인하는 시험
+ */
+public class IdGeneratorTest {
+    /* 동시에 생성하는 쓰레드 수 */
+    private static final int THREAD_COUNT = 8;
+    /* 쓰레드 하나가 생성하는 식별자 수 */
+    private static final int IDS_PER_THREAD = 50000;
+    /* 식별자 생성 객체 */
+    private final IdGenerator idGenerator = IdGenerator.getInstance();
+
+    @After
+    public void tearDown() {
+        idGenerator.setNodeId(null);
+    }
+
+    /**
+     * @fn public void tagsAreUniqueAcrossThreads() throws Exception
+     * @brief 여러 쓰레드에서 동시에 생성한 Tag 가 겹치지 않는지 확인
+     */
+    @Test
+    public void tagsAreUniqueAcrossThreads() throws Exception {
+        Set<String> tags = generate(new Callable<String>() {
+            @Override
+            public String call() {
+                return idGenerator.newTag();
+            }
+        });
+        assertEquals(THREAD_COUNT * IDS_PER_THREAD, tags.size());
+    }
+
+    /**
+     * @fn public void branchIdsAreUniqueAcrossThreadsAndHaveMagicCookie() throws Exception
+     * @brief 여러 쓰레드에서 동시에 생성한 Branch ID 가 겹치지 않고 z9hG4bK 로 시작하는지 확인
+     */
+    @Test
+    public void branchIdsAreUniqueAcrossThreadsAndHaveMagicCookie() throws Exception {
+        Set<String> branchIds = generate(new Callable<String>() {
+            @Override
+            public String call() {
+                return idGenerator.newBranchId();
+            }
+        });
+        assertEquals(THREAD_COUNT * IDS_PER_THREAD, branchIds.size());
+        for (String branchId : branchIds) {
+            assertTrue(branchId, branchId.startsWith(IdGenerator.BRANCH_MAGIC_COOKIE));
+            assertEquals(IdGenerator.BRANCH_MAGIC_COOKIE.length() + 16, branchId.length());
+        }
+    }
+
+    /**
+     * @fn public void callIdsAreUniqueAcrossThreads() throws Exception
+     * @brief 여러 쓰레드에서 동시에 생성한 Call-ID 가 겹치지 않고 host 가 붙는지 확인
+     */
+    @Test
+    public void callIdsAreUniqueAcrossThreads() throws Exception {
+        Set<String> callIds = generate(new Callable<String>() {
+            @Override
+            public String call() {
+                return idGenerator.newCallId("127.0.0.1");
+            }
+        });
+        assertEquals(THREAD_COUNT * IDS_PER_THREAD, callIds.size());
+        for (String callId : callIds) {
+            assertTrue(callId, callId.matches("[0-9a-f]{32}@127\\.0\\.0\\.1"));
+        }
+    }
+
+    /**
+     * @fn public void nodeIdIsPrefixed()
+     * @brief 노드 식별자를 지정하면 모든 식별자 앞에 붙는지 확인
+     */
+    @Test
+    public void nodeIdIsPrefixed() {
+        idGenerator.setNodeId("node1");
+        assertTrue(idGenerator.newTag().matches("node1[0-9a-f]{16}"));
+        assertTrue(idGenerator.newBranchId().matches(IdGenerator.BRANCH_MAGIC_COOKIE + "node1[0-9a-f]{16}"));
+        assertTrue(idGenerator.newCallId(null).matches("node1[0-9a-f]{32}"));
+    }
+
+    /**
+     * @fn public void invalidNodeIdIsRejected()
+     * @brief 영문자와 숫자가 아닌 노드 식별자는 거절하는지 확인
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidNodeIdIsRejected() {
+        idGenerator.setNodeId("node-1");
+    }
+
+    /**
+     * @fn private static Set<String> generate(final Callable<String> generator) throws Exception
+     * @brief 여러 쓰레드에서 동시에 식별자를 생성해서 하나의 집합에 모으는 함수
+     * @param generator 식별자 생성 작업(입력, 읽기 전용)
+     * @return 생성한 식별자 집합 (겹치면 개수가 줄어듦)
+     * @throws Exception 생성 실패 시
+     */
+    private static Set<String> generate(final Callable<String> generator) throws Exception {
+        final Set<String> ids = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREAD_COUNT; i++) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        start.await();
+                        for (int j = 0; j < IDS_PER_THREAD; j++) {
+                            ids.add(generator.call());
+                        }
+                        return null;
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return ids;
+    }
+}
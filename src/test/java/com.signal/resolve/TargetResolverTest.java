@@ -0,0 +1,291 @@
+package com.signal.resolve;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @class public class TargetResolverTest
+ * @brief 메모리 zone 으로 발신 대상 해석 순서(NAPTR -> SRV -> A)와 캐시(TTL 제한, 부정 캐시, 미리 갱신)를 확인하는 시험
+ */
+public class TargetResolverTest {
+    /* 시험에 사용하는 최대 캐시 수 */
+    private static final int MAX_ENTRIES = 100;
+    /* 조건이 만족될 때까지 기다리는 최대 시간 (ms) */
+    private static final long AWAIT_TIMEOUT = 3000;
+    /* 발신 대상 해석 객체 */
+    private final TargetResolver targetResolver = TargetResolver.getInstance();
+    /* 메모리 zone */
+    private ZoneResolverBackend zone;
+    /* 조회 횟수를 세고 필요하면 조회를 멈추는 backend */
+    private CountingBackend backend;
+
+    @Before
+    public void setUp() {
+        zone = new ZoneResolverBackend();
+        backend = new CountingBackend(zone);
+    }
+
+    @After
+    public void tearDown() {
+        backend.open();
+        targetResolver.configure(new SystemResolverBackend(SystemResolverBackend.DEFAULT_TIMEOUT, SystemResolverBackend.DEFAULT_RETRIES,
+                        SystemResolverBackend.DEFAULT_TTL), TargetResolver.DEFAULT_TRANSPORTS, TargetResolver.DEFAULT_MIN_TTL,
+                TargetResolver.DEFAULT_MAX_TTL, TargetResolver.DEFAULT_NEGATIVE_TTL, TargetResolver.DEFAULT_REFRESH_AHEAD,
+                TargetResolver.DEFAULT_MAX_ENTRIES, TargetResolver.DEFAULT_REFRESH_THREADS);
+    }
+
+    /**
+     * @fn public void followsNaptrThenSrvThenAddress()
+     * @brief NAPTR order 순서대로 SRV priority, A 주소를 따라가고 사용하지 않는 전송의 NAPTR 는 무시하는지 확인
+     */
+    @Test
+    public void followsNaptrThenSrvThenAddress() {
+        configure(0, 60000, 60000, 1.0);
+        zone.add("example.com            300 NAPTR 20 10 \"s\" \"SIP+D2U\" \"\" _sip._udp.example.com.");
+        zone.add("example.com            300 NAPTR 10 10 \"s\" \"SIP+D2T\" \"\" _sip._tcp.example.com.");
+        zone.add("example.com            300 NAPTR 5  10 \"s\" \"SIPS+D2T\" \"\" _sips._tcp.example.com. ; 사용하지 않는 전송");
+        zone.add("_sip._tcp.example.com  300 SRV   20 0 5070 tcp2.example.com.");
+        zone.add("_sip._tcp.example.com  300 SRV   10 0 5060 tcp1.example.com.");
+        zone.add("_sip._udp.example.com  300 SRV   10 0 5062 udp1.example.com.");
+        zone.add("_sips._tcp.example.com 300 SRV   10 0 5061 tls1.example.com.");
+        zone.add("tcp1.example.com       300 A     10.0.0.1");
+        zone.add("tcp2.example.com       300 A     10.0.0.2");
+        zone.add("udp1.example.com       300 A     10.0.0.3");
+        zone.add("tls1.example.com       300 A     10.0.0.4");
+
+        List<ResolvedTarget> targets = targetResolver.resolve("example.com", 0, null);
+        assertEquals(3, targets.size());
+        assertTarget(targets.get(0), "10.0.0.1", 5060, "tcp");
+        assertTarget(targets.get(1), "10.0.0.2", 5070, "tcp");
+        assertTarget(targets.get(2), "10.0.0.3", 5062, "udp");
+    }
+
+    /**
+     * @fn public void fallsBackToSrvAndAddress()
+     * @brief NAPTR 가 없으면 SRV, SRV 도 없으면 A 를 기본 포트로 조회하고, 포트를 지정하면 A 만 조회하는지 확인
+     */
+    @Test
+    public void fallsBackToSrvAndAddress() {
+        configure(0, 60000, 60000, 1.0);
+        zone.add("_sip._tcp.srv.example.com 300 SRV 10 0 5080 host.srv.example.com");
+        zone.add("host.srv.example.com      300 A   10.0.1.1");
+        zone.add("a.example.com             300 A   10.0.2.1");
+
+        // NAPTR 가 없으면 사용하는 전송 순서대로 SRV
+        List<ResolvedTarget> targets = targetResolver.resolve("srv.example.com", 0, null);
+        assertEquals(1, targets.size());
+        assertTarget(targets.get(0), "10.0.1.1", 5080, "tcp");
+
+        // SRV 도 없으면 A 를 기본 포트로
+        targets = targetResolver.resolve("a.example.com", 0, null);
+        assertEquals(1, targets.size());
+        assertTarget(targets.get(0), "10.0.2.1", TargetResolver.DEFAULT_PORT, "udp");
+
+        // 포트를 지정하면 A 만 조회
+        targets = targetResolver.resolve("srv.example.com", 5090, "tcp");
+        assertTrue(targets.isEmpty());
+    }
+
+    /**
+     * @fn public void cacheHitDoesNotWaitForRefresh() throws Exception
+     * @brief 미리 갱신 조회가 멈춰 있어도 캐시 히트는 기다리지 않고 바로 반환하는지 확인
+     */
+    @Test
+    public void cacheHitDoesNotWaitForRefresh() throws Exception {
+        configure(0, 60000, 60000, 0.2);
+        zone.add("hit.example.com 1 A 10.0.0.1");
+        assertTarget(targetResolver.resolve("hit.example.com", 5060, "udp").get(0), "10.0.0.1", 5060, "udp");
+
+        // 미리 갱신 시점(200ms)이 지난 후에는 갱신 조회가 멈춰 있어도 캐시에서 바로 반환한다.
+        backend.close();
+        Thread.sleep(300);
+        long startTime = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            List<ResolvedTarget> targets = targetResolver.resolve("hit.example.com", 5060, "udp");
+            assertEquals(1, targets.size());
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        assertTrue("refresh lookup is not started", backend.awaitBlocked(AWAIT_TIMEOUT));
+        assertTrue("cache hit is blocked (" + elapsed + "ms)", elapsed < 200);
+    }
+
+    /**
+     * @fn public void clampsRecordTtl() throws Exception
+     * @brief 레코드 TTL 이 min-ttl 보다 작거나 max-ttl 보다 크면 제한한 시간만큼 캐시하는지 확인
+     */
+    @Test
+    public void clampsRecordTtl() throws Exception {
+        configure(500, 1500, 60000, 1.0);
+        zone.add("low.example.com  0    A 10.0.0.1");
+        zone.add("high.example.com 3600 A 10.0.0.2");
+        targetResolver.resolve("low.example.com", 5060, "udp");
+        targetResolver.resolve("high.example.com", 5060, "udp");
+        int lookups = backend.getLookups();
+
+        // TTL 0 이어도 min-ttl(500ms) 동안 캐시한다.
+        Thread.sleep(200);
+        targetResolver.resolve("low.example.com", 5060, "udp");
+        targetResolver.resolve("high.example.com", 5060, "udp");
+        assertEquals(lookups, backend.getLookups());
+
+        // min-ttl 이 지나면 TTL 0 인 대상만 다시 조회한다.
+        Thread.sleep(700);
+        targetResolver.resolve("low.example.com", 5060, "udp");
+        assertEquals(lookups + 1, backend.getLookups());
+        targetResolver.resolve("high.example.com", 5060, "udp");
+        assertEquals(lookups + 1, backend.getLookups());
+
+        // TTL 3600 초여도 max-ttl(1500ms) 이 지나면 다시 조회한다.
+        Thread.sleep(900);
+        targetResolver.resolve("high.example.com", 5060, "udp");
+        assertEquals(lookups + 2, backend.getLookups());
+    }
+
+    /**
+     * @fn public void cachesMissingNameForNegativeTtl() throws Exception
+     * @brief 이름이 없으면 negative-ttl 동안 다시 조회하지 않고, 지나면 새로 조회하는지 확인
+     */
+    @Test
+    public void cachesMissingNameForNegativeTtl() throws Exception {
+        configure(0, 60000, 300, 1.0);
+        long negativeHits = targetResolver.getNegativeHits();
+
+        assertTrue(targetResolver.resolve("none.example.com", 0, null).isEmpty());
+        int lookups = backend.getLookups();
+        assertTrue(lookups > 0);
+
+        // 부정 캐시 동안은 레코드가 생겨도 조회하지 않는다.
+        zone.add("none.example.com 300 A 10.0.0.5");
+        assertTrue(targetResolver.resolve("none.example.com", 0, null).isEmpty());
+        assertEquals(lookups, backend.getLookups());
+        assertEquals(negativeHits + 1, targetResolver.getNegativeHits());
+
+        Thread.sleep(500);
+        List<ResolvedTarget> targets = targetResolver.resolve("none.example.com", 0, null);
+        assertEquals(1, targets.size());
+        assertTarget(targets.get(0), "10.0.0.5", TargetResolver.DEFAULT_PORT, "udp");
+    }
+
+    /**
+     * @fn public void refreshesAheadWithoutMiss() throws Exception
+     * @brief refresh-ahead 비율이 지나면 캐시 미스 없이 갱신 쓰레드에서 새 결과로 바꾸는지 확인
+     */
+    @Test
+    public void refreshesAheadWithoutMiss() throws Exception {
+        configure(0, 60000, 60000, 0.2);
+        zone.add("refresh.example.com 1 A 10.0.0.1");
+        assertTarget(targetResolver.resolve("refresh.example.com", 5060, "udp").get(0), "10.0.0.1", 5060, "udp");
+        long misses = targetResolver.getMisses();
+        long refreshes = targetResolver.getRefreshes();
+
+        zone.remove("refresh.example.com");
+        zone.add("refresh.example.com 1 A 10.0.0.9");
+        Thread.sleep(300);
+
+        // 갱신이 끝나기 전까지는 이전 결과를, 끝나면 새 결과를 캐시에서 반환한다.
+        String host = targetResolver.resolve("refresh.example.com", 5060, "udp").get(0).getHost();
+        long deadline = System.currentTimeMillis() + AWAIT_TIMEOUT;
+        while (!host.equals("10.0.0.9") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            host = targetResolver.resolve("refresh.example.com", 5060, "udp").get(0).getHost();
+        }
+        assertEquals("10.0.0.9", host);
+        assertEquals(misses, targetResolver.getMisses());
+        assertTrue(targetResolver.getRefreshes() > refreshes);
+    }
+
+    /**
+     * @fn private void configure(long minTtl, long maxTtl, long negativeTtl, double refreshAhead)
+     * @brief 시험용 backend 와 캐시 시간으로 발신 대상 해석 객체를 설정하는 함수 (캐시는 비워짐)
+     * @param minTtl       최소 캐시 시간(ms, 입력)
+     * @param maxTtl       최대 캐시 시간(ms, 입력)
+     * @param negativeTtl  부정 캐시 시간(ms, 입력)
+     * @param refreshAhead 미리 갱신 비율(입력)
+     * @return 반환값 없음
+     */
+    private void configure(long minTtl, long maxTtl, long negativeTtl, double refreshAhead) {
+        targetResolver.configure(backend, Arrays.asList("tcp", "udp"), minTtl, maxTtl, negativeTtl, refreshAhead, MAX_ENTRIES, 1);
+    }
+
+    private static void assertTarget(final ResolvedTarget target, final String host, int port, final String transport) {
+        assertEquals(host, target.getHost());
+        assertEquals(port, target.getPort());
+        assertEquals(transport, target.getTransport());
+    }
+
+    /**
+     * @class private static class CountingBackend implements ResolverBackend
+     * @brief 메모리 zone 조회 횟수를 세고, 닫으면 열 때까지 조회를 멈추는 backend
+     */
+    private static class CountingBackend implements ResolverBackend {
+        private final ZoneResolverBackend zone;
+        private final AtomicInteger lookups = new AtomicInteger(0);
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private volatile CountDownLatch gate = null;
+
+        private CountingBackend(final ZoneResolverBackend zone) {
+            this.zone = zone;
+        }
+
+        @Override
+        public List<NaptrRecord> lookupNaptr(final String name) throws IOException {
+            enter();
+            return zone.lookupNaptr(name);
+        }
+
+        @Override
+        public List<SrvRecord> lookupSrv(final String name) throws IOException {
+            enter();
+            return zone.lookupSrv(name);
+        }
+
+        @Override
+        public List<AddressRecord> lookupAddress(final String name) throws IOException {
+            enter();
+            return zone.lookupAddress(name);
+        }
+
+        private int getLookups() {
+            return lookups.get();
+        }
+
+        private void close() {
+            gate = new CountDownLatch(1);
+        }
+
+        private void open() {
+            CountDownLatch current = gate;
+            gate = null;
+            if (current != null) current.countDown();
+        }
+
+        private boolean awaitBlocked(long timeout) throws InterruptedException {
+            return blocked.await(timeout, TimeUnit.MILLISECONDS);
+        }
+
+        private void enter() throws IOException {
+            lookups.incrementAndGet();
+            CountDownLatch current = gate;
+            if (current == null) return;
+
+            blocked.countDown();
+            try {
+                if (!current.await(AWAIT_TIMEOUT, TimeUnit.MILLISECONDS)) throw new IOException("Lookup is blocked");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Lookup is interrupted", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.signal.transport;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @class public class TransportDispatcherTest
+ * @brief 전송 프로토콜별 작업 쓰레드의 대기열 제한과 작업 쓰레드가 없는 전송의 처리를 확인하는 시험
+ */
+public class TransportDispatcherTest {
+    /* 시험용 Call-ID */
+    private static final String CALL_ID = "dispatch-test@127.0.0.1";
+    /* 작업 대기 시간 (ms) */
+    private static final long TASK_TIMEOUT = 5000;
+    /* 작업 쓰레드를 막아두는 잠금 */
+    private final CountDownLatch blocker = new CountDownLatch(1);
+    /* 시험 대상 (UDP 는 작업 쓰레드 1 개와 대기열 1 개, TCP 는 작업 쓰레드 1 개와 대기열 4 개, TLS 는 작업 쓰레드 없음) */
+    private final TransportDispatcher transportDispatcher = new TransportDispatcher(
+            new TransportConfig("udp", 5060, 1, 1),
+            new TransportConfig("tcp", 5060, 1, 4),
+            new TransportConfig("tls", 5061, 0, 1));
+
+    @After
+    public void tearDown() {
+        blocker.countDown();
+        transportDispatcher.shutdown();
+    }
+
+    /**
+     * @fn public void fullQueueRejectsDispatch()
+     * @brief 작업 쓰레드가 처리 중이고 대기열이 가득 차면 dispatch 가 false 를 반환하는지 확인
+     */
+    @Test
+    public void fullQueueRejectsDispatch() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        assertTrue(transportDispatcher.dispatch("udp", CALL_ID, newBlockingTask(started)));
+        assertTrue(started.await(TASK_TIMEOUT, TimeUnit.MILLISECONDS));
+
+        assertTrue(transportDispatcher.dispatch("udp", CALL_ID, newNoopTask()));
+        assertEquals(1, transportDispatcher.getPendingTasks("udp"));
+        assertFalse(transportDispatcher.dispatch("udp", CALL_ID, newNoopTask()));
+        assertEquals(1, transportDispatcher.getPendingTasks("udp"));
+
+        // 다른 전송의 작업 쓰레드는 영향을 받지 않는다.
+        final CountDownLatch done = new CountDownLatch(1);
+        assertTrue(transportDispatcher.dispatch("TCP", CALL_ID, newCountDownTask(done)));
+        assertTrue(done.await(TASK_TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * @fn public void queueAcceptsAgainAfterDrain()
+     * @brief 대기열이 비워지면 다시 dispatch 할 수 있는지 확인
+     */
+    @Test
+    public void queueAcceptsAgainAfterDrain() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        assertTrue(transportDispatcher.dispatch("udp", CALL_ID, newBlockingTask(started)));
+        assertTrue(started.await(TASK_TIMEOUT, TimeUnit.MILLISECONDS));
+        assertTrue(transportDispatcher.dispatch("udp", CALL_ID, newNoopTask()));
+        assertFalse(transportDispatcher.dispatch("udp", CALL_ID, newNoopTask()));
+
+        blocker.countDown();
+        final CountDownLatch done = new CountDownLatch(1);
+        long deadline = System.currentTimeMillis() + TASK_TIMEOUT;
+        while (!transportDispatcher.dispatch("udp", CALL_ID, newCountDownTask(done))) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+        assertTrue(done.await(TASK_TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * @fn public void transportWithoutWorkersRunsInline()
+     * @brief 작업 쓰레드가 없는 전송은 호출한 쓰레드에서 바로 처리하는지 확인
+     */
+    @Test
+    public void transportWithoutWorkersRunsInline() {
+        assertFalse(transportDispatcher.hasWorkers("tls"));
+        assertTrue(transportDispatcher.hasWorkers("UDP"));
+
+        final AtomicReference<Thread> runner = new AtomicReference<>();
+        assertTrue(transportDispatcher.dispatch("tls", CALL_ID, new Runnable() {
+            @Override
+            public void run() {
+                runner.set(Thread.currentThread());
+            }
+        }));
+        assertSame(Thread.currentThread(), runner.get());
+        assertEquals(0, transportDispatcher.getPendingTasks("tls"));
+    }
+
+    /**
+     * @fn private Runnable newBlockingTask(final CountDownLatch started)
+     * @brief 시작을 알린 후 잠금이 풀릴 때까지 작업 쓰레드를 막는 작업을 만드는 함수
+     * @param started 시작 알림(입력, 읽기 전용)
+     * @return 작업
+     */
+    private Runnable newBlockingTask(final CountDownLatch started) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    blocker.await(TASK_TIMEOUT, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+    }
+
+    /**
+     * @fn private static Runnable newCountDownTask(final CountDownLatch done)
+     * @brief 처리되면 완료를 알리는 작업을 만드는 함수
+     * @param done 완료 알림(입력, 읽기 전용)
+     * @return 작업
+     */
+    private static Runnable newCountDownTask(final CountDownLatch done) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                done.countDown();
+            }
+        };
+    }
+
+    /**
+     * @fn private static Runnable newNoopTask()
+     * @brief 아무것도 하지 않는 작업을 만드는 함수
+     * @return 작업
+     */
+    private static Runnable newNoopTask() {
+        return new Runnable() {
+            @Override
+            public void run() {
+                // nothing
+            }
+        };
+    }
+}
@@ -0,0 +1,271 @@
+package com.signal.transport;
+
+import com.signal.logic.CallEventListener;
+import com.signal.logic.RequestManager;
+import com.signal.logic.SipCall;
+import com.signal.metrics.SignalMetrics;
+import com.signal.registry.CallRegistry;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.sip.Dialog;
+import javax.sip.message.Request;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @class public class TransportLoopbackTest
+ * @brief 같은 프로세스의 발신 측(UAC)과 착신 측(UAS)으로 UDP, TCP, TLS 마다 INVITE/200/ACK/BYE 흐름을 확인하는 시험
+ * 양쪽 모두 전송마다 작업 쓰레드를 두므로 요청과 응답은 TransportDispatcher 의 작업 쓰레드에서 처리된다.
+ * TLS 인증서는 시험 시작 시 keytool 로 임시 keystore 를 만들어서 javax.net.ssl.* 시스템 속성으로 지정한다.
+ */
+public class TransportLoopbackTest {
+    /* 착신 측 UDP/TCP 포트 (TLS 는 포트 + 1) */
+    private static final int UAS_PORT = 25060;
+    /* 발신 측 UDP/TCP 포트 (TLS 는 포트 + 1) */
+    private static final int UAC_PORT = 25070;
+    /* 전송마다 작업 쓰레드 수 */
+    private static final int WORKER_THREADS = 2;
+    /* 작업 쓰레드 하나당 대기열 크기 */
+    private static final int QUEUE_SIZE = 64;
+    /* 응답 대기 시간 (ms) */
+    private static final long CALL_TIMEOUT = 10000;
+    /* 임시 keystore 비밀번호 */
+    private static final String KEYSTORE_PASSWORD = "changeit";
+    /* 시험 중 바꾸는 javax.net.ssl.* 시스템 속성 */
+    private static final String[] SSL_PROPERTIES = {
+            "javax.net.ssl.keyStore", "javax.net.ssl.keyStorePassword", "javax.net.ssl.trustStore", "javax.net.ssl.trustStorePassword"};
+
+    /* 시험 전 javax.net.ssl.* 시스템 속성 (복원용) */
+    private static final Map<String, String> savedProperties = new ConcurrentHashMap<>();
+    /* 호 결과 (Call-ID 별) */
+    private static final Map<String, CallResult> results = new ConcurrentHashMap<>();
+    /* 임시 keystore 파일 */
+    private static File keyStore;
+    /* 착신 측 */
+    private static SipCall uas;
+    /* 발신 측 */
+    private static SipCall uac;
+
+    @BeforeClass
+    public static void setUp() throws IOException, InterruptedException {
+        keyStore = newKeyStore();
+        for (String name : SSL_PROPERTIES) {
+            String value = System.getProperty(name);
+            if (value != null) savedProperties.put(name, value);
+        }
+        System.setProperty("javax.net.ssl.keyStore", keyStore.getAbsolutePath());
+        System.setProperty("javax.net.ssl.keyStorePassword", KEYSTORE_PASSWORD);
+        System.setProperty("javax.net.ssl.trustStore", keyStore.getAbsolutePath());
+        System.setProperty("javax.net.ssl.trustStorePassword", KEYSTORE_PASSWORD);
+
+        uas = new SipCall("jamesj", "127.0.0.1", "SIG_TEST_UAS", newTransports(UAS_PORT));
+        uas.setCallRegistry(new CallRegistry());
+
+        uac = new SipCall("myself", "127.0.0.1", "SIG_TEST_UAC", newTransports(UAC_PORT));
+        uac.setCallRegistry(new CallRegistry());
+        uac.setExitOnByeResponse(false);
+        uac.setCallEventListener(new CallEventListener() {
+            @Override
+            public void onInviteAnswered(final String callId, final Dialog dialog) {
+                CallResult result = results.get(callId);
+                if (result == null) return;
+                result.dialog = dialog;
+                result.answerThread = Thread.currentThread().getName();
+                result.answered.countDown();
+            }
+
+            @Override
+            public void onInviteFailed(final String callId, int statusCode) {
+                CallResult result = results.get(callId);
+                if (result == null) return;
+                result.failedCode = statusCode;
+                result.answered.countDown();
+            }
+
+            @Override
+            public void onByeCompleted(final String callId, int statusCode) {
+                CallResult result = results.get(callId);
+                if (result == null) return;
+                result.byeCode = statusCode;
+                result.byeThread = Thread.currentThread().getName();
+                result.byeCompleted.countDown();
+            }
+        });
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        if (uac != null) uac.stop();
+        if (uas != null) uas.stop();
+        for (String name : SSL_PROPERTIES) {
+            String value = savedProperties.get(name);
+            if (value == null) {
+                System.clearProperty(name);
+            } else {
+                System.setProperty(name, value);
+            }
+        }
+        if (keyStore != null && !keyStore.delete()) keyStore.deleteOnExit();
+    }
+
+    /**
+     * @fn public void callOverUdp()
+     * @brief UDP 로 INVITE/200/ACK/BYE 흐름이 끝나는지 확인
+     */
+    @Test
+    public void callOverUdp() throws InterruptedException {
+        assertCallCompletes("udp");
+    }
+
+    /**
+     * @fn public void callOverTcp()
+     * @brief TCP 로 INVITE/200/ACK/BYE 흐름이 끝나는지 확인
+     */
+    @Test
+    public void callOverTcp() throws InterruptedException {
+        assertCallCompletes("tcp");
+    }
+
+    /**
+     * @fn public void callOverTls()
+     * @brief TLS 로 INVITE/200/ACK/BYE 흐름이 끝나는지 확인
+     */
+    @Test
+    public void callOverTls() throws InterruptedException {
+        assertCallCompletes("tls");
+    }
+
+    /**
+     * @fn private static void assertCallCompletes(final String transport)
+     * @brief 지정한 전송으로 호를 맺고 끊은 후 양쪽 상태와 처리한 작업 쓰레드를 확인하는 함수
+     * 200 OK 와 BYE 의 200 OK 는 발신 측의 해당 전송 작업 쓰레드에서 처리되어야 하고,
+     * 착신 측은 ACK 와 BYE 를 받은 후 다이얼로그를 삭제해야 한다.
+     * @param transport 전송 프로토콜(입력, 읽기 전용)
+     * @return 반환값 없음
+     */
+    private static void assertCallCompletes(final String transport) throws InterruptedException {
+        assertTrue(uas.isListening(transport));
+        assertTrue(uac.isListening(transport));
+
+        long acks = countRequestsReceived(Request.ACK);
+        long byes = countRequestsReceived(Request.BYE);
+        String callId = "loopback-" + transport + "-" + System.nanoTime() + "@127.0.0.1";
+        CallResult result = new CallResult();
+        results.put(callId, result);
+
+        assertEquals(callId, RequestManager.getInstance().requestInvite(uac, "jamesj@127.0.0.1", uas.getTransportPorts().get(transport), transport, callId));
+        assertTrue("No answer over " + transport, result.answered.await(CALL_TIMEOUT, TimeUnit.MILLISECONDS));
+        assertEquals("Invite failed over " + transport, 0, result.failedCode);
+        assertNotNull(result.dialog);
+        assertTrue(result.answerThread, result.answerThread.startsWith("SipWorker-" + transport + "-"));
+
+        // 착신 측이 ACK 를 받아야 호가 성립한다.
+        awaitCount(Request.ACK, acks + 1);
+        assertTrue(uas.getCallRegistry().findDialog(callId));
+
+        assertTrue(RequestManager.getInstance().requestBye(uac, result.dialog));
+        assertTrue("No Bye response over " + transport, result.byeCompleted.await(CALL_TIMEOUT, TimeUnit.MILLISECONDS));
+        assertEquals(200, result.byeCode);
+        assertTrue(result.byeThread, result.byeThread.startsWith("SipWorker-" + transport + "-"));
+        assertTrue(countRequestsReceived(Request.BYE) > byes);
+
+        long deadline = System.currentTimeMillis() + CALL_TIMEOUT;
+        while (uas.getCallRegistry().findDialog(callId) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(uas.getCallRegistry().findDialog(callId));
+        assertFalse(uac.getCallRegistry().findDialog(callId));
+        results.remove(callId);
+    }
+
+    /**
+     * @fn private static void awaitCount(final String method, long expected)
+     * @brief 받은 요청 수가 기대값 이상이 될 때까지 기다리는 함수
+     * @param method   요청 Method(입력, 읽기 전용)
+     * @param expected 기대값(입력)
+     * @return 반환값 없음
+     */
+    private static void awaitCount(final String method, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + CALL_TIMEOUT;
+        while (countRequestsReceived(method) < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue("No " + method + " is received", countRequestsReceived(method) >= expected);
+    }
+
+    /**
+     * @fn private static long countRequestsReceived(final String method)
+     * @brief 지금까지 받은 요청 수를 반환하는 함수 (발신 측은 ACK 를 받지 않으므로 ACK 는 착신 측만 센다)
+     * @param method 요청 Method(입력, 읽기 전용)
+     * @return 받은 요청 수
+     */
+    private static long countRequestsReceived(final String method) {
+        Long count = SignalMetrics.getInstance().getRequestsReceived().get(method);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * @fn private static TransportConfig[] newTransports(int port)
+     * @brief UDP/TCP 는 지정한 포트, TLS 는 포트 + 1 로 수신하는 전송 설정 목록을 만드는 함수
+     * @param port UDP/TCP 포트(입력)
+     * @return 전송 설정 목록
+     */
+    private static TransportConfig[] newTransports(int port) {
+        return new TransportConfig[]{
+                new TransportConfig("udp", port, WORKER_THREADS, QUEUE_SIZE),
+                new TransportConfig("tcp", port, WORKER_THREADS, QUEUE_SIZE),
+                new TransportConfig("tls", port + 1, WORKER_THREADS, QUEUE_SIZE)};
+    }
+
+    /**
+     * @fn private static File newKeyStore()
+     * @brief 127.0.0.1 용 자체 서명 인증서를 담은 임시 keystore 를 keytool 로 만드는 함수
+     * @return keystore 파일
+     */
+    private static File newKeyStore() throws IOException, InterruptedException {
+        File file = File.createTempFile("sip-test", ".jks");
+        if (!file.delete()) throw new IOException("Fail to prepare keystore (" + file + ")");
+
+        String keytool = System.getProperty("java.home") + File.separator + "bin" + File.separator + "keytool";
+        Process process = new ProcessBuilder(keytool, "-genkeypair", "-alias", "sip", "-keyalg", "RSA", "-keysize", "2048",
+                "-validity", "1", "-dname", "CN=127.0.0.1", "-ext", "SAN=ip:127.0.0.1", "-storetype", "JKS",
+                "-keystore", file.getAbsolutePath(), "-storepass", KEYSTORE_PASSWORD, "-keypass", KEYSTORE_PASSWORD)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        if (process.waitFor() != 0 || !file.isFile()) throw new IOException("Fail to create keystore (" + file + ")");
+        return file;
+    }
+
+    /**
+     * @class private static class CallResult
+     * @brief 발신 호 하나의 결과
+     */
+    private static class CallResult {
+        /* 200 OK 또는 실패 응답 수신 알림 */
+        private final CountDownLatch answered = new CountDownLatch(1);
+        /* Bye 최종 응답 수신 알림 */
+        private final CountDownLatch byeCompleted = new CountDownLatch(1);
+        /* 설립된 다이얼로그 */
+        private volatile Dialog dialog;
+        /* 실패 응답 코드 (0 이면 실패 없음) */
+        private volatile int failedCode;
+        /* Bye 응답 코드 */
+        private volatile int byeCode;
+        /* 200 OK 를 처리한 쓰레드 이름 */
+        private volatile String answerThread;
+        /* Bye 응답을 처리한 쓰레드 이름 */
+        private volatile String byeThread;
+    }
+}